@@ -1,5 +1,7 @@
 package edu.iu.dsc.tws.dashboard.controllers;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +14,8 @@ import edu.iu.dsc.tws.dashboard.data_models.Worker;
 import edu.iu.dsc.tws.dashboard.data_models.WorkerState;
 import edu.iu.dsc.tws.dashboard.rest_models.StateChangeRequest;
 import edu.iu.dsc.tws.dashboard.rest_models.WorkerCreateRequest;
+import edu.iu.dsc.tws.dashboard.rest_models.WorkerMetricsRequest;
+import edu.iu.dsc.tws.dashboard.services.MetricsService;
 import edu.iu.dsc.tws.dashboard.services.WorkerService;
 
 @RestController
@@ -20,9 +24,12 @@ public class WorkerController {
 
   private final WorkerService workerService;
 
+  private final MetricsService metricsService;
+
   @Autowired
-  public WorkerController(WorkerService workerService) {
+  public WorkerController(WorkerService workerService, MetricsService metricsService) {
     this.workerService = workerService;
+    this.metricsService = metricsService;
   }
 
   @RequestMapping(value = "/", method = RequestMethod.GET)
@@ -56,6 +63,20 @@ public class WorkerController {
     this.workerService.heartbeat(jobId, workerId);
   }
 
+  @RequestMapping(value = "/{jobId}/{workerId}/metrics/", method = RequestMethod.POST,
+          consumes = MediaType.APPLICATION_JSON_VALUE)
+  public void updateMetrics(@PathVariable("jobId") String jobId,
+                            @PathVariable("workerId") Long workerId,
+                            @RequestBody WorkerMetricsRequest metricsRequest) {
+    this.metricsService.updateWorkerMetrics(jobId, workerId, metricsRequest);
+  }
+
+  @RequestMapping(value = "/{jobId}/{workerId}/metrics/", method = RequestMethod.GET)
+  public Map<String, Long> getMetrics(@PathVariable("jobId") String jobId,
+                                      @PathVariable("workerId") Long workerId) {
+    return this.metricsService.getWorkerMetrics(jobId, workerId);
+  }
+
   @RequestMapping(value = "/stats/", method = RequestMethod.GET)
   public Object getStateStats() {
     return this.workerService.getStateStats();
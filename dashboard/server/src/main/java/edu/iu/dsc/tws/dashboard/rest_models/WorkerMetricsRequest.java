@@ -0,0 +1,16 @@
+package edu.iu.dsc.tws.dashboard.rest_models;
+
+import java.util.Map;
+
+public class WorkerMetricsRequest {
+
+  private Map<String, Long> values;
+
+  public Map<String, Long> getValues() {
+    return values;
+  }
+
+  public void setValues(Map<String, Long> values) {
+    this.values = values;
+  }
+}
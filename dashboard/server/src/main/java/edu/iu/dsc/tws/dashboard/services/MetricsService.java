@@ -0,0 +1,32 @@
+package edu.iu.dsc.tws.dashboard.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import edu.iu.dsc.tws.dashboard.rest_models.WorkerMetricsRequest;
+
+/**
+ * Keeps the latest metrics reported by the workers. Metrics are replaced by every report,
+ * so they are kept in memory instead of the database.
+ */
+@Service
+public class MetricsService {
+
+  private final Map<String, Map<String, Long>> workerMetrics = new ConcurrentHashMap<>();
+
+  public void updateWorkerMetrics(String jobId, Long workerId,
+                                  WorkerMetricsRequest metricsRequest) {
+    this.workerMetrics.put(key(jobId, workerId), metricsRequest.getValues());
+  }
+
+  public Map<String, Long> getWorkerMetrics(String jobId, Long workerId) {
+    return this.workerMetrics.getOrDefault(key(jobId, workerId), Collections.emptyMap());
+  }
+
+  private static String key(String jobId, Long workerId) {
+    return jobId + "/" + workerId;
+  }
+}
@@ -87,6 +87,8 @@ def load_modules():
             "io.netty:netty-all:4.1.27.Final",
             "io.netty:netty-transport:4.1.27.Final",
             "io.netty:netty-transport-native-epoll:4.1.27.Final",
+            "org.openjdk.jmh:jmh-core:1.23",
+            "org.openjdk.jmh:jmh-generator-annprocess:1.23",
         ],
         repositories = [
             "https://repo1.maven.org/maven2",
@@ -145,9 +145,11 @@ def twister2_client_lib_api_files():
         "//twister2/api/src/java/edu/iu/dsc/tws/api/dataset:dataset-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/exceptions:exceptions-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/faulttolerance:fault-tolerance-api-java",
+        "//twister2/api/src/java/edu/iu/dsc/tws/api/metrics:metrics-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/net:network-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/resource:resource-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/scheduler:scheduler-api-java",
+        "//twister2/api/src/java/edu/iu/dsc/tws/api/state:state-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/driver:driver-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/compute:task-api-java",
         "//twister2/api/src/java/edu/iu/dsc/tws/api/tset:tset-api-java",
@@ -41,7 +41,9 @@ public interface Snapshot {
   void setPacker(String key, DataPacker dataPacker);
 
   /**
-   * This method can be used to set/update values into the snapshot
+   * This method can be used to set/update values into the snapshot. The value may be serialized
+   * by another thread after the checkpoint, so it should not be modified after it is set. Set a
+   * new value instead to update it.
    * @param key key
    * @param value value to add
    */
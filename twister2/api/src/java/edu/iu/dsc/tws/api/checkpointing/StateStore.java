@@ -24,7 +24,10 @@
 
 package edu.iu.dsc.tws.api.checkpointing;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import edu.iu.dsc.tws.api.config.Config;
 
@@ -63,4 +66,40 @@ public interface StateStore {
    * @throws IOException if an error occurs
    */
   boolean contains(String key) throws IOException;
+
+  /**
+   * Put the data read from a stream. Stores should override this to write the stream without
+   * keeping all the data in the memory
+   * @param key key
+   * @param data stream of the data, read until the end
+   * @throws IOException if an error occurs
+   */
+  default void putStream(String key, InputStream data) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = data.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    put(key, out.toByteArray());
+  }
+
+  /**
+   * Open a stream to read the value of the key. Stores should override this to read the value
+   * without keeping all of it in the memory
+   * @param key key
+   * @return the stream or null if the key is not in the store
+   * @throws IOException if an error occurs
+   */
+  default InputStream getStream(String key) throws IOException {
+    byte[] data = get(key);
+    return data != null ? new ByteArrayInputStream(data) : null;
+  }
+
+  /**
+   * Remove the key, nothing happens if the key is not in the store
+   * @param key key
+   * @throws IOException if an error occurs
+   */
+  void delete(String key) throws IOException;
 }
@@ -16,6 +16,7 @@ import java.util.Map;
 
 import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 
 public abstract class BaseOperation {
   /**
@@ -94,6 +95,30 @@ public abstract class BaseOperation {
     return this.op.send(src, barrierId, MessageFlags.SYNC_BARRIER);
   }
 
+  /**
+   * Send a watermark from a source. The watermark is sent after the messages already given to
+   * the operation by this source, and the targets receive the minimum of the watermarks of the
+   * sources sending to them. Operations that do not propagate watermarks ignore them.
+   *
+   * @param src the source
+   * @param watermark the event time, the source will not send messages older than this
+   * @return true if the watermark is accepted
+   */
+  public boolean sendWatermark(int src, long watermark) {
+    return true;
+  }
+
+  /**
+   * Send a watermark through the underlying operation
+   *
+   * @param src the source
+   * @param watermark the watermark
+   * @return true if the watermark is accepted
+   */
+  protected boolean sendWatermarkMessage(int src, long watermark) {
+    return this.op.send(src, Watermarks.toBytes(watermark), MessageFlags.SYNC_WATERMARK);
+  }
+
   /**
    * Wait for the operation to complete
    */
@@ -47,10 +47,59 @@ public class CommunicationContext extends Context {
   public static final String ALLTOALL_ALGO_SIMPLE = "simple";
   public static final String ALLTOALL_ALGO_RING = "ring";
 
+  /**
+   * The all reduce algorithm. The tree algorithm reduces to a single task and broadcasts the
+   * result. The other algorithms exchange segments of primitive arrays between the workers and
+   * require an element wise reduce function
+   */
+  public static final String ALLREDUCE_ALGO_KEY = "twister2.network.allreduce.algorithm";
+  public static final String ALLREDUCE_ALGO_TREE = "tree";
+  public static final String ALLREDUCE_ALGO_AUTO = "auto";
+  public static final String ALLREDUCE_ALGO_RING = "ring";
+  public static final String ALLREDUCE_ALGO_RECURSIVE_HALVING = "recursive_halving";
+
+  /**
+   * With the auto algorithm, arrays smaller than this are all reduced with recursive doubling
+   */
+  public static final String ALLREDUCE_SMALL_BYTES = "twister2.network.allreduce.small.bytes";
+
+  /**
+   * Array segments are sent in chunks of this size, so that reducing a chunk overlaps with
+   * receiving the next
+   */
+  public static final String ALLREDUCE_CHUNK_BYTES = "twister2.network.allreduce.chunk.bytes";
+
+  /**
+   * When the workers are spread over several nodes, reduce within the nodes first and only
+   * exchange segments between one worker per node
+   */
+  public static final String ALLREDUCE_HIERARCHICAL = "twister2.network.allreduce.hierarchical";
+
   public static final String BUFFER_SIZE = "twister2.network.buffer.size";
 
   public static final String SEND_BUFFERS_COUNT = "twister2.network.sendBuffer.count";
   public static final String RECEIVE_BUFFERS_COUNT = "twister2.network.receiveBuffer.count";
+  public static final String BUFFER_POOL_ENABLED = "twister2.network.buffer.pool.enabled";
+  public static final String BUFFER_POOL_MIN_BUFFER_SIZE =
+      "twister2.network.buffer.pool.min.size";
+  public static final String BUFFER_POOL_MAX_BYTES = "twister2.network.buffer.pool.bytes.max";
+  public static final String BUFFER_POOL_HIGH_WATERMARK =
+      "twister2.network.buffer.pool.high_water_mark";
+  public static final String BUFFER_POOL_LOW_WATERMARK =
+      "twister2.network.buffer.pool.low_water_mark";
+  public static final String BUFFER_POOL_EDGE_SEND_QUOTA =
+      "twister2.network.buffer.pool.edge.send.quota";
+  public static final String BUFFER_POOL_EDGE_RECEIVE_QUOTA =
+      "twister2.network.buffer.pool.edge.receive.quota";
+  public static final String BUFFER_POOL_RECEIVE_IDLE_TIME =
+      "twister2.network.buffer.pool.receive.idle.ms";
+  public static final String LOCAL_DIRECT_DELIVERY = "twister2.network.local.direct.delivery";
+  public static final String BROADCAST_PIPELINED = "twister2.network.broadcast.pipelined";
+  public static final String KEYED_LIMIT_PER_KEY = "twister2.network.keyed.limit.per.key";
+  public static final String KEYED_KEY_LIMIT = "twister2.network.keyed.key.limit";
+  public static final String KEYED_ADAPTIVE_FLUSH = "twister2.network.keyed.adaptive.flush";
+  public static final String KEYED_FLUSH_BYTES = "twister2.network.keyed.flush.bytes";
+  public static final String KEYED_MAX_KEY_LIMIT = "twister2.network.keyed.key.limit.max";
   public static final String SEND_PENDING_MAX = "twister2.network.send.pending.max";
   public static final String CHANNEL_PENDING_SIZE
       = "twister2.network.channel.pending.size";
@@ -70,6 +119,18 @@ public class CommunicationContext extends Context {
       "twister2.network.shuffle.file.bytes.max";
   public static final String SHUFFLE_PARALLEL_IO =
       "twister2.network.shuffle.parallel.io";
+  public static final String SHUFFLE_MERGE_FAN_IN =
+      "twister2.network.shuffle.merge.fan.in";
+  public static final String SHUFFLE_COMPRESSION_CODEC =
+      "twister2.network.shuffle.compression.codec";
+  public static final String SHUFFLE_COMPRESSION_BLOCK_SIZE =
+      "twister2.network.shuffle.compression.block.size";
+  public static final String COMPRESSION_CODEC = "twister2.network.compression.codec";
+  public static final String COMPRESSION_MIN_RATIO = "twister2.network.compression.min.ratio";
+  public static final String JOIN_HASH_MAX_BYTES_IN_MEMORY =
+      "twister2.network.join.hash.memory.bytes.max";
+  public static final String JOIN_HASH_PARTITIONS =
+      "twister2.network.join.hash.partitions";
   public static final String RING_GROUPING_WORKER_PER_GROUPS =
       "twister2.network.partition.ring.group.workers";
 
@@ -141,6 +202,22 @@ public class CommunicationContext extends Context {
     return getStringPropertyValue(cfg, ALLTOALL_ALGO_KEY, ALLTOALL_ALGO_RING);
   }
 
+  public static String allReduceAlgorithm(Config cfg) {
+    return getStringPropertyValue(cfg, ALLREDUCE_ALGO_KEY, ALLREDUCE_ALGO_TREE);
+  }
+
+  public static int allReduceSmallBytes(Config cfg) {
+    return getIntPropertyValue(cfg, ALLREDUCE_SMALL_BYTES, 65536);
+  }
+
+  public static int allReduceChunkBytes(Config cfg) {
+    return getIntPropertyValue(cfg, ALLREDUCE_CHUNK_BYTES, 1024 * 1024);
+  }
+
+  public static boolean isAllReduceHierarchical(Config cfg) {
+    return cfg.getBooleanValue(ALLREDUCE_HIERARCHICAL, true);
+  }
+
   public static int bufferSize(Config cfg) {
     return getIntPropertyValue(cfg, BUFFER_SIZE, 2048000);
   }
@@ -153,6 +230,66 @@ public class CommunicationContext extends Context {
     return getIntPropertyValue(cfg, RECEIVE_BUFFERS_COUNT, 32);
   }
 
+  public static boolean isBufferPoolEnabled(Config cfg) {
+    return cfg.getBooleanValue(BUFFER_POOL_ENABLED, false);
+  }
+
+  public static int bufferPoolMinBufferSize(Config cfg) {
+    return getIntPropertyValue(cfg, BUFFER_POOL_MIN_BUFFER_SIZE, 8192);
+  }
+
+  public static long bufferPoolMaxBytes(Config cfg) {
+    return getLongPropertyValue(cfg, BUFFER_POOL_MAX_BYTES, 1073741824L);
+  }
+
+  public static double bufferPoolHighWaterMark(Config cfg) {
+    return getDoublePropertyValue(cfg, BUFFER_POOL_HIGH_WATERMARK, 0.9);
+  }
+
+  public static double bufferPoolLowWaterMark(Config cfg) {
+    return getDoublePropertyValue(cfg, BUFFER_POOL_LOW_WATERMARK, 0.7);
+  }
+
+  public static int bufferPoolEdgeSendQuota(Config cfg) {
+    return getIntPropertyValue(cfg, BUFFER_POOL_EDGE_SEND_QUOTA, sendBuffersCount(cfg));
+  }
+
+  public static int bufferPoolEdgeReceiveQuota(Config cfg) {
+    return getIntPropertyValue(cfg, BUFFER_POOL_EDGE_RECEIVE_QUOTA, receiveBufferCount(cfg));
+  }
+
+  public static long bufferPoolReceiveIdleTime(Config cfg) {
+    return getLongPropertyValue(cfg, BUFFER_POOL_RECEIVE_IDLE_TIME, 100L);
+  }
+
+  public static boolean isLocalDirectDelivery(Config cfg) {
+    return cfg.getBooleanValue(LOCAL_DIRECT_DELIVERY, true);
+  }
+
+  public static boolean isBroadcastPipelined(Config cfg) {
+    return cfg.getBooleanValue(BROADCAST_PIPELINED, false);
+  }
+
+  public static int keyedLimitPerKey(Config cfg) {
+    return getIntPropertyValue(cfg, KEYED_LIMIT_PER_KEY, 100);
+  }
+
+  public static int keyedKeyLimit(Config cfg) {
+    return getIntPropertyValue(cfg, KEYED_KEY_LIMIT, 10);
+  }
+
+  public static boolean isKeyedAdaptiveFlush(Config cfg) {
+    return cfg.getBooleanValue(KEYED_ADAPTIVE_FLUSH, false);
+  }
+
+  public static long keyedFlushBytes(Config cfg) {
+    return getLongPropertyValue(cfg, KEYED_FLUSH_BYTES, bufferSize(cfg));
+  }
+
+  public static int keyedMaxKeyLimit(Config cfg) {
+    return getIntPropertyValue(cfg, KEYED_MAX_KEY_LIMIT, 65536);
+  }
+
   public static int sendPendingMax(Config cfg) {
     return getIntPropertyValue(cfg, SEND_PENDING_MAX, 16);
   }
@@ -189,6 +326,56 @@ public class CommunicationContext extends Context {
     return getIntPropertyValue(cfg, SHUFFLE_PARALLEL_IO, 1);
   }
 
+  /**
+   * Maximum number of files merged at once when reading the sorted shuffle files
+   */
+  public static int getShuffleMergeFanIn(Config cfg) {
+    return getIntPropertyValue(cfg, SHUFFLE_MERGE_FAN_IN, 64);
+  }
+
+  /**
+   * Codec used to compress the sorted shuffle files, none to disable
+   */
+  public static String getShuffleCompressionCodec(Config cfg) {
+    return getStringPropertyValue(cfg, SHUFFLE_COMPRESSION_CODEC, "none");
+  }
+
+  /**
+   * Size of the blocks compressed in the shuffle files
+   */
+  public static int getShuffleCompressionBlockSize(Config cfg) {
+    return getIntPropertyValue(cfg, SHUFFLE_COMPRESSION_BLOCK_SIZE, 64 * 1024);
+  }
+
+  /**
+   * Codec used to compress the buffers sent over the network, none to disable
+   */
+  public static String getCompressionCodec(Config cfg) {
+    return getStringPropertyValue(cfg, COMPRESSION_CODEC, "none");
+  }
+
+  /**
+   * A block is stored without compressing if the compressed size is not less than this fraction
+   * of the raw size
+   */
+  public static double getCompressionMinRatio(Config cfg) {
+    return getDoublePropertyValue(cfg, COMPRESSION_MIN_RATIO, 0.9);
+  }
+
+  /**
+   * Maximum bytes a disk based hash join keeps in memory before writing partitions to disk
+   */
+  public static long getJoinHashMaxBytesInMemory(Config cfg) {
+    return getLongPropertyValue(cfg, JOIN_HASH_MAX_BYTES_IN_MEMORY, 64L * 1024 * 1024);
+  }
+
+  /**
+   * Number of partitions created by a disk based hash join
+   */
+  public static int getJoinHashPartitions(Config cfg) {
+    return getIntPropertyValue(cfg, JOIN_HASH_PARTITIONS, 32);
+  }
+
   public static int getRingWorkersPerGroup(Config cfg) {
     return getIntPropertyValue(cfg, RING_GROUPING_WORKER_PER_GROUPS, 128);
   }
@@ -44,4 +44,16 @@ public interface SingularReceiver {
   default boolean sync(int target, byte[] message) {
     return true;
   }
+
+  /**
+   * The event time watermark of a target advanced. This is the minimum of the watermarks of
+   * all the sources sending to the target and every message sent before those watermarks is
+   * already received.
+   * @param target the target id
+   * @param watermark the new watermark
+   * @return true if the watermark is accepted
+   */
+  default boolean watermark(int target, long watermark) {
+    return true;
+  }
 }
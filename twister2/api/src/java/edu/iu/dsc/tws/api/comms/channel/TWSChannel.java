@@ -99,6 +99,16 @@ public interface TWSChannel {
    */
   boolean isComplete();
 
+  /**
+   * Number of sends and receives completed by the channel so far, an executor can use this to
+   * find out weather messages arrived since the last progress
+   *
+   * @return the number of completions or -1 if the channel does not count them
+   */
+  default long getCompletions() {
+    return -1;
+  }
+
   /**
    * Create a buffer
    * @param capacity capacity
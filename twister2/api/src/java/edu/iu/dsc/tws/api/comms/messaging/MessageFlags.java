@@ -44,4 +44,8 @@ public final class MessageFlags {
   public static final int ORIGIN_PARTIAL = 1 << 27;
   public static final int SYNC_EMPTY = 1 << 26;
   public static final int SYNC_BARRIER = 1 << 25;
+  /**
+   * A watermark, the payload is the event time as a long, see {@link Watermarks}
+   */
+  public static final int SYNC_WATERMARK = 1 << 24;
 }
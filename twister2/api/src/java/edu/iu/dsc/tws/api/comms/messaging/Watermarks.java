@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.messaging;
+
+import java.nio.ByteBuffer;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+/**
+ * Helpers for the watermark control messages. A watermark with time t sent by a source
+ * promises that the source is not going to send any more messages with an event time
+ * less than t. Watermarks travel with the {@link MessageFlags#SYNC_WATERMARK} flag and
+ * a payload of 8 bytes.
+ */
+public final class Watermarks {
+  /**
+   * Value used when no watermark is known
+   */
+  public static final long NONE = Long.MIN_VALUE;
+
+  private Watermarks() {
+  }
+
+  /**
+   * Encode a watermark to be sent as a message
+   *
+   * @param watermark the event time
+   * @return the payload
+   */
+  public static byte[] toBytes(long watermark) {
+    return ByteBuffer.allocate(Long.BYTES).putLong(watermark).array();
+  }
+
+  /**
+   * Decode a received watermark message, keyed operations deliver it as a tuple
+   *
+   * @param message the received message
+   * @return the event time
+   */
+  public static long fromMessage(Object message) {
+    Object value = message;
+    if (value instanceof Tuple) {
+      value = ((Tuple) value).getValue();
+    }
+    return ByteBuffer.wrap((byte[]) value).getLong();
+  }
+
+  /**
+   * Check weather the flags belong to a watermark
+   *
+   * @param flags message flags
+   * @return true if this is a watermark
+   */
+  public static boolean isWatermark(int flags) {
+    return (flags & MessageFlags.SYNC_WATERMARK) == MessageFlags.SYNC_WATERMARK;
+  }
+}
@@ -0,0 +1,311 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * A worker wide pool of data buffers shared by all the operations of the worker. Buffers are
+ * grouped in to power of two size classes between the minimum buffer size and the network
+ * buffer size, so that small messages do not have to occupy full sized buffers.
+ *
+ * Each edge draws buffers from the pool through a {@link PooledBufferQueue} which enforces a
+ * per edge quota. Send allocations are throttled using high and low watermarks on the bytes
+ * in use, receive allocations are only limited by the quota so that we never block the
+ * progress of the remote senders.
+ */
+public final class DataBufferPool {
+  private static final Logger LOG = Logger.getLogger(DataBufferPool.class.getName());
+
+  private static volatile DataBufferPool bufferPool;
+
+  /**
+   * The free buffers, indexed by the size class
+   */
+  private final Queue<DataBuffer>[] freeBuffers;
+
+  /**
+   * Capacity of each size class
+   */
+  private final int[] classCapacities;
+
+  /**
+   * Bytes handed out and not yet returned
+   */
+  private final AtomicLong bytesInUse = new AtomicLong(0);
+
+  /**
+   * Bytes allocated by the pool, including free buffers
+   */
+  private final AtomicLong bytesAllocated = new AtomicLong(0);
+
+  /**
+   * Bytes in use per edge
+   */
+  private final Map<Integer, AtomicLong> edgeBytesInUse = new ConcurrentHashMap<>();
+
+  /**
+   * Maximum number of bytes the pool can allocate
+   */
+  private final long maxBytes;
+
+  /**
+   * When bytes in use goes above this, we stop giving out send buffers
+   */
+  private final long highWaterMark;
+
+  /**
+   * We start giving out send buffers again after bytes in use goes below this
+   */
+  private final long lowWaterMark;
+
+  /**
+   * Weather the send allocations are paused due to the high watermark
+   */
+  private volatile boolean paused = false;
+
+  /**
+   * The function used to create the byte buffers
+   */
+  private final IntFunction<ByteBuffer> allocator;
+
+  private DataBufferPool(int minSize, int maxSize, long maxBytes,
+                         long highWaterMark, long lowWaterMark,
+                         IntFunction<ByteBuffer> allocator) {
+    int classes = 1;
+    int size = minSize;
+    while (size < maxSize) {
+      size = size << 1;
+      classes++;
+    }
+
+    this.classCapacities = new int[classes];
+    this.freeBuffers = new Queue[classes];
+    size = minSize;
+    for (int i = 0; i < classes; i++) {
+      classCapacities[i] = Math.min(size, maxSize);
+      freeBuffers[i] = new ConcurrentLinkedQueue<>();
+      size = size << 1;
+    }
+    this.maxBytes = maxBytes;
+    this.highWaterMark = highWaterMark;
+    this.lowWaterMark = lowWaterMark;
+    this.allocator = allocator;
+  }
+
+  /**
+   * Initialize the worker wide buffer pool. Only the first call creates the pool.
+   *
+   * @param cfg configuration
+   * @param allocator the function used to create the underlying byte buffers, usually
+   * {@link edu.iu.dsc.tws.api.comms.channel.TWSChannel#createBuffer(int)}
+   * @return the pool
+   */
+  public static synchronized DataBufferPool init(Config cfg, IntFunction<ByteBuffer> allocator) {
+    if (bufferPool == null) {
+      bufferPool = create(cfg, allocator);
+    }
+    return bufferPool;
+  }
+
+  /**
+   * Create a pool that is not shared through {@link #getInstance()}
+   *
+   * @param cfg configuration
+   * @param allocator the function used to create the underlying byte buffers
+   * @return a new pool
+   */
+  public static DataBufferPool create(Config cfg, IntFunction<ByteBuffer> allocator) {
+    int maxSize = CommunicationContext.bufferSize(cfg);
+    int minSize = Math.min(CommunicationContext.bufferPoolMinBufferSize(cfg), maxSize);
+    long maxBytes = CommunicationContext.bufferPoolMaxBytes(cfg);
+    long high = (long) (maxBytes * CommunicationContext.bufferPoolHighWaterMark(cfg));
+    long low = (long) (maxBytes * CommunicationContext.bufferPoolLowWaterMark(cfg));
+    LOG.fine(String.format("Created buffer pool with size classes %d - %d, max bytes %d",
+        minSize, maxSize, maxBytes));
+    return new DataBufferPool(minSize, maxSize, maxBytes, high, low, allocator);
+  }
+
+  /**
+   * Get the pool, {@link #init(Config, IntFunction)} should be called before
+   *
+   * @return the buffer pool
+   */
+  public static DataBufferPool getInstance() {
+    if (bufferPool == null) {
+      throw new RuntimeException("The data buffer pool has not been initialized");
+    }
+    return bufferPool;
+  }
+
+  /**
+   * Acquire a buffer for sending. Returns null if the pool is above the high watermark or
+   * we cannot allocate more memory.
+   *
+   * @param edge the edge
+   * @param minCapacity minimum capacity required
+   * @return a cleared buffer or null
+   */
+  public DataBuffer acquireSend(int edge, int minCapacity) {
+    if (paused) {
+      if (bytesInUse.get() > lowWaterMark) {
+        return null;
+      }
+      paused = false;
+    }
+    return acquire(edge, minCapacity);
+  }
+
+  /**
+   * Acquire a buffer for receiving. This is not subjected to the watermarks.
+   *
+   * @param edge the edge
+   * @param minCapacity minimum capacity required
+   * @return a cleared buffer or null
+   */
+  public DataBuffer acquireReceive(int edge, int minCapacity) {
+    return acquire(edge, minCapacity);
+  }
+
+  private DataBuffer acquire(int edge, int minCapacity) {
+    int sizeClass = sizeClass(minCapacity);
+    // buffers larger than the largest class are allocated with the exact size and not reused
+    int capacity = sizeClass >= 0 ? classCapacities[sizeClass] : minCapacity;
+
+    DataBuffer buffer = sizeClass >= 0 ? freeBuffers[sizeClass].poll() : null;
+    if (buffer == null) {
+      if (bytesAllocated.get() + capacity > maxBytes && !trim(sizeClass, capacity)) {
+        return null;
+      }
+      bytesAllocated.addAndGet(capacity);
+      buffer = new DataBuffer(allocator.apply(capacity));
+    }
+    buffer.getByteBuffer().clear();
+    buffer.setSize(0);
+
+    long inUse = bytesInUse.addAndGet(capacity);
+    edgeBytesInUse.computeIfAbsent(edge, e -> new AtomicLong()).addAndGet(capacity);
+    if (inUse >= highWaterMark) {
+      paused = true;
+    }
+    return buffer;
+  }
+
+  /**
+   * Return a buffer to the pool
+   *
+   * @param edge the edge which acquired the buffer
+   * @param buffer the buffer
+   */
+  public void release(int edge, DataBuffer buffer) {
+    int capacity = buffer.getCapacity();
+    bytesInUse.addAndGet(-capacity);
+    AtomicLong edgeBytes = edgeBytesInUse.get(edge);
+    if (edgeBytes != null) {
+      edgeBytes.addAndGet(-capacity);
+    }
+
+    int sizeClass = sizeClass(capacity);
+    if (sizeClass >= 0 && classCapacities[sizeClass] == capacity) {
+      buffer.getByteBuffer().clear();
+      freeBuffers[sizeClass].offer(buffer);
+    } else {
+      // this is not a buffer we created, let the gc collect it
+      bytesAllocated.addAndGet(-capacity);
+    }
+  }
+
+  /**
+   * Forget about the buffers an edge holds without returning them. This is used when an
+   * edge is closed while the channel still holds some of its buffers.
+   *
+   * @param edge the edge
+   * @param bytes number of bytes to forget
+   */
+  public void discard(int edge, long bytes) {
+    bytesInUse.addAndGet(-bytes);
+    bytesAllocated.addAndGet(-bytes);
+    AtomicLong edgeBytes = edgeBytesInUse.get(edge);
+    if (edgeBytes != null) {
+      edgeBytes.addAndGet(-bytes);
+    }
+  }
+
+  /**
+   * Release free buffers of other size classes so that we can allocate the requested capacity
+   *
+   * @param sizeClass the size class we are trying to allocate
+   * @param capacity the capacity needed
+   * @return true if enough memory is released
+   */
+  private boolean trim(int sizeClass, int capacity) {
+    for (int i = freeBuffers.length - 1; i >= 0; i--) {
+      if (i == sizeClass) {
+        continue;
+      }
+      DataBuffer free;
+      while (bytesAllocated.get() + capacity > maxBytes
+          && (free = freeBuffers[i].poll()) != null) {
+        bytesAllocated.addAndGet(-free.getCapacity());
+      }
+      if (bytesAllocated.get() + capacity <= maxBytes) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int sizeClass(int capacity) {
+    for (int i = 0; i < classCapacities.length; i++) {
+      if (classCapacities[i] >= capacity) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The largest buffer size kept in the pool
+   *
+   * @return the maximum pooled buffer capacity
+   */
+  public int getMaxBufferSize() {
+    return classCapacities[classCapacities.length - 1];
+  }
+
+  public long getBytesInUse() {
+    return bytesInUse.get();
+  }
+
+  public long getBytesAllocated() {
+    return bytesAllocated.get();
+  }
+
+  public long getEdgeBytesInUse(int edge) {
+    AtomicLong bytes = edgeBytesInUse.get(edge);
+    return bytes != null ? bytes.get() : 0;
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+}
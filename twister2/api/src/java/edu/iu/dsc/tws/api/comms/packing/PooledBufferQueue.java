@@ -0,0 +1,184 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing;
+
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A view of the {@link DataBufferPool} used by a single edge. Polling this queue acquires a buffer
+ * from the pool and offering a buffer returns it to the pool. The queue does not hold any buffers,
+ * so idle edges do not keep memory. The number of buffers an edge can hold at a time is limited
+ * by the quota.
+ *
+ * For sends the size of the buffers adapts to the sizes of the serialized messages, so that small
+ * messages use small buffers. Receive buffers are always of the maximum size as we do not know the
+ * size of the incoming messages.
+ */
+public class PooledBufferQueue extends AbstractQueue<DataBuffer> {
+  /**
+   * The pool
+   */
+  private final DataBufferPool pool;
+
+  /**
+   * The edge
+   */
+  private final int edge;
+
+  /**
+   * Weather this is used for sending
+   */
+  private final boolean send;
+
+  /**
+   * Maximum number of buffers this edge can hold
+   */
+  private final int quota;
+
+  /**
+   * Number of buffers given out
+   */
+  private final AtomicInteger outstanding = new AtomicInteger(0);
+
+  /**
+   * Number of bytes given out
+   */
+  private final AtomicLong outstandingBytes = new AtomicLong(0);
+
+  /**
+   * The buffer size of the operation, receive buffers are always of this size
+   */
+  private final int bufferSize;
+
+  /**
+   * The buffer size we are going to request for the next send
+   */
+  private volatile int sizeHint;
+
+  /**
+   * After the edge is closed, the buffers given back by the channel are dropped
+   */
+  private volatile boolean closed;
+
+  public PooledBufferQueue(DataBufferPool pool, int edge, boolean send,
+                           int quota, int bufferSize) {
+    this.pool = pool;
+    this.edge = edge;
+    this.send = send;
+    this.quota = quota;
+    this.bufferSize = bufferSize;
+    this.sizeHint = bufferSize;
+  }
+
+  @Override
+  public boolean offer(DataBuffer buffer) {
+    synchronized (this) {
+      if (closed) {
+        // the pool already forgot this buffer, let the gc collect it
+        return true;
+      }
+      outstanding.decrementAndGet();
+      outstandingBytes.addAndGet(-buffer.getCapacity());
+    }
+    if (send) {
+      updateSizeHint(buffer);
+    }
+    pool.release(edge, buffer);
+    return true;
+  }
+
+  @Override
+  public DataBuffer poll() {
+    if (closed) {
+      return null;
+    }
+    if (outstanding.incrementAndGet() > quota) {
+      outstanding.decrementAndGet();
+      return null;
+    }
+
+    DataBuffer buffer = send ? pool.acquireSend(edge, sizeHint)
+        : pool.acquireReceive(edge, bufferSize);
+    if (buffer == null) {
+      outstanding.decrementAndGet();
+      return null;
+    }
+    synchronized (this) {
+      if (!closed) {
+        outstandingBytes.addAndGet(buffer.getCapacity());
+        return buffer;
+      }
+    }
+    pool.release(edge, buffer);
+    return null;
+  }
+
+  @Override
+  public DataBuffer peek() {
+    return null;
+  }
+
+  /**
+   * The number of buffers we can still acquire from the pool
+   */
+  @Override
+  public int size() {
+    if (send && pool.isPaused()) {
+      return 0;
+    }
+    return Math.max(quota - outstanding.get(), 0);
+  }
+
+  @Override
+  public Iterator<DataBuffer> iterator() {
+    return Collections.emptyIterator();
+  }
+
+  /**
+   * Grow the buffer size if the previous buffer was filled, otherwise shrink it towards the used
+   * size of the buffer
+   */
+  private void updateSizeHint(DataBuffer buffer) {
+    int used = buffer.getSize();
+    int capacity = buffer.getCapacity();
+    if (used >= capacity - (capacity >> 3)) {
+      sizeHint = Math.min(capacity << 1, bufferSize);
+    } else {
+      sizeHint = Math.min(Math.max(used, sizeHint - (sizeHint >> 2)), bufferSize);
+    }
+  }
+
+  /**
+   * Forget the buffers still held by others, i.e. receives posted to the channel when the edge
+   * is closed. The buffers the channel gives back after this are dropped instead of returned to
+   * the pool, so they are not counted twice.
+   */
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    long bytes = outstandingBytes.getAndSet(0);
+    outstanding.set(0);
+    if (bytes > 0) {
+      pool.discard(edge, bytes);
+    }
+  }
+
+  public int getEdge() {
+    return edge;
+  }
+}
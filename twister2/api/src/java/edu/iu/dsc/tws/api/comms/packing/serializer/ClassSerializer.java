@@ -0,0 +1,48 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing.serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes objects of a single class directly to a {@link ByteBuffer} without creating
+ * intermediate byte arrays. Implementations should be stateless.
+ *
+ * @param <T> the class
+ */
+public interface ClassSerializer<T> {
+
+  /**
+   * Number of bytes needed to write the object
+   *
+   * @param object the object
+   * @return number of bytes or -1 if the object contains values we cannot serialize
+   */
+  int length(T object);
+
+  /**
+   * Write the object to the buffer starting from its current position. The buffer should have
+   * enough space to hold {@link #length(Object)} bytes.
+   *
+   * @param object the object
+   * @param buffer the buffer
+   */
+  void write(T object, ByteBuffer buffer);
+
+  /**
+   * Read an object from the current position of the buffer
+   *
+   * @param buffer the buffer
+   * @return the object
+   */
+  T read(ByteBuffer buffer);
+}
@@ -0,0 +1,211 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing.serializer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Serializes the fields of a class using cached method handles. Primitive fields are written
+ * directly, other fields are written as typed values through the {@link SerializerRegistry}.
+ *
+ * @param <T> the class
+ */
+public class FieldSerializer<T> implements ClassSerializer<T> {
+  /**
+   * The no argument constructor
+   */
+  private final MethodHandle constructor;
+
+  /**
+   * The fields in the order they are written
+   */
+  private final FieldAccessor[] fields;
+
+  /**
+   * Number of bytes used by primitive fields
+   */
+  private final int primitiveLength;
+
+  /**
+   * The registry used for non primitive fields
+   */
+  private final SerializerRegistry registry;
+
+  public FieldSerializer(Class<T> clazz, SerializerRegistry registry)
+      throws NoSuchMethodException, IllegalAccessException {
+    this.registry = registry;
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    Constructor<T> declaredConstructor = clazz.getDeclaredConstructor();
+    declaredConstructor.setAccessible(true);
+    this.constructor = lookup.unreflectConstructor(declaredConstructor);
+
+    List<Field> allFields = new ArrayList<>();
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      List<Field> declared = new ArrayList<>();
+      for (Field f : c.getDeclaredFields()) {
+        int modifiers = f.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+          declared.add(f);
+        }
+      }
+      // sort to make sure every jvm writes the fields in the same order
+      declared.sort(Comparator.comparing(Field::getName));
+      allFields.addAll(0, declared);
+    }
+
+    this.fields = new FieldAccessor[allFields.size()];
+    int primitiveBytes = 0;
+    for (int i = 0; i < fields.length; i++) {
+      Field f = allFields.get(i);
+      f.setAccessible(true);
+      fields[i] = new FieldAccessor(f.getType(), lookup.unreflectGetter(f),
+          lookup.unreflectSetter(f));
+      primitiveBytes += primitiveSize(f.getType());
+    }
+    this.primitiveLength = primitiveBytes;
+  }
+
+  @Override
+  public int length(T object) {
+    int length = primitiveLength;
+    for (FieldAccessor f : fields) {
+      if (!f.type.isPrimitive()) {
+        int valueLength = registry.valueLength(f.get(object));
+        if (valueLength < 0) {
+          return -1;
+        }
+        length += valueLength;
+      }
+    }
+    return length;
+  }
+
+  @Override
+  public void write(T object, ByteBuffer buffer) {
+    for (FieldAccessor f : fields) {
+      Class<?> type = f.type;
+      Object value = f.get(object);
+      if (type == int.class) {
+        buffer.putInt((Integer) value);
+      } else if (type == long.class) {
+        buffer.putLong((Long) value);
+      } else if (type == double.class) {
+        buffer.putDouble((Double) value);
+      } else if (type == float.class) {
+        buffer.putFloat((Float) value);
+      } else if (type == boolean.class) {
+        buffer.put((byte) ((Boolean) value ? 1 : 0));
+      } else if (type == byte.class) {
+        buffer.put((Byte) value);
+      } else if (type == short.class) {
+        buffer.putShort((Short) value);
+      } else if (type == char.class) {
+        buffer.putChar((Character) value);
+      } else {
+        registry.writeValue(value, buffer);
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T read(ByteBuffer buffer) {
+    T object;
+    try {
+      object = (T) constructor.invoke();
+    } catch (Throwable t) {
+      throw new IllegalStateException("Failed to create object", t);
+    }
+    for (FieldAccessor f : fields) {
+      Class<?> type = f.type;
+      if (type == int.class) {
+        f.set(object, buffer.getInt());
+      } else if (type == long.class) {
+        f.set(object, buffer.getLong());
+      } else if (type == double.class) {
+        f.set(object, buffer.getDouble());
+      } else if (type == float.class) {
+        f.set(object, buffer.getFloat());
+      } else if (type == boolean.class) {
+        f.set(object, buffer.get() == 1);
+      } else if (type == byte.class) {
+        f.set(object, buffer.get());
+      } else if (type == short.class) {
+        f.set(object, buffer.getShort());
+      } else if (type == char.class) {
+        f.set(object, buffer.getChar());
+      } else {
+        f.set(object, registry.readValue(buffer));
+      }
+    }
+    return object;
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == int.class || type == float.class) {
+      return Integer.BYTES;
+    } else if (type == long.class || type == double.class) {
+      return Long.BYTES;
+    } else if (type == short.class || type == char.class) {
+      return Short.BYTES;
+    } else if (type == boolean.class || type == byte.class) {
+      return Byte.BYTES;
+    }
+    return 0;
+  }
+
+  private static final class FieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class,
+        Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class,
+        Object.class, Object.class);
+
+    private final Class<?> type;
+
+    private final MethodHandle getter;
+
+    private final MethodHandle setter;
+
+    private FieldAccessor(Class<?> type, MethodHandle getter, MethodHandle setter) {
+      this.type = type;
+      this.getter = getter.asType(GETTER_TYPE);
+      this.setter = setter.asType(SETTER_TYPE);
+    }
+
+    private Object get(Object object) {
+      try {
+        return getter.invokeExact(object);
+      } catch (Throwable t) {
+        throw new IllegalStateException("Failed to read field", t);
+      }
+    }
+
+    private void set(Object object, Object value) {
+      try {
+        setter.invokeExact(object, value);
+      } catch (Throwable t) {
+        throw new IllegalStateException("Failed to write field", t);
+      }
+    }
+  }
+}
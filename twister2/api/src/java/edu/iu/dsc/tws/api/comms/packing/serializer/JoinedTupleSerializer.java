@@ -0,0 +1,53 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing.serializer;
+
+import java.nio.ByteBuffer;
+
+import edu.iu.dsc.tws.api.comms.structs.JoinedTuple;
+
+/**
+ * Serializer for {@link JoinedTuple}, the key and the two values are written as typed values
+ */
+public class JoinedTupleSerializer implements ClassSerializer<JoinedTuple> {
+  private final SerializerRegistry registry;
+
+  public JoinedTupleSerializer(SerializerRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public int length(JoinedTuple tuple) {
+    int keyLength = registry.valueLength(tuple.getKey());
+    int leftLength = registry.valueLength(tuple.getLeftValue());
+    int rightLength = registry.valueLength(tuple.getRightValue());
+    if (keyLength < 0 || leftLength < 0 || rightLength < 0) {
+      return -1;
+    }
+    return keyLength + leftLength + rightLength;
+  }
+
+  @Override
+  public void write(JoinedTuple tuple, ByteBuffer buffer) {
+    registry.writeValue(tuple.getKey(), buffer);
+    registry.writeValue(tuple.getLeftValue(), buffer);
+    registry.writeValue(tuple.getRightValue(), buffer);
+  }
+
+  @Override
+  public JoinedTuple read(ByteBuffer buffer) {
+    Object key = registry.readValue(buffer);
+    Object left = registry.readValue(buffer);
+    Object right = registry.readValue(buffer);
+    return new JoinedTuple<>(key, left, right);
+  }
+}
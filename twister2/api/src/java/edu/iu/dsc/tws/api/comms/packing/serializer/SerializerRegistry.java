@@ -0,0 +1,506 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing.serializer;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.structs.JoinedTuple;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+/**
+ * Keeps the {@link ClassSerializer}s used for objects. {@link Tuple} and {@link JoinedTuple} have
+ * dedicated serializers, serializers for user classes are created the first time we see them
+ * and cached. A user class is supported if it has a no argument constructor and is not a JDK
+ * class.
+ *
+ * Values are written with a one byte tag identifying their type. Objects of classes registered
+ * with an id are written with the id followed by the fields, other objects are written with
+ * their class name. Every worker should register the same classes with the same ids. Strings are
+ * written in UTF-8 after their length in bytes.
+ */
+public final class SerializerRegistry {
+  private static final Logger LOG = Logger.getLogger(SerializerRegistry.class.getName());
+
+  static final byte NULL = 0;
+  static final byte BOOLEAN = 1;
+  static final byte BYTE = 2;
+  static final byte SHORT = 3;
+  static final byte CHAR = 4;
+  static final byte INTEGER = 5;
+  static final byte LONG = 6;
+  static final byte FLOAT = 7;
+  static final byte DOUBLE = 8;
+  static final byte STRING = 9;
+  static final byte BYTE_ARRAY = 10;
+  static final byte INTEGER_ARRAY = 11;
+  static final byte LONG_ARRAY = 12;
+  static final byte FLOAT_ARRAY = 13;
+  static final byte DOUBLE_ARRAY = 14;
+  static final byte OBJECT = 15;
+  static final byte REGISTERED_OBJECT = 16;
+
+  /**
+   * Ids below this are used by the serializers of the framework classes
+   */
+  public static final int FIRST_USER_ID = 16;
+
+  private static final int TUPLE_ID = 1;
+  private static final int JOINED_TUPLE_ID = 2;
+
+  private static final SerializerRegistry INSTANCE = new SerializerRegistry();
+
+  /**
+   * Place holder for classes we cannot serialize
+   */
+  private static final ClassEntry UNSUPPORTED = new ClassEntry(null, null, 0);
+
+  /**
+   * Serializers by class
+   */
+  private final Map<Class<?>, ClassEntry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Serializers by class name, used when reading
+   */
+  private final Map<String, ClassEntry> entriesByName = new ConcurrentHashMap<>();
+
+  /**
+   * Serializers by registered id, used when reading
+   */
+  private final Map<Integer, ClassEntry> entriesById = new ConcurrentHashMap<>();
+
+  private SerializerRegistry() {
+    registerEntry(new ClassEntry(Tuple.class, new TupleSerializer(this), TUPLE_ID));
+    registerEntry(new ClassEntry(JoinedTuple.class, new JoinedTupleSerializer(this),
+        JOINED_TUPLE_ID));
+  }
+
+  public static SerializerRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Register a serializer for a class
+   *
+   * @param clazz the class
+   * @param serializer serializer
+   */
+  public <T> void register(Class<T> clazz, ClassSerializer<T> serializer) {
+    registerEntry(new ClassEntry(clazz, serializer, 0));
+  }
+
+  /**
+   * Register a serializer for a class with an id, the objects are written with the id instead
+   * of the class name
+   *
+   * @param clazz the class
+   * @param serializer serializer
+   * @param id the id, should be at least {@link #FIRST_USER_ID} and fit in a short
+   */
+  public <T> void register(Class<T> clazz, ClassSerializer<T> serializer, int id) {
+    if (id < FIRST_USER_ID || id > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid serializer id " + id + " for class: "
+          + clazz.getName());
+    }
+    ClassEntry existing = entriesById.get(id);
+    if (existing != null && existing.clazz != clazz) {
+      throw new IllegalArgumentException("Serializer id " + id + " is used by class: "
+          + existing.clazz.getName());
+    }
+    registerEntry(new ClassEntry(clazz, serializer, id));
+  }
+
+  /**
+   * Register a class with an id, the fields are written using a {@link FieldSerializer}
+   *
+   * @param clazz the class
+   * @param id the id, should be at least {@link #FIRST_USER_ID} and fit in a short
+   */
+  public <T> void register(Class<T> clazz, int id) {
+    try {
+      register(clazz, new FieldSerializer<>(clazz, this), id);
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      throw new IllegalArgumentException("Cannot create a field serializer for "
+          + clazz.getName(), e);
+    }
+  }
+
+  private void registerEntry(ClassEntry entry) {
+    entries.put(entry.clazz, entry);
+    entriesByName.put(entry.clazz.getName(), entry);
+    if (entry.id > 0) {
+      entriesById.put(entry.id, entry);
+    }
+  }
+
+  /**
+   * Get the serializer of a class, creating one if the class is supported
+   *
+   * @param clazz the class
+   * @return the serializer or null if the class is not supported
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ClassSerializer<T> get(Class<T> clazz) {
+    ClassEntry entry = entry(clazz);
+    return entry == UNSUPPORTED ? null : (ClassSerializer<T>) entry.serializer;
+  }
+
+  private ClassEntry entry(Class<?> clazz) {
+    ClassEntry entry = entries.get(clazz);
+    if (entry == null) {
+      entry = create(clazz);
+      entries.put(clazz, entry);
+      if (entry != UNSUPPORTED) {
+        entriesByName.put(clazz.getName(), entry);
+      }
+    }
+    return entry;
+  }
+
+  private ClassEntry create(Class<?> clazz) {
+    if (!isCandidate(clazz)) {
+      return UNSUPPORTED;
+    }
+    try {
+      return new ClassEntry(clazz, new FieldSerializer<>(clazz, this), 0);
+    } catch (IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+      LOG.log(Level.FINE, "Cannot create a field serializer for " + clazz.getName(), e);
+      return UNSUPPORTED;
+    }
+  }
+
+  private static boolean isCandidate(Class<?> clazz) {
+    if (clazz.isPrimitive() || clazz.isArray() || clazz.isInterface() || clazz.isEnum()
+        || clazz.isAnonymousClass() || Modifier.isAbstract(clazz.getModifiers())) {
+      return false;
+    }
+    String name = clazz.getName();
+    return !(name.startsWith("java.") || name.startsWith("javax.")
+        || name.startsWith("sun.") || name.startsWith("com.sun."));
+  }
+
+  /**
+   * Number of bytes needed to write a value with its type
+   *
+   * @param value the value
+   * @return number of bytes, -1 if the value is not supported
+   */
+  @SuppressWarnings("unchecked")
+  public int valueLength(Object value) {
+    if (value == null) {
+      return 1;
+    }
+    Class<?> clazz = value.getClass();
+    if (clazz == Integer.class || clazz == Float.class) {
+      return 1 + Integer.BYTES;
+    } else if (clazz == Long.class || clazz == Double.class) {
+      return 1 + Long.BYTES;
+    } else if (clazz == String.class) {
+      return 1 + Integer.BYTES + stringLength((String) value);
+    } else if (clazz == Boolean.class || clazz == Byte.class) {
+      return 1 + Byte.BYTES;
+    } else if (clazz == Short.class || clazz == Character.class) {
+      return 1 + Short.BYTES;
+    } else if (clazz == byte[].class) {
+      return 1 + Integer.BYTES + ((byte[]) value).length;
+    } else if (clazz == int[].class) {
+      return 1 + Integer.BYTES + ((int[]) value).length * Integer.BYTES;
+    } else if (clazz == long[].class) {
+      return 1 + Integer.BYTES + ((long[]) value).length * Long.BYTES;
+    } else if (clazz == float[].class) {
+      return 1 + Integer.BYTES + ((float[]) value).length * Float.BYTES;
+    } else if (clazz == double[].class) {
+      return 1 + Integer.BYTES + ((double[]) value).length * Double.BYTES;
+    }
+
+    ClassEntry entry = entry(clazz);
+    if (entry == UNSUPPORTED) {
+      return -1;
+    }
+    int length = entry.serializer.length(value);
+    if (length < 0) {
+      return -1;
+    }
+    if (entry.id > 0) {
+      return 1 + Short.BYTES + length;
+    }
+    return 1 + Short.BYTES + entry.name.length + length;
+  }
+
+  /**
+   * Write a value with its type. {@link #valueLength(Object)} should be called before to make
+   * sure the value is supported.
+   *
+   * @param value the value
+   * @param buffer the buffer
+   */
+  @SuppressWarnings("unchecked")
+  public void writeValue(Object value, ByteBuffer buffer) {
+    if (value == null) {
+      buffer.put(NULL);
+      return;
+    }
+    Class<?> clazz = value.getClass();
+    if (clazz == Integer.class) {
+      buffer.put(INTEGER).putInt((Integer) value);
+    } else if (clazz == Long.class) {
+      buffer.put(LONG).putLong((Long) value);
+    } else if (clazz == Double.class) {
+      buffer.put(DOUBLE).putDouble((Double) value);
+    } else if (clazz == Float.class) {
+      buffer.put(FLOAT).putFloat((Float) value);
+    } else if (clazz == String.class) {
+      buffer.put(STRING);
+      writeString((String) value, buffer);
+    } else if (clazz == Boolean.class) {
+      buffer.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+    } else if (clazz == Byte.class) {
+      buffer.put(BYTE).put((Byte) value);
+    } else if (clazz == Short.class) {
+      buffer.put(SHORT).putShort((Short) value);
+    } else if (clazz == Character.class) {
+      buffer.put(CHAR).putChar((Character) value);
+    } else if (clazz == byte[].class) {
+      byte[] array = (byte[]) value;
+      buffer.put(BYTE_ARRAY).putInt(array.length).put(array);
+    } else if (clazz == int[].class) {
+      int[] array = (int[]) value;
+      buffer.put(INTEGER_ARRAY).putInt(array.length);
+      for (int v : array) {
+        buffer.putInt(v);
+      }
+    } else if (clazz == long[].class) {
+      long[] array = (long[]) value;
+      buffer.put(LONG_ARRAY).putInt(array.length);
+      for (long v : array) {
+        buffer.putLong(v);
+      }
+    } else if (clazz == float[].class) {
+      float[] array = (float[]) value;
+      buffer.put(FLOAT_ARRAY).putInt(array.length);
+      for (float v : array) {
+        buffer.putFloat(v);
+      }
+    } else if (clazz == double[].class) {
+      double[] array = (double[]) value;
+      buffer.put(DOUBLE_ARRAY).putInt(array.length);
+      for (double v : array) {
+        buffer.putDouble(v);
+      }
+    } else {
+      ClassEntry entry = entry(clazz);
+      if (entry == UNSUPPORTED) {
+        throw new IllegalArgumentException("Cannot serialize class: " + clazz.getName());
+      }
+      if (entry.id > 0) {
+        buffer.put(REGISTERED_OBJECT).putShort((short) entry.id);
+      } else {
+        buffer.put(OBJECT).putShort((short) entry.name.length).put(entry.name);
+      }
+      entry.serializer.write(value, buffer);
+    }
+  }
+
+  /**
+   * Read a value written with {@link #writeValue(Object, ByteBuffer)}
+   *
+   * @param buffer the buffer
+   * @return the value
+   */
+  public Object readValue(ByteBuffer buffer) {
+    byte type = buffer.get();
+    switch (type) {
+      case NULL:
+        return null;
+      case INTEGER:
+        return buffer.getInt();
+      case LONG:
+        return buffer.getLong();
+      case DOUBLE:
+        return buffer.getDouble();
+      case FLOAT:
+        return buffer.getFloat();
+      case STRING:
+        return readString(buffer);
+      case BOOLEAN:
+        return buffer.get() == 1;
+      case BYTE:
+        return buffer.get();
+      case SHORT:
+        return buffer.getShort();
+      case CHAR:
+        return buffer.getChar();
+      case BYTE_ARRAY:
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+      case INTEGER_ARRAY:
+        int[] ints = new int[buffer.getInt()];
+        for (int i = 0; i < ints.length; i++) {
+          ints[i] = buffer.getInt();
+        }
+        return ints;
+      case LONG_ARRAY:
+        long[] longs = new long[buffer.getInt()];
+        for (int i = 0; i < longs.length; i++) {
+          longs[i] = buffer.getLong();
+        }
+        return longs;
+      case FLOAT_ARRAY:
+        float[] floats = new float[buffer.getInt()];
+        for (int i = 0; i < floats.length; i++) {
+          floats[i] = buffer.getFloat();
+        }
+        return floats;
+      case DOUBLE_ARRAY:
+        double[] doubles = new double[buffer.getInt()];
+        for (int i = 0; i < doubles.length; i++) {
+          doubles[i] = buffer.getDouble();
+        }
+        return doubles;
+      case OBJECT:
+        return readEntry(buffer).serializer.read(buffer);
+      case REGISTERED_OBJECT:
+        return readRegisteredEntry(buffer).serializer.read(buffer);
+      default:
+        throw new IllegalStateException("Unknown value type: " + type);
+    }
+  }
+
+  private ClassEntry readEntry(ByteBuffer buffer) {
+    byte[] nameBytes = new byte[buffer.getShort()];
+    buffer.get(nameBytes);
+    String name = new String(nameBytes, StandardCharsets.UTF_8);
+    ClassEntry entry = entriesByName.get(name);
+    if (entry == null) {
+      try {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Class<?> clazz = Class.forName(name, true,
+            loader != null ? loader : SerializerRegistry.class.getClassLoader());
+        entry = entry(clazz);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("Cannot find class: " + name, e);
+      }
+      if (entry == UNSUPPORTED) {
+        throw new IllegalStateException("Cannot de-serialize class: " + name);
+      }
+    }
+    return entry;
+  }
+
+  private ClassEntry readRegisteredEntry(ByteBuffer buffer) {
+    int id = buffer.getShort();
+    ClassEntry entry = entriesById.get(id);
+    if (entry == null) {
+      throw new IllegalStateException("No class is registered with serializer id: " + id);
+    }
+    return entry;
+  }
+
+  /**
+   * Number of bytes of the string in UTF-8, unpaired surrogates are written as '?' the same way
+   * {@link String#getBytes(java.nio.charset.Charset)} does
+   */
+  static int stringLength(String value) {
+    int length = value.length();
+    int bytes = length;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x800) {
+        if (Character.isHighSurrogate(c) && i + 1 < length
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          bytes += 2;
+          i++;
+        } else if (!Character.isSurrogate(c)) {
+          bytes += 2;
+        }
+      } else if (c >= 0x80) {
+        bytes++;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Write the string in UTF-8, the byte length is filled after the characters are written
+   */
+  static void writeString(String value, ByteBuffer buffer) {
+    int start = buffer.position();
+    buffer.putInt(0);
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xC0 | (c >> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < length
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++i));
+          buffer.put((byte) (0xF0 | (codePoint >> 18)));
+          buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+          buffer.put((byte) '?');
+        }
+      } else {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+  }
+
+  static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (buffer.hasArray()) {
+      int position = buffer.position();
+      String value = new String(buffer.array(), buffer.arrayOffset() + position, length,
+          StandardCharsets.UTF_8);
+      buffer.position(position + length);
+      return value;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final class ClassEntry {
+    private final Class<?> clazz;
+
+    private final byte[] name;
+
+    private final ClassSerializer serializer;
+
+    /**
+     * The registered id, 0 if the class is written with its name
+     */
+    private final int id;
+
+    ClassEntry(Class<?> clazz, ClassSerializer serializer, int id) {
+      this.clazz = clazz;
+      this.name = clazz != null ? clazz.getName().getBytes(StandardCharsets.UTF_8) : null;
+      this.serializer = serializer;
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.packing.serializer;
+
+import java.nio.ByteBuffer;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+/**
+ * Serializer for {@link Tuple}, the key and value are written as typed values
+ */
+public class TupleSerializer implements ClassSerializer<Tuple> {
+  private final SerializerRegistry registry;
+
+  public TupleSerializer(SerializerRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public int length(Tuple tuple) {
+    int keyLength = registry.valueLength(tuple.getKey());
+    int valueLength = registry.valueLength(tuple.getValue());
+    if (keyLength < 0 || valueLength < 0) {
+      return -1;
+    }
+    return keyLength + valueLength;
+  }
+
+  @Override
+  public void write(Tuple tuple, ByteBuffer buffer) {
+    registry.writeValue(tuple.getKey(), buffer);
+    registry.writeValue(tuple.getValue(), buffer);
+  }
+
+  @Override
+  public Tuple read(ByteBuffer buffer) {
+    Object key = registry.readValue(buffer);
+    Object value = registry.readValue(buffer);
+    return new Tuple<>(key, value);
+  }
+}
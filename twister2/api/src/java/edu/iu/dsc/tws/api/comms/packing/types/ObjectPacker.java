@@ -17,15 +17,33 @@ import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
 import edu.iu.dsc.tws.api.comms.packing.DataPacker;
 import edu.iu.dsc.tws.api.comms.packing.ObjectBuilder;
 import edu.iu.dsc.tws.api.comms.packing.PackerStore;
+import edu.iu.dsc.tws.api.comms.packing.serializer.SerializerRegistry;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
 
+/**
+ * Packs objects. Objects supported by the {@link SerializerRegistry} are written directly to the
+ * target buffers, others are serialized with Kryo. The first byte of the packed data indicates
+ * which serializer is used.
+ */
 public final class ObjectPacker implements DataPacker<Object, byte[]> {
 
+  private static final byte KRYO = 0;
+
+  private static final byte FIELDS = 1;
+
+  /**
+   * Stored when the length of an object written directly is determined, so the length is not
+   * computed again when writing
+   */
+  private static final byte[] DIRECT = new byte[0];
+
   private static volatile ObjectPacker instance;
 
   // Creating a thread local since Kryo is stateful
   private ThreadLocal<KryoSerializer> serializer;
 
+  private final SerializerRegistry registry = SerializerRegistry.getInstance();
+
   private ObjectPacker() {
     serializer = ThreadLocal.withInitial(KryoSerializer::new);
   }
@@ -39,9 +57,14 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
 
   @Override
   public int determineLength(Object data, PackerStore store) {
-    if (store.retrieve() == null) {
-      byte[] serialize = serializer.get().serialize(data);
-      store.store(serialize);
+    byte[] stored = store.retrieve();
+    if (stored == null || stored == DIRECT) {
+      int length = registry.valueLength(data);
+      if (length >= 0) {
+        store.store(DIRECT);
+        return 1 + length;
+      }
+      store.store(serializer.get().serialize(data, KRYO));
     }
     return store.retrieve().length;
   }
@@ -51,8 +74,16 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
                                 int alreadyCopied, int leftToCopy, int spaceLeft,
                                 ByteBuffer targetBuffer) {
     byte[] datBytes = packerStore.retrieve();
-    if (datBytes == null) { // could be due to fixed schema
-      datBytes = serializer.get().serialize(data);
+    // null could be due to fixed schema, where the length is not determined
+    if (datBytes == null || datBytes == DIRECT) {
+      int length = datBytes == DIRECT ? leftToCopy - 1 : registry.valueLength(data);
+      // if the whole object fits, we write it directly to the buffer
+      if (length >= 0 && alreadyCopied == 0 && spaceLeft > length) {
+        targetBuffer.put(FIELDS);
+        registry.writeValue(data, targetBuffer);
+        return;
+      }
+      datBytes = pack(data, length);
       // storing since this will be useful for next iteration
       packerStore.store(datBytes);
     }
@@ -65,34 +96,61 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
                                 int currentBufferLocation, DataBuffer dataBuffer) {
     int totalObjectLength = objectBuilder.getTotalSize();
     int startIndex = objectBuilder.getCompletedSize();
+    // the whole object is in this buffer, read it without copying
+    if (startIndex == 0 && currentBufferLocation + totalObjectLength <= dataBuffer.getSize()) {
+      objectBuilder.setFinalObject(unpackFromBuffer(dataBuffer.getByteBuffer(),
+          currentBufferLocation, totalObjectLength));
+      return totalObjectLength;
+    }
+
     byte[] objectVal = (byte[]) objectBuilder.getPartialDataHolder();
-    int value = dataBuffer.copyPartToByteArray(currentBufferLocation, objectVal,
-        startIndex, totalObjectLength);
+    int value = Math.min(totalObjectLength - startIndex,
+        dataBuffer.getSize() - currentBufferLocation);
+    ByteBuffer source = duplicate(dataBuffer.getByteBuffer());
+    source.position(currentBufferLocation);
+    source.get(objectVal, startIndex, value);
     // at the end we switch to the actual object
     int totalBytesRead = startIndex + value;
     if (totalBytesRead == totalObjectLength) {
-      Object kryoValue = serializer.get().deserialize(objectVal);
-      objectBuilder.setFinalObject(kryoValue);
+      objectBuilder.setFinalObject(unpack(ByteBuffer.wrap(objectVal), totalObjectLength));
     }
     return value;
   }
 
   @Override
   public byte[] packToByteArray(Object data) {
-    return this.serializer.get().serialize(data);
+    return pack(data, registry.valueLength(data));
+  }
+
+  /**
+   * Pack an object whose length is already computed by the registry
+   */
+  private byte[] pack(Object data, int length) {
+    if (length < 0) {
+      return this.serializer.get().serialize(data, KRYO);
+    }
+    byte[] bytes = new byte[1 + length];
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    buffer.put(FIELDS);
+    registry.writeValue(data, buffer);
+    return bytes;
   }
 
   @Override
   public ByteBuffer packToByteBuffer(ByteBuffer byteBuffer, Object data) {
-    return byteBuffer.put(this.packToByteArray(data));
+    if (registry.valueLength(data) < 0) {
+      return byteBuffer.put(this.serializer.get().serialize(data, KRYO));
+    }
+    byteBuffer.put(FIELDS);
+    registry.writeValue(data, byteBuffer);
+    return byteBuffer;
   }
 
   @Override
   public ByteBuffer packToByteBuffer(ByteBuffer byteBuffer, int offset, Object data) {
-    byte[] packedData = this.packToByteArray(data);
-    for (int i = 0; i < packedData.length; i++) {
-      byteBuffer.put(offset + i, packedData[i]);
-    }
+    ByteBuffer target = duplicate(byteBuffer);
+    target.position(offset);
+    packToByteBuffer(target, data);
     return byteBuffer;
   }
 
@@ -108,19 +166,43 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
 
   @Override
   public Object unpackFromBuffer(ByteBuffer byteBuffer, int bufferOffset, int byteLength) {
-    byte[] bytes = new byte[byteLength];
-    // intentionally not using byteBuffer.get(byte[]). The contract of this method is not to update
-    // buffer position
-    for (int i = 0; i < byteLength; i++) {
-      bytes[i] = byteBuffer.get(bufferOffset + i);
-    }
-    return this.serializer.get().deserialize(bytes);
+    // The contract of this method is not to update buffer position
+    ByteBuffer source = duplicate(byteBuffer);
+    source.limit(bufferOffset + byteLength);
+    source.position(bufferOffset);
+    return unpack(source, byteLength);
   }
 
   @Override
   public Object unpackFromBuffer(ByteBuffer byteBuffer, int byteLength) {
-    byte[] bytes = new byte[byteLength];
-    byteBuffer.get(bytes, 0, byteLength);
+    int start = byteBuffer.position();
+    Object object = unpack(byteBuffer, byteLength);
+    byteBuffer.position(start + byteLength);
+    return object;
+  }
+
+  /**
+   * Read an object from the current position of the buffer
+   */
+  private Object unpack(ByteBuffer buffer, int byteLength) {
+    byte format = buffer.get();
+    if (format == FIELDS) {
+      return registry.readValue(buffer);
+    }
+
+    int length = byteLength - 1;
+    if (buffer.hasArray()) {
+      return serializer.get().deserialize(buffer.array(),
+          buffer.arrayOffset() + buffer.position(), length);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
     return serializer.get().deserialize(bytes);
   }
+
+  private static ByteBuffer duplicate(ByteBuffer buffer) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.order(buffer.order());
+    return duplicate;
+  }
 }
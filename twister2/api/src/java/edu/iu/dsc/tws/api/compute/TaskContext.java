@@ -125,6 +125,16 @@ public interface TaskContext {
    */
   boolean writeBarrier(String edge, Object message);
 
+  /**
+   * Write an event time watermark to the destination. The watermark promises that this task
+   * will not write messages older than the watermark to the edge. Only the streaming
+   * partition, keyed partition and direct edges carry watermarks.
+   *
+   * @param edge edge
+   * @param watermark the watermark
+   */
+  boolean writeWatermark(String edge, long watermark);
+
   /**
    * Write the last message
    *
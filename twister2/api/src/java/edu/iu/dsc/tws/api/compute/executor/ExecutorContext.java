@@ -21,12 +21,17 @@ public class ExecutorContext extends Context {
       "twister2.exector.instance.queue.low.watermark";
   public static final String INSTANCE_QUEUE_HIGH_WATERMARK =
       "twister2.exector.instance.queue.high.watermark";
+  public static final String INSTANCE_QUEUE_TYPE = "twister2.exector.instance.queue.type";
+  public static final String INSTANCE_QUEUE_RING = "ring";
+  public static final String INSTANCE_QUEUE_BLOCKING = "blocking";
   public static final String BATCH_EXECUTOR = "twister2.executor.batch.name";
   public static final String STREAM_EXECUTOR = "twister2.executor.stream.name";
   public static final String BATCH_EXECUTOR_SHARING_SEP_COMM
       = "edu.iu.dsc.tws.executor.threading.BatchSharingExecutor";
   public static final String BATCH_EXECUTOR_SHARING
       = "edu.iu.dsc.tws.executor.threading.BatchSharingExecutor2";
+  public static final String BATCH_EXECUTOR_WORK_STEALING
+      = "edu.iu.dsc.tws.executor.threading.WorkStealingBatchExecutor";
 
   public static final String STREAM_EXECUTOR_ALL_SHARING =
       "edu.iu.dsc.tws.executor.threading.StreamingAllSharingExecutor";
@@ -48,6 +53,14 @@ public class ExecutorContext extends Context {
     return cfg.getIntegerValue(INSTANCE_QUEUE_HIGH_WATERMARK, 128);
   }
 
+  /**
+   * The type of the queues used by the streaming task instances, either lock free ring buffers
+   * or blocking queues
+   */
+  public static String instanceQueueType(Config cfg) {
+    return cfg.getStringValue(INSTANCE_QUEUE_TYPE, INSTANCE_QUEUE_RING);
+  }
+
   public static String getBatchExecutor(Config cfg) {
     return cfg.getStringValue(BATCH_EXECUTOR, BATCH_EXECUTOR_SHARING);
   }
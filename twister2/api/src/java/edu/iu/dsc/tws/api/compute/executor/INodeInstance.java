@@ -31,6 +31,16 @@ public interface INodeInstance {
    */
   boolean execute();
 
+  /**
+   * Weather the last call to {@link #execute()} made no progress, an executor may wait for new
+   * messages before executing an idle instance again
+   *
+   * @return true if the instance is waiting for messages
+   */
+  default boolean isIdle() {
+    return false;
+  }
+
   /**
    * Prepare for an execution
    *
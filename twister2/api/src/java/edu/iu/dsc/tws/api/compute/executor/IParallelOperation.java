@@ -80,5 +80,9 @@ public interface IParallelOperation {
     return this.getOp().sendBarrier(src, barrierId);
   }
 
+  default boolean sendWatermark(int src, long watermark) {
+    return this.getOp().sendWatermark(src, watermark);
+  }
+
   BaseOperation getOp();
 }
@@ -0,0 +1,27 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.compute.modifiers;
+
+/**
+ * A streaming task which processes the messages using their event time should implement this
+ * interface to receive the watermarks of its inputs. The watermarks are forwarded to the
+ * outputs of the task after this method returns.
+ */
+public interface WatermarkReceptor {
+  /**
+   * The watermark of the task advanced. This is the minimum of the watermarks of all the input
+   * edges and every message sent before it is already given to the task.
+   *
+   * @param watermark the new watermark
+   */
+  void onWatermark(long watermark);
+}
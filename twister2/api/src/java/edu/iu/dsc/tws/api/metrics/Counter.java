@@ -0,0 +1,48 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter which can be incremented by many threads. The count is striped across cells so that
+ * the threads do not contend on a single value, and the cells are only summed when the count
+ * is read.
+ */
+public class Counter {
+  /**
+   * A counter which does not count, used when the metrics are disabled
+   */
+  static final Counter NOOP = new Counter() {
+    @Override
+    public void inc() {
+    }
+
+    @Override
+    public void inc(long n) {
+    }
+  };
+
+  private final LongAdder count = new LongAdder();
+
+  public void inc() {
+    count.increment();
+  }
+
+  public void inc(long n) {
+    count.add(n);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+}
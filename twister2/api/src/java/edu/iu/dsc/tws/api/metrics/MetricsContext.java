@@ -0,0 +1,36 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.metrics;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+
+public class MetricsContext extends Context {
+
+  public static final String METRICS_ENABLED = "twister2.metrics.enabled";
+
+  public static final String METRICS_REPORT_INTERVAL = "twister2.metrics.report.interval";
+
+  /**
+   * Weather the workers collect metrics
+   */
+  public static boolean isEnabled(Config cfg) {
+    return cfg.getBooleanValue(METRICS_ENABLED, false);
+  }
+
+  /**
+   * How often the workers report the metrics to the job master in milliseconds
+   */
+  public static long reportInterval(Config cfg) {
+    return cfg.getLongValue(METRICS_REPORT_INTERVAL, 10000);
+  }
+}
@@ -0,0 +1,167 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * The worker wide registry of metrics. Components get their counters and histograms once, when
+ * they are created, and update them in the hot paths. When the metrics are disabled the registry
+ * gives out metrics which do not record anything, so the instrumented code does not need to
+ * check.
+ *
+ * Metric names are dot separated, for example comms.edge.1.bytes.sent.
+ */
+public final class MetricsRegistry {
+  private static final Logger LOG = Logger.getLogger(MetricsRegistry.class.getName());
+
+  /**
+   * Used until the registry is initialized
+   */
+  private static final MetricsRegistry DISABLED = new MetricsRegistry(false);
+
+  private static volatile MetricsRegistry registry;
+
+  private final boolean enabled;
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+  MetricsRegistry(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Initialize the worker wide registry. Only the first call creates the registry.
+   *
+   * @param cfg configuration
+   * @return the registry
+   */
+  public static synchronized MetricsRegistry init(Config cfg) {
+    if (registry == null) {
+      registry = new MetricsRegistry(MetricsContext.isEnabled(cfg));
+      LOG.fine("Initialized metrics registry, enabled: " + registry.enabled);
+    }
+    return registry;
+  }
+
+  /**
+   * Get the registry, returns a disabled registry if {@link #init(Config)} is not called yet
+   *
+   * @return the registry
+   */
+  public static MetricsRegistry getInstance() {
+    MetricsRegistry r = registry;
+    return r != null ? r : DISABLED;
+  }
+
+  /**
+   * Create a metric name by joining the parts with dots
+   */
+  public static String name(String first, Object... parts) {
+    StringBuilder builder = new StringBuilder(first);
+    for (Object p : parts) {
+      builder.append('.').append(p);
+    }
+    return builder.toString();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Get the counter with the given name, creating it if it does not exist
+   */
+  public Counter counter(String name) {
+    if (!enabled) {
+      return Counter.NOOP;
+    }
+    return counters.computeIfAbsent(name, n -> new Counter());
+  }
+
+  /**
+   * Get the histogram with the given name, creating it if it does not exist
+   */
+  public Histogram histogram(String name) {
+    if (!enabled) {
+      return Histogram.NOOP;
+    }
+    return histograms.computeIfAbsent(name, n -> new Histogram());
+  }
+
+  /**
+   * Register a gauge, replacing any gauge with the same name
+   */
+  public void gauge(String name, Gauge gauge) {
+    if (enabled) {
+      gauges.put(name, gauge);
+    }
+  }
+
+  /**
+   * Remove the metrics with the given name, this should be called for the gauges when the
+   * component they read is closed
+   */
+  public void remove(String name) {
+    counters.remove(name);
+    histograms.remove(name);
+    gauges.remove(name);
+  }
+
+  /**
+   * Remove all the metrics under a name, for example comms.edge.1 removes comms.edge.1.bytes.sent
+   * but not comms.edge.10.bytes.sent. Components call this when they are closed, so that the
+   * metrics of finished edges and tasks do not stay in the registry.
+   *
+   * @param prefix name prefix
+   */
+  public void removeAll(String prefix) {
+    String parent = prefix + '.';
+    counters.keySet().removeIf(n -> n.equals(prefix) || n.startsWith(parent));
+    histograms.keySet().removeIf(n -> n.equals(prefix) || n.startsWith(parent));
+    gauges.keySet().removeIf(n -> n.equals(prefix) || n.startsWith(parent));
+  }
+
+  /**
+   * Read the current values of all the metrics. Histograms are reported as count, mean, p50, p99
+   * and max values with the histogram name as the prefix.
+   *
+   * @return metric names to values, sorted by name
+   */
+  public Map<String, Long> snapshot() {
+    Map<String, Long> values = new TreeMap<>();
+    for (Map.Entry<String, Counter> e : counters.entrySet()) {
+      values.put(e.getKey(), e.getValue().getCount());
+    }
+    for (Map.Entry<String, Gauge> e : gauges.entrySet()) {
+      values.put(e.getKey(), e.getValue().getValue());
+    }
+    for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+      Histogram h = e.getValue();
+      values.put(e.getKey() + ".count", h.getCount());
+      values.put(e.getKey() + ".mean", Math.round(h.getMean()));
+      values.put(e.getKey() + ".p50", h.getValueAtPercentile(50));
+      values.put(e.getKey() + ".p99", h.getValueAtPercentile(99));
+      values.put(e.getKey() + ".max", h.getMax());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,105 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.state;
+
+import java.io.IOException;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+
+/**
+ * Keeps the state of a task partitioned by key. The states are accessed for the current key,
+ * which is set by the task before reading or updating the states, usually with the key of the
+ * message being processed.
+ *
+ * States are identified by name and created on first access. A backend is used by a single task
+ * and is not thread safe.
+ *
+ * @param <K> type of the keys
+ */
+public interface KeyedStateBackend<K> {
+
+  /**
+   * Set the key the states are accessed for
+   *
+   * @param key key
+   */
+  void setCurrentKey(K key);
+
+  /**
+   * Get the key the states are accessed for
+   *
+   * @return the current key
+   */
+  K getCurrentKey();
+
+  /**
+   * Get a state with a single value per key
+   *
+   * @param name name of the state
+   * @param <V> type of the value
+   * @return the state
+   */
+  <V> ValueState<V> getValueState(String name);
+
+  /**
+   * Get a state with a list of values per key
+   *
+   * @param name name of the state
+   * @param <V> type of the values
+   * @return the state
+   */
+  <V> ListState<V> getListState(String name);
+
+  /**
+   * Get a state which keeps the reduced value per key
+   *
+   * @param name name of the state
+   * @param reducer function used to combine the values, it should be associative
+   * @param <V> type of the values
+   * @return the state
+   */
+  <V> ReducingState<V> getReducingState(String name, BinaryOperator<V> reducer);
+
+  /**
+   * Call the consumer for every key having a value in the given state. The state can be
+   * modified by the consumer.
+   *
+   * @param name name of the state
+   * @param consumer consumer
+   */
+  void forEachKey(String name, Consumer<K> consumer);
+
+  /**
+   * Write the states of all the keys to the store
+   *
+   * @param store the store
+   * @param key key to write the snapshot to
+   * @throws IOException if an error occurs
+   */
+  void snapshot(StateStore store, String key) throws IOException;
+
+  /**
+   * Replace the states with a snapshot from the store
+   *
+   * @param store the store
+   * @param key key of the snapshot
+   * @throws IOException if an error occurs
+   */
+  void restore(StateStore store, String key) throws IOException;
+
+  /**
+   * Release the resources held by the backend, the states are lost after this
+   */
+  void close();
+}
@@ -0,0 +1,35 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.state;
+
+/**
+ * A list of values per key. Values can only be appended, which lets the off heap backends add a
+ * value without reading the existing values.
+ *
+ * @param <V> type of the values
+ */
+public interface ListState<V> extends State {
+
+  /**
+   * Append a value to the list of the current key
+   *
+   * @param value value
+   */
+  void add(V value);
+
+  /**
+   * Get the values of the current key in the order they were added
+   *
+   * @return the values, empty if there are no values
+   */
+  Iterable<V> get();
+}
@@ -0,0 +1,35 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.state;
+
+/**
+ * A value per key which is combined with every added value using a reduce function, so only
+ * the aggregate is kept.
+ *
+ * @param <V> type of the values
+ */
+public interface ReducingState<V> extends State {
+
+  /**
+   * Reduce the value in to the aggregate of the current key
+   *
+   * @param value value
+   */
+  void add(V value);
+
+  /**
+   * Get the aggregate of the current key
+   *
+   * @return the aggregate or null if no values were added
+   */
+  V get();
+}
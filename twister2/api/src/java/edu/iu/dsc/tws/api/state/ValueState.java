@@ -0,0 +1,34 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.state;
+
+/**
+ * A single value per key
+ *
+ * @param <V> type of the value
+ */
+public interface ValueState<V> extends State {
+
+  /**
+   * Get the value of the current key
+   *
+   * @return the value or null if there is no value
+   */
+  V value();
+
+  /**
+   * Set the value of the current key
+   *
+   * @param value the new value, null clears the state
+   */
+  void update(V value);
+}
@@ -18,6 +18,7 @@ import java.util.Map;
 import edu.iu.dsc.tws.api.compute.TaskContext;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
 
 /**
@@ -76,6 +77,11 @@ public class TSetContext implements Serializable {
 
   private transient Schema outSchema;
 
+  /**
+   * Keyed state of the tSet instance, available only for the tSets keeping keyed state
+   */
+  private transient KeyedStateBackend<?> keyedState;
+
   /**
    * Creates and empty TSet Context
    */
@@ -214,6 +220,26 @@ public class TSetContext implements Serializable {
     return outSchema;
   }
 
+  /**
+   * Returns the keyed state of the tSet instance
+   *
+   * @param <K> type of the keys
+   * @return the keyed state or null if the tSet does not keep keyed state
+   */
+  @SuppressWarnings("unchecked")
+  public <K> KeyedStateBackend<K> getKeyedState() {
+    return (KeyedStateBackend<K>) keyedState;
+  }
+
+  /**
+   * Set the keyed state of the tSet instance
+   *
+   * @param keyedState the keyed state
+   */
+  public void setKeyedState(KeyedStateBackend<?> keyedState) {
+    this.keyedState = keyedState;
+  }
+
   /**
    * Adds a input object into the map
    *
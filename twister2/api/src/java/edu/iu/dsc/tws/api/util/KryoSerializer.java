@@ -52,11 +52,30 @@ public class KryoSerializer {
     return kryoOut.toBytes();
   }
 
+  /**
+   * Serialize the object after writing a header byte
+   *
+   * @param object the object
+   * @param header the header byte
+   * @return serialized bytes including the header
+   */
+  public byte[] serialize(Object object, byte header) {
+    kryoOut.clear();
+    kryoOut.writeByte(header);
+    kryo.writeClassAndObject(kryoOut, object);
+    return kryoOut.toBytes();
+  }
+
   public Object deserialize(byte[] input) {
     kryoIn.setBuffer(input);
     return kryo.readClassAndObject(kryoIn);
   }
 
+  public Object deserialize(byte[] input, int offset, int length) {
+    kryoIn.setBuffer(input, offset, length);
+    return kryo.readClassAndObject(kryoIn);
+  }
+
   public Object deserialize(InputStream inputStream) {
     Input input = new Input(inputStream);
     return kryo.readClassAndObject(input);
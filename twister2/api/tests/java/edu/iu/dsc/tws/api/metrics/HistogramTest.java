@@ -0,0 +1,101 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+  @Test
+  public void testSmallValuesHaveTheirOwnBuckets() {
+    for (long v = 0; v < 32; v++) {
+      Assert.assertEquals(v, Histogram.bucket(v));
+      Assert.assertEquals(v, Histogram.highestValue((int) v));
+    }
+  }
+
+  @Test
+  public void testBucketBoundaries() {
+    // 32 to 63 are still exact, after that each bucket covers a range
+    Assert.assertEquals(32, Histogram.bucket(32));
+    Assert.assertEquals(63, Histogram.bucket(63));
+    Assert.assertEquals(64, Histogram.bucket(64));
+    Assert.assertEquals(64, Histogram.bucket(65));
+    Assert.assertEquals(65, Histogram.bucket(66));
+    Assert.assertEquals(65, Histogram.highestValue(64));
+    Assert.assertEquals(Long.MAX_VALUE, Histogram.highestValue(Histogram.bucket(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void testBucketContainsValue() {
+    long v = 1;
+    while (v > 0) {
+      for (long value : new long[]{v - 1, v, v + 1, v + v / 3}) {
+        if (value < 0) {
+          continue;
+        }
+        int bucket = Histogram.bucket(value);
+        long highest = Histogram.highestValue(bucket);
+        long lowest = bucket == 0 ? 0 : Histogram.highestValue(bucket - 1) + 1;
+        Assert.assertTrue(value + " in bucket " + bucket, lowest <= value && value <= highest);
+        // the bucket is at most 1/32 of the value wide
+        Assert.assertTrue(value + " bucket is too wide", highest - lowest <= value / 32);
+      }
+      v = v << 1;
+    }
+  }
+
+  @Test
+  public void testBucketsAreIncreasing() {
+    long previous = -1;
+    for (int b = 0; b <= Histogram.bucket(Long.MAX_VALUE); b++) {
+      long highest = Histogram.highestValue(b);
+      Assert.assertTrue(highest > previous);
+      previous = highest;
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    Histogram histogram = new Histogram();
+    Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    Assert.assertEquals(1000, histogram.getCount());
+    Assert.assertEquals(1000, histogram.getMax());
+    Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+
+    long p50 = histogram.getValueAtPercentile(50);
+    Assert.assertTrue(p50 >= 500 && p50 <= 500 + 500 / 32);
+    long p99 = histogram.getValueAtPercentile(99);
+    Assert.assertTrue(p99 >= 990 && p99 <= 1000);
+    // never above the max
+    Assert.assertEquals(1000, histogram.getValueAtPercentile(100));
+    Assert.assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void testNegativeValuesRecordedAsZero() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5);
+    Assert.assertEquals(1, histogram.getCount());
+    Assert.assertEquals(0, histogram.getMax());
+    Assert.assertEquals(0, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testNoopDoesNotRecord() {
+    Histogram.NOOP.record(10);
+    Assert.assertEquals(0, Histogram.NOOP.getCount());
+  }
+}
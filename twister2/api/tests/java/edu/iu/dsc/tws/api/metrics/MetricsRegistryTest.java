@@ -0,0 +1,82 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.metrics;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+  @Test
+  public void testDisabledRegistry() {
+    MetricsRegistry registry = new MetricsRegistry(false);
+    Assert.assertSame(Counter.NOOP, registry.counter("a"));
+    Assert.assertSame(Histogram.NOOP, registry.histogram("b"));
+    registry.gauge("c", () -> 1);
+    Assert.assertTrue(registry.snapshot().isEmpty());
+  }
+
+  @Test
+  public void testMetricsAreShared() {
+    MetricsRegistry registry = new MetricsRegistry(true);
+    Counter counter = registry.counter("comms.edge.1.bytes.sent");
+    Assert.assertSame(counter, registry.counter("comms.edge.1.bytes.sent"));
+    Assert.assertSame(registry.histogram("h"), registry.histogram("h"));
+  }
+
+  @Test
+  public void testSnapshot() {
+    MetricsRegistry registry = new MetricsRegistry(true);
+    registry.counter("c").inc(3);
+    registry.gauge("g", () -> 7);
+    Histogram histogram = registry.histogram("h");
+    histogram.record(10);
+    histogram.record(20);
+
+    Map<String, Long> values = registry.snapshot();
+    Assert.assertEquals(Long.valueOf(3), values.get("c"));
+    Assert.assertEquals(Long.valueOf(7), values.get("g"));
+    Assert.assertEquals(Long.valueOf(2), values.get("h.count"));
+    Assert.assertEquals(Long.valueOf(15), values.get("h.mean"));
+    Assert.assertEquals(Long.valueOf(20), values.get("h.max"));
+    Assert.assertEquals(Long.valueOf(10), values.get("h.p50"));
+    Assert.assertEquals(Long.valueOf(20), values.get("h.p99"));
+  }
+
+  @Test
+  public void testRemove() {
+    MetricsRegistry registry = new MetricsRegistry(true);
+    registry.counter("c").inc();
+    registry.histogram("c").record(1);
+    registry.gauge("c", () -> 1);
+    registry.remove("c");
+    Assert.assertTrue(registry.snapshot().isEmpty());
+    // a new counter is created after removal
+    Assert.assertEquals(0, registry.counter("c").getCount());
+  }
+
+  @Test
+  public void testRemoveAll() {
+    MetricsRegistry registry = new MetricsRegistry(true);
+    registry.counter("comms.edge.1.bytes.sent").inc();
+    registry.histogram("comms.edge.1.serialize.nanos").record(1);
+    registry.gauge("comms.edge.1.pending.sends", () -> 1);
+    registry.counter("comms.edge.10.bytes.sent").inc();
+    registry.counter("comms.edge.1").inc();
+
+    registry.removeAll("comms.edge.1");
+    Map<String, Long> values = registry.snapshot();
+    Assert.assertEquals(1, values.size());
+    Assert.assertTrue(values.containsKey("comms.edge.10.bytes.sent"));
+  }
+}
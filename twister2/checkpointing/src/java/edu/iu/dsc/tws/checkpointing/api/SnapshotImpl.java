@@ -13,9 +13,13 @@
 package edu.iu.dsc.tws.checkpointing.api;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import edu.iu.dsc.tws.api.checkpointing.Snapshot;
 import edu.iu.dsc.tws.api.comms.packing.DataPacker;
@@ -29,10 +33,25 @@ import edu.iu.dsc.tws.api.comms.packing.types.StringPacker;
  */
 public class SnapshotImpl implements Snapshot {
 
+  /**
+   * A packed snapshot starting with this value is a delta on top of an earlier version
+   */
+  private static final long DELTA_MARKER = -1L;
+
   private long version = 0L;
   private Map<String, Object> values = new HashMap<>();
   private Map<String, DataPacker> packers = new HashMap<>();
 
+  /**
+   * Keys set after the last capture
+   */
+  private Set<String> changedKeys = new HashSet<>();
+
+  /**
+   * The values map is shared with a captured snapshot, it is copied before the next update
+   */
+  private boolean shared;
+
   private String prefix;
 
   public SnapshotImpl() {
@@ -53,6 +72,7 @@ public class SnapshotImpl implements Snapshot {
 
   @Override
   public void setPacker(String key, DataPacker dataPacker) {
+    ownValues();
     this.packers.put(key, dataPacker);
 /*
     this.packers.put(appendPrefix(key), dataPacker);
@@ -61,7 +81,9 @@ public class SnapshotImpl implements Snapshot {
 
   @Override
   public void setValue(String key, Object value) {
+    ownValues();
     this.values.put(key, value);
+    this.changedKeys.add(key);
 /*
     this.values.put(appendPrefix(key), value);
 */
@@ -83,7 +105,7 @@ public class SnapshotImpl implements Snapshot {
 
   @Override
   public Object getOrDefault(String key, Object defaultValue) {
-    return this.values.getOrDefault(key, defaultValue);
+    return checkpointAvailable(key) ? get(key) : defaultValue;
   }
 
   @Override
@@ -91,35 +113,101 @@ public class SnapshotImpl implements Snapshot {
     return this.values.get(key);
   }
 
+  public Set<String> getKeys() {
+    return this.values.keySet();
+  }
+
+  /**
+   * The keys set between the previous capture and the capture that created this snapshot
+   */
+  public Set<String> getChangedKeys() {
+    return this.changedKeys;
+  }
+
+  /**
+   * Serialize the values of the given keys
+   *
+   * @param keys keys to serialize
+   * @return serialized values in the iteration order of the keys
+   */
+  public Map<String, byte[]> packValues(Collection<String> keys) {
+    Map<String, byte[]> packed = new LinkedHashMap<>();
+    for (String key : keys) {
+      DataPacker packer = packers.getOrDefault(key, ObjectPacker.getInstance());
+      packed.put(key, packer.packToByteArray(values.get(key)));
+    }
+    return packed;
+  }
+
   public byte[] pack() {
-    Map<String, byte[]> packedValues = new HashMap<>();
+    return pack(this.version, -1, packValues(getKeys()));
+  }
+
+  /**
+   * Pack serialized values of a snapshot. If a base version is given, the values are treated as
+   * a delta on top of that version.
+   *
+   * @param version version of the snapshot
+   * @param baseVersion version this delta is based on, or a negative value for a full snapshot
+   * @param packedValues serialized values
+   * @return packed bytes
+   */
+  public static byte[] pack(long version, long baseVersion, Map<String, byte[]> packedValues) {
     Map<String, byte[]> packedKeys = new HashMap<>();
-    int totalLength = 0;
-    for (String key : values.keySet()) {
-      DataPacker packer = packers.getOrDefault(key, ObjectPacker.getInstance());
-      byte[] dataBytes = packer.packToByteArray(values.get(key));
-      byte[] keyBytes = StringPacker.getInstance().packToByteArray(key);
-      packedValues.put(key, dataBytes);
-      packedKeys.put(key, keyBytes);
-      totalLength += dataBytes.length + keyBytes.length + (2 * Integer.BYTES);
+    int totalLength = baseVersion < 0 ? Long.BYTES : 3 * Long.BYTES;
+    for (Map.Entry<String, byte[]> e : packedValues.entrySet()) {
+      byte[] keyBytes = StringPacker.getInstance().packToByteArray(e.getKey());
+      packedKeys.put(e.getKey(), keyBytes);
+      totalLength += e.getValue().length + keyBytes.length + (2 * Integer.BYTES);
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(totalLength);
+    if (baseVersion >= 0) {
+      byteBuffer.putLong(DELTA_MARKER);
+      byteBuffer.putLong(version);
+      byteBuffer.putLong(baseVersion);
+    } else {
+      byteBuffer.putLong(version);
     }
-    ByteBuffer byteBuffer = ByteBuffer.allocate(totalLength + Long.BYTES);
-    byteBuffer.putLong(this.version);
-    for (String key : values.keySet()) {
-      byte[] keyBytes = packedKeys.get(key);
+    for (Map.Entry<String, byte[]> e : packedValues.entrySet()) {
+      byte[] keyBytes = packedKeys.get(e.getKey());
       byteBuffer.putInt(keyBytes.length);
       byteBuffer.put(keyBytes);
 
-      byte[] dataBytes = packedValues.get(key);
+      byte[] dataBytes = e.getValue();
       byteBuffer.putInt(dataBytes.length);
       byteBuffer.put(dataBytes);
     }
     return byteBuffer.array();
   }
 
+  /**
+   * Get the version a packed snapshot is based on
+   *
+   * @param bytes packed snapshot
+   * @return the base version if this is a delta, -1 otherwise
+   */
+  public static long getBaseVersion(byte[] bytes) {
+    ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+    if (wrapped.getLong() != DELTA_MARKER) {
+      return -1;
+    }
+    return wrapped.getLong(2 * Long.BYTES);
+  }
+
+  /**
+   * Unpack a snapshot in to this snapshot. A delta only updates the values it contains, so the
+   * version it is based on should be unpacked before.
+   */
   public void unpack(byte[] bytes) {
     ByteBuffer wrapped = ByteBuffer.wrap(bytes);
-    this.setVersion(wrapped.getLong());
+    long first = wrapped.getLong();
+    if (first == DELTA_MARKER) {
+      this.setVersion(wrapped.getLong());
+      // skip the base version
+      wrapped.getLong();
+    } else {
+      this.setVersion(first);
+    }
     while (wrapped.position() < bytes.length) {
       int keyLength = wrapped.getInt();
       byte[] keyBytes = new byte[keyLength];
@@ -130,6 +218,7 @@ public class SnapshotImpl implements Snapshot {
       wrapped.get(valueBytes);
 
       String key = StringPacker.getInstance().unpackFromByteArray(keyBytes);
+      ownValues();
       Object value = this.packers.getOrDefault(key,
           ObjectPacker.getInstance()).unpackFromByteArray(valueBytes);
       this.values.put(key, value);
@@ -159,7 +248,37 @@ public class SnapshotImpl implements Snapshot {
     copy.values = new HashMap<>(this.values);
     copy.version = this.version;
 
-    this.values.clear();
+    this.values = new HashMap<>();
+    this.shared = false;
     return copy;
   }
+
+  /**
+   * Capture the current state in to a new snapshot, which can be written by another thread while
+   * this snapshot keeps getting updated. The capture shares the values with this snapshot and
+   * this snapshot copies its map of values before the next update, so capturing does not depend
+   * on the size of the state. Values are not copied, a value should not be modified after it is
+   * set, instead a new value should be set.
+   *
+   * @return the captured snapshot
+   */
+  public SnapshotImpl capture() {
+    SnapshotImpl capture = new SnapshotImpl();
+    capture.packers = this.packers;
+    capture.values = this.values;
+    capture.changedKeys = this.changedKeys;
+    capture.version = this.version;
+
+    this.shared = true;
+    this.changedKeys = new HashSet<>();
+    return capture;
+  }
+
+  private void ownValues() {
+    if (shared) {
+      this.values = new HashMap<>(this.values);
+      this.packers = new HashMap<>(this.packers);
+      this.shared = false;
+    }
+  }
 }
@@ -15,6 +15,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 import org.apache.hadoop.io.IOUtils;
@@ -62,6 +63,13 @@ public class HDFSFileStateStore implements StateStore {
         hadoopDataOutputStream, data.length, true);
   }
 
+  @Override
+  public void putStream(String key, InputStream data) throws IOException {
+    try (FSDataOutputStream hadoopDataOutputStream = this.hdfs.create(this.getPathForKey(key))) {
+      IOUtils.copyBytes(data, hadoopDataOutputStream, 4096, false);
+    }
+  }
+
   @Override
   public byte[] get(String key) throws IOException {
     if (!this.contains(key)) {
@@ -73,6 +81,19 @@ public class HDFSFileStateStore implements StateStore {
     return outStream.toByteArray();
   }
 
+  @Override
+  public InputStream getStream(String key) throws IOException {
+    if (!this.contains(key)) {
+      return null;
+    }
+    return this.hdfs.open(this.getPathForKey(key));
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    this.hdfs.delete(this.getPathForKey(key), false);
+  }
+
   @Override
   public boolean contains(String key) throws IOException {
     return this.hdfs.exists(this.getPathForKey(key));
@@ -61,11 +61,16 @@ package edu.iu.dsc.tws.checkpointing.stores;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.logging.Logger;
 
@@ -78,6 +83,8 @@ public class LocalFileStateStore implements StateStore {
 
   public static final String CHECKPOINTING_STORE_FS_DIR = "twister2.checkpointing.store.fs.dir";
 
+  private static final String TEMP_SUFFIX = ".tmp";
+
   private File rootFolder;
 
   @Override
@@ -101,25 +108,74 @@ public class LocalFileStateStore implements StateStore {
 
   @Override
   public void put(String key, byte[] data) throws IOException {
-    FileChannel fileChannel = this.getChannelForKey(key,
-        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-    fileChannel.write(ByteBuffer.wrap(data));
-    fileChannel.close();
+    write(key, fileChannel -> {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      while (buffer.hasRemaining()) {
+        fileChannel.write(buffer);
+      }
+    });
+  }
+
+  @Override
+  public void putStream(String key, InputStream data) throws IOException {
+    write(key, fileChannel -> {
+      long position = 0;
+      long read;
+      while ((read = fileChannel.transferFrom(Channels.newChannel(data), position,
+          Long.MAX_VALUE - position)) > 0) {
+        position += read;
+      }
+    });
+  }
+
+  private interface ChannelWriter {
+    void write(FileChannel channel) throws IOException;
+  }
+
+  private void write(String key, ChannelWriter writer) throws IOException {
+    Path target = Paths.get(rootFolder.getAbsolutePath(), key);
+    Path temp = Paths.get(rootFolder.getAbsolutePath(), key + TEMP_SUFFIX);
+    try (FileChannel fileChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writer.write(fileChannel);
+      // a checkpoint is acknowledged after this, so make sure it is on the disk
+      fileChannel.force(true);
+    }
+    // rename so that a failure while writing doesn't leave a partial value for the key
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
   }
 
   @Override
   public byte[] get(String key) throws IOException {
-    try {
-      FileChannel fileChannel = this.getChannelForKey(key, StandardOpenOption.READ);
+    try (FileChannel fileChannel = this.getChannelForKey(key, StandardOpenOption.READ)) {
       int size = (int) fileChannel.size(); // assume < 2GB
       ByteBuffer allocate = ByteBuffer.allocate(size);
-      fileChannel.read(allocate);
+      while (allocate.hasRemaining()) {
+        if (fileChannel.read(allocate) < 0) {
+          break;
+        }
+      }
       return allocate.array();
     } catch (NoSuchFileException nex) {
       return null;
     }
   }
 
+  @Override
+  public InputStream getStream(String key) throws IOException {
+    try {
+      return Files.newInputStream(Paths.get(rootFolder.getAbsolutePath(), key));
+    } catch (NoSuchFileException nex) {
+      return null;
+    }
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    Files.deleteIfExists(Paths.get(rootFolder.getAbsolutePath(), key));
+  }
+
   @Override
   public boolean contains(String key) throws IOException {
     try (FileChannel channel = getChannelForKey(key, StandardOpenOption.READ)) {
@@ -0,0 +1,71 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.task;
+
+import edu.iu.dsc.tws.api.checkpointing.Snapshot;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+
+/**
+ * A streaming compute keeping its state in a {@link KeyedStateBackend}. The keyed state is
+ * created in {@link #prepare(Config, TaskContext)} and is part of the checkpoints of the task.
+ * Sub classes which take snapshots of their own values should call the methods of this class.
+ *
+ * @param <T> type of the messages
+ * @param <K> type of the keys of the state
+ */
+public abstract class KeyedStatefulCompute<T, K> extends BaseCompute<T>
+    implements CheckpointableTask {
+
+  private TaskKeyedState<K> keyedState;
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    this.keyedState = new TaskKeyedState<>(cfg, ctx);
+  }
+
+  /**
+   * The keyed state of the task
+   *
+   * @return the backend
+   */
+  protected KeyedStateBackend<K> keyedState() {
+    return keyedState.getBackend();
+  }
+
+  @Override
+  public void initSnapshot(Snapshot snapshot) {
+  }
+
+  @Override
+  public void takeSnapshot(Snapshot snapshot) {
+    keyedState.takeSnapshot(snapshot);
+  }
+
+  @Override
+  public void restoreSnapshot(Snapshot snapshot) {
+    keyedState.restoreSnapshot(snapshot);
+  }
+
+  @Override
+  public void onCheckpointPropagated(Snapshot snapshot) {
+    keyedState.onCheckpointPropagated(snapshot);
+  }
+
+  @Override
+  public void close() {
+    keyedState.close();
+  }
+}
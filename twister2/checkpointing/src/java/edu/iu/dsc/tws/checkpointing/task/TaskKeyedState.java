@@ -0,0 +1,137 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.task;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import edu.iu.dsc.tws.api.checkpointing.Snapshot;
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
+import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.data.state.KeyedStateBackends;
+
+/**
+ * The keyed state of a task instance. Creates the configured backend and, when checkpointing is
+ * enabled, writes the backend to the state store along with the snapshots of the task. The
+ * keyed state of a snapshot is removed from the store once a newer snapshot is committed.
+ *
+ * @param <K> type of the keys
+ */
+public class TaskKeyedState<K> {
+
+  private static final String KEYED_STATE_PATH = "keyed-state";
+
+  private final KeyedStateBackend<K> backend;
+
+  private StateStore stateStore;
+
+  /**
+   * Store keys of the keyed state snapshots which are not yet removed, oldest first
+   */
+  private final Deque<String> snapshotKeys = new ArrayDeque<>();
+
+  public TaskKeyedState(Config cfg, TaskContext ctx) {
+    this(cfg, ctx.taskName() + "-" + ctx.globalTaskId(), createStore(cfg, ctx));
+  }
+
+  /**
+   * Create the keyed state with the given store
+   *
+   * @param cfg configuration
+   * @param id unique id of the task in the worker
+   * @param stateStore store to write the snapshots, null if checkpointing is disabled
+   */
+  public TaskKeyedState(Config cfg, String id, StateStore stateStore) {
+    this.backend = KeyedStateBackends.newBackend(cfg, id);
+    this.stateStore = stateStore;
+  }
+
+  private static StateStore createStore(Config cfg, TaskContext ctx) {
+    if (!CheckpointingContext.isCheckpointingEnabled(cfg)) {
+      return null;
+    }
+    StateStore store = CheckpointUtils.getStateStore(cfg);
+    store.init(cfg, Context.jobId(cfg), KEYED_STATE_PATH, String.valueOf(ctx.globalTaskId()));
+    return store;
+  }
+
+  public KeyedStateBackend<K> getBackend() {
+    return backend;
+  }
+
+  /**
+   * Write the backend to the store and refer to it from the snapshot of the task
+   *
+   * @param snapshot snapshot of the task
+   */
+  public void takeSnapshot(Snapshot snapshot) {
+    if (stateStore != null) {
+      try {
+        snapshotKeys.add(KeyedStateBackends.takeSnapshot(backend, stateStore, snapshot));
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write the keyed state to the store", e);
+      }
+    }
+  }
+
+  /**
+   * Restore the backend from the keyed state referred by the snapshot of the task
+   *
+   * @param snapshot the restored snapshot of the task
+   */
+  public void restoreSnapshot(Snapshot snapshot) {
+    if (stateStore != null) {
+      try {
+        KeyedStateBackends.restoreSnapshot(backend, stateStore, snapshot);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to restore the keyed state from the store", e);
+      }
+      String key = KeyedStateBackends.snapshotKey(snapshot);
+      if (key != null) {
+        snapshotKeys.add(key);
+      }
+    }
+  }
+
+  /**
+   * Remove the keyed state of the snapshots taken before a committed snapshot, as the task
+   * will not be restored to them anymore
+   *
+   * @param snapshot the committed snapshot of the task
+   */
+  public void onCheckpointPropagated(Snapshot snapshot) {
+    if (stateStore == null) {
+      return;
+    }
+    String committed = KeyedStateBackends.snapshotKey(snapshot);
+    if (committed == null || !snapshotKeys.contains(committed)) {
+      return;
+    }
+    try {
+      while (!committed.equals(snapshotKeys.peekFirst())) {
+        KeyedStateBackends.deleteSnapshot(stateStore, snapshotKeys.pollFirst());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to remove the keyed state from the store", e);
+    }
+  }
+
+  public void close() {
+    backend.close();
+  }
+}
@@ -12,6 +12,8 @@
 package edu.iu.dsc.tws.checkpointing.util;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
 import edu.iu.dsc.tws.api.checkpointing.StateStore;
@@ -52,11 +54,20 @@ public final class CheckpointUtils {
     if (version == 0) {
       return;
     }
-    byte[] stateBytes = stateStore.get(version.toString());
-    if (stateBytes == null) {
-      throw new RuntimeException("Couldn't find version " + version + " in store");
+    // an incremental snapshot has to be applied on top of the versions it is based on
+    Deque<byte[]> chain = new ArrayDeque<>();
+    long current = version;
+    while (current >= 0) {
+      byte[] stateBytes = stateStore.get(Long.toString(current));
+      if (stateBytes == null) {
+        throw new RuntimeException("Couldn't find version " + current + " in store");
+      }
+      chain.push(stateBytes);
+      current = SnapshotImpl.getBaseVersion(stateBytes);
+    }
+    while (!chain.isEmpty()) {
+      snapshot.unpack(chain.pop());
     }
-    snapshot.unpack(stateBytes);
   }
 
   public static StateStore getStateStore(Config config) {
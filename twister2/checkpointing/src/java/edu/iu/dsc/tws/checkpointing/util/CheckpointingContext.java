@@ -24,6 +24,15 @@ public final class CheckpointingContext {
 
   public static final String CHECKPOINTING_RESTORE_JOB = "twister2.checkpointing.restore.job";
 
+  public static final String CHECKPOINTING_ASYNC = "twister2.checkpointing.async";
+  public static final String CHECKPOINTING_ASYNC_THREADS = "twister2.checkpointing.async.threads";
+  public static final String CHECKPOINTING_ASYNC_MAX_PENDING
+      = "twister2.checkpointing.async.max.pending";
+
+  public static final String CHECKPOINTING_INCREMENTAL = "twister2.checkpointing.incremental";
+  public static final String CHECKPOINTING_FULL_INTERVAL
+      = "twister2.checkpointing.incremental.full.interval";
+
   private CheckpointingContext() {
   }
 
@@ -45,6 +54,26 @@ public final class CheckpointingContext {
     return config.getLongValue(CHECKPOINTING_SOURCE_FREQUNCY, 1000);
   }
 
+  public static boolean isAsyncCheckpointing(Config config) {
+    return config.getBooleanValue(CHECKPOINTING_ASYNC, false);
+  }
+
+  public static int getAsyncThreads(Config config) {
+    return config.getIntegerValue(CHECKPOINTING_ASYNC_THREADS, 2);
+  }
+
+  public static int getAsyncMaxPending(Config config) {
+    return config.getIntegerValue(CHECKPOINTING_ASYNC_MAX_PENDING, 2);
+  }
+
+  public static boolean isIncrementalCheckpointing(Config config) {
+    return config.getBooleanValue(CHECKPOINTING_INCREMENTAL, false);
+  }
+
+  public static int getFullCheckpointInterval(Config config) {
+    return config.getIntegerValue(CHECKPOINTING_FULL_INTERVAL, 10);
+  }
+
   //todo: can checkpointing data be saved to nfs even above parameter is LocalFileStateStore
   public static boolean isNfsUsed(Config config) {
     return "edu.iu.dsc.tws.checkpointing.stores.LocalFileStateStore"
@@ -0,0 +1,202 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.util;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
+
+/**
+ * Writes the snapshots of a task to the {@link StateStore}. When asynchronous checkpointing is
+ * enabled, snapshots are serialized and written by a worker wide thread pool, so the task thread
+ * only has to capture the state. Snapshots of a task are always written in the order they are
+ * captured and are handed back through {@link #poll()} once they are in the store.
+ *
+ * With incremental checkpointing, a snapshot only contains the values changed since the
+ * previous version, and a full snapshot is written after a configured number of deltas to
+ * bound the length of the chain we have to read when restoring.
+ */
+public class SnapshotWriter {
+  private static final Logger LOG = Logger.getLogger(SnapshotWriter.class.getName());
+
+  private static volatile ExecutorService writerPool;
+
+  private final StateStore stateStore;
+
+  private final boolean async;
+
+  private final boolean incremental;
+
+  private final int fullInterval;
+
+  private final int maxPending;
+
+  /**
+   * The last write submitted to the pool, new writes are chained to this
+   */
+  private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+
+  /**
+   * Number of snapshots captured but not yet written
+   */
+  private final AtomicInteger pending = new AtomicInteger(0);
+
+  /**
+   * Snapshots written to the store, but not yet acknowledged by the task
+   */
+  private final Queue<SnapshotImpl> persisted = new ConcurrentLinkedQueue<>();
+
+  private volatile Throwable failure;
+
+  /**
+   * Digests of the values in the last written version. The following fields are only
+   * accessed by one write at a time.
+   */
+  private final Map<String, byte[]> digests = new HashMap<>();
+
+  private long lastVersion = -1;
+
+  private int deltas = 0;
+
+  private MessageDigest messageDigest;
+
+  public SnapshotWriter(Config config, StateStore stateStore) {
+    this.stateStore = stateStore;
+    this.async = CheckpointingContext.isAsyncCheckpointing(config);
+    this.incremental = CheckpointingContext.isIncrementalCheckpointing(config);
+    this.fullInterval = CheckpointingContext.getFullCheckpointInterval(config);
+    this.maxPending = Math.max(CheckpointingContext.getAsyncMaxPending(config), 1);
+    if (async) {
+      initPool(CheckpointingContext.getAsyncThreads(config));
+    }
+    if (incremental) {
+      try {
+        this.messageDigest = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException("Failed to create the digest for incremental checkpoints", e);
+      }
+    }
+  }
+
+  private static synchronized void initPool(int threads) {
+    if (writerPool == null) {
+      AtomicInteger count = new AtomicInteger(0);
+      writerPool = Executors.newFixedThreadPool(threads, r -> {
+        Thread t = new Thread(r, "checkpoint-writer-" + count.getAndIncrement());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+  /**
+   * Write a captured snapshot. The snapshot should not be modified after this call.
+   *
+   * @param snapshot the snapshot captured using {@link SnapshotImpl#capture()}
+   */
+  public void write(SnapshotImpl snapshot) {
+    if (!async) {
+      try {
+        persist(snapshot);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to write checkpoint " + snapshot.getVersion(), e);
+      }
+      persisted.add(snapshot);
+      return;
+    }
+
+    pending.incrementAndGet();
+    lastWrite = lastWrite.thenRunAsync(() -> {
+      try {
+        persist(snapshot);
+        persisted.add(snapshot);
+      } catch (Throwable t) {
+        // the next version cannot be a delta of a version we failed to write
+        lastVersion = -1;
+        failure = t;
+      } finally {
+        pending.decrementAndGet();
+      }
+    }, writerPool);
+  }
+
+  /**
+   * Get the next snapshot written to the store
+   *
+   * @return the snapshot or null if none
+   */
+  public SnapshotImpl poll() {
+    if (failure != null) {
+      throw new RuntimeException("Failed to write checkpoint", failure);
+    }
+    return persisted.poll();
+  }
+
+  /**
+   * Weather we have reached the maximum number of snapshots being written
+   */
+  public boolean isBusy() {
+    return pending.get() >= maxPending;
+  }
+
+  /**
+   * Weather there are snapshots being written or not yet acknowledged
+   */
+  public boolean hasPending() {
+    return pending.get() > 0 || !persisted.isEmpty();
+  }
+
+  private void persist(SnapshotImpl snapshot) throws IOException {
+    long start = System.nanoTime();
+    boolean full = !incremental || lastVersion < 0 || deltas >= fullInterval;
+    Collection<String> keys = full ? snapshot.getKeys() : snapshot.getChangedKeys();
+    Map<String, byte[]> packedValues = snapshot.packValues(keys);
+    if (incremental) {
+      Iterator<Map.Entry<String, byte[]>> it = packedValues.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, byte[]> e = it.next();
+        byte[] digest = messageDigest.digest(e.getValue());
+        byte[] previous = digests.put(e.getKey(), digest);
+        // the key was set again, but the value is the same as the previous version
+        if (!full && Arrays.equals(previous, digest)) {
+          it.remove();
+        }
+      }
+    }
+
+    byte[] bytes = SnapshotImpl.pack(snapshot.getVersion(), full ? -1 : lastVersion,
+        packedValues);
+    stateStore.put(Long.toString(snapshot.getVersion()), bytes);
+
+    lastVersion = snapshot.getVersion();
+    deltas = full ? 0 : deltas + 1;
+    LOG.fine(() -> String.format("Wrote %s checkpoint %d with %d values, %d bytes in %d ms",
+        full ? "full" : "delta", snapshot.getVersion(), packedValues.size(), bytes.length,
+        (System.nanoTime() - start) / 1000000));
+  }
+}
@@ -0,0 +1,118 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.packing.types.ObjectPacker;
+import edu.iu.dsc.tws.api.comms.packing.types.primitive.IntegerPacker;
+
+public class SnapshotImplTest {
+
+  @Test
+  public void testPackUnpack() {
+    SnapshotImpl snapshot = new SnapshotImpl();
+    snapshot.setPacker("count", IntegerPacker.getInstance());
+    snapshot.setValue("count", 5);
+    snapshot.setValue("name", "source");
+    snapshot.setVersion(3);
+    byte[] bytes = snapshot.pack();
+    Assert.assertEquals(-1, SnapshotImpl.getBaseVersion(bytes));
+
+    SnapshotImpl restored = new SnapshotImpl();
+    restored.setPacker("count", IntegerPacker.getInstance());
+    restored.unpack(bytes);
+    Assert.assertEquals(3, restored.getVersion());
+    Assert.assertEquals(5, restored.get("count"));
+    Assert.assertEquals("source", restored.get("name"));
+  }
+
+  @Test
+  public void testDeltaPackUnpack() {
+    Map<String, byte[]> full = new LinkedHashMap<>();
+    full.put("a", ObjectPacker.getInstance().packToByteArray(1));
+    full.put("b", ObjectPacker.getInstance().packToByteArray(2));
+    Map<String, byte[]> delta = new LinkedHashMap<>();
+    delta.put("b", ObjectPacker.getInstance().packToByteArray(20));
+
+    byte[] fullBytes = SnapshotImpl.pack(4, -1, full);
+    byte[] deltaBytes = SnapshotImpl.pack(5, 4, delta);
+    Assert.assertEquals(-1, SnapshotImpl.getBaseVersion(fullBytes));
+    Assert.assertEquals(4, SnapshotImpl.getBaseVersion(deltaBytes));
+
+    SnapshotImpl restored = new SnapshotImpl();
+    restored.unpack(fullBytes);
+    restored.unpack(deltaBytes);
+    Assert.assertEquals(5, restored.getVersion());
+    Assert.assertEquals(1, restored.get("a"));
+    Assert.assertEquals(20, restored.get("b"));
+
+    // an empty delta only moves the version
+    restored.unpack(SnapshotImpl.pack(6, 5, new LinkedHashMap<>()));
+    Assert.assertEquals(6, restored.getVersion());
+    Assert.assertEquals(20, restored.get("b"));
+  }
+
+  @Test
+  public void testCaptureIsolation() {
+    SnapshotImpl snapshot = new SnapshotImpl();
+    List<Integer> list = new ArrayList<>(Arrays.asList(1, 2));
+    snapshot.setValue("list", list);
+    snapshot.setValue("count", 1);
+    snapshot.setVersion(1);
+
+    SnapshotImpl capture = snapshot.capture();
+    // the capture shares the values instead of copying them
+    Assert.assertSame(list, capture.get("list"));
+    byte[] packed = capture.pack();
+
+    // the task keeps updating its state after the capture
+    snapshot.setValue("list", new ArrayList<>(Arrays.asList(1, 2, 3)));
+    snapshot.setValue("count", 2);
+    snapshot.setValue("other", "x");
+    snapshot.setPacker("count", IntegerPacker.getInstance());
+    snapshot.setVersion(2);
+
+    Assert.assertArrayEquals(packed, capture.pack());
+    Assert.assertEquals(1, capture.getVersion());
+    Assert.assertEquals(Arrays.asList(1, 2), capture.get("list"));
+    Assert.assertEquals(1, capture.get("count"));
+    Assert.assertFalse(capture.checkpointAvailable("other"));
+    Assert.assertEquals("y", capture.getOrDefault("other", "y"));
+    Assert.assertEquals(2, capture.getKeys().size());
+
+    Assert.assertEquals(Arrays.asList(1, 2, 3), snapshot.get("list"));
+    Assert.assertEquals(3, snapshot.getKeys().size());
+  }
+
+  @Test
+  public void testChangedKeys() {
+    SnapshotImpl snapshot = new SnapshotImpl();
+    snapshot.setValue("a", 1);
+    snapshot.setValue("b", 2);
+    SnapshotImpl first = snapshot.capture();
+    Assert.assertEquals(2, first.getChangedKeys().size());
+
+    snapshot.setValue("b", 3);
+    SnapshotImpl second = snapshot.capture();
+    Assert.assertEquals(1, second.getChangedKeys().size());
+    Assert.assertTrue(second.getChangedKeys().contains("b"));
+    Assert.assertEquals(2, second.getKeys().size());
+  }
+}
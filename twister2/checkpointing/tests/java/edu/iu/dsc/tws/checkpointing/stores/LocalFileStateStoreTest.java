@@ -0,0 +1,124 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.stores;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+public class LocalFileStateStoreTest {
+
+  private Path root;
+
+  private LocalFileStateStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("state-store");
+    Config config = Config.newBuilder()
+        .put(LocalFileStateStore.CHECKPOINTING_STORE_FS_DIR, root.toString())
+        .build();
+    store = new LocalFileStateStore();
+    store.init(config, "job", "task");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.walk(root).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+  }
+
+  @Test
+  public void testPutGet() throws IOException {
+    Assert.assertFalse(store.contains("1"));
+    Assert.assertNull(store.get("1"));
+
+    byte[] data = new byte[100000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    store.put("1", data);
+    Assert.assertTrue(store.contains("1"));
+    Assert.assertArrayEquals(data, store.get("1"));
+
+    // a shorter value replaces the whole file
+    store.put("1", new byte[]{1, 2, 3});
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, store.get("1"));
+  }
+
+  @Test
+  public void testNoTempFiles() throws IOException {
+    Path folder = root.resolve("job").resolve("task");
+    store.put("1", new byte[]{1});
+    store.put("2", new byte[]{2});
+    store.put("1", new byte[]{3});
+    String[] files = folder.toFile().list();
+    Arrays.sort(files);
+    Assert.assertArrayEquals(new String[]{"1", "2"}, files);
+  }
+
+  @Test
+  public void testStaleTempFile() throws IOException {
+    // a partial write left by a failed worker is not visible as the value
+    Path folder = root.resolve("job").resolve("task");
+    Files.write(folder.resolve("1.tmp"), new byte[]{9, 9});
+    Assert.assertFalse(store.contains("1"));
+    store.put("1", new byte[]{1});
+    Assert.assertArrayEquals(new byte[]{1}, store.get("1"));
+    Assert.assertFalse(Files.exists(folder.resolve("1.tmp")));
+  }
+
+  @Test
+  public void testStreams() throws IOException {
+    byte[] data = new byte[3 * 1024 * 1024 + 7];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    store.putStream("1", new ByteArrayInputStream(data));
+    Assert.assertArrayEquals(data, store.get("1"));
+    Assert.assertNull(store.getStream("2"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = store.getStream("1")) {
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+    }
+    Assert.assertArrayEquals(data, out.toByteArray());
+
+    store.putStream("1", new ByteArrayInputStream(new byte[]{4}));
+    Assert.assertArrayEquals(new byte[]{4}, store.get("1"));
+    Assert.assertFalse(Files.exists(root.resolve("job").resolve("task").resolve("1.tmp")));
+  }
+
+  @Test
+  public void testDelete() throws IOException {
+    store.put("1", new byte[]{1});
+    store.delete("1");
+    Assert.assertFalse(store.contains("1"));
+    // deleting a missing key does nothing
+    store.delete("1");
+  }
+}
@@ -0,0 +1,122 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.state.ValueState;
+import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
+import edu.iu.dsc.tws.data.state.KeyedStateBackends;
+
+public class TaskKeyedStateTest {
+
+  private static class MemoryStateStore implements StateStore {
+    private final Map<String, byte[]> values = new HashMap<>();
+
+    @Override
+    public void init(Config config, String... path) {
+    }
+
+    @Override
+    public void put(String key, byte[] data) {
+      values.put(key, data);
+    }
+
+    @Override
+    public byte[] get(String key) {
+      return values.get(key);
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return values.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) {
+      values.remove(key);
+    }
+  }
+
+  private static SnapshotImpl takeSnapshot(TaskKeyedState<String> state, long version) {
+    SnapshotImpl snapshot = new SnapshotImpl();
+    snapshot.setVersion(version);
+    state.takeSnapshot(snapshot);
+    return snapshot.capture();
+  }
+
+  @Test
+  public void testOlderSnapshotsArePruned() {
+    MemoryStateStore store = new MemoryStateStore();
+    TaskKeyedState<String> state = new TaskKeyedState<>(Config.newBuilder().build(), "task-0",
+        store);
+    ValueState<Integer> value = state.getBackend().getValueState("value");
+    state.getBackend().setCurrentKey("a");
+
+    value.update(1);
+    SnapshotImpl first = takeSnapshot(state, 1);
+    value.update(2);
+    SnapshotImpl second = takeSnapshot(state, 2);
+    value.update(3);
+    SnapshotImpl third = takeSnapshot(state, 3);
+    String firstKey = KeyedStateBackends.snapshotKey(first);
+    String secondKey = KeyedStateBackends.snapshotKey(second);
+    String thirdKey = KeyedStateBackends.snapshotKey(third);
+    Assert.assertEquals(3, store.values.size());
+
+    // nothing older than the first snapshot
+    state.onCheckpointPropagated(first);
+    Assert.assertEquals(3, store.values.size());
+
+    // the snapshots taken after a committed one are kept
+    state.onCheckpointPropagated(second);
+    Assert.assertFalse(store.contains(firstKey));
+    Assert.assertTrue(store.contains(secondKey));
+    Assert.assertTrue(store.contains(thirdKey));
+
+    // committing an already pruned snapshot again does nothing
+    state.onCheckpointPropagated(first);
+    Assert.assertTrue(store.contains(secondKey));
+
+    state.onCheckpointPropagated(third);
+    Assert.assertEquals(1, store.values.size());
+
+    TaskKeyedState<String> restored = new TaskKeyedState<>(Config.newBuilder().build(),
+        "task-0", store);
+    restored.restoreSnapshot(third);
+    restored.getBackend().setCurrentKey("a");
+    Assert.assertEquals(Integer.valueOf(3),
+        restored.getBackend().<Integer>getValueState("value").value());
+
+    // the restored snapshot is removed once a newer one is committed
+    SnapshotImpl fourth = takeSnapshot(restored, 4);
+    restored.onCheckpointPropagated(fourth);
+    Assert.assertEquals(1, store.values.size());
+    Assert.assertTrue(store.contains(KeyedStateBackends.snapshotKey(fourth)));
+  }
+
+  @Test
+  public void testWithoutCheckpointing() {
+    TaskKeyedState<String> state = new TaskKeyedState<>(Config.newBuilder().build(), "task-0",
+        null);
+    SnapshotImpl snapshot = takeSnapshot(state, 1);
+    Assert.assertNull(KeyedStateBackends.snapshotKey(snapshot));
+    state.onCheckpointPropagated(snapshot);
+    state.restoreSnapshot(snapshot);
+  }
+}
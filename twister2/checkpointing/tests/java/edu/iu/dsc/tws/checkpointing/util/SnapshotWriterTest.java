@@ -0,0 +1,323 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.types.primitive.IntegerPacker;
+import edu.iu.dsc.tws.api.comms.packing.types.primitive.PrimitivePacker;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
+
+public class SnapshotWriterTest {
+
+  private static final long TIMEOUT = 10000;
+
+  /**
+   * Keeps the values in memory and records the order of the writes
+   */
+  private static class MemoryStateStore implements StateStore {
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile String failKey;
+
+    private volatile CountDownLatch blocker = new CountDownLatch(0);
+
+    @Override
+    public void init(Config config, String... path) {
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+      try {
+        blocker.await();
+        // let the earlier versions take longer to write
+        Thread.sleep(Math.max(0, 20 - 2 * Long.parseLong(key)));
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      if (key.equals(failKey)) {
+        throw new IOException("Failed to write " + key);
+      }
+      values.put(key, data);
+      writes.add(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+      return values.get(key);
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return values.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) {
+      values.remove(key);
+    }
+  }
+
+  /**
+   * Packs integers and records the threads packing them
+   */
+  private static final class TrackingPacker implements PrimitivePacker<Integer> {
+    private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public MessageType<Integer, Integer> getMessageType() {
+      return MessageTypes.INTEGER;
+    }
+
+    @Override
+    public byte[] packToByteArray(Integer data) {
+      threads.add(Thread.currentThread().getName());
+      return IntegerPacker.getInstance().packToByteArray(data);
+    }
+
+    @Override
+    public ByteBuffer addToBuffer(ByteBuffer byteBuffer, Integer data) {
+      return IntegerPacker.getInstance().addToBuffer(byteBuffer, data);
+    }
+
+    @Override
+    public ByteBuffer addToBuffer(ByteBuffer byteBuffer, int index, Integer data) {
+      return IntegerPacker.getInstance().addToBuffer(byteBuffer, index, data);
+    }
+
+    @Override
+    public Integer getFromBuffer(ByteBuffer byteBuffer, int offset) {
+      return IntegerPacker.getInstance().getFromBuffer(byteBuffer, offset);
+    }
+
+    @Override
+    public Integer getFromBuffer(ByteBuffer byteBuffer) {
+      return IntegerPacker.getInstance().getFromBuffer(byteBuffer);
+    }
+  }
+
+  private static Config config(boolean async, boolean incremental) {
+    return Config.newBuilder()
+        .put(CheckpointingContext.CHECKPOINTING_ASYNC, async)
+        .put(CheckpointingContext.CHECKPOINTING_ASYNC_THREADS, 4)
+        .put(CheckpointingContext.CHECKPOINTING_ASYNC_MAX_PENDING, 4)
+        .put(CheckpointingContext.CHECKPOINTING_INCREMENTAL, incremental)
+        .put(CheckpointingContext.CHECKPOINTING_FULL_INTERVAL, 3)
+        .build();
+  }
+
+  private static List<Long> drain(SnapshotWriter writer, int count) throws InterruptedException {
+    List<Long> versions = new ArrayList<>();
+    long start = System.currentTimeMillis();
+    while (versions.size() < count && System.currentTimeMillis() - start < TIMEOUT) {
+      SnapshotImpl snapshot = writer.poll();
+      if (snapshot != null) {
+        versions.add(snapshot.getVersion());
+      } else {
+        Thread.sleep(1);
+      }
+    }
+    return versions;
+  }
+
+  @Test
+  public void testAsyncOrdering() throws InterruptedException {
+    MemoryStateStore store = new MemoryStateStore();
+    SnapshotWriter writer = new SnapshotWriter(config(true, false), store);
+    SnapshotImpl state = new SnapshotImpl();
+    List<Long> expected = new ArrayList<>();
+    for (long v = 1; v <= 8; v++) {
+      state.setValue("v", v);
+      state.setVersion(v);
+      writer.write(state.capture());
+      expected.add(v);
+    }
+    Assert.assertEquals(expected, drain(writer, expected.size()));
+    List<String> expectedWrites = new ArrayList<>();
+    for (Long v : expected) {
+      expectedWrites.add(Long.toString(v));
+    }
+    Assert.assertEquals(expectedWrites, store.writes);
+    Assert.assertFalse(writer.hasPending());
+  }
+
+  @Test
+  public void testPackedByWriter() throws Exception {
+    MemoryStateStore store = new MemoryStateStore();
+    store.blocker = new CountDownLatch(1);
+    SnapshotWriter writer = new SnapshotWriter(config(true, false), store);
+    TrackingPacker packer = new TrackingPacker();
+    SnapshotImpl state = new SnapshotImpl();
+    state.setValue("count", 1, packer);
+    state.setValue("list", new ArrayList<>(Arrays.asList(1, 2)));
+    state.setVersion(1);
+    writer.write(state.capture());
+    Assert.assertTrue(writer.hasPending());
+
+    // the task sets new values while the writer is still waiting
+    state.setValue("count", 2);
+    state.setValue("list", new ArrayList<>(Arrays.asList(1, 2, 3)));
+    store.blocker.countDown();
+    Assert.assertEquals(Collections.singletonList(1L), drain(writer, 1));
+    Assert.assertEquals(1, packer.threads.size());
+    Assert.assertTrue(packer.threads.get(0).startsWith("checkpoint-writer"));
+
+    SnapshotImpl restored = new SnapshotImpl();
+    restored.setPacker("count", IntegerPacker.getInstance());
+    CheckpointUtils.restoreSnapshot(store, 1L, restored);
+    Assert.assertEquals(1, restored.get("count"));
+    Assert.assertEquals(Arrays.asList(1, 2), restored.get("list"));
+  }
+
+  @Test
+  public void testDeltaPacksChangedKeys() {
+    MemoryStateStore store = new MemoryStateStore();
+    SnapshotWriter writer = new SnapshotWriter(config(false, true), store);
+    TrackingPacker packer = new TrackingPacker();
+    SnapshotImpl state = new SnapshotImpl();
+    for (int i = 0; i < 4; i++) {
+      state.setValue("count" + i, i, packer);
+    }
+    state.setVersion(1);
+    writer.write(state.capture());
+    Assert.assertEquals(4, packer.threads.size());
+
+    state.setValue("count0", 10);
+    state.setVersion(2);
+    writer.write(state.capture());
+    Assert.assertEquals(5, packer.threads.size());
+
+    state.setVersion(3);
+    writer.write(state.capture());
+    Assert.assertEquals(5, packer.threads.size());
+  }
+
+  @Test
+  public void testIncrementalChainRestore() throws IOException {
+    MemoryStateStore store = new MemoryStateStore();
+    SnapshotWriter writer = new SnapshotWriter(config(false, true), store);
+    SnapshotImpl state = new SnapshotImpl();
+    state.setValue("a", 1);
+    state.setValue("b", 1);
+    state.setVersion(1);
+    writer.write(state.capture());
+
+    state.setValue("b", 2);
+    state.setVersion(2);
+    writer.write(state.capture());
+
+    // setting the same value again doesn't add it to the delta
+    state.setValue("a", 1);
+    state.setValue("c", 3);
+    state.setVersion(3);
+    writer.write(state.capture());
+
+    Assert.assertEquals(-1, SnapshotImpl.getBaseVersion(store.get("1")));
+    Assert.assertEquals(1, SnapshotImpl.getBaseVersion(store.get("2")));
+    Assert.assertEquals(2, SnapshotImpl.getBaseVersion(store.get("3")));
+    Assert.assertTrue(store.get("3").length < store.get("1").length + 10);
+
+    SnapshotImpl restored = new SnapshotImpl();
+    CheckpointUtils.restoreSnapshot(store, 3L, restored);
+    Assert.assertEquals(3, restored.getVersion());
+    Assert.assertEquals(1, restored.get("a"));
+    Assert.assertEquals(2, restored.get("b"));
+    Assert.assertEquals(3, restored.get("c"));
+
+    SnapshotImpl older = new SnapshotImpl();
+    CheckpointUtils.restoreSnapshot(store, 2L, older);
+    Assert.assertEquals(2, older.get("b"));
+    Assert.assertFalse(older.checkpointAvailable("c"));
+
+    // a full snapshot after the configured number of deltas
+    state.setValue("a", 4);
+    state.setVersion(4);
+    writer.write(state.capture());
+    state.setVersion(5);
+    writer.write(state.capture());
+    Assert.assertEquals(3, SnapshotImpl.getBaseVersion(store.get("4")));
+    Assert.assertEquals(-1, SnapshotImpl.getBaseVersion(store.get("5")));
+  }
+
+  @Test
+  public void testMissingVersionInChain() throws IOException {
+    MemoryStateStore store = new MemoryStateStore();
+    store.values.put("7", SnapshotImpl.pack(7, 6, Collections.emptyMap()));
+    try {
+      CheckpointUtils.restoreSnapshot(store, 7L, new SnapshotImpl());
+      Assert.fail("A delta without its base version should not be restored");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testAsyncFailure() throws InterruptedException {
+    MemoryStateStore store = new MemoryStateStore();
+    store.failKey = "2";
+    SnapshotWriter writer = new SnapshotWriter(config(true, true), store);
+    SnapshotImpl state = new SnapshotImpl();
+    for (long v = 1; v <= 3; v++) {
+      state.setValue("v", v);
+      state.setVersion(v);
+      writer.write(state.capture());
+    }
+
+    long start = System.currentTimeMillis();
+    while (store.writes.size() < 2 && System.currentTimeMillis() - start < TIMEOUT) {
+      Thread.sleep(1);
+    }
+    Assert.assertEquals(Arrays.asList("1", "3"), store.writes);
+    try {
+      writer.poll();
+      Assert.fail("A failed write should be reported to the task");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+    // the version after the failure cannot be a delta of the failed one
+    Assert.assertEquals(-1, SnapshotImpl.getBaseVersion(store.get("3")));
+  }
+
+  @Test
+  public void testBusy() throws InterruptedException {
+    MemoryStateStore store = new MemoryStateStore();
+    store.blocker = new CountDownLatch(1);
+    SnapshotWriter writer = new SnapshotWriter(config(true, false), store);
+    SnapshotImpl state = new SnapshotImpl();
+    for (long v = 1; v <= 4; v++) {
+      Assert.assertFalse(writer.isBusy());
+      state.setVersion(v);
+      writer.write(state.capture());
+    }
+    Assert.assertTrue(writer.isBusy());
+    store.blocker.countDown();
+    Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), drain(writer, 4));
+    Assert.assertFalse(writer.isBusy());
+  }
+}
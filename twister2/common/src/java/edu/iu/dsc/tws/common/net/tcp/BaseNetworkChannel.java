@@ -15,7 +15,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -25,7 +27,12 @@ import java.util.logging.Logger;
 import edu.iu.dsc.tws.api.config.Config;
 
 /**
- * Base network channel
+ * Base network channel.
+ *
+ * Pending sends to the peer are written with gathering writes, so that the headers and bodies
+ * of many small messages go to the socket in a single system call. Reads can scatter the bytes
+ * following a message body in to the header buffer, so that the header of the next message is
+ * read with the current body.
  */
 public abstract class BaseNetworkChannel {
   private static final Logger LOG = Logger.getLogger(BaseNetworkChannel.class.getName());
@@ -59,6 +66,37 @@ public abstract class BaseNetworkChannel {
   // header size of each message, we use edge and length as the header
   private static final int HEADER_SIZE = 8;
 
+  /**
+   * Maximum number of messages in a gathering write
+   */
+  private final int gatherMessages;
+
+  /**
+   * Stop adding messages to a gathering write after this many bytes
+   */
+  private final long gatherBytes;
+
+  /**
+   * Headers of the messages after the first one in a gathering write, the header of the
+   * first message is always the write header which keeps the state of a partial write
+   */
+  private final ByteBuffer[] gatherHeaders;
+
+  /**
+   * The buffers given to the gathering write
+   */
+  private final ByteBuffer[] gatherBuffers;
+
+  /**
+   * Weather to read the next header with the current body
+   */
+  private final boolean readScatter;
+
+  /**
+   * The buffers given to the scattering read
+   */
+  private final ByteBuffer[] scatterBuffers = new ByteBuffer[2];
+
   BaseNetworkChannel(Config cfg, Progress progress, SelectHandler handler,
                      SocketChannel channel, ChannelHandler msgHandler) {
     this.socketChannel = channel;
@@ -74,6 +112,15 @@ public abstract class BaseNetworkChannel {
 
     this.readStatus = DataStatus.INIT;
     this.writeStatus = DataStatus.INIT;
+
+    this.gatherMessages = TCPContext.getWriteGatherMessages(cfg);
+    this.gatherBytes = TCPContext.getWriteGatherBytes(cfg);
+    this.gatherHeaders = new ByteBuffer[gatherMessages];
+    for (int i = 1; i < gatherMessages; i++) {
+      gatherHeaders[i] = ByteBuffer.allocate(HEADER_SIZE);
+    }
+    this.gatherBuffers = new ByteBuffer[gatherMessages * 2];
+    this.readScatter = TCPContext.isReadScatter(cfg);
   }
 
   public void read() {
@@ -100,6 +147,27 @@ public abstract class BaseNetworkChannel {
     return false;
   }
 
+  /**
+   * Remove a read request that has not started receiving data yet
+   *
+   * @param request the request
+   * @return true if the request is removed
+   */
+  public boolean removeReadRequest(TCPMessage request) {
+    return false;
+  }
+
+  /**
+   * Weather a message for the edge has arrived and we are waiting for a read request to
+   * receive it
+   *
+   * @param edge the edge
+   * @return true if the channel is waiting for a read request
+   */
+  public boolean isWaitingForReadRequest(int edge) {
+    return false;
+  }
+
   public boolean addWriteRequest(TCPMessage request) {
     ByteBuffer byteBuffer = request.getByteBuffer();
     if (request.getLength() == 0) {
@@ -114,6 +182,11 @@ public abstract class BaseNetworkChannel {
   }
 
   public void write() {
+    if (gatherMessages > 1) {
+      writeGathered();
+      return;
+    }
+
     while (pendingSends.size() > 0) {
       TCPMessage writeRequest = pendingSends.peek();
       if (writeRequest == null) {
@@ -142,17 +215,113 @@ public abstract class BaseNetworkChannel {
 
   }
 
+  /**
+   * Write the pending sends with gathering writes until the socket does not accept more data
+   */
+  private void writeGathered() {
+    while (pendingSends.size() > 0) {
+      int messages = 0;
+      int buffers = 0;
+      long bytes = 0;
+      Iterator<TCPMessage> itr = pendingSends.iterator();
+      while (itr.hasNext() && messages < gatherMessages && bytes < gatherBytes) {
+        TCPMessage message = itr.next();
+        ByteBuffer header;
+        if (messages == 0) {
+          // the first message may be partially written
+          if (writeStatus == DataStatus.INIT) {
+            prepareHeader(writeHeader, message);
+            writeStatus = DataStatus.HEADER;
+          }
+          header = writeHeader;
+        } else {
+          header = gatherHeaders[messages];
+          prepareHeader(header, message);
+        }
+        ByteBuffer body = message.getByteBuffer();
+        gatherBuffers[buffers++] = header;
+        gatherBuffers[buffers++] = body;
+        bytes += header.remaining() + body.remaining();
+        messages++;
+      }
+
+      if (messages == 0) {
+        break;
+      }
+
+      long wrote;
+      try {
+        wrote = socketChannel.write(gatherBuffers, 0, buffers);
+        LOG.finest("Wrote " + wrote);
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Error writing to channel ", e);
+        wrote = -1;
+      }
+
+      if (wrote < 0) {
+        Arrays.fill(gatherBuffers, 0, buffers, null);
+        LOG.severe("Something bad happened while writing to channel");
+        TCPMessage writeRequest = pendingSends.peek();
+        if (writeRequest != null) {
+          writeRequest.setError();
+        }
+        selectHandler.handleError(socketChannel);
+        return;
+      }
+
+      int completed = 0;
+      for (int i = 0; i < messages; i++) {
+        ByteBuffer header = gatherBuffers[2 * i];
+        ByteBuffer body = gatherBuffers[2 * i + 1];
+        if (header.hasRemaining() || body.hasRemaining()) {
+          if (i > 0 && header.position() > 0) {
+            // the write stopped in the middle of this message, it becomes the first message
+            // so its header state is moved to the write header
+            writeHeader.clear();
+            writeHeader.put(header);
+            writeHeader.flip();
+            writeStatus = DataStatus.HEADER;
+          } else if (i > 0) {
+            writeStatus = DataStatus.INIT;
+          }
+          break;
+        }
+        completed++;
+      }
+      Arrays.fill(gatherBuffers, 0, buffers, null);
+
+      for (int i = 0; i < completed; i++) {
+        TCPMessage writeRequest = pendingSends.poll();
+        writeRequest.setComplete();
+        // notify the handler
+        channelHandler.onSendComplete(socketChannel, writeRequest);
+      }
+      if (completed == messages) {
+        writeStatus = DataStatus.INIT;
+      }
+
+      if (pendingSends.size() == 0) {
+        disableWriting();
+      } else if (completed < messages) {
+        // the socket buffer is full
+        break;
+      }
+    }
+  }
+
+  private void prepareHeader(ByteBuffer header, TCPMessage message) {
+    header.clear();
+    header.putInt(message.getLength());
+    header.putInt(message.getEdge());
+    header.flip();
+  }
+
   private int writeRequest(SocketChannel channel, TCPMessage message) {
     ByteBuffer buffer = message.getByteBuffer();
     int written = 0;
     if (writeStatus == DataStatus.INIT) {
-      // lets flip the buffer
-      writeHeader.clear();
+      prepareHeader(writeHeader, message);
       writeStatus = DataStatus.HEADER;
-
-      writeHeader.putInt(message.getLength());
-      writeHeader.putInt(message.getEdge());
-      writeHeader.flip();
     }
 
     if (writeStatus == DataStatus.HEADER) {
@@ -212,6 +381,42 @@ public abstract class BaseNetworkChannel {
     }
   }
 
+  /**
+   * Read the body of a message. If scattering reads are enabled, the bytes after the body are read
+   * in to the header buffer, which should be cleared after parsing the header of this message.
+   *
+   * @param channel the channel
+   * @param body the buffer to read the body
+   * @return number of bytes remaining in the body or a negative value in case of an error
+   */
+  int readBodyFromChannel(SocketChannel channel, ByteBuffer body) {
+    if (!readScatter) {
+      return readFromChannel(channel, body);
+    }
+
+    int remaining = body.remaining();
+    long read;
+    scatterBuffers[0] = body;
+    scatterBuffers[1] = readHeader;
+    try {
+      read = channel.read(scatterBuffers);
+    } catch (java.nio.channels.ClosedByInterruptException e) {
+      LOG.warning("ClosedByInterruptException thrown. "
+          + "Probably the Channel is closed by the user program intentionally.");
+      return -1;
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Error in channel.read ", e);
+      return -1;
+    } finally {
+      scatterBuffers[0] = null;
+    }
+    if (read < 0) {
+      return (int) read;
+    } else {
+      return remaining - (int) Math.min(read, remaining);
+    }
+  }
+
   public void forceFlush() {
     while (!pendingSends.isEmpty()) {
       int writeState = writeRequest(socketChannel, pendingSends.poll());
@@ -65,6 +65,8 @@ public class DynamicBufferChannel extends BaseNetworkChannel {
       readHeader.flip();
       readMessageSize = readHeader.getInt();
       readEdge = readHeader.getInt();
+      // the header buffer may receive the next header while reading the body
+      readHeader.clear();
       readStatus = DataStatus.BODY;
       LOG.finest(String.format("READ Header %d %d", readMessageSize, readEdge));
     }
@@ -80,7 +82,7 @@ public class DynamicBufferChannel extends BaseNetworkChannel {
         buffer = readingRequest.getByteBuffer();
       }
 
-      int retVal = readFromChannel(channel, buffer);
+      int retVal = readBodyFromChannel(channel, buffer);
       if (retVal < 0) {
         readMessageSize = 0;
         readEdge = 0;
@@ -100,7 +102,8 @@ public class DynamicBufferChannel extends BaseNetworkChannel {
 
         TCPMessage ret = readingRequest;
         readingRequest = null;
-        readStatus = DataStatus.INIT;
+        // continue with the part of the next header we may have read with the body
+        readStatus = DataStatus.HEADER;
         LOG.finest(String.format("READ Body %d", buffer.limit()));
         return ret;
       }
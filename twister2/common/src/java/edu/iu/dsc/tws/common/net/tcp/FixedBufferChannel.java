@@ -54,6 +54,22 @@ public class FixedBufferChannel extends BaseNetworkChannel {
     return inQueue.offer(request);
   }
 
+  @Override
+  public boolean removeReadRequest(TCPMessage request) {
+    // a request is taken out of the queue before we read in to it
+    BlockingQueue<TCPMessage> inQueue = pendingReceives.get(request.getEdge());
+    return inQueue != null && inQueue.remove(request);
+  }
+
+  @Override
+  public boolean isWaitingForReadRequest(int edge) {
+    if (readStatus != DataStatus.BODY || readingRequest != null || readEdge != edge) {
+      return false;
+    }
+    BlockingQueue<TCPMessage> inQueue = pendingReceives.get(edge);
+    return inQueue == null || inQueue.isEmpty();
+  }
+
   /**
    * Read the request
    * @param channel
@@ -81,6 +97,8 @@ public class FixedBufferChannel extends BaseNetworkChannel {
       readHeader.flip();
       readMessageSize = readHeader.getInt();
       readEdge = readHeader.getInt();
+      // the header buffer may receive the next header while reading the body
+      readHeader.clear();
       readStatus = DataStatus.BODY;
       LOG.finest(String.format("READ Header %d %d", readMessageSize, readEdge));
     }
@@ -99,7 +117,7 @@ public class FixedBufferChannel extends BaseNetworkChannel {
         buffer = readingRequest.getByteBuffer();
       }
 
-      int retVal = readFromChannel(channel, buffer);
+      int retVal = readBodyFromChannel(channel, buffer);
       if (retVal < 0) {
         readMessageSize = 0;
         readEdge = 0;
@@ -118,7 +136,8 @@ public class FixedBufferChannel extends BaseNetworkChannel {
 
         TCPMessage ret = readingRequest;
         readingRequest = null;
-        readStatus = DataStatus.INIT;
+        // continue with the part of the next header we may have read with the body
+        readStatus = DataStatus.HEADER;
         LOG.finest(String.format("READ Body %d", buffer.limit()));
         return ret;
       } else {
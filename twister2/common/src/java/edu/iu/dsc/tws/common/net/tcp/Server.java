@@ -207,6 +207,22 @@ public class Server implements SelectHandler {
     return request;
   }
 
+  /**
+   * Cancel a receive that has not started receiving data
+   */
+  public boolean cancelReceive(SocketChannel sc, TCPMessage request) {
+    BaseNetworkChannel channel = connectedChannels.get(sc);
+    return channel != null && channel.removeReadRequest(request);
+  }
+
+  /**
+   * Weather a message for the edge is waiting for a receive to be posted
+   */
+  public boolean isReceiveWaiting(SocketChannel sc, int edge) {
+    BaseNetworkChannel channel = connectedChannels.get(sc);
+    return channel != null && channel.isWaitingForReadRequest(edge);
+  }
+
   @Override
   public void handleRead(SelectableChannel ch) {
     BaseNetworkChannel channel = connectedChannels.get(ch);
@@ -184,6 +184,31 @@ public class TCPChannel {
     return server.receive(ch, buffer, size, edge);
   }
 
+  /**
+   * Cancel a receive posted with {@link #iRecv(ByteBuffer, int, int, int)} that has not started
+   * receiving data
+   *
+   * @param request the receive request
+   * @param workerID the worker we are receiving from
+   * @return true if the receive is cancelled and the buffer can be reused
+   */
+  public boolean cancelRecv(TCPMessage request, int workerID) {
+    SocketChannel ch = serverChannels.get(workerID);
+    return ch != null && server.cancelReceive(ch, request);
+  }
+
+  /**
+   * Weather a message from the worker for the edge has arrived and no receive is posted for it
+   *
+   * @param workerID the worker
+   * @param edge the edge
+   * @return true if a receive should be posted
+   */
+  public boolean isRecvWaiting(int workerID, int edge) {
+    SocketChannel ch = serverChannels.get(workerID);
+    return ch != null && server.isReceiveWaiting(ch, edge);
+  }
+
   /**
    * Progress the communication
    */
@@ -32,6 +32,25 @@ public class TCPContext extends Context {
   public static final String NETWORK_HOSTNAME = "twister2.tcp.hostname";
   public static final String NETWORK_PORT = "twister2.tcp.port";
 
+  /**
+   * Maximum number of pending messages written to a socket with a single gathering write,
+   * 1 writes the messages one by one
+   */
+  public static final String TWISTER2_WRITE_GATHER_MESSAGES = "twister2.tcp.write.gather.messages";
+  public static final int TWISTER2_WRITE_GATHER_MESSAGES_DEFAULT = 64;
+
+  /**
+   * We stop adding messages to a gathering write after this many bytes
+   */
+  public static final String TWISTER2_WRITE_GATHER_BYTES = "twister2.tcp.write.gather.bytes";
+  public static final int TWISTER2_WRITE_GATHER_BYTES_DEFAULT = 1024 * 1024;
+
+  /**
+   * Read the header of the next message with the body of the current message
+   */
+  public static final String TWISTER2_READ_SCATTER = "twister2.tcp.read.scatter";
+  public static final boolean TWISTER2_READ_SCATTER_DEFAULT = true;
+
   public static final String MAX_CONN_EST_TIME
       = "twister2.network.max.connection.establishment.time";
   public static final long MAX_CONN_EST_TIME_DEFAULT = 30000;
@@ -64,6 +83,19 @@ public class TCPContext extends Context {
     return cfg.getIntegerValue(TWISTER2_MAX_PACKET_SIZE, def);
   }
 
+  public static int getWriteGatherMessages(Config cfg) {
+    return Math.max(1, cfg.getIntegerValue(TWISTER2_WRITE_GATHER_MESSAGES,
+        TWISTER2_WRITE_GATHER_MESSAGES_DEFAULT));
+  }
+
+  public static int getWriteGatherBytes(Config cfg) {
+    return cfg.getIntegerValue(TWISTER2_WRITE_GATHER_BYTES, TWISTER2_WRITE_GATHER_BYTES_DEFAULT);
+  }
+
+  public static boolean isReadScatter(Config cfg) {
+    return cfg.getBooleanValue(TWISTER2_READ_SCATTER, TWISTER2_READ_SCATTER_DEFAULT);
+  }
+
   public static String getHostName(NetworkInfo networkInfo) {
     return (String) networkInfo.getProperties().get(NETWORK_HOSTNAME);
   }
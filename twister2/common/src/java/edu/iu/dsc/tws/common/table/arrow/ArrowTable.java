@@ -20,6 +20,7 @@ import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.Float4Vector;
 import org.apache.arrow.vector.Float8Vector;
 import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt2Vector;
 import org.apache.arrow.vector.UInt8Vector;
 import org.apache.arrow.vector.VarBinaryVector;
 import org.apache.arrow.vector.VarCharVector;
@@ -49,6 +50,8 @@ public class ArrowTable implements Table {
   }
 
   public ArrowTable(Schema schema, List<FieldVector> vectors) {
+    this.schema = schema;
+    this.rows = vectors.isEmpty() ? 0 : vectors.get(0).getValueCount();
     columns = new ArrayList<>();
     for (FieldVector vector : vectors) {
       if (vector instanceof IntVector) {
@@ -59,6 +62,8 @@ public class ArrowTable implements Table {
         columns.add(new Float8Column((Float8Vector) vector));
       } else if (vector instanceof UInt8Vector) {
         columns.add(new Int8Column((UInt8Vector) vector));
+      } else if (vector instanceof UInt2Vector) {
+        columns.add(new UInt2Column((UInt2Vector) vector));
       } else if (vector instanceof VarCharVector) {
         columns.add(new StringColumn((VarCharVector) vector));
       } else if (vector instanceof VarBinaryVector) {
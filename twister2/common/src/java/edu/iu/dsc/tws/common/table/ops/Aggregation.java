@@ -0,0 +1,76 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.io.Serializable;
+
+/**
+ * An aggregate function applied to a column of a table by {@link TableAggregate}
+ */
+public final class Aggregation implements Serializable {
+  public enum Function {
+    /**
+     * Sum of the non null values, the result is a long for integer columns and a double for
+     * floating point columns
+     */
+    SUM,
+    /**
+     * Number of non null values, the result is an integer
+     */
+    COUNT,
+    /**
+     * Minimum value, the result has the type of the column
+     */
+    MIN,
+    /**
+     * Maximum value, the result has the type of the column
+     */
+    MAX
+  }
+
+  private Function function;
+
+  private int column;
+
+  private Aggregation() {
+    //non arg constructor for kryo
+  }
+
+  public Aggregation(Function function, int column) {
+    this.function = function;
+    this.column = column;
+  }
+
+  public static Aggregation sum(int column) {
+    return new Aggregation(Function.SUM, column);
+  }
+
+  public static Aggregation count(int column) {
+    return new Aggregation(Function.COUNT, column);
+  }
+
+  public static Aggregation min(int column) {
+    return new Aggregation(Function.MIN, column);
+  }
+
+  public static Aggregation max(int column) {
+    return new Aggregation(Function.MAX, column);
+  }
+
+  public Function getFunction() {
+    return function;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+}
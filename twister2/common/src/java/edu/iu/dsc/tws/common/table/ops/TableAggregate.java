@@ -0,0 +1,247 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt2Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Hash group by of a table. The rows are assigned to groups using an open addressing hash table
+ * over the hash codes of the key columns, then each aggregate is computed column wise in to
+ * primitive arrays.
+ */
+public final class TableAggregate {
+  private TableAggregate() {
+  }
+
+  /**
+   * Group the rows of the table by the key columns and aggregate the values of each group. The
+   * result has the key columns followed by a column for each aggregation, groups appear in the
+   * order of their first row.
+   *
+   * @param table the table
+   * @param keys the key columns
+   * @param aggregations the aggregations
+   * @param schema schema of the result, the names of the aggregate columns are taken from this
+   * @param allocator allocator for the new vectors
+   * @return the aggregated table
+   */
+  public static Table groupBy(Table table, int[] keys, List<Aggregation> aggregations,
+                              Schema schema, BufferAllocator allocator) {
+    int rows = table.rowCount();
+    int[] groupOfRow = new int[rows];
+    int[] firstRows = new int[rows];
+    int groups = group(table, keys, groupOfRow, firstRows);
+
+    List<FieldVector> vectors = new ArrayList<>(keys.length + aggregations.size());
+    for (int key : keys) {
+      vectors.add(VectorOps.take(table.getColumns().get(key).getVector(),
+          firstRows, 0, groups, allocator));
+    }
+    for (int a = 0; a < aggregations.size(); a++) {
+      Aggregation aggregation = aggregations.get(a);
+      FieldVector column = table.getColumns().get(aggregation.getColumn()).getVector();
+      String name = schema != null ? schema.getFields().get(keys.length + a).getName()
+          : aggregation.getFunction().name().toLowerCase() + "_" + column.getField().getName();
+      switch (aggregation.getFunction()) {
+        case SUM:
+          vectors.add(sum(column, rows, groupOfRow, groups, name, allocator));
+          break;
+        case COUNT:
+          vectors.add(count(column, rows, groupOfRow, groups, name, allocator));
+          break;
+        case MIN:
+        case MAX:
+          vectors.add(VectorOps.take(column, extreme(column, rows, groupOfRow, groups,
+              aggregation.getFunction() == Aggregation.Function.MIN), 0, groups, allocator));
+          break;
+        default:
+          throw new Twister2RuntimeException("Un-known aggregation "
+              + aggregation.getFunction());
+      }
+    }
+    return new ArrowTable(schema, vectors);
+  }
+
+  /**
+   * Assign the rows to groups
+   *
+   * @return number of groups
+   */
+  private static int group(Table table, int[] keys, int[] groupOfRow, int[] firstRows) {
+    int rows = table.rowCount();
+    int[] hashes = VectorOps.hash(table, keys);
+    VectorOps.IndexComparator comparator = VectorOps.comparator(table, keys, table, keys, null);
+
+    int capacity = VectorOps.hashTableSize(rows);
+    int mask = capacity - 1;
+    int[] slots = new int[capacity];
+    Arrays.fill(slots, -1);
+
+    int groups = 0;
+    for (int i = 0; i < rows; i++) {
+      int slot = VectorOps.mix(hashes[i]) & mask;
+      while (true) {
+        int g = slots[slot];
+        if (g < 0) {
+          slots[slot] = groups;
+          firstRows[groups] = i;
+          groupOfRow[i] = groups++;
+          break;
+        }
+        int first = firstRows[g];
+        if (hashes[first] == hashes[i] && comparator.compare(first, i) == 0) {
+          groupOfRow[i] = g;
+          break;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+    return groups;
+  }
+
+  private static FieldVector count(FieldVector column, int rows, int[] groupOfRow, int groups,
+                                   String name, BufferAllocator allocator) {
+    int[] counts = new int[groups];
+    for (int i = 0; i < rows; i++) {
+      if (!column.isNull(i)) {
+        counts[groupOfRow[i]]++;
+      }
+    }
+    IntVector vector = new IntVector(name, allocator);
+    vector.allocateNew(groups);
+    for (int g = 0; g < groups; g++) {
+      vector.set(g, counts[g]);
+    }
+    vector.setValueCount(groups);
+    return vector;
+  }
+
+  /**
+   * Sum the values of each group. Integer columns are summed exactly in to a long column and
+   * floating point columns in to a double column, a group with only nulls has a null sum.
+   */
+  private static FieldVector sum(FieldVector column, int rows, int[] groupOfRow, int groups,
+                                 String name, BufferAllocator allocator) {
+    boolean[] seen = new boolean[groups];
+    if (column instanceof Float8Vector || column instanceof Float4Vector) {
+      double[] sums = new double[groups];
+      ArrowBuf data = ((BaseFixedWidthVector) column).getDataBuffer();
+      boolean doubles = column instanceof Float8Vector;
+      for (int i = 0; i < rows; i++) {
+        if (!column.isNull(i)) {
+          int g = groupOfRow[i];
+          sums[g] += doubles ? data.getDouble(i * 8) : data.getFloat(i * 4);
+          seen[g] = true;
+        }
+      }
+
+      Float8Vector vector = new Float8Vector(name, allocator);
+      vector.allocateNew(groups);
+      for (int g = 0; g < groups; g++) {
+        if (seen[g]) {
+          vector.set(g, sums[g]);
+        } else {
+          vector.setNull(g);
+        }
+      }
+      vector.setValueCount(groups);
+      return vector;
+    }
+
+    long[] sums = new long[groups];
+    if (column instanceof IntVector) {
+      ArrowBuf data = ((IntVector) column).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        if (!column.isNull(i)) {
+          sums[groupOfRow[i]] += data.getInt(i * 4);
+          seen[groupOfRow[i]] = true;
+        }
+      }
+    } else if (column instanceof UInt8Vector) {
+      ArrowBuf data = ((UInt8Vector) column).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        if (!column.isNull(i)) {
+          sums[groupOfRow[i]] += data.getLong(i * 8);
+          seen[groupOfRow[i]] = true;
+        }
+      }
+    } else if (column instanceof UInt2Vector) {
+      ArrowBuf data = ((UInt2Vector) column).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        if (!column.isNull(i)) {
+          sums[groupOfRow[i]] += data.getShort(i * 2) & 0xFFFF;
+          seen[groupOfRow[i]] = true;
+        }
+      }
+    } else {
+      throw new Twister2RuntimeException("Cannot sum a column of type "
+          + column.getClass().getSimpleName());
+    }
+
+    // longs are kept in UInt8Vectors like the other long columns of the tables
+    UInt8Vector vector = new UInt8Vector(name, allocator);
+    vector.allocateNew(groups);
+    for (int g = 0; g < groups; g++) {
+      if (seen[g]) {
+        vector.set(g, sums[g]);
+      } else {
+        vector.setNull(g);
+      }
+    }
+    vector.setValueCount(groups);
+    return vector;
+  }
+
+  /**
+   * The row with the minimum or maximum value of each group, -1 if all the values are null
+   */
+  private static int[] extreme(FieldVector column, int rows, int[] groupOfRow, int groups,
+                               boolean min) {
+    VectorOps.IndexComparator comparator = VectorOps.comparator(column, column);
+    int[] selected = new int[groups];
+    Arrays.fill(selected, -1);
+    for (int i = 0; i < rows; i++) {
+      if (column.isNull(i)) {
+        continue;
+      }
+      int g = groupOfRow[i];
+      int current = selected[g];
+      if (current < 0) {
+        selected[g] = i;
+      } else {
+        int cmp = comparator.compare(i, current);
+        if (min ? cmp < 0 : cmp > 0) {
+          selected[g] = i;
+        }
+      }
+    }
+    return selected;
+  }
+}
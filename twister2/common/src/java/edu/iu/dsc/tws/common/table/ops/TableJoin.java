@@ -0,0 +1,242 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+/**
+ * Joins two tables on key columns. The join produces a pair of selection vectors for the left
+ * and right tables, and the columns of both tables are gathered using them. Rows with a null
+ * key do not match any row.
+ */
+public final class TableJoin {
+  private TableJoin() {
+  }
+
+  /**
+   * Join two tables. The result has the columns of the left table followed by the columns of the
+   * right table, the columns of the missing side of an outer join are null.
+   *
+   * @param left the left table
+   * @param right the right table
+   * @param leftKeys key columns of the left table
+   * @param rightKeys key columns of the right table, should have the same types as the left keys
+   * @param type join type
+   * @param algorithm join algorithm
+   * @param schema schema of the result
+   * @param allocator allocator for the new vectors
+   * @return the joined table
+   */
+  public static Table join(Table left, Table right, int[] leftKeys, int[] rightKeys,
+                           CommunicationContext.JoinType type,
+                           CommunicationContext.JoinAlgorithm algorithm,
+                           Schema schema, BufferAllocator allocator) {
+    Selection selection;
+    if (algorithm == CommunicationContext.JoinAlgorithm.HASH) {
+      selection = hashJoin(left, right, leftKeys, rightKeys, type);
+    } else {
+      selection = sortMergeJoin(left, right, leftKeys, rightKeys, type);
+    }
+
+    List<FieldVector> vectors = new ArrayList<>(left.getColumns().size()
+        + right.getColumns().size());
+    for (ArrowColumn column : left.getColumns()) {
+      vectors.add(VectorOps.take(column.getVector(), selection.left, 0, selection.size,
+          allocator));
+    }
+    for (ArrowColumn column : right.getColumns()) {
+      vectors.add(VectorOps.take(column.getVector(), selection.right, 0, selection.size,
+          allocator));
+    }
+    return new ArrowTable(schema, vectors);
+  }
+
+  private static boolean outerLeft(CommunicationContext.JoinType type) {
+    return type == CommunicationContext.JoinType.LEFT
+        || type == CommunicationContext.JoinType.FULL_OUTER;
+  }
+
+  private static boolean outerRight(CommunicationContext.JoinType type) {
+    return type == CommunicationContext.JoinType.RIGHT
+        || type == CommunicationContext.JoinType.FULL_OUTER;
+  }
+
+  /**
+   * Build a hash table on the right table and probe it with the rows of the left table
+   */
+  static Selection hashJoin(Table left, Table right, int[] leftKeys, int[] rightKeys,
+                            CommunicationContext.JoinType type) {
+    int leftRows = left.rowCount();
+    int rightRows = right.rowCount();
+    int[] leftHashes = VectorOps.hash(left, leftKeys);
+    int[] rightHashes = VectorOps.hash(right, rightKeys);
+    VectorOps.IndexComparator comparator = VectorOps.comparator(left, leftKeys,
+        right, rightKeys, null);
+
+    // the rows of each bucket are chained through next, inserted in reverse so that the chains
+    // are in the order of the rows
+    int mask = VectorOps.hashTableSize(rightRows) - 1;
+    int[] heads = new int[mask + 1];
+    Arrays.fill(heads, -1);
+    int[] next = new int[rightRows];
+    for (int r = rightRows - 1; r >= 0; r--) {
+      if (VectorOps.hasNull(right, rightKeys, r)) {
+        continue;
+      }
+      int bucket = VectorOps.mix(rightHashes[r]) & mask;
+      next[r] = heads[bucket];
+      heads[bucket] = r;
+    }
+
+    Selection selection = new Selection(Math.max(leftRows, rightRows));
+    boolean[] rightMatched = new boolean[rightRows];
+    for (int l = 0; l < leftRows; l++) {
+      boolean matched = false;
+      if (!VectorOps.hasNull(left, leftKeys, l)) {
+        int h = leftHashes[l];
+        for (int r = heads[VectorOps.mix(h) & mask]; r >= 0; r = next[r]) {
+          if (rightHashes[r] == h && comparator.compare(l, r) == 0) {
+            selection.add(l, r);
+            rightMatched[r] = true;
+            matched = true;
+          }
+        }
+      }
+      if (!matched && outerLeft(type)) {
+        selection.add(l, -1);
+      }
+    }
+
+    if (outerRight(type)) {
+      for (int r = 0; r < rightRows; r++) {
+        if (!rightMatched[r]) {
+          selection.add(-1, r);
+        }
+      }
+    }
+    return selection;
+  }
+
+  /**
+   * Sort both tables on the keys and merge them
+   */
+  static Selection sortMergeJoin(Table left, Table right, int[] leftKeys, int[] rightKeys,
+                                 CommunicationContext.JoinType type) {
+    int[] leftIndexes = TableSort.sortIndexes(left, leftKeys, null);
+    int[] rightIndexes = TableSort.sortIndexes(right, rightKeys, null);
+    VectorOps.IndexComparator comparator = VectorOps.comparator(left, leftKeys,
+        right, rightKeys, null);
+    VectorOps.IndexComparator leftComparator = VectorOps.comparator(left, leftKeys,
+        left, leftKeys, null);
+    VectorOps.IndexComparator rightComparator = VectorOps.comparator(right, rightKeys,
+        right, rightKeys, null);
+    boolean outerLeft = outerLeft(type);
+    boolean outerRight = outerRight(type);
+
+    Selection selection = new Selection(Math.max(leftIndexes.length, rightIndexes.length));
+    int i = 0;
+    int j = 0;
+    while (i < leftIndexes.length && j < rightIndexes.length) {
+      int l = leftIndexes[i];
+      int r = rightIndexes[j];
+      // nulls are sorted first, they do not match anything
+      if (VectorOps.hasNull(left, leftKeys, l)) {
+        if (outerLeft) {
+          selection.add(l, -1);
+        }
+        i++;
+        continue;
+      }
+      if (VectorOps.hasNull(right, rightKeys, r)) {
+        if (outerRight) {
+          selection.add(-1, r);
+        }
+        j++;
+        continue;
+      }
+
+      int cmp = comparator.compare(l, r);
+      if (cmp < 0) {
+        if (outerLeft) {
+          selection.add(l, -1);
+        }
+        i++;
+      } else if (cmp > 0) {
+        if (outerRight) {
+          selection.add(-1, r);
+        }
+        j++;
+      } else {
+        int leftEnd = i + 1;
+        while (leftEnd < leftIndexes.length
+            && leftComparator.compare(leftIndexes[leftEnd], l) == 0) {
+          leftEnd++;
+        }
+        int rightEnd = j + 1;
+        while (rightEnd < rightIndexes.length
+            && rightComparator.compare(rightIndexes[rightEnd], r) == 0) {
+          rightEnd++;
+        }
+        for (int a = i; a < leftEnd; a++) {
+          for (int b = j; b < rightEnd; b++) {
+            selection.add(leftIndexes[a], rightIndexes[b]);
+          }
+        }
+        i = leftEnd;
+        j = rightEnd;
+      }
+    }
+
+    for (; outerLeft && i < leftIndexes.length; i++) {
+      selection.add(leftIndexes[i], -1);
+    }
+    for (; outerRight && j < rightIndexes.length; j++) {
+      selection.add(-1, rightIndexes[j]);
+    }
+    return selection;
+  }
+
+  /**
+   * Matching row pairs of the two tables, -1 for a missing row
+   */
+  static final class Selection {
+    private int[] left;
+    private int[] right;
+    private int size;
+
+    Selection(int capacity) {
+      this.left = new int[Math.max(capacity, 16)];
+      this.right = new int[left.length];
+    }
+
+    void add(int l, int r) {
+      if (size == left.length) {
+        left = Arrays.copyOf(left, size << 1);
+        right = Arrays.copyOf(right, size << 1);
+      }
+      left[size] = l;
+      right[size] = r;
+      size++;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.Table;
+
+/**
+ * Sorts tables on multiple columns. The rows are ordered through an index permutation using
+ * comparators that read the vector buffers, then the columns are gathered in to new vectors.
+ */
+public final class TableSort {
+  /**
+   * Ranges smaller than this are sorted with insertion sort
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private TableSort() {
+  }
+
+  /**
+   * Sort the table
+   *
+   * @param table the table
+   * @param columns the sort columns in order of precedence
+   * @param ascending order of each column, null to sort all columns in ascending order
+   * @param schema schema of the table
+   * @param allocator allocator for the new vectors
+   * @return the sorted table
+   */
+  public static Table sort(Table table, int[] columns, boolean[] ascending, Schema schema,
+                           BufferAllocator allocator) {
+    int[] indexes = sortIndexes(table, columns, ascending);
+    return VectorOps.take(table, indexes, indexes.length, schema, allocator);
+  }
+
+  /**
+   * The row indexes of the table in sorted order. The sort is stable and nulls are ordered first.
+   *
+   * @param table the table
+   * @param columns the sort columns in order of precedence
+   * @param ascending order of each column, null to sort all columns in ascending order
+   * @return the permutation of the rows
+   */
+  public static int[] sortIndexes(Table table, int[] columns, boolean[] ascending) {
+    int rows = table.rowCount();
+    int[] indexes = new int[rows];
+    for (int i = 0; i < rows; i++) {
+      indexes[i] = i;
+    }
+    if (rows > 1) {
+      VectorOps.IndexComparator comparator = VectorOps.comparator(table, columns,
+          table, columns, ascending);
+      mergeSort(indexes, indexes.clone(), 0, rows, comparator);
+    }
+    return indexes;
+  }
+
+  /**
+   * Sort the range of dst, src should have the same values as dst in the range
+   */
+  private static void mergeSort(int[] dst, int[] src, int from, int to,
+                                VectorOps.IndexComparator comparator) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int value = dst[i];
+        int j = i - 1;
+        while (j >= from && comparator.compare(dst[j], value) > 0) {
+          dst[j + 1] = dst[j];
+          j--;
+        }
+        dst[j + 1] = value;
+      }
+      return;
+    }
+
+    int mid = (from + to) >>> 1;
+    // sort the halves in to src, and merge them back to dst
+    mergeSort(src, dst, from, mid, comparator);
+    mergeSort(src, dst, mid, to, comparator);
+    if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+      System.arraycopy(src, from, dst, from, to - from);
+      return;
+    }
+    for (int i = from, l = from, r = mid; i < to; i++) {
+      if (r >= to || (l < mid && comparator.compare(src[l], src[r]) <= 0)) {
+        dst[i] = src[l++];
+      } else {
+        dst[i] = src[r++];
+      }
+    }
+  }
+}
@@ -0,0 +1,524 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt2Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Column wise primitives shared by the table operators. They read and write the arrow buffers
+ * directly and do not create objects per row.
+ */
+public final class VectorOps {
+  private static final int OFFSET_WIDTH = 4;
+
+  private VectorOps() {
+  }
+
+  /**
+   * Compares a row of one table with a row of another table
+   */
+  public interface IndexComparator {
+    int compare(int left, int right);
+  }
+
+  /**
+   * Hash codes of the rows computed from the given columns. For a single column the hash code of
+   * a value is the same as the hash code of its boxed value, strings and binary values are hashed
+   * like a byte array. The hash codes of multiple columns are combined like a list.
+   *
+   * @param table the table
+   * @param keys the key columns
+   * @return hash code of each row
+   */
+  public static int[] hash(Table table, int[] keys) {
+    int rows = table.rowCount();
+    int[] hashes = new int[rows];
+    for (int k = 0; k < keys.length; k++) {
+      ArrowColumn column = table.getColumns().get(keys[k]);
+      hashColumn(column, rows, hashes, k > 0);
+    }
+    return hashes;
+  }
+
+  private static void hashColumn(ArrowColumn column, int rows, int[] hashes, boolean combine) {
+    FieldVector vector = column.getVector();
+    int multiplier = combine ? 31 : 0;
+    if (vector instanceof IntVector) {
+      ArrowBuf data = ((IntVector) vector).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = vector.isNull(i) ? 0 : data.getInt(i * 4);
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else if (vector instanceof UInt8Vector) {
+      ArrowBuf data = ((UInt8Vector) vector).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = vector.isNull(i) ? 0 : Long.hashCode(data.getLong(i * 8));
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else if (vector instanceof Float8Vector) {
+      ArrowBuf data = ((Float8Vector) vector).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = vector.isNull(i) ? 0 : Double.hashCode(data.getDouble(i * 8));
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else if (vector instanceof Float4Vector) {
+      ArrowBuf data = ((Float4Vector) vector).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = vector.isNull(i) ? 0 : Float.hashCode(data.getFloat(i * 4));
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else if (vector instanceof UInt2Vector) {
+      ArrowBuf data = ((UInt2Vector) vector).getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = vector.isNull(i) ? 0 : data.getShort(i * 2) & 0xFFFF;
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else if (vector instanceof BaseVariableWidthVector) {
+      BaseVariableWidthVector v = (BaseVariableWidthVector) vector;
+      ArrowBuf offsets = v.getOffsetBuffer();
+      ArrowBuf data = v.getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = 0;
+        if (!v.isNull(i)) {
+          h = 1;
+          int end = offsets.getInt((i + 1) * OFFSET_WIDTH);
+          for (int j = offsets.getInt(i * OFFSET_WIDTH); j < end; j++) {
+            h = 31 * h + data.getByte(j);
+          }
+        }
+        hashes[i] = multiplier * hashes[i] + h;
+      }
+    } else {
+      for (int i = 0; i < rows; i++) {
+        hashes[i] = multiplier * hashes[i] + Objects.hashCode(column.get(i));
+      }
+    }
+  }
+
+  /**
+   * Spread the bits of a hash code before using it to index a hash table
+   */
+  static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * A power of two size for a hash table holding the given number of entries, at most half full
+   */
+  static int hashTableSize(int entries) {
+    return Integer.highestOneBit(Math.max(entries, 8) * 2 - 1) << 1;
+  }
+
+  /**
+   * Weather any of the given columns of the row is null
+   *
+   * @param table the table
+   * @param columns the columns
+   * @param row the row
+   * @return true if a value is null
+   */
+  public static boolean hasNull(Table table, int[] columns, int row) {
+    for (int c : columns) {
+      if (table.getColumns().get(c).getVector().isNull(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A comparator of the rows of two tables using the given columns. Nulls are ordered first.
+   *
+   * @param left the left table
+   * @param leftColumns columns of the left table
+   * @param right the right table
+   * @param rightColumns columns of the right table, should have the same types as the left
+   * @param ascending the order of each column, null for ascending order for all
+   * @return the comparator
+   */
+  public static IndexComparator comparator(Table left, int[] leftColumns,
+                                           Table right, int[] rightColumns,
+                                           boolean[] ascending) {
+    IndexComparator[] comparators = new IndexComparator[leftColumns.length];
+    for (int i = 0; i < leftColumns.length; i++) {
+      IndexComparator c = comparator(left.getColumns().get(leftColumns[i]).getVector(),
+          right.getColumns().get(rightColumns[i]).getVector());
+      comparators[i] = ascending == null || ascending[i] ? c : (l, r) -> c.compare(r, l);
+    }
+    if (comparators.length == 1) {
+      return comparators[0];
+    }
+    return (l, r) -> {
+      for (IndexComparator c : comparators) {
+        int cmp = c.compare(l, r);
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return 0;
+    };
+  }
+
+  /**
+   * A comparator for the values of two vectors of the same type. Nulls are ordered first.
+   *
+   * @param left left vector
+   * @param right right vector
+   * @return the comparator
+   */
+  public static IndexComparator comparator(FieldVector left, FieldVector right) {
+    if (left.getClass() != right.getClass()) {
+      throw new Twister2RuntimeException("Cannot compare " + left.getClass().getSimpleName()
+          + " with " + right.getClass().getSimpleName());
+    }
+
+    IndexComparator values;
+    if (left instanceof IntVector) {
+      ArrowBuf l = ((IntVector) left).getDataBuffer();
+      ArrowBuf r = ((IntVector) right).getDataBuffer();
+      values = (i, j) -> Integer.compare(l.getInt(i * 4), r.getInt(j * 4));
+    } else if (left instanceof UInt8Vector) {
+      ArrowBuf l = ((UInt8Vector) left).getDataBuffer();
+      ArrowBuf r = ((UInt8Vector) right).getDataBuffer();
+      values = (i, j) -> Long.compare(l.getLong(i * 8), r.getLong(j * 8));
+    } else if (left instanceof Float8Vector) {
+      ArrowBuf l = ((Float8Vector) left).getDataBuffer();
+      ArrowBuf r = ((Float8Vector) right).getDataBuffer();
+      values = (i, j) -> Double.compare(l.getDouble(i * 8), r.getDouble(j * 8));
+    } else if (left instanceof Float4Vector) {
+      ArrowBuf l = ((Float4Vector) left).getDataBuffer();
+      ArrowBuf r = ((Float4Vector) right).getDataBuffer();
+      values = (i, j) -> Float.compare(l.getFloat(i * 4), r.getFloat(j * 4));
+    } else if (left instanceof UInt2Vector) {
+      ArrowBuf l = ((UInt2Vector) left).getDataBuffer();
+      ArrowBuf r = ((UInt2Vector) right).getDataBuffer();
+      values = (i, j) -> Integer.compare(l.getShort(i * 2) & 0xFFFF, r.getShort(j * 2) & 0xFFFF);
+    } else if (left instanceof BaseVariableWidthVector) {
+      ArrowBuf lOffsets = ((BaseVariableWidthVector) left).getOffsetBuffer();
+      ArrowBuf lData = ((BaseVariableWidthVector) left).getDataBuffer();
+      ArrowBuf rOffsets = ((BaseVariableWidthVector) right).getOffsetBuffer();
+      ArrowBuf rData = ((BaseVariableWidthVector) right).getDataBuffer();
+      values = (i, j) -> compareBytes(lData, lOffsets.getInt(i * OFFSET_WIDTH),
+          lOffsets.getInt((i + 1) * OFFSET_WIDTH), rData, rOffsets.getInt(j * OFFSET_WIDTH),
+          rOffsets.getInt((j + 1) * OFFSET_WIDTH));
+    } else {
+      throw new Twister2RuntimeException("Un-recognized vector type "
+          + left.getClass().getSimpleName());
+    }
+
+    return (i, j) -> {
+      boolean lNull = left.isNull(i);
+      boolean rNull = right.isNull(j);
+      if (lNull || rNull) {
+        return lNull == rNull ? 0 : (lNull ? -1 : 1);
+      }
+      return values.compare(i, j);
+    };
+  }
+
+  /**
+   * Compare two byte ranges lexicographically as unsigned bytes
+   */
+  private static int compareBytes(ArrowBuf l, int lStart, int lEnd,
+                                  ArrowBuf r, int rStart, int rEnd) {
+    int length = Math.min(lEnd - lStart, rEnd - rStart);
+    for (int k = 0; k < length; k++) {
+      int cmp = Integer.compare(l.getByte(lStart + k) & 0xFF, r.getByte(rStart + k) & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(lEnd - lStart, rEnd - rStart);
+  }
+
+  /**
+   * Create a new table with the selected rows of a table
+   *
+   * @param table the table
+   * @param selection the selected rows, a negative index creates a row with null values
+   * @param count number of rows to take from the selection
+   * @param schema schema of the new table
+   * @param allocator allocator for the new vectors
+   * @return the new table
+   */
+  public static Table take(Table table, int[] selection, int count, Schema schema,
+                           BufferAllocator allocator) {
+    List<FieldVector> vectors = new ArrayList<>(table.getColumns().size());
+    for (ArrowColumn column : table.getColumns()) {
+      vectors.add(take(column.getVector(), selection, 0, count, allocator));
+    }
+    return new ArrowTable(schema, vectors);
+  }
+
+  /**
+   * Create a new vector with the selected values of a vector
+   *
+   * @param src the source vector
+   * @param selection the selected values, a negative index creates a null value
+   * @param from start of the selection
+   * @param count number of values to take
+   * @param allocator allocator for the new vector
+   * @return the new vector
+   */
+  public static FieldVector take(FieldVector src, int[] selection, int from, int count,
+                                 BufferAllocator allocator) {
+    FieldVector dst = src.getField().createVector(allocator);
+    copy(src, dst, selection, from, count);
+    return dst;
+  }
+
+  /**
+   * Copy the selected values of a vector to an empty vector of the same type. Values are copied
+   * in contiguous ranges of the source.
+   *
+   * @param src the source vector
+   * @param dst the destination vector
+   * @param selection the selected values, a negative index creates a null value
+   * @param from start of the selection
+   * @param count number of values to copy
+   */
+  public static void copy(FieldVector src, FieldVector dst, int[] selection, int from,
+                          int count) {
+    if (src instanceof BaseFixedWidthVector) {
+      copyFixedWidth((BaseFixedWidthVector) src, (BaseFixedWidthVector) dst,
+          selection, from, count);
+    } else if (src instanceof BaseVariableWidthVector) {
+      copyVariableWidth((BaseVariableWidthVector) src, (BaseVariableWidthVector) dst,
+          selection, from, count);
+    } else {
+      throw new Twister2RuntimeException("Un-recognized vector type "
+          + src.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * The number of rows starting from the given position of the selection vector that are
+   * contiguous in the source, or the number of consecutive null rows
+   */
+  private static int run(int[] selection, int position, int end) {
+    int start = selection[position];
+    int run = 1;
+    if (start < 0) {
+      while (position + run < end && selection[position + run] < 0) {
+        run++;
+      }
+      return run;
+    }
+    while (position + run < end && selection[position + run] == start + run) {
+      run++;
+    }
+    return run;
+  }
+
+  private static void copyFixedWidth(BaseFixedWidthVector src, BaseFixedWidthVector dst,
+                                     int[] selection, int from, int count) {
+    int width = src.getTypeWidth();
+    dst.allocateNew(count);
+    ArrowBuf srcData = src.getDataBuffer();
+    ArrowBuf dstData = dst.getDataBuffer();
+    ArrowBuf validity = dst.getValidityBuffer();
+    validity.setZero(0, (int) validity.capacity());
+
+    int i = 0;
+    while (i < count) {
+      int start = selection[from + i];
+      int run = run(selection, from + i, from + count);
+      if (start >= 0) {
+        dstData.setBytes(i * width, srcData, start * width, run * width);
+        for (int r = 0; r < run; r++) {
+          if (!src.isNull(start + r)) {
+            setValid(validity, i + r);
+          }
+        }
+      }
+      i += run;
+    }
+    dst.setValueCount(count);
+  }
+
+  private static void copyVariableWidth(BaseVariableWidthVector src, BaseVariableWidthVector dst,
+                                        int[] selection, int from, int count) {
+    ArrowBuf srcOffsets = src.getOffsetBuffer();
+    ArrowBuf srcData = src.getDataBuffer();
+    int bytes = 0;
+    for (int i = from; i < from + count; i++) {
+      int row = selection[i];
+      if (row >= 0) {
+        bytes += srcOffsets.getInt((row + 1) * OFFSET_WIDTH)
+            - srcOffsets.getInt(row * OFFSET_WIDTH);
+      }
+    }
+
+    dst.allocateNew(bytes, count);
+    ArrowBuf dstOffsets = dst.getOffsetBuffer();
+    ArrowBuf dstData = dst.getDataBuffer();
+    ArrowBuf validity = dst.getValidityBuffer();
+    validity.setZero(0, (int) validity.capacity());
+    dstOffsets.setInt(0, 0);
+
+    int position = 0;
+    int i = 0;
+    while (i < count) {
+      int start = selection[from + i];
+      int run = run(selection, from + i, from + count);
+      if (start < 0) {
+        for (int r = 0; r < run; r++) {
+          dstOffsets.setInt((i + r + 1) * OFFSET_WIDTH, position);
+        }
+        i += run;
+        continue;
+      }
+      int srcStart = srcOffsets.getInt(start * OFFSET_WIDTH);
+      int srcEnd = srcOffsets.getInt((start + run) * OFFSET_WIDTH);
+      dstData.setBytes(position, srcData, srcStart, srcEnd - srcStart);
+      for (int r = 0; r < run; r++) {
+        int end = srcOffsets.getInt((start + r + 1) * OFFSET_WIDTH);
+        dstOffsets.setInt((i + r + 1) * OFFSET_WIDTH, position + end - srcStart);
+        if (!src.isNull(start + r)) {
+          setValid(validity, i + r);
+        }
+      }
+      position += srcEnd - srcStart;
+      i += run;
+    }
+    dst.setLastSet(count - 1);
+    dst.setValueCount(count);
+  }
+
+  /**
+   * Append the tables in to a single table
+   *
+   * @param tables the tables with the same schema
+   * @param schema the schema
+   * @param allocator allocator for the new vectors
+   * @return the new table
+   */
+  public static Table concat(List<Table> tables, Schema schema, BufferAllocator allocator) {
+    if (tables.size() == 1) {
+      return tables.get(0);
+    }
+
+    int rows = 0;
+    for (Table t : tables) {
+      rows += t.rowCount();
+    }
+    int columns = tables.get(0).getColumns().size();
+    List<FieldVector> vectors = new ArrayList<>(columns);
+    for (int c = 0; c < columns; c++) {
+      FieldVector first = tables.get(0).getColumns().get(c).getVector();
+      FieldVector dst = first.getField().createVector(allocator);
+      if (first instanceof BaseFixedWidthVector) {
+        concatFixedWidth(tables, c, (BaseFixedWidthVector) dst, rows);
+      } else if (first instanceof BaseVariableWidthVector) {
+        concatVariableWidth(tables, c, (BaseVariableWidthVector) dst, rows);
+      } else {
+        throw new Twister2RuntimeException("Un-recognized vector type "
+            + first.getClass().getSimpleName());
+      }
+      vectors.add(dst);
+    }
+    return new ArrowTable(schema, vectors);
+  }
+
+  private static void concatFixedWidth(List<Table> tables, int column,
+                                       BaseFixedWidthVector dst, int rows) {
+    int width = dst.getTypeWidth();
+    dst.allocateNew(rows);
+    ArrowBuf dstData = dst.getDataBuffer();
+    ArrowBuf validity = dst.getValidityBuffer();
+    validity.setZero(0, (int) validity.capacity());
+
+    int position = 0;
+    for (Table t : tables) {
+      BaseFixedWidthVector src = (BaseFixedWidthVector) t.getColumns().get(column).getVector();
+      int count = t.rowCount();
+      dstData.setBytes(position * width, src.getDataBuffer(), 0, count * width);
+      for (int i = 0; i < count; i++) {
+        if (!src.isNull(i)) {
+          setValid(validity, position + i);
+        }
+      }
+      position += count;
+    }
+    dst.setValueCount(rows);
+  }
+
+  private static void concatVariableWidth(List<Table> tables, int column,
+                                          BaseVariableWidthVector dst, int rows) {
+    int bytes = 0;
+    for (Table t : tables) {
+      if (t.rowCount() > 0) {
+        BaseVariableWidthVector src = (BaseVariableWidthVector) t.getColumns().get(column)
+            .getVector();
+        bytes += src.getOffsetBuffer().getInt(t.rowCount() * OFFSET_WIDTH);
+      }
+    }
+
+    dst.allocateNew(bytes, rows);
+    ArrowBuf dstOffsets = dst.getOffsetBuffer();
+    ArrowBuf dstData = dst.getDataBuffer();
+    ArrowBuf validity = dst.getValidityBuffer();
+    validity.setZero(0, (int) validity.capacity());
+    dstOffsets.setInt(0, 0);
+
+    int position = 0;
+    int bytePosition = 0;
+    for (Table t : tables) {
+      int count = t.rowCount();
+      if (count == 0) {
+        continue;
+      }
+      BaseVariableWidthVector src = (BaseVariableWidthVector) t.getColumns().get(column)
+          .getVector();
+      ArrowBuf srcOffsets = src.getOffsetBuffer();
+      int length = srcOffsets.getInt(count * OFFSET_WIDTH);
+      dstData.setBytes(bytePosition, src.getDataBuffer(), 0, length);
+      for (int i = 0; i < count; i++) {
+        dstOffsets.setInt((position + i + 1) * OFFSET_WIDTH,
+            bytePosition + srcOffsets.getInt((i + 1) * OFFSET_WIDTH));
+        if (!src.isNull(i)) {
+          setValid(validity, position + i);
+        }
+      }
+      position += count;
+      bytePosition += length;
+    }
+    dst.setLastSet(rows - 1);
+    dst.setValueCount(rows);
+  }
+
+  private static void setValid(ArrowBuf validity, int index) {
+    int byteIndex = index >> 3;
+    validity.setByte(byteIndex, validity.getByte(byteIndex) | (1 << (index & 7)));
+  }
+}
@@ -0,0 +1,113 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.net.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.common.net.NetworkInfo;
+
+/**
+ * Cancel posted receives of an idle edge and post them again when a message arrives
+ */
+public class ReceiveCancelTest {
+  private static final int SIZE = 1024;
+
+  private List<TCPChannel> channels = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    Config cfg = Config.newBuilder().build();
+    List<NetworkInfo> networkInfos = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      NetworkInfo info = new NetworkInfo(i);
+      info.addProperty(TCPContext.NETWORK_PORT, 10051 + i);
+      info.addProperty(TCPContext.NETWORK_HOSTNAME, "localhost");
+      TCPChannel channel = new TCPChannel(cfg, info);
+      channel.startListening();
+      channels.add(channel);
+      networkInfos.add(info);
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (TCPChannel channel : channels) {
+      Thread t = new Thread(() -> {
+        channel.startConnections(networkInfos);
+        channel.waitForConnections(10000);
+      });
+      t.start();
+      threads.add(t);
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (TCPChannel channel : channels) {
+      channel.stop();
+    }
+    channels.clear();
+  }
+
+  @Test
+  public void testCancelAndPostOnDemand() {
+    TCPChannel sender = channels.get(0);
+    TCPChannel receiver = channels.get(1);
+
+    // a receive posted for an idle edge can be cancelled
+    TCPMessage idle = receiver.iRecv(ByteBuffer.allocate(SIZE), SIZE, 0, 0);
+    Assert.assertTrue(receiver.cancelRecv(idle, 0));
+    Assert.assertFalse(receiver.cancelRecv(idle, 0));
+    Assert.assertFalse(receiver.isRecvWaiting(0, 0));
+
+    ByteBuffer data = ByteBuffer.allocate(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      data.put((byte) i);
+    }
+    TCPMessage send = sender.iSend(data, SIZE, 1, 0);
+
+    // the message waits for a receive to be posted
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!receiver.isRecvWaiting(0, 0)) {
+      sender.progress();
+      receiver.progress();
+      Assert.assertTrue("Timed out waiting for the message",
+          System.currentTimeMillis() < deadline);
+    }
+    Assert.assertFalse(receiver.isRecvWaiting(0, 1));
+
+    TCPMessage recv = receiver.iRecv(ByteBuffer.allocate(SIZE), SIZE, 0, 0);
+    while (!recv.isComplete() || !send.isComplete()) {
+      sender.progress();
+      receiver.progress();
+      Assert.assertTrue("Timed out receiving the message",
+          System.currentTimeMillis() < deadline);
+    }
+    Assert.assertFalse(receiver.isRecvWaiting(0, 0));
+    Assert.assertFalse(receiver.cancelRecv(recv, 0));
+
+    ByteBuffer received = recv.getByteBuffer();
+    Assert.assertEquals(SIZE, received.remaining());
+    for (int i = 0; i < SIZE; i++) {
+      Assert.assertEquals((byte) i, received.get(i));
+    }
+  }
+}
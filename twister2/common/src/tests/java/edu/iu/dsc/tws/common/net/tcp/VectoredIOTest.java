@@ -0,0 +1,170 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.net.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.common.net.NetworkInfo;
+
+/**
+ * Send many small messages of different sizes over multiple edges and check they arrive intact,
+ * with and without gathering writes and scattering reads
+ */
+public class VectoredIOTest {
+  private static final int NO_OF_MESSAGES = 3000;
+
+  // a multiple of the number of edges
+  private static final int WINDOW = 255;
+
+  private static final int EDGES = 3;
+
+  private List<TCPChannel> channels = new ArrayList<>();
+
+  private Config createConfig(int gatherMessages, int gatherBytes, boolean scatter) {
+    return Config.newBuilder()
+        .put(TCPContext.TWISTER2_WRITE_GATHER_MESSAGES, gatherMessages)
+        .put(TCPContext.TWISTER2_WRITE_GATHER_BYTES, gatherBytes)
+        .put(TCPContext.TWISTER2_READ_SCATTER, scatter)
+        .build();
+  }
+
+  private void connect(Config cfg, int port) throws Exception {
+    List<NetworkInfo> networkInfos = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      NetworkInfo info = new NetworkInfo(i);
+      info.addProperty(TCPContext.NETWORK_PORT, port + i);
+      info.addProperty(TCPContext.NETWORK_HOSTNAME, "localhost");
+      TCPChannel channel = new TCPChannel(cfg, info);
+      channel.startListening();
+      channels.add(channel);
+      networkInfos.add(info);
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (TCPChannel channel : channels) {
+      Thread t = new Thread(() -> {
+        channel.startConnections(networkInfos);
+        channel.waitForConnections(10000);
+      });
+      t.start();
+      threads.add(t);
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (TCPChannel channel : channels) {
+      channel.stop();
+    }
+    channels.clear();
+  }
+
+  private static int messageSize(int i) {
+    // mix of small messages and large ones that fill the socket buffers, so that writes stop
+    // in the middle of messages
+    return i % 17 == 0 ? 524288 + i : 4 + (i % 61);
+  }
+
+  private void sendAndVerify() {
+    TCPChannel sender = channels.get(0);
+    TCPChannel receiver = channels.get(1);
+
+    for (int start = 0; start < NO_OF_MESSAGES; start += WINDOW) {
+      int end = Math.min(start + WINDOW, NO_OF_MESSAGES);
+      List<TCPMessage> sends = new ArrayList<>();
+      List<List<TCPMessage>> recvs = new ArrayList<>();
+      for (int e = 0; e < EDGES; e++) {
+        recvs.add(new ArrayList<>());
+      }
+
+      for (int i = start; i < end; i++) {
+        int size = messageSize(i);
+        TCPMessage recv = receiver.iRecv(ByteBuffer.allocate(size), size, 0, i % EDGES);
+        recvs.get(i % EDGES).add(recv);
+      }
+
+      for (int i = start; i < end; i++) {
+        int size = messageSize(i);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (int j = 0; j < size; j++) {
+          buffer.put((byte) (i + j));
+        }
+        TCPMessage send = sender.iSend(buffer, size, 1, i % EDGES);
+        Assert.assertNotNull(send);
+        sends.add(send);
+      }
+
+      long deadline = System.currentTimeMillis() + 30000;
+      while (!allComplete(sends) || !allComplete(recvs)) {
+        sender.progress();
+        receiver.progress();
+        Assert.assertTrue("Timed out waiting for the messages",
+            System.currentTimeMillis() < deadline);
+      }
+
+      // messages of an edge are received in the order they are sent
+      for (int i = start; i < end; i++) {
+        verify(recvs.get(i % EDGES).get((i - start) / EDGES), i);
+      }
+    }
+  }
+
+  private void verify(TCPMessage message, int i) {
+    ByteBuffer buffer = message.getByteBuffer();
+    int size = messageSize(i);
+    Assert.assertEquals(size, buffer.remaining());
+    for (int j = 0; j < size; j++) {
+      Assert.assertEquals((byte) (i + j), buffer.get(j));
+    }
+  }
+
+  private static boolean allComplete(List<?> messages) {
+    for (Object o : messages) {
+      if (o instanceof List) {
+        if (!allComplete((List<?>) o)) {
+          return false;
+        }
+      } else if (!((TCPMessage) o).isComplete()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Test
+  public void testGatherAndScatter() throws Exception {
+    connect(createConfig(64, 1024 * 1024, true), 10041);
+    sendAndVerify();
+  }
+
+  @Test
+  public void testSmallGatherWindow() throws Exception {
+    connect(createConfig(3, 100, true), 10043);
+    sendAndVerify();
+  }
+
+  @Test
+  public void testWithoutVectoredIO() throws Exception {
+    connect(createConfig(1, 1024 * 1024, false), 10045);
+    sendAndVerify();
+  }
+}
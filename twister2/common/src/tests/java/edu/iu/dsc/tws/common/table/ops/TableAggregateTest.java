@@ -0,0 +1,172 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.Table;
+
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.assertInts;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.assertStrings;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.ints;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.strings;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.table;
+
+public class TableAggregateTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  private static void assertDoubles(FieldVector vector, Double... expected) {
+    Assert.assertEquals(expected.length, vector.getValueCount());
+    Float8Vector doubles = (Float8Vector) vector;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        Assert.assertTrue("row " + i, doubles.isNull(i));
+      } else {
+        Assert.assertFalse("row " + i, doubles.isNull(i));
+        Assert.assertEquals("row " + i, expected[i], doubles.get(i), 0.0);
+      }
+    }
+  }
+
+  private static void assertLongs(FieldVector vector, Long... expected) {
+    Assert.assertEquals(expected.length, vector.getValueCount());
+    UInt8Vector longs = (UInt8Vector) vector;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        Assert.assertTrue("row " + i, longs.isNull(i));
+      } else {
+        Assert.assertFalse("row " + i, longs.isNull(i));
+        Assert.assertEquals("row " + i, expected[i].longValue(), longs.get(i));
+      }
+    }
+  }
+
+  private Float8Vector doubles(Double... values) {
+    Float8Vector vector = new Float8Vector("d", allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.set(i, values[i]);
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  private UInt8Vector longs(Long... values) {
+    UInt8Vector vector = new UInt8Vector("l", allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.set(i, values[i]);
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  @Test
+  public void testGroupBy() {
+    Table t = table(ints(allocator, 2, 1, 2, null, 1, null, 3),
+        ints(allocator, 10, 5, null, 7, 6, 8, null));
+    Table result = TableAggregate.groupBy(t, new int[]{0}, Arrays.asList(
+        Aggregation.sum(1), Aggregation.count(1), Aggregation.min(1), Aggregation.max(1)),
+        null, allocator);
+
+    // groups are in the order of their first row and a null key is a group of its own
+    Assert.assertEquals(4, result.rowCount());
+    assertInts(result.getColumns().get(0).getVector(), 2, 1, null, 3);
+    assertLongs(result.getColumns().get(1).getVector(), 10L, 11L, 15L, null);
+    assertInts(result.getColumns().get(2).getVector(), 1, 2, 2, 0);
+    assertInts(result.getColumns().get(3).getVector(), 10, 5, 7, null);
+    assertInts(result.getColumns().get(4).getVector(), 10, 6, 8, null);
+  }
+
+  @Test
+  public void testGroupByMultipleKeys() {
+    Table t = table(ints(allocator, 1, 1, 2, 1, 1),
+        strings(allocator, "a", "b", "a", "a", null),
+        strings(allocator, "x", "y", "z", "w", "v"));
+    Table result = TableAggregate.groupBy(t, new int[]{0, 1}, Arrays.asList(
+        Aggregation.count(2), Aggregation.min(2), Aggregation.max(2)), null, allocator);
+
+    Assert.assertEquals(4, result.rowCount());
+    assertInts(result.getColumns().get(0).getVector(), 1, 1, 2, 1);
+    assertStrings(result.getColumns().get(1).getVector(), "a", "b", "a", null);
+    assertInts(result.getColumns().get(2).getVector(), 2, 1, 1, 1);
+    assertStrings(result.getColumns().get(3).getVector(), "w", "y", "z", "v");
+    assertStrings(result.getColumns().get(4).getVector(), "x", "y", "z", "v");
+  }
+
+  @Test
+  public void testGroupByManyGroups() {
+    // enough groups to fill the hash table with collisions
+    Integer[] keys = new Integer[10000];
+    Integer[] values = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (i * 7919) % 1000;
+      values[i] = 1;
+    }
+    Table result = TableAggregate.groupBy(table(ints(allocator, keys), ints(allocator, values)),
+        new int[]{0}, Arrays.asList(Aggregation.sum(1)), null, allocator);
+
+    Assert.assertEquals(1000, result.rowCount());
+    Long[] sums = new Long[1000];
+    Arrays.fill(sums, 10L);
+    assertLongs(result.getColumns().get(1).getVector(), sums);
+  }
+
+  @Test
+  public void testSumLargeLongs() {
+    // the sums are above 2^53, so they are not exact as doubles
+    long big = (1L << 53) + 1;
+    Table t = table(ints(allocator, 1, 2, 1, 2), longs(big, big, 2L, -big));
+    Table result = TableAggregate.groupBy(t, new int[]{0},
+        Arrays.asList(Aggregation.sum(1)), null, allocator);
+    assertLongs(result.getColumns().get(1).getVector(), big + 2, 0L);
+  }
+
+  @Test
+  public void testSumDoubles() {
+    Table t = table(ints(allocator, 1, 2, 1, 3), doubles(0.5, 1.25, 2.0, null));
+    Table result = TableAggregate.groupBy(t, new int[]{0},
+        Arrays.asList(Aggregation.sum(1)), null, allocator);
+    assertDoubles(result.getColumns().get(1).getVector(), 2.5, 1.25, null);
+  }
+
+  @Test
+  public void testGroupByEmpty() {
+    Table t = table(ints(allocator), ints(allocator));
+    Table result = TableAggregate.groupBy(t, new int[]{0},
+        Arrays.asList(Aggregation.sum(1), Aggregation.max(1)), null, allocator);
+    Assert.assertEquals(0, result.rowCount());
+    Assert.assertEquals(3, result.getColumns().size());
+  }
+}
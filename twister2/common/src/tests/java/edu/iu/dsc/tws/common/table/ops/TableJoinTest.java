@@ -0,0 +1,202 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.common.table.Table;
+
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.ints;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.strings;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.table;
+
+public class TableJoinTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  private static List<Object> row(Table t, int row) {
+    List<Object> values = new ArrayList<>();
+    for (int c = 0; c < t.getColumns().size(); c++) {
+      values.add(value(t, c, row));
+    }
+    return values;
+  }
+
+  private static Object value(Table t, int column, int row) {
+    FieldVector vector = t.getColumns().get(column).getVector();
+    if (row < 0 || vector.isNull(row)) {
+      return null;
+    } else if (vector instanceof VarCharVector) {
+      return new String(((VarCharVector) vector).get(row), StandardCharsets.UTF_8);
+    } else {
+      return ((IntVector) vector).get(row);
+    }
+  }
+
+  private static boolean matches(Table left, int l, int[] leftKeys,
+                                 Table right, int r, int[] rightKeys) {
+    for (int k = 0; k < leftKeys.length; k++) {
+      Object lv = value(left, leftKeys[k], l);
+      if (lv == null || !Objects.equals(lv, value(right, rightKeys[k], r))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<Object> joined(Table left, int l, Table right, int r) {
+    List<Object> values = new ArrayList<>();
+    for (int c = 0; c < left.getColumns().size(); c++) {
+      values.add(value(left, c, l));
+    }
+    for (int c = 0; c < right.getColumns().size(); c++) {
+      values.add(value(right, c, r));
+    }
+    return values;
+  }
+
+  /**
+   * The expected rows of the join computed with nested loops
+   */
+  private static List<String> expected(Table left, Table right, int[] leftKeys, int[] rightKeys,
+                                       CommunicationContext.JoinType type) {
+    List<String> rows = new ArrayList<>();
+    boolean[] rightMatched = new boolean[right.rowCount()];
+    for (int l = 0; l < left.rowCount(); l++) {
+      boolean matched = false;
+      for (int r = 0; r < right.rowCount(); r++) {
+        if (matches(left, l, leftKeys, right, r, rightKeys)) {
+          rows.add(joined(left, l, right, r).toString());
+          rightMatched[r] = true;
+          matched = true;
+        }
+      }
+      if (!matched && (type == CommunicationContext.JoinType.LEFT
+          || type == CommunicationContext.JoinType.FULL_OUTER)) {
+        rows.add(joined(left, l, right, -1).toString());
+      }
+    }
+    if (type == CommunicationContext.JoinType.RIGHT
+        || type == CommunicationContext.JoinType.FULL_OUTER) {
+      for (int r = 0; r < right.rowCount(); r++) {
+        if (!rightMatched[r]) {
+          rows.add(joined(left, -1, right, r).toString());
+        }
+      }
+    }
+    Collections.sort(rows);
+    return rows;
+  }
+
+  private void assertJoin(Table left, Table right, int[] leftKeys, int[] rightKeys) {
+    for (CommunicationContext.JoinAlgorithm algorithm
+        : CommunicationContext.JoinAlgorithm.values()) {
+      for (CommunicationContext.JoinType type : CommunicationContext.JoinType.values()) {
+        Table result = TableJoin.join(left, right, leftKeys, rightKeys, type, algorithm,
+            null, allocator);
+        Assert.assertEquals(left.getColumns().size() + right.getColumns().size(),
+            result.getColumns().size());
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < result.rowCount(); i++) {
+          rows.add(row(result, i).toString());
+        }
+        Collections.sort(rows);
+        Assert.assertEquals(algorithm + " " + type,
+            expected(left, right, leftKeys, rightKeys, type), rows);
+      }
+    }
+  }
+
+  @Test
+  public void testDuplicateKeys() {
+    Table left = table(ints(allocator, 1, 2, 2, 3, 5, 2),
+        strings(allocator, "l0", "l1", "l2", "l3", "l4", "l5"));
+    Table right = table(ints(allocator, 2, 4, 2, 1, 1, 6),
+        strings(allocator, "r0", "r1", "r2", "r3", "r4", "r5"));
+    assertJoin(left, right, new int[]{0}, new int[]{0});
+  }
+
+  @Test
+  public void testNullKeys() {
+    // null keys do not match each other
+    Table left = table(ints(allocator, null, 1, null, 2),
+        strings(allocator, "l0", "l1", "l2", "l3"));
+    Table right = table(ints(allocator, 2, null, 1, null),
+        strings(allocator, "r0", "r1", "r2", "r3"));
+    assertJoin(left, right, new int[]{0}, new int[]{0});
+  }
+
+  @Test
+  public void testMultipleKeys() {
+    // the key columns are in different positions in the two tables
+    Table left = table(ints(allocator, 1, 1, 2, 2, 1, null),
+        strings(allocator, "a", "b", "a", null, "a", "a"),
+        ints(allocator, 0, 1, 2, 3, 4, 5));
+    Table right = table(strings(allocator, "r0", "r1", "r2", "r3", "r4"),
+        strings(allocator, "a", "a", "b", null, "a"),
+        ints(allocator, 1, 2, 1, 2, 1));
+    assertJoin(left, right, new int[]{0, 1}, new int[]{2, 1});
+  }
+
+  @Test
+  public void testNoMatches() {
+    Table left = table(ints(allocator, 1, 3), strings(allocator, "l0", "l1"));
+    Table right = table(ints(allocator, 2, 4), strings(allocator, "r0", "r1"));
+    assertJoin(left, right, new int[]{0}, new int[]{0});
+  }
+
+  @Test
+  public void testEmptySide() {
+    Table left = table(ints(allocator, 1, null, 1), strings(allocator, "l0", "l1", "l2"));
+    Table right = table(ints(allocator), strings(allocator));
+    assertJoin(left, right, new int[]{0}, new int[]{0});
+    assertJoin(right, left, new int[]{0}, new int[]{0});
+  }
+
+  @Test
+  public void testManyRows() {
+    // more rows than the initial selection and the insertion sort threshold
+    Integer[] leftKeys = new Integer[300];
+    Integer[] rightKeys = new Integer[200];
+    String[] leftValues = new String[leftKeys.length];
+    String[] rightValues = new String[rightKeys.length];
+    for (int i = 0; i < leftKeys.length; i++) {
+      leftKeys[i] = i % 17 == 0 ? null : i % 40;
+      leftValues[i] = "l" + i;
+    }
+    for (int i = 0; i < rightKeys.length; i++) {
+      rightKeys[i] = i % 13 == 0 ? null : (i * 3) % 50;
+      rightValues[i] = "r" + i;
+    }
+    assertJoin(table(ints(allocator, leftKeys), strings(allocator, leftValues)),
+        table(ints(allocator, rightKeys), strings(allocator, rightValues)),
+        new int[]{0}, new int[]{0});
+  }
+}
@@ -0,0 +1,102 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.Table;
+
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.assertInts;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.assertStrings;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.ints;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.strings;
+import static edu.iu.dsc.tws.common.table.ops.VectorOpsTest.table;
+
+public class TableSortTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testSortNullsFirst() {
+    Table t = table(ints(allocator, 3, null, 1, 2, null),
+        strings(allocator, "c", "n1", "a", "b", "n2"));
+    Table sorted = TableSort.sort(t, new int[]{0}, null, null, allocator);
+    assertInts(sorted.getColumns().get(0).getVector(), null, null, 1, 2, 3);
+    // the sort is stable
+    assertStrings(sorted.getColumns().get(1).getVector(), "n1", "n2", "a", "b", "c");
+  }
+
+  @Test
+  public void testSortMultipleColumns() {
+    Table t = table(ints(allocator, 1, 2, 1, 2, 1),
+        strings(allocator, "b", "a", "c", null, "a"));
+    // ascending on the first column and descending on the second
+    Table sorted = TableSort.sort(t, new int[]{0, 1}, new boolean[]{true, false}, null,
+        allocator);
+    assertInts(sorted.getColumns().get(0).getVector(), 1, 1, 1, 2, 2);
+    assertStrings(sorted.getColumns().get(1).getVector(), "c", "b", "a", "a", null);
+  }
+
+  @Test
+  public void testSortStrings() {
+    // bytes are compared unsigned and a prefix comes first
+    Table t = table(strings(allocator, "ab", "\u00e9", "a", "", "b"));
+    Table sorted = TableSort.sort(t, new int[]{0}, null, null, allocator);
+    assertStrings(sorted.getColumns().get(0).getVector(), "", "a", "ab", "b", "\u00e9");
+  }
+
+  @Test
+  public void testSortIndexesStable() {
+    // more rows than the insertion sort threshold, with many duplicates
+    Random random = new Random(7);
+    Integer[] values = new Integer[1000];
+    Integer[] expected = new Integer[values.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(10) == 0 ? null : random.nextInt(50);
+      expected[i] = i;
+    }
+    Table t = table(ints(allocator, values));
+
+    Arrays.sort(expected, Comparator.comparing((Integer i) -> values[i],
+        Comparator.nullsFirst(Comparator.naturalOrder())));
+    int[] indexes = TableSort.sortIndexes(t, new int[]{0}, null);
+    for (int i = 0; i < values.length; i++) {
+      Assert.assertEquals((int) expected[i], indexes[i]);
+    }
+
+    Arrays.sort(expected, Comparator.comparing((Integer i) -> values[i],
+        Comparator.nullsLast(Comparator.<Integer>reverseOrder())));
+    indexes = TableSort.sortIndexes(t, new int[]{0}, new boolean[]{false});
+    for (int i = 0; i < values.length; i++) {
+      Assert.assertEquals((int) expected[i], indexes[i]);
+    }
+  }
+
+  @Test
+  public void testSortEmpty() {
+    Table t = table(ints(allocator), strings(allocator));
+    Table sorted = TableSort.sort(t, new int[]{0, 1}, null, null, allocator);
+    Assert.assertEquals(0, sorted.rowCount());
+  }
+}
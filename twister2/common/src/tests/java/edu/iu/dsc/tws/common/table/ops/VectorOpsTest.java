@@ -0,0 +1,198 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+public class VectorOpsTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  static IntVector ints(BufferAllocator allocator, Integer... values) {
+    IntVector vector = new IntVector("i", allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.set(i, values[i]);
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  static VarCharVector strings(BufferAllocator allocator, String... values) {
+    VarCharVector vector = new VarCharVector("s", allocator);
+    vector.allocateNew();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  static Table table(FieldVector... vectors) {
+    return new ArrowTable(null, Arrays.asList(vectors));
+  }
+
+  static void assertInts(FieldVector vector, Integer... expected) {
+    Assert.assertEquals(expected.length, vector.getValueCount());
+    IntVector ints = (IntVector) vector;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        Assert.assertTrue("row " + i, ints.isNull(i));
+      } else {
+        Assert.assertFalse("row " + i, ints.isNull(i));
+        Assert.assertEquals("row " + i, (int) expected[i], ints.get(i));
+      }
+    }
+  }
+
+  static void assertStrings(FieldVector vector, String... expected) {
+    Assert.assertEquals(expected.length, vector.getValueCount());
+    VarCharVector strings = (VarCharVector) vector;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        Assert.assertTrue("row " + i, strings.isNull(i));
+      } else {
+        Assert.assertFalse("row " + i, strings.isNull(i));
+        Assert.assertEquals("row " + i, expected[i],
+            new String(strings.get(i), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testHashSingleColumn() {
+    Table t = table(ints(allocator, 7, null, -3),
+        strings(allocator, "abc", "", null));
+
+    int[] hashes = VectorOps.hash(t, new int[]{0});
+    Assert.assertArrayEquals(new int[]{Integer.hashCode(7), 0, Integer.hashCode(-3)}, hashes);
+
+    hashes = VectorOps.hash(t, new int[]{1});
+    Assert.assertArrayEquals(new int[]{
+        Arrays.hashCode("abc".getBytes(StandardCharsets.UTF_8)), Arrays.hashCode(new byte[0]), 0},
+        hashes);
+  }
+
+  @Test
+  public void testHashMultipleColumns() {
+    Table t = table(ints(allocator, 7, null), strings(allocator, "abc", "d"));
+    int[] hashes = VectorOps.hash(t, new int[]{0, 1});
+    Assert.assertEquals(31 * 7 + Arrays.hashCode("abc".getBytes(StandardCharsets.UTF_8)),
+        hashes[0]);
+    Assert.assertEquals(Arrays.hashCode("d".getBytes(StandardCharsets.UTF_8)), hashes[1]);
+  }
+
+  @Test
+  public void testHashSameAcrossBatches() {
+    // the data of the second batch starts at a different offset for the same value
+    Table first = table(strings(allocator, "x", "key"));
+    Table second = table(strings(allocator, "key", "longer value"));
+    Assert.assertEquals(VectorOps.hash(first, new int[]{0})[1],
+        VectorOps.hash(second, new int[]{0})[0]);
+  }
+
+  @Test
+  public void testHashEmpty() {
+    Table t = table(ints(allocator), strings(allocator));
+    Assert.assertEquals(0, VectorOps.hash(t, new int[]{0, 1}).length);
+  }
+
+  @Test
+  public void testTakeFixedWidth() {
+    IntVector src = ints(allocator, 0, 1, null, 3, 4, 5);
+    // contiguous runs, a reversed range, a null row of the source and new null rows
+    int[] selection = {9, 9, 1, 2, 3, 5, 4, -1, -1, 0};
+    FieldVector taken = VectorOps.take(src, selection, 2, 8, allocator);
+    assertInts(taken, 1, null, 3, 5, 4, null, null, 0);
+  }
+
+  @Test
+  public void testTakeVariableWidth() {
+    VarCharVector src = strings(allocator, "a", "", null, "dddd", "ee");
+    int[] selection = {0, 1, 2, 3, -1, 4, 4, 0};
+    FieldVector taken = VectorOps.take(src, selection, 0, selection.length, allocator);
+    assertStrings(taken, "a", "", null, "dddd", null, "ee", "ee", "a");
+  }
+
+  @Test
+  public void testTakeEmpty() {
+    FieldVector ints = VectorOps.take(ints(allocator, 1, 2), new int[0], 0, 0, allocator);
+    Assert.assertEquals(0, ints.getValueCount());
+    FieldVector strings = VectorOps.take(strings(allocator, "a"), new int[]{0}, 1, 0, allocator);
+    Assert.assertEquals(0, strings.getValueCount());
+  }
+
+  @Test
+  public void testTakeTable() {
+    Table t = table(ints(allocator, 1, 2, 3), strings(allocator, "a", null, "c"));
+    Table taken = VectorOps.take(t, new int[]{2, -1, 1}, 3, null, allocator);
+    Assert.assertEquals(3, taken.rowCount());
+    assertInts(taken.getColumns().get(0).getVector(), 3, null, 2);
+    assertStrings(taken.getColumns().get(1).getVector(), "c", null, null);
+  }
+
+  @Test
+  public void testConcat() {
+    List<Table> tables = new ArrayList<>();
+    tables.add(table(ints(allocator, 1, null), strings(allocator, "a", "bb")));
+    tables.add(table(ints(allocator), strings(allocator)));
+    tables.add(table(ints(allocator, 3, 4, 5), strings(allocator, null, "", "eee")));
+
+    Table t = VectorOps.concat(tables, null, allocator);
+    Assert.assertEquals(5, t.rowCount());
+    assertInts(t.getColumns().get(0).getVector(), 1, null, 3, 4, 5);
+    assertStrings(t.getColumns().get(1).getVector(), "a", "bb", null, "", "eee");
+  }
+
+  @Test
+  public void testConcatEmptyTables() {
+    List<Table> tables = new ArrayList<>();
+    tables.add(table(ints(allocator), strings(allocator)));
+    tables.add(table(ints(allocator), strings(allocator)));
+
+    Table t = VectorOps.concat(tables, null, allocator);
+    Assert.assertEquals(0, t.rowCount());
+  }
+
+  @Test
+  public void testConcatSingleTable() {
+    Table t = table(ints(allocator, 1));
+    Assert.assertSame(t, VectorOps.concat(Arrays.asList(t), null, allocator));
+  }
+}
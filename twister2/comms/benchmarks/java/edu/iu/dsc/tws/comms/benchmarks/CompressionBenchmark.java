@@ -0,0 +1,138 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iu.dsc.tws.comms.compress.BlockCodec;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
+import edu.iu.dsc.tws.comms.compress.BlockCompressor;
+
+/**
+ * Measures the throughput of the block codecs against the bytes they save, on text like data
+ * which compresses well and random data which does not. The raw and stored bytes are reported
+ * as secondary results. Run with
+ * bazel run //twister2/comms/benchmarks/java:comms-benchmarks -- CompressionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+  private static final String[] WORDS = {"twister2", "shuffle", "partition", "key", "value",
+      "the", "of", "record", "worker", "edge", "buffer", "sorted"};
+
+  @Param({"none", "deflate", "lz4", "snappy"})
+  private String codec;
+
+  @Param({"text", "random"})
+  private String data;
+
+  @Param({"65536"})
+  private int blockSize;
+
+  private byte[] block;
+
+  private byte[] compressed;
+
+  private byte[] decompressed;
+
+  private int compressedLength;
+
+  private BlockCompressor compressor;
+
+  /**
+   * Bytes compressed and the bytes written, per iteration
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Bytes {
+    public long rawBytes;
+    public long storedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rawBytes = 0;
+      storedBytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    Random random = new Random(17);
+    block = new byte[blockSize];
+    if ("text".equals(data)) {
+      StringBuilder builder = new StringBuilder();
+      while (builder.length() < blockSize) {
+        builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ')
+            .append(random.nextInt(1000)).append(' ');
+      }
+      System.arraycopy(builder.toString().getBytes(), 0, block, 0, blockSize);
+    } else {
+      random.nextBytes(block);
+    }
+
+    BlockCodec blockCodec = BlockCodecs.get(codec);
+    if (blockCodec != null) {
+      // a ratio of 1 makes sure we always measure the codec
+      compressor = new BlockCompressor(blockCodec, 1.0);
+      compressed = new byte[compressor.maxBlockLength(blockSize)];
+      compressedLength = compressor.compress(block, 0, blockSize, compressed, 0);
+    } else {
+      compressed = new byte[blockSize];
+      compressedLength = blockSize;
+    }
+    decompressed = new byte[blockSize];
+  }
+
+  @Benchmark
+  public int compress(Bytes bytes) {
+    int length;
+    if (compressor != null) {
+      length = compressor.compress(block, 0, blockSize, compressed, 0);
+    } else {
+      System.arraycopy(block, 0, compressed, 0, blockSize);
+      length = blockSize;
+    }
+    bytes.rawBytes += blockSize;
+    bytes.storedBytes += length;
+    return length;
+  }
+
+  @Benchmark
+  public byte[] decompress() {
+    if (compressor != null) {
+      BlockCompressor.decompress(compressed, 0, decompressed, 0);
+    } else {
+      System.arraycopy(compressed, 0, decompressed, 0, compressedLength);
+    }
+    return decompressed;
+  }
+}
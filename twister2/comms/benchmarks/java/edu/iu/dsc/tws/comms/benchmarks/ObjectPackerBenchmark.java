@@ -0,0 +1,126 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iu.dsc.tws.api.comms.packing.DataPacker;
+import edu.iu.dsc.tws.api.comms.packing.types.ObjectPacker;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.KryoSerializer;
+
+/**
+ * Compares the {@link ObjectPacker} against plain Kryo serialization, which was the only path
+ * used by the packer before the serializer registry. Run with
+ * bazel run //twister2/comms/benchmarks/java:comms-benchmarks -- ObjectPackerBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectPackerBenchmark {
+
+  public static class Point {
+    private double x;
+    private double y;
+    private long id;
+    private String label;
+
+    public Point() {
+    }
+
+    public Point(double x, double y, long id, String label) {
+      this.x = x;
+      this.y = y;
+      this.id = id;
+      this.label = label;
+    }
+  }
+
+  @Param({"tuple", "pojo"})
+  private String type;
+
+  private Object data;
+
+  private ByteBuffer buffer;
+
+  private DataPacker<Object, byte[]> packer;
+
+  private KryoSerializer kryo;
+
+  private int packedLength;
+
+  private ByteBuffer kryoBuffer;
+
+  private int kryoLength;
+
+  @Setup
+  public void setup() {
+    if ("tuple".equals(type)) {
+      data = new Tuple<>(42, new double[]{1.0, 2.0, 3.0, 4.0});
+    } else {
+      data = new Point(1.0, 2.0, 42L, "point");
+    }
+    buffer = ByteBuffer.allocateDirect(1024);
+    packer = ObjectPacker.getInstance();
+    kryo = new KryoSerializer();
+
+    packer.packToByteBuffer(buffer, data);
+    packedLength = buffer.position();
+    byte[] kryoBytes = kryo.serialize(data);
+    kryoLength = kryoBytes.length;
+    kryoBuffer = ByteBuffer.allocateDirect(1024);
+    kryoBuffer.put(kryoBytes);
+  }
+
+  @Benchmark
+  public ByteBuffer packerWrite() {
+    buffer.clear();
+    return packer.packToByteBuffer(buffer, data);
+  }
+
+  @Benchmark
+  public ByteBuffer kryoWrite() {
+    buffer.clear();
+    return buffer.put(kryo.serialize(data));
+  }
+
+  @Benchmark
+  public Object packerRead() {
+    return packer.unpackFromBuffer(buffer, 0, packedLength);
+  }
+
+  @Benchmark
+  public Object kryoRead() {
+    // this is how the packer used to read objects
+    byte[] bytes = new byte[kryoLength];
+    for (int i = 0; i < kryoLength; i++) {
+      bytes[i] = kryoBuffer.get(i);
+    }
+    return kryo.deserialize(bytes);
+  }
+}
@@ -28,6 +28,8 @@ import edu.iu.dsc.tws.comms.dfw.MToNChain;
 import edu.iu.dsc.tws.comms.dfw.MToNSimple;
 import edu.iu.dsc.tws.comms.dfw.io.partition.PartitionPartialReceiver;
 import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.KReduceBatchFinalReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.PrimitiveKReduceBatchFinalReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.PrimitiveReduceMap;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 
 /**
@@ -49,18 +51,22 @@ public class BKeyedReduce extends BaseOperation {
     this.keyType = kType;
     this.dataType = dType;
     MessageReceiver partialReceiver = new PartitionPartialReceiver();
+    // primitive keys and values are reduced without boxing
+    MessageReceiver finalReceiver = PrimitiveReduceMap.isSupported(fnc, kType)
+        ? new PrimitiveKReduceBatchFinalReceiver(fnc, rcvr)
+        : new KReduceBatchFinalReceiver(fnc, rcvr);
 
     if (CommunicationContext.ALLTOALL_ALGO_SIMPLE.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       this.op = new MToNSimple(comm.getConfig(), comm.getChannel(),
           plan, sources, destinations,
-          new KReduceBatchFinalReceiver(fnc, rcvr),
+          finalReceiver,
           partialReceiver, dataType, dataType,
           keyType, keyType, edgeId, messageSchema);
     } else if (CommunicationContext.ALLTOALL_ALGO_RING.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       op = new MToNChain(comm.getConfig(), comm.getChannel(),
-          plan, sources, destinations, new KReduceBatchFinalReceiver(fnc, rcvr), partialReceiver,
+          plan, sources, destinations, finalReceiver, partialReceiver,
           dataType, dataType, keyType, keyType, edgeId, messageSchema);
     }
     this.destinationSelector = destSelector;
@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+/**
+ * A codec which compresses independent blocks of bytes. Implementations should be thread safe,
+ * as the same codec is shared by the writers of an operation.
+ *
+ * Custom codecs can be plugged in by giving the class name of the codec in the configuration,
+ * they should have a public no argument constructor and an id not used by the built in codecs.
+ */
+public interface BlockCodec {
+
+  /**
+   * A unique id of the codec, written to the block headers. The built in codecs use ids below 16
+   *
+   * @return the id
+   */
+  byte getId();
+
+  /**
+   * Name of the codec
+   */
+  String getName();
+
+  /**
+   * Maximum size of the compressed data of a block with the given length
+   *
+   * @param length length of the block
+   * @return maximum number of bytes written by {@link #compress(byte[], int, int, byte[], int)}
+   */
+  int maxCompressedLength(int length);
+
+  /**
+   * Compress a block
+   *
+   * @param src source
+   * @param srcOff offset of the block in the source
+   * @param srcLen length of the block
+   * @param dst destination, should have {@link #maxCompressedLength(int)} bytes from the offset
+   * @param dstOff offset in the destination
+   * @return number of bytes written to the destination
+   */
+  int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff);
+
+  /**
+   * Decompress a block
+   *
+   * @param src source
+   * @param srcOff offset of the compressed block
+   * @param srcLen length of the compressed block
+   * @param dst destination
+   * @param dstOff offset in the destination
+   * @param rawLen length of the block before compressing
+   */
+  void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLen);
+}
@@ -0,0 +1,99 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+
+/**
+ * The codecs known to this worker, looked up by the name in the configuration when writing and
+ * by the id in the block header when reading
+ */
+public final class BlockCodecs {
+  /**
+   * Name used to disable compression
+   */
+  public static final String NONE = "none";
+
+  private static final Map<String, Supplier<BlockCodec>> BUILT_IN = new ConcurrentHashMap<>();
+
+  private static final Map<String, BlockCodec> BY_NAME = new ConcurrentHashMap<>();
+
+  private static final Map<Byte, BlockCodec> BY_ID = new ConcurrentHashMap<>();
+
+  static {
+    BUILT_IN.put("deflate", DeflateCodec::new);
+    BUILT_IN.put("lz4", Lz4Codec::new);
+    BUILT_IN.put("snappy", SnappyCodec::new);
+  }
+
+  private BlockCodecs() {
+  }
+
+  /**
+   * Get a codec by the name of a built in codec or the class name of a custom codec
+   *
+   * @param name name, {@link #NONE} or null to disable compression
+   * @return the codec, null if compression is disabled
+   */
+  public static BlockCodec get(String name) {
+    if (name == null || NONE.equalsIgnoreCase(name)) {
+      return null;
+    }
+    return BY_NAME.computeIfAbsent(name.toLowerCase(), n -> {
+      BlockCodec codec = create(name);
+      BlockCodec existing = BY_ID.putIfAbsent(codec.getId(), codec);
+      if (existing != null && !existing.getName().equals(codec.getName())) {
+        throw new Twister2RuntimeException("Codec " + codec.getName()
+            + " uses the id of " + existing.getName());
+      }
+      return existing != null ? existing : codec;
+    });
+  }
+
+  /**
+   * Get the codec which wrote a block
+   *
+   * @param id id of the codec
+   * @return the codec
+   */
+  public static BlockCodec get(byte id) {
+    BlockCodec codec = BY_ID.get(id);
+    if (codec == null) {
+      // built in codecs may be read before they are used for writing in this worker
+      for (String name : BUILT_IN.keySet()) {
+        get(name);
+      }
+      codec = BY_ID.get(id);
+    }
+    if (codec == null) {
+      throw new Twister2RuntimeException("Unknown compression codec id " + id);
+    }
+    return codec;
+  }
+
+  private static BlockCodec create(String name) {
+    Supplier<BlockCodec> builtIn = BUILT_IN.get(name.toLowerCase());
+    if (builtIn != null) {
+      return builtIn.get();
+    }
+    try {
+      return (BlockCodec) Class.forName(name).newInstance();
+    } catch (ClassNotFoundException | InstantiationException
+        | IllegalAccessException | ClassCastException e) {
+      throw new Twister2RuntimeException("Failed to create the compression codec " + name, e);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+/**
+ * Compresses blocks with a codec and writes them with a header of the codec id, the raw length
+ * and the stored length. A block is stored without compressing when the codec does not reach
+ * the minimum ratio, and after a few such blocks we stop trying for a while, so that data which
+ * does not compress costs little CPU.
+ *
+ * A compressor keeps state and should be used by a single thread, the blocks it writes can be
+ * read by the static methods.
+ */
+public class BlockCompressor {
+  /**
+   * Codec id, raw length and stored length
+   */
+  public static final int HEADER_SIZE = Byte.BYTES + 2 * Integer.BYTES;
+
+  /**
+   * Codec id of the blocks stored without compressing
+   */
+  public static final byte STORED = 0;
+
+  /**
+   * Number of consecutive poorly compressed blocks before we start skipping blocks
+   */
+  private static final int POOR_BLOCKS_BEFORE_SKIP = 4;
+
+  private static final int MIN_SKIP = 16;
+
+  private static final int MAX_SKIP = 1024;
+
+  private final BlockCodec codec;
+
+  /**
+   * A block is compressed only if the compressed size is less than this fraction of the raw size
+   */
+  private final double minRatio;
+
+  private int poorBlocks;
+
+  private int skip = MIN_SKIP;
+
+  private int toSkip;
+
+  private long rawBytes;
+
+  private long storedBytes;
+
+  private long compressNanos;
+
+  private long skippedBlocks;
+
+  public BlockCompressor(BlockCodec codec, double minRatio) {
+    this.codec = codec;
+    this.minRatio = minRatio;
+  }
+
+  /**
+   * Maximum size of a block written by {@link #compress(byte[], int, int, byte[], int)}
+   *
+   * @param length length of the raw block
+   * @return size including the header
+   */
+  public int maxBlockLength(int length) {
+    return HEADER_SIZE + Math.max(length, codec.maxCompressedLength(length));
+  }
+
+  /**
+   * Write a block with its header, compressed if it is worth it
+   *
+   * @param src source
+   * @param srcOff offset of the block
+   * @param srcLen length of the block
+   * @param dst destination with at least {@link #maxBlockLength(int)} bytes from the offset
+   * @param dstOff offset in the destination
+   * @return the number of bytes written including the header
+   */
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    rawBytes += srcLen;
+    if (toSkip > 0) {
+      toSkip--;
+      skippedBlocks++;
+      return store(src, srcOff, srcLen, dst, dstOff);
+    }
+
+    long start = System.nanoTime();
+    int compressed = codec.compress(src, srcOff, srcLen, dst, dstOff + HEADER_SIZE);
+    compressNanos += System.nanoTime() - start;
+
+    if (compressed >= srcLen * minRatio) {
+      if (++poorBlocks >= POOR_BLOCKS_BEFORE_SKIP) {
+        toSkip = skip;
+        skip = Math.min(skip << 1, MAX_SKIP);
+        poorBlocks = 0;
+      }
+      return store(src, srcOff, srcLen, dst, dstOff);
+    }
+    poorBlocks = 0;
+    skip = MIN_SKIP;
+    writeHeader(dst, dstOff, codec.getId(), srcLen, compressed);
+    storedBytes += HEADER_SIZE + compressed;
+    return HEADER_SIZE + compressed;
+  }
+
+  private int store(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    writeHeader(dst, dstOff, STORED, srcLen, srcLen);
+    System.arraycopy(src, srcOff, dst, dstOff + HEADER_SIZE, srcLen);
+    storedBytes += HEADER_SIZE + srcLen;
+    return HEADER_SIZE + srcLen;
+  }
+
+  /**
+   * Decompress a block written by a compressor
+   *
+   * @param src source
+   * @param srcOff offset of the block header
+   * @param dst destination with at least {@link #rawLength(byte[], int)} bytes from the offset
+   * @param dstOff offset in the destination
+   * @return the raw length of the block
+   */
+  public static int decompress(byte[] src, int srcOff, byte[] dst, int dstOff) {
+    byte id = src[srcOff];
+    int rawLength = rawLength(src, srcOff);
+    int storedLength = storedLength(src, srcOff);
+    if (id == STORED) {
+      System.arraycopy(src, srcOff + HEADER_SIZE, dst, dstOff, rawLength);
+    } else {
+      BlockCodecs.get(id).decompress(src, srcOff + HEADER_SIZE, storedLength,
+          dst, dstOff, rawLength);
+    }
+    return rawLength;
+  }
+
+  /**
+   * Weather the block is compressed
+   */
+  public static boolean isCompressed(byte[] block, int off) {
+    return block[off] != STORED;
+  }
+
+  /**
+   * Length of the block before compressing
+   */
+  public static int rawLength(byte[] block, int off) {
+    return getInt(block, off + Byte.BYTES);
+  }
+
+  /**
+   * Length of the block data after the header
+   */
+  public static int storedLength(byte[] block, int off) {
+    return getInt(block, off + Byte.BYTES + Integer.BYTES);
+  }
+
+  private static void writeHeader(byte[] dst, int off, byte id, int rawLength, int storedLength) {
+    dst[off] = id;
+    putInt(dst, off + Byte.BYTES, rawLength);
+    putInt(dst, off + Byte.BYTES + Integer.BYTES, storedLength);
+  }
+
+  private static void putInt(byte[] b, int off, int value) {
+    b[off] = (byte) (value >>> 24);
+    b[off + 1] = (byte) (value >>> 16);
+    b[off + 2] = (byte) (value >>> 8);
+    b[off + 3] = (byte) value;
+  }
+
+  private static int getInt(byte[] b, int off) {
+    return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16)
+        | ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+  }
+
+  public BlockCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Bytes given to the compressor
+   */
+  public long getRawBytes() {
+    return rawBytes;
+  }
+
+  /**
+   * Bytes written by the compressor including the headers
+   */
+  public long getStoredBytes() {
+    return storedBytes;
+  }
+
+  /**
+   * Time spent in the codec
+   */
+  public long getCompressNanos() {
+    return compressNanos;
+  }
+
+  /**
+   * Blocks stored without trying to compress them
+   */
+  public long getSkippedBlocks() {
+    return skippedBlocks;
+  }
+}
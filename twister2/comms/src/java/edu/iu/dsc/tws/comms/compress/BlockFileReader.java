@@ -0,0 +1,151 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+
+/**
+ * Reads a file written by a {@link BlockOutputStream} at the positions of the uncompressed data.
+ * The block headers are scanned when the reader is created to build an index from the raw
+ * positions to the file positions, and the last decompressed block is kept.
+ */
+public class BlockFileReader {
+  private final FileChannel channel;
+
+  /**
+   * Raw position of the first byte of each block, with the raw size at the end
+   */
+  private long[] rawStarts;
+
+  /**
+   * File position of each block header, with the file size at the end
+   */
+  private long[] fileStarts;
+
+  private int blocks;
+
+  private final ByteBuffer header = ByteBuffer.allocate(BlockCompressor.HEADER_SIZE);
+
+  private byte[] stored = new byte[0];
+
+  private byte[] current = new byte[0];
+
+  /**
+   * The block in current, -1 if none
+   */
+  private int currentBlock = -1;
+
+  public BlockFileReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    index();
+  }
+
+  private void index() throws IOException {
+    rawStarts = new long[16];
+    fileStarts = new long[16];
+    long filePosition = 0;
+    long rawPosition = 0;
+    long fileSize = channel.size();
+    while (filePosition < fileSize) {
+      header.clear();
+      readFully(header, filePosition);
+      if (blocks + 1 >= rawStarts.length) {
+        rawStarts = Arrays.copyOf(rawStarts, rawStarts.length * 2);
+        fileStarts = Arrays.copyOf(fileStarts, fileStarts.length * 2);
+      }
+      rawStarts[blocks] = rawPosition;
+      fileStarts[blocks] = filePosition;
+      blocks++;
+      rawPosition += header.getInt(Byte.BYTES);
+      filePosition += BlockCompressor.HEADER_SIZE + header.getInt(Byte.BYTES + Integer.BYTES);
+    }
+    rawStarts[blocks] = rawPosition;
+    fileStarts[blocks] = filePosition;
+  }
+
+  /**
+   * Size of the uncompressed data
+   */
+  public long size() {
+    return rawStarts[blocks];
+  }
+
+  /**
+   * Read the uncompressed data from a position in to the buffer, until the buffer is full or we
+   * reach the end of the data
+   *
+   * @param dst the buffer
+   * @param position raw position
+   * @return number of bytes read, -1 if the position is at the end
+   */
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position >= size()) {
+      return -1;
+    }
+    int read = 0;
+    long pos = position;
+    while (dst.hasRemaining() && pos < size()) {
+      int block = findBlock(pos);
+      load(block);
+      int offset = (int) (pos - rawStarts[block]);
+      int n = Math.min(dst.remaining(), (int) (rawStarts[block + 1] - pos));
+      dst.put(current, offset, n);
+      read += n;
+      pos += n;
+    }
+    return read;
+  }
+
+  private int findBlock(long position) {
+    if (currentBlock >= 0 && position >= rawStarts[currentBlock]
+        && position < rawStarts[currentBlock + 1]) {
+      return currentBlock;
+    }
+    int index = Arrays.binarySearch(rawStarts, 0, blocks, position);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  private void load(int block) throws IOException {
+    if (block == currentBlock) {
+      return;
+    }
+    int storedLength = (int) (fileStarts[block + 1] - fileStarts[block]);
+    if (stored.length < storedLength) {
+      stored = new byte[storedLength];
+    }
+    readFully(ByteBuffer.wrap(stored, 0, storedLength), fileStarts[block]);
+
+    int rawLength = BlockCompressor.rawLength(stored, 0);
+    if (current.length < rawLength) {
+      current = new byte[rawLength];
+    }
+    BlockCompressor.decompress(stored, 0, current, 0);
+    currentBlock = block;
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    long pos = position;
+    while (buffer.hasRemaining()) {
+      int n = channel.read(buffer, pos);
+      if (n < 0) {
+        throw new Twister2RuntimeException("Unexpected end of the compressed file at " + pos);
+      }
+      pos += n;
+    }
+    buffer.flip();
+  }
+}
@@ -0,0 +1,91 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffers the written bytes in to blocks of a fixed size and writes each block through a
+ * {@link BlockCompressor}. The blocks can be read from any position with a
+ * {@link BlockFileReader}.
+ */
+public class BlockOutputStream extends OutputStream {
+  private final OutputStream out;
+
+  private final BlockCompressor compressor;
+
+  private final byte[] block;
+
+  private final byte[] compressed;
+
+  private int count;
+
+  public BlockOutputStream(OutputStream out, BlockCompressor compressor, int blockSize) {
+    this.out = out;
+    this.compressor = compressor;
+    this.block = new byte[blockSize];
+    this.compressed = new byte[compressor.maxBlockLength(blockSize)];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == block.length) {
+      writeBlock();
+    }
+    block[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == block.length) {
+        writeBlock();
+      }
+      int n = Math.min(len, block.length - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (count > 0) {
+      int length = compressor.compress(block, 0, count, compressed, 0);
+      out.write(compressed, 0, length);
+      count = 0;
+    }
+  }
+
+  /**
+   * Writes the current block, so a flush ends a block
+   */
+  @Override
+  public void flush() throws IOException {
+    writeBlock();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      writeBlock();
+    } finally {
+      out.close();
+    }
+  }
+
+  public BlockCompressor getCompressor() {
+    return compressor;
+  }
+}
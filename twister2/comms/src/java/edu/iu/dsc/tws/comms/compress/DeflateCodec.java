@@ -0,0 +1,85 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+
+/**
+ * Deflate at the fastest level, available without any native libraries
+ */
+public class DeflateCodec implements BlockCodec {
+  public static final byte ID = 1;
+
+  private static final ThreadLocal<Deflater> DEFLATER =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+
+  private static final ThreadLocal<Inflater> INFLATER =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "deflate";
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    // stored deflate blocks add 5 bytes per 16KB
+    return length + (length >> 8) + 64;
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    deflater.setInput(src, srcOff, srcLen);
+    deflater.finish();
+    int written = 0;
+    int max = maxCompressedLength(srcLen);
+    while (!deflater.finished()) {
+      written += deflater.deflate(dst, dstOff + written, max - written);
+    }
+    return written;
+  }
+
+  @Override
+  public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff,
+                         int rawLen) {
+    Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(src, srcOff, srcLen);
+    try {
+      int read = 0;
+      while (read < rawLen) {
+        int n = inflater.inflate(dst, dstOff + read, rawLen - read);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          break;
+        }
+        read += n;
+      }
+      if (read != rawLen) {
+        throw new Twister2RuntimeException("Corrupted block, expected " + rawLen
+            + " bytes, but got " + read);
+      }
+    } catch (DataFormatException e) {
+      throw new Twister2RuntimeException("Corrupted block", e);
+    }
+  }
+}
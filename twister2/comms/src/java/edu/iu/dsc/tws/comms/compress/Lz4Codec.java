@@ -0,0 +1,60 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * LZ4 using the fastest implementation available, trades the compression ratio for speed
+ */
+public class Lz4Codec implements BlockCodec {
+  public static final byte ID = 2;
+
+  private final LZ4Compressor compressor;
+
+  private final LZ4FastDecompressor decompressor;
+
+  public Lz4Codec() {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    this.compressor = factory.fastCompressor();
+    this.decompressor = factory.fastDecompressor();
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "lz4";
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return compressor.maxCompressedLength(length);
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    return compressor.compress(src, srcOff, srcLen, dst, dstOff,
+        compressor.maxCompressedLength(srcLen));
+  }
+
+  @Override
+  public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff,
+                         int rawLen) {
+    decompressor.decompress(src, srcOff, dst, dstOff, rawLen);
+  }
+}
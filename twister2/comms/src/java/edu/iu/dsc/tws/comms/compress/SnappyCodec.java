@@ -0,0 +1,63 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.io.IOException;
+
+import org.xerial.snappy.Snappy;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+
+/**
+ * Snappy block compression
+ */
+public class SnappyCodec implements BlockCodec {
+  public static final byte ID = 3;
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return "snappy";
+  }
+
+  @Override
+  public int maxCompressedLength(int length) {
+    return Snappy.maxCompressedLength(length);
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    try {
+      return Snappy.compress(src, srcOff, srcLen, dst, dstOff);
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to compress a block", e);
+    }
+  }
+
+  @Override
+  public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff,
+                         int rawLen) {
+    try {
+      int read = Snappy.uncompress(src, srcOff, srcLen, dst, dstOff);
+      if (read != rawLen) {
+        throw new Twister2RuntimeException("Corrupted block, expected " + rawLen
+            + " bytes, but got " + read);
+      }
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to decompress a block", e);
+    }
+  }
+}
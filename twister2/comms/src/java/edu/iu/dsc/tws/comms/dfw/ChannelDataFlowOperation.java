@@ -21,6 +21,8 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
@@ -38,16 +40,35 @@ import edu.iu.dsc.tws.api.comms.messaging.ChannelMessageReleaseCallback;
 import edu.iu.dsc.tws.api.comms.messaging.MessageDirection;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageHeader;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.comms.packing.DataBufferPool;
 import edu.iu.dsc.tws.api.comms.packing.MessageDeSerializer;
 import edu.iu.dsc.tws.api.comms.packing.MessageSerializer;
+import edu.iu.dsc.tws.api.comms.packing.PooledBufferQueue;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.Histogram;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
+import edu.iu.dsc.tws.comms.compress.BlockCodec;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
+import edu.iu.dsc.tws.comms.compress.BlockCompressor;
 
 public class ChannelDataFlowOperation implements ChannelListener, ChannelMessageReleaseCallback {
   private static final Logger LOG = Logger.getLogger(ChannelDataFlowOperation.class.getName());
 
+  /**
+   * Set on the source id at the start of a buffer sent compressed
+   */
+  private static final int COMPRESSED_FLAG = 0x80000000;
+
+  /**
+   * We don't compress buffers smaller than this
+   */
+  private static final int MIN_COMPRESS_SIZE = 512;
+
   /**
    * The default path to be used
    */
@@ -162,6 +183,62 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
 
   private AtomicInteger externalSendsPending = new AtomicInteger(0);
 
+  /**
+   * The worker wide buffer pool, null if we use buffers dedicated to this operation
+   */
+  private DataBufferPool bufferPool;
+
+  /**
+   * Weather we hand over messages to the receivers of this worker from the sending thread
+   */
+  private boolean localDirectDelivery;
+
+  /**
+   * Weather the received buffers are forwarded as they arrive, before deserializing them
+   */
+  private boolean forwardOnArrival;
+
+  /**
+   * The received buffers waiting to be forwarded, per source
+   */
+  private Map<Integer, Queue<ChannelMessage>> pendingForwards = new ConcurrentHashMap<>();
+
+  /**
+   * Compresses the buffers sent over the network, null if we send them as they are
+   */
+  private BlockCompressor compressor;
+
+  /**
+   * Scratch space for compressing and decompressing buffers
+   */
+  private byte[] sendRaw = new byte[0];
+  private byte[] sendBlock = new byte[0];
+  private byte[] receiveRaw = new byte[0];
+  private byte[] receiveBlock = new byte[0];
+
+  /**
+   * Metrics of this edge
+   */
+  private Counter messagesSent;
+  private Counter bytesSent;
+  private Counter messagesReceived;
+  private Counter bytesReceived;
+  private Counter sendsRejected;
+  private Counter bufferWaits;
+  private Counter bytesSavedByCompression;
+  private Histogram serializeTime;
+  private Histogram deserializeTime;
+
+  /**
+   * Weather we measure the serialization times
+   */
+  private boolean recordTimes;
+
+  /**
+   * Prefix of the metrics of this edge, they are removed when closing
+   */
+  private String metricsPrefix;
+
   ChannelDataFlowOperation(TWSChannel channel) {
     this.channel = channel;
   }
@@ -193,16 +270,25 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
 
     this.messageSerializer = serializer;
     this.messageDeSerializer = deSerializer;
+    this.localDirectDelivery = CommunicationContext.isLocalDirectDelivery(config);
+    setCompression(BlockCodecs.get(CommunicationContext.getCompressionCodec(config)));
 
     int noOfSendBuffers = CommunicationContext.sendBuffersCount(config);
     int sendBufferSize = CommunicationContext.bufferSize(config);
 
-    this.sendBuffers = new ArrayBlockingQueue<>(noOfSendBuffers);
-    for (int i = 0; i < noOfSendBuffers; i++) {
-      sendBuffers.offer(new DataBuffer(channel.createBuffer(sendBufferSize)));
+    if (CommunicationContext.isBufferPoolEnabled(config)) {
+      this.bufferPool = DataBufferPool.init(config, channel::createBuffer);
+      this.sendBuffers = new PooledBufferQueue(bufferPool, edge, true,
+          CommunicationContext.bufferPoolEdgeSendQuota(config), sendBufferSize);
+    } else {
+      this.sendBuffers = new ArrayBlockingQueue<>(noOfSendBuffers);
+      for (int i = 0; i < noOfSendBuffers; i++) {
+        sendBuffers.offer(new DataBuffer(channel.createBuffer(sendBufferSize)));
+      }
     }
     this.receiveBuffers = new HashMap<>();
     this.localReceiveBuffers = new ArrayDeque<>();
+    initMetrics();
 
     LOG.log(Level.FINE, String.format("%d setup communication", instancePlan.getThisWorker()));
     // now setup the sends and receives
@@ -242,6 +328,31 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
         pendingSendPerSource, pRMPS, pendingReceiveDesrialize, serializer, deSerializer, keyed);
   }
 
+  private void initMetrics() {
+    MetricsRegistry metrics = MetricsRegistry.init(config);
+    String prefix = MetricsRegistry.name("comms.edge", edge);
+    this.metricsPrefix = prefix;
+    this.messagesSent = metrics.counter(MetricsRegistry.name(prefix, "messages.sent"));
+    this.bytesSent = metrics.counter(MetricsRegistry.name(prefix, "bytes.sent"));
+    this.messagesReceived = metrics.counter(MetricsRegistry.name(prefix, "messages.received"));
+    this.bytesReceived = metrics.counter(MetricsRegistry.name(prefix, "bytes.received"));
+    this.sendsRejected = metrics.counter(MetricsRegistry.name(prefix, "sends.rejected"));
+    this.bufferWaits = metrics.counter(MetricsRegistry.name(prefix, "buffer.waits"));
+    this.bytesSavedByCompression = metrics.counter(
+        MetricsRegistry.name(prefix, "bytes.compression.saved"));
+    this.serializeTime = metrics.histogram(MetricsRegistry.name(prefix, "serialize.nanos"));
+    this.deserializeTime = metrics.histogram(MetricsRegistry.name(prefix, "deserialize.nanos"));
+    this.recordTimes = metrics.isEnabled();
+
+    metrics.gauge(MetricsRegistry.name(prefix, "pending.sends"), () -> {
+      long pending = 0;
+      for (Queue<OutMessage> q : pendingSendMessagesPerSource.values()) {
+        pending += q.size();
+      }
+      return pending;
+    });
+  }
+
   private void initSerializers() {
     // initialize the serializers
     for (MessageSerializer serializer : messageSerializer.values()) {
@@ -272,9 +383,16 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
     int maxReceiveBuffers = CommunicationContext.receiveBufferCount(config);
     int receiveBufferSize = CommunicationContext.bufferSize(config);
     for (Integer recv : receivingExecutors) {
-      Queue<DataBuffer> recvList = new LinkedBlockingQueue<>();
-      for (int i = 0; i < maxReceiveBuffers; i++) {
-        recvList.add(new DataBuffer(channel.createBuffer(receiveBufferSize)));
+      Queue<DataBuffer> recvList;
+      if (bufferPool != null) {
+        // buffers are acquired from the pool when the channel posts the receives
+        recvList = new PooledBufferQueue(bufferPool, edge, false,
+            CommunicationContext.bufferPoolEdgeReceiveQuota(config), receiveBufferSize);
+      } else {
+        recvList = new LinkedBlockingQueue<>();
+        for (int i = 0; i < maxReceiveBuffers; i++) {
+          recvList.add(new DataBuffer(channel.createBuffer(receiveBufferSize)));
+        }
       }
       // register with the channel
       LOG.fine(instancePlan.getThisWorker() + " Register to receive from: " + recv);
@@ -283,6 +401,9 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
     }
 
     // configure the send sendBuffers
+    if (bufferPool != null) {
+      return;
+    }
     int sendBufferSize = CommunicationContext.bufferSize(config);
     int sendBufferCount = CommunicationContext.sendBuffersCount(config);
     for (int i = 0; i < sendBufferCount; i++) {
@@ -334,8 +455,12 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
   public void onReceiveComplete(int id, int e, DataBuffer buffer) {
     // we need to try to build the message here, we may need many more messages to complete
     ByteBuffer byteBuffer = buffer.getByteBuffer();
+    if ((byteBuffer.getInt(0) & COMPRESSED_FLAG) != 0) {
+      decompress(buffer);
+    }
     byteBuffer.position(buffer.getSize());
     byteBuffer.flip();
+    bytesReceived.inc(buffer.getSize());
 
     // we have the source of the message at 0th position as an integer
     int source = byteBuffer.getInt(0);
@@ -346,7 +471,8 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
       MessageType recvDType = receiveDataType;
       MessageType recvKType = receiveKeyType;
 
-      if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER
+          || Watermarks.isWatermark(header.getFlags())) {
         recvDType = MessageTypes.BYTE_ARRAY;
         recvKType = MessageTypes.EMPTY;
       }
@@ -355,7 +481,7 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
       if (isKeyed) {
         currentMessage.setKeyType(recvKType);
       }
-      if (!currentMessage.addBufferAndCalculate(buffer)) {
+      if (!currentMessage.addBufferAndCalculate(forwardBuffer(id, currentMessage, buffer))) {
         currentMessages.put(source, currentMessage);
       }
       // we add the message immediately to the deserialization as we can deserialize partially
@@ -365,12 +491,143 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
             + deserializeQueue.size());
       }
     } else {
-      if (currentMessage.addBufferAndCalculate(buffer)) {
+      if (currentMessage.addBufferAndCalculate(forwardBuffer(id, currentMessage, buffer))) {
         currentMessages.remove(source);
       }
     }
   }
 
+  /**
+   * Queue a received buffer to be forwarded before it is deserialized. The deserializer gets a
+   * view of the buffer with its own position, as the channel moves the position while sending.
+   * The buffer is released after it is sent and deserialized.
+   *
+   * @param id the receive id
+   * @param message the message the buffer belongs to
+   * @param buffer the received buffer
+   * @return the buffer to be deserialized
+   */
+  private DataBuffer forwardBuffer(int id, InMessage message, DataBuffer buffer) {
+    if (!forwardOnArrival) {
+      return buffer;
+    }
+    ChannelMessage forward = new ChannelMessage(id, message.getDataType(),
+        MessageDirection.IN, this);
+    forward.addBuffer(buffer);
+    forward.setHeader(message.getHeader());
+    // one reference is released by the deserialization, the other after the receiver accepts
+    // the message to be forwarded, so the buffer is kept until it is handed over to the sends
+    forward.incrementRefCount(2);
+
+    DataBuffer view = new DataBuffer(buffer.getByteBuffer().duplicate());
+    view.setSize(buffer.getSize());
+    message.addForward(view, forward);
+    pendingForwards.computeIfAbsent(message.getHeader().getSourceId(),
+        s -> new ConcurrentLinkedQueue<>()).offer(forward);
+    return view;
+  }
+
+  /**
+   * Give the received buffers to the receiver to be forwarded, in the order they arrived
+   */
+  private void forwardProgress() {
+    for (Queue<ChannelMessage> forwards : pendingForwards.values()) {
+      ChannelMessage forward = forwards.peek();
+      while (forward != null) {
+        lock.lock();
+        try {
+          if (!receiver.handleReceivedChannelMessage(forward)) {
+            break;
+          }
+        } finally {
+          lock.unlock();
+        }
+        forwards.poll();
+        forward.release();
+        forward = forwards.peek();
+      }
+    }
+  }
+
+  /**
+   * Compress the buffers of this edge sent over the network, overrides the configuration. The
+   * receivers detect the compressed buffers, so only the senders need to set this.
+   *
+   * @param codec the codec, null to send the buffers without compressing
+   */
+  public void setCompression(BlockCodec codec) {
+    this.compressor = codec != null
+        ? new BlockCompressor(codec, CommunicationContext.getCompressionMinRatio(config)) : null;
+  }
+
+  /**
+   * Compress the data after the source id in place, the buffer is left as it is if the data
+   * doesn't compress well
+   */
+  private void compress(DataBuffer buffer) {
+    int length = buffer.getSize() - Integer.BYTES;
+    if (length < MIN_COMPRESS_SIZE) {
+      return;
+    }
+    if (sendRaw.length < length) {
+      sendRaw = new byte[length];
+      sendBlock = new byte[compressor.maxBlockLength(length)];
+    }
+    ByteBuffer byteBuffer = buffer.getByteBuffer();
+    ByteBuffer view = byteBuffer.duplicate();
+    view.clear();
+    view.position(Integer.BYTES);
+    view.get(sendRaw, 0, length);
+
+    int compressed = compressor.compress(sendRaw, 0, length, sendBlock, 0);
+    if (!BlockCompressor.isCompressed(sendBlock, 0)) {
+      return;
+    }
+    view.position(Integer.BYTES);
+    view.put(sendBlock, 0, compressed);
+    byteBuffer.putInt(0, byteBuffer.getInt(0) | COMPRESSED_FLAG);
+    buffer.setSize(Integer.BYTES + compressed);
+    byteBuffer.position(buffer.getSize());
+    bytesSavedByCompression.inc(length - compressed);
+  }
+
+  /**
+   * Decompress a received buffer in place
+   */
+  private void decompress(DataBuffer buffer) {
+    int length = buffer.getSize() - Integer.BYTES;
+    if (receiveBlock.length < length) {
+      receiveBlock = new byte[length];
+    }
+    ByteBuffer byteBuffer = buffer.getByteBuffer();
+    ByteBuffer view = byteBuffer.duplicate();
+    view.clear();
+    view.position(Integer.BYTES);
+    view.get(receiveBlock, 0, length);
+
+    int rawLength = BlockCompressor.rawLength(receiveBlock, 0);
+    if (receiveRaw.length < rawLength) {
+      receiveRaw = new byte[rawLength];
+    }
+    BlockCompressor.decompress(receiveBlock, 0, receiveRaw, 0);
+    view.position(Integer.BYTES);
+    view.put(receiveRaw, 0, rawLength);
+    byteBuffer.putInt(0, byteBuffer.getInt(0) & ~COMPRESSED_FLAG);
+    byteBuffer.clear();
+    buffer.setSize(Integer.BYTES + rawLength);
+  }
+
+  /**
+   * Forward the received buffers as they arrive instead of after deserializing them. Used by
+   * operations that relay the messages they receive, so that large messages are pipelined
+   * through the intermediate workers. Should be set before the receives start.
+   *
+   * @param forward weather to forward on arrival
+   */
+  void setForwardOnArrival(boolean forward) {
+    this.forwardOnArrival = forward;
+  }
+
   /**
    * Weather we have more data to complete
    */
@@ -389,6 +646,12 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
       }
     }
 
+    for (Queue<ChannelMessage> forwards : pendingForwards.values()) {
+      if (!forwards.isEmpty()) {
+        return false;
+      }
+    }
+
 //    for (Map.Entry<Integer, Queue<InMessage>> e : pendingReceiveDeSerializations.entrySet()) {
 //      if (e.getValue().size() > 0) {
 //        return false;
@@ -403,6 +666,10 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
    * send messages through this communication
    */
   public void progress() {
+    if (forwardOnArrival) {
+      forwardProgress();
+    }
+
     if (sendProgressTracker.canProgress()) {
       int sendId = sendProgressTracker.next();
       if (sendId != Integer.MIN_VALUE) {
@@ -449,13 +716,33 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
         path = routingParameters.getDestinationId();
       }
 
+      List<Integer> internalRoutes = routingParameters.getInternalRoutes();
+      int acceptedInternalSends = 0;
+      // if nothing is pending from this source we can give the message to the local receivers
+      // without going through the queues, this keeps the order of the messages
+      if (localDirectDelivery && internalRoutes.size() > 0 && pendingSendMessages.isEmpty()) {
+        acceptedInternalSends = deliverLocally(source, target, flags, internalRoutes, message);
+        if (acceptedInternalSends == internalRoutes.size()
+            && routingParameters.getExternalRoutes().size() == 0) {
+          messagesSent.inc();
+          return true;
+        }
+      }
+
       OutMessage sendMessage = new OutMessage(source, edge,
-          path, target, flags, routingParameters.getInternalRoutes(),
+          path, target, flags, internalRoutes,
           routingParameters.getExternalRoutes(), dataType, keyType, this, message);
+      for (int i = 0; i < acceptedInternalSends; i++) {
+        sendMessage.incrementAcceptedInternalSends();
+      }
 
       // now try to put this into pending
-      return pendingSendMessages.offer(sendMessage);
+      if (pendingSendMessages.offer(sendMessage)) {
+        messagesSent.inc();
+        return true;
+      }
     }
+    sendsRejected.inc();
     return false;
   }
 
@@ -484,11 +771,18 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
         }
         Queue<ChannelMessage> channelMessages = outMessage.getChannelMessages();
         // at this point lets build the message
+        long start = recordTimes ? System.nanoTime() : 0;
         ChannelMessage serializeMessage = (ChannelMessage)
             messageSerializer.get(sendId).build(outMessage.getData(), outMessage);
         if (serializeMessage != null) {
+          if (recordTimes) {
+            serializeTime.record(System.nanoTime() - start);
+          }
           // we are incrementing the reference count here
           channelMessages.offer(serializeMessage);
+        } else if (outMessage.getSendState() != OutMessage.SendState.SERIALIZED) {
+          // we could not get a buffer to serialize the message
+          bufferWaits.inc();
         }
 
         ChannelMessage chMessage = channelMessages.peek();
@@ -531,6 +825,12 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
       if (!chMessage.isOutCountUpdated()) {
         chMessage.incrementRefCount(outMessage.getExternalSends().size());
         chMessage.setOutCountUpdated(true);
+        // only the buffers we serialized, forwarded buffers are shared with the deserializer
+        if (compressor != null && chMessage.getMessageDirection() == MessageDirection.OUT) {
+          for (DataBuffer buffer : chMessage.getNormalBuffers()) {
+            compress(buffer);
+          }
+        }
       }
       for (int i = startOfExternalRouts; i < exRoutes.size(); i++) {
         boolean sendAccepted = sendMessageToTarget(chMessage, exRoutes.get(i));
@@ -579,6 +879,30 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
     return canProgress;
   }
 
+  /**
+   * Hand over the message object to the receivers in this worker. The receivers get the same
+   * object reference as in the internal sends done through the progress.
+   *
+   * @return number of internal routes that accepted the message
+   */
+  private int deliverLocally(int source, int target, int flags,
+                             List<Integer> internalRoutes, Object message) {
+    int accepted = 0;
+    lock.lock();
+    try {
+      for (int i = 0; i < internalRoutes.size(); i++) {
+        if (!receiver.receiveSendInternally(source, internalRoutes.get(i), target,
+            flags, message)) {
+          break;
+        }
+        accepted++;
+      }
+    } finally {
+      lock.unlock();
+    }
+    return accepted;
+  }
+
   private void receiveDeserializeProgress(Queue<InMessage> msgQueue, int receiveId) {
     InMessage currentMessage = msgQueue.peek();
     if (currentMessage == null) {
@@ -598,8 +922,12 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
         currentMessage.setReceivedState(InMessage.ReceivedState.BUILDING);
       }
 
+      long start = recordTimes ? System.nanoTime() : 0;
       messageDeSerializer.get(receiveId).build(currentMessage,
           currentMessage.getHeader().getEdge());
+      if (recordTimes) {
+        deserializeTime.record(System.nanoTime() - start);
+      }
 
       // lets check weather we have read everythong
       int readObjectNumber = currentMessage.getUnPkNumberObjects();
@@ -630,12 +958,17 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
             // get the first channel message
             ChannelMessage msg = currentMessage.getBuiltMessages().peek();
             if (msg != null) {
-              if (!receiver.handleReceivedChannelMessage(msg)) {
+              // the buffers are already forwarded if we forward on arrival
+              if (!forwardOnArrival && !receiver.handleReceivedChannelMessage(msg)) {
                 canProgress = false;
                 break;
               }
               ChannelMessage releaseMsg = currentMessage.getBuiltMessages().poll();
-              Objects.requireNonNull(releaseMsg).release();
+              if (forwardOnArrival) {
+                currentMessage.releaseForwards(Objects.requireNonNull(releaseMsg));
+              } else {
+                Objects.requireNonNull(releaseMsg).release();
+              }
             }
           }
 
@@ -650,6 +983,7 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
           if (!receiver.receiveMessage(currentMessage.getHeader(), object)) {
             break;
           }
+          messagesReceived.inc();
           currentMessage.setReceivedState(InMessage.ReceivedState.DONE);
           pendingReceiveMessages.poll();
         } else {
@@ -676,6 +1010,10 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
 
   @Override
   public void onSendComplete(int id, int messageStream, ChannelMessage message) {
+    List<DataBuffer> buffers = message.getNormalBuffers();
+    for (int i = 0; i < buffers.size(); i++) {
+      bytesSent.inc(buffers.get(i).getSize());
+    }
     // ok we don't have anything else to do
     message.release();
     externalSendsPending.getAndDecrement();
@@ -703,13 +1041,12 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
         message.getOverflowBuffers().clear();
       }
     } else if (MessageDirection.OUT == message.getMessageDirection()) {
-      ArrayBlockingQueue<DataBuffer> queue = (ArrayBlockingQueue<DataBuffer>) sendBuffers;
       for (DataBuffer buffer : message.getNormalBuffers()) {
         // we need to clean the buffer so it can be used again
         buffer.getByteBuffer().clear();
-        if (!queue.offer(buffer)) {
-          throw new RuntimeException(String.format("%d Buffer release failed for source %d %d %d",
-              executor, message.getOriginatingId(), queue.size(), queue.remainingCapacity()));
+        if (!sendBuffers.offer(buffer)) {
+          throw new RuntimeException(String.format("%d Buffer release failed for source %d %d",
+              executor, message.getOriginatingId(), sendBuffers.size()));
         }
       }
     }
@@ -728,8 +1065,14 @@ public class ChannelDataFlowOperation implements ChannelListener, ChannelMessage
   }
 
   public void close() {
+    MetricsRegistry.getInstance().removeAll(metricsPrefix);
     for (int exec : receivingExecutors) {
       channel.releaseBuffers(exec, edge);
     }
+    if (bufferPool != null) {
+      for (Queue<DataBuffer> recvList : receiveBuffers.values()) {
+        ((PooledBufferQueue) recvList).close();
+      }
+    }
   }
 }
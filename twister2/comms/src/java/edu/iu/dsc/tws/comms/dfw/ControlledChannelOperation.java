@@ -36,6 +36,7 @@ import edu.iu.dsc.tws.api.comms.messaging.ChannelMessageReleaseCallback;
 import edu.iu.dsc.tws.api.comms.messaging.MessageDirection;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageHeader;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
@@ -398,7 +399,8 @@ public class ControlledChannelOperation implements ChannelListener, ChannelMessa
       MessageType recvDType = receiveDataType;
       MessageType recvKType = receiveKeyType;
 
-      if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER
+          || Watermarks.isWatermark(header.getFlags())) {
         recvDType = MessageTypes.BYTE_ARRAY;
         recvKType = MessageTypes.EMPTY;
       }
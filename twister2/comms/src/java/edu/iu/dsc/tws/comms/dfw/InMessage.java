@@ -35,8 +35,11 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.comms.dfw;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.logging.Logger;
 
@@ -72,6 +75,13 @@ public class InMessage {
    */
   private Queue<DataBuffer> buffers = new LinkedList<>();
 
+  /**
+   * The messages forwarding the buffers of this message before they are deserialized, keyed
+   * by the buffer given to the deserializer
+   */
+  private Map<DataBuffer, ChannelMessage> forwards =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
   /**
    * We call this to release the buffers
    */
@@ -253,6 +263,32 @@ public class InMessage {
     builtMessages.add(channelMessage);
   }
 
+  /**
+   * Keep track of the message forwarding a buffer, the buffer cannot be released until the
+   * deserializer is done with it
+   *
+   * @param buffer the buffer given to the deserializer
+   * @param forward the message forwarding the buffer
+   */
+  public void addForward(DataBuffer buffer, ChannelMessage forward) {
+    forwards.put(buffer, forward);
+  }
+
+  /**
+   * The deserializer is done with the buffers of the built message, release the messages
+   * forwarding them
+   *
+   * @param builtMessage the built message
+   */
+  public void releaseForwards(ChannelMessage builtMessage) {
+    for (DataBuffer buffer : builtMessage.getNormalBuffers()) {
+      ChannelMessage forward = forwards.remove(buffer);
+      if (forward != null) {
+        forward.release();
+      }
+    }
+  }
+
   public ChannelMessageReleaseCallback getReleaseListener() {
     return releaseListener;
   }
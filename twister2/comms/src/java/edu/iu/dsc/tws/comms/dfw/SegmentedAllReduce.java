@@ -0,0 +1,841 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BinaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.routing.AllReduceSchedule;
+import edu.iu.dsc.tws.comms.utils.TaskPlanUtils;
+
+/**
+ * An all reduce of primitive arrays that exchanges segments of the arrays between the workers
+ * instead of reducing to a single task and broadcasting the result. The values of the tasks of a
+ * worker are first reduced locally, then the workers run a ring or a recursive halving
+ * {@link AllReduceSchedule}, so that each worker sends about two times the array regardless of
+ * the number of workers. Small arrays are reduced with recursive doubling which has the least
+ * number of steps.
+ *
+ * When the workers are on more than one node, the workers of a node first send their arrays to a
+ * leader of the node and only the leaders exchange segments over the network. The nodes are taken
+ * from the worker groups of the {@link LogicalPlan}.
+ *
+ * The reduce function is applied to segments of the arrays, so it should be element wise.
+ *
+ * Each worker participating in the operation is represented by a logical id. The segments are
+ * sent between these ids using a {@link MToNSimple}. In batch mode the workers first agree on the
+ * length of the array with a small exchange, as some workers may not have received any values.
+ */
+public class SegmentedAllReduce implements DataFlowOperation {
+  private static final Logger LOG = Logger.getLogger(SegmentedAllReduce.class.getName());
+
+  /**
+   * The sync message given to the targets at the end of a batch
+   */
+  private static final byte[] EMPTY_SYNC = new byte[1];
+
+  private enum RoundState {
+    IDLE,
+    CONTROL,
+    DATA,
+    DELIVER,
+    DONE,
+  }
+
+  private Config config;
+
+  private LogicalPlan logicalPlan;
+
+  // the source tasks
+  private Set<Integer> sources;
+
+  // the destination tasks
+  private Set<Integer> destinations;
+
+  private Set<Integer> thisSources;
+
+  private Set<Integer> thisTargets;
+
+  private ReduceFunction reduceFunction;
+
+  private SingularReceiver finalReceiver;
+
+  private MessageType dataType;
+
+  /**
+   * Component type of the arrays
+   */
+  private Class<?> componentType;
+
+  /**
+   * Weather streaming mode
+   */
+  private boolean streaming;
+
+  private int edge;
+
+  private String algorithm;
+
+  private int smallBytes;
+
+  /**
+   * Maximum number of elements sent in a message
+   */
+  private int chunkElements;
+
+  /**
+   * The logical id representing each worker, indexed by the rank of the worker
+   */
+  private int[] workerTasks;
+
+  /**
+   * Rank of this worker, -1 if this worker does not participate
+   */
+  private int rank = -1;
+
+  /**
+   * The group, i.e. the node, of each rank when the data is reduced within the groups first
+   */
+  private int[] groups;
+
+  /**
+   * Segments are exchanged using this operation
+   */
+  private MToNSimple dataOp;
+
+  private PeerReceiver dataReceiver;
+
+  /**
+   * The array lengths are exchanged using this operation in batch mode
+   */
+  private MToNSimple controlOp;
+
+  private PeerReceiver controlReceiver;
+
+  /**
+   * Batch mode, the locally reduced value
+   */
+  private Object localValue;
+
+  /**
+   * Weather the local value is created by us, if not we need to copy before modifying it
+   */
+  private boolean localOwned;
+
+  private Set<Integer> finishedSources = new HashSet<>();
+
+  private byte[] barrier;
+
+  /**
+   * Streaming mode, the messages of each source waiting for a round
+   */
+  private Map<Integer, Queue<Object>> sourceMessages = new HashMap<>();
+
+  private RoundState state = RoundState.IDLE;
+
+  private Exchange exchange;
+
+  private Object result;
+
+  private List<Integer> deliverTargets = new ArrayList<>();
+
+  private int delivered;
+
+  private boolean syncing;
+
+  public SegmentedAllReduce(Config cfg, TWSChannel channel, LogicalPlan plan,
+                            Set<Integer> sources, Set<Integer> destinations,
+                            List<Integer> workers, int[] workerTasks,
+                            ReduceFunction reduceFn, SingularReceiver finalRecv,
+                            MessageType dataType, int dataEdge, int controlEdge,
+                            boolean stream) {
+    this.config = cfg;
+    this.logicalPlan = plan;
+    this.sources = sources;
+    this.destinations = destinations;
+    this.workerTasks = workerTasks;
+    this.reduceFunction = reduceFn;
+    this.finalReceiver = finalRecv;
+    this.dataType = dataType;
+    this.componentType = dataType.getClazz().getComponentType();
+    this.streaming = stream;
+    this.edge = dataEdge;
+    this.algorithm = CommunicationContext.allReduceAlgorithm(cfg);
+    this.smallBytes = CommunicationContext.allReduceSmallBytes(cfg);
+    this.chunkElements = Math.max(1,
+        CommunicationContext.allReduceChunkBytes(cfg) / dataType.getUnitSizeInBytes());
+
+    this.thisSources = TaskPlanUtils.getTasksOfThisWorker(plan, sources);
+    this.thisTargets = TaskPlanUtils.getTasksOfThisWorker(plan, destinations);
+    this.rank = workers.indexOf(plan.getThisWorker());
+    this.groups = hierarchicalGroups(cfg, plan, workers);
+
+    Set<Integer> tasks = new HashSet<>();
+    for (int t : workerTasks) {
+      tasks.add(t);
+    }
+    dataReceiver = new PeerReceiver();
+    dataOp = new MToNSimple(channel, tasks, tasks, dataReceiver, dataReceiver,
+        dataType, MessageSchema.noSchema());
+    dataOp.init(cfg, dataType, plan, dataEdge);
+    if (!streaming) {
+      controlReceiver = new PeerReceiver();
+      controlOp = new MToNSimple(channel, tasks, tasks, controlReceiver, controlReceiver,
+          MessageTypes.LONG_ARRAY, MessageSchema.noSchema());
+      controlOp.init(cfg, MessageTypes.LONG_ARRAY, plan, controlEdge);
+    }
+
+    for (int s : thisSources) {
+      sourceMessages.put(s, new ArrayBlockingQueue<>(CommunicationContext.sendPendingMax(cfg)));
+    }
+    finalReceiver.init(cfg, thisTargets);
+  }
+
+  /**
+   * Check weather the segmented all reduce can be used for the given tasks, and return the
+   * workers that participate in it
+   *
+   * @param cfg configuration
+   * @param plan the logical plan
+   * @param sources source tasks
+   * @param destinations destination tasks
+   * @param dataType the data type
+   * @return the workers in the order of their rank, null if the tree all reduce should be used
+   */
+  public static List<Integer> participatingWorkers(Config cfg, LogicalPlan plan,
+                                                   Set<Integer> sources,
+                                                   Set<Integer> destinations,
+                                                   MessageType dataType) {
+    if (CommunicationContext.ALLREDUCE_ALGO_TREE.equals(
+        CommunicationContext.allReduceAlgorithm(cfg))) {
+      return null;
+    }
+
+    if (!dataType.isPrimitive() || !dataType.isArray()) {
+      LOG.fine("Segmented all reduce only supports primitive arrays, using the tree");
+      return null;
+    }
+
+    // every worker should both contribute a value and receive the result
+    Set<Integer> sourceWorkers = TaskPlanUtils.getWorkersOfTasks(plan, sources);
+    Set<Integer> targetWorkers = TaskPlanUtils.getWorkersOfTasks(plan, destinations);
+    if (!sourceWorkers.equals(targetWorkers) || sourceWorkers.size() < 2) {
+      LOG.fine("Sources and targets are not in the same workers, using the tree all reduce");
+      return null;
+    }
+    List<Integer> workers = new ArrayList<>(sourceWorkers);
+    Collections.sort(workers);
+    return workers;
+  }
+
+  @Override
+  public synchronized boolean send(int source, Object message, int flags) {
+    if ((flags & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      if (streaming) {
+        return offerStreaming(source, new Barrier((byte[]) message));
+      }
+      barrier = (byte[]) message;
+      finish(source);
+      return true;
+    }
+
+    if (streaming) {
+      return offerStreaming(source, message);
+    }
+
+    if (state != RoundState.IDLE || finishedSources.contains(source)) {
+      return false;
+    }
+    if (localValue == null) {
+      localValue = message;
+      localOwned = false;
+    } else {
+      localValue = reduceFunction.reduce(localValue, message);
+      localOwned = true;
+    }
+    return true;
+  }
+
+  private boolean offerStreaming(int source, Object message) {
+    Queue<Object> queue = sourceMessages.get(source);
+    if (queue == null) {
+      throw new RuntimeException("Un-expected source for all reduce: " + source);
+    }
+    return queue.offer(message);
+  }
+
+  @Override
+  public boolean sendPartial(int source, Object message, int flags) {
+    return send(source, message, flags);
+  }
+
+  @Override
+  public boolean send(int source, Object message, int flags, int target) {
+    throw new RuntimeException("Not-implemented");
+  }
+
+  @Override
+  public boolean sendPartial(int source, Object message, int flags, int target) {
+    throw new RuntimeException("Not-implemented");
+  }
+
+  @Override
+  public synchronized void finish(int source) {
+    if (streaming) {
+      return;
+    }
+    finishedSources.add(source);
+  }
+
+  @Override
+  public synchronized boolean progress() {
+    try {
+      boolean needsProgress = dataOp.progress();
+      if (controlOp != null) {
+        needsProgress |= controlOp.progress();
+      }
+      if (rank >= 0) {
+        advance();
+      }
+      return needsProgress || (state != RoundState.IDLE && state != RoundState.DONE);
+    } catch (Throwable t) {
+      LOG.log(Level.SEVERE, "un-expected error", t);
+      throw new RuntimeException(t);
+    }
+  }
+
+  /**
+   * Move the current round forward as much as possible
+   */
+  private void advance() {
+    while (true) {
+      switch (state) {
+        case IDLE:
+          if (!startRound()) {
+            return;
+          }
+          break;
+        case CONTROL:
+          if (!exchange.progress()) {
+            return;
+          }
+          long[] agreed = (long[]) exchange.getArray();
+          if (agreed[0] < 0) {
+            // no worker has a value, we only send the syncs
+            startDelivery(null);
+          } else {
+            startData(localValue, (int) agreed[0], agreed[1] == 1);
+          }
+          break;
+        case DATA:
+          if (!exchange.progress()) {
+            return;
+          }
+          startDelivery(exchange.getArray());
+          break;
+        case DELIVER:
+          if (!deliver()) {
+            return;
+          }
+          exchange = null;
+          result = null;
+          state = streaming ? RoundState.IDLE : RoundState.DONE;
+          break;
+        default:
+          return;
+      }
+    }
+  }
+
+  /**
+   * Start a round if the local values are ready
+   *
+   * @return true if a round is started
+   */
+  private boolean startRound() {
+    if (!streaming) {
+      if (!finishedSources.containsAll(thisSources)) {
+        return false;
+      }
+      long length = localValue == null ? -1 : Array.getLength(localValue);
+      long[] control = new long[]{length, localValue == null ? 0 : 1};
+      exchange = new Exchange(controlOp, controlReceiver,
+          AllReduceSchedule.recursiveDoubling(workerTasks.length, rank), control,
+          Integer.MAX_VALUE, (a, b) -> {
+            long[] x = (long[]) a;
+            long[] y = (long[]) b;
+            return new long[]{Math.max(x[0], y[0]), Math.min(x[1], y[1])};
+          });
+      state = RoundState.CONTROL;
+      return true;
+    }
+
+    Object barrierMessage = null;
+    for (Queue<Object> queue : sourceMessages.values()) {
+      Object head = queue.peek();
+      if (head == null) {
+        return false;
+      }
+      if (head instanceof Barrier) {
+        barrierMessage = head;
+      } else if (barrierMessage != null) {
+        // the barriers should be at the same place in all the sources
+        return false;
+      }
+    }
+
+    if (barrierMessage != null) {
+      for (Queue<Object> queue : sourceMessages.values()) {
+        if (!(queue.peek() instanceof Barrier)) {
+          return false;
+        }
+      }
+      for (Queue<Object> queue : sourceMessages.values()) {
+        queue.poll();
+      }
+      barrier = ((Barrier) barrierMessage).getMessage();
+      startDelivery(null);
+      return true;
+    }
+
+    Object value = null;
+    boolean owned = false;
+    for (Queue<Object> queue : sourceMessages.values()) {
+      Object message = queue.poll();
+      if (value == null) {
+        value = message;
+      } else {
+        value = reduceFunction.reduce(value, message);
+        owned = true;
+      }
+    }
+    localValue = value;
+    localOwned = owned;
+    startData(value, Array.getLength(value), true);
+    return true;
+  }
+
+  private void startData(Object value, int length, boolean allHaveValues) {
+    Object array = value;
+    if (array != null && !localOwned) {
+      array = copy(array, 0, Array.getLength(array));
+    }
+    localValue = null;
+
+    if (allHaveValues) {
+      exchange = new Exchange(dataOp, dataReceiver, schedule(length), array,
+          chunkElements, null);
+    } else {
+      // some workers do not have a value, exchange the full arrays so that missing
+      // values can be skipped
+      if (array == null) {
+        array = Array.newInstance(componentType, 0);
+      }
+      exchange = new Exchange(dataOp, dataReceiver,
+          AllReduceSchedule.recursiveDoubling(workerTasks.length, rank), array,
+          Integer.MAX_VALUE, reduceFunction::reduce);
+    }
+    state = RoundState.DATA;
+  }
+
+  /**
+   * Select the schedule for the array length
+   */
+  private AllReduceSchedule schedule(int length) {
+    if (groups != null) {
+      return AllReduceSchedule.hierarchical(groups, rank,
+          (leaders, leaderRank) -> flatSchedule(leaders, leaderRank, length));
+    }
+    return flatSchedule(workerTasks.length, rank, length);
+  }
+
+  private AllReduceSchedule flatSchedule(int workers, int r, int length) {
+    if (CommunicationContext.ALLREDUCE_ALGO_RING.equals(algorithm)) {
+      return AllReduceSchedule.ring(workers, r);
+    } else if (CommunicationContext.ALLREDUCE_ALGO_RECURSIVE_HALVING.equals(algorithm)) {
+      return AllReduceSchedule.recursiveHalving(workers, r);
+    }
+
+    long bytes = (long) length * dataType.getUnitSizeInBytes();
+    if (bytes < smallBytes || length < workers) {
+      return AllReduceSchedule.recursiveDoubling(workers, r);
+    } else if (Integer.bitCount(workers) == 1) {
+      return AllReduceSchedule.recursiveHalving(workers, r);
+    } else {
+      // the ring does not need the extra transfers of recursive halving
+      return AllReduceSchedule.ring(workers, r);
+    }
+  }
+
+  /**
+   * The group of each rank if the workers are spread over more than one group and some groups
+   * have more than one worker, otherwise null
+   */
+  private static int[] hierarchicalGroups(Config cfg, LogicalPlan plan, List<Integer> workers) {
+    if (!CommunicationContext.isAllReduceHierarchical(cfg)) {
+      return null;
+    }
+    int[] groupOfRank = new int[workers.size()];
+    Set<Integer> distinct = new HashSet<>();
+    for (int r = 0; r < workers.size(); r++) {
+      groupOfRank[r] = plan.getGroupOfWorker(workers.get(r));
+      distinct.add(groupOfRank[r]);
+    }
+    if (distinct.size() < 2 || distinct.size() == workers.size()) {
+      return null;
+    }
+    return groupOfRank;
+  }
+
+  private void startDelivery(Object value) {
+    if (value != null && Array.getLength(value) == 0 && exchange != null
+        && exchange.isWholeArrays()) {
+      // nobody had a value
+      value = null;
+    }
+    result = value;
+    deliverTargets.clear();
+    deliverTargets.addAll(thisTargets);
+    delivered = 0;
+    syncing = false;
+    state = RoundState.DELIVER;
+  }
+
+  /**
+   * Give the result to the targets of this worker, followed by a sync in batch mode
+   *
+   * @return true if all the targets accepted
+   */
+  private boolean deliver() {
+    while (delivered < deliverTargets.size()) {
+      int target = deliverTargets.get(delivered);
+      if (result != null && !syncing) {
+        // the targets get their own copies
+        Object value = delivered == deliverTargets.size() - 1 ? result
+            : copy(result, 0, Array.getLength(result));
+        if (!finalReceiver.receive(target, value)) {
+          return false;
+        }
+      }
+      syncing = true;
+
+      if (!streaming || barrier != null) {
+        byte[] syncMessage = barrier != null ? barrier : EMPTY_SYNC;
+        if (!finalReceiver.sync(target, syncMessage)) {
+          return false;
+        }
+      }
+      syncing = false;
+      delivered++;
+    }
+    barrier = null;
+    return true;
+  }
+
+  private Object copy(Object array, int from, int length) {
+    Object copy = Array.newInstance(componentType, length);
+    System.arraycopy(array, from, copy, 0, length);
+    return copy;
+  }
+
+  @Override
+  public synchronized boolean isComplete() {
+    if (rank < 0) {
+      return true;
+    }
+    boolean roundsDone = streaming ? state == RoundState.IDLE && allSourcesEmpty()
+        : state == RoundState.DONE;
+    return roundsDone && dataOp.isComplete() && (controlOp == null || controlOp.isComplete());
+  }
+
+  private boolean allSourcesEmpty() {
+    for (Queue<Object> queue : sourceMessages.values()) {
+      if (!queue.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    dataOp.close();
+    if (controlOp != null) {
+      controlOp.close();
+    }
+  }
+
+  @Override
+  public synchronized void reset() {
+    dataOp.reset();
+    dataReceiver.clean();
+    if (controlOp != null) {
+      controlOp.reset();
+      controlReceiver.clean();
+    }
+    for (Queue<Object> queue : sourceMessages.values()) {
+      queue.clear();
+    }
+    localValue = null;
+    localOwned = false;
+    finishedSources.clear();
+    barrier = null;
+    exchange = null;
+    result = null;
+    state = RoundState.IDLE;
+  }
+
+  @Override
+  public LogicalPlan getLogicalPlan() {
+    return logicalPlan;
+  }
+
+  @Override
+  public String getUniqueId() {
+    return String.valueOf(edge);
+  }
+
+  @Override
+  public Set<Integer> getSources() {
+    return sources;
+  }
+
+  @Override
+  public Set<Integer> getTargets() {
+    return destinations;
+  }
+
+  @Override
+  public MessageType getDataType() {
+    return dataType;
+  }
+
+  /**
+   * Runs a schedule for an array of this worker
+   */
+  private final class Exchange {
+    private final MToNSimple op;
+    private final PeerReceiver receiver;
+    private final List<AllReduceSchedule.Step> steps;
+    private final AllReduceSchedule schedule;
+
+    /**
+     * The array, in the whole array mode an empty array means this worker has no value
+     */
+    private Object array;
+
+    private final int length;
+
+    private final int chunk;
+
+    /**
+     * If not null the arrays are exchanged as a whole and reduced with this function
+     */
+    private final BinaryOperator<Object> wholeReduce;
+
+    private int step = 0;
+
+    private int chunkIndex = 0;
+
+    private boolean sent = false;
+
+    private Object pendingSend;
+
+    Exchange(MToNSimple op, PeerReceiver receiver, AllReduceSchedule schedule,
+             Object array, int chunk, BinaryOperator<Object> wholeReduce) {
+      this.op = op;
+      this.receiver = receiver;
+      this.schedule = schedule;
+      this.steps = schedule.getSteps();
+      this.array = array;
+      this.length = Array.getLength(array);
+      this.chunk = chunk;
+      this.wholeReduce = wholeReduce;
+    }
+
+    Object getArray() {
+      return array;
+    }
+
+    boolean isWholeArrays() {
+      return wholeReduce != null;
+    }
+
+    /**
+     * Progress the exchange
+     *
+     * @return true if all the steps are done
+     */
+    boolean progress() {
+      while (step < steps.size()) {
+        AllReduceSchedule.Step s = steps.get(step);
+        int sendOffset = schedule.offset(s.getSendFrom(), length);
+        int sendChunks = chunks(s.getSendPeer(), sendOffset,
+            schedule.offset(s.getSendTo(), length));
+        int recvOffset = schedule.offset(s.getRecvFrom(), length);
+        int recvChunks = chunks(s.getRecvPeer(), recvOffset,
+            schedule.offset(s.getRecvTo(), length));
+        int total = Math.max(sendChunks, recvChunks);
+
+        while (chunkIndex < total) {
+          if (!sent && chunkIndex < sendChunks) {
+            if (pendingSend == null) {
+              pendingSend = sendChunk(sendOffset, schedule.offset(s.getSendTo(), length));
+            }
+            if (!op.sendPartial(workerTasks[rank], pendingSend, 0,
+                workerTasks[s.getSendPeer()])) {
+              return false;
+            }
+            pendingSend = null;
+          }
+          sent = true;
+
+          if (chunkIndex < recvChunks) {
+            Object received = receiver.poll(workerTasks[s.getRecvPeer()]);
+            if (received == null) {
+              return false;
+            }
+            apply(received, recvOffset + chunkIndex * chunk, s.isReduce());
+          }
+          sent = false;
+          chunkIndex++;
+        }
+        chunkIndex = 0;
+        step++;
+      }
+      return true;
+    }
+
+    private int chunks(int peer, int from, int to) {
+      if (peer == AllReduceSchedule.NONE) {
+        return 0;
+      }
+      if (wholeReduce != null) {
+        return 1;
+      }
+      return Math.max(1, (to - from + chunk - 1) / chunk);
+    }
+
+    private Object sendChunk(int from, int to) {
+      if (wholeReduce != null) {
+        return array;
+      }
+      int start = from + chunkIndex * chunk;
+      return copy(array, start, Math.min(chunk, to - start));
+    }
+
+    private void apply(Object received, int offset, boolean reduce) {
+      int receivedLength = Array.getLength(received);
+      if (wholeReduce != null) {
+        if (receivedLength == 0) {
+          return;
+        }
+        if (Array.getLength(array) == 0 || !reduce) {
+          array = received;
+        } else {
+          array = wholeReduce.apply(array, received);
+        }
+        return;
+      }
+
+      if (reduce) {
+        Object local = copy(array, offset, receivedLength);
+        Object reduced = reduceFunction.reduce(local, received);
+        System.arraycopy(reduced, 0, array, offset, receivedLength);
+      } else {
+        System.arraycopy(received, 0, array, offset, receivedLength);
+      }
+    }
+  }
+
+  /**
+   * Keeps the segments received from each worker in the order they arrive
+   */
+  private static final class PeerReceiver implements MessageReceiver {
+    private final Map<Integer, Queue<Object>> messages = new ConcurrentHashMap<>();
+
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    }
+
+    @Override
+    public boolean onMessage(int source, int path, int target, int flags, Object object) {
+      messages.computeIfAbsent(source, s -> new ConcurrentLinkedQueue<>()).offer(object);
+      return true;
+    }
+
+    Object poll(int source) {
+      Queue<Object> queue = messages.get(source);
+      return queue != null ? queue.poll() : null;
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+      for (Queue<Object> queue : messages.values()) {
+        if (!queue.isEmpty()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void clean() {
+      messages.clear();
+    }
+  }
+
+  /**
+   * A barrier sent by a source in streaming mode
+   */
+  private static final class Barrier {
+    private final byte[] message;
+
+    Barrier(byte[] message) {
+      this.message = message;
+    }
+
+    byte[] getMessage() {
+      return message;
+    }
+  }
+}
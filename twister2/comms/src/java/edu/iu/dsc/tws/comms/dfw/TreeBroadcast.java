@@ -292,6 +292,13 @@ public class TreeBroadcast implements DataFlowOperation, ChannelReceiver {
       routingParametersCache.put(s, sendRoutingParameters(s, 0));
     }
 
+    // the inner workers of the tree can relay the buffers to their children as they arrive
+    if (CommunicationContext.isBroadcastPipelined(cfg) && thisSources.isEmpty()) {
+      Set<Integer> children = router.getExternalSendTasks(source).get(
+          router.mainTaskOfExecutor(executor, CommunicationContext.DEFAULT_DESTINATION));
+      delegate.setForwardOnArrival(children != null && !children.isEmpty());
+    }
+
     if (this.keyType != null) {
       delegate.init(cfg, dType, recvDataType, kType, recvKType, tPlan, ed,
           router.receivingExecutors(), this,
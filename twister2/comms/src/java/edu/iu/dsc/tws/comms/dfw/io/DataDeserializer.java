@@ -81,7 +81,8 @@ public class DataDeserializer implements MessageDeSerializer {
       }
 
 
-      while (remaining > 0) {
+      // an empty object, i.e. an empty array, is built without reading any bytes
+      while (remaining > 0 || currentMessage.getDataBuilder().getTotalSize() == 0) {
         // read the values from the buffer
         ObjectBuilderImpl dataBuilder = currentMessage.getDataBuilder();
         int bytesRead = dataPacker.readDataFromBuffer(
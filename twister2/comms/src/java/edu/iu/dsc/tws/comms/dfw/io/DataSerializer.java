@@ -13,6 +13,8 @@ package edu.iu.dsc.tws.comms.dfw.io;
 
 import java.nio.ByteBuffer;
 
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
 import edu.iu.dsc.tws.api.comms.packing.DataPacker;
 import edu.iu.dsc.tws.comms.dfw.OutMessage;
@@ -55,8 +57,13 @@ public class DataSerializer extends BaseSerializer {
    */
   public boolean serializeSingleMessage(Object payload,
                                         OutMessage sendMessage, DataBuffer targetBuffer) {
+    DataPacker dataPacker = sendMessage.getDataType().getDataPacker();
+    // watermarks are always received as byte arrays
+    if (Watermarks.isWatermark(sendMessage.getFlags())) {
+      dataPacker = MessageTypes.BYTE_ARRAY.getDataPacker();
+    }
     return serializeData(payload, sendMessage.getSerializationState(),
-        targetBuffer, sendMessage.getDataType().getDataPacker());
+        targetBuffer, dataPacker);
   }
 
   /**
@@ -19,6 +19,7 @@ import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
 import edu.iu.dsc.tws.api.comms.messaging.MessageDirection;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageHeader;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
@@ -53,7 +54,8 @@ public class KeyedDataDeSerializer implements MessageDeSerializer {
       throw new RuntimeException("Header must be built before the message");
     }
 
-    if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+    if ((header.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER
+        || Watermarks.isWatermark(header.getFlags())) {
       keyType = MessageTypes.BYTE_ARRAY;
       keyPacker = MessageTypes.BYTE_ARRAY.getDataPacker();
 
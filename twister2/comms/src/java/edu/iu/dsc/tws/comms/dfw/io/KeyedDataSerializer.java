@@ -15,6 +15,7 @@ import java.nio.ByteBuffer;
 import java.util.Queue;
 
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
 import edu.iu.dsc.tws.api.comms.packing.DataPacker;
@@ -46,7 +47,8 @@ public class KeyedDataSerializer extends BaseSerializer {
     Object key = new byte[0];
     DataPacker keyPacker = sendMessage.getKeyType().getDataPacker();
     DataPacker valuePacker = sendMessage.getDataType().getDataPacker();
-    if ((sendMessage.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+    if ((sendMessage.getFlags() & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER
+        || Watermarks.isWatermark(sendMessage.getFlags())) {
       value = payload;
       keyPacker = MessageTypes.BYTE_ARRAY.getDataPacker();
       valuePacker = MessageTypes.BYTE_ARRAY.getDataPacker();
@@ -21,9 +21,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.logging.Logger;
 
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.comms.utils.TaskPlanUtils;
@@ -34,6 +36,12 @@ import edu.iu.dsc.tws.comms.utils.TaskPlanUtils;
  */
 public abstract class KeyedReceiver implements MessageReceiver {
   private static final Logger LOG = Logger.getLogger(KeyedReceiver.class.getName());
+
+  /**
+   * In adaptive mode we sample one message out of these many messages
+   */
+  private static final int SAMPLE_INTERVAL = 64;
+
   /**
    * Id of the current executor
    */
@@ -47,7 +55,8 @@ public abstract class KeyedReceiver implements MessageReceiver {
   protected int limitPerKey;
 
   /**
-   * The number of keys buffered in this receiver before keys are flushed
+   * The number of keys buffered for a target before keys are flushed, in adaptive mode this is
+   * the starting limit of each target
    */
   protected int keyLimit;
 
@@ -106,12 +115,69 @@ public abstract class KeyedReceiver implements MessageReceiver {
 
   protected boolean representSourceSet = false;
 
+  /**
+   * Streaming receivers are not sized adaptively, so that they keep the latency low
+   */
+  protected boolean streaming = false;
+
+  /**
+   * Weather the key limit is sized from the observed message sizes
+   */
+  protected boolean adaptiveFlush;
+
+  /**
+   * The minimum key limit in adaptive mode, this is the configured key limit
+   */
+  private int minKeyLimit;
+
+  /**
+   * The maximum key limit in adaptive mode
+   */
+  private int maxKeyLimit;
+
+  /**
+   * The number of bytes we try to send in a single flush in adaptive mode
+   */
+  private long flushBytes;
+
+  /**
+   * Average serialized size of a key value pair, observed from the sampled messages
+   */
+  private double averageTupleBytes;
+
+  /**
+   * Number of values received for each target since the buffers were empty
+   */
+  private Map<Integer, Long> bufferedValues = new HashMap<>();
+
+  /**
+   * The key limit of each target in adaptive mode, targets can receive values of different sizes
+   * and at different rates
+   */
+  private Map<Integer, Integer> targetKeyLimits = new HashMap<>();
+
+  /**
+   * Number of messages received, used to decide which messages to sample
+   */
+  private long receivedMessages;
+
+  /**
+   * Used when calculating the serialized sizes of the sampled messages
+   */
+  private SerializeState sampleState = new SerializeState();
+
   @Override
   public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
     this.dataFlowOperation = op;
     this.executor = dataFlowOperation.getLogicalPlan().getThisWorker();
-    this.limitPerKey = 100; //TODO: use config to init this
-    this.keyLimit = 10; //TODO: use config to init this
+    this.limitPerKey = CommunicationContext.keyedLimitPerKey(cfg);
+    this.keyLimit = CommunicationContext.keyedKeyLimit(cfg);
+    this.minKeyLimit = keyLimit;
+    this.maxKeyLimit = Math.max(CommunicationContext.keyedMaxKeyLimit(cfg), keyLimit);
+    this.flushBytes = CommunicationContext.keyedFlushBytes(cfg);
+    // final receivers do not flush, so there is nothing to adapt
+    this.adaptiveFlush = CommunicationContext.isKeyedAdaptiveFlush(cfg)
+        && !isFinalBatchReceiver && !streaming;
     this.thisSources = TaskPlanUtils.getTasksOfThisWorker(op.getLogicalPlan(), op.getSources());
 
     for (Map.Entry<Integer, List<Integer>> expectedIdPerTarget : expectedIds.entrySet()) {
@@ -122,6 +188,8 @@ public abstract class KeyedReceiver implements MessageReceiver {
       }
 
       finishedSources.put(expectedIdPerTarget.getKey(), finishedPerTarget);
+      bufferedValues.put(expectedIdPerTarget.getKey(), 0L);
+      targetKeyLimits.put(expectedIdPerTarget.getKey(), keyLimit);
       messages.put(expectedIdPerTarget.getKey(), new HashMap<>());
       batchDone.put(expectedIdPerTarget.getKey(), false);
       isEmptySent.put(expectedIdPerTarget.getKey(), false);
@@ -130,6 +198,15 @@ public abstract class KeyedReceiver implements MessageReceiver {
     }
   }
 
+  /**
+   * Set weather this receiver is used in a streaming operation
+   *
+   * @param streaming true if streaming
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   @Override
   public boolean onMessage(int src, int path, int target, int flags, Object object) {
     // add the object to the map
@@ -161,6 +238,10 @@ public abstract class KeyedReceiver implements MessageReceiver {
       representSourceSet = true;
     }
 
+    if (adaptiveFlush) {
+      updateKeyLimit(target, object);
+    }
+
     added = offerMessage(target, object);
 
     if (added) {
@@ -189,7 +270,7 @@ public abstract class KeyedReceiver implements MessageReceiver {
   @SuppressWarnings("rawtypes")
   protected boolean offerMessage(int target, Object object) {
     Map<Object, Queue<Object>> messagesPerTarget = messages.get(target);
-    if (!isFinalBatchReceiver && messagesPerTarget.size() > keyLimit) {
+    if (!isFinalBatchReceiver && messagesPerTarget.size() > keyLimit(target)) {
       LOG.fine(String.format("Executor %d Partial cannot add any further keys needs flush ",
           executor));
       moveMessagesToSendQueue(target, messagesPerTarget);
@@ -262,6 +343,82 @@ public abstract class KeyedReceiver implements MessageReceiver {
     return true;
   }
 
+  /**
+   * Size the key limit so that a flush carries about flushBytes. The serialized size of a
+   * message is sampled periodically and the number of values per key is estimated from the
+   * values received since the buffers of the target were empty. If the send queue of the target
+   * is backing up we increase the limit further, so that more values are combined before sending.
+   *
+   * @param target the target
+   * @param object the received message
+   */
+  @SuppressWarnings("rawtypes")
+  protected void updateKeyLimit(int target, Object object) {
+    int count = object instanceof List ? ((List) object).size() : 1;
+    long values = bufferedKeyCount(target) == 0 ? count : bufferedValues.get(target) + count;
+    bufferedValues.put(target, values);
+
+    if (receivedMessages++ % SAMPLE_INTERVAL != 0) {
+      return;
+    }
+
+    Object sample = object instanceof List ? ((List) object).get(0) : object;
+    if (!(sample instanceof Tuple)) {
+      return;
+    }
+    int bytes = serializedSize(dataFlowOperation.getKeyType(), ((Tuple) sample).getKey())
+        + serializedSize(dataFlowOperation.getDataType(), ((Tuple) sample).getValue());
+    averageTupleBytes = averageTupleBytes == 0 ? bytes : 0.8 * averageTupleBytes + 0.2 * bytes;
+
+    int keys = Math.max(bufferedKeyCount(target), 1);
+    double valuesPerKey = Math.max(1.0, Math.min(limitPerKey, (double) values / keys));
+    double bytesPerKey = Math.max(averageTupleBytes * valuesPerKey, 1.0);
+    long limit = (long) (flushBytes / bytesPerKey);
+
+    // the sends are not keeping up, buffer more so that we send fewer larger messages
+    int pending = sendQueue.get(target).size();
+    if (pending > 0 && limit > 0) {
+      limit = limit * (1 + Math.min(3, pending / limit));
+    }
+    targetKeyLimits.put(target, (int) Math.max(minKeyLimit, Math.min(maxKeyLimit, limit)));
+  }
+
+  /**
+   * The number of keys buffered for the target before the keys are flushed
+   *
+   * @param target the target
+   * @return the key limit
+   */
+  protected int keyLimit(int target) {
+    if (!adaptiveFlush) {
+      return keyLimit;
+    }
+    Integer limit = targetKeyLimits.get(target);
+    return limit != null ? limit : keyLimit;
+  }
+
+  private int serializedSize(MessageType type, Object data) {
+    if (type == null || data == null) {
+      return 0;
+    }
+    if (type.isPrimitive()) {
+      return type.getDataSizeInBytes(data);
+    }
+    sampleState.clearActive();
+    return type.getDataPacker().determineLength(data, sampleState);
+  }
+
+  /**
+   * The number of keys buffered for the target. If the messages are kept in a different data
+   * structure this method needs to be overwritten
+   *
+   * @param target the target
+   * @return number of keys
+   */
+  protected int bufferedKeyCount(int target) {
+    return messages.get(target).size();
+  }
+
   /**
    * Once called this method will update the finishedSources data structure so that the given
    * source is marked as finished for each target that is present.
@@ -398,7 +555,7 @@ public abstract class KeyedReceiver implements MessageReceiver {
       sourcesFinished = isSourcesFinished(target);
 
       if (!sourcesFinished && !(dataFlowOperation.isDelegateComplete()
-          && messages.get(target).isEmpty() && targetSendQueue.isEmpty())) {
+          && isMessagesEmpty(target) && targetSendQueue.isEmpty())) {
         needsFurtherProgress = true;
       }
 
@@ -451,6 +608,17 @@ public abstract class KeyedReceiver implements MessageReceiver {
     return needsProgress;
   }
 
+  /**
+   * checks if there are no buffered messages for the target. If the messages are kept in a
+   * different data structure this method needs to be overwritten
+   *
+   * @param target the target
+   * @return true if no messages are buffered
+   */
+  protected boolean isMessagesEmpty(int target) {
+    return messages.get(target).isEmpty();
+  }
+
   /**
    * checks if the queue structures used to send data is empty. If Additional data structures are
    * used this method needs to be overwritten to include them
@@ -68,7 +68,8 @@ public class SerializeState extends PackerStore {
     }
 
     public void setTotalToCopy(int totalToCopy) {
-      if (data != null && data.length != totalToCopy) {
+      // an empty array is stored by packers that write the object directly to the buffers
+      if (data != null && data.length > 0 && data.length != totalToCopy) {
         throw new RuntimeException(
             "Assertion failed. Total to copy is different than data length."
                 + "Expected : " + data.length + ", Found : " + totalToCopy
@@ -13,14 +13,18 @@ package edu.iu.dsc.tws.comms.dfw.io;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.config.Config;
 
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArraySet;
 
@@ -52,6 +56,23 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
    */
   private boolean complete;
 
+  /**
+   * Combines the watermarks of each target, the partial receivers of the workers combine the
+   * watermarks of their sources, so we expect a watermark from each worker
+   */
+  protected Int2ObjectOpenHashMap<WatermarkTracker> watermarkTrackers =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Watermarks to be given to the targets after the messages received before them
+   */
+  protected Int2LongOpenHashMap pendingWatermarks = new Int2LongOpenHashMap();
+
+  /**
+   * The logical plan
+   */
+  private LogicalPlan logicalPlan;
+
   @Override
   public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
     super.init(cfg, op, expectedIds);
@@ -69,6 +90,34 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
       messages.put(target, new ArrayList<>());
       targets[index++] = target;
     }
+
+    logicalPlan = op.getLogicalPlan();
+    Set<Integer> sourceWorkers = new HashSet<>();
+    for (int source : thisSources) {
+      sourceWorkers.add(logicalPlan.getWorkerForForLogicalId(source));
+    }
+    initWatermarkTrackers(sourceWorkers.size());
+  }
+
+  /**
+   * Create the watermark trackers of the targets
+   *
+   * @param inputs number of inputs sending watermarks to a target
+   */
+  protected void initWatermarkTrackers(int inputs) {
+    for (int target : thisDestinations) {
+      watermarkTrackers.put(target, new WatermarkTracker(inputs));
+    }
+  }
+
+  @Override
+  protected boolean addWatermark(int source, int target, long watermark) {
+    long combined = watermarkTrackers.get(target).update(
+        logicalPlan.getWorkerForForLogicalId(source), watermark);
+    if (combined != Watermarks.NONE) {
+      pendingWatermarks.put(target, combined);
+    }
+    return true;
   }
 
   @Override
@@ -149,6 +198,10 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
         }
       }
 
+      if (!pendingWatermarks.isEmpty() && deliverWatermarks()) {
+        needsFurtherProgress = true;
+      }
+
       if (!needsFurtherProgress && messagesEmpty) {
         for (int i = 0; i < targets.length; i++) {
           int key = targets[i];
@@ -179,6 +232,41 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
     return complete;
   }
 
+  /**
+   * Give the pending watermarks to the targets which have received all the messages
+   * that arrived before the watermarks
+   *
+   * @return true if there are watermarks left to deliver
+   */
+  private boolean deliverWatermarks() {
+    boolean needProgress = false;
+    for (int i = 0; i < targets.length; i++) {
+      int target = targets[i];
+      if (!pendingWatermarks.containsKey(target)) {
+        continue;
+      }
+
+      if (messages.get(target).isEmpty() && isAllEmpty(target)
+          && onWatermarkEvent(target, pendingWatermarks.get(target))) {
+        pendingWatermarks.remove(target);
+      } else {
+        needProgress = true;
+      }
+    }
+    return needProgress;
+  }
+
+  /**
+   * This method is called when the watermark of a target advances
+   *
+   * @param target the target
+   * @param watermark the watermark
+   * @return true if the watermark is accepted
+   */
+  protected boolean onWatermarkEvent(int target, long watermark) {
+    return true;
+  }
+
   protected abstract boolean isAllEmpty(int target);
 
   protected boolean sync(int target) {
@@ -204,6 +292,10 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
     }
 
     barriers.clear();
+    for (WatermarkTracker tracker : watermarkTrackers.values()) {
+      tracker.clear();
+    }
+    pendingWatermarks.clear();
     stateCleared = false;
     complete = false;
   }
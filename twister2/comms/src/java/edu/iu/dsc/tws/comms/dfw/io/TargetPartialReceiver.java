@@ -22,10 +22,12 @@ import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.comms.utils.TaskPlanUtils;
 
 import it.unimi.dsi.fastutil.ints.Int2BooleanArrayMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 
 public class TargetPartialReceiver extends TargetReceiver {
@@ -76,6 +78,16 @@ public class TargetPartialReceiver extends TargetReceiver {
    */
   private boolean complete;
 
+  /**
+   * Combines the watermarks of the sources of this worker
+   */
+  private WatermarkTracker watermarkTracker;
+
+  /**
+   * Watermarks to be sent to the targets after the messages queued before them
+   */
+  private Int2LongOpenHashMap pendingWatermarks = new Int2LongOpenHashMap();
+
   @Override
   public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
     super.init(cfg, op, expectedIds);
@@ -120,6 +132,7 @@ public class TargetPartialReceiver extends TargetReceiver {
       syncSent.put(source, new HashSet<>());
       syncsReceived.put(source, new HashSet<>());
     }
+    watermarkTracker = new WatermarkTracker(thisSources.size());
   }
 
   /**
@@ -190,6 +203,17 @@ public class TargetPartialReceiver extends TargetReceiver {
     sourceAcceptMessages.put(source, false);
   }
 
+  @Override
+  protected boolean addWatermark(int source, int target, long watermark) {
+    long combined = watermarkTracker.update(source, watermark);
+    if (combined != Watermarks.NONE) {
+      for (int t : targets) {
+        pendingWatermarks.put(t, combined);
+      }
+    }
+    return true;
+  }
+
   protected void addMessage(int target, List<Object> msgQueue, Object value) {
     if (value instanceof AggregatedObjects) {
       msgQueue.addAll((Collection<?>) value);
@@ -241,6 +265,10 @@ public class TargetPartialReceiver extends TargetReceiver {
           allEmpty &= val.isEmpty();
         }
 
+        if (!pendingWatermarks.isEmpty() && sendWatermarks()) {
+          needsFurtherProgress = true;
+        }
+
         if (allEmpty && isAllEmpty()) {
           if (sync()) {
             needsFurtherProgress = true;
@@ -253,6 +281,36 @@ public class TargetPartialReceiver extends TargetReceiver {
     return needsFurtherProgress;
   }
 
+  /**
+   * Send the pending watermarks to the targets with no queued messages, so that a watermark
+   * never overtakes the messages received before it
+   *
+   * @return true if there are watermarks left to send
+   */
+  private boolean sendWatermarks() {
+    boolean needProgress = false;
+    for (int i = 0; i < targets.length; i++) {
+      int target = targets[i];
+      if (!pendingWatermarks.containsKey(target)) {
+        continue;
+      }
+
+      if (!messages.get(target).isEmpty()) {
+        needProgress = true;
+        continue;
+      }
+
+      byte[] watermark = Watermarks.toBytes(pendingWatermarks.get(target));
+      if (operation.sendPartial(representSource, watermark,
+          MessageFlags.SYNC_WATERMARK, target)) {
+        pendingWatermarks.remove(target);
+      } else {
+        needProgress = true;
+      }
+    }
+    return needProgress;
+  }
+
   @Override
   public boolean isComplete() {
     for (int i = 0; i < thisSourceArray.length; i++) {
@@ -334,6 +392,8 @@ public class TargetPartialReceiver extends TargetReceiver {
     }
     syncState = SyncState.SYNC;
     barriers.clear();
+    watermarkTracker.clear();
+    pendingWatermarks.clear();
     stateCleared = false;
     sourceAcceptMessages.clear();
     targetAcceptMessages.clear();
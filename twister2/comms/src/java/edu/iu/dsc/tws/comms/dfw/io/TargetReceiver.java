@@ -24,6 +24,7 @@ import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.config.Config;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
@@ -137,6 +138,8 @@ public abstract class TargetReceiver implements MessageReceiver {
         } else if ((flags & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
           addSyncMessageBarrier(source, target, (byte[]) object);
           return true;
+        } else if (Watermarks.isWatermark(flags)) {
+          return addWatermark(source, target, Watermarks.fromMessage(object));
         }
 
         // if we have a sync from this source we cannot accept more data
@@ -193,6 +196,18 @@ public abstract class TargetReceiver implements MessageReceiver {
    */
   protected abstract void addSyncMessageBarrier(int source, int target, byte[] barrier);
 
+  /**
+   * Add a watermark, receivers that do not propagate watermarks drop them
+   *
+   * @param source source
+   * @param target target
+   * @param watermark the watermark
+   * @return true if the watermark is accepted
+   */
+  protected boolean addWatermark(int source, int target, long watermark) {
+    return true;
+  }
+
   /**
    * Check weather we can accept a message
    *
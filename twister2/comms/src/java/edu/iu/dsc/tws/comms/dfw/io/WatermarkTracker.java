@@ -0,0 +1,83 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+
+/**
+ * Keeps track of the watermarks received from a set of inputs and combines them. The combined
+ * watermark is the minimum of the watermarks of all the inputs, so it is only known after every
+ * input has sent a watermark. Neither the input watermarks nor the combined watermark go back.
+ */
+public class WatermarkTracker {
+  /**
+   * Latest watermark of each input
+   */
+  private Map<Integer, Long> watermarks = new HashMap<>();
+
+  /**
+   * Number of inputs we are expecting watermarks from
+   */
+  private int expectedInputs;
+
+  /**
+   * The combined watermark
+   */
+  private long combined = Watermarks.NONE;
+
+  public WatermarkTracker(int expectedInputs) {
+    this.expectedInputs = expectedInputs;
+  }
+
+  /**
+   * Update the watermark of an input
+   *
+   * @param input the input
+   * @param watermark the watermark
+   * @return the new combined watermark if it advanced, otherwise {@link Watermarks#NONE}
+   */
+  public long update(int input, long watermark) {
+    watermarks.merge(input, watermark, Math::max);
+
+    if (watermarks.size() < expectedInputs) {
+      return Watermarks.NONE;
+    }
+
+    long min = Long.MAX_VALUE;
+    for (long w : watermarks.values()) {
+      min = Math.min(min, w);
+    }
+
+    if (min > combined) {
+      combined = min;
+      return min;
+    }
+    return Watermarks.NONE;
+  }
+
+  /**
+   * The combined watermark
+   *
+   * @return the minimum watermark of all the inputs or {@link Watermarks#NONE}
+   */
+  public long getCombined() {
+    return combined;
+  }
+
+  public void clear() {
+    watermarks.clear();
+    combined = Watermarks.NONE;
+  }
+}
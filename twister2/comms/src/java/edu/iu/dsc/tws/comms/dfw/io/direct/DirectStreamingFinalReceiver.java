@@ -41,6 +41,8 @@ public class DirectStreamingFinalReceiver extends TargetFinalReceiver {
   public void init(Config cfg, DataFlowOperation operation,
                    Map<Integer, List<Integer>> expectedIds) {
     super.init(cfg, operation, expectedIds);
+    // each target receives from a single source
+    initWatermarkTrackers(1);
     this.receiver.init(cfg, expectedIds.keySet());
   }
 
@@ -121,4 +123,9 @@ public class DirectStreamingFinalReceiver extends TargetFinalReceiver {
   public boolean onSyncEvent(int target, byte[] value) {
     return receiver.sync(target, value);
   }
+
+  @Override
+  protected boolean onWatermarkEvent(int target, long watermark) {
+    return receiver.watermark(target, watermark);
+  }
 }
@@ -25,6 +25,8 @@ import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.comms.compress.BlockCodec;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
 import edu.iu.dsc.tws.comms.dfw.io.KeyedReceiver;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedMerger;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedSortedMerger2;
@@ -89,15 +91,20 @@ public class DKGatherBatchFinalReceiver extends KeyedReceiver {
     long maxRecordsInMemory = CommunicationContext.getShuffleMaxRecordsInMemory(cfg);
     long maxBytesToFile = CommunicationContext.getShuffleFileSize(cfg);
     int parallelIOAllowance = CommunicationContext.getParallelIOAllowance(cfg);
+    int mergeFanIn = CommunicationContext.getShuffleMergeFanIn(cfg);
+    BlockCodec codec = BlockCodecs.get(CommunicationContext.getShuffleCompressionCodec(cfg));
 
     for (Integer target : expectedIds.keySet()) {
 
       Shuffle sortedMerger;
       if (sorted) {
-        sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory,
+        FSKeyedSortedMerger2 merger = new FSKeyedSortedMerger2(maxBytesInMemory,
             maxBytesToFile, shuffleDirectory, getOperationName(target),
             dataFlowOperation.getKeyType(), dataFlowOperation.getDataType(), comparator, target,
-            this.groupByKey, parallelIOAllowance);
+            this.groupByKey, parallelIOAllowance, mergeFanIn);
+        merger.setCompression(codec, CommunicationContext.getCompressionMinRatio(cfg),
+            CommunicationContext.getShuffleCompressionBlockSize(cfg));
+        sortedMerger = merger;
       } else {
         sortedMerger = new FSKeyedMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
             getOperationName(target), dataFlowOperation.getKeyType(),
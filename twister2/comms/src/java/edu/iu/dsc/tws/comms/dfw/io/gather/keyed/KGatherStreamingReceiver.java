@@ -54,6 +54,10 @@ public abstract class KGatherStreamingReceiver extends KeyedReceiver {
    */
   protected int localWindowCount;
 
+  protected KGatherStreamingReceiver() {
+    this.streaming = true;
+  }
+
   /**
    * checks if the queue structures used to send data is empty. If Additional data structures are
    * used this method needs to be overwritten to include them. This method overrides the default
@@ -79,7 +83,7 @@ public abstract class KGatherStreamingReceiver extends KeyedReceiver {
   @SuppressWarnings("rawtypes")
   protected boolean offerMessage(int target, Object object) {
     Map<Object, Queue<Object>> messagesPerTarget = messages.get(target);
-    if (messagesPerTarget.size() > keyLimit) {
+    if (messagesPerTarget.size() > keyLimit(target)) {
       LOG.fine(String.format("Executor %d Partial cannot add any further keys needs flush ",
           executor));
       moveMessagesToSendQueue(target, messagesPerTarget);
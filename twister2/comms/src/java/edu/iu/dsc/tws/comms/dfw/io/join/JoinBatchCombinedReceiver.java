@@ -28,6 +28,7 @@ import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 import edu.iu.dsc.tws.comms.shuffle.ResettableIterator;
 import edu.iu.dsc.tws.comms.shuffle.RestorableIterator;
+import edu.iu.dsc.tws.comms.utils.GraceHashJoin;
 import edu.iu.dsc.tws.comms.utils.HashJoinUtils;
 import edu.iu.dsc.tws.comms.utils.JoinRelation;
 import edu.iu.dsc.tws.comms.utils.KeyComparatorWrapper;
@@ -52,8 +53,17 @@ public class JoinBatchCombinedReceiver {
   private final CommunicationContext.JoinType joinType;
   private KeyComparatorWrapper keyComparator;
   private MessageType keyType;
+  private MessageType leftDataType;
+  private MessageType rightDataType;
+  private List<String> spillDirectories;
   private Config config;
 
+  /**
+   * The last disk based hash join of each target, closed when the next join of the target
+   * starts or the receiver is closed, as the joined tuples are read after receive returns
+   */
+  private Map<Integer, GraceHashJoin> graceJoins = new HashMap<>();
+
   public JoinBatchCombinedReceiver(BulkReceiver recvr,
                                    CommunicationContext.JoinAlgorithm algorithm,
                                    CommunicationContext.JoinType joinType,
@@ -65,6 +75,23 @@ public class JoinBatchCombinedReceiver {
     this.keyType = keyType;
   }
 
+  /**
+   * Create a receiver which uses a disk based hash join for hash joining disk based relations
+   *
+   * @param spillDirectories directories to write the hash partitions
+   */
+  public JoinBatchCombinedReceiver(BulkReceiver recvr,
+                                   CommunicationContext.JoinAlgorithm algorithm,
+                                   CommunicationContext.JoinType joinType,
+                                   KeyComparatorWrapper keyComparator, MessageType keyType,
+                                   MessageType leftDataType, MessageType rightDataType,
+                                   List<String> spillDirectories) {
+    this(recvr, algorithm, joinType, keyComparator, keyType);
+    this.leftDataType = leftDataType;
+    this.rightDataType = rightDataType;
+    this.spillDirectories = spillDirectories;
+  }
+
   public void init(Config cfg, Set<Integer> targets) {
     this.config = cfg;
     for (Integer target : targets) {
@@ -78,7 +105,7 @@ public class JoinBatchCombinedReceiver {
     }
   }
 
-  private Iterator doJoin(Object left, Object right) {
+  private Iterator doJoin(int target, Object left, Object right) {
     if (algorithm.equals(CommunicationContext.JoinAlgorithm.SORT)) {
       if (left instanceof RestorableIterator) {
         if (config.getBooleanValue(CONFIG_USE_SORT_JOIN_CACHE, true)) {
@@ -102,7 +129,23 @@ public class JoinBatchCombinedReceiver {
             + left.getClass());
       }
     } else {
-      if (left instanceof ResettableIterator) {
+      if (left instanceof ResettableIterator && spillDirectories != null
+          && !spillDirectories.isEmpty()) {
+        closeJoin(target);
+        GraceHashJoin join = HashJoinUtils.graceJoin(
+            (Iterator) left,
+            (Iterator) right,
+            joinType,
+            keyType,
+            leftDataType,
+            rightDataType,
+            CommunicationContext.getJoinHashMaxBytesInMemory(config),
+            CommunicationContext.getJoinHashPartitions(config),
+            spillDirectories.get(target % spillDirectories.size())
+        );
+        graceJoins.put(target, join);
+        return join;
+      } else if (left instanceof ResettableIterator) {
         return HashJoinUtils.join(
             (ResettableIterator) left,
             (ResettableIterator) right,
@@ -122,6 +165,23 @@ public class JoinBatchCombinedReceiver {
     }
   }
 
+  private void closeJoin(int target) {
+    GraceHashJoin join = graceJoins.remove(target);
+    if (join != null) {
+      join.close();
+    }
+  }
+
+  /**
+   * Remove the files of the disk based joins that are not read to the end
+   */
+  public void close() {
+    for (GraceHashJoin join : graceJoins.values()) {
+      join.close();
+    }
+    graceJoins.clear();
+  }
+
   public boolean receive(int target, Object object, JoinRelation joinRelation) {
     Object[] values = joinRelations.get(target);
     values[joinRelation.ordinal()] = object;
@@ -130,7 +190,7 @@ public class JoinBatchCombinedReceiver {
     if (count == JoinRelation.values().length) {
       // ready to do join
       long t1 = System.currentTimeMillis();
-      this.rcvr.receive(target, doJoin(values[JoinRelation.LEFT.ordinal()],
+      this.rcvr.receive(target, doJoin(target, values[JoinRelation.LEFT.ordinal()],
           values[JoinRelation.RIGHT.ordinal()]));
       LOG.info("Join time : " + (System.currentTimeMillis() - t1));
 
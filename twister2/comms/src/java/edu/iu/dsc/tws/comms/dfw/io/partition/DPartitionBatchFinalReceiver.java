@@ -31,6 +31,8 @@ import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.compress.BlockCodec;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
 import edu.iu.dsc.tws.comms.dfw.io.DFWIOUtils;
 import edu.iu.dsc.tws.comms.dfw.io.ReceiverState;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedMerger;
@@ -100,6 +102,13 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
    * The directory in which we will be saving the shuffle objects
    */
   private List<String> shuffleDirectories;
+
+  /**
+   * Compression of the sorted shuffle files
+   */
+  private BlockCodec compressionCodec;
+  private double compressionMinRatio;
+  private int compressionBlockSize;
   private boolean groupByKey;
 
   /**
@@ -144,6 +153,10 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
     long maxRecordsInMemory = CommunicationContext.getShuffleMaxRecordsInMemory(cfg);
     long maxFileSize = CommunicationContext.getShuffleFileSize(cfg);
     int parallelIOAllowance = CommunicationContext.getParallelIOAllowance(cfg);
+    int mergeFanIn = CommunicationContext.getShuffleMergeFanIn(cfg);
+    compressionCodec = BlockCodecs.get(CommunicationContext.getShuffleCompressionCodec(cfg));
+    compressionMinRatio = CommunicationContext.getCompressionMinRatio(cfg);
+    compressionBlockSize = CommunicationContext.getShuffleCompressionBlockSize(cfg);
 
     expIds = expectedIds;
     thisWorker = op.getLogicalPlan().getThisWorker();
@@ -151,7 +164,8 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
     partition = op;
     keyed = partition.getKeyType() != null;
     targets = new HashSet<>(expectedIds.keySet());
-    initMergers(maxBytesInMemory, maxRecordsInMemory, maxFileSize, parallelIOAllowance);
+    initMergers(maxBytesInMemory, maxRecordsInMemory, maxFileSize, parallelIOAllowance,
+        mergeFanIn);
     this.bulkReceiver.init(cfg, expectedIds.keySet());
 
     int index = 0;
@@ -166,7 +180,7 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
    * Initialize the mergers, this happens after each refresh
    */
   private void initMergers(long maxBytesInMemory, long maxRecordsInMemory, long maxFileSize,
-                           int parallelIOAllowance) {
+                           int parallelIOAllowance, int mergeFanIn) {
     for (Integer target : expIds.keySet()) {
       String shuffleDirectory = this.shuffleDirectories.get(
           partition.getLogicalPlan().getIndexOfTaskInNode(target) % this.shuffleDirectories.size());
@@ -176,10 +190,12 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
             DFWIOUtils.getOperationName(target, partition, refresh), partition.getDataType());
       } else {
         if (comparator != null) {
-          sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory, maxFileSize,
+          FSKeyedSortedMerger2 merger = new FSKeyedSortedMerger2(maxBytesInMemory, maxFileSize,
               shuffleDirectory, DFWIOUtils.getOperationName(target, partition, refresh),
               partition.getKeyType(), partition.getDataType(), comparator, target,
-              groupByKey, parallelIOAllowance);
+              groupByKey, parallelIOAllowance, mergeFanIn);
+          merger.setCompression(compressionCodec, compressionMinRatio, compressionBlockSize);
+          sortedMerger = merger;
         } else {
           sortedMerger = new FSKeyedMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
               DFWIOUtils.getOperationName(target, partition, refresh), partition.getKeyType(),
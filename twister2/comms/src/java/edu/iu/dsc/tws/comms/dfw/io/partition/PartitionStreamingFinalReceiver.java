@@ -103,4 +103,9 @@ public class PartitionStreamingFinalReceiver extends TargetFinalReceiver {
   protected boolean onSyncEvent(int target, byte[] value) {
     return receiver.sync(target, value);
   }
+
+  @Override
+  protected boolean onWatermarkEvent(int target, long watermark) {
+    return receiver.watermark(target, watermark);
+  }
 }
@@ -31,7 +31,7 @@ public class KReduceBatchFinalReceiver extends TargetFinalReceiver {
   /**
    * Final receiver that get the reduced values for the operation
    */
-  private BulkReceiver bulkReceiver;
+  protected BulkReceiver bulkReceiver;
 
   /**
    * Reduce function
@@ -45,6 +45,10 @@ public abstract class KReduceStreamingReceiver extends KeyedReceiver {
    */
   protected int localWindowCount;
 
+  protected KReduceStreamingReceiver() {
+    this.streaming = true;
+  }
+
   /**
    * The reduce operation overrides the offer method because the reduce operation
    * does not save all the incoming messages, it rather reduces messages with the same key and
@@ -62,7 +66,7 @@ public abstract class KReduceStreamingReceiver extends KeyedReceiver {
 
     Map<Object, Queue<Object>> messagesPerTarget = messages.get(target);
 
-    if (messagesPerTarget.size() > keyLimit) {
+    if (messagesPerTarget.size() > keyLimit(target)) {
       LOG.fine(String.format("Executor %d Partial cannot add any further keys needs flush ",
           executor));
       moveMessagesToSendQueue(target, messagesPerTarget);
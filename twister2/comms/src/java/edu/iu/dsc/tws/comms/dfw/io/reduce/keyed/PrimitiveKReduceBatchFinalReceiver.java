@@ -0,0 +1,88 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce.keyed;
+
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.BulkReceiver;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Keyed reduce final receiver for primitive keys and values. The reduced values are kept in
+ * {@link PrimitiveReduceMap}s instead of boxed hash maps, and array values are reduced in place.
+ * Use {@link PrimitiveReduceMap#isSupported} to check weather this receiver can be used.
+ */
+public class PrimitiveKReduceBatchFinalReceiver extends KReduceBatchFinalReceiver {
+  /**
+   * The reduced values for each target
+   */
+  private Int2ObjectOpenHashMap<PrimitiveReduceMap> primitiveReduced =
+      new Int2ObjectOpenHashMap<>();
+
+  public PrimitiveKReduceBatchFinalReceiver(ReduceFunction reduce, BulkReceiver receiver) {
+    super(reduce, receiver);
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    // we don't use the object maps
+    reduced.clear();
+    for (int t : expectedIds.keySet()) {
+      primitiveReduced.put(t, PrimitiveReduceMap.create(reduceFunction, op.getKeyType()));
+    }
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    PrimitiveReduceMap targetValues = primitiveReduced.get(dest);
+
+    for (int i = 0; i < dests.size(); i++) {
+      Object val = dests.get(i);
+      if (!(val instanceof Tuple)) {
+        throw new RuntimeException("Un-expected type: " + val.getClass());
+      }
+      Tuple t = (Tuple) val;
+      targetValues.reduce(t.getKey(), t.getValue());
+    }
+    dests.clear();
+  }
+
+  @Override
+  protected boolean isAllEmpty(int target) {
+    PrimitiveReduceMap values = primitiveReduced.get(target);
+    return values == null || values.isEmpty();
+  }
+
+  @Override
+  protected boolean sendToTarget(int source, int target) {
+    PrimitiveReduceMap values = primitiveReduced.get(target);
+
+    if (values == null || values.isEmpty()) {
+      return isFilledToSend(target);
+    }
+
+    boolean send = bulkReceiver.receive(target, values.iterator());
+    if (send) {
+      // the receiver may still be iterating, so we cannot reuse the map
+      primitiveReduced.put(target,
+          PrimitiveReduceMap.create(reduceFunction, operation.getKeyType()));
+    }
+    return send;
+  }
+}
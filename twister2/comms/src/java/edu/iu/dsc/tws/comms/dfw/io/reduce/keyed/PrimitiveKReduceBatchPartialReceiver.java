@@ -0,0 +1,93 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce.keyed;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Keyed reduce partial receiver for primitive keys and values. The values are reduced in to a
+ * {@link PrimitiveReduceMap} for each target instead of the object maps.
+ */
+public class PrimitiveKReduceBatchPartialReceiver extends KReduceBatchPartialReceiver {
+  private static final Logger LOG = Logger.getLogger(
+      PrimitiveKReduceBatchPartialReceiver.class.getName());
+
+  /**
+   * The reduced values for each target
+   */
+  private Int2ObjectOpenHashMap<PrimitiveReduceMap> primitiveMessages =
+      new Int2ObjectOpenHashMap<>();
+
+  public PrimitiveKReduceBatchPartialReceiver(int dest, ReduceFunction function) {
+    super(dest, function);
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    for (int target : expectedIds.keySet()) {
+      primitiveMessages.put(target, PrimitiveReduceMap.create(reduceFunction, op.getKeyType()));
+    }
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  protected boolean offerMessage(int target, Object object) {
+    PrimitiveReduceMap messagesPerTarget = primitiveMessages.get(target);
+
+    if (!isFinalBatchReceiver && messagesPerTarget.size() > keyLimit(target)) {
+      LOG.fine(String.format("Executor %d Partial cannot add any further keys needs flush ",
+          executor));
+      moveMessagesToSendQueue(target, messages.get(target));
+      return false;
+    }
+    if (object instanceof List) {
+      List dataList = (List) object;
+      for (int i = 0; i < dataList.size(); i++) {
+        Tuple tuple = (Tuple) dataList.get(i);
+        messagesPerTarget.reduce(tuple.getKey(), tuple.getValue());
+      }
+    } else {
+      Tuple tuple = (Tuple) object;
+      messagesPerTarget.reduce(tuple.getKey(), tuple.getValue());
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean moveMessagesToSendQueue(int target,
+                                            Map<Object, Queue<Object>> messagesPerTarget) {
+    // the send queues are not bounded, so everything can be moved
+    primitiveMessages.get(target).drainTo(sendQueue.get(target));
+    return true;
+  }
+
+  @Override
+  protected boolean isMessagesEmpty(int target) {
+    return primitiveMessages.get(target).isEmpty();
+  }
+
+  @Override
+  protected int bufferedKeyCount(int target) {
+    return primitiveMessages.get(target).size();
+  }
+}
@@ -0,0 +1,469 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce.keyed;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.comms.functions.reduction.AbstractOp;
+import edu.iu.dsc.tws.comms.functions.reduction.ReduceOperationFunction;
+
+import it.unimi.dsi.fastutil.doubles.Double2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+/**
+ * Keeps the reduced values of primitive keys without boxing. Keys are mapped to dense slots
+ * using an open addressing hash map and the values are kept in primitive arrays indexed by
+ * the slot. Array values are copied once when the key is inserted and reduced in place after
+ * that.
+ */
+public final class PrimitiveReduceMap {
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * The keys
+   */
+  private final KeyColumn keys;
+
+  /**
+   * The reduced values
+   */
+  private final ValueColumn values;
+
+  private PrimitiveReduceMap(KeyColumn keys, ValueColumn values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Check weather we can use a primitive map for the given function and key type. The values
+   * are expected to be of the type the function is created for.
+   *
+   * @param function reduce function
+   * @param keyType key type
+   * @return true if supported
+   */
+  public static boolean isSupported(ReduceFunction function, MessageType keyType) {
+    if (!(function instanceof ReduceOperationFunction)) {
+      return false;
+    }
+    MessageType type = ((ReduceOperationFunction) function).getMessageType();
+    return (keyType == MessageTypes.INTEGER || keyType == MessageTypes.LONG
+        || keyType == MessageTypes.DOUBLE)
+        && (type == MessageTypes.INTEGER || type == MessageTypes.LONG
+        || type == MessageTypes.DOUBLE || type == MessageTypes.INTEGER_ARRAY
+        || type == MessageTypes.LONG_ARRAY || type == MessageTypes.DOUBLE_ARRAY
+        || type == MessageTypes.SHORT_ARRAY || type == MessageTypes.BYTE_ARRAY);
+  }
+
+  /**
+   * Create a map, {@link #isSupported(ReduceFunction, MessageType)} should be
+   * checked before
+   *
+   * @param function reduce function
+   * @param keyType key type
+   * @return the map
+   */
+  public static PrimitiveReduceMap create(ReduceFunction function, MessageType keyType) {
+    ReduceOperationFunction reduceFunction = (ReduceOperationFunction) function;
+    MessageType dataType = reduceFunction.getMessageType();
+
+    KeyColumn keyColumn;
+    if (keyType == MessageTypes.INTEGER) {
+      keyColumn = new IntKeys();
+    } else if (keyType == MessageTypes.LONG) {
+      keyColumn = new LongKeys();
+    } else if (keyType == MessageTypes.DOUBLE) {
+      keyColumn = new DoubleKeys();
+    } else {
+      throw new RuntimeException("Un-supported key type for primitive reduce: " + keyType);
+    }
+
+    ValueColumn valueColumn;
+    if (dataType == MessageTypes.INTEGER) {
+      valueColumn = new IntValues(reduceFunction.getAbstractOp());
+    } else if (dataType == MessageTypes.LONG) {
+      valueColumn = new LongValues(reduceFunction.getAbstractOp());
+    } else if (dataType == MessageTypes.DOUBLE) {
+      valueColumn = new DoubleValues(reduceFunction.getAbstractOp());
+    } else {
+      valueColumn = new ArrayValues(reduceFunction);
+    }
+    return new PrimitiveReduceMap(keyColumn, valueColumn);
+  }
+
+  /**
+   * Reduce the value with the current value of the key, or insert it if the key is not present
+   *
+   * @param key key
+   * @param value value
+   */
+  public void reduce(Object key, Object value) {
+    int slot = keys.find(key);
+    if (slot < 0) {
+      values.insert(keys.add(key), value);
+    } else {
+      values.reduce(slot, value);
+    }
+  }
+
+  public int size() {
+    return keys.size();
+  }
+
+  public boolean isEmpty() {
+    return keys.size() == 0;
+  }
+
+  /**
+   * Remove all the keys, keeping the allocated memory
+   */
+  public void clear() {
+    keys.clear();
+    values.clear();
+  }
+
+  /**
+   * Move the reduced values as tuples in to the queue and clear the map
+   *
+   * @param queue the queue
+   */
+  public void drainTo(Queue<Object> queue) {
+    for (int i = 0; i < keys.size(); i++) {
+      queue.offer(new Tuple<>(keys.get(i), values.get(i)));
+    }
+    clear();
+  }
+
+  /**
+   * Iterate over the reduced values as tuples
+   *
+   * @return iterator
+   */
+  public Iterator<Object> iterator() {
+    return new Iterator<Object>() {
+      private int slot = 0;
+
+      @Override
+      public boolean hasNext() {
+        return slot < keys.size();
+      }
+
+      @Override
+      public Object next() {
+        if (slot >= keys.size()) {
+          throw new NoSuchElementException();
+        }
+        Tuple<Object, Object> tuple = new Tuple<>(keys.get(slot), values.get(slot));
+        slot++;
+        return tuple;
+      }
+    };
+  }
+
+  private interface KeyColumn {
+    /**
+     * Slot of the key or -1 if not present
+     */
+    int find(Object key);
+
+    /**
+     * Add a new key and return its slot
+     */
+    int add(Object key);
+
+    Object get(int slot);
+
+    int size();
+
+    void clear();
+  }
+
+  private interface ValueColumn {
+    void insert(int slot, Object value);
+
+    void reduce(int slot, Object value);
+
+    Object get(int slot);
+
+    void clear();
+  }
+
+  private static final class IntKeys implements KeyColumn {
+    private final Int2IntOpenHashMap index = new Int2IntOpenHashMap();
+    private int[] keys = new int[INITIAL_CAPACITY];
+
+    IntKeys() {
+      index.defaultReturnValue(-1);
+    }
+
+    @Override
+    public int find(Object key) {
+      return index.get((int) key);
+    }
+
+    @Override
+    public int add(Object key) {
+      int slot = index.size();
+      if (slot == keys.length) {
+        keys = Arrays.copyOf(keys, slot << 1);
+      }
+      keys[slot] = (int) key;
+      index.put(keys[slot], slot);
+      return slot;
+    }
+
+    @Override
+    public Object get(int slot) {
+      return keys[slot];
+    }
+
+    @Override
+    public int size() {
+      return index.size();
+    }
+
+    @Override
+    public void clear() {
+      index.clear();
+    }
+  }
+
+  private static final class LongKeys implements KeyColumn {
+    private final Long2IntOpenHashMap index = new Long2IntOpenHashMap();
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    LongKeys() {
+      index.defaultReturnValue(-1);
+    }
+
+    @Override
+    public int find(Object key) {
+      return index.get((long) key);
+    }
+
+    @Override
+    public int add(Object key) {
+      int slot = index.size();
+      if (slot == keys.length) {
+        keys = Arrays.copyOf(keys, slot << 1);
+      }
+      keys[slot] = (long) key;
+      index.put(keys[slot], slot);
+      return slot;
+    }
+
+    @Override
+    public Object get(int slot) {
+      return keys[slot];
+    }
+
+    @Override
+    public int size() {
+      return index.size();
+    }
+
+    @Override
+    public void clear() {
+      index.clear();
+    }
+  }
+
+  private static final class DoubleKeys implements KeyColumn {
+    private final Double2IntOpenHashMap index = new Double2IntOpenHashMap();
+    private double[] keys = new double[INITIAL_CAPACITY];
+
+    DoubleKeys() {
+      index.defaultReturnValue(-1);
+    }
+
+    @Override
+    public int find(Object key) {
+      return index.get((double) key);
+    }
+
+    @Override
+    public int add(Object key) {
+      int slot = index.size();
+      if (slot == keys.length) {
+        keys = Arrays.copyOf(keys, slot << 1);
+      }
+      keys[slot] = (double) key;
+      index.put(keys[slot], slot);
+      return slot;
+    }
+
+    @Override
+    public Object get(int slot) {
+      return keys[slot];
+    }
+
+    @Override
+    public int size() {
+      return index.size();
+    }
+
+    @Override
+    public void clear() {
+      index.clear();
+    }
+  }
+
+  private static final class IntValues implements ValueColumn {
+    private final AbstractOp op;
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    IntValues(AbstractOp op) {
+      this.op = op;
+    }
+
+    @Override
+    public void insert(int slot, Object value) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, slot << 1);
+      }
+      values[slot] = (int) value;
+    }
+
+    @Override
+    public void reduce(int slot, Object value) {
+      values[slot] = op.doInt(values[slot], (int) value);
+    }
+
+    @Override
+    public Object get(int slot) {
+      return values[slot];
+    }
+
+    @Override
+    public void clear() {
+    }
+  }
+
+  private static final class LongValues implements ValueColumn {
+    private final AbstractOp op;
+    private long[] values = new long[INITIAL_CAPACITY];
+
+    LongValues(AbstractOp op) {
+      this.op = op;
+    }
+
+    @Override
+    public void insert(int slot, Object value) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, slot << 1);
+      }
+      values[slot] = (long) value;
+    }
+
+    @Override
+    public void reduce(int slot, Object value) {
+      values[slot] = op.doLong(values[slot], (long) value);
+    }
+
+    @Override
+    public Object get(int slot) {
+      return values[slot];
+    }
+
+    @Override
+    public void clear() {
+    }
+  }
+
+  private static final class DoubleValues implements ValueColumn {
+    private final AbstractOp op;
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    DoubleValues(AbstractOp op) {
+      this.op = op;
+    }
+
+    @Override
+    public void insert(int slot, Object value) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, slot << 1);
+      }
+      values[slot] = (double) value;
+    }
+
+    @Override
+    public void reduce(int slot, Object value) {
+      values[slot] = op.doDouble(values[slot], (double) value);
+    }
+
+    @Override
+    public Object get(int slot) {
+      return values[slot];
+    }
+
+    @Override
+    public void clear() {
+    }
+  }
+
+  private static final class ArrayValues implements ValueColumn {
+    private final ReduceOperationFunction function;
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    ArrayValues(ReduceOperationFunction function) {
+      this.function = function;
+    }
+
+    @Override
+    public void insert(int slot, Object value) {
+      if (slot == values.length) {
+        values = Arrays.copyOf(values, slot << 1);
+      }
+      // we copy the value since we are going to modify it
+      values[slot] = copy(value);
+    }
+
+    @Override
+    public void reduce(int slot, Object value) {
+      values[slot] = function.reduceInPlace(values[slot], value);
+    }
+
+    @Override
+    public Object get(int slot) {
+      return values[slot];
+    }
+
+    @Override
+    public void clear() {
+      // release the references so that the arrays handed out can be collected
+      Arrays.fill(values, null);
+    }
+
+    private static Object copy(Object value) {
+      if (value instanceof int[]) {
+        return ((int[]) value).clone();
+      } else if (value instanceof double[]) {
+        return ((double[]) value).clone();
+      } else if (value instanceof long[]) {
+        return ((long[]) value).clone();
+      } else if (value instanceof short[]) {
+        return ((short[]) value).clone();
+      } else if (value instanceof byte[]) {
+        return ((byte[]) value).clone();
+      }
+      return value;
+    }
+  }
+}
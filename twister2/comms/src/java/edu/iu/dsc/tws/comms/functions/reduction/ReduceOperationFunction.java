@@ -26,6 +26,7 @@ public class ReduceOperationFunction implements ReduceFunction {
 
   private MessageType messageType;
   private Op operation;
+  private AbstractOp abstractOp;
 
   public ReduceOperationFunction(Op operation, MessageType dtype) {
     if (dtype == MessageTypes.OBJECT || dtype == MessageTypes.STRING) {
@@ -34,6 +35,41 @@ public class ReduceOperationFunction implements ReduceFunction {
     }
     this.operation = operation;
     this.messageType = dtype;
+    this.abstractOp = getOp(operation);
+  }
+
+  /**
+   * Get the implementation of the operation
+   *
+   * @param operation operation
+   * @return the implementation
+   */
+  public static AbstractOp getOp(Op operation) {
+    if (operation == Op.SUM) {
+      return OpSum.getInstance();
+    } else if (operation == Op.PRODUCT) {
+      return OpProduct.getInstance();
+    } else if (operation == Op.DIVISION) {
+      return OpDivision.getInstance();
+    } else if (operation == Op.MAX) {
+      return OpMax.getInstance();
+    } else if (operation == Op.MIN) {
+      return OpMin.getInstance();
+    } else {
+      throw new Twister2RuntimeException("This operation is not supported.");
+    }
+  }
+
+  public MessageType getMessageType() {
+    return messageType;
+  }
+
+  public Op getOperation() {
+    return operation;
+  }
+
+  public AbstractOp getAbstractOp() {
+    return abstractOp;
   }
 
   @Override
@@ -138,22 +174,61 @@ public class ReduceOperationFunction implements ReduceFunction {
     }
   }
 
+  /**
+   * Reduce data into the target array without allocating a new array. The target should be
+   * owned by the caller. Non array values are returned as in {@link #reduce(Object, Object)}
+   *
+   * @param target the array to update
+   * @param data the value to reduce in to the target
+   * @return the reduced value, which is the target for arrays
+   */
+  public Object reduceInPlace(Object target, Object data) {
+    if (target instanceof int[] && data instanceof int[]) {
+      int[] i1 = (int[]) target;
+      int[] i2 = (int[]) data;
+      validateArrayLength(i1.length, i2.length);
+      for (int i = 0; i < i1.length; i++) {
+        i1[i] = abstractOp.doInt(i1[i], i2[i]);
+      }
+      return i1;
+    } else if (target instanceof double[] && data instanceof double[]) {
+      double[] i1 = (double[]) target;
+      double[] i2 = (double[]) data;
+      validateArrayLength(i1.length, i2.length);
+      for (int i = 0; i < i1.length; i++) {
+        i1[i] = abstractOp.doDouble(i1[i], i2[i]);
+      }
+      return i1;
+    } else if (target instanceof long[] && data instanceof long[]) {
+      long[] i1 = (long[]) target;
+      long[] i2 = (long[]) data;
+      validateArrayLength(i1.length, i2.length);
+      for (int i = 0; i < i1.length; i++) {
+        i1[i] = abstractOp.doLong(i1[i], i2[i]);
+      }
+      return i1;
+    } else if (target instanceof short[] && data instanceof short[]) {
+      short[] i1 = (short[]) target;
+      short[] i2 = (short[]) data;
+      validateArrayLength(i1.length, i2.length);
+      for (int i = 0; i < i1.length; i++) {
+        i1[i] = abstractOp.doShort(i1[i], i2[i]);
+      }
+      return i1;
+    } else if (target instanceof byte[] && data instanceof byte[]) {
+      byte[] i1 = (byte[]) target;
+      byte[] i2 = (byte[]) data;
+      validateArrayLength(i1.length, i2.length);
+      for (int i = 0; i < i1.length; i++) {
+        i1[i] = abstractOp.doByte(i1[i], i2[i]);
+      }
+      return i1;
+    }
+    return reduce(target, data);
+  }
+
   @Override
   public Object reduce(Object data1, Object data2) {
-    if (this.operation == Op.SUM) { // Start SUM
-      return this.applyOp(data1, data2, OpSum.getInstance());
-    } else if (this.operation == Op.PRODUCT) {
-      return this.applyOp(data1, data2, OpProduct.getInstance());
-    } else if (this.operation == Op.DIVISION) {
-      return this.applyOp(data1, data2, OpDivision.getInstance());
-    } else if (this.operation == Op.MAX) {
-      return this.applyOp(data1, data2, OpMax.getInstance());
-    } else if (this.operation == Op.MIN) {
-      return this.applyOp(data1, data2, OpMin.getInstance());
-    } else {
-      throw new Twister2RuntimeException("This operation is not supported.");
-    }
+    return this.applyOp(data1, data2, abstractOp);
   }
 }
-
-
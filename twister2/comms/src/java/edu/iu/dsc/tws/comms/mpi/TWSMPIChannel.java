@@ -31,6 +31,8 @@ import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.config.MPIContext;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 import edu.iu.dsc.tws.api.resource.IWorkerController;
 import edu.iu.dsc.tws.common.util.IterativeLinkedList;
 import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
@@ -125,6 +127,18 @@ public class TWSMPIChannel implements TWSChannel {
    */
   private List<Pair<Integer, Integer>> pendingCloseRequests = new ArrayList<>();
 
+  /**
+   * Worker wide channel metrics
+   */
+  private Counter bytesSent;
+  private Counter bytesReceived;
+  private Counter sendsRejected;
+
+  /**
+   * Number of sends and receives completed
+   */
+  private long completions;
+
   /**
    * Worker id
    */
@@ -160,6 +174,7 @@ public class TWSMPIChannel implements TWSChannel {
     this.groupedRegisteredReceives = new Int2ObjectArrayMap<>();
     this.waitForCompletionSends = new IterativeLinkedList<>();
     this.workerId = wController.getWorkerInfo().getWorkerID();
+    initMetrics(config);
   }
 
   /**
@@ -170,8 +185,12 @@ public class TWSMPIChannel implements TWSChannel {
    * @return true if the message is accepted to be sent
    */
   public boolean sendMessage(int wId, ChannelMessage message, ChannelListener callback) {
-    return pendingSends.offer(
+    boolean offer = pendingSends.offer(
         new MPISendRequests(wId, message.getHeader().getEdge(), message, callback));
+    if (!offer) {
+      sendsRejected.inc();
+    }
+    return offer;
   }
 
   /**
@@ -196,6 +215,19 @@ public class TWSMPIChannel implements TWSChannel {
     return true;
   }
 
+  private void initMetrics(Config config) {
+    MetricsRegistry metrics = MetricsRegistry.init(config);
+    this.bytesSent = metrics.counter("comms.channel.bytes.sent");
+    this.bytesReceived = metrics.counter("comms.channel.bytes.received");
+    this.sendsRejected = metrics.counter("comms.channel.sends.rejected");
+    metrics.gauge("comms.channel.pending.sends", () -> pendingSends.size());
+    metrics.gauge("comms.channel.inflight.sends", () -> waitForCompletionSends.size());
+  }
+
+  private void removeMetrics() {
+    MetricsRegistry.getInstance().removeAll("comms.channel");
+  }
+
   @Override
   public void close() {
     // nothing to do here
@@ -203,6 +235,7 @@ public class TWSMPIChannel implements TWSChannel {
         || !this.pendingSends.isEmpty() || !this.waitForCompletionSends.isEmpty()) {
       this.progress();
     }
+    removeMetrics();
 
     for (int i = 0; i < registeredReceives.size(); i++) {
       MPIReceiveRequests receiveRequests = registeredReceives.get(i);
@@ -227,6 +260,11 @@ public class TWSMPIChannel implements TWSChannel {
         && this.pendingSends.isEmpty() && this.waitForCompletionSends.isEmpty();
   }
 
+  @Override
+  public long getCompletions() {
+    return completions;
+  }
+
   /**
    * Send a message to the given rank.
    *
@@ -238,6 +276,7 @@ public class TWSMPIChannel implements TWSChannel {
       try {
         sendCount++;
         DataBuffer buffer = message.getNormalBuffers().get(i);
+        bytesSent.inc(buffer.getSize());
         Request request = comm.iSend(buffer.getByteBuffer(), buffer.getSize(),
             MPI.BYTE, requests.rank, message.getHeader().getEdge());
         // register to the loop to make communicationProgress on the send
@@ -314,6 +353,7 @@ public class TWSMPIChannel implements TWSChannel {
       // if the message if fully sent, lets call the callback
       // ideally we should be able to call for each finish of the buffer
       if (sendRequests.pendingSends.size() == 0) {
+        completions++;
         sendRequests.callback.onSendComplete(sendRequests.rank,
             sendRequests.edge, sendRequests.message);
         sendRequestsIterator.remove();
@@ -346,8 +386,10 @@ public class TWSMPIChannel implements TWSChannel {
 //              ++receiveCount;
               // lets call the callback about the receive complete
               r.buffer.setSize(status.getCount(MPI.BYTE));
+              bytesReceived.inc(r.buffer.getSize());
 
               //We do not have any buffers to receive messages so we need to free a buffer
+              completions++;
               receiveRequests.callback.onReceiveComplete(
                   receiveRequests.rank, receiveRequests.edge, r.buffer);
 
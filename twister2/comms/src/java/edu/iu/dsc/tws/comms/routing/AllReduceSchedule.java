@@ -0,0 +1,292 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * The steps a worker takes in an all reduce that exchanges segments of an array. The array is
+ * divided in to a number of equal segments and at each step a worker sends a range of segments
+ * to one peer and receives a range of segments from another. The received segments are either
+ * reduced in to the local array or copied over it.
+ *
+ * Workers are identified by their rank from 0 to workers - 1.
+ */
+public final class AllReduceSchedule {
+  /**
+   * Used as the peer when a step does not send or receive
+   */
+  public static final int NONE = -1;
+
+  /**
+   * Number of segments the array is divided in to
+   */
+  private final int segments;
+
+  /**
+   * The steps
+   */
+  private final List<Step> steps;
+
+  private AllReduceSchedule(int segments, List<Step> steps) {
+    this.segments = segments;
+    this.steps = Collections.unmodifiableList(steps);
+  }
+
+  public int getSegments() {
+    return segments;
+  }
+
+  public List<Step> getSteps() {
+    return steps;
+  }
+
+  /**
+   * The index of the first element of a segment
+   *
+   * @param segment the segment, segments gives the length of the array
+   * @param length length of the array
+   * @return the index of the first element
+   */
+  public int offset(int segment, int length) {
+    return (int) ((long) segment * length / segments);
+  }
+
+  /**
+   * Ring reduce scatter followed by a ring all gather. Each worker sends and receives
+   * 2 * (workers - 1) / workers of the array, which is independent of the number of workers.
+   *
+   * @param workers number of workers
+   * @param rank rank of this worker
+   * @return the schedule
+   */
+  public static AllReduceSchedule ring(int workers, int rank) {
+    List<Step> steps = new ArrayList<>();
+    int next = (rank + 1) % workers;
+    int previous = (rank - 1 + workers) % workers;
+    // after the reduce scatter, the worker owns the reduced segment rank + 1
+    for (int s = 0; s < workers - 1; s++) {
+      int send = Math.floorMod(rank - s, workers);
+      int recv = Math.floorMod(rank - s - 1, workers);
+      steps.add(new Step(next, send, send + 1, previous, recv, recv + 1, true));
+    }
+    for (int s = 0; s < workers - 1; s++) {
+      int send = Math.floorMod(rank + 1 - s, workers);
+      int recv = Math.floorMod(rank - s, workers);
+      steps.add(new Step(next, send, send + 1, previous, recv, recv + 1, false));
+    }
+    return new AllReduceSchedule(workers, steps);
+  }
+
+  /**
+   * Recursive halving reduce scatter followed by a recursive doubling all gather. This sends the
+   * same amount of data as the ring in log(workers) steps. If the number of workers is not a
+   * power of two, the extra workers first give their array to a neighbour and get the result
+   * back at the end.
+   *
+   * @param workers number of workers
+   * @param rank rank of this worker
+   * @return the schedule
+   */
+  public static AllReduceSchedule recursiveHalving(int workers, int rank) {
+    int pof2 = Integer.highestOneBit(workers);
+    return recursive(workers, rank, pof2, true);
+  }
+
+  /**
+   * Recursive doubling of the full array. Each step exchanges the full array, so this sends
+   * log(workers) times the array. This has the fewest steps and is used for small arrays.
+   *
+   * @param workers number of workers
+   * @param rank rank of this worker
+   * @return the schedule
+   */
+  public static AllReduceSchedule recursiveDoubling(int workers, int rank) {
+    int pof2 = Integer.highestOneBit(workers);
+    return recursive(workers, rank, pof2, false);
+  }
+
+  private static AllReduceSchedule recursive(int workers, int rank, int pof2, boolean halving) {
+    int segments = halving ? pof2 : 1;
+    int extra = workers - pof2;
+    List<Step> steps = new ArrayList<>();
+
+    // the first 2 * extra workers pair up, even ranks give their array to the odd ranks
+    int newRank;
+    if (rank < 2 * extra) {
+      if (rank % 2 == 0) {
+        steps.add(new Step(rank + 1, 0, segments, NONE, 0, 0, false));
+        steps.add(new Step(NONE, 0, 0, rank + 1, 0, segments, false));
+        return new AllReduceSchedule(segments, steps);
+      }
+      steps.add(new Step(NONE, 0, 0, rank - 1, 0, segments, true));
+      newRank = rank / 2;
+    } else {
+      newRank = rank - extra;
+    }
+
+    if (halving) {
+      for (int distance = pof2 / 2; distance > 0; distance /= 2) {
+        int partner = newRank ^ distance;
+        int peer = oldRank(partner, extra);
+        int sendFrom = (partner / distance) * distance;
+        int recvFrom = (newRank / distance) * distance;
+        steps.add(new Step(peer, sendFrom, sendFrom + distance,
+            peer, recvFrom, recvFrom + distance, true));
+      }
+      for (int distance = 1; distance < pof2; distance *= 2) {
+        int partner = newRank ^ distance;
+        int peer = oldRank(partner, extra);
+        int sendFrom = (newRank / distance) * distance;
+        int recvFrom = (partner / distance) * distance;
+        steps.add(new Step(peer, sendFrom, sendFrom + distance,
+            peer, recvFrom, recvFrom + distance, false));
+      }
+    } else {
+      for (int distance = 1; distance < pof2; distance *= 2) {
+        int peer = oldRank(newRank ^ distance, extra);
+        steps.add(new Step(peer, 0, 1, peer, 0, 1, true));
+      }
+    }
+
+    if (rank < 2 * extra) {
+      steps.add(new Step(rank - 1, 0, segments, NONE, 0, 0, false));
+    }
+    return new AllReduceSchedule(segments, steps);
+  }
+
+  /**
+   * A two level all reduce for workers grouped in to nodes. The workers of a node first send
+   * their arrays to the lowest ranked worker of the node, which reduces them. These node leaders
+   * all reduce among themselves using the given schedule and send the result back to the other
+   * workers of their node. Only the leaders send data across the nodes, and intra node transfers
+   * are cheap when the workers share memory.
+   *
+   * @param groups the group of each rank
+   * @param rank rank of this worker
+   * @param leaderSchedule creates the schedule of a leader given the number of leaders and the
+   * rank of the leader among them
+   * @return the schedule
+   */
+  public static AllReduceSchedule hierarchical(int[] groups, int rank,
+                                               BiFunction<Integer, Integer,
+                                                   AllReduceSchedule> leaderSchedule) {
+    // the leader of a group is its lowest rank, leaders are ordered by their rank
+    List<Integer> leaders = new ArrayList<>();
+    List<Integer> members = new ArrayList<>();
+    int leader = NONE;
+    for (int r = 0; r < groups.length; r++) {
+      boolean first = true;
+      for (int p = 0; p < r; p++) {
+        if (groups[p] == groups[r]) {
+          first = false;
+          break;
+        }
+      }
+      if (first) {
+        leaders.add(r);
+      }
+      if (groups[r] == groups[rank]) {
+        if (leader == NONE) {
+          leader = r;
+        } else {
+          members.add(r);
+        }
+      }
+    }
+
+    List<Step> steps = new ArrayList<>();
+    if (leader != rank) {
+      steps.add(new Step(leader, 0, 1, NONE, 0, 0, false));
+      steps.add(new Step(NONE, 0, 0, leader, 0, 1, false));
+      return new AllReduceSchedule(1, steps);
+    }
+
+    AllReduceSchedule inter = leaderSchedule.apply(leaders.size(), leaders.indexOf(rank));
+    int segments = inter.getSegments();
+    for (int m : members) {
+      steps.add(new Step(NONE, 0, 0, m, 0, segments, true));
+    }
+    for (Step s : inter.getSteps()) {
+      steps.add(new Step(s.sendPeer == NONE ? NONE : leaders.get(s.sendPeer),
+          s.sendFrom, s.sendTo,
+          s.recvPeer == NONE ? NONE : leaders.get(s.recvPeer),
+          s.recvFrom, s.recvTo, s.reduce));
+    }
+    for (int m : members) {
+      steps.add(new Step(m, 0, segments, NONE, 0, 0, false));
+    }
+    return new AllReduceSchedule(segments, steps);
+  }
+
+  private static int oldRank(int newRank, int extra) {
+    return newRank < extra ? newRank * 2 + 1 : newRank + extra;
+  }
+
+  /**
+   * A step of the schedule, segment ranges are given as [from, to)
+   */
+  public static final class Step {
+    private final int sendPeer;
+    private final int sendFrom;
+    private final int sendTo;
+    private final int recvPeer;
+    private final int recvFrom;
+    private final int recvTo;
+    private final boolean reduce;
+
+    Step(int sendPeer, int sendFrom, int sendTo,
+         int recvPeer, int recvFrom, int recvTo, boolean reduce) {
+      this.sendPeer = sendPeer;
+      this.sendFrom = sendFrom;
+      this.sendTo = sendTo;
+      this.recvPeer = recvPeer;
+      this.recvFrom = recvFrom;
+      this.recvTo = recvTo;
+      this.reduce = reduce;
+    }
+
+    public int getSendPeer() {
+      return sendPeer;
+    }
+
+    public int getSendFrom() {
+      return sendFrom;
+    }
+
+    public int getSendTo() {
+      return sendTo;
+    }
+
+    public int getRecvPeer() {
+      return recvPeer;
+    }
+
+    public int getRecvFrom() {
+      return recvFrom;
+    }
+
+    public int getRecvTo() {
+      return recvTo;
+    }
+
+    /**
+     * Weather the received segments are reduced in to the array or copied over it
+     */
+    public boolean isReduce() {
+      return reduce;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+
+public class SharedMemoryContext extends Context {
+  /**
+   * The channel used to talk to the workers in other nodes
+   */
+  public static final String SHM_DELEGATE_CHANNEL = "twister2.network.shm.delegate.channel.class";
+  public static final String SHM_DELEGATE_CHANNEL_DEFAULT = "edu.iu.dsc.tws.comms.tcp.TWSTCPChannel";
+
+  /**
+   * Size of the ring from one worker to another in the same node
+   */
+  public static final String SHM_RING_BYTES = "twister2.network.shm.ring.bytes";
+  public static final int SHM_RING_BYTES_DEFAULT = 8 * 1024 * 1024;
+
+  /**
+   * The directory of the memory mapped files, this should be a memory backed file system
+   */
+  public static final String SHM_DIRECTORY = "twister2.network.shm.dir";
+  public static final String SHM_DIRECTORY_DEFAULT = "/dev/shm";
+
+  public static String delegateChannel(Config cfg) {
+    return cfg.getStringValue(SHM_DELEGATE_CHANNEL, SHM_DELEGATE_CHANNEL_DEFAULT);
+  }
+
+  public static int ringBytes(Config cfg) {
+    return cfg.getIntegerValue(SHM_RING_BYTES, SHM_RING_BYTES_DEFAULT);
+  }
+
+  public static String directory(Config cfg) {
+    return cfg.getStringValue(SHM_DIRECTORY, SHM_DIRECTORY_DEFAULT);
+  }
+}
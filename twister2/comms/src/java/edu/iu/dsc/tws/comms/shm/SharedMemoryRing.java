@@ -0,0 +1,327 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.util.MemoryMapUtils;
+
+/**
+ * A single producer single consumer ring of frames in a memory mapped file. The producer and the
+ * consumer can be in different processes of the same node. Each frame has the length and the
+ * edge of the message followed by the message bytes.
+ *
+ * The file starts with the write position and the read position in separate cache lines,
+ * followed by the data. The positions only increase and are taken modulo the capacity, which is
+ * a power of two. The producer writes a frame and then publishes the new write position, the
+ * consumer reads a frame and then publishes the new read position.
+ */
+public final class SharedMemoryRing {
+  private static final Logger LOG = Logger.getLogger(SharedMemoryRing.class.getName());
+
+  private static final int WRITE_POSITION = 0;
+
+  private static final int READ_POSITION = 64;
+
+  private static final int HEADER_SIZE = 128;
+
+  private static final int FRAME_HEADER = 8;
+
+  private static final MethodHandle STORE_FENCE;
+
+  private static final MethodHandle LOAD_FENCE;
+
+  /**
+   * Used as a fence when the unsafe fences are not available
+   */
+  private static final AtomicInteger FALLBACK_FENCE = new AtomicInteger();
+
+  static {
+    MethodHandle store = null;
+    MethodHandle load = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      store = lookup.unreflect(unsafeClass.getMethod("storeFence")).bindTo(unsafe);
+      load = lookup.unreflect(unsafeClass.getMethod("loadFence")).bindTo(unsafe);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.log(Level.FINE, "Unsafe fences are not available, using volatile accesses", e);
+    }
+    STORE_FENCE = store;
+    LOAD_FENCE = load;
+  }
+
+  private final File file;
+
+  private final MappedByteBuffer mapped;
+
+  /**
+   * The data region of the ring
+   */
+  private final ByteBuffer data;
+
+  private final int capacity;
+
+  private final int mask;
+
+  /**
+   * Weather this side is the producer
+   */
+  private final boolean producer;
+
+  /**
+   * The position owned by this side, the write position of the producer and the read position
+   * of the consumer
+   */
+  private long position;
+
+  /**
+   * The last seen position of the other side
+   */
+  private long otherPosition;
+
+  private SharedMemoryRing(File file, MappedByteBuffer mapped, boolean producer) {
+    this.file = file;
+    this.mapped = mapped;
+    this.producer = producer;
+    this.capacity = mapped.capacity() - HEADER_SIZE;
+    this.mask = capacity - 1;
+    mapped.order(ByteOrder.nativeOrder());
+    mapped.position(HEADER_SIZE);
+    this.data = mapped.slice().order(ByteOrder.nativeOrder());
+    loadFence();
+    long write = mapped.getLong(WRITE_POSITION);
+    long read = mapped.getLong(READ_POSITION);
+    this.position = producer ? write : read;
+    this.otherPosition = producer ? read : write;
+  }
+
+  /**
+   * Create the file of a ring and map it as the producer. The file is created with a temporary
+   * name and renamed once it is initialized, so that a consumer never sees a partial file.
+   *
+   * @param file the file
+   * @param minCapacity minimum number of data bytes, rounded up to a power of two
+   * @return the ring
+   * @throws IOException if the file cannot be created
+   */
+  public static SharedMemoryRing create(File file, int minCapacity) throws IOException {
+    int capacity = Integer.highestOneBit(Math.max(minCapacity, 64) - 1) << 1;
+    File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+    try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+      raf.setLength(0);
+      raf.setLength(HEADER_SIZE + (long) capacity);
+    }
+    if (!tmp.renameTo(file)) {
+      throw new IOException("Failed to create the shared memory file " + file);
+    }
+    return new SharedMemoryRing(file, map(file), true);
+  }
+
+  /**
+   * Map an existing ring as the consumer
+   *
+   * @param file the file created by the producer
+   * @return the ring or null if the producer has not created the file yet
+   * @throws IOException if the file cannot be mapped
+   */
+  public static SharedMemoryRing open(File file) throws IOException {
+    if (!file.exists()) {
+      return null;
+    }
+    return new SharedMemoryRing(file, map(file), false);
+  }
+
+  private static MappedByteBuffer map(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+         FileChannel channel = raf.getChannel()) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+  }
+
+  /**
+   * The largest message this ring can hold
+   */
+  public int maxMessageSize() {
+    return capacity - FRAME_HEADER;
+  }
+
+  /**
+   * Write a frame
+   *
+   * @param edge the edge of the message
+   * @param buffer the bytes to write, starting from the 0th position
+   * @param length number of bytes
+   * @return false if there is not enough space in the ring
+   */
+  public boolean offer(int edge, ByteBuffer buffer, int length) {
+    if (length > maxMessageSize()) {
+      throw new IllegalArgumentException("Message of " + length
+          + " bytes does not fit in a ring of " + capacity + " bytes");
+    }
+    int frame = frameSize(length);
+    if (position + frame - otherPosition > capacity) {
+      otherPosition = mapped.getLong(READ_POSITION);
+      loadFence();
+      if (position + frame - otherPosition > capacity) {
+        return false;
+      }
+    }
+
+    int index = (int) (position & mask);
+    data.putInt(index, length);
+    data.putInt(index + 4, edge);
+    copy(buffer, 0, data, (index + FRAME_HEADER) & mask, length);
+    storeFence();
+    position += frame;
+    mapped.putLong(WRITE_POSITION, position);
+    return true;
+  }
+
+  /**
+   * Weather there is a frame to read
+   */
+  public boolean isEmpty() {
+    if (position == otherPosition) {
+      otherPosition = mapped.getLong(WRITE_POSITION);
+      loadFence();
+    }
+    return position == otherPosition;
+  }
+
+  /**
+   * The length of the next frame, {@link #isEmpty()} should be false
+   */
+  public int peekLength() {
+    return data.getInt((int) (position & mask));
+  }
+
+  /**
+   * The edge of the next frame, {@link #isEmpty()} should be false
+   */
+  public int peekEdge() {
+    return data.getInt((int) (position & mask) + 4);
+  }
+
+  /**
+   * Copy the next frame to the buffer and remove it from the ring. The bytes are written from
+   * the 0th position of the buffer and the limit is set to the length.
+   *
+   * @param buffer the buffer
+   * @return the length of the frame
+   */
+  public int poll(ByteBuffer buffer) {
+    int index = (int) (position & mask);
+    int length = data.getInt(index);
+    buffer.clear();
+    copy(data, (index + FRAME_HEADER) & mask, buffer, 0, length);
+    buffer.limit(length);
+    // the copy should complete before the producer can reuse the space
+    storeFence();
+    position += frameSize(length);
+    mapped.putLong(READ_POSITION, position);
+    return length;
+  }
+
+  /**
+   * Weather the consumer has read everything written
+   */
+  public boolean isDrained() {
+    if (producer) {
+      otherPosition = mapped.getLong(READ_POSITION);
+      loadFence();
+      return otherPosition == position;
+    }
+    return isEmpty();
+  }
+
+  /**
+   * Unmap the file, the producer also deletes it
+   */
+  public void close() {
+    try {
+      MemoryMapUtils.unMapBuffer(mapped);
+    } catch (ReflectiveOperationException e) {
+      LOG.log(Level.FINE, "Failed to unmap " + file, e);
+    }
+    if (producer && !file.delete()) {
+      LOG.fine("Failed to delete " + file);
+    }
+  }
+
+  private void copy(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int length) {
+    if (src == data) {
+      int first = Math.min(length, capacity - srcIndex);
+      bulkCopy(src, srcIndex, dst, dstIndex, first);
+      bulkCopy(src, 0, dst, dstIndex + first, length - first);
+    } else {
+      int first = Math.min(length, capacity - dstIndex);
+      bulkCopy(src, srcIndex, dst, dstIndex, first);
+      bulkCopy(src, srcIndex + first, dst, 0, length - first);
+    }
+  }
+
+  private static void bulkCopy(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex,
+                               int length) {
+    if (length == 0) {
+      return;
+    }
+    ByteBuffer from = src.duplicate();
+    from.limit(srcIndex + length).position(srcIndex);
+    ByteBuffer to = dst.duplicate();
+    to.limit(dstIndex + length).position(dstIndex);
+    to.put(from);
+  }
+
+  private static int frameSize(int length) {
+    return (FRAME_HEADER + length + 7) & ~7;
+  }
+
+  private static void storeFence() {
+    if (STORE_FENCE != null) {
+      try {
+        STORE_FENCE.invokeExact();
+        return;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+    FALLBACK_FENCE.set(0);
+  }
+
+  private static void loadFence() {
+    if (LOAD_FENCE != null) {
+      try {
+        LOAD_FENCE.invokeExact();
+        return;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+    FALLBACK_FENCE.get();
+  }
+}
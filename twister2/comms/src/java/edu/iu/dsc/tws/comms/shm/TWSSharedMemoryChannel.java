@@ -0,0 +1,450 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
+import edu.iu.dsc.tws.api.resource.IWorkerController;
+import edu.iu.dsc.tws.api.resource.Network;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * A channel that sends the messages to the workers in the same node through shared memory and
+ * uses another channel, TCP by default, for the workers in other nodes.
+ *
+ * Each worker creates a {@link SharedMemoryRing} for every other worker of its node and writes
+ * the buffers of the messages to it. The receiving worker maps the ring when the file appears
+ * and copies the buffers to the receive buffers posted for the edge. If there is no receive
+ * buffer, the bytes are copied to the heap so that the other edges sharing the ring can proceed.
+ * The receive quota of an edge is copied this way. An edge that is over its quota can still copy
+ * its messages while the messages over the quota, of all the edges from a worker, take less than
+ * another ring of memory. Only after that the ring is not drained until the receivers catch up,
+ * so a lagging edge holds back the other edges of the ring only when its receiver is behind by
+ * more than a ring.
+ */
+public class TWSSharedMemoryChannel implements TWSChannel {
+  private static final Logger LOG = Logger.getLogger(TWSSharedMemoryChannel.class.getName());
+
+  /**
+   * The channel for the workers in other nodes
+   */
+  private TWSChannel delegate;
+
+  private int workerId;
+
+  private File directory;
+
+  /**
+   * Prefix of the ring files of this job
+   */
+  private String filePrefix;
+
+  private int ringBytes;
+
+  /**
+   * Workers in the same node as this worker
+   */
+  private Set<Integer> localWorkers = new HashSet<>();
+
+  private Map<Integer, SharedMemoryRing> sendRings = new HashMap<>();
+
+  private Map<Integer, SharedMemoryRing> receiveRings = new HashMap<>();
+
+  /**
+   * Workers restarted after this time, we only open their rings if they are newer
+   */
+  private Map<Integer, Long> restartTimes = new HashMap<>();
+
+  /**
+   * Messages waiting to be written to each ring, in the order they were sent
+   */
+  private Map<Integer, Queue<SendRequest>> pendingSends = new HashMap<>();
+
+  private int pendingSendCount = 0;
+
+  private int maxPendingSends;
+
+  /**
+   * Receives registered for each local worker and edge
+   */
+  private Map<Integer, Map<Integer, ReceiveRequest>> receives = new HashMap<>();
+
+  /**
+   * Maximum number of buffers copied to the heap for an edge without a receive buffer
+   */
+  private int maxPendingReceives;
+
+  /**
+   * Maximum number of buffers over the quota copied to the heap for all the edges of a worker
+   */
+  private int maxOverflowReceives;
+
+  private Counter bytesSent;
+  private Counter bytesReceived;
+
+  /**
+   * Number of sends and receives completed
+   */
+  private long completions;
+
+  private static final class SendRequest {
+    private final int worker;
+    private final ChannelMessage message;
+    private final ChannelListener callback;
+    private int nextBuffer = 0;
+
+    SendRequest(int worker, ChannelMessage message, ChannelListener callback) {
+      this.worker = worker;
+      this.message = message;
+      this.callback = callback;
+    }
+  }
+
+  private static final class ReceiveRequest {
+    private ChannelListener callback;
+    private Queue<DataBuffer> availableBuffers;
+
+    /**
+     * Buffers received before a receive buffer was available
+     */
+    private final Queue<ByteBuffer> pending = new ArrayDeque<>();
+  }
+
+  public TWSSharedMemoryChannel(Config config, IWorkerController wController) {
+    Config delegateConfig = Config.newBuilder().putAll(config)
+        .put("twister2.network.channel.class", SharedMemoryContext.delegateChannel(config))
+        .build();
+    // this waits for all the workers to join
+    delegate = Network.initializeChannel(delegateConfig, wController);
+
+    JobMasterAPI.WorkerInfo thisWorker = wController.getWorkerInfo();
+    workerId = thisWorker.getWorkerID();
+    String node = nodeOf(thisWorker);
+    for (JobMasterAPI.WorkerInfo w : wController.getJoinedWorkers()) {
+      if (w.getWorkerID() != workerId && node.equals(nodeOf(w))) {
+        localWorkers.add(w.getWorkerID());
+      }
+    }
+
+    directory = new File(SharedMemoryContext.directory(config));
+    filePrefix = "twister2-" + Context.jobId(config);
+    // a ring should hold at least a couple of full buffers
+    ringBytes = Math.max(SharedMemoryContext.ringBytes(config),
+        2 * (CommunicationContext.bufferSize(config) + 8));
+    maxPendingSends = CommunicationContext.networkChannelPendingSize(config);
+    maxPendingReceives = Math.max(1, CommunicationContext.bufferPoolEdgeReceiveQuota(config));
+    maxOverflowReceives = Math.max(1, ringBytes / (CommunicationContext.bufferSize(config) + 8));
+    for (int w : localWorkers) {
+      createSendRing(w);
+    }
+    LOG.fine(() -> String.format("Worker %d uses shared memory for workers %s",
+        workerId, localWorkers));
+
+    MetricsRegistry metrics = MetricsRegistry.init(config);
+    bytesSent = metrics.counter("comms.shm.bytes.sent");
+    bytesReceived = metrics.counter("comms.shm.bytes.received");
+  }
+
+  private static String nodeOf(JobMasterAPI.WorkerInfo worker) {
+    String ip = worker.getNodeInfo().getNodeIP();
+    return ip == null || ip.isEmpty() ? worker.getWorkerIP() : ip;
+  }
+
+  private File ringFile(int from, int to) {
+    return new File(directory, filePrefix + "-" + from + "-" + to);
+  }
+
+  private void createSendRing(int worker) {
+    try {
+      sendRings.put(worker, SharedMemoryRing.create(ringFile(workerId, worker), ringBytes));
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to create the shared memory ring to worker "
+          + worker, e);
+    }
+  }
+
+  /**
+   * Map the ring from a worker if it has created it
+   */
+  private SharedMemoryRing receiveRing(int worker) {
+    SharedMemoryRing ring = receiveRings.get(worker);
+    if (ring == null) {
+      File file = ringFile(worker, workerId);
+      Long restarted = restartTimes.get(worker);
+      if (restarted != null && file.lastModified() < restarted) {
+        // this is the ring of the previous incarnation of the worker
+        return null;
+      }
+      try {
+        ring = SharedMemoryRing.open(file);
+      } catch (IOException e) {
+        throw new Twister2RuntimeException("Failed to open the shared memory ring from worker "
+            + worker, e);
+      }
+      if (ring != null) {
+        receiveRings.put(worker, ring);
+        restartTimes.remove(worker);
+      }
+    }
+    return ring;
+  }
+
+  @Override
+  public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+    if (!localWorkers.contains(id)) {
+      return delegate.sendMessage(id, message, callback);
+    }
+    if (pendingSendCount >= maxPendingSends) {
+      return false;
+    }
+    pendingSends.computeIfAbsent(id, k -> new ArrayDeque<>())
+        .add(new SendRequest(id, message, callback));
+    pendingSendCount++;
+    return true;
+  }
+
+  @Override
+  public boolean receiveMessage(int group, int id, int edge,
+                                ChannelListener callback, Queue<DataBuffer> receiveBuffers) {
+    if (!localWorkers.contains(id)) {
+      return delegate.receiveMessage(group, id, edge, callback, receiveBuffers);
+    }
+    ReceiveRequest request = receives.computeIfAbsent(id, k -> new HashMap<>())
+        .computeIfAbsent(edge, k -> new ReceiveRequest());
+    request.callback = callback;
+    request.availableBuffers = receiveBuffers;
+    return true;
+  }
+
+  @Override
+  public void progress() {
+    delegate.progress();
+    progressLocalSends();
+    progressLocalReceives();
+  }
+
+  @Override
+  public void progressSends() {
+    delegate.progressSends();
+    progressLocalSends();
+  }
+
+  @Override
+  public void progressReceives(int group) {
+    delegate.progressReceives(group);
+    progressLocalReceives();
+  }
+
+  private void progressLocalSends() {
+    if (pendingSendCount == 0) {
+      return;
+    }
+    for (Queue<SendRequest> queue : pendingSends.values()) {
+      SendRequest request;
+      while ((request = queue.peek()) != null) {
+        SharedMemoryRing ring = sendRings.get(request.worker);
+        List<DataBuffer> buffers = request.message.getNormalBuffers();
+        int edge = request.message.getHeader().getEdge();
+        while (request.nextBuffer < buffers.size()) {
+          DataBuffer buffer = buffers.get(request.nextBuffer);
+          if (buffer.getSize() > ring.maxMessageSize()) {
+            throw new Twister2RuntimeException("A buffer of " + buffer.getSize()
+                + " bytes does not fit in the shared memory ring, increase "
+                + SharedMemoryContext.SHM_RING_BYTES);
+          }
+          if (!ring.offer(edge, buffer.getByteBuffer(), buffer.getSize())) {
+            break;
+          }
+          bytesSent.inc(buffer.getSize());
+          request.nextBuffer++;
+        }
+        if (request.nextBuffer < buffers.size()) {
+          break;
+        }
+        queue.poll();
+        pendingSendCount--;
+        completions++;
+        request.callback.onSendComplete(request.worker, edge, request.message);
+      }
+    }
+  }
+
+  private void progressLocalReceives() {
+    for (int worker : localWorkers) {
+      Map<Integer, ReceiveRequest> edges = receives.get(worker);
+      if (edges != null) {
+        for (Map.Entry<Integer, ReceiveRequest> e : edges.entrySet()) {
+          deliverPending(worker, e.getKey(), e.getValue());
+        }
+      }
+
+      SharedMemoryRing ring = receiveRing(worker);
+      if (ring == null) {
+        continue;
+      }
+      while (!ring.isEmpty()) {
+        int edge = ring.peekEdge();
+        ReceiveRequest request = receives.computeIfAbsent(worker, k -> new HashMap<>())
+            .computeIfAbsent(edge, k -> new ReceiveRequest());
+        DataBuffer buffer = null;
+        if (request.callback != null && request.pending.isEmpty()) {
+          buffer = request.availableBuffers.poll();
+        }
+
+        if (buffer != null) {
+          int length = ring.peekLength();
+          if (length > buffer.getCapacity()) {
+            throw new Twister2RuntimeException("A message of " + length
+                + " bytes does not fit in the receive buffer of edge " + edge);
+          }
+          ring.poll(buffer.getByteBuffer());
+          buffer.setSize(length);
+          bytesReceived.inc(length);
+          completions++;
+          request.callback.onReceiveComplete(worker, edge, buffer);
+        } else {
+          if (request.pending.size() >= maxPendingReceives
+              && overflowReceives(worker) >= maxOverflowReceives) {
+            // the receivers are lagging, leave the rest in the ring until they catch up
+            break;
+          }
+          // copy out so that the ring is not blocked by this edge
+          ByteBuffer copy = ByteBuffer.allocate(ring.peekLength());
+          ring.poll(copy);
+          request.pending.add(copy);
+        }
+      }
+    }
+  }
+
+  /**
+   * Number of buffers copied to the heap over the quotas of the edges from a worker
+   */
+  private int overflowReceives(int worker) {
+    int overflow = 0;
+    for (ReceiveRequest request : receives.get(worker).values()) {
+      overflow += Math.max(0, request.pending.size() - maxPendingReceives);
+    }
+    return overflow;
+  }
+
+  private void deliverPending(int worker, int edge, ReceiveRequest request) {
+    while (request.callback != null && !request.pending.isEmpty()) {
+      DataBuffer buffer = request.availableBuffers.poll();
+      if (buffer == null) {
+        return;
+      }
+      ByteBuffer bytes = request.pending.poll();
+      int length = bytes.remaining();
+      if (length > buffer.getCapacity()) {
+        throw new Twister2RuntimeException("A message of " + length
+            + " bytes does not fit in the receive buffer of edge " + edge);
+      }
+      ByteBuffer target = buffer.getByteBuffer();
+      target.clear();
+      target.put(bytes);
+      target.flip();
+      buffer.setSize(length);
+      bytesReceived.inc(length);
+      completions++;
+      request.callback.onReceiveComplete(worker, edge, buffer);
+    }
+  }
+
+  @Override
+  public boolean isComplete() {
+    return pendingSendCount == 0 && delegate.isComplete();
+  }
+
+  @Override
+  public long getCompletions() {
+    long remote = delegate.getCompletions();
+    return remote < 0 ? completions : completions + remote;
+  }
+
+  @Override
+  public ByteBuffer createBuffer(int capacity) {
+    return delegate.createBuffer(capacity);
+  }
+
+  @Override
+  public void close() {
+    while (pendingSendCount > 0) {
+      progress();
+    }
+    delegate.close();
+    for (SharedMemoryRing ring : sendRings.values()) {
+      ring.close();
+    }
+    for (SharedMemoryRing ring : receiveRings.values()) {
+      ring.close();
+    }
+    sendRings.clear();
+    receiveRings.clear();
+    MetricsRegistry.getInstance().removeAll("comms.shm");
+  }
+
+  @Override
+  public void releaseBuffers(int wId, int e) {
+    if (!localWorkers.contains(wId)) {
+      delegate.releaseBuffers(wId, e);
+      return;
+    }
+    Map<Integer, ReceiveRequest> edges = receives.get(wId);
+    if (edges != null) {
+      edges.remove(e);
+    }
+  }
+
+  @Override
+  public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+    long now = System.currentTimeMillis();
+    for (JobMasterAPI.WorkerInfo w : restartedWorkers) {
+      int id = w.getWorkerID();
+      if (!localWorkers.contains(id)) {
+        continue;
+      }
+      // the restarted worker maps new rings, and creates new rings for us after the barrier
+      SharedMemoryRing ring = sendRings.remove(id);
+      if (ring != null) {
+        ring.close();
+      }
+      createSendRing(id);
+      ring = receiveRings.remove(id);
+      if (ring != null) {
+        ring.close();
+      }
+      restartTimes.put(id, now);
+    }
+    delegate.reInit(restartedWorkers);
+  }
+}
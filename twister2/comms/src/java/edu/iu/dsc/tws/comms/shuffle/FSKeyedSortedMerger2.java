@@ -13,11 +13,11 @@ package edu.iu.dsc.tws.comms.shuffle;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
@@ -28,15 +28,40 @@ import java.util.logging.Logger;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.util.CommonThreadPool;
+import edu.iu.dsc.tws.comms.compress.BlockCodec;
+import edu.iu.dsc.tws.comms.compress.BlockCompressor;
 
 /**
- * Sorted merger implementation
- * todo add support to handling large values. When tuples have large values, since we are
- * opening multiple files at the same time, when reading, this implementation overloads heap
+ * Sorted merger implementation. The records that do not fit in to memory are sorted and written
+ * to files in the background. When reading, the records in memory are sorted in parallel chunks
+ * and all the sorted runs are merged with a {@link LoserTree}. Each file is read through a
+ * bounded buffer, and if there are more files than the merge fan in, they are first merged in
+ * to larger files in multiple passes. The values are kept serialized until they are returned.
  */
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class FSKeyedSortedMerger2 implements Shuffle {
   private static final Logger LOG = Logger.getLogger(FSKeyedSortedMerger2.class.getName());
+
+  /**
+   * Default number of runs merged at once
+   */
+  public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+  /**
+   * Minimum size of the read ahead buffer of a file
+   */
+  private static final int MIN_READ_AHEAD = 8 * 1024;
+
+  /**
+   * Maximum size of the read ahead buffer of a file
+   */
+  private static final int MAX_READ_AHEAD = 1024 * 1024;
+
+  /**
+   * We don't split the in memory records to chunks smaller than this for sorting
+   */
+  private static final int MIN_SORT_CHUNK = 8 * 1024;
+
   /**
    * Maximum bytes to keep in memory
    */
@@ -64,11 +89,31 @@ public class FSKeyedSortedMerger2 implements Shuffle {
    */
   private int noOfFileWritten = 0;
 
+  /**
+   * The files holding the sorted runs, after merging some of the files written
+   */
+  private List<Integer> runFiles = new ArrayList<>();
+
+  /**
+   * Maximum number of runs merged at once
+   */
+  private int mergeFanIn;
+
   /**
    * List of bytes in the memory so far
    */
   private ArrayList<Tuple> recordsInMemory;
 
+  /**
+   * The records in memory, sorted in chunks when switching to reading
+   */
+  private Tuple[] sortedRecords = new Tuple[0];
+
+  /**
+   * Boundaries of the sorted chunks in sortedRecords
+   */
+  private int[] sortedChunks = new int[]{0};
+
   /**
    * Temporary hold the tuples that needs to be sent to the disk
    */
@@ -77,7 +122,7 @@ public class FSKeyedSortedMerger2 implements Shuffle {
   /**
    * Maximum size of a tuple written to disk in each file
    */
-  private AtomicLong largestTupleSizeRecorded = new AtomicLong(Long.MIN_VALUE);
+  private AtomicLong largestTupleSizeRecorded = new AtomicLong(0);
 
   /**
    * Amount of bytes in the memory
@@ -106,11 +151,37 @@ public class FSKeyedSortedMerger2 implements Shuffle {
   private final Object exclusiveAccess = new Object();
   private volatile Semaphore fileWriteLock = new Semaphore(1);
 
+  /**
+   * The readers created for iterating, kept for closing the files
+   */
+  private List<RunReader> openReaders = new ArrayList<>();
+
   /**
    * The id of the task
    */
   private int target;
 
+  /**
+   * Codec used to compress the files, null if they are not compressed
+   */
+  private BlockCodec codec;
+
+  /**
+   * Blocks are compressed only if they reach this ratio
+   */
+  private double compressionMinRatio;
+
+  /**
+   * Size of the compressed blocks
+   */
+  private int compressionBlockSize;
+
+  /**
+   * Bytes given to the compressors and bytes written by them
+   */
+  private AtomicLong rawBytesWritten = new AtomicLong(0);
+  private AtomicLong storedBytesWritten = new AtomicLong(0);
+
   private enum FSStatus {
     WRITING_MEMORY,
     WRITING_DISK,
@@ -127,6 +198,20 @@ public class FSKeyedSortedMerger2 implements Shuffle {
                               String dir, String opName, MessageType kType,
                               MessageType dType, Comparator kComparator,
                               int tar, boolean groupByKey, int parallelIOAllowance) {
+    this(maxBytesInMemory, maxBytesToAFile, dir, opName, kType, dType, kComparator, tar,
+        groupByKey, parallelIOAllowance, DEFAULT_MERGE_FAN_IN);
+  }
+
+  /**
+   * Create a key based sorted merger
+   *
+   * @param mergeFanIn maximum number of files merged at once
+   */
+  public FSKeyedSortedMerger2(long maxBytesInMemory, long maxBytesToAFile,
+                              String dir, String opName, MessageType kType,
+                              MessageType dType, Comparator kComparator,
+                              int tar, boolean groupByKey, int parallelIOAllowance,
+                              int mergeFanIn) {
     this.maxBytesToKeepInMemory = maxBytesInMemory;
     this.maxBytesFile = maxBytesToAFile;
     this.groupByKey = groupByKey;
@@ -142,12 +227,48 @@ public class FSKeyedSortedMerger2 implements Shuffle {
     this.keyComparator = kComparator;
     this.comparatorWrapper = new ComparatorWrapper(keyComparator);
     this.parallelIOAllowance = parallelIOAllowance;
+    this.mergeFanIn = Math.max(mergeFanIn, 2);
 
     this.concurrentIOs = new Semaphore(parallelIOAllowance);
 
     this.target = tar;
     LOG.info("Disk merger configured. Folder : " + folder
-        + ", Bytes in memory :" + maxBytesInMemory + ", File size: " + maxBytesFile);
+        + ", Bytes in memory :" + maxBytesInMemory + ", File size: " + maxBytesFile
+        + ", Merge fan in: " + this.mergeFanIn);
+  }
+
+  /**
+   * Compress the files written by this merger. Should be called before adding data.
+   *
+   * @param blockCodec the codec, null to write without compressing
+   * @param minRatio a block is stored without compressing if it doesn't reach this ratio
+   * @param blockSize size of the blocks
+   */
+  public void setCompression(BlockCodec blockCodec, double minRatio, int blockSize) {
+    this.codec = blockCodec;
+    this.compressionMinRatio = minRatio;
+    this.compressionBlockSize = blockSize;
+  }
+
+  private RunFileWriter createWriter(String fileName) {
+    if (codec == null) {
+      return new RunFileWriter(fileName, keyType);
+    }
+    return new RunFileWriter(fileName, keyType,
+        new BlockCompressor(codec, compressionMinRatio), compressionBlockSize);
+  }
+
+  private void closeWriter(RunFileWriter writer) {
+    writer.close();
+    largestTupleSizeRecorded.accumulateAndGet(writer.getLargestRecord(), Math::max);
+    BlockCompressor compressor = writer.getCompressor();
+    if (compressor != null) {
+      long raw = rawBytesWritten.addAndGet(compressor.getRawBytes());
+      long stored = storedBytesWritten.addAndGet(compressor.getStoredBytes());
+      LOG.fine(String.format("Compressed %d bytes to %d in %d ms, total ratio %.3f",
+          compressor.getRawBytes(), compressor.getStoredBytes(),
+          compressor.getCompressNanos() / 1000000, stored / (double) Math.max(raw, 1)));
+    }
   }
 
   /**
@@ -211,12 +332,13 @@ public class FSKeyedSortedMerger2 implements Shuffle {
       recordsToDisk = new ArrayList<>();
       numOfBytesInMemory = 0;
 
-      // lets convert the in-memory data to objects
-      deserializeObjects();
       // lets sort the in-memory objects
       long start = System.currentTimeMillis();
-      recordsInMemory.sort(this.comparatorWrapper);
+      sortInMemory();
       LOG.info("Memory sorting time: " + (System.currentTimeMillis() - start));
+
+      // reduce the number of files so that we can merge them at once
+      mergeFiles();
     } catch (InterruptedException iex) {
       LOG.log(Level.SEVERE, "Couldn't switch to reading", iex);
       throw new RuntimeException(iex);
@@ -241,54 +363,103 @@ public class FSKeyedSortedMerger2 implements Shuffle {
     }
   }
 
-  private void deserializeObjects() {
-    int threads = CommonThreadPool.getThreadCount() + 1; //this thread is also counted
-    List<Future<Boolean>> deserializeFutures = new ArrayList<>();
-    int chunkSize = this.recordsInMemory.size() / threads;
+  /**
+   * Sort the records in memory. The records are divided in to chunks which are sorted in
+   * parallel, the chunks are merged along with the files when reading.
+   */
+  private void sortInMemory() {
+    sortedRecords = recordsInMemory.toArray(new Tuple[0]);
+    recordsInMemory = new ArrayList<>();
+
+    int threads = CommonThreadPool.isActive() ? CommonThreadPool.getThreadCount() + 1 : 1;
+    int chunks = Math.max(1, Math.min(threads, sortedRecords.length / MIN_SORT_CHUNK));
+    int chunkSize = (sortedRecords.length + chunks - 1) / chunks;
 
-    if (this.recordsInMemory.size() % threads != 0) {
-      chunkSize++;
+    sortedChunks = new int[chunks + 1];
+    for (int i = 0; i < chunks; i++) {
+      sortedChunks[i + 1] = Math.min(sortedRecords.length, sortedChunks[i] + chunkSize);
     }
 
-    for (int i = 0; i < this.recordsInMemory.size(); i += chunkSize) {
-      final int start = i;
-      final int end = Math.min(this.recordsInMemory.size(), i + chunkSize);
-      //last chunk will be processed in this thread
-      if (end == this.recordsInMemory.size()) {
-        Iterator<Tuple> itr = recordsInMemory.listIterator(start);
-        int count = 0;
-        int elements = end - start;
-        while (itr.hasNext() && count < elements) {
-          Tuple tuple = itr.next();
-          Object o = dataType.getDataPacker().unpackFromByteArray((byte[]) tuple.getValue());
-          tuple.setValue(o);
-          count++;
-        }
-      } else {
-        deserializeFutures.add(CommonThreadPool.getExecutor().submit(() -> {
-          Iterator<Tuple> itr = recordsInMemory.listIterator(start);
-          int count = 0;
-          int elements = end - start;
-          while (itr.hasNext() && count < elements) {
-            Tuple tuple = itr.next();
-            Object o = dataType.getDataPacker().unpackFromByteArray((byte[]) tuple.getValue());
-            tuple.setValue(o);
-            count++;
-          }
-          return true;
-        }));
-      }
+    List<Future<Boolean>> sortFutures = new ArrayList<>();
+    for (int i = 1; i < chunks; i++) {
+      final int from = sortedChunks[i];
+      final int to = sortedChunks[i + 1];
+      sortFutures.add(CommonThreadPool.getExecutor().submit(() -> {
+        Arrays.sort(sortedRecords, from, to, comparatorWrapper);
+        return true;
+      }));
     }
+    //first chunk will be processed in this thread
+    Arrays.sort(sortedRecords, sortedChunks[0], sortedChunks[1], comparatorWrapper);
 
-    for (int i = 0; i < deserializeFutures.size(); i++) {
+    for (Future<Boolean> f : sortFutures) {
       try {
-        deserializeFutures.get(i).get();
+        f.get();
       } catch (InterruptedException | ExecutionException e) {
-        throw new RuntimeException("Error in deserializing records in memory", e);
+        throw new RuntimeException("Error in sorting records in memory", e);
+      }
+    }
+  }
+
+  /**
+   * Merge the files in to larger files until we have at most mergeFanIn files
+   */
+  private void mergeFiles() {
+    int pass = 0;
+    while (runFiles.size() > mergeFanIn) {
+      long start = System.currentTimeMillis();
+      List<Integer> merged = new ArrayList<>();
+      for (int i = 0; i < runFiles.size(); i += mergeFanIn) {
+        List<Integer> group = runFiles.subList(i, Math.min(runFiles.size(), i + mergeFanIn));
+        if (group.size() == 1) {
+          merged.add(group.get(0));
+          continue;
+        }
+        int output = noOfFileWritten++;
+        mergeFileGroup(group, output);
+        merged.add(output);
       }
+      runFiles = merged;
+      LOG.info(String.format("Merge pass %d reduced the files to %d in %d ms", pass++,
+          runFiles.size(), System.currentTimeMillis() - start));
     }
   }
 
+  /**
+   * Merge a set of files in to a single file and delete them
+   */
+  private void mergeFileGroup(List<Integer> group, int output) {
+    List<RunReader> readers = new ArrayList<>(group.size());
+    for (Integer part : group) {
+      readers.add(new FileRunReader(getSaveFileName(part), keyType, readAheadSize(),
+          codec != null));
+    }
+
+    RunFileWriter writer = createWriter(getSaveFileName(output));
+    LoserTree tree = new LoserTree(readers, keyComparator);
+    while (tree.hasNext()) {
+      RunReader run = tree.winner();
+      byte[] value = run.currentValue();
+      writer.write(run.currentKey(), value, value.length);
+      tree.advance();
+    }
+    closeWriter(writer);
+
+    for (int i = 0; i < readers.size(); i++) {
+      readers.get(i).close();
+      deleteFile(getSaveFileName(group.get(i)));
+    }
+  }
+
+  /**
+   * Size of the read ahead buffer used for each file
+   */
+  private int readAheadSize() {
+    long perFile = maxBytesToKeepInMemory / mergeFanIn;
+    long size = Math.max(MIN_READ_AHEAD, Math.min(MAX_READ_AHEAD, perFile));
+    return (int) Math.max(size, Math.min(largestTupleSizeRecorded.get(), Integer.MAX_VALUE));
+  }
+
   /**
    * This method saves the data to file system
    */
@@ -333,6 +504,7 @@ public class FSKeyedSortedMerger2 implements Shuffle {
 
         //making previous things garbage collectible
         this.recordsToDisk = new ArrayList<>();
+        runFiles.add(noOfFiles);
         noOfFileWritten++;
         numOfBytesInMemory = 0;
       } catch (InterruptedException e) {
@@ -362,10 +534,12 @@ public class FSKeyedSortedMerger2 implements Shuffle {
       // do the sort
       referenceToRecordsInMemory.sort(comparatorWrapper);
 
-      long largestTupleWritten = FileLoader.saveKeyValues(
-          referenceToRecordsInMemory, bytesInMemory, fileName, keyType);
-      //todo get inside set?
-      largestTupleSizeRecorded.set(Math.max(largestTupleSizeRecorded.get(), largestTupleWritten));
+      RunFileWriter writer = createWriter(fileName);
+      for (Tuple tuple : referenceToRecordsInMemory) {
+        byte[] value = (byte[]) tuple.getValue();
+        writer.write(tuple.getKey(), value, value.length);
+      }
+      closeWriter(writer);
 
       concurrentIOs.release();
 
@@ -424,12 +598,19 @@ public class FSKeyedSortedMerger2 implements Shuffle {
           this.fsIterator.clearRestorePoint();
         }
 
+        private void moveToNextTuple() {
+          if (fsIterator.hasNext()) {
+            nextTuple = fsIterator.next();
+          } else {
+            nextTuple = null;
+          }
+        }
+
         private void skipKeys() {
-          //user is trying to skip keys. For now, we are iterating over them internally
+          //user is trying to skip keys, we move over them without deserializing the values
           if (this.itOfCurrentKey != null) {
-            //todo replace with an alternative approach
             while (this.itOfCurrentKey.hasNext()) {
-              this.itOfCurrentKey.next();
+              moveToNextTuple();
             }
           }
         }
@@ -453,18 +634,15 @@ public class FSKeyedSortedMerger2 implements Shuffle {
             this.itOfCurrentKey = new Iterator<Object>() {
               @Override
               public boolean hasNext() {
-                return nextTuple != null && nextTuple.getKey().equals(currentKey);
+                return nextTuple != null
+                    && keyComparator.compare(nextTuple.getKey(), currentKey) == 0;
               }
 
               @Override
               public Object next() {
                 if (this.hasNext()) {
-                  Object returnValue = nextTuple.getValue();
-                  if (fsIterator.hasNext()) {
-                    nextTuple = fsIterator.next();
-                  } else {
-                    nextTuple = null;
-                  }
+                  Object returnValue = deserialize(nextTuple);
+                  moveToNextTuple();
                   return returnValue;
                 } else {
                   throw new NoSuchElementException("There are no more values for key "
@@ -474,12 +652,8 @@ public class FSKeyedSortedMerger2 implements Shuffle {
             };
             nextValueSet.setValue(this.itOfCurrentKey);
           } else {
-            nextValueSet.setValue(nextTuple.getValue());
-            if (fsIterator.hasNext()) {
-              nextTuple = fsIterator.next();
-            } else {
-              nextTuple = null;
-            }
+            nextValueSet.setValue(deserialize(nextTuple));
+            moveToNextTuple();
           }
           return nextValueSet;
         }
@@ -490,89 +664,70 @@ public class FSKeyedSortedMerger2 implements Shuffle {
     }
   }
 
-  private class FSIterator implements RestorableIterator<Object> {
-
-    private static final String RP_SAME_KEY_READER = "SAME_KEY_READER";
-    private static final String RP_FILE_READERS = "FILE_READERS";
+  private Object deserialize(Tuple tuple) {
+    return dataType.getDataPacker().unpackFromByteArray((byte[]) tuple.getValue());
+  }
 
-    private PriorityQueue<ControlledReader<Tuple>> controlledFileReaders
-        = new PriorityQueue<>(1 + noOfFileWritten);
-    private ControlledReader<Tuple> sameKeyReader;
+  /**
+   * Merges the sorted runs, the values of the returned tuples are serialized
+   */
+  private class FSIterator implements RestorableIterator<Object> {
 
-    private RestorePoint restorePoint;
+    private LoserTree tree;
 
-    private ControlledFileReaderFlags meta;
+    private long[] restorePoint;
 
     FSIterator() {
-      this.meta = new ControlledFileReaderFlags(
-          Math.max(numOfBytesInMemory, largestTupleSizeRecorded.get()),
-          keyComparator
-      );
-      if (!recordsInMemory.isEmpty()) {
-        ControlledReader inMemoryReader = new ControlledMemoryReader(
-            recordsInMemory, keyComparator);
-        if (inMemoryReader.hasNext()) {
-          this.controlledFileReaders.add(inMemoryReader);
+      List<RunReader> runs = new ArrayList<>();
+      for (int i = 0; i < sortedChunks.length - 1; i++) {
+        if (sortedChunks[i] < sortedChunks[i + 1]) {
+          runs.add(new MemoryRunReader(Arrays.asList(sortedRecords),
+              sortedChunks[i], sortedChunks[i + 1]));
         }
       }
 
-      for (int i = 0; i < noOfFileWritten; i++) {
-        ControlledFileReader fr = new ControlledFileReader(
-            meta,
-            getSaveFileName(i),
-            keyType,
-            dataType,
-            keyComparator
-        );
-        if (fr.hasNext()) {
-          controlledFileReaders.add(fr);
+      int readAhead = readAheadSize();
+      for (Integer part : runFiles) {
+        FileRunReader fr = new FileRunReader(getSaveFileName(part), keyType, readAhead,
+            codec != null);
+        if (fr.hasCurrent()) {
+          runs.add(fr);
         } else {
           //done with this file
-          fr.releaseResources();
-          LOG.warning("Found a controlled file reader without any data");
+          fr.close();
+          LOG.warning("Found a file without any data");
         }
       }
+      synchronized (openReaders) {
+        openReaders.addAll(runs);
+      }
+      this.tree = new LoserTree(runs, keyComparator);
     }
 
     @Override
     public boolean hasNext() {
-      return this.sameKeyReader != null || !controlledFileReaders.isEmpty();
+      return tree.hasNext();
     }
 
     @Override
     public Tuple next() {
-      ControlledReader<Tuple> fr = this.sameKeyReader;
-      if (fr == null || !fr.hasNext()) {
-        fr = this.controlledFileReaders.poll();
-        fr.open();
-      }
-      Tuple nextTuple = fr.next();
-      if (fr.hasNext() && nextTuple.getKey().equals(fr.nextKey())) {
-        this.sameKeyReader = fr;
-      } else if (fr.hasNext()) {
-        this.sameKeyReader = null;
-        this.controlledFileReaders.add(fr);
-      } else {
-        //done with this file
-        this.sameKeyReader = null;
-        fr.releaseResources();
+      RunReader run = tree.winner();
+      Tuple nextTuple = new Tuple(run.currentKey(), run.currentValue());
+      tree.advance();
+      if (!run.hasCurrent()) {
+        //done with this run, release the file until we restore
+        run.close();
       }
       return nextTuple;
     }
 
     @Override
     public void createRestorePoint() {
-      this.restorePoint = new RestorePoint();
-
-      if (this.sameKeyReader != null) {
-        this.sameKeyReader.createRestorePoint();
-        this.restorePoint.put(RP_SAME_KEY_READER, this.sameKeyReader);
+      RunReader[] runs = tree.getRuns();
+      this.restorePoint = new long[runs.length];
+      for (int i = 0; i < runs.length; i++) {
+        restorePoint[i] = runs[i].mark();
       }
-
-      List<ControlledReader> fileReaderList = new ArrayList<>(this.controlledFileReaders);
-      fileReaderList.forEach(ControlledReader::createRestorePoint);
-
-      this.restorePoint.put(RP_FILE_READERS, fileReaderList);
     }
 
     @Override
@@ -580,20 +735,11 @@ public class FSKeyedSortedMerger2 implements Shuffle {
       if (!this.hasRestorePoint()) {
         throw new RuntimeException("Couldn't find a valid restore point to restore from.");
       }
-      this.meta.reset();
-      this.sameKeyReader = (ControlledReader) this.restorePoint.get(RP_SAME_KEY_READER);
-      if (this.sameKeyReader != null) {
-        this.sameKeyReader.restore();
+      RunReader[] runs = tree.getRuns();
+      for (int i = 0; i < runs.length; i++) {
+        runs[i].reset(restorePoint[i]);
       }
-
-      this.controlledFileReaders.clear();
-      List<ControlledReader> fileReaderList =
-          (List<ControlledReader>) this.restorePoint.get(RP_FILE_READERS);
-
-      fileReaderList.forEach(fr -> {
-        fr.restore();
-        controlledFileReaders.add(fr);
-      });
+      tree.rebuild();
     }
 
     @Override
@@ -604,8 +750,6 @@ public class FSKeyedSortedMerger2 implements Shuffle {
     @Override
     public void clearRestorePoint() {
       this.restorePoint = null;
-      this.controlledFileReaders.iterator()
-          .forEachRemaining(ControlledReader::clearRestorePoint);
     }
   }
 
@@ -613,20 +757,30 @@ public class FSKeyedSortedMerger2 implements Shuffle {
    * Cleanup the directories
    */
   public void clean() {
+    synchronized (openReaders) {
+      openReaders.forEach(RunReader::close);
+      openReaders.clear();
+    }
     for (int i = 0; i < noOfFileWritten; i++) {
-      File file = new File(getSaveFileName(i));
-      if (file.exists()) {
-        boolean deleted = file.delete();
-        if (!deleted) {
-          LOG.warning("Couldn't delete file : " + file.getName());
-        }
-      }
+      deleteFile(getSaveFileName(i));
     }
+    sortedRecords = new Tuple[0];
+    sortedChunks = new int[]{0};
     File rootFolder = new File(this.getSaveFolderName());
     rootFolder.deleteOnExit();
     status = FSStatus.DONE;
   }
 
+  private void deleteFile(String fileName) {
+    File file = new File(fileName);
+    if (file.exists()) {
+      boolean deleted = file.delete();
+      if (!deleted) {
+        LOG.warning("Couldn't delete file : " + file.getName());
+      }
+    }
+  }
+
   /**
    * Get the file name to save the current part
    *
@@ -645,14 +799,4 @@ public class FSKeyedSortedMerger2 implements Shuffle {
   private String getSaveFileName(int filePart) {
     return this.getSaveFolderName() + "/part_" + filePart;
   }
-
-  /**
-   * Get the name of the sizes file name
-   *
-   * @param filePart file part index
-   * @return filename
-   */
-  private String getSizesFileName(int filePart) {
-    return folder + "/" + operationName + "/part_sizes_" + filePart;
-  }
 }
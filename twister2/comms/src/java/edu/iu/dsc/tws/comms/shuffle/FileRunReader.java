@@ -0,0 +1,247 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.comms.compress.BlockFileReader;
+
+/**
+ * Reads a sorted run written by {@link RunFileWriter}. Only a bounded read ahead buffer is kept in
+ * memory, the buffer is grown only when a single record does not fit in to it.
+ */
+public class FileRunReader implements RunReader {
+  private static final Logger LOG = Logger.getLogger(FileRunReader.class.getName());
+
+  /**
+   * The file
+   */
+  private final String fileName;
+
+  /**
+   * Key type
+   */
+  private final MessageType keyType;
+
+  /**
+   * Size of the keys if they are of fixed size, otherwise -1
+   */
+  private final int fixedKeySize;
+
+  /**
+   * The read ahead buffer
+   */
+  private ByteBuffer buffer;
+
+  /**
+   * File position of the first byte in the buffer
+   */
+  private long bufferStart;
+
+  /**
+   * The channel, closed when the run is exhausted and opened again if we go back
+   */
+  private FileChannel channel;
+
+  /**
+   * Weather the file is written as compressed blocks
+   */
+  private final boolean compressed;
+
+  /**
+   * Reads the compressed blocks, positions are in the uncompressed data
+   */
+  private BlockFileReader blockReader;
+
+  /**
+   * Size of the file
+   */
+  private long fileSize;
+
+  /**
+   * Position of the current record
+   */
+  private long position;
+
+  /**
+   * Position of the next record
+   */
+  private long nextPosition;
+
+  /**
+   * Current key
+   */
+  private Object key;
+
+  /**
+   * Current value
+   */
+  private byte[] value;
+
+  public FileRunReader(String fileName, MessageType keyType, int readAheadSize) {
+    this(fileName, keyType, readAheadSize, false);
+  }
+
+  /**
+   * Create a reader
+   *
+   * @param compressed weather the file was written with a compressor
+   */
+  public FileRunReader(String fileName, MessageType keyType, int readAheadSize,
+                       boolean compressed) {
+    this.fileName = fileName;
+    this.compressed = compressed;
+    this.keyType = keyType;
+    this.fixedKeySize = RunFileWriter.fixedKeySize(keyType);
+    this.buffer = ByteBuffer.allocate(readAheadSize);
+    this.buffer.limit(0);
+    open();
+    this.fileSize = size();
+    reset(0);
+  }
+
+  @Override
+  public boolean hasCurrent() {
+    return position < fileSize;
+  }
+
+  @Override
+  public Object currentKey() {
+    return key;
+  }
+
+  @Override
+  public byte[] currentValue() {
+    return value;
+  }
+
+  @Override
+  public void advance() {
+    reset(nextPosition);
+  }
+
+  @Override
+  public long mark() {
+    return position;
+  }
+
+  @Override
+  public void reset(long pos) {
+    this.position = pos;
+    if (pos >= fileSize) {
+      key = null;
+      value = null;
+      return;
+    }
+
+    long current = pos;
+    int keySize = fixedKeySize;
+    if (keySize < 0) {
+      keySize = ensure(current, Integer.BYTES).getInt((int) (current - bufferStart));
+      current += Integer.BYTES;
+    }
+    ByteBuffer keyBuffer = ensure(current, keySize + Integer.BYTES);
+    key = keyType.getDataPacker().unpackFromBuffer(keyBuffer,
+        (int) (current - bufferStart), keySize);
+    current += keySize;
+
+    int valueSize = keyBuffer.getInt((int) (current - bufferStart));
+    current += Integer.BYTES;
+    ByteBuffer valueBuffer = ensure(current, valueSize);
+    value = new byte[valueSize];
+    ByteBuffer view = valueBuffer.duplicate();
+    view.position((int) (current - bufferStart));
+    view.get(value);
+    nextPosition = current + valueSize;
+  }
+
+  /**
+   * Make sure the bytes from the position are in the buffer
+   *
+   * @param pos file position
+   * @param length number of bytes
+   * @return the buffer
+   */
+  private ByteBuffer ensure(long pos, int length) {
+    if (pos >= bufferStart && pos + length <= bufferStart + buffer.limit()) {
+      return buffer;
+    }
+
+    if (channel == null) {
+      open();
+    }
+    if (length > buffer.capacity()) {
+      buffer = ByteBuffer.allocate(length);
+    }
+    try {
+      buffer.clear();
+      long readPosition = pos;
+      while (buffer.hasRemaining()) {
+        int read = compressed ? blockReader.read(buffer, readPosition)
+            : channel.read(buffer, readPosition);
+        if (read < 0) {
+          break;
+        }
+        readPosition += read;
+      }
+      buffer.flip();
+      bufferStart = pos;
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Failed to read from the file " + fileName, e);
+      throw new RuntimeException(e);
+    }
+    if (buffer.limit() < length) {
+      throw new RuntimeException(String.format("Unexpected end of file %s at %d, expected %d "
+          + "bytes", fileName, pos, length));
+    }
+    return buffer;
+  }
+
+  private void open() {
+    try {
+      channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+      if (compressed) {
+        blockReader = new BlockFileReader(channel);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open the file " + fileName, e);
+    }
+  }
+
+  private long size() {
+    try {
+      return compressed ? blockReader.size() : channel.size();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to get the size of the file " + fileName, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (channel != null) {
+        channel.close();
+        channel = null;
+        blockReader = null;
+      }
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Failed to close the file " + fileName, e);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A loser tree used for merging k sorted runs. Selecting the next record costs log(k)
+ * comparisons, and unlike a heap, each level compares only against the loser stored in the
+ * node, so the winner can be replaced without a sift down.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class LoserTree {
+  /**
+   * The runs
+   */
+  private final RunReader[] runs;
+
+  /**
+   * Internal nodes hold the index of the loser, tree[0] holds the overall winner
+   */
+  private final int[] tree;
+
+  /**
+   * Key comparator
+   */
+  private final Comparator comparator;
+
+  public LoserTree(List<RunReader> runList, Comparator comparator) {
+    this.runs = runList.toArray(new RunReader[0]);
+    this.tree = new int[Math.max(runs.length, 1)];
+    this.comparator = comparator;
+    rebuild();
+  }
+
+  /**
+   * Build the tree from the current positions of the runs
+   */
+  public void rebuild() {
+    if (runs.length == 0) {
+      tree[0] = -1;
+      return;
+    }
+    // -1 acts as a key smaller than every other key, so that the first pass fills the tree
+    for (int i = 0; i < tree.length; i++) {
+      tree[i] = -1;
+    }
+    for (int s = runs.length - 1; s >= 0; s--) {
+      adjust(s);
+    }
+  }
+
+  /**
+   * Weather there are more records
+   *
+   * @return true if the winner run is not exhausted
+   */
+  public boolean hasNext() {
+    return tree[0] >= 0 && runs[tree[0]].hasCurrent();
+  }
+
+  /**
+   * The run holding the smallest record
+   *
+   * @return the run
+   */
+  public RunReader winner() {
+    return runs[tree[0]];
+  }
+
+  /**
+   * Move the winning run to its next record and select the new winner
+   */
+  public void advance() {
+    int w = tree[0];
+    runs[w].advance();
+    adjust(w);
+  }
+
+  /**
+   * The runs of this tree
+   *
+   * @return the runs
+   */
+  public RunReader[] getRuns() {
+    return runs;
+  }
+
+  private void adjust(int s) {
+    int k = runs.length;
+    int winner = s;
+    for (int t = (s + k) >> 1; t > 0; t >>= 1) {
+      if (tree[t] == -1 || less(tree[t], winner)) {
+        int tmp = tree[t];
+        tree[t] = winner;
+        winner = tmp;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /**
+   * Compare the current records of two runs, exhausted runs are larger than everything and the
+   * ties are broken by the run index to keep the merge stable
+   */
+  private boolean less(int a, int b) {
+    if (b == -1) {
+      return false;
+    }
+    RunReader ra = runs[a];
+    RunReader rb = runs[b];
+    if (!ra.hasCurrent()) {
+      return false;
+    }
+    if (!rb.hasCurrent()) {
+      return true;
+    }
+    int c = comparator.compare(ra.currentKey(), rb.currentKey());
+    return c < 0 || (c == 0 && a < b);
+  }
+}
@@ -0,0 +1,76 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.util.List;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+/**
+ * Reads a sorted range of tuples kept in memory. The values of the tuples are serialized.
+ */
+public class MemoryRunReader implements RunReader {
+  /**
+   * The tuples
+   */
+  private final List<Tuple> records;
+
+  /**
+   * End of the range, exclusive
+   */
+  private final int end;
+
+  /**
+   * The current index
+   */
+  private int index;
+
+  public MemoryRunReader(List<Tuple> records, int start, int end) {
+    this.records = records;
+    this.index = start;
+    this.end = end;
+  }
+
+  @Override
+  public boolean hasCurrent() {
+    return index < end;
+  }
+
+  @Override
+  public Object currentKey() {
+    return records.get(index).getKey();
+  }
+
+  @Override
+  public byte[] currentValue() {
+    return (byte[]) records.get(index).getValue();
+  }
+
+  @Override
+  public void advance() {
+    index++;
+  }
+
+  @Override
+  public long mark() {
+    return index;
+  }
+
+  @Override
+  public void reset(long position) {
+    this.index = (int) position;
+  }
+
+  @Override
+  public void close() {
+  }
+}
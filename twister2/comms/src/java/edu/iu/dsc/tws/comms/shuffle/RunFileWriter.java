@@ -0,0 +1,169 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.comms.compress.BlockCompressor;
+import edu.iu.dsc.tws.comms.compress.BlockOutputStream;
+
+/**
+ * Writes a sorted run of key value pairs to a file. Each record is written as the key, followed
+ * by the length of the value and the value bytes. Keys of fixed size primitive types are written
+ * as they are, other keys are prefixed by their length.
+ *
+ * If a compressor is given, the file is written as compressed blocks which should be read by a
+ * {@link FileRunReader} created for compressed files.
+ */
+public class RunFileWriter {
+  private static final Logger LOG = Logger.getLogger(RunFileWriter.class.getName());
+
+  /**
+   * Size of the write buffer
+   */
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The file
+   */
+  private final String fileName;
+
+  /**
+   * Key type
+   */
+  private final MessageType keyType;
+
+  /**
+   * Size of the keys if they are of fixed size, otherwise -1
+   */
+  private final int fixedKeySize;
+
+  /**
+   * The output stream
+   */
+  private DataOutputStream out;
+
+  /**
+   * Size of the largest record written
+   */
+  private long largestRecord = 0;
+
+  /**
+   * The compressor, null if the file is not compressed
+   */
+  private final BlockCompressor compressor;
+
+  public RunFileWriter(String fileName, MessageType keyType) {
+    this(fileName, keyType, null, 0);
+  }
+
+  /**
+   * Create a writer which compresses the file
+   *
+   * @param compressor the compressor, null to write without compressing
+   * @param blockSize size of the blocks compressed
+   */
+  public RunFileWriter(String fileName, MessageType keyType, BlockCompressor compressor,
+                       int blockSize) {
+    this.fileName = fileName;
+    this.keyType = keyType;
+    this.fixedKeySize = fixedKeySize(keyType);
+    this.compressor = compressor;
+    try {
+      Files.createDirectories(Paths.get(fileName).getParent());
+      OutputStream file = new FileOutputStream(fileName);
+      if (compressor != null) {
+        // the block stream does the buffering
+        this.out = new DataOutputStream(new BlockOutputStream(file, compressor, blockSize));
+      } else {
+        this.out = new DataOutputStream(new BufferedOutputStream(file, WRITE_BUFFER_SIZE));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to create the file " + fileName, e);
+    }
+  }
+
+  /**
+   * Size of the serialized keys, if all the keys of this type have the same size
+   *
+   * @param keyType key type
+   * @return the size or -1 if the keys can be of different sizes
+   */
+  static int fixedKeySize(MessageType keyType) {
+    if (keyType.isPrimitive() && !keyType.isArray()) {
+      return keyType.getUnitSizeInBytes();
+    }
+    return -1;
+  }
+
+  /**
+   * Write a record
+   *
+   * @param key the key
+   * @param value serialized value
+   * @param length number of bytes of the value
+   */
+  public void write(Object key, byte[] value, int length) {
+    try {
+      byte[] keyBytes = keyType.getDataPacker().packToByteArray(key);
+      long recordSize = keyBytes.length + Integer.BYTES + length;
+      if (fixedKeySize < 0) {
+        out.writeInt(keyBytes.length);
+        recordSize += Integer.BYTES;
+      }
+      out.write(keyBytes);
+      out.writeInt(length);
+      out.write(value, 0, length);
+      largestRecord = Math.max(largestRecord, recordSize);
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Failed to write to the file " + fileName, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Size of the largest record written so far
+   *
+   * @return size in bytes
+   */
+  public long getLargestRecord() {
+    return largestRecord;
+  }
+
+  /**
+   * The compressor used, null if the file is not compressed
+   */
+  public BlockCompressor getCompressor() {
+    return compressor;
+  }
+
+  /**
+   * Flush and close the file
+   */
+  public void close() {
+    try {
+      out.close();
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Failed to close the file " + fileName, e);
+      throw new RuntimeException(e);
+    }
+  }
+}
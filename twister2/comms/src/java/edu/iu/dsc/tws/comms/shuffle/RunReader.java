@@ -0,0 +1,64 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+/**
+ * Reads a sorted run of serialized key value pairs, one record at a time. The keys are
+ * deserialized so that they can be compared, the values are kept serialized until they are
+ * needed.
+ */
+public interface RunReader {
+  /**
+   * Weather there is a current record
+   *
+   * @return true if the run is not exhausted
+   */
+  boolean hasCurrent();
+
+  /**
+   * The key of the current record
+   *
+   * @return the key
+   */
+  Object currentKey();
+
+  /**
+   * The serialized value of the current record
+   *
+   * @return the value bytes
+   */
+  byte[] currentValue();
+
+  /**
+   * Move to the next record
+   */
+  void advance();
+
+  /**
+   * The position of the current record, which can be given to {@link #reset(long)}
+   *
+   * @return the position
+   */
+  long mark();
+
+  /**
+   * Go back to a position returned by {@link #mark()}
+   *
+   * @param position the position
+   */
+  void reset(long position);
+
+  /**
+   * Release the resources held by the reader
+   */
+  void close();
+}
@@ -11,6 +11,7 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.comms.stream;
 
+import java.util.List;
 import java.util.Set;
 
 import edu.iu.dsc.tws.api.comms.BaseOperation;
@@ -22,6 +23,7 @@ import edu.iu.dsc.tws.api.comms.SingularReceiver;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
 import edu.iu.dsc.tws.comms.dfw.AllReduce;
+import edu.iu.dsc.tws.comms.dfw.SegmentedAllReduce;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 
 /**
@@ -51,12 +53,25 @@ public class SAllReduce extends BaseOperation {
       throw new IllegalArgumentException("The destination cannot be empty");
     }
 
-    int middleTask = comm.nextId();
-    int firstSource = sources.iterator().next();
-    plan.addLogicalIdToWorker(plan.getWorkerForForLogicalId(firstSource), middleTask);
+    List<Integer> workers = SegmentedAllReduce.participatingWorkers(comm.getConfig(), plan,
+        sources, targets, dataType);
+    if (workers != null) {
+      // a logical id for each worker to exchange the segments
+      int[] workerTasks = new int[workers.size()];
+      for (int i = 0; i < workers.size(); i++) {
+        workerTasks[i] = comm.nextId();
+        plan.addLogicalIdToWorker(workers.get(i), workerTasks[i]);
+      }
+      op = new SegmentedAllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
+          workers, workerTasks, fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true);
+    } else {
+      int middleTask = comm.nextId();
+      int firstSource = sources.iterator().next();
+      plan.addLogicalIdToWorker(plan.getWorkerForForLogicalId(firstSource), middleTask);
 
-    op = new AllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
-        middleTask, fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true, messageSchema);
+      op = new AllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
+          middleTask, fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true, messageSchema);
+    }
   }
 
   public SAllReduce(Communicator comm, LogicalPlan plan,
@@ -77,4 +77,9 @@ public class SDirect extends BaseOperation {
   public boolean partition(int src, Object message, int flags) {
     return op.send(src, message, flags);
   }
+
+  @Override
+  public boolean sendWatermark(int src, long watermark) {
+    return sendWatermarkMessage(src, watermark);
+  }
 }
@@ -123,4 +123,9 @@ public class SKeyedPartition extends BaseOperation {
     }
     return send;
   }
+
+  @Override
+  public boolean sendWatermark(int src, long watermark) {
+    return sendWatermarkMessage(src, watermark);
+  }
 }
@@ -27,6 +27,8 @@ import edu.iu.dsc.tws.comms.dfw.MToNRing;
 import edu.iu.dsc.tws.comms.dfw.MToNSimple;
 import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.KReduceBatchPartialReceiver;
 import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.KReduceStreamingFinalReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.PrimitiveKReduceBatchPartialReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.PrimitiveReduceMap;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 
 /**
@@ -69,19 +71,24 @@ public class SKeyedReduce extends BaseOperation {
     super(comm, true, CommunicationContext.KEYED_REDUCE);
     this.keyType = kType;
     this.dataType = dType;
+    // primitive keys and values are reduced without boxing
+    KReduceBatchPartialReceiver partialReceiver = PrimitiveReduceMap.isSupported(fnc, kType)
+        ? new PrimitiveKReduceBatchPartialReceiver(0, fnc)
+        : new KReduceBatchPartialReceiver(0, fnc);
+    partialReceiver.setStreaming(true);
 
     if (CommunicationContext.ALLTOALL_ALGO_SIMPLE.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       this.op = new MToNSimple(comm.getConfig(), comm.getChannel(),
           plan, sources, targets,
           new KReduceStreamingFinalReceiver(fnc, rcvr, 100),
-          new KReduceBatchPartialReceiver(0, fnc), dataType, dataType,
+          partialReceiver, dataType, dataType,
           keyType, keyType, edgeId, messageSchema);
     } else if (CommunicationContext.ALLTOALL_ALGO_RING.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       this.op = new MToNRing(comm.getConfig(), comm.getChannel(),
           plan, sources, targets, new KReduceStreamingFinalReceiver(fnc, rcvr, 100),
-          new KReduceBatchPartialReceiver(0, fnc),
+          partialReceiver,
           dataType, dataType, keyType, keyType, edgeId, messageSchema);
     }
     this.destinationSelector = destSelector;
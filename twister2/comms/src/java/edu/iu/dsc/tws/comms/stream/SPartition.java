@@ -103,4 +103,9 @@ public class SPartition extends BaseOperation {
     }
     return send;
   }
+
+  @Override
+  public boolean sendWatermark(int src, long watermark) {
+    return sendWatermarkMessage(src, watermark);
+  }
 }
@@ -0,0 +1,79 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.table.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+import edu.iu.dsc.tws.common.table.ops.VectorOps;
+
+/**
+ * Partitions arrow tables column by column. The rows of each partition are collected in to a
+ * selection vector and the values are copied to the vectors of the partition in contiguous
+ * ranges using {@link VectorOps#take}. No objects are created per row.
+ */
+public final class ArrowPartitioner {
+  private ArrowPartitioner() {
+  }
+
+  /**
+   * Split the table in to partitions
+   *
+   * @param table the table
+   * @param partitionOfRow the partition of each row
+   * @param partitions number of partitions
+   * @param schema schema of the table
+   * @param allocator allocator for the new vectors
+   * @return the table of each partition, null for partitions without rows
+   */
+  public static Table[] partition(Table table, int[] partitionOfRow, int partitions,
+                                  Schema schema, BufferAllocator allocator) {
+    int rows = table.rowCount();
+    // the selection vectors of all the partitions in one array, rows of partition p are
+    // from starts[p] to starts[p + 1]
+    int[] starts = new int[partitions + 1];
+    for (int i = 0; i < rows; i++) {
+      starts[partitionOfRow[i] + 1]++;
+    }
+    for (int p = 0; p < partitions; p++) {
+      starts[p + 1] += starts[p];
+    }
+    int[] selection = new int[rows];
+    int[] next = new int[partitions];
+    System.arraycopy(starts, 0, next, 0, partitions);
+    for (int i = 0; i < rows; i++) {
+      selection[next[partitionOfRow[i]]++] = i;
+    }
+
+    Table[] tables = new Table[partitions];
+    List<ArrowColumn> columns = table.getColumns();
+    for (int p = 0; p < partitions; p++) {
+      int count = starts[p + 1] - starts[p];
+      if (count == 0) {
+        continue;
+      }
+      List<FieldVector> vectors = new ArrayList<>(columns.size());
+      for (ArrowColumn column : columns) {
+        vectors.add(VectorOps.take(column.getVector(), selection, starts[p], count, allocator));
+      }
+      tables[p] = new ArrowTable(schema, vectors);
+    }
+    return tables;
+  }
+}
@@ -11,6 +11,8 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.comms.table.ops;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -31,11 +33,11 @@ import edu.iu.dsc.tws.api.comms.LogicalPlan;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 import edu.iu.dsc.tws.api.resource.IWorkerController;
 import edu.iu.dsc.tws.common.table.ArrowColumn;
-import edu.iu.dsc.tws.common.table.ArrowTableBuilder;
 import edu.iu.dsc.tws.common.table.OneRow;
 import edu.iu.dsc.tws.common.table.Row;
 import edu.iu.dsc.tws.common.table.Table;
-import edu.iu.dsc.tws.common.table.TableBuilder;
+import edu.iu.dsc.tws.common.table.ops.VectorOps;
+import edu.iu.dsc.tws.comms.selectors.HashingSelector;
 import edu.iu.dsc.tws.comms.table.ArrowAllToAll;
 import edu.iu.dsc.tws.comms.table.ArrowCallback;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
@@ -45,7 +47,15 @@ public class STPartition extends BaseOperation {
   private ArrowAllToAll allToAll;
   private DestinationSelector selector;
   private int[] indexes;
-  private Map<Integer, TableBuilder> partitionedTables = new HashMap<>();
+  /**
+   * The targets in sorted order, rows are partitioned to the indexes of this list
+   */
+  private List<Integer> targetList;
+  private Map<Integer, Integer> targetIndexes = new HashMap<>();
+  /**
+   * Hash the key columns of the tables directly instead of calling the selector for each row
+   */
+  private boolean hashPartition;
   private Map<Integer, Queue<Table>> inputs = new HashMap<>();
   private boolean finished = false;
   private Set<Integer> finishedSources = new HashSet<>();
@@ -89,6 +99,12 @@ public class STPartition extends BaseOperation {
       this.indexes = ArrayUtils.toPrimitive(indexes.toArray(new Integer[0]));
     }
     this.selector.prepare(comm, sources, targets);
+    this.hashPartition = selector instanceof HashingSelector;
+    this.targetList = new ArrayList<>(targets);
+    Collections.sort(targetList);
+    for (int i = 0; i < targetList.size(); i++) {
+      targetIndexes.put(targetList.get(i), i);
+    }
     this.schema = schema;
     this.allocator = allocator;
     for (int s : sources) {
@@ -107,46 +123,50 @@ public class STPartition extends BaseOperation {
   @Override
   public boolean isComplete() {
     for (Map.Entry<Integer, Queue<Table>> e : inputs.entrySet()) {
-      if (e.getValue().isEmpty()) {
-        continue;
-      }
-      // partition the table, default
-      Table t = e.getValue().poll();
-
-      List<ArrowColumn> columns = t.getColumns();
-      ArrowColumn col = columns.get(indexes[0]);
-      for (int i = 0; i < col.getVector().getValueCount(); i++) {
-        Row row = new OneRow(col.get(i));
-        int target = selector.next(e.getKey(), row);
-
-        TableBuilder builder = partitionedTables.get(target);
-        if (builder == null) {
-          builder = new ArrowTableBuilder(schema, allocator);
-          this.partitionedTables.put(target, builder);
-        }
-        for (int j = 0; j < columns.size(); j++) {
-          builder.getColumns().get(j).addValue(columns.get(j).get(i));
+      Table t;
+      while ((t = e.getValue().poll()) != null) {
+        Table[] partitions = ArrowPartitioner.partition(t, partitionsOfRows(e.getKey(), t),
+            targetList.size(), schema, allocator);
+        for (int p = 0; p < partitions.length; p++) {
+          if (partitions[p] != null) {
+            allToAll.insert(partitions[p], targetList.get(p));
+          }
         }
-
       }
     }
 
     if (finished) {
-      for (Map.Entry<Integer, TableBuilder> e : partitionedTables.entrySet()) {
-        Table t = e.getValue().build();
-        allToAll.insert(t, e.getKey());
-      }
-
-      // clear the tables, so we won't build the tables again
-      partitionedTables.clear();
       for (int s : finishedSources) {
         allToAll.finish(s);
       }
       // clear so, we won't call finish again
       finishedSources.clear();
-      return allToAll.isComplete();
     }
-    return false;
+    // this sends the partitions inserted so far
+    boolean complete = allToAll.isComplete();
+    return finished && complete;
+  }
+
+  /**
+   * The index of the target in the target list for each row of the table
+   */
+  private int[] partitionsOfRows(int source, Table t) {
+    int rows = t.rowCount();
+    int[] partitions = new int[rows];
+    if (hashPartition) {
+      int[] hashes = VectorOps.hash(t, indexes);
+      for (int i = 0; i < rows; i++) {
+        partitions[i] = Math.abs(hashes[i] % targetList.size());
+      }
+      return partitions;
+    }
+
+    ArrowColumn col = t.getColumns().get(indexes[0]);
+    for (int i = 0; i < rows; i++) {
+      Row row = new OneRow(col.get(i));
+      partitions[i] = targetIndexes.get(selector.next(source, row));
+    }
+    return partitions;
   }
 
   @Override
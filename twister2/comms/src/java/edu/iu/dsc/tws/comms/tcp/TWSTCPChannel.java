@@ -28,9 +28,12 @@ import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
 import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
 import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.comms.packing.PooledBufferQueue;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.exceptions.TimeoutException;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 import edu.iu.dsc.tws.api.resource.IWorkerController;
 import edu.iu.dsc.tws.common.net.NetworkInfo;
 import edu.iu.dsc.tws.common.net.tcp.TCPChannel;
@@ -72,6 +75,10 @@ public class TWSTCPChannel implements TWSChannel {
     int edge;
     ChannelListener callback;
     Queue<DataBuffer> availableBuffers;
+    // buffers are taken from the worker wide pool, so we only post receives when needed
+    boolean pooled;
+    // the last time we received a message
+    long lastReceiveTime;
 
     TCPReceiveRequests(int rank, int e,
                        ChannelListener callback, Queue<DataBuffer> buffers) {
@@ -80,6 +87,7 @@ public class TWSTCPChannel implements TWSChannel {
       this.callback = callback;
       this.availableBuffers = buffers;
       this.pendingRequests = new IterativeLinkedList<>();
+      this.pooled = buffers instanceof PooledBufferQueue;
     }
   }
 
@@ -128,6 +136,23 @@ public class TWSTCPChannel implements TWSChannel {
    */
   private List<Pair<Integer, Integer>> pendingCloseRequests = new ArrayList<>();
 
+  /**
+   * Worker wide channel metrics
+   */
+  private Counter bytesSent;
+  private Counter bytesReceived;
+  private Counter sendsRejected;
+
+  /**
+   * Pooled receive buffers of an edge are returned after it is idle for this time
+   */
+  private long receiveIdleTime;
+
+  /**
+   * Number of sends and receives completed
+   */
+  private long completions;
+
   /**
    * Create the TCP channel
    * @param config configuration
@@ -178,6 +203,8 @@ public class TWSTCPChannel implements TWSChannel {
     this.groupedRegisteredReceives = new Int2ObjectArrayMap<>();
     this.waitForCompletionSends = new IterativeLinkedList<>();
     this.executor = wController.getWorkerInfo().getWorkerID();
+    this.receiveIdleTime = CommunicationContext.bufferPoolReceiveIdleTime(config);
+    initMetrics(config);
   }
 
   @Override
@@ -236,6 +263,8 @@ public class TWSTCPChannel implements TWSChannel {
         new TCPSendRequests(id, message.getHeader().getEdge(), message, callback));
     if (offer) {
       pendingSendCount++;
+    } else {
+      sendsRejected.inc();
     }
     return offer;
   }
@@ -259,6 +288,19 @@ public class TWSTCPChannel implements TWSChannel {
     return true;
   }
 
+  private void initMetrics(Config config) {
+    MetricsRegistry metrics = MetricsRegistry.init(config);
+    this.bytesSent = metrics.counter("comms.channel.bytes.sent");
+    this.bytesReceived = metrics.counter("comms.channel.bytes.received");
+    this.sendsRejected = metrics.counter("comms.channel.sends.rejected");
+    metrics.gauge("comms.channel.pending.sends", () -> pendingSends.size());
+    metrics.gauge("comms.channel.inflight.sends", () -> waitForCompletionSends.size());
+  }
+
+  private void removeMetrics() {
+    MetricsRegistry.getInstance().removeAll("comms.channel");
+  }
+
   @Override
   public void close() {
     // we will call the comm stop
@@ -266,6 +308,7 @@ public class TWSTCPChannel implements TWSChannel {
         || !this.pendingSends.isEmpty() || !this.waitForCompletionSends.isEmpty()) {
       this.progress();
     }
+    removeMetrics();
     channel.stop();
   }
 
@@ -279,6 +322,11 @@ public class TWSTCPChannel implements TWSChannel {
     return true;
   }
 
+  @Override
+  public long getCompletions() {
+    return completions;
+  }
+
   /**
    * Send a message to the given rank.
    *
@@ -289,6 +337,7 @@ public class TWSTCPChannel implements TWSChannel {
     for (int i = 0; i < message.getNormalBuffers().size(); i++) {
       sendCount++;
       DataBuffer buffer = message.getNormalBuffers().get(i);
+      bytesSent.inc(buffer.getSize());
       TCPMessage request = channel.iSend(buffer.getByteBuffer(), buffer.getSize(),
           requests.rank, message.getHeader().getEdge());
       // register to the loop to make communicationProgress on the send
@@ -305,6 +354,36 @@ public class TWSTCPChannel implements TWSChannel {
     }
   }
 
+  /**
+   * Post receives for an edge using pooled buffers. While messages are arriving we keep
+   * receives posted up to the quota of the edge. An idle edge returns its posted buffers to the
+   * pool and takes a buffer again only when the next message for it arrives.
+   *
+   * @param requests the receive requests of the edge
+   */
+  private void postPooledReceives(TCPReceiveRequests requests) {
+    long now = System.currentTimeMillis();
+    boolean waiting = channel.isRecvWaiting(requests.rank, requests.edge);
+    if (waiting) {
+      requests.lastReceiveTime = now;
+    }
+
+    if (now - requests.lastReceiveTime < receiveIdleTime) {
+      if (requests.availableBuffers.size() > 0) {
+        postReceive(requests);
+      }
+    } else if (requests.pendingRequests.size() > 0) {
+      IterativeLinkedList.ILLIterator itr = requests.pendingRequests.iterator();
+      while (itr.hasNext()) {
+        Request r = (Request) itr.next();
+        if (!r.request.isComplete() && channel.cancelRecv(r.request, requests.rank)) {
+          itr.remove();
+          requests.availableBuffers.offer(r.buffer);
+        }
+      }
+    }
+  }
+
   /**
    * Post the receive request to MPI
    *
@@ -321,8 +400,10 @@ public class TWSTCPChannel implements TWSChannel {
     for (int i = 0; i < requests.size(); i++) {
       TCPReceiveRequests receiveRequests = requests.get(i);
 
-      // okay we have more buffers to be posted
-      if (receiveRequests.availableBuffers.size() > 0) {
+      if (receiveRequests.pooled) {
+        postPooledReceives(receiveRequests);
+      } else if (receiveRequests.availableBuffers.size() > 0) {
+        // okay we have more buffers to be posted
         postReceive(receiveRequests);
       }
 
@@ -336,8 +417,13 @@ public class TWSTCPChannel implements TWSChannel {
         if (r.request.isComplete()) {
           // lets call the callback about the receive complete
           r.buffer.setSize(r.buffer.getByteBuffer().limit());
+          bytesReceived.inc(r.buffer.getSize());
+          if (receiveRequests.pooled) {
+            receiveRequests.lastReceiveTime = System.currentTimeMillis();
+          }
 
           //We do not have any buffers to receive messages so we need to free a buffer
+          completions++;
           receiveRequests.callback.onReceiveComplete(
               receiveRequests.rank, receiveRequests.edge, r.buffer);
           requestIterator.remove();
@@ -388,6 +474,7 @@ public class TWSTCPChannel implements TWSChannel {
       // if the message if fully sent, lets call the callback
       // ideally we should be able to call for each finish of the buffer
       if (sendRequests.pendingSends.size() == 0) {
+        completions++;
         sendRequests.callback.onSendComplete(sendRequests.rank,
             sendRequests.edge, sendRequests.message);
         sendRequestsIterator.remove();
@@ -75,6 +75,11 @@ public class TWSUCXChannel implements TWSChannel {
 
   private int workerId;
 
+  /**
+   * Number of sends and receives completed
+   */
+  private long completions;
+
   private int tagWIdOffset = 100000;
 
   private List<ReceiveProgress> receiveProgresses = new ArrayList<>();
@@ -137,6 +142,7 @@ public class TWSUCXChannel implements TWSChannel {
             public void onSuccess(UcpRequest request) {
               pendingSendRequests.decrementAndGet();
               if (buffersLeft.decrementAndGet() == 0) {
+                completions++;
                 callback.onSendComplete(id, message.getHeader().getEdge(), message);
               }
             }
@@ -217,6 +223,7 @@ public class TWSUCXChannel implements TWSChannel {
                         recvBuffer.getByteBuffer().getInt(0)));
                 recvBuffer.setSize((int) request.getRecvSize());
                 requestsMap.remove(requestId);
+                completions++;
                 callback.onReceiveComplete(id, edge, recvBuffer);
               }
 
@@ -273,6 +280,11 @@ public class TWSUCXChannel implements TWSChannel {
     return pendingSendRequests.get() == 0;
   }
 
+  @Override
+  public long getCompletions() {
+    return completions;
+  }
+
   @Override
   public ByteBuffer createBuffer(int capacity) {
     return ByteBuffer.allocateDirect(capacity);
@@ -0,0 +1,566 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.structs.JoinedTuple;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.comms.shuffle.FileRunReader;
+import edu.iu.dsc.tws.comms.shuffle.RunFileWriter;
+
+/**
+ * A hybrid hash join which can go to disk. Both relations are hash partitioned by the key, and
+ * when the partitions held in memory exceed the memory budget, the largest partitions are
+ * written to disk. Partitions are then joined one at a time, using the smaller side of each
+ * partition as the build side. Partitions whose smaller side still does not fit in to memory
+ * are partitioned again with a different hash. After {@link #MAX_DEPTH} levels, which happens
+ * when a few keys have most of the records, the build side is read in blocks that fit in to
+ * memory and the probe side is read once for each block.
+ * <p>
+ * The values are kept serialized while partitioning and deserialized when the joined tuples
+ * are returned. The files are removed when the iterator is exhausted, {@link #close()} should
+ * be called if the iterator is not read to the end.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class GraceHashJoin implements Iterator<JoinedTuple>, Closeable {
+  private static final Logger LOG = Logger.getLogger(GraceHashJoin.class.getName());
+
+  /**
+   * Approximate memory used by a tuple in addition to the value bytes
+   */
+  private static final int TUPLE_OVERHEAD = 48;
+
+  /**
+   * Maximum number of times a partition is partitioned again
+   */
+  private static final int MAX_DEPTH = 3;
+
+  /**
+   * Read ahead buffer used for reading the partition files
+   */
+  private static final int READ_AHEAD = 64 * 1024;
+
+  private final CommunicationContext.JoinType joinType;
+
+  private final MessageType keyType;
+
+  private final MessageType leftType;
+
+  private final MessageType rightType;
+
+  /**
+   * Maximum bytes of the partitions kept in memory
+   */
+  private final long maxBytesInMemory;
+
+  /**
+   * Number of partitions created at each level
+   */
+  private final int noOfPartitions;
+
+  /**
+   * The directory to write the partitions
+   */
+  private final String directory;
+
+  /**
+   * Used for hashing the keys consistently with the hash maps
+   */
+  private final THashMap<Object, Object> keyHasher;
+
+  /**
+   * Partitions to be joined
+   */
+  private final Deque<Partition[]> pending = new ArrayDeque<>();
+
+  /**
+   * Joined tuples of the current partition that are not returned yet
+   */
+  private final Deque<JoinedTuple> output = new ArrayDeque<>();
+
+  /**
+   * The join of the current partition
+   */
+  private PartitionJoin current;
+
+  /**
+   * Number of files created so far
+   */
+  private int noOfFiles = 0;
+
+  private boolean closed;
+
+  public GraceHashJoin(Iterator<Tuple<?, ?>> leftIt, Iterator<Tuple<?, ?>> rightIt,
+                       CommunicationContext.JoinType joinType, MessageType keyType,
+                       MessageType leftType, MessageType rightType,
+                       long maxBytesInMemory, int noOfPartitions, String spillDirectory) {
+    this.joinType = joinType;
+    this.keyType = keyType;
+    this.leftType = leftType;
+    this.rightType = rightType;
+    this.maxBytesInMemory = maxBytesInMemory;
+    this.noOfPartitions = Math.max(noOfPartitions, 2);
+    this.directory = spillDirectory + "/join_" + UUID.randomUUID().toString();
+    this.keyHasher = new THashMap<>(keyType);
+
+    partition(leftIt, rightIt, false, 0);
+  }
+
+  /**
+   * Hash partition both relations and add the partitions to the pending list
+   *
+   * @param serialized weather the values are already serialized
+   * @param depth number of times the records have been partitioned before
+   */
+  private void partition(Iterator<Tuple<?, ?>> leftIt, Iterator<Tuple<?, ?>> rightIt,
+                         boolean serialized, int depth) {
+    Partition[] lefts = new Partition[noOfPartitions];
+    Partition[] rights = new Partition[noOfPartitions];
+    for (int i = 0; i < noOfPartitions; i++) {
+      lefts[i] = new Partition(depth);
+      rights[i] = new Partition(depth);
+    }
+
+    long[] memory = new long[1];
+    addAll(leftIt, lefts, leftType, serialized, depth, memory, lefts, rights);
+    addAll(rightIt, rights, rightType, serialized, depth, memory, lefts, rights);
+
+    int spilled = 0;
+    for (int i = 0; i < noOfPartitions; i++) {
+      lefts[i].finishWriting();
+      rights[i].finishWriting();
+      if (lefts[i].isOnDisk() || rights[i].isOnDisk()) {
+        spilled++;
+      }
+      if (isEmptyResult(lefts[i], rights[i])) {
+        lefts[i].clean();
+        rights[i].clean();
+      } else {
+        pending.add(new Partition[]{lefts[i], rights[i]});
+      }
+    }
+    if (spilled > 0) {
+      LOG.fine(String.format("Join partitioned at level %d, %d of %d partitions on disk",
+          depth, spilled, noOfPartitions));
+    }
+  }
+
+  private void addAll(Iterator<Tuple<?, ?>> it, Partition[] partitions, MessageType dataType,
+                      boolean serialized, int depth, long[] memory,
+                      Partition[] lefts, Partition[] rights) {
+    while (it.hasNext()) {
+      Tuple<?, ?> tuple = it.next();
+      byte[] value = serialized ? (byte[]) tuple.getValue()
+          : dataType.getDataPacker().packToByteArray(tuple.getValue());
+      Partition p = partitions[partitionOf(tuple.getKey(), depth)];
+      memory[0] += p.add(tuple.getKey(), value);
+
+      while (memory[0] > maxBytesInMemory) {
+        Partition largest = largestInMemory(lefts, rights);
+        if (largest == null) {
+          break;
+        }
+        memory[0] -= largest.spill();
+      }
+    }
+  }
+
+  private Partition largestInMemory(Partition[] lefts, Partition[] rights) {
+    Partition largest = null;
+    for (int i = 0; i < noOfPartitions; i++) {
+      if (largest == null || lefts[i].memoryBytes > largest.memoryBytes) {
+        largest = lefts[i];
+      }
+      if (rights[i].memoryBytes > largest.memoryBytes) {
+        largest = rights[i];
+      }
+    }
+    return largest != null && largest.memoryBytes > 0 ? largest : null;
+  }
+
+  /**
+   * Weather joining the two partitions cannot produce any tuples
+   */
+  private boolean isEmptyResult(Partition left, Partition right) {
+    if (left.count == 0 && right.count == 0) {
+      return true;
+    }
+    if (left.count == 0) {
+      return !preservesRight();
+    }
+    if (right.count == 0) {
+      return !preservesLeft();
+    }
+    return false;
+  }
+
+  private boolean preservesLeft() {
+    return joinType == CommunicationContext.JoinType.LEFT
+        || joinType == CommunicationContext.JoinType.FULL_OUTER;
+  }
+
+  private boolean preservesRight() {
+    return joinType == CommunicationContext.JoinType.RIGHT
+        || joinType == CommunicationContext.JoinType.FULL_OUTER;
+  }
+
+  private int partitionOf(Object key, int depth) {
+    int h = keyHasher.hash(key) ^ (depth * 0x9E3779B9);
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return Math.floorMod(h, noOfPartitions);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (output.isEmpty()) {
+      if (current != null && current.produce()) {
+        continue;
+      }
+      if (current != null) {
+        current.clean();
+        current = null;
+      }
+      if (pending.isEmpty()) {
+        close();
+        return false;
+      }
+      Partition[] next = pending.poll();
+      long buildBytes = Math.min(next[0].bytes, next[1].bytes);
+      if (buildBytes > maxBytesInMemory && next[0].depth < MAX_DEPTH) {
+        // the build side does not fit in to memory, partition again with a different hash
+        partition(next[0].iterator(), next[1].iterator(), true, next[0].depth + 1);
+        next[0].clean();
+        next[1].clean();
+      } else {
+        if (buildBytes > maxBytesInMemory) {
+          LOG.fine(String.format("Joining a partition of %d bytes in blocks at level %d",
+              buildBytes, next[0].depth));
+        }
+        current = new PartitionJoin(next[0], next[1]);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public JoinedTuple next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("Join operation has reached to an end");
+    }
+    return output.poll();
+  }
+
+  /**
+   * Remove the partitions that are not joined yet and the files written for them
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    output.clear();
+    if (current != null) {
+      current.clean();
+      current = null;
+    }
+    for (Partition[] p : pending) {
+      p[0].clean();
+      p[1].clean();
+    }
+    pending.clear();
+    File dir = new File(directory);
+    if (dir.exists() && !dir.delete()) {
+      LOG.warning("Couldn't delete the directory : " + directory);
+    }
+  }
+
+  /**
+   * Records of one relation that fall in to a partition
+   */
+  private final class Partition {
+    private final int depth;
+
+    private List<Tuple> records = new ArrayList<>();
+
+    /**
+     * Bytes of the records in memory
+     */
+    private long memoryBytes;
+
+    /**
+     * Bytes of all the records
+     */
+    private long bytes;
+
+    /**
+     * Number of records
+     */
+    private long count;
+
+    private String fileName;
+
+    private RunFileWriter writer;
+
+    /**
+     * Readers opened for the file, closed when the partition is cleaned
+     */
+    private final List<FileRunReader> readers = new ArrayList<>();
+
+    Partition(int depth) {
+      this.depth = depth;
+    }
+
+    long add(Object key, byte[] value) {
+      records.add(new Tuple(key, value));
+      long size = value.length + TUPLE_OVERHEAD;
+      memoryBytes += size;
+      bytes += size;
+      count++;
+      return size;
+    }
+
+    /**
+     * Write the records in memory to the file
+     *
+     * @return bytes released
+     */
+    long spill() {
+      if (writer == null) {
+        fileName = directory + "/part_" + noOfFiles++;
+        writer = new RunFileWriter(fileName, keyType);
+      }
+      for (Tuple t : records) {
+        byte[] value = (byte[]) t.getValue();
+        writer.write(t.getKey(), value, value.length);
+      }
+      records = new ArrayList<>();
+      long released = memoryBytes;
+      memoryBytes = 0;
+      return released;
+    }
+
+    void finishWriting() {
+      if (writer != null) {
+        spill();
+        writer.close();
+        writer = null;
+      }
+    }
+
+    boolean isOnDisk() {
+      return fileName != null;
+    }
+
+    Iterator<Tuple<?, ?>> iterator() {
+      if (!isOnDisk()) {
+        return (Iterator) records.iterator();
+      }
+      FileRunReader reader = new FileRunReader(fileName, keyType, READ_AHEAD);
+      readers.add(reader);
+      return new Iterator<Tuple<?, ?>>() {
+        @Override
+        public boolean hasNext() {
+          if (!reader.hasCurrent()) {
+            reader.close();
+            return false;
+          }
+          return true;
+        }
+
+        @Override
+        public Tuple<?, ?> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException("No more records in " + fileName);
+          }
+          Tuple t = new Tuple(reader.currentKey(), reader.currentValue());
+          reader.advance();
+          return t;
+        }
+      };
+    }
+
+    void clean() {
+      records = Collections.emptyList();
+      for (FileRunReader reader : readers) {
+        reader.close();
+      }
+      readers.clear();
+      if (fileName != null) {
+        File file = new File(fileName);
+        if (file.exists() && !file.delete()) {
+          LOG.warning("Couldn't delete file : " + fileName);
+        }
+      }
+    }
+  }
+
+  /**
+   * Values of a key in the build side
+   */
+  private static final class BuildEntry {
+    private final List<byte[]> values = new ArrayList<>(1);
+    private boolean matched;
+  }
+
+  /**
+   * Joins a pair of partitions by building a hash table from the smaller side. If the smaller
+   * side does not fit in to memory, the hash table is built from one block of it at a time and
+   * the other side is probed again for each block.
+   */
+  private final class PartitionJoin {
+    private final Partition left;
+
+    private final Partition right;
+
+    /**
+     * Weather the left partition is used to build the hash table
+     */
+    private final boolean buildLeft;
+
+    /**
+     * Records of the build side that are not in a block yet
+     */
+    private final Iterator<Tuple<?, ?>> build;
+
+    private Map<Object, BuildEntry> table;
+
+    private Iterator<Tuple<?, ?>> probe;
+
+    /**
+     * Index of the next probe record
+     */
+    private long probeIndex;
+
+    /**
+     * Probe records matched by an earlier block, used only with more than one block
+     */
+    private BitSet probeMatched;
+
+    private boolean blockDone;
+
+    PartitionJoin(Partition left, Partition right) {
+      this.left = left;
+      this.right = right;
+      this.buildLeft = left.bytes <= right.bytes;
+      this.build = (buildLeft ? left : right).iterator();
+      loadBlock();
+      if (build.hasNext() && (buildLeft ? preservesRight() : preservesLeft())) {
+        probeMatched = new BitSet();
+      }
+    }
+
+    /**
+     * Build the hash table from the next block of the build side and start probing it
+     */
+    private void loadBlock() {
+      table = new THashMap<>(keyType);
+      long blockBytes = 0;
+      while (build.hasNext() && (blockBytes == 0 || blockBytes < maxBytesInMemory)) {
+        Tuple<?, ?> t = build.next();
+        BuildEntry entry = table.get(t.getKey());
+        if (entry == null) {
+          entry = new BuildEntry();
+          table.put(t.getKey(), entry);
+        }
+        byte[] value = (byte[]) t.getValue();
+        entry.values.add(value);
+        blockBytes += value.length + TUPLE_OVERHEAD;
+      }
+      probe = (buildLeft ? right : left).iterator();
+      probeIndex = 0;
+      blockDone = false;
+    }
+
+    /**
+     * Add the joined tuples of the next probe record to the output
+     *
+     * @return false if this partition is completed
+     */
+    boolean produce() {
+      if (probe.hasNext()) {
+        Tuple<?, ?> t = probe.next();
+        BuildEntry entry = table.get(t.getKey());
+        if (entry != null) {
+          Object probeValue = deserialize((byte[]) t.getValue(), !buildLeft);
+          entry.matched = true;
+          for (byte[] buildValue : entry.values) {
+            emit(t.getKey(), deserialize(buildValue, buildLeft), probeValue);
+          }
+          if (probeMatched != null) {
+            probeMatched.set((int) probeIndex);
+          }
+        } else if ((buildLeft ? preservesRight() : preservesLeft()) && !build.hasNext()
+            && (probeMatched == null || !probeMatched.get((int) probeIndex))) {
+          // this is the last block and no block had the key
+          emit(t.getKey(), null, deserialize((byte[]) t.getValue(), !buildLeft));
+        }
+        probeIndex++;
+        return true;
+      }
+
+      if (!blockDone) {
+        blockDone = true;
+        if (buildLeft ? preservesLeft() : preservesRight()) {
+          for (Map.Entry<Object, BuildEntry> e : table.entrySet()) {
+            if (!e.getValue().matched) {
+              for (byte[] buildValue : e.getValue().values) {
+                emit(e.getKey(), deserialize(buildValue, buildLeft), null);
+              }
+            }
+          }
+        }
+        return true;
+      }
+
+      if (build.hasNext()) {
+        loadBlock();
+        return true;
+      }
+      return false;
+    }
+
+    private Object deserialize(byte[] value, boolean isLeft) {
+      return (isLeft ? leftType : rightType).getDataPacker().unpackFromByteArray(value);
+    }
+
+    private void emit(Object key, Object buildValue, Object probeValue) {
+      if (buildLeft) {
+        output.add(JoinedTuple.of(key, buildValue, probeValue));
+      } else {
+        output.add(JoinedTuple.of(key, probeValue, buildValue));
+      }
+    }
+
+    void clean() {
+      left.clean();
+      right.clean();
+    }
+  }
+}
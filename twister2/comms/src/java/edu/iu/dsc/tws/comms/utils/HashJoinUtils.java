@@ -160,6 +160,28 @@ public final class HashJoinUtils {
         new ListBasedResettableIterator(rightRelation), joinType, messageType);
   }
 
+  /**
+   * Disk based hash join which partitions the relations to disk when they do not fit in to
+   * the memory. The smaller side of each partition is used for building the hash table.
+   * The returned join should be closed if it is not read to the end, to remove its files.
+   *
+   * @param maxBytesInMemory memory budget for the partitions
+   * @param noOfPartitions number of hash partitions
+   * @param spillDirectory directory to write the partitions
+   */
+  public static GraceHashJoin graceJoin(Iterator<Tuple<?, ?>> leftIt,
+                                        Iterator<Tuple<?, ?>> rightIt,
+                                        CommunicationContext.JoinType joinType,
+                                        MessageType keyType,
+                                        MessageType leftType,
+                                        MessageType rightType,
+                                        long maxBytesInMemory,
+                                        int noOfPartitions,
+                                        String spillDirectory) {
+    return new GraceHashJoin(leftIt, rightIt, joinType, keyType, leftType, rightType,
+        maxBytesInMemory, noOfPartitions, spillDirectory);
+  }
+
   /**
    * Disk based inner join
    */
@@ -0,0 +1,121 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.compress;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockCompressorTest {
+
+  private static final String[] CODECS = {"deflate", "lz4", "snappy"};
+
+  private byte[] compressible(int length) {
+    byte[] data = new byte[length];
+    byte[] word = "twister2 shuffle ".getBytes();
+    for (int i = 0; i < length; i++) {
+      data[i] = word[i % word.length];
+    }
+    return data;
+  }
+
+  private byte[] random(int length) {
+    byte[] data = new byte[length];
+    new Random(3).nextBytes(data);
+    return data;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    for (String name : CODECS) {
+      BlockCodec codec = BlockCodecs.get(name);
+      Assert.assertSame(codec, BlockCodecs.get(codec.getId()));
+      for (byte[] data : new byte[][]{compressible(100000), random(100000)}) {
+        BlockCompressor compressor = new BlockCompressor(codec, 0.9);
+        byte[] block = new byte[compressor.maxBlockLength(data.length)];
+        compressor.compress(data, 0, data.length, block, 0);
+        Assert.assertEquals(data.length, BlockCompressor.rawLength(block, 0));
+
+        byte[] raw = new byte[data.length];
+        BlockCompressor.decompress(block, 0, raw, 0);
+        Assert.assertArrayEquals(name, data, raw);
+      }
+    }
+  }
+
+  @Test
+  public void testSkipsIncompressibleData() {
+    BlockCompressor compressor = new BlockCompressor(BlockCodecs.get("deflate"), 0.9);
+    byte[] data = random(4096);
+    byte[] block = new byte[compressor.maxBlockLength(data.length)];
+    for (int i = 0; i < 20; i++) {
+      int length = compressor.compress(data, 0, data.length, block, 0);
+      Assert.assertFalse(BlockCompressor.isCompressed(block, 0));
+      Assert.assertEquals(BlockCompressor.HEADER_SIZE + data.length, length);
+    }
+    // after a few poor blocks we stop trying
+    Assert.assertTrue(compressor.getSkippedBlocks() > 0);
+
+    data = compressible(4096);
+    for (int i = 0; i < 20; i++) {
+      compressor.compress(data, 0, data.length, block, 0);
+    }
+    Assert.assertTrue(BlockCompressor.isCompressed(block, 0));
+  }
+
+  @Test
+  public void testRandomReads() throws IOException {
+    File file = File.createTempFile("blocks", ".bin");
+    file.deleteOnExit();
+    byte[] data = new byte[300000];
+    byte[] text = compressible(data.length);
+    byte[] noise = random(data.length);
+    // mix compressible and random regions, so some blocks are stored
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i / 20000) % 2 == 0 ? text[i] : noise[i];
+    }
+
+    BlockCompressor compressor = new BlockCompressor(BlockCodecs.get("deflate"), 0.9);
+    try (BlockOutputStream out = new BlockOutputStream(new FileOutputStream(file),
+        compressor, 8192)) {
+      out.write(data, 0, 1000);
+      out.write(data[1000]);
+      out.write(data, 1001, data.length - 1001);
+    }
+    Assert.assertTrue(file.length() < data.length);
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      BlockFileReader reader = new BlockFileReader(channel);
+      Assert.assertEquals(data.length, reader.size());
+
+      Random random = new Random(5);
+      for (int i = 0; i < 100; i++) {
+        long position = random.nextInt(data.length);
+        ByteBuffer buffer = ByteBuffer.allocate(random.nextInt(30000) + 1);
+        int read = reader.read(buffer, position);
+        int expected = (int) Math.min(buffer.capacity(), data.length - position);
+        Assert.assertEquals(expected, read);
+        Assert.assertArrayEquals(Arrays.copyOfRange(data, (int) position,
+            (int) position + read), Arrays.copyOf(buffer.array(), read));
+      }
+      Assert.assertEquals(-1, reader.read(ByteBuffer.allocate(10), data.length));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
+
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Connects the workers of a test running in a single process. Copies the sent buffers to the
+ * buffers posted by the receiver, a buffer is copied only when the receiver has a free buffer.
+ * The channels of all the workers share the same registrations map.
+ */
+public class InMemoryChannel implements TWSChannel {
+  private int worker;
+
+  private Map<String, Registration> registrations;
+
+  public InMemoryChannel(int worker, Map<String, Registration> registrations) {
+    this.worker = worker;
+    this.registrations = registrations;
+  }
+
+  /**
+   * Copy the in flight buffers of all the workers until the receivers run out of buffers
+   */
+  public static void deliver(Map<String, Registration> registrations) {
+    for (Registration r : registrations.values()) {
+      while (!r.inFlight.isEmpty() && r.inFlight.peek().getAsBoolean()) {
+        r.inFlight.poll();
+      }
+    }
+  }
+
+  @Override
+  public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+    int edge = message.getHeader().getEdge();
+    Registration r = registrations.get(id + ":" + worker + ":" + edge);
+    List<DataBuffer> buffers = message.getNormalBuffers();
+    for (int i = 0; i < buffers.size(); i++) {
+      DataBuffer buffer = buffers.get(i);
+      boolean last = i == buffers.size() - 1;
+      r.inFlight.add(() -> {
+        DataBuffer receive = r.buffers.poll();
+        if (receive == null) {
+          return false;
+        }
+        int size = buffer.getSize();
+        for (int j = 0; j < size; j++) {
+          receive.getByteBuffer().put(j, buffer.getByteBuffer().get(j));
+        }
+        // the network channels move the position of the sent buffers
+        buffer.getByteBuffer().position(size);
+        receive.setSize(size);
+        r.listener.onReceiveComplete(worker, edge, receive);
+        if (last) {
+          callback.onSendComplete(id, edge, message);
+        }
+        return true;
+      });
+    }
+    return true;
+  }
+
+  @Override
+  public boolean receiveMessage(int group, int id, int edge, ChannelListener callback,
+                                Queue<DataBuffer> receiveBuffers) {
+    Registration r = new Registration();
+    r.listener = callback;
+    r.buffers = receiveBuffers;
+    registrations.put(worker + ":" + id + ":" + edge, r);
+    return true;
+  }
+
+  @Override
+  public void progress() {
+  }
+
+  @Override
+  public void progressSends() {
+  }
+
+  @Override
+  public void progressReceives(int group) {
+  }
+
+  @Override
+  public boolean isComplete() {
+    return true;
+  }
+
+  @Override
+  public ByteBuffer createBuffer(int capacity) {
+    return ByteBuffer.allocate(capacity);
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public void releaseBuffers(int wId, int e) {
+  }
+
+  @Override
+  public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+  }
+
+  /**
+   * The receives posted by a worker for messages from another worker
+   */
+  public static class Registration {
+    private ChannelListener listener;
+
+    private Queue<DataBuffer> buffers;
+
+    private Deque<BooleanSupplier> inFlight = new ArrayDeque<>();
+
+    public Queue<DataBuffer> getBuffers() {
+      return buffers;
+    }
+  }
+}
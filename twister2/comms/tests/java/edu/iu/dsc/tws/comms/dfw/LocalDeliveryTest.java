@@ -0,0 +1,283 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Runs a partition among two workers with two tasks each, the targets get messages from a
+ * source in the same worker and from sources in the other worker. The partial receivers forward
+ * the messages to the targets, so both hops can be delivered directly.
+ */
+public class LocalDeliveryTest {
+  private static final int WORKERS = 2;
+
+  private static final int TASKS_PER_WORKER = 2;
+
+  private static final int EDGE = 7;
+
+  private static final int MESSAGES = 200;
+
+  private static final int[] TARGETS = {0, 2};
+
+  @Test
+  public void testLocalMessagesDeliveredOnSend() {
+    Map<String, InMemoryChannel.Registration> registrations = new HashMap<>();
+    OrderReceiver receiver = new OrderReceiver(false);
+    MToNSimple op = createOperation(0, config(true), registrations, receiver);
+
+    // task 1 is in the same worker as target 0
+    Assert.assertTrue(op.send(1, new int[]{1, 0}, 0, 0));
+    Assert.assertEquals(1, receiver.received(0, 1).size());
+
+    // nothing is handed over directly when the delivery is disabled
+    receiver = new OrderReceiver(false);
+    op = createOperation(0, config(false), new HashMap<>(), receiver);
+    Assert.assertTrue(op.send(1, new int[]{1, 0}, 0, 0));
+    Assert.assertTrue(receiver.received(0, 1).isEmpty());
+    // one progress for each hop
+    for (int i = 0; i < 4; i++) {
+      op.progress();
+    }
+    Assert.assertEquals(1, receiver.received(0, 1).size());
+  }
+
+  @Test
+  public void testPerSourceOrder() {
+    partition(config(true), false);
+  }
+
+  @Test
+  public void testPerSourceOrderWithoutDirectDelivery() {
+    partition(config(false), false);
+  }
+
+  @Test
+  public void testRejectedMessagesAreRetried() {
+    partition(config(true), true);
+  }
+
+  @Test
+  public void testRejectedMessagesAreRetriedWithoutDirectDelivery() {
+    partition(config(false), true);
+  }
+
+  private Config config(boolean direct) {
+    return Config.newBuilder()
+        .put(CommunicationContext.BUFFER_SIZE, 1024)
+        .put(CommunicationContext.RECEIVE_BUFFERS_COUNT, 4)
+        .put(CommunicationContext.SEND_PENDING_MAX, 8)
+        .put(CommunicationContext.LOCAL_DIRECT_DELIVERY, direct)
+        .build();
+  }
+
+  /**
+   * Every source sends a sequence to each target, the targets must see every sequence in order
+   * without gaps or duplicates
+   */
+  private void partition(Config cfg, boolean rejecting) {
+    Map<String, InMemoryChannel.Registration> registrations = new HashMap<>();
+    MToNSimple[] ops = new MToNSimple[WORKERS];
+    OrderReceiver[] receivers = new OrderReceiver[WORKERS];
+    for (int w = 0; w < WORKERS; w++) {
+      receivers[w] = new OrderReceiver(rejecting);
+      ops[w] = createOperation(w, cfg, registrations, receivers[w]);
+    }
+
+    int[][] sent = new int[WORKERS * TASKS_PER_WORKER][TARGETS.length];
+    for (int round = 0; round < 100000 && !allReceived(receivers); round++) {
+      for (int source = 0; source < WORKERS * TASKS_PER_WORKER; source++) {
+        MToNSimple op = ops[source / TASKS_PER_WORKER];
+        for (int t = 0; t < TARGETS.length; t++) {
+          int seq = sent[source][t];
+          if (seq < MESSAGES && op.send(source, new int[]{source, seq}, 0, TARGETS[t])) {
+            sent[source][t]++;
+          }
+        }
+      }
+      for (MToNSimple op : ops) {
+        op.progress();
+      }
+      InMemoryChannel.deliver(registrations);
+    }
+
+    for (int t = 0; t < TARGETS.length; t++) {
+      OrderReceiver receiver = receivers[TARGETS[t] / TASKS_PER_WORKER];
+      for (int source = 0; source < WORKERS * TASKS_PER_WORKER; source++) {
+        List<Integer> values = receiver.received(TARGETS[t], source);
+        Assert.assertEquals(MESSAGES, values.size());
+        for (int i = 0; i < MESSAGES; i++) {
+          Assert.assertEquals(i, (int) values.get(i));
+        }
+      }
+    }
+    if (rejecting) {
+      Assert.assertTrue(receivers[0].rejected > 0);
+    }
+  }
+
+  private boolean allReceived(OrderReceiver[] receivers) {
+    for (int target : TARGETS) {
+      OrderReceiver receiver = receivers[target / TASKS_PER_WORKER];
+      for (int source = 0; source < WORKERS * TASKS_PER_WORKER; source++) {
+        if (receiver.received(target, source).size() < MESSAGES) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private MToNSimple createOperation(int worker, Config cfg,
+                                     Map<String, InMemoryChannel.Registration> registrations,
+                                     OrderReceiver receiver) {
+    Set<Integer> sources = new HashSet<>();
+    for (int i = 0; i < WORKERS * TASKS_PER_WORKER; i++) {
+      sources.add(i);
+    }
+    Set<Integer> targets = new HashSet<>();
+    for (int target : TARGETS) {
+      targets.add(target);
+    }
+    return new MToNSimple(cfg, new InMemoryChannel(worker, registrations), createPlan(worker),
+        sources, targets, receiver, new ForwardingReceiver(receiver.rejecting),
+        MessageTypes.INTEGER_ARRAY,
+        MessageTypes.INTEGER_ARRAY, EDGE, MessageSchema.noSchema());
+  }
+
+  private LogicalPlan createPlan(int thisWorker) {
+    Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+    Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+    Set<Integer> workers = new HashSet<>();
+    for (int w = 0; w < WORKERS; w++) {
+      Set<Integer> tasks = new HashSet<>();
+      for (int i = 0; i < TASKS_PER_WORKER; i++) {
+        tasks.add(w * TASKS_PER_WORKER + i);
+      }
+      workerToLogicalId.put(w, tasks);
+      nodeToLogicalId.put("node-" + w, new HashSet<>(tasks));
+      workers.add(w);
+    }
+    Map<Integer, Set<Integer>> groups = new HashMap<>();
+    groups.put(0, workers);
+    return new LogicalPlan(workerToLogicalId, groups, nodeToLogicalId, thisWorker);
+  }
+
+  /**
+   * Records the sequence numbers per target and source, rejects every other message when asked
+   */
+  private static class OrderReceiver implements MessageReceiver {
+    private Map<Integer, Map<Integer, List<Integer>>> received = new HashMap<>();
+
+    private boolean rejecting;
+
+    private boolean reject;
+
+    private int rejected;
+
+    OrderReceiver(boolean rejecting) {
+      this.rejecting = rejecting;
+    }
+
+    List<Integer> received(int target, int source) {
+      return received.computeIfAbsent(target, t -> new HashMap<>())
+          .computeIfAbsent(source, s -> new ArrayList<>());
+    }
+
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    }
+
+    @Override
+    public boolean onMessage(int source, int path, int target, int flags, Object object) {
+      if (rejecting) {
+        reject = !reject;
+        if (reject) {
+          rejected++;
+          return false;
+        }
+      }
+      int[] value = (int[]) object;
+      Assert.assertEquals(source, value[0]);
+      received(target, value[0]).add(value[1]);
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+  }
+
+  /**
+   * Forwards the messages of a source to the target, rejects every other message when asked
+   */
+  private static class ForwardingReceiver implements MessageReceiver {
+    private DataFlowOperation op;
+
+    private boolean rejecting;
+
+    private boolean reject;
+
+    ForwardingReceiver(boolean rejecting) {
+      this.rejecting = rejecting;
+    }
+
+    @Override
+    public void init(Config cfg, DataFlowOperation operation,
+                     Map<Integer, List<Integer>> expectedIds) {
+      this.op = operation;
+    }
+
+    @Override
+    public boolean onMessage(int source, int path, int target, int flags, Object object) {
+      if (rejecting) {
+        reject = !reject;
+        if (reject) {
+          return false;
+        }
+      }
+      return op.sendPartial(source, object, flags, target);
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+  }
+}
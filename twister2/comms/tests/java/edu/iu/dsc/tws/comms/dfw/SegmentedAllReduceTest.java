@@ -0,0 +1,344 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Runs the segmented all reduce among workers with two tasks each, every task is both a source
+ * and a target. The workers exchange messages through in memory channels.
+ */
+public class SegmentedAllReduceTest {
+  private static final int TASKS_PER_WORKER = 2;
+
+  private static final int DATA_EDGE = 10;
+
+  private static final int CONTROL_EDGE = 11;
+
+  /**
+   * The logical id of a worker is this plus the worker
+   */
+  private static final int WORKER_TASK_BASE = 100;
+
+  /**
+   * Long enough to be split in to many chunks of 16 integers
+   */
+  private static final int LENGTH = 1000;
+
+  @Test
+  public void testRingChunkedExchange() {
+    batch(3, CommunicationContext.ALLREDUCE_ALGO_RING, allWorkers(3));
+  }
+
+  @Test
+  public void testRecursiveHalvingChunkedExchange() {
+    batch(4, CommunicationContext.ALLREDUCE_ALGO_RECURSIVE_HALVING, allWorkers(4));
+  }
+
+  @Test
+  public void testAutoSelectsSchedule() {
+    batch(4, CommunicationContext.ALLREDUCE_ALGO_AUTO, allWorkers(4));
+    batch(3, CommunicationContext.ALLREDUCE_ALGO_AUTO, allWorkers(3));
+  }
+
+  @Test
+  public void testWorkersWithoutValues() {
+    // the workers agree that some have no value and exchange the whole arrays
+    Set<Integer> withValues = new HashSet<>(Arrays.asList(0, 2));
+    batch(4, CommunicationContext.ALLREDUCE_ALGO_RING, withValues);
+    batch(3, CommunicationContext.ALLREDUCE_ALGO_RECURSIVE_HALVING,
+        new HashSet<>(Arrays.asList(1)));
+  }
+
+  @Test
+  public void testNoWorkerHasValue() {
+    batch(4, CommunicationContext.ALLREDUCE_ALGO_RING, new HashSet<>());
+  }
+
+  @Test
+  public void testStreamingBarrierAlignment() {
+    int workers = 3;
+    int before = 3;
+    int after = 2;
+    Map<String, InMemoryChannel.Registration> registrations = new HashMap<>();
+    SegmentedAllReduce[] ops = new SegmentedAllReduce[workers];
+    ResultReceiver[] receivers = new ResultReceiver[workers];
+    for (int w = 0; w < workers; w++) {
+      receivers[w] = new ResultReceiver();
+      ops[w] = createOperation(w, workers, config(CommunicationContext.ALLREDUCE_ALGO_RING),
+          registrations, receivers[w], true);
+    }
+
+    int tasks = workers * TASKS_PER_WORKER;
+    byte[] barrier = new byte[]{1, 2, 3};
+    // source 0 sends all its messages and the barrier before the others start, so the
+    // operation has to hold the barrier until the other sources reach it
+    List<List<Object>> messages = new ArrayList<>();
+    for (int source = 0; source < tasks; source++) {
+      List<Object> list = new ArrayList<>();
+      for (int round = 0; round < before + after; round++) {
+        if (round == before) {
+          list.add(barrier);
+        }
+        list.add(value(source, round, LENGTH));
+      }
+      messages.add(list);
+    }
+
+    int[] next = new int[tasks];
+    for (int i = 0; i < 100000 && !streamingDone(receivers, before + after); i++) {
+      for (int source = 0; source < tasks; source++) {
+        if (source != 0 && next[0] < messages.get(0).size()) {
+          continue;
+        }
+        if (next[source] < messages.get(source).size()) {
+          Object m = messages.get(source).get(next[source]);
+          int flags = m instanceof byte[] ? MessageFlags.SYNC_BARRIER : 0;
+          if (ops[source / TASKS_PER_WORKER].send(source, m, flags)) {
+            next[source]++;
+          }
+        }
+      }
+      progress(ops, registrations);
+    }
+
+    for (ResultReceiver receiver : receivers) {
+      for (List<Object> events : receiver.events.values()) {
+        Assert.assertEquals(before + after + 1, events.size());
+        for (int i = 0; i < events.size(); i++) {
+          Object event = events.get(i);
+          if (i == before) {
+            Assert.assertArrayEquals(barrier, (byte[]) event);
+          } else {
+            int round = i < before ? i : i - 1;
+            Assert.assertArrayEquals(expected(tasks, round, allTasks(tasks), LENGTH),
+                (int[]) event);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Run a batch all reduce where the tasks of the given workers send values
+   */
+  private void batch(int workers, String algorithm, Set<Integer> withValues) {
+    Map<String, InMemoryChannel.Registration> registrations = new HashMap<>();
+    SegmentedAllReduce[] ops = new SegmentedAllReduce[workers];
+    ResultReceiver[] receivers = new ResultReceiver[workers];
+    for (int w = 0; w < workers; w++) {
+      receivers[w] = new ResultReceiver();
+      ops[w] = createOperation(w, workers, config(algorithm), registrations, receivers[w],
+          false);
+    }
+
+    Set<Integer> sending = new HashSet<>();
+    int tasks = workers * TASKS_PER_WORKER;
+    for (int source = 0; source < tasks; source++) {
+      SegmentedAllReduce op = ops[source / TASKS_PER_WORKER];
+      if (withValues.contains(source / TASKS_PER_WORKER)) {
+        Assert.assertTrue(op.send(source, value(source, 0, LENGTH), 0));
+        sending.add(source);
+      }
+      op.finish(source);
+    }
+
+    boolean complete = false;
+    for (int i = 0; i < 100000 && !complete; i++) {
+      progress(ops, registrations);
+      complete = true;
+      for (SegmentedAllReduce op : ops) {
+        complete &= op.isComplete();
+      }
+    }
+    Assert.assertTrue("The all reduce did not complete", complete);
+
+    for (ResultReceiver receiver : receivers) {
+      Assert.assertEquals(TASKS_PER_WORKER, receiver.events.size());
+      for (List<Object> events : receiver.events.values()) {
+        if (sending.isEmpty()) {
+          // only the sync is given
+          Assert.assertEquals(1, events.size());
+        } else {
+          Assert.assertEquals(2, events.size());
+          Assert.assertArrayEquals(expected(tasks, 0, sending, LENGTH), (int[]) events.get(0));
+        }
+        Assert.assertTrue(events.get(events.size() - 1) instanceof byte[]);
+      }
+    }
+  }
+
+  private void progress(SegmentedAllReduce[] ops,
+                        Map<String, InMemoryChannel.Registration> registrations) {
+    for (SegmentedAllReduce op : ops) {
+      op.progress();
+    }
+    InMemoryChannel.deliver(registrations);
+  }
+
+  private boolean streamingDone(ResultReceiver[] receivers, int values) {
+    for (ResultReceiver receiver : receivers) {
+      if (receiver.events.size() < TASKS_PER_WORKER) {
+        return false;
+      }
+      for (List<Object> events : receiver.events.values()) {
+        if (events.size() < values + 1) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static int[] value(int source, int round, int length) {
+    int[] value = new int[length];
+    for (int i = 0; i < length; i++) {
+      value[i] = (source + 1) * (i + 1) + round;
+    }
+    return value;
+  }
+
+  private static int[] expected(int tasks, int round, Set<Integer> sources, int length) {
+    int[] sum = new int[length];
+    for (int source = 0; source < tasks; source++) {
+      if (sources.contains(source)) {
+        int[] v = value(source, round, length);
+        for (int i = 0; i < length; i++) {
+          sum[i] += v[i];
+        }
+      }
+    }
+    return sum;
+  }
+
+  private static Set<Integer> allWorkers(int workers) {
+    Set<Integer> set = new HashSet<>();
+    for (int w = 0; w < workers; w++) {
+      set.add(w);
+    }
+    return set;
+  }
+
+  private static Set<Integer> allTasks(int tasks) {
+    Set<Integer> set = new HashSet<>();
+    for (int t = 0; t < tasks; t++) {
+      set.add(t);
+    }
+    return set;
+  }
+
+  private Config config(String algorithm) {
+    return Config.newBuilder()
+        .put(CommunicationContext.BUFFER_SIZE, 1024)
+        .put(CommunicationContext.RECEIVE_BUFFERS_COUNT, 4)
+        .put(CommunicationContext.SEND_PENDING_MAX, 8)
+        .put(CommunicationContext.ALLREDUCE_ALGO_KEY, algorithm)
+        .put(CommunicationContext.ALLREDUCE_CHUNK_BYTES, 64)
+        .put(CommunicationContext.ALLREDUCE_SMALL_BYTES, 256)
+        .put(CommunicationContext.ALLREDUCE_HIERARCHICAL, false)
+        .build();
+  }
+
+  private SegmentedAllReduce createOperation(int worker, int workers, Config cfg,
+                                             Map<String, InMemoryChannel.Registration> regs,
+                                             ResultReceiver receiver, boolean streaming) {
+    LogicalPlan plan = createPlan(worker, workers);
+    Set<Integer> tasks = allTasks(workers * TASKS_PER_WORKER);
+    List<Integer> workerList = SegmentedAllReduce.participatingWorkers(cfg, plan, tasks, tasks,
+        MessageTypes.INTEGER_ARRAY);
+    Assert.assertNotNull(workerList);
+    int[] workerTasks = new int[workerList.size()];
+    for (int i = 0; i < workerList.size(); i++) {
+      workerTasks[i] = WORKER_TASK_BASE + workerList.get(i);
+      plan.addLogicalIdToWorker(workerList.get(i), workerTasks[i]);
+    }
+    return new SegmentedAllReduce(cfg, new InMemoryChannel(worker, regs), plan, tasks, tasks,
+        workerList, workerTasks, new SumFunction(), receiver, MessageTypes.INTEGER_ARRAY,
+        DATA_EDGE, CONTROL_EDGE, streaming);
+  }
+
+  private LogicalPlan createPlan(int thisWorker, int workers) {
+    Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+    Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+    Set<Integer> workerSet = new HashSet<>();
+    for (int w = 0; w < workers; w++) {
+      Set<Integer> tasks = new HashSet<>();
+      for (int i = 0; i < TASKS_PER_WORKER; i++) {
+        tasks.add(w * TASKS_PER_WORKER + i);
+      }
+      workerToLogicalId.put(w, tasks);
+      nodeToLogicalId.put("node-" + w, new HashSet<>(tasks));
+      workerSet.add(w);
+    }
+    Map<Integer, Set<Integer>> groups = new HashMap<>();
+    groups.put(0, workerSet);
+    return new LogicalPlan(workerToLogicalId, groups, nodeToLogicalId, thisWorker);
+  }
+
+  private static class SumFunction implements ReduceFunction {
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    }
+
+    @Override
+    public Object reduce(Object t1, Object t2) {
+      int[] a = (int[]) t1;
+      int[] b = (int[]) t2;
+      int[] sum = new int[a.length];
+      for (int i = 0; i < a.length; i++) {
+        sum[i] = a[i] + b[i];
+      }
+      return sum;
+    }
+  }
+
+  /**
+   * Records the values and the sync messages given to each target
+   */
+  private static class ResultReceiver implements SingularReceiver {
+    private Map<Integer, List<Object>> events = new HashMap<>();
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+    }
+
+    @Override
+    public boolean receive(int target, Object object) {
+      events.computeIfAbsent(target, t -> new ArrayList<>()).add(object);
+      return true;
+    }
+
+    @Override
+    public boolean sync(int target, byte[] message) {
+      events.computeIfAbsent(target, t -> new ArrayList<>()).add(message);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Runs a tree broadcast among workers in a single process, connected by an in memory channel
+ */
+public class TreeBroadcastTest {
+  private static final int WORKERS = 7;
+
+  private static final int EDGE = 5;
+
+  private static final int MESSAGES = 3;
+
+  @Test
+  public void testBroadcast() {
+    broadcast(false, 8);
+  }
+
+  @Test
+  public void testPipelinedBroadcast() {
+    broadcast(true, 8);
+  }
+
+  @Test
+  public void testPipelinedBroadcastManyReceiveBuffers() {
+    // the buffers can be deserialized before they are forwarded
+    broadcast(true, 128);
+  }
+
+  private void broadcast(boolean pipelined, int receiveBuffers) {
+    Config cfg = Config.newBuilder()
+        .put(CommunicationContext.BUFFER_SIZE, 65536)
+        .put(CommunicationContext.RECEIVE_BUFFERS_COUNT, receiveBuffers)
+        .put(CommunicationContext.BROADCAST_PIPELINED, pipelined)
+        .build();
+
+    Set<Integer> targets = new HashSet<>();
+    for (int w = 1; w < WORKERS; w++) {
+      targets.add(w);
+    }
+
+    Map<String, InMemoryChannel.Registration> registrations = new HashMap<>();
+    Map<Integer, List<Object>> received = new HashMap<>();
+    TreeBroadcast[] ops = new TreeBroadcast[WORKERS];
+    for (int w = 0; w < WORKERS; w++) {
+      ops[w] = new TreeBroadcast(new InMemoryChannel(w, registrations), 0, targets,
+          new Receiver(received), MessageSchema.noSchema());
+      ops[w].init(cfg, MessageTypes.DOUBLE_ARRAY, createPlan(w), EDGE);
+    }
+
+    Random random = new Random(1);
+    double[][] data = new double[MESSAGES][];
+    for (int i = 0; i < MESSAGES; i++) {
+      data[i] = new double[400000 + i];
+      for (int j = 0; j < data[i].length; j++) {
+        data[i][j] = random.nextDouble();
+      }
+    }
+
+    int sent = 0;
+    for (int round = 0; round < 100000 && !allReceived(received, targets); round++) {
+      if (sent < MESSAGES && ops[0].send(0, data[sent], 0)) {
+        sent++;
+      }
+      for (TreeBroadcast op : ops) {
+        op.progress();
+      }
+      InMemoryChannel.deliver(registrations);
+    }
+
+    for (int target : targets) {
+      List<Object> values = received.get(target);
+      Assert.assertNotNull(values);
+      Assert.assertEquals(MESSAGES, values.size());
+      for (int i = 0; i < MESSAGES; i++) {
+        Assert.assertArrayEquals(data[i], (double[]) values.get(i), 0.0);
+      }
+    }
+
+    // all the receive buffers should be returned
+    for (int i = 0; i < 10; i++) {
+      for (TreeBroadcast op : ops) {
+        op.progress();
+      }
+    }
+    for (InMemoryChannel.Registration r : registrations.values()) {
+      Assert.assertEquals(receiveBuffers, r.getBuffers().size());
+    }
+  }
+
+  private boolean allReceived(Map<Integer, List<Object>> received, Set<Integer> targets) {
+    for (int target : targets) {
+      List<Object> values = received.get(target);
+      if (values == null || values.size() < MESSAGES) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Each worker runs one task with the same id, in its own node
+   */
+  private LogicalPlan createPlan(int thisWorker) {
+    Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+    Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+    Set<Integer> workers = new HashSet<>();
+    for (int w = 0; w < WORKERS; w++) {
+      workerToLogicalId.put(w, new HashSet<>(Collections.singleton(w)));
+      nodeToLogicalId.put("node-" + w, new HashSet<>(Collections.singleton(w)));
+      workers.add(w);
+    }
+    Map<Integer, Set<Integer>> groups = new HashMap<>();
+    groups.put(0, workers);
+    return new LogicalPlan(workerToLogicalId, groups, nodeToLogicalId, thisWorker);
+  }
+
+  private static class Receiver implements MessageReceiver {
+    private Map<Integer, List<Object>> received;
+
+    Receiver(Map<Integer, List<Object>> received) {
+      this.received = received;
+    }
+
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    }
+
+    @Override
+    public boolean onMessage(int source, int path, int target, int flags, Object object) {
+      if ((flags & MessageFlags.SYNC_EMPTY) != MessageFlags.SYNC_EMPTY) {
+        received.computeIfAbsent(target, t -> new ArrayList<>()).add(object);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+
+public class KeyedReceiverTest {
+  private static final int MIN_KEY_LIMIT = 10;
+
+  private static final int FLUSH_BYTES = 65536;
+
+  private static final int SMALL = 8;
+
+  private static final int LARGE = 16384;
+
+  private int nextKey;
+
+  @Test
+  public void testFixedKeyLimit() {
+    TestReceiver receiver = createReceiver(false);
+    send(receiver, 0, SMALL, 640);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(0));
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(1));
+  }
+
+  @Test
+  public void testKeyLimitPerTarget() {
+    TestReceiver receiver = createReceiver(true);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(0));
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(1));
+
+    // target 0 gets small values, so it can buffer many keys
+    send(receiver, 0, SMALL, 640);
+    int smallLimit = receiver.keyLimit(0);
+    Assert.assertTrue(smallLimit > 1000);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(1));
+
+    // the large values of target 1 do not change the limit of target 0
+    send(receiver, 1, LARGE, 640);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(1));
+    Assert.assertEquals(smallLimit, receiver.keyLimit(0));
+  }
+
+  @Test
+  public void testKeyLimitGrowsAndShrinks() {
+    TestReceiver receiver = createReceiver(true);
+    send(receiver, 0, SMALL, 640);
+    int grown = receiver.keyLimit(0);
+    Assert.assertTrue(grown > 1000);
+    Assert.assertTrue(grown <= 1000000);
+
+    send(receiver, 0, LARGE, 640);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(0));
+
+    // the average size decays back as small values arrive again
+    send(receiver, 0, SMALL, 64 * 60);
+    Assert.assertTrue(receiver.keyLimit(0) > 1000);
+  }
+
+  @Test
+  public void testKeyLimitNotBelowMinimum() {
+    TestReceiver receiver = createReceiver(true);
+    send(receiver, 0, FLUSH_BYTES * 2, 128);
+    Assert.assertEquals(MIN_KEY_LIMIT, receiver.keyLimit(0));
+  }
+
+  /**
+   * Send values with distinct keys to the target, the buffered keys are flushed when needed
+   */
+  private void send(TestReceiver receiver, int target, int valueSize, int count) {
+    for (int i = 0; i < count; i++) {
+      Tuple<Integer, byte[]> tuple = new Tuple<>(nextKey++, new byte[valueSize]);
+      while (!receiver.onMessage(target, 0, target, 0, tuple)) {
+        receiver.progress();
+      }
+      receiver.progress();
+    }
+  }
+
+  private TestReceiver createReceiver(boolean adaptive) {
+    Config cfg = Config.newBuilder()
+        .put(CommunicationContext.KEYED_ADAPTIVE_FLUSH, adaptive)
+        .put(CommunicationContext.KEYED_KEY_LIMIT, MIN_KEY_LIMIT)
+        .put(CommunicationContext.KEYED_MAX_KEY_LIMIT, 1000000)
+        .put(CommunicationContext.KEYED_FLUSH_BYTES, FLUSH_BYTES)
+        .build();
+    Map<Integer, List<Integer>> expectedIds = new HashMap<>();
+    expectedIds.put(0, Arrays.asList(0, 1));
+    expectedIds.put(1, Arrays.asList(0, 1));
+    TestReceiver receiver = new TestReceiver();
+    receiver.init(cfg, new TestOperation(), expectedIds);
+    return receiver;
+  }
+
+  /**
+   * Uses the default partial receiver progress, the flushed keys are sent to the operation
+   */
+  private static class TestReceiver extends KeyedReceiver {
+  }
+
+  /**
+   * A partition of two tasks in a single worker, the sends are always accepted
+   */
+  private static class TestOperation implements DataFlowOperation {
+    private LogicalPlan plan;
+
+    TestOperation() {
+      Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+      workerToLogicalId.put(0, new HashSet<>(Arrays.asList(0, 1)));
+      Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+      nodeToLogicalId.put("node-0", new HashSet<>(Arrays.asList(0, 1)));
+      Map<Integer, Set<Integer>> groups = new HashMap<>();
+      groups.put(0, new HashSet<>(Collections.singleton(0)));
+      this.plan = new LogicalPlan(workerToLogicalId, groups, nodeToLogicalId, 0);
+    }
+
+    @Override
+    public boolean sendPartial(int source, Object message, int flags) {
+      return true;
+    }
+
+    @Override
+    public boolean send(int source, Object message, int flags) {
+      return true;
+    }
+
+    @Override
+    public boolean send(int source, Object message, int flags, int target) {
+      return true;
+    }
+
+    @Override
+    public boolean sendPartial(int source, Object message, int flags, int target) {
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public MessageType getKeyType() {
+      return MessageTypes.INTEGER;
+    }
+
+    @Override
+    public MessageType getDataType() {
+      return MessageTypes.BYTE_ARRAY;
+    }
+
+    @Override
+    public LogicalPlan getLogicalPlan() {
+      return plan;
+    }
+
+    @Override
+    public String getUniqueId() {
+      return "keyed-receiver-test";
+    }
+
+    @Override
+    public Set<Integer> getSources() {
+      return new HashSet<>(Arrays.asList(0, 1));
+    }
+  }
+}
@@ -0,0 +1,237 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.comms.packing.DataPacker;
+import edu.iu.dsc.tws.api.comms.packing.PackerStore;
+import edu.iu.dsc.tws.api.comms.packing.serializer.SerializerRegistry;
+import edu.iu.dsc.tws.api.comms.packing.types.ObjectPacker;
+import edu.iu.dsc.tws.api.comms.structs.JoinedTuple;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+public class ObjectPackerTest {
+
+  public static class Point {
+    private double x;
+    private double y;
+    private String label;
+    private int[] counts;
+
+    public Point() {
+    }
+
+    public Point(double x, double y, String label, int[] counts) {
+      this.x = x;
+      this.y = y;
+      this.label = label;
+      this.counts = counts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Point)) {
+        return false;
+      }
+      Point point = (Point) o;
+      return x == point.x && y == point.y && label.equals(point.label)
+          && Arrays.equals(counts, point.counts);
+    }
+
+    @Override
+    public int hashCode() {
+      return label.hashCode();
+    }
+  }
+
+  public static class Node {
+    private String name;
+    private Node next;
+
+    public Node() {
+    }
+
+    public Node(String name, Node next) {
+      this.name = name;
+      this.next = next;
+    }
+  }
+
+  @Test
+  public void testUtf8Strings() {
+    DataPacker<Object, byte[]> packer = ObjectPacker.getInstance();
+    String[] values = {"", "ascii", "\u00e9t\u00e9", "\u4e2d\u6587", "\ud83d\ude00 emoji",
+        "unpaired \ud83d", "\udc00 low"};
+    for (String value : values) {
+      byte[] packed = packer.packToByteArray(value);
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      // format byte, type byte, length and the utf-8 bytes
+      Assert.assertEquals(2 + Integer.BYTES + utf8.length, packed.length);
+      Assert.assertEquals(new String(utf8, StandardCharsets.UTF_8),
+          packer.unpackFromByteArray(packed));
+
+      // read from a direct buffer
+      ByteBuffer direct = ByteBuffer.allocateDirect(packed.length);
+      direct.put(packed).flip();
+      Assert.assertEquals(new String(utf8, StandardCharsets.UTF_8),
+          packer.unpackFromBuffer(direct, packed.length));
+    }
+  }
+
+  @Test
+  public void testRegisteredClassWrittenWithId() {
+    SerializerRegistry registry = SerializerRegistry.getInstance();
+    DataPacker<Object, byte[]> packer = ObjectPacker.getInstance();
+    Node chain = new Node("a", new Node("b", new Node("c", null)));
+    int unregistered = packer.packToByteArray(chain).length;
+
+    registry.register(Node.class, SerializerRegistry.FIRST_USER_ID + 100);
+    byte[] packed = packer.packToByteArray(chain);
+    // the class name is no longer written for each of the nested objects
+    int name = Node.class.getName().getBytes(StandardCharsets.UTF_8).length;
+    Assert.assertEquals(unregistered - 3 * name, packed.length);
+
+    Node read = (Node) packer.unpackFromByteArray(packed);
+    Assert.assertEquals("a", read.name);
+    Assert.assertEquals("b", read.next.name);
+    Assert.assertEquals("c", read.next.next.name);
+    Assert.assertNull(read.next.next.next);
+
+    // registering again with the same id is fine, another class cannot use it
+    registry.register(Node.class, SerializerRegistry.FIRST_USER_ID + 100);
+    try {
+      registry.register(Point.class, SerializerRegistry.FIRST_USER_ID + 100);
+      Assert.fail("the id is already used");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      registry.register(Point.class, 1);
+      Assert.fail("the id is reserved");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testPojoUsesFieldSerializer() {
+    Assert.assertNotNull(SerializerRegistry.getInstance().get(Point.class));
+    Assert.assertNotNull(SerializerRegistry.getInstance().get(Tuple.class));
+  }
+
+  @Test
+  public void testByteArrayRoundTrip() {
+    DataPacker<Object, byte[]> packer = ObjectPacker.getInstance();
+    Object[] values = {
+        new Point(1.5, 2.5, "a", new int[]{1, 2, 3}),
+        new Tuple<>(10, "value"),
+        new Tuple<>("key", new Point(0, -1, "b", new int[0])),
+        new JoinedTuple<>(1L, "left", new double[]{1.0}),
+        "plain string",
+        null,
+    };
+    for (Object value : values) {
+      Object read = packer.unpackFromByteArray(packer.packToByteArray(value));
+      assertSame(value, read);
+    }
+  }
+
+  @Test
+  public void testKryoFallback() {
+    DataPacker<Object, byte[]> packer = ObjectPacker.getInstance();
+    Object value = new ArrayList<>(Arrays.asList(1, 2, 3));
+    Object read = packer.unpackFromByteArray(packer.packToByteArray(value));
+    Assert.assertEquals(value, read);
+  }
+
+  @Test
+  public void testSplitAcrossBuffers() {
+    DataPacker<Object, byte[]> packer = ObjectPacker.getInstance();
+    Point point = new Point(3, 4, "split", new int[]{5, 6, 7, 8, 9});
+
+    PackerStore store = new PackerStore() {
+      private byte[] data;
+
+      @Override
+      public void store(byte[] d) {
+        this.data = d;
+      }
+
+      @Override
+      public byte[] retrieve() {
+        return data;
+      }
+    };
+    int length = packer.determineLength(point, store);
+    int half = length / 2;
+
+    DataBuffer first = new DataBuffer(ByteBuffer.allocate(half));
+    DataBuffer second = new DataBuffer(ByteBuffer.allocate(length));
+    packer.writeDataToBuffer(point, store, 0, length, half, first.getByteBuffer());
+    packer.writeDataToBuffer(point, store, half, length - half, length,
+        second.getByteBuffer());
+    first.setSize(half);
+    second.setSize(length - half);
+
+    ObjectBuilderImpl<Object, byte[]> builder = new ObjectBuilderImpl<>();
+    builder.init(packer, length);
+    int read = packer.readDataFromBuffer(builder, 0, first);
+    Assert.assertEquals(half, read);
+    Assert.assertFalse(builder.isBuilt());
+    builder.incrementCompletedSizeBy(read);
+    read = packer.readDataFromBuffer(builder, 0, second);
+    Assert.assertEquals(length - half, read);
+    Assert.assertTrue(builder.isBuilt());
+    Assert.assertEquals(point, builder.getFinalObject());
+
+    // the whole object in a single buffer is read in place
+    DataBuffer whole = new DataBuffer(ByteBuffer.allocate(length + 4));
+    whole.getByteBuffer().position(4);
+    packer.writeDataToBuffer(point, new PackerStore() {
+      @Override
+      public void store(byte[] d) {
+      }
+
+      @Override
+      public byte[] retrieve() {
+        return null;
+      }
+    }, 0, length, length, whole.getByteBuffer());
+    whole.setSize(length + 4);
+    builder.init(packer, length);
+    Assert.assertEquals(length, packer.readDataFromBuffer(builder, 4, whole));
+    Assert.assertEquals(point, builder.getFinalObject());
+  }
+
+  private void assertSame(Object expected, Object actual) {
+    if (expected instanceof JoinedTuple) {
+      JoinedTuple e = (JoinedTuple) expected;
+      JoinedTuple a = (JoinedTuple) actual;
+      Assert.assertEquals(e.getKey(), a.getKey());
+      Assert.assertEquals(e.getLeftValue(), a.getLeftValue());
+      Assert.assertArrayEquals((double[]) e.getRightValue(), (double[]) a.getRightValue(), 0);
+    } else if (expected instanceof Tuple) {
+      Assert.assertEquals(((Tuple) expected).getKey(), ((Tuple) actual).getKey());
+      Assert.assertEquals(((Tuple) expected).getValue(), ((Tuple) actual).getValue());
+    } else {
+      Assert.assertEquals(expected, actual);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.comms.packing.DataBufferPool;
+import edu.iu.dsc.tws.api.comms.packing.PooledBufferQueue;
+import edu.iu.dsc.tws.api.config.Config;
+
+public class PooledBufferQueueTest {
+  private static final int BUFFER_SIZE = 65536;
+
+  private DataBufferPool pool;
+
+  @Before
+  public void setUp() {
+    Config config = Config.newBuilder()
+        .put(CommunicationContext.BUFFER_SIZE, BUFFER_SIZE)
+        .put(CommunicationContext.BUFFER_POOL_MIN_BUFFER_SIZE, 8192)
+        .put(CommunicationContext.BUFFER_POOL_MAX_BYTES, 1048576L)
+        .build();
+    pool = DataBufferPool.create(config, ByteBuffer::allocateDirect);
+  }
+
+  @Test
+  public void testQuota() {
+    PooledBufferQueue queue = new PooledBufferQueue(pool, 0, false, 2, BUFFER_SIZE);
+    Assert.assertEquals(2, queue.size());
+    DataBuffer first = queue.poll();
+    DataBuffer second = queue.poll();
+    Assert.assertNotNull(first);
+    Assert.assertNotNull(second);
+    Assert.assertNull(queue.poll());
+    Assert.assertEquals(0, queue.size());
+    Assert.assertEquals(2L * BUFFER_SIZE, pool.getEdgeBytesInUse(0));
+
+    queue.offer(first);
+    queue.offer(second);
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(0L, pool.getEdgeBytesInUse(0));
+  }
+
+  @Test
+  public void testSendBuffersShrinkForSmallMessages() {
+    PooledBufferQueue queue = new PooledBufferQueue(pool, 1, true, 4, BUFFER_SIZE);
+    for (int i = 0; i < 16; i++) {
+      DataBuffer buffer = queue.poll();
+      Assert.assertNotNull(buffer);
+      buffer.setSize(100);
+      queue.offer(buffer);
+    }
+    DataBuffer buffer = queue.poll();
+    Assert.assertNotNull(buffer);
+    Assert.assertEquals(8192, buffer.getCapacity());
+
+    // a full buffer makes the next one larger
+    buffer.setSize(buffer.getCapacity());
+    queue.offer(buffer);
+    buffer = queue.poll();
+    Assert.assertNotNull(buffer);
+    Assert.assertEquals(16384, buffer.getCapacity());
+    queue.offer(buffer);
+  }
+
+  @Test
+  public void testWaterMarks() {
+    PooledBufferQueue sends = new PooledBufferQueue(pool, 2, true, 64, BUFFER_SIZE);
+    List<DataBuffer> acquired = new ArrayList<>();
+    DataBuffer buffer;
+    while ((buffer = sends.poll()) != null) {
+      acquired.add(buffer);
+    }
+    Assert.assertTrue(pool.isPaused());
+    Assert.assertEquals(0, sends.size());
+
+    // receives are not affected by the watermarks
+    PooledBufferQueue receives = new PooledBufferQueue(pool, 3, false, 1, 8192);
+    DataBuffer receiveBuffer = receives.poll();
+    Assert.assertNotNull(receiveBuffer);
+    receives.offer(receiveBuffer);
+
+    for (DataBuffer b : acquired) {
+      sends.offer(b);
+    }
+    Assert.assertNotNull(sends.poll());
+    Assert.assertFalse(pool.isPaused());
+  }
+
+  @Test
+  public void testIdleReceiveBuffersReturnToPool() {
+    PooledBufferQueue receives = new PooledBufferQueue(pool, 4, false, 4, BUFFER_SIZE);
+    List<DataBuffer> posted = new ArrayList<>();
+    DataBuffer buffer;
+    while ((buffer = receives.poll()) != null) {
+      posted.add(buffer);
+    }
+    Assert.assertEquals(4, posted.size());
+    Assert.assertEquals(4L * BUFFER_SIZE, pool.getEdgeBytesInUse(4));
+
+    // the channel gives back the receives it cancels when the edge is idle
+    for (DataBuffer b : posted) {
+      receives.offer(b);
+    }
+    Assert.assertEquals(0L, pool.getEdgeBytesInUse(4));
+    Assert.assertEquals(0L, pool.getBytesInUse());
+    Assert.assertEquals(4, receives.size());
+
+    // the released buffers are reused by other edges
+    long allocated = pool.getBytesAllocated();
+    PooledBufferQueue other = new PooledBufferQueue(pool, 5, false, 4, BUFFER_SIZE);
+    Assert.assertNotNull(other.poll());
+    Assert.assertEquals(allocated, pool.getBytesAllocated());
+  }
+
+  @Test
+  public void testCloseForgetsOutstandingBuffers() {
+    PooledBufferQueue receives = new PooledBufferQueue(pool, 6, false, 2, BUFFER_SIZE);
+    Assert.assertNotNull(receives.poll());
+    Assert.assertNotNull(receives.poll());
+    receives.close();
+    Assert.assertEquals(0L, pool.getEdgeBytesInUse(6));
+    Assert.assertEquals(0L, pool.getBytesInUse());
+    Assert.assertEquals(0L, pool.getBytesAllocated());
+  }
+
+  @Test
+  public void testOfferAfterClose() {
+    PooledBufferQueue receives = new PooledBufferQueue(pool, 7, false, 2, BUFFER_SIZE);
+    DataBuffer first = receives.poll();
+    DataBuffer second = receives.poll();
+    Assert.assertNotNull(first);
+    Assert.assertNotNull(second);
+    receives.offer(first);
+    receives.close();
+    long allocated = pool.getBytesAllocated();
+
+    // the channel gives back a posted receive after the edge is closed
+    receives.offer(second);
+    Assert.assertEquals(0L, pool.getEdgeBytesInUse(7));
+    Assert.assertEquals(0L, pool.getBytesInUse());
+    Assert.assertEquals(allocated, pool.getBytesAllocated());
+    Assert.assertNull(receives.poll());
+
+    // only the buffer returned before the close is reused
+    PooledBufferQueue other = new PooledBufferQueue(pool, 8, false, 2, BUFFER_SIZE);
+    Assert.assertNotNull(other.poll());
+    Assert.assertEquals(allocated, pool.getBytesAllocated());
+    Assert.assertNotNull(other.poll());
+    Assert.assertEquals(allocated + BUFFER_SIZE, pool.getBytesAllocated());
+  }
+}
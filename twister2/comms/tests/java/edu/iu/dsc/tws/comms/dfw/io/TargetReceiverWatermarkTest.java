@@ -0,0 +1,316 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.partition.PartitionStreamingFinalReceiver;
+
+public class TargetReceiverWatermarkTest {
+  /**
+   * Sources 0 and 1 are in worker 0, sources 2 and 3 are in worker 1
+   */
+  private static final Set<Integer> SOURCES = new HashSet<>(Arrays.asList(0, 1, 2, 3));
+
+  /**
+   * Targets 4 and 5 are in worker 0
+   */
+  private static final Set<Integer> TARGETS = new HashSet<>(Arrays.asList(4, 5));
+
+  @Test
+  public void testPartialHoldsWatermarkUntilFlushed() {
+    TestOperation op = new TestOperation();
+    TargetPartialReceiver receiver = new TargetPartialReceiver();
+    receiver.init(Config.newBuilder().build(), op, expectedIds());
+
+    op.blocked.add(4);
+    send(receiver, 0, 4, "a");
+    send(receiver, 1, 4, "b");
+    sendWatermark(receiver, 0, 4, 10);
+    receiver.progress();
+    // the watermark of source 1 is not known yet
+    Assert.assertTrue(op.sent(5).isEmpty());
+
+    sendWatermark(receiver, 1, 4, 20);
+    Assert.assertTrue(receiver.progress());
+    // target 5 has no queued data, target 4 cannot take its data yet
+    Assert.assertEquals(Collections.singletonList("W10"), op.sent(5));
+    Assert.assertTrue(op.sent(4).isEmpty());
+
+    op.blocked.clear();
+    receiver.progress();
+    Assert.assertEquals(Arrays.asList("a", "b", "W10"), op.sent(4));
+  }
+
+  @Test
+  public void testPartialOrderUnderBackpressure() {
+    TestOperation op = new TestOperation();
+    TargetPartialReceiver receiver = new TargetPartialReceiver();
+    receiver.init(Config.newBuilder().build(), op, expectedIds());
+
+    // fill the queue of target 4 until the receiver refuses more data
+    op.blocked.add(4);
+    List<Object> expected = new ArrayList<>();
+    int count = 0;
+    while (receiver.onMessage(0, 0, 4, 0, "d" + count)) {
+      expected.add("d" + count++);
+    }
+    Assert.assertTrue(count > 0);
+    sendWatermark(receiver, 0, 4, 100);
+    sendWatermark(receiver, 1, 4, 100);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertTrue(receiver.progress());
+    }
+    Assert.assertTrue(op.sent(4).isEmpty());
+
+    op.blocked.clear();
+    receiver.progress();
+    send(receiver, 0, 4, "after");
+    receiver.progress();
+
+    expected.add("W100");
+    expected.add("after");
+    Assert.assertEquals(expected, op.sent(4));
+  }
+
+  @Test
+  public void testFinalHoldsWatermarkUntilDelivered() {
+    TestOperation op = new TestOperation();
+    TestReceiver target = new TestReceiver();
+    PartitionStreamingFinalReceiver receiver = new PartitionStreamingFinalReceiver(target);
+    receiver.init(Config.newBuilder().build(), op, expectedIds());
+
+    target.blocked = true;
+    send(receiver, 0, 4, "a");
+    send(receiver, 2, 4, "b");
+    // watermarks are combined per worker, sources 0 and 1 are both in worker 0
+    sendWatermark(receiver, 0, 4, 10);
+    sendWatermark(receiver, 1, 4, 30);
+    receiver.progress();
+    Assert.assertTrue(target.received(4).isEmpty());
+
+    sendWatermark(receiver, 2, 4, 20);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertTrue(receiver.progress());
+    }
+    Assert.assertTrue(target.received(4).isEmpty());
+
+    target.blocked = false;
+    receiver.progress();
+    Assert.assertEquals(Arrays.asList("a", "b", "W20"), target.received(4));
+    // no watermark is sent to target 5
+    Assert.assertTrue(target.received(5).isEmpty());
+  }
+
+  @Test
+  public void testFinalOrderUnderBackpressure() {
+    TestOperation op = new TestOperation();
+    TestReceiver target = new TestReceiver();
+    PartitionStreamingFinalReceiver receiver = new PartitionStreamingFinalReceiver(target);
+    receiver.init(Config.newBuilder().build(), op, expectedIds());
+
+    target.blocked = true;
+    List<Object> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      send(receiver, i % 4, 4, "d" + i);
+      expected.add("d" + i);
+      if (i == 49) {
+        sendWatermark(receiver, 0, 4, 50);
+        sendWatermark(receiver, 2, 4, 50);
+      }
+      // let a few messages through now and then
+      target.blocked = i % 10 != 0;
+      receiver.progress();
+      target.blocked = true;
+    }
+
+    target.blocked = false;
+    receiver.progress();
+    List<Object> received = target.received(4);
+    int watermark = received.indexOf("W50");
+    // the watermark may be held back further, but it never overtakes the data before it
+    Assert.assertTrue(watermark > received.indexOf("d49"));
+    received.remove(watermark);
+    Assert.assertEquals(expected, received);
+  }
+
+  private static void send(TargetReceiver receiver, int source, int target, Object value) {
+    while (!receiver.onMessage(source, 0, target, 0, value)) {
+      receiver.progress();
+    }
+  }
+
+  private static void sendWatermark(TargetReceiver receiver, int source, int target,
+                                    long watermark) {
+    Assert.assertTrue(receiver.onMessage(source, 0, target, MessageFlags.SYNC_WATERMARK,
+        Watermarks.toBytes(watermark)));
+  }
+
+  private static Map<Integer, List<Integer>> expectedIds() {
+    Map<Integer, List<Integer>> expectedIds = new HashMap<>();
+    for (int target : TARGETS) {
+      expectedIds.put(target, new ArrayList<>(SOURCES));
+    }
+    return expectedIds;
+  }
+
+  /**
+   * Records what is given to the targets, watermark w is recorded as "Ww". When blocked only
+   * the data is refused, so a watermark would overtake the data if the receiver let it
+   */
+  private static class TestReceiver implements SingularReceiver {
+    private Map<Integer, List<Object>> received = new HashMap<>();
+
+    private boolean blocked;
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+    }
+
+    @Override
+    public boolean receive(int target, Object object) {
+      if (blocked) {
+        return false;
+      }
+      received(target).add(object);
+      return true;
+    }
+
+    @Override
+    public boolean watermark(int target, long watermark) {
+      received(target).add("W" + watermark);
+      return true;
+    }
+
+    List<Object> received(int target) {
+      return received.computeIfAbsent(target, t -> new ArrayList<>());
+    }
+  }
+
+  /**
+   * Records the partial sends, the data sent to the blocked targets is refused while the
+   * watermarks are accepted, so a watermark would overtake the data if the receiver let it
+   */
+  private static class TestOperation implements DataFlowOperation {
+    private LogicalPlan plan;
+
+    private Set<Integer> blocked = new HashSet<>();
+
+    private Map<Integer, List<Object>> sent = new HashMap<>();
+
+    TestOperation() {
+      Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+      workerToLogicalId.put(0, new HashSet<>(Arrays.asList(0, 1, 4, 5)));
+      workerToLogicalId.put(1, new HashSet<>(Arrays.asList(2, 3)));
+      Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+      nodeToLogicalId.put("node-0", new HashSet<>(Arrays.asList(0, 1, 2, 3, 4, 5)));
+      Map<Integer, Set<Integer>> groups = new HashMap<>();
+      groups.put(0, new HashSet<>(Arrays.asList(0, 1)));
+      this.plan = new LogicalPlan(workerToLogicalId, groups, nodeToLogicalId, 0);
+    }
+
+    List<Object> sent(int target) {
+      return sent.computeIfAbsent(target, t -> new ArrayList<>());
+    }
+
+    @Override
+    public boolean sendPartial(int source, Object message, int flags) {
+      return true;
+    }
+
+    @Override
+    public boolean send(int source, Object message, int flags) {
+      return true;
+    }
+
+    @Override
+    public boolean send(int source, Object message, int flags, int target) {
+      return true;
+    }
+
+    @Override
+    public boolean sendPartial(int source, Object message, int flags, int target) {
+      if (Watermarks.isWatermark(flags)) {
+        sent(target).add("W" + Watermarks.fromMessage(message));
+      } else if (blocked.contains(target)) {
+        return false;
+      } else if (message instanceof Collection) {
+        sent(target).addAll((Collection<?>) message);
+      } else {
+        sent(target).add(message);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public MessageType getKeyType() {
+      return MessageTypes.INTEGER;
+    }
+
+    @Override
+    public MessageType getDataType() {
+      return MessageTypes.OBJECT;
+    }
+
+    @Override
+    public LogicalPlan getLogicalPlan() {
+      return plan;
+    }
+
+    @Override
+    public String getUniqueId() {
+      return "target-receiver-watermark-test";
+    }
+
+    @Override
+    public Set<Integer> getSources() {
+      return SOURCES;
+    }
+
+    @Override
+    public Set<Integer> getTargets() {
+      return TARGETS;
+    }
+  }
+}
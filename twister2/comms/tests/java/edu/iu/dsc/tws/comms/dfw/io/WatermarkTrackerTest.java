@@ -0,0 +1,68 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+public class WatermarkTrackerTest {
+
+  @Test
+  public void testCombinedAfterAllInputs() {
+    WatermarkTracker tracker = new WatermarkTracker(3);
+    Assert.assertEquals(Watermarks.NONE, tracker.update(0, 100));
+    Assert.assertEquals(Watermarks.NONE, tracker.update(1, 50));
+    Assert.assertEquals(50, tracker.update(2, 70));
+    Assert.assertEquals(50, tracker.getCombined());
+  }
+
+  @Test
+  public void testMinimumAdvances() {
+    WatermarkTracker tracker = new WatermarkTracker(2);
+    tracker.update(0, 10);
+    Assert.assertEquals(10, tracker.update(1, 20));
+
+    // the slow input has not moved
+    Assert.assertEquals(Watermarks.NONE, tracker.update(1, 30));
+    Assert.assertEquals(30, tracker.update(0, 40));
+    Assert.assertEquals(30, tracker.getCombined());
+  }
+
+  @Test
+  public void testWatermarksDoNotGoBack() {
+    WatermarkTracker tracker = new WatermarkTracker(1);
+    Assert.assertEquals(100, tracker.update(0, 100));
+    Assert.assertEquals(Watermarks.NONE, tracker.update(0, 90));
+    Assert.assertEquals(100, tracker.getCombined());
+    Assert.assertEquals(110, tracker.update(0, 110));
+  }
+
+  @Test
+  public void testClear() {
+    WatermarkTracker tracker = new WatermarkTracker(1);
+    tracker.update(0, 100);
+    tracker.clear();
+    Assert.assertEquals(Watermarks.NONE, tracker.getCombined());
+    Assert.assertEquals(5, tracker.update(0, 5));
+  }
+
+  @Test
+  public void testEncoding() {
+    byte[] bytes = Watermarks.toBytes(1234567890123L);
+    Assert.assertEquals(1234567890123L, Watermarks.fromMessage(bytes));
+    Assert.assertEquals(-5L, Watermarks.fromMessage(new Tuple<>(new byte[0],
+        Watermarks.toBytes(-5L))));
+  }
+}
@@ -0,0 +1,100 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.PrimitiveReduceMap;
+import edu.iu.dsc.tws.comms.functions.reduction.ReduceOperationFunction;
+
+public class PrimitiveReduceMapTest {
+
+  @Test
+  public void testSupportedTypes() {
+    Assert.assertTrue(PrimitiveReduceMap.isSupported(
+        new ReduceOperationFunction(Op.SUM, MessageTypes.INTEGER), MessageTypes.INTEGER));
+    Assert.assertTrue(PrimitiveReduceMap.isSupported(
+        new ReduceOperationFunction(Op.MAX, MessageTypes.DOUBLE_ARRAY), MessageTypes.LONG));
+    Assert.assertFalse(PrimitiveReduceMap.isSupported(
+        new ReduceOperationFunction(Op.SUM, MessageTypes.INTEGER), MessageTypes.OBJECT));
+    Assert.assertFalse(PrimitiveReduceMap.isSupported(new ReduceFunction() {
+      @Override
+      public void init(Config cfg, DataFlowOperation op,
+                       Map<Integer, List<Integer>> expectedIds) {
+      }
+
+      @Override
+      public Object reduce(Object t1, Object t2) {
+        return t1;
+      }
+    }, MessageTypes.INTEGER));
+  }
+
+  @Test
+  public void testScalarReduce() {
+    PrimitiveReduceMap map = PrimitiveReduceMap.create(
+        new ReduceOperationFunction(Op.SUM, MessageTypes.LONG), MessageTypes.INTEGER);
+    for (int i = 0; i < 1000; i++) {
+      map.reduce(i % 100, (long) i);
+    }
+    Assert.assertEquals(100, map.size());
+
+    Map<Object, Object> values = new HashMap<>();
+    Iterator<Object> it = map.iterator();
+    while (it.hasNext()) {
+      Tuple t = (Tuple) it.next();
+      values.put(t.getKey(), t.getValue());
+    }
+    for (int i = 0; i < 100; i++) {
+      // i + (i + 100) + ... + (i + 900)
+      Assert.assertEquals(10L * i + 4500L, values.get(i));
+    }
+  }
+
+  @Test
+  public void testArrayReduceInPlace() {
+    PrimitiveReduceMap map = PrimitiveReduceMap.create(
+        new ReduceOperationFunction(Op.SUM, MessageTypes.DOUBLE_ARRAY), MessageTypes.LONG);
+    double[] value = {1.0, 2.0};
+    map.reduce(1L, value);
+    map.reduce(1L, value);
+    map.reduce(2L, value);
+    // the incoming values should not be modified
+    Assert.assertArrayEquals(new double[]{1.0, 2.0}, value, 0.0);
+
+    Queue<Object> queue = new ArrayDeque<>();
+    map.drainTo(queue);
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertEquals(2, queue.size());
+    Tuple first = (Tuple) queue.poll();
+    Assert.assertEquals(1L, first.getKey());
+    Assert.assertArrayEquals(new double[]{2.0, 4.0}, (double[]) first.getValue(), 0.0);
+
+    // the drained arrays are not reused after clearing
+    map.reduce(1L, value);
+    Assert.assertArrayEquals(new double[]{2.0, 4.0}, (double[]) first.getValue(), 0.0);
+  }
+}
@@ -0,0 +1,186 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.routing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiFunction;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the all reduce schedules by passing the segments between simulated workers and checks
+ * every worker ends up with the sum of all the arrays
+ */
+public class AllReduceScheduleTest {
+
+  @Test
+  public void testRing() {
+    for (int workers = 1; workers <= 9; workers++) {
+      for (int length : new int[]{1, 3, 16, 101}) {
+        run(workers, length, AllReduceSchedule::ring);
+      }
+    }
+  }
+
+  @Test
+  public void testRecursiveHalving() {
+    for (int workers = 1; workers <= 13; workers++) {
+      for (int length : new int[]{1, 3, 16, 101}) {
+        run(workers, length, AllReduceSchedule::recursiveHalving);
+      }
+    }
+  }
+
+  @Test
+  public void testRecursiveDoubling() {
+    for (int workers = 1; workers <= 13; workers++) {
+      run(workers, 7, AllReduceSchedule::recursiveDoubling);
+    }
+  }
+
+  @Test
+  public void testRingSendsLessThanRecursiveDoubling() {
+    int workers = 8;
+    int length = 8000;
+    Assert.assertEquals(2 * 7 * 1000, sentElements(AllReduceSchedule.ring(workers, 0), length));
+    Assert.assertEquals(2 * 7 * 1000,
+        sentElements(AllReduceSchedule.recursiveHalving(workers, 0), length));
+    Assert.assertEquals(3 * 8000,
+        sentElements(AllReduceSchedule.recursiveDoubling(workers, 0), length));
+  }
+
+  @Test
+  public void testHierarchical() {
+    for (int workers = 1; workers <= 12; workers++) {
+      for (int perNode = 1; perNode <= 4; perNode++) {
+        int[] blocked = new int[workers];
+        int[] interleaved = new int[workers];
+        int nodes = (workers + perNode - 1) / perNode;
+        for (int r = 0; r < workers; r++) {
+          blocked[r] = r / perNode;
+          interleaved[r] = r % nodes;
+        }
+        for (int[] groups : new int[][]{blocked, interleaved}) {
+          run(workers, 101, (w, r) -> AllReduceSchedule.hierarchical(groups, r,
+              AllReduceSchedule::ring));
+          run(workers, 101, (w, r) -> AllReduceSchedule.hierarchical(groups, r,
+              AllReduceSchedule::recursiveHalving));
+          run(workers, 7, (w, r) -> AllReduceSchedule.hierarchical(groups, r,
+              AllReduceSchedule::recursiveDoubling));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testHierarchicalOnlyLeadersCrossNodes() {
+    // 2 nodes with 4 workers each
+    int[] groups = {0, 0, 0, 0, 1, 1, 1, 1};
+    for (int r = 0; r < groups.length; r++) {
+      AllReduceSchedule schedule = AllReduceSchedule.hierarchical(groups, r,
+          AllReduceSchedule::ring);
+      for (AllReduceSchedule.Step step : schedule.getSteps()) {
+        if (step.getSendPeer() != AllReduceSchedule.NONE
+            && groups[step.getSendPeer()] != groups[r]) {
+          Assert.assertTrue("Worker " + r + " is not a leader", r == 0 || r == 4);
+        }
+      }
+    }
+  }
+
+  private int sentElements(AllReduceSchedule schedule, int length) {
+    int sent = 0;
+    for (AllReduceSchedule.Step step : schedule.getSteps()) {
+      if (step.getSendPeer() != AllReduceSchedule.NONE) {
+        sent += schedule.offset(step.getSendTo(), length)
+            - schedule.offset(step.getSendFrom(), length);
+      }
+    }
+    return sent;
+  }
+
+  private void run(int workers, int length,
+                   BiFunction<Integer, Integer, AllReduceSchedule> factory) {
+    AllReduceSchedule[] schedules = new AllReduceSchedule[workers];
+    double[][] arrays = new double[workers][length];
+    double[] expected = new double[length];
+    for (int r = 0; r < workers; r++) {
+      schedules[r] = factory.apply(workers, r);
+      for (int i = 0; i < length; i++) {
+        arrays[r][i] = r * 1000 + i;
+        expected[i] += arrays[r][i];
+      }
+    }
+
+    // messages between the workers are delivered in order
+    Map<Long, Queue<double[]>> channels = new HashMap<>();
+    int[] position = new int[workers];
+    boolean[] sent = new boolean[workers];
+    boolean progress = true;
+    while (progress) {
+      progress = false;
+      for (int r = 0; r < workers; r++) {
+        List<AllReduceSchedule.Step> steps = schedules[r].getSteps();
+        if (position[r] == steps.size()) {
+          continue;
+        }
+        AllReduceSchedule.Step step = steps.get(position[r]);
+        if (!sent[r]) {
+          if (step.getSendPeer() != AllReduceSchedule.NONE) {
+            int from = schedules[r].offset(step.getSendFrom(), length);
+            int to = schedules[r].offset(step.getSendTo(), length);
+            channels.computeIfAbsent(key(r, step.getSendPeer()), k -> new ArrayDeque<>())
+                .add(Arrays.copyOfRange(arrays[r], from, to));
+          }
+          sent[r] = true;
+          progress = true;
+        }
+
+        if (step.getRecvPeer() != AllReduceSchedule.NONE) {
+          Queue<double[]> in = channels.get(key(step.getRecvPeer(), r));
+          if (in == null || in.isEmpty()) {
+            continue;
+          }
+          double[] segment = in.poll();
+          int from = schedules[r].offset(step.getRecvFrom(), length);
+          int to = schedules[r].offset(step.getRecvTo(), length);
+          Assert.assertEquals(to - from, segment.length);
+          for (int i = 0; i < segment.length; i++) {
+            arrays[r][from + i] = step.isReduce() ? arrays[r][from + i] + segment[i] : segment[i];
+          }
+        }
+        position[r]++;
+        sent[r] = false;
+        progress = true;
+      }
+    }
+
+    for (int r = 0; r < workers; r++) {
+      Assert.assertEquals("Worker " + r + " of " + workers + " did not finish",
+          schedules[r].getSteps().size(), position[r]);
+      Assert.assertArrayEquals("Worker " + r + " of " + workers, expected, arrays[r], 0.0);
+    }
+    for (Queue<double[]> q : channels.values()) {
+      Assert.assertTrue(q.isEmpty());
+    }
+  }
+
+  private static long key(int from, int to) {
+    return ((long) from << 32) | to;
+  }
+}
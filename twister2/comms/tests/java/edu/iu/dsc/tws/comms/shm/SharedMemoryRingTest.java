@@ -0,0 +1,141 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedMemoryRingTest {
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("twister2-shm").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    dir.delete();
+  }
+
+  @Test
+  public void testWrapAround() throws IOException {
+    File file = new File(dir, "ring");
+    SharedMemoryRing producer = SharedMemoryRing.create(file, 256);
+    SharedMemoryRing consumer = SharedMemoryRing.open(file);
+    ByteBuffer target = ByteBuffer.allocate(256);
+
+    Assert.assertTrue(consumer.isEmpty());
+    for (int i = 0; i < 1000; i++) {
+      int length = i % 97;
+      Assert.assertTrue(producer.offer(i, message(i, length), length));
+      Assert.assertFalse(consumer.isEmpty());
+      Assert.assertEquals(length, consumer.peekLength());
+      Assert.assertEquals(i, consumer.peekEdge());
+      Assert.assertEquals(length, consumer.poll(target));
+      Assert.assertEquals(message(i, length), target);
+      Assert.assertTrue(consumer.isEmpty());
+    }
+    Assert.assertTrue(producer.isDrained());
+    consumer.close();
+    producer.close();
+    Assert.assertFalse(file.exists());
+  }
+
+  @Test
+  public void testFull() throws IOException {
+    File file = new File(dir, "ring");
+    SharedMemoryRing producer = SharedMemoryRing.create(file, 128);
+    SharedMemoryRing consumer = SharedMemoryRing.open(file);
+
+    // frames of 8 + 24 bytes
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(producer.offer(0, message(i, 24), 24));
+    }
+    Assert.assertFalse(producer.offer(0, message(4, 24), 24));
+    Assert.assertFalse(producer.isDrained());
+
+    consumer.poll(ByteBuffer.allocate(128));
+    Assert.assertTrue(producer.offer(0, message(4, 24), 24));
+    producer.close();
+    consumer.close();
+  }
+
+  @Test
+  public void testOpenBeforeCreate() throws IOException {
+    Assert.assertNull(SharedMemoryRing.open(new File(dir, "missing")));
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    File file = new File(dir, "ring");
+    SharedMemoryRing producer = SharedMemoryRing.create(file, 4096);
+    SharedMemoryRing consumer = SharedMemoryRing.open(file);
+    int messages = 20000;
+
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      try {
+        ByteBuffer target = ByteBuffer.allocate(1024);
+        for (int i = 0; i < messages; i++) {
+          while (consumer.isEmpty()) {
+            Thread.yield();
+          }
+          int length = (i * 31) % 1000;
+          Assert.assertEquals(i, consumer.peekEdge());
+          Assert.assertEquals(length, consumer.poll(target));
+          Assert.assertEquals(message(i, length), target);
+        }
+      } catch (Throwable t) {
+        error.set(t);
+      }
+    });
+    reader.start();
+
+    for (int i = 0; i < messages && error.get() == null; i++) {
+      int length = (i * 31) % 1000;
+      ByteBuffer m = message(i, length);
+      while (!producer.offer(i, m, length) && error.get() == null) {
+        Thread.yield();
+      }
+    }
+    reader.join();
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    Assert.assertTrue(producer.isDrained());
+    producer.close();
+    consumer.close();
+  }
+
+  private static ByteBuffer message(int seed, int length) {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    for (int i = 0; i < length; i++) {
+      buffer.put(i, (byte) (seed * 7 + i));
+    }
+    return buffer;
+  }
+}
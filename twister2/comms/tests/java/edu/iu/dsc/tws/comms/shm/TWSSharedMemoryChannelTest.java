@@ -0,0 +1,378 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.messaging.MessageHeader;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.exceptions.JobFaultyException;
+import edu.iu.dsc.tws.api.exceptions.TimeoutException;
+import edu.iu.dsc.tws.api.resource.IWorkerController;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+public class TWSSharedMemoryChannelTest {
+  private static final int EDGE = 5;
+
+  private static final int OTHER_EDGE = 6;
+
+  private static final int BUFFER_SIZE = 128;
+
+  private static final int QUOTA = 4;
+
+  private static final int MESSAGES = 32;
+
+  private File dir;
+
+  private List<JobMasterAPI.WorkerInfo> workers = new ArrayList<>();
+
+  /**
+   * The channel to the workers in other nodes, there are none in this test
+   */
+  public static class NoOpChannel implements TWSChannel {
+    public NoOpChannel(Config config, IWorkerController wController) {
+    }
+
+    @Override
+    public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+      throw new IllegalStateException("All the workers are in the same node");
+    }
+
+    @Override
+    public boolean receiveMessage(int group, int id, int edge, ChannelListener callback,
+                                  Queue<DataBuffer> receiveBuffers) {
+      throw new IllegalStateException("All the workers are in the same node");
+    }
+
+    @Override
+    public void progress() {
+    }
+
+    @Override
+    public void progressSends() {
+    }
+
+    @Override
+    public void progressReceives(int group) {
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public ByteBuffer createBuffer(int capacity) {
+      return ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void releaseBuffers(int wId, int e) {
+    }
+
+    @Override
+    public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+    }
+  }
+
+  private class MockWorkerController implements IWorkerController {
+    private int workerId;
+
+    MockWorkerController(int workerId) {
+      this.workerId = workerId;
+    }
+
+    @Override
+    public JobMasterAPI.WorkerInfo getWorkerInfo() {
+      return workers.get(workerId);
+    }
+
+    @Override
+    public JobMasterAPI.WorkerInfo getWorkerInfoForID(int id) {
+      return workers.get(id);
+    }
+
+    @Override
+    public int getNumberOfWorkers() {
+      return workers.size();
+    }
+
+    @Override
+    public List<JobMasterAPI.WorkerInfo> getJoinedWorkers() {
+      return workers;
+    }
+
+    @Override
+    public List<JobMasterAPI.WorkerInfo> getAllWorkers() throws TimeoutException {
+      return workers;
+    }
+
+    @Override
+    public int workerRestartCount() {
+      return 0;
+    }
+
+    @Override
+    public void waitOnBarrier() throws TimeoutException {
+    }
+
+    @Override
+    public void waitOnBarrier(long timeLimit) throws TimeoutException, JobFaultyException {
+    }
+
+    @Override
+    public void waitOnInitBarrier() throws TimeoutException {
+    }
+  }
+
+  private static final class Receiver implements ChannelListener {
+    private List<ByteBuffer> received = new ArrayList<>();
+    private int sent = 0;
+
+    @Override
+    public void onReceiveComplete(int id, int stream, DataBuffer message) {
+      ByteBuffer copy = ByteBuffer.allocate(message.getSize());
+      ByteBuffer bytes = message.getByteBuffer().duplicate();
+      bytes.position(0);
+      bytes.limit(message.getSize());
+      copy.put(bytes);
+      copy.flip();
+      received.add(copy);
+    }
+
+    @Override
+    public void onSendComplete(int id, int stream, ChannelMessage message) {
+      sent++;
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("twister2-shm").toFile();
+    for (int i = 0; i < 2; i++) {
+      workers.add(JobMasterAPI.WorkerInfo.newBuilder()
+          .setWorkerID(i)
+          .setPort(8000 + i)
+          .setWorkerIP("0.0.0.0")
+          .build());
+    }
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    dir.delete();
+  }
+
+  private Config config() {
+    return Config.newBuilder()
+        .put(Context.JOB_ID, "shm-test")
+        .put(SharedMemoryContext.SHM_DELEGATE_CHANNEL, NoOpChannel.class.getName())
+        .put(SharedMemoryContext.SHM_DIRECTORY, dir.getAbsolutePath())
+        // the smallest ring, a few buffers
+        .put(SharedMemoryContext.SHM_RING_BYTES, 0)
+        .put(CommunicationContext.BUFFER_SIZE, BUFFER_SIZE)
+        .put(CommunicationContext.BUFFER_POOL_EDGE_RECEIVE_QUOTA, QUOTA)
+        .put(CommunicationContext.CHANNEL_PENDING_SIZE, MESSAGES)
+        .build();
+  }
+
+  private static ChannelMessage message(int i) {
+    return message(EDGE, i);
+  }
+
+  private static ChannelMessage message(int edge, int i) {
+    ChannelMessage message = new ChannelMessage();
+    message.setHeader(MessageHeader.newBuilder(0, edge).build());
+    ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    bytes.putInt(i);
+    DataBuffer buffer = new DataBuffer(bytes);
+    buffer.setSize(BUFFER_SIZE - 8);
+    message.addBuffer(buffer);
+    return message;
+  }
+
+  @Test
+  public void testSlowReceiver() {
+    TWSSharedMemoryChannel sender = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(0));
+    TWSSharedMemoryChannel receiver = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(1));
+
+    Receiver sendListener = new Receiver();
+    Receiver receiveListener = new Receiver();
+    // the receiver does not post any buffers at first
+    Queue<DataBuffer> receiveBuffers = new ArrayDeque<>();
+    receiver.receiveMessage(0, 0, EDGE, receiveListener, receiveBuffers);
+    for (int i = 0; i < MESSAGES; i++) {
+      Assert.assertTrue(sender.sendMessage(1, message(i), sendListener));
+    }
+
+    for (int i = 0; i < 100; i++) {
+      sender.progress();
+      receiver.progress();
+    }
+    // the receiver copies at most its quota to the heap, the rest stays in the ring and the
+    // sender waits for space
+    Assert.assertTrue(receiveListener.received.isEmpty());
+    int stalled = sendListener.sent;
+    Assert.assertTrue(stalled > QUOTA);
+    Assert.assertTrue(stalled < MESSAGES);
+    Assert.assertFalse(sender.isComplete());
+
+    // now the receiver takes one message at a time
+    int iterations = 0;
+    while (receiveListener.received.size() < MESSAGES) {
+      if (receiveBuffers.isEmpty()) {
+        receiveBuffers.add(new DataBuffer(ByteBuffer.allocate(BUFFER_SIZE)));
+      }
+      sender.progress();
+      receiver.progress();
+      Assert.assertTrue(iterations++ < 100 * MESSAGES);
+    }
+    Assert.assertEquals(MESSAGES, sendListener.sent);
+    Assert.assertTrue(sender.isComplete());
+    for (int i = 0; i < MESSAGES; i++) {
+      ByteBuffer bytes = receiveListener.received.get(i);
+      Assert.assertEquals(BUFFER_SIZE - 8, bytes.remaining());
+      Assert.assertEquals(i, bytes.getInt());
+    }
+
+    sender.close();
+    receiver.close();
+  }
+
+  private static Queue<DataBuffer> buffers(int count) {
+    Queue<DataBuffer> buffers = new ArrayDeque<>();
+    for (int i = 0; i < count; i++) {
+      buffers.add(new DataBuffer(ByteBuffer.allocate(BUFFER_SIZE)));
+    }
+    return buffers;
+  }
+
+  private static void assertReceived(Receiver listener, int count) {
+    Assert.assertEquals(count, listener.received.size());
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, listener.received.get(i).getInt(0));
+    }
+  }
+
+  @Test
+  public void testLaggingEdgeDoesNotBlockOthers() {
+    TWSSharedMemoryChannel sender = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(0));
+    TWSSharedMemoryChannel receiver = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(1));
+
+    Receiver sendListener = new Receiver();
+    Receiver lagging = new Receiver();
+    Receiver other = new Receiver();
+    Queue<DataBuffer> laggingBuffers = new ArrayDeque<>();
+    receiver.receiveMessage(0, 0, EDGE, lagging, laggingBuffers);
+    receiver.receiveMessage(0, 0, OTHER_EDGE, other, buffers(MESSAGES));
+
+    // the smallest ring holds two buffers, so the lagging edge can copy two over its quota
+    int laggingMessages = QUOTA + 2;
+    for (int i = 0; i < laggingMessages; i++) {
+      Assert.assertTrue(sender.sendMessage(1, message(EDGE, i), sendListener));
+    }
+    for (int i = 0; i < MESSAGES - laggingMessages; i++) {
+      Assert.assertTrue(sender.sendMessage(1, message(OTHER_EDGE, i), sendListener));
+    }
+    for (int i = 0; i < 100; i++) {
+      sender.progress();
+      receiver.progress();
+    }
+    // the messages behind the lagging edge are delivered
+    Assert.assertTrue(lagging.received.isEmpty());
+    assertReceived(other, MESSAGES - laggingMessages);
+    Assert.assertTrue(sender.isComplete());
+
+    laggingBuffers.addAll(buffers(laggingMessages));
+    receiver.progress();
+    assertReceived(lagging, laggingMessages);
+
+    sender.close();
+    receiver.close();
+  }
+
+  @Test
+  public void testLaggingEdgeBlocksAfterOverflow() {
+    TWSSharedMemoryChannel sender = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(0));
+    TWSSharedMemoryChannel receiver = new TWSSharedMemoryChannel(config(),
+        new MockWorkerController(1));
+
+    Receiver sendListener = new Receiver();
+    Receiver lagging = new Receiver();
+    Receiver other = new Receiver();
+    Queue<DataBuffer> laggingBuffers = new ArrayDeque<>();
+    receiver.receiveMessage(0, 0, EDGE, lagging, laggingBuffers);
+    receiver.receiveMessage(0, 0, OTHER_EDGE, other, buffers(MESSAGES));
+
+    int laggingMessages = MESSAGES / 2;
+    for (int i = 0; i < laggingMessages; i++) {
+      Assert.assertTrue(sender.sendMessage(1, message(EDGE, i), sendListener));
+    }
+    for (int i = 0; i < MESSAGES - laggingMessages; i++) {
+      Assert.assertTrue(sender.sendMessage(1, message(OTHER_EDGE, i), sendListener));
+    }
+    for (int i = 0; i < 100; i++) {
+      sender.progress();
+      receiver.progress();
+    }
+    // the lagging edge is behind by more than a ring, so the other edge waits for it
+    Assert.assertTrue(lagging.received.isEmpty());
+    Assert.assertTrue(other.received.isEmpty());
+    Assert.assertFalse(sender.isComplete());
+
+    laggingBuffers.addAll(buffers(laggingMessages));
+    int iterations = 0;
+    while (!sender.isComplete() || other.received.size() < MESSAGES - laggingMessages) {
+      sender.progress();
+      receiver.progress();
+      Assert.assertTrue(iterations++ < 100 * MESSAGES);
+    }
+    assertReceived(lagging, laggingMessages);
+    assertReceived(other, MESSAGES - laggingMessages);
+
+    sender.close();
+    receiver.close();
+  }
+}
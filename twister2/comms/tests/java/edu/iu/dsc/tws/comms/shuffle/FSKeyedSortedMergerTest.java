@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Random;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -31,6 +32,7 @@ import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.util.CommonThreadPool;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class FSKeyedSortedMergerTest {
@@ -64,6 +66,85 @@ public class FSKeyedSortedMergerTest {
 
   @Test
   public void testStart() throws Exception {
+    addAndVerify();
+  }
+
+  @Test
+  public void testCompressed() throws Exception {
+    fsMerger.setCompression(BlockCodecs.get("deflate"), 0.9, 4096);
+    addAndVerify();
+  }
+
+  @Test
+  public void testMultiPassMerge() {
+    multiPassMerge(true, false);
+  }
+
+  @Test
+  public void testMultiPassMergeNotGrouped() {
+    multiPassMerge(false, false);
+  }
+
+  @Test
+  public void testMultiPassMergeCompressed() {
+    multiPassMerge(true, true);
+  }
+
+  /**
+   * Every call to run writes a file, with a fan in of 3 the 25 files are merged in two passes
+   * before reading. Some of the files are empty and the keys repeat within and across files.
+   */
+  private void multiPassMerge(boolean grouped, boolean compressed) {
+    FSKeyedSortedMerger2 merger = new FSKeyedSortedMerger2(1, 0, "/tmp",
+        "fskeyedsortedmerger-multipass", MessageTypes.INTEGER, MessageTypes.INTEGER_ARRAY,
+        Comparator.comparingInt(i -> (Integer) i), 0, grouped, 2, 3);
+    if (compressed) {
+      merger.setCompression(BlockCodecs.get("deflate"), 0.9, 512);
+    }
+    int keys = 50;
+    int[] expected = new int[keys];
+    Random random = new Random(7);
+    try {
+      for (int run = 0; run < 25; run++) {
+        int records = run % 4 == 0 ? 0 : random.nextInt(40);
+        for (int i = 0; i < records; i++) {
+          int key = random.nextInt(keys);
+          byte[] value = IntegerArrayPacker.getInstance().packToByteArray(
+              new int[]{key, run, i});
+          merger.add(key, value, value.length);
+          expected[key]++;
+        }
+        merger.run();
+      }
+      merger.switchToReading();
+
+      int[] found = new int[keys];
+      int current = -1;
+      Iterator<Object> it = merger.readIterator();
+      while (it.hasNext()) {
+        Tuple tuple = (Tuple) it.next();
+        int key = (int) tuple.getKey();
+        if (grouped) {
+          Assert.assertTrue("keys are grouped", key > current);
+          Iterator values = (Iterator) tuple.getValue();
+          while (values.hasNext()) {
+            Assert.assertEquals(key, ((int[]) values.next())[0]);
+            found[key]++;
+          }
+        } else {
+          Assert.assertTrue(key >= current);
+          Assert.assertEquals(key, ((int[]) tuple.getValue())[0]);
+          found[key]++;
+        }
+        current = key;
+      }
+      Assert.assertArrayEquals(expected, found);
+    } finally {
+      merger.clean();
+    }
+  }
+
+  private void addAndVerify() {
     int dataLength = 1024;
     int noOfKeys = 1000;
     int dataForEachKey = 10;
@@ -0,0 +1,132 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.comms.compress.BlockCodecs;
+import edu.iu.dsc.tws.comms.compress.BlockCompressor;
+
+public class FileRunReaderTest {
+  private static final int READ_AHEAD = 64;
+
+  private File file;
+
+  @Before
+  public void before() throws IOException {
+    file = Files.createTempFile("run", ".bin").toFile();
+  }
+
+  @After
+  public void after() {
+    file.delete();
+  }
+
+  @Test
+  public void testEmptyRun() {
+    new RunFileWriter(file.getPath(), MessageTypes.INTEGER).close();
+    FileRunReader reader = new FileRunReader(file.getPath(), MessageTypes.INTEGER, READ_AHEAD);
+    Assert.assertFalse(reader.hasCurrent());
+    reader.close();
+  }
+
+  @Test
+  public void testRecordsLargerThanReadAhead() {
+    RunFileWriter writer = new RunFileWriter(file.getPath(), MessageTypes.INTEGER);
+    write(writer, 40);
+    readAndVerify(new FileRunReader(file.getPath(), MessageTypes.INTEGER, READ_AHEAD), 40);
+  }
+
+  @Test
+  public void testVariableSizeKeys() {
+    RunFileWriter writer = new RunFileWriter(file.getPath(), MessageTypes.STRING);
+    for (int i = 0; i < 30; i++) {
+      byte[] value = value(i);
+      writer.write(String.format("key-%03d", i / 2), value, value.length);
+    }
+    writer.close();
+    FileRunReader reader = new FileRunReader(file.getPath(), MessageTypes.STRING, READ_AHEAD);
+    for (int i = 0; i < 30; i++) {
+      Assert.assertTrue(reader.hasCurrent());
+      Assert.assertEquals(String.format("key-%03d", i / 2), reader.currentKey());
+      Assert.assertArrayEquals(value(i), reader.currentValue());
+      reader.advance();
+    }
+    Assert.assertFalse(reader.hasCurrent());
+    reader.close();
+  }
+
+  @Test
+  public void testCompressed() {
+    RunFileWriter writer = new RunFileWriter(file.getPath(), MessageTypes.INTEGER,
+        new BlockCompressor(BlockCodecs.get("deflate"), 0.9), 256);
+    write(writer, 40);
+    readAndVerify(new FileRunReader(file.getPath(), MessageTypes.INTEGER, READ_AHEAD, true), 40);
+  }
+
+  @Test
+  public void testResetAfterClose() {
+    RunFileWriter writer = new RunFileWriter(file.getPath(), MessageTypes.INTEGER);
+    write(writer, 10);
+    FileRunReader reader = new FileRunReader(file.getPath(), MessageTypes.INTEGER, READ_AHEAD);
+    for (int i = 0; i < 4; i++) {
+      reader.advance();
+    }
+    long mark = reader.mark();
+    while (reader.hasCurrent()) {
+      reader.advance();
+    }
+    // the merger closes the exhausted runs, the file is opened again when we go back
+    reader.close();
+    reader.reset(mark);
+    Assert.assertEquals(2, reader.currentKey());
+    Assert.assertArrayEquals(value(4), reader.currentValue());
+    reader.close();
+  }
+
+  /**
+   * Write records with two values for each key, the values grow past the read ahead size
+   */
+  private void write(RunFileWriter writer, int count) {
+    for (int i = 0; i < count; i++) {
+      byte[] value = value(i);
+      writer.write(i / 2, value, value.length);
+    }
+    writer.close();
+  }
+
+  private void readAndVerify(FileRunReader reader, int count) {
+    for (int i = 0; i < count; i++) {
+      Assert.assertTrue(reader.hasCurrent());
+      Assert.assertEquals(i / 2, reader.currentKey());
+      Assert.assertArrayEquals(value(i), reader.currentValue());
+      reader.advance();
+    }
+    Assert.assertFalse(reader.hasCurrent());
+    reader.close();
+  }
+
+  private byte[] value(int i) {
+    byte[] value = new byte[i * 7];
+    Arrays.fill(value, (byte) i);
+    return value;
+  }
+}
@@ -0,0 +1,127 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+
+public class LoserTreeTest {
+  private static final Comparator<Object> KEYS = Comparator.comparingInt(k -> (Integer) k);
+
+  @Test
+  public void testNoRuns() {
+    LoserTree tree = new LoserTree(new ArrayList<>(), KEYS);
+    Assert.assertFalse(tree.hasNext());
+  }
+
+  @Test
+  public void testOnlyEmptyRuns() {
+    List<Tuple> records = new ArrayList<>();
+    List<RunReader> runs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      runs.add(new MemoryRunReader(records, 0, 0));
+    }
+    Assert.assertFalse(new LoserTree(runs, KEYS).hasNext());
+  }
+
+  @Test
+  public void testManyRunsWithDuplicatesAndEmptyRuns() {
+    Random random = new Random(3);
+    List<Tuple> records = new ArrayList<>();
+    List<RunReader> runs = new ArrayList<>();
+    int total = 0;
+    for (int run = 0; run < 37; run++) {
+      int start = records.size();
+      // every fifth run is empty
+      int size = run % 5 == 0 ? 0 : random.nextInt(50);
+      List<Integer> keys = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        keys.add(random.nextInt(20));
+      }
+      Collections.sort(keys);
+      for (int i = 0; i < size; i++) {
+        records.add(new Tuple<>(keys.get(i), new byte[]{(byte) run, (byte) i}));
+      }
+      runs.add(new MemoryRunReader(records, start, records.size()));
+      total += size;
+    }
+
+    LoserTree tree = new LoserTree(runs, KEYS);
+    int count = 0;
+    int lastKey = Integer.MIN_VALUE;
+    int lastRun = -1;
+    int lastIndex = -1;
+    while (tree.hasNext()) {
+      RunReader winner = tree.winner();
+      int key = (Integer) winner.currentKey();
+      byte[] value = winner.currentValue();
+      Assert.assertTrue(key >= lastKey);
+      // equal keys come out in the order of the runs, and in order within a run
+      if (key == lastKey) {
+        Assert.assertTrue(value[0] > lastRun || (value[0] == lastRun && value[1] > lastIndex));
+      }
+      lastKey = key;
+      lastRun = value[0];
+      lastIndex = value[1];
+      tree.advance();
+      count++;
+    }
+    Assert.assertEquals(total, count);
+  }
+
+  @Test
+  public void testRebuildAfterReset() {
+    List<Tuple> records = new ArrayList<>();
+    List<RunReader> runs = new ArrayList<>();
+    for (int run = 0; run < 3; run++) {
+      int start = records.size();
+      for (int i = 0; i < 4; i++) {
+        records.add(new Tuple<>(i * 3 + run, new byte[0]));
+      }
+      runs.add(new MemoryRunReader(records, start, records.size()));
+    }
+    LoserTree tree = new LoserTree(runs, KEYS);
+    for (int i = 0; i < 5; i++) {
+      tree.advance();
+    }
+    long[] marks = new long[runs.size()];
+    for (int i = 0; i < marks.length; i++) {
+      marks[i] = runs.get(i).mark();
+    }
+    List<Object> first = drain(tree);
+    Assert.assertEquals(7, first.size());
+    Assert.assertEquals(5, first.get(0));
+
+    for (int i = 0; i < marks.length; i++) {
+      runs.get(i).reset(marks[i]);
+    }
+    tree.rebuild();
+    Assert.assertEquals(first, drain(tree));
+  }
+
+  private List<Object> drain(LoserTree tree) {
+    List<Object> keys = new ArrayList<>();
+    while (tree.hasNext()) {
+      keys.add(tree.winner().currentKey());
+      tree.advance();
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,162 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.table.ops;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+import edu.iu.dsc.tws.common.table.ops.VectorOps;
+
+public class ArrowPartitionerTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  private IntVector ints(Integer... values) {
+    IntVector vector = new IntVector("i", allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.set(i, values[i]);
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  private VarCharVector strings(String... values) {
+    VarCharVector vector = new VarCharVector("s", allocator);
+    vector.allocateNew();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  private static Table table(FieldVector... vectors) {
+    return new ArrowTable(null, Arrays.asList(vectors));
+  }
+
+  private static List<Object> row(Table t, int row) {
+    List<Object> values = new ArrayList<>();
+    for (int c = 0; c < t.getColumns().size(); c++) {
+      FieldVector vector = t.getColumns().get(c).getVector();
+      if (vector.isNull(row)) {
+        values.add(null);
+      } else if (vector instanceof VarCharVector) {
+        values.add(new String(((VarCharVector) vector).get(row), StandardCharsets.UTF_8));
+      } else {
+        values.add(((IntVector) vector).get(row));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * The partitions should hold the rows of the table in the original order
+   */
+  private static void assertPartitioned(Table table, int[] partitionOfRow, Table[] partitions) {
+    for (int p = 0; p < partitions.length; p++) {
+      List<List<Object>> expected = new ArrayList<>();
+      for (int i = 0; i < table.rowCount(); i++) {
+        if (partitionOfRow[i] == p) {
+          expected.add(row(table, i));
+        }
+      }
+      if (expected.isEmpty()) {
+        Assert.assertNull(partitions[p]);
+        continue;
+      }
+      Assert.assertEquals(expected.size(), partitions[p].rowCount());
+      for (int i = 0; i < expected.size(); i++) {
+        Assert.assertEquals(expected.get(i), row(partitions[p], i));
+      }
+    }
+  }
+
+  @Test
+  public void testPartition() {
+    Table t = table(ints(1, null, 3, 4, 5, null, 7),
+        strings("a", "bb", null, "", "eeeee", null, "g"));
+    int[] partitionOfRow = {0, 0, 2, 0, 2, 2, 0};
+
+    Table[] partitions = ArrowPartitioner.partition(t, partitionOfRow, 4, null, allocator);
+    Assert.assertEquals(4, partitions.length);
+    assertPartitioned(t, partitionOfRow, partitions);
+  }
+
+  @Test
+  public void testPartitionEmptyTable() {
+    Table t = table(ints(), strings());
+    Table[] partitions = ArrowPartitioner.partition(t, new int[0], 3, null, allocator);
+    Assert.assertArrayEquals(new Table[3], partitions);
+  }
+
+  @Test
+  public void testHashPartitionBatches() {
+    // the same keys in different batches go to the same partition
+    List<Table> batches = new ArrayList<>();
+    batches.add(table(ints(1, 2, 3, null), strings("x", "key", null, "y")));
+    batches.add(table(ints(3, 2, 1), strings(null, "key", "x")));
+    batches.add(table(ints(), strings()));
+    int partitions = 3;
+    int[] keys = {0, 1};
+
+    List<List<Object>> keyOfPartition = new ArrayList<>();
+    for (int p = 0; p < partitions; p++) {
+      keyOfPartition.add(new ArrayList<>());
+    }
+    for (Table t : batches) {
+      int[] hashes = VectorOps.hash(t, keys);
+      int[] partitionOfRow = new int[t.rowCount()];
+      for (int i = 0; i < hashes.length; i++) {
+        partitionOfRow[i] = Math.abs(hashes[i] % partitions);
+      }
+      Table[] split = ArrowPartitioner.partition(t, partitionOfRow, partitions, null,
+          allocator);
+      assertPartitioned(t, partitionOfRow, split);
+
+      for (int i = 0; i < t.rowCount(); i++) {
+        List<Object> key = row(t, i);
+        for (int p = 0; p < partitions; p++) {
+          if (p != partitionOfRow[i]) {
+            Assert.assertFalse(keyOfPartition.get(p).contains(key));
+          }
+        }
+        keyOfPartition.get(partitionOfRow[i]).add(key);
+      }
+    }
+  }
+}
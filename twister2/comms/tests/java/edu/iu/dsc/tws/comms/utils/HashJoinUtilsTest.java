@@ -23,7 +23,10 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.comms.utils;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -35,6 +38,7 @@ import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.structs.JoinedTuple;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
@@ -251,4 +255,152 @@ public class HashJoinUtilsTest {
     fsMerger1.clean();
     fsMerger2.clean();
   }
+
+  private List<Tuple<?, ?>> relation(List<Integer> keys, int value, int copies) {
+    List<Tuple<?, ?>> tuples = new ArrayList<>();
+    for (Integer key : keys) {
+      for (int i = 0; i < copies; i++) {
+        tuples.add(new Tuple<>(key, value));
+      }
+    }
+    Collections.shuffle(tuples);
+    return tuples;
+  }
+
+  @Test
+  public void graceInnerJoinTest() {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      keys.add(i);
+    }
+
+    // a small memory budget forces the partitions to disk
+    Iterator<JoinedTuple> iterator = HashJoinUtils.graceJoin(
+        relation(keys, 1, 2).iterator(), relation(keys, 2, 1).iterator(),
+        CommunicationContext.JoinType.INNER, MessageTypes.INTEGER,
+        MessageTypes.INTEGER, MessageTypes.INTEGER, 1024, 8, "/tmp");
+
+    int count = 0;
+    Set<Integer> keysReceived = new HashSet<>();
+    while (iterator.hasNext()) {
+      JoinedTuple joinedTuple = iterator.next();
+      Assert.assertEquals(1, joinedTuple.getLeftValue());
+      Assert.assertEquals(2, joinedTuple.getRightValue());
+      keysReceived.add((Integer) joinedTuple.getKey());
+      count++;
+    }
+    Assert.assertEquals(keys.size() * 2, count);
+    Assert.assertEquals(keys.size(), keysReceived.size());
+  }
+
+  @Test
+  public void graceOuterJoinTest() {
+    List<Integer> leftKeys = new ArrayList<>();
+    List<Integer> rightKeys = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      if (i % 3 != 0) {
+        leftKeys.add(i);
+      }
+      if (i % 2 == 0) {
+        rightKeys.add(i);
+      }
+    }
+    Set<Integer> leftLookup = new HashSet<>(leftKeys);
+    Set<Integer> rightLookup = new HashSet<>(rightKeys);
+
+    for (CommunicationContext.JoinType joinType : new CommunicationContext.JoinType[]{
+        CommunicationContext.JoinType.LEFT, CommunicationContext.JoinType.RIGHT,
+        CommunicationContext.JoinType.FULL_OUTER}) {
+      Iterator<JoinedTuple> iterator = HashJoinUtils.graceJoin(
+          relation(leftKeys, 1, 1).iterator(), relation(rightKeys, 2, 1).iterator(),
+          joinType, MessageTypes.INTEGER, MessageTypes.INTEGER, MessageTypes.INTEGER,
+          2048, 4, "/tmp");
+
+      Set<Integer> expected = new HashSet<>();
+      if (joinType != CommunicationContext.JoinType.RIGHT) {
+        expected.addAll(leftKeys);
+      }
+      if (joinType != CommunicationContext.JoinType.LEFT) {
+        expected.addAll(rightKeys);
+      }
+
+      Set<Integer> keysReceived = new HashSet<>();
+      while (iterator.hasNext()) {
+        JoinedTuple joinedTuple = iterator.next();
+        Integer key = (Integer) joinedTuple.getKey();
+        Assert.assertEquals(leftLookup.contains(key) ? 1 : null, joinedTuple.getLeftValue());
+        Assert.assertEquals(rightLookup.contains(key) ? 2 : null, joinedTuple.getRightValue());
+        Assert.assertTrue(keysReceived.add(key));
+      }
+      Assert.assertEquals(expected, keysReceived);
+    }
+  }
+
+  @Test
+  public void graceSkewedJoinTest() {
+    // one key has most of the records, so partitioning again does not make it smaller
+    List<Integer> leftKeys = new ArrayList<>();
+    List<Integer> rightKeys = new ArrayList<>();
+    for (int i = 100; i < 200; i++) {
+      leftKeys.add(i);
+    }
+    for (int i = 150; i < 250; i++) {
+      rightKeys.add(i);
+    }
+    List<Tuple<?, ?>> left = relation(Collections.singletonList(7), 1, 300);
+    left.addAll(relation(leftKeys, 1, 1));
+    List<Tuple<?, ?>> right = relation(Collections.singletonList(7), 2, 200);
+    right.addAll(relation(rightKeys, 2, 1));
+
+    for (CommunicationContext.JoinType joinType : CommunicationContext.JoinType.values()) {
+      Iterator<JoinedTuple> iterator = HashJoinUtils.graceJoin(
+          left.iterator(), right.iterator(), joinType, MessageTypes.INTEGER,
+          MessageTypes.INTEGER, MessageTypes.INTEGER, 1024, 4, "/tmp");
+
+      int matched = 0;
+      int leftOnly = 0;
+      int rightOnly = 0;
+      while (iterator.hasNext()) {
+        JoinedTuple joinedTuple = iterator.next();
+        if (joinedTuple.getRightValue() == null) {
+          Assert.assertEquals(1, joinedTuple.getLeftValue());
+          leftOnly++;
+        } else if (joinedTuple.getLeftValue() == null) {
+          Assert.assertEquals(2, joinedTuple.getRightValue());
+          rightOnly++;
+        } else {
+          matched++;
+        }
+      }
+      Assert.assertEquals(300 * 200 + 50, matched);
+      boolean preservesLeft = joinType == CommunicationContext.JoinType.LEFT
+          || joinType == CommunicationContext.JoinType.FULL_OUTER;
+      boolean preservesRight = joinType == CommunicationContext.JoinType.RIGHT
+          || joinType == CommunicationContext.JoinType.FULL_OUTER;
+      Assert.assertEquals(preservesLeft ? 50 : 0, leftOnly);
+      Assert.assertEquals(preservesRight ? 50 : 0, rightOnly);
+    }
+  }
+
+  @Test
+  public void graceJoinCloseTest() throws IOException {
+    File dir = Files.createTempDirectory("grace-join").toFile();
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      keys.add(i);
+    }
+    GraceHashJoin join = HashJoinUtils.graceJoin(
+        relation(keys, 1, 1).iterator(), relation(keys, 2, 1).iterator(),
+        CommunicationContext.JoinType.INNER, MessageTypes.INTEGER,
+        MessageTypes.INTEGER, MessageTypes.INTEGER, 1024, 8, dir.getPath());
+    for (int i = 0; i < 10; i++) {
+      join.next();
+    }
+    Assert.assertEquals(1, dir.list().length);
+
+    join.close();
+    Assert.assertEquals(0, dir.list().length);
+    Assert.assertFalse(join.hasNext());
+    Assert.assertTrue(dir.delete());
+  }
 }
@@ -0,0 +1,427 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.memory.lmdb;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.api.state.ListState;
+import edu.iu.dsc.tws.api.state.ReducingState;
+import edu.iu.dsc.tws.api.state.ValueState;
+import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.data.memory.utils.DataMessageType;
+
+/**
+ * Keeps the states in a memory mapped LMDB database using the {@link LMDBMemoryManager}. The
+ * values are kept outside the heap and paged to the disk by the operating system, so the number
+ * of keys is not limited by the heap.
+ *
+ * Each state is an operation of the memory manager, so the number of states is limited by
+ * {@link LMDBMemoryManagerContext#MAX_DB_INSTANCES}. Keys and values are serialized with kryo,
+ * a serialized key should be less than 503 bytes. A list state uses two operations, one keeps
+ * the number of values of each key and the other keeps each value under the key followed by
+ * the index of the value. Adding a value writes only that value, and the values of a key are
+ * read in order with a cursor.
+ *
+ * Snapshots are compacted copies of the database file streamed to the state store, so the
+ * database is never read in to the heap.
+ *
+ * @param <K> type of the keys
+ */
+public class LMDBKeyedStateBackend<K> implements KeyedStateBackend<K> {
+  private static final Logger LOG = Logger.getLogger(LMDBKeyedStateBackend.class.getName());
+
+  /**
+   * LMDB limits the size of the keys
+   */
+  private static final int MAX_KEY_SIZE = 511;
+
+  /**
+   * The values of a list state are kept under the key followed by a long index
+   */
+  private static final int MAX_LIST_KEY_SIZE = MAX_KEY_SIZE - Long.BYTES;
+
+  /**
+   * Suffix of the name of the operation keeping the values of a list state
+   */
+  private static final String LIST_VALUES = "#values";
+
+  private static final String DATA_FILE = "data.mdb";
+
+  private static final String LOCK_FILE = "lock.mdb";
+
+  private final File dir;
+
+  private final KryoSerializer serializer = new KryoSerializer();
+
+  private LMDBMemoryManager memoryManager;
+
+  /**
+   * Operation ids of the states
+   */
+  private Map<String, Integer> stateIds = new HashMap<>();
+
+  private int nextStateId = 1;
+
+  private K currentKey;
+
+  /**
+   * The serialized current key, null if it is not serialized yet
+   */
+  private byte[] currentKeyBytes;
+
+  private final ByteBuffer keyBuffer = ByteBuffer.allocateDirect(MAX_KEY_SIZE);
+
+  private final ByteBuffer listStart = ByteBuffer.allocateDirect(MAX_KEY_SIZE);
+
+  private final ByteBuffer listStop = ByteBuffer.allocateDirect(MAX_KEY_SIZE);
+
+  private final ByteBuffer countBuffer = ByteBuffer.allocateDirect(Long.BYTES);
+
+  private ByteBuffer valueBuffer =
+      ByteBuffer.allocateDirect(LMDBMemoryManagerContext.DATA_BUFF_INIT_CAP);
+
+  /**
+   * Create the backend, any existing database in the directory is removed
+   *
+   * @param dir directory to keep the database
+   */
+  public LMDBKeyedStateBackend(File dir) {
+    this.dir = dir;
+    deleteDatabase();
+    this.memoryManager = new LMDBMemoryManager(new Path(dir.getAbsolutePath()));
+  }
+
+  @Override
+  public void setCurrentKey(K key) {
+    this.currentKey = key;
+    this.currentKeyBytes = null;
+  }
+
+  @Override
+  public K getCurrentKey() {
+    return currentKey;
+  }
+
+  private int stateId(String name) {
+    Integer id = stateIds.get(name);
+    if (id == null) {
+      id = nextStateId++;
+      memoryManager.addOperation(id, DataMessageType.OBJECT);
+      stateIds.put(name, id);
+    }
+    return id;
+  }
+
+  private ByteBuffer currentKeyBuffer() {
+    if (currentKeyBytes == null) {
+      currentKeyBytes = serializer.serialize(currentKey);
+      if (currentKeyBytes.length > MAX_KEY_SIZE) {
+        throw new RuntimeException("The serialized key " + currentKey + " is larger than "
+            + MAX_KEY_SIZE + " bytes");
+      }
+    }
+    return toKeyBuffer(currentKeyBytes);
+  }
+
+  private ByteBuffer toKeyBuffer(byte[] key) {
+    keyBuffer.clear();
+    keyBuffer.put(key);
+    keyBuffer.flip();
+    return keyBuffer;
+  }
+
+  /**
+   * The key of the value at the given index of a list, the serialized keys are prefix free as
+   * kryo knows where a value ends, so the values of a key are not mixed with other keys
+   */
+  private ByteBuffer toListKey(ByteBuffer listKey, long index) {
+    currentKeyBuffer();
+    if (currentKeyBytes.length > MAX_LIST_KEY_SIZE) {
+      throw new RuntimeException("The serialized key " + currentKey + " of a list state is "
+          + "larger than " + MAX_LIST_KEY_SIZE + " bytes");
+    }
+    listKey.clear();
+    listKey.put(currentKeyBytes);
+    listKey.putLong(index);
+    listKey.flip();
+    return listKey;
+  }
+
+  private ByteBuffer toValueBuffer(byte[] value) {
+    if (valueBuffer.capacity() < value.length) {
+      valueBuffer = ByteBuffer.allocateDirect(Math.max(value.length, valueBuffer.capacity() * 2));
+    }
+    valueBuffer.clear();
+    valueBuffer.put(value);
+    valueBuffer.flip();
+    return valueBuffer;
+  }
+
+  private byte[] getBytes(String name) {
+    ByteBuffer found = memoryManager.get(stateId(name), currentKeyBuffer());
+    if (found == null) {
+      return null;
+    }
+    // the buffer points to the database and is only valid until the next operation
+    byte[] bytes = new byte[found.remaining()];
+    found.get(bytes);
+    return bytes;
+  }
+
+  private void putBytes(String name, byte[] value) {
+    memoryManager.put(stateId(name), currentKeyBuffer(), toValueBuffer(value));
+  }
+
+  private void delete(String name) {
+    memoryManager.delete(stateId(name), currentKeyBuffer());
+  }
+
+  @Override
+  public <V> ValueState<V> getValueState(String name) {
+    return new ValueState<V>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public V value() {
+        byte[] bytes = getBytes(name);
+        return bytes != null ? (V) serializer.deserialize(bytes) : null;
+      }
+
+      @Override
+      public void update(V value) {
+        if (value == null) {
+          clear();
+        } else {
+          putBytes(name, serializer.serialize(value));
+        }
+      }
+
+      @Override
+      public void clear() {
+        delete(name);
+      }
+    };
+  }
+
+  /**
+   * Number of values in a list state for the current key
+   */
+  private long listSize(String name) {
+    ByteBuffer found = memoryManager.get(stateId(name), currentKeyBuffer());
+    return found != null ? found.getLong(found.position()) : 0;
+  }
+
+  @Override
+  public <V> ListState<V> getListState(String name) {
+    String valuesName = name + LIST_VALUES;
+    return new ListState<V>() {
+      @Override
+      public void add(V value) {
+        long size = listSize(name);
+        memoryManager.put(stateId(valuesName), toListKey(listStart, size),
+            toValueBuffer(serializer.serialize(value)));
+        countBuffer.clear();
+        countBuffer.putLong(size + 1);
+        countBuffer.flip();
+        memoryManager.put(stateId(name), currentKeyBuffer(), countBuffer);
+      }
+
+      @Override
+      public Iterable<V> get() {
+        long size = listSize(name);
+        if (size == 0) {
+          return Collections.emptyList();
+        }
+        // the buffers point to the database and are only valid inside the consumer
+        List<byte[]> values = new ArrayList<>();
+        memoryManager.forEach(stateId(valuesName), toListKey(listStart, 0),
+            toListKey(listStop, size - 1), (key, value) -> {
+              byte[] bytes = new byte[value.remaining()];
+              value.get(bytes);
+              values.add(bytes);
+            });
+        return () -> new ListIterator<>(values.iterator());
+      }
+
+      @Override
+      public void clear() {
+        long size = listSize(name);
+        for (long i = 0; i < size; i++) {
+          memoryManager.delete(stateId(valuesName), toListKey(listStart, i));
+        }
+        delete(name);
+      }
+    };
+  }
+
+  @Override
+  public <V> ReducingState<V> getReducingState(String name, BinaryOperator<V> reducer) {
+    return new ReducingState<V>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void add(V value) {
+        byte[] bytes = getBytes(name);
+        V reduced = bytes != null
+            ? reducer.apply((V) serializer.deserialize(bytes), value) : value;
+        putBytes(name, serializer.serialize(reduced));
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public V get() {
+        byte[] bytes = getBytes(name);
+        return bytes != null ? (V) serializer.deserialize(bytes) : null;
+      }
+
+      @Override
+      public void clear() {
+        delete(name);
+      }
+    };
+  }
+
+  /**
+   * Deserialize the values of a list state
+   */
+  private final class ListIterator<V> implements Iterator<V> {
+    private final Iterator<byte[]> values;
+
+    private ListIterator(Iterator<byte[]> values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return values.hasNext();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V next() {
+      return (V) serializer.deserialize(values.next());
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEachKey(String name, Consumer<K> consumer) {
+    Integer id = stateIds.get(name);
+    if (id == null) {
+      return;
+    }
+    // read the keys first, so that the consumer can modify the state
+    List<byte[]> keys = new ArrayList<>();
+    memoryManager.forEach(id, (key, value) -> {
+      byte[] bytes = new byte[key.remaining()];
+      key.get(bytes);
+      keys.add(bytes);
+    });
+    for (byte[] key : keys) {
+      consumer.accept((K) serializer.deserialize(key));
+    }
+  }
+
+  @Override
+  public void snapshot(StateStore store, String key) throws IOException {
+    File copyDir = Files.createTempDirectory(dir.getAbsoluteFile().getParentFile().toPath(),
+        dir.getName() + "-snapshot").toFile();
+    try {
+      memoryManager.copy(copyDir);
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      DataOutputStream headerOut = new DataOutputStream(header);
+      // the ids of the states, followed by the database file
+      headerOut.writeInt(stateIds.size());
+      for (Map.Entry<String, Integer> e : stateIds.entrySet()) {
+        headerOut.writeUTF(e.getKey());
+        headerOut.writeInt(e.getValue());
+      }
+      headerOut.flush();
+      try (InputStream data = new SequenceInputStream(
+          new ByteArrayInputStream(header.toByteArray()),
+          Files.newInputStream(new File(copyDir, DATA_FILE).toPath()))) {
+        store.putStream(key, data);
+      }
+    } finally {
+      for (File f : copyDir.listFiles()) {
+        Files.deleteIfExists(f.toPath());
+      }
+      Files.deleteIfExists(copyDir.toPath());
+    }
+  }
+
+  @Override
+  public void restore(StateStore store, String key) throws IOException {
+    InputStream data = store.getStream(key);
+    if (data == null) {
+      throw new IOException("Couldn't find the keyed state snapshot " + key);
+    }
+    Map<String, Integer> ids = new HashMap<>();
+    int maxId = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(data))) {
+      int states = in.readInt();
+      for (int i = 0; i < states; i++) {
+        String name = in.readUTF();
+        int id = in.readInt();
+        ids.put(name, id);
+        maxId = Math.max(maxId, id);
+      }
+
+      memoryManager.close();
+      deleteDatabase();
+      Files.copy(in, new File(dir, DATA_FILE).toPath());
+    }
+    this.memoryManager = new LMDBMemoryManager(new Path(dir.getAbsolutePath()));
+    for (int id : ids.values()) {
+      memoryManager.addOperation(id, DataMessageType.OBJECT);
+    }
+    this.stateIds = ids;
+    this.nextStateId = maxId + 1;
+    this.currentKeyBytes = null;
+    LOG.fine(() -> String.format("Restored %d keyed states from %s", ids.size(), key));
+  }
+
+  private void deleteDatabase() {
+    try {
+      Files.deleteIfExists(new File(dir, DATA_FILE).toPath());
+      Files.deleteIfExists(new File(dir, LOCK_FILE).toPath());
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to delete the state database in " + dir, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    memoryManager.close();
+    deleteDatabase();
+  }
+}
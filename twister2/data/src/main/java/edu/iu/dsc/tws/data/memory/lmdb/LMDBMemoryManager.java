@@ -25,10 +25,12 @@ import java.util.Stack;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.lmdbjava.CopyFlags;
 import org.lmdbjava.Cursor;
 import org.lmdbjava.CursorIterator;
 import org.lmdbjava.Dbi;
@@ -57,6 +59,11 @@ public class LMDBMemoryManager extends AbstractMemoryManager {
 
   private static final Logger LOG = Logger.getLogger(LMDBMemoryManager.class.getName());
 
+  /**
+   * Name of the thread writing the buffered puts
+   */
+  public static final String WRITER_THREAD = "lmdb-writer";
+
   /**
    * Path to keep the memory mapped file for the Memory manager
    */
@@ -97,6 +104,11 @@ public class LMDBMemoryManager extends AbstractMemoryManager {
 //  private ThreadLocal<Boolean> threadNeedCommit;
   private ThreadLocal<ByteBuffer> threadappendBuffer;
 
+  /**
+   * Writes the values added through {@link #put(int, byte[], byte[])}
+   */
+  private Thread writerThread;
+
   public LMDBMemoryManager(Path dataPath) {
     this.lmdbDataPath = dataPath;
     init();
@@ -130,8 +142,7 @@ public class LMDBMemoryManager extends AbstractMemoryManager {
 
       LMDBMemoryManager.needsCommitReader = false;
       LMDBMemoryManager.needsCommitWriter = true;
-      Thread writerThread = new Thread(new LMDBDataWriter(dbMap, dataQueueMap, env));
-      writerThread.start();
+      // the writer is started by the first buffered put, as it keeps a write txn open
       //populate readTxnStack
 //      readTxns = new Stack<>();
 //      for (int i = 0; i < 10; i++) {
@@ -472,6 +483,7 @@ public class LMDBMemoryManager extends AbstractMemoryManager {
 //      LOG.info("Key size lager than 511 bytes which is the limit for LMDB key values");
 //      return false;
 //    }
+    startWriter();
     try {
       dataQueueMap.get(opID).put(new ImmutablePair<>(key, value));
     } catch (InterruptedException e) {
@@ -907,6 +919,82 @@ public class LMDBMemoryManager extends AbstractMemoryManager {
     return false;
   }*/
 
+  private synchronized void startWriter() {
+    if (writerThread == null) {
+      writerThread = new Thread(new LMDBDataWriter(dbMap, dataQueueMap, env), WRITER_THREAD);
+      writerThread.start();
+    }
+  }
+
+  /**
+   * Call the consumer for all the key value pairs of the given operation. The buffers are only
+   * valid inside the consumer and the store should not be modified by the consumer.
+   *
+   * @param opID id of the operation
+   * @param consumer consumer of the key and the value
+   */
+  public void forEach(int opID, BiConsumer<ByteBuffer, ByteBuffer> consumer) {
+    Dbi<ByteBuffer> currentDB = dbMap.get(opID);
+    if (currentDB == null) {
+      LOG.info("The given operation does not have a corresponding store specified");
+      return;
+    }
+    try (Txn<ByteBuffer> txn = env.txnRead();
+         CursorIterator<ByteBuffer> it = currentDB.iterate(txn, KeyRange.all())) {
+      for (final CursorIterator.KeyVal<ByteBuffer> kv : it.iterable()) {
+        consumer.accept(kv.key(), kv.val());
+      }
+    }
+  }
+
+  /**
+   * Call the consumer for the key value pairs of the given operation with keys between the
+   * given keys, in the order of the keys. The buffers are only valid inside the consumer and
+   * the store should not be modified by the consumer.
+   *
+   * @param opID id of the operation
+   * @param start the first key
+   * @param stop the last key
+   * @param consumer consumer of the key and the value
+   */
+  public void forEach(int opID, ByteBuffer start, ByteBuffer stop,
+                      BiConsumer<ByteBuffer, ByteBuffer> consumer) {
+    Dbi<ByteBuffer> currentDB = dbMap.get(opID);
+    if (currentDB == null) {
+      LOG.info("The given operation does not have a corresponding store specified");
+      return;
+    }
+    try (Txn<ByteBuffer> txn = env.txnRead();
+         CursorIterator<ByteBuffer> it = currentDB.iterate(txn, KeyRange.closed(start, stop))) {
+      for (final CursorIterator.KeyVal<ByteBuffer> kv : it.iterable()) {
+        consumer.accept(kv.key(), kv.val());
+      }
+    }
+  }
+
+  /**
+   * Write a compacted copy of the database to the given directory. The copy is consistent
+   * even if there are writes while copying.
+   *
+   * @param dir an existing empty directory
+   */
+  public void copy(File dir) {
+    env.copy(dir, CopyFlags.MDB_CP_COMPACT);
+  }
+
+  /**
+   * Close the environment. This should be called by the thread which used the memory manager
+   * and the memory manager cannot be used after this.
+   */
+  public void close() {
+    Txn<ByteBuffer> txn = threadReadTxn.get();
+    if (txn != null) {
+      txn.close();
+      threadReadTxn.remove();
+    }
+    env.close();
+  }
+
   public Path getLmdbDataPath() {
     return lmdbDataPath;
   }
@@ -0,0 +1,160 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.state;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.api.state.ListState;
+import edu.iu.dsc.tws.api.state.ReducingState;
+import edu.iu.dsc.tws.api.state.ValueState;
+import edu.iu.dsc.tws.api.util.KryoSerializer;
+
+/**
+ * Keeps the states as objects in the heap. This is the fastest backend, but the states of all
+ * the keys should fit in to the memory of the worker.
+ *
+ * @param <K> type of the keys
+ */
+public class HeapKeyedStateBackend<K> implements KeyedStateBackend<K> {
+
+  /**
+   * The states, state name -> (key -> value)
+   */
+  private HashMap<String, HashMap<K, Object>> states = new HashMap<>();
+
+  private K currentKey;
+
+  @Override
+  public void setCurrentKey(K key) {
+    this.currentKey = key;
+  }
+
+  @Override
+  public K getCurrentKey() {
+    return currentKey;
+  }
+
+  private HashMap<K, Object> getState(String name) {
+    return states.computeIfAbsent(name, n -> new HashMap<>());
+  }
+
+  @Override
+  public <V> ValueState<V> getValueState(String name) {
+    return new ValueState<V>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public V value() {
+        return (V) getState(name).get(currentKey);
+      }
+
+      @Override
+      public void update(V value) {
+        if (value == null) {
+          clear();
+        } else {
+          getState(name).put(currentKey, value);
+        }
+      }
+
+      @Override
+      public void clear() {
+        getState(name).remove(currentKey);
+      }
+    };
+  }
+
+  @Override
+  public <V> ListState<V> getListState(String name) {
+    return new ListState<V>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void add(V value) {
+        ((List<V>) getState(name).computeIfAbsent(currentKey, k -> new ArrayList<>()))
+            .add(value);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Iterable<V> get() {
+        List<V> values = (List<V>) getState(name).get(currentKey);
+        return values != null ? values : Collections.emptyList();
+      }
+
+      @Override
+      public void clear() {
+        getState(name).remove(currentKey);
+      }
+    };
+  }
+
+  @Override
+  public <V> ReducingState<V> getReducingState(String name, BinaryOperator<V> reducer) {
+    return new ReducingState<V>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void add(V value) {
+        getState(name).merge(currentKey, value, (v1, v2) -> reducer.apply((V) v1, (V) v2));
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public V get() {
+        return (V) getState(name).get(currentKey);
+      }
+
+      @Override
+      public void clear() {
+        getState(name).remove(currentKey);
+      }
+    };
+  }
+
+  @Override
+  public void forEachKey(String name, Consumer<K> consumer) {
+    HashMap<K, Object> state = states.get(name);
+    if (state != null) {
+      // copy the keys so that the consumer can modify the state
+      for (K key : new ArrayList<>(state.keySet())) {
+        consumer.accept(key);
+      }
+    }
+  }
+
+  @Override
+  public void snapshot(StateStore store, String key) throws IOException {
+    store.put(key, new KryoSerializer().serialize(states));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void restore(StateStore store, String key) throws IOException {
+    byte[] data = store.get(key);
+    if (data == null) {
+      throw new IOException("Couldn't find the keyed state snapshot " + key);
+    }
+    this.states = (HashMap<String, HashMap<K, Object>>) new KryoSerializer().deserialize(data);
+  }
+
+  @Override
+  public void close() {
+    states.clear();
+  }
+}
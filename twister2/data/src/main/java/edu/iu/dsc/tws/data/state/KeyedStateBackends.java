@@ -0,0 +1,134 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import edu.iu.dsc.tws.api.checkpointing.Snapshot;
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.data.memory.lmdb.LMDBKeyedStateBackend;
+
+/**
+ * Creates the keyed state backends from the configuration and links their snapshots to the
+ * task snapshots.
+ */
+public final class KeyedStateBackends {
+
+  /**
+   * The keyed state backend, heap or lmdb
+   */
+  public static final String BACKEND = "twister2.state.backend";
+
+  /**
+   * Directory to keep the lmdb databases, defaults to the java temp directory
+   */
+  public static final String LMDB_DIR = "twister2.state.lmdb.dir";
+
+  /**
+   * Key of the task snapshot which holds the store key of the keyed state snapshot
+   */
+  public static final String SNAPSHOT_KEY = "twister2.keyed.state";
+
+  public enum Type {
+    HEAP,
+    LMDB
+  }
+
+  private KeyedStateBackends() {
+  }
+
+  public static Type backendType(Config cfg) {
+    return Type.valueOf(cfg.getStringValue(BACKEND, Type.HEAP.name()).toUpperCase());
+  }
+
+  /**
+   * Create the backend configured for the job
+   *
+   * @param cfg configuration
+   * @param id unique id of the task using the backend in the worker
+   * @param <K> type of the keys
+   * @return the backend
+   */
+  public static <K> KeyedStateBackend<K> newBackend(Config cfg, String id) {
+    if (backendType(cfg) == Type.LMDB) {
+      File dir = new File(cfg.getStringValue(LMDB_DIR, System.getProperty("java.io.tmpdir")),
+          "twister2-state");
+      String jobId = Context.jobId(cfg);
+      if (jobId != null) {
+        dir = new File(dir, jobId);
+      }
+      return new LMDBKeyedStateBackend<>(new File(dir, id));
+    }
+    return new HeapKeyedStateBackend<>();
+  }
+
+  /**
+   * Write the backend to the store and keep its key in the task snapshot. A new key is used
+   * for every snapshot, so the keyed state of an earlier version is not overwritten until it
+   * is removed with {@link #deleteSnapshot(StateStore, String)}.
+   *
+   * @param backend the backend
+   * @param store store of the task
+   * @param snapshot task snapshot being taken
+   * @return the store key of the keyed state
+   * @throws IOException if writing to the store fails
+   */
+  public static String takeSnapshot(KeyedStateBackend<?> backend, StateStore store,
+                                    Snapshot snapshot) throws IOException {
+    String key = SNAPSHOT_KEY + "." + UUID.randomUUID();
+    backend.snapshot(store, key);
+    snapshot.setValue(SNAPSHOT_KEY, key);
+    return key;
+  }
+
+  /**
+   * Get the store key of the keyed state referred by a task snapshot
+   *
+   * @param snapshot the task snapshot
+   * @return the key or null if the snapshot has no keyed state
+   */
+  public static String snapshotKey(Snapshot snapshot) {
+    return (String) snapshot.get(SNAPSHOT_KEY);
+  }
+
+  /**
+   * Remove a keyed state snapshot which is no longer referred by a task snapshot
+   *
+   * @param store store of the task
+   * @param key store key of the keyed state
+   * @throws IOException if removing from the store fails
+   */
+  public static void deleteSnapshot(StateStore store, String key) throws IOException {
+    store.delete(key);
+  }
+
+  /**
+   * Restore the backend from the keyed state referred by the task snapshot, if there is any
+   *
+   * @param backend the backend
+   * @param store store of the task
+   * @param snapshot the restored task snapshot
+   * @throws IOException if reading from the store fails
+   */
+  public static void restoreSnapshot(KeyedStateBackend<?> backend, StateStore store,
+                                     Snapshot snapshot) throws IOException {
+    String key = snapshotKey(snapshot);
+    if (key != null) {
+      backend.restore(store, key);
+    }
+  }
+}
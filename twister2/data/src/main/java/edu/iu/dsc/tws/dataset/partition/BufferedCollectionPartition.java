@@ -331,6 +331,24 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
     this.flush();
   }
 
+  /**
+   * The files holding the frames written to the disk, in the order of the frames
+   */
+  protected List<Path> getFiles() {
+    return this.filesList;
+  }
+
+  /**
+   * The frames buffered in memory that are not yet written to the disk
+   */
+  protected List<byte[]> getBuffers() {
+    return this.buffers;
+  }
+
+  protected MessageType getDataType() {
+    return this.dataType;
+  }
+
   @Override
   public String getReference() {
     return this.reference;
@@ -15,45 +15,110 @@ package edu.iu.dsc.tws.dataset.partition;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.data.FileSystem;
 import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 import edu.iu.dsc.tws.data.utils.FileSystemUtils;
 
 public class DiskBackedCollectionPartition<T> extends BufferedCollectionPartition<T> {
 
   private static final String CONFIG_FS_ROOT = "twister2.data.fs.root";
-  private static final String FS_PROTO = "file://";
+  private static final String FILE_SCHEME = "file";
+  private static final String FS_PROTO = FILE_SCHEME + "://";
+
+  /**
+   * Weather to read the partition files by memory mapping them
+   */
+  private static final String CONFIG_MEMORY_MAP = "twister2.data.fs.memory.map";
+
+  private boolean memoryMap;
+
+  /**
+   * Consumers mapping the files of this partition, released when the partition is cleared
+   */
+  private final Set<MappedPartitionConsumer<T>> consumers =
+      Collections.newSetFromMap(new WeakHashMap<>());
 
   public DiskBackedCollectionPartition(long maxFramesInMemory, MessageType dataType,
                                        long bufferedBytes, Config config, String reference) {
     super(maxFramesInMemory, dataType, bufferedBytes, config, reference);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
   }
 
   public DiskBackedCollectionPartition(long maxFramesInMemory, Config config) {
     super(maxFramesInMemory, config);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
   }
 
   public DiskBackedCollectionPartition(long maxFramesInMemory, Config config,
                                        String reference) {
     super(maxFramesInMemory, config, reference);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
   }
 
   public DiskBackedCollectionPartition(long maxFramesInMemory, MessageType dataType,
                                        Config config) {
     super(maxFramesInMemory, dataType, config);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
   }
 
   public DiskBackedCollectionPartition(MessageType dataType, long bufferedBytes, Config config) {
     super(dataType, bufferedBytes, config);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
   }
 
   public DiskBackedCollectionPartition(MessageType dataType, long bufferedBytes,
                                        Config config, String reference) {
     super(dataType, bufferedBytes, config, reference);
+    this.memoryMap = config.getBooleanValue(CONFIG_MEMORY_MAP, true);
+  }
+
+  /**
+   * Reads the files by memory mapping them, falls back to reading through the file system
+   * if memory mapping is disabled or a file cannot be mapped
+   */
+  @Override
+  public DataPartitionConsumer<T> getConsumer() {
+    if (!memoryMap) {
+      return super.getConsumer();
+    }
+    List<File> files = new ArrayList<>();
+    for (Path path : getFiles()) {
+      URI uri = path.toUri();
+      // only the files of the local file system can be mapped
+      if (!FILE_SCHEME.equals(uri.getScheme())) {
+        return super.getConsumer();
+      }
+      File file = new File(uri.getPath());
+      if (file.length() > Integer.MAX_VALUE) {
+        return super.getConsumer();
+      }
+      files.add(file);
+    }
+    MappedPartitionConsumer<T> consumer = new MappedPartitionConsumer<>(dataList.iterator(),
+        files, getBuffers().iterator(), getDataType());
+    if (!files.isEmpty()) {
+      consumers.add(consumer);
+    }
+    return consumer;
+  }
+
+  @Override
+  public void clear() {
+    for (MappedPartitionConsumer<T> consumer : consumers) {
+      consumer.release();
+    }
+    consumers.clear();
+    super.clear();
   }
 
   protected String getRootPathStr(Config config) {
@@ -0,0 +1,206 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the heap footprint of an object by walking the objects reachable from it, assuming a
+ * 64 bit JVM with compressed references. Large object arrays are estimated from a sample of their
+ * elements. Collections and maps whose fields cannot be accessed are walked through their
+ * elements.
+ */
+final class HeapSize {
+  /**
+   * Size of a reference, this is also the cost of a frame in the list of a partition
+   */
+  static final int REFERENCE = 4;
+
+  private static final int OBJECT_HEADER = 12;
+
+  private static final int ARRAY_HEADER = 16;
+
+  private static final int ALIGNMENT = 8;
+
+  /**
+   * Object arrays with more elements than this are estimated from this many elements
+   */
+  private static final int ARRAY_SAMPLES = 100;
+
+  /**
+   * Size of an entry of a hash map
+   */
+  private static final long MAP_ENTRY = align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+
+  private static final Map<Class<?>, ClassInfo> CLASSES = new ConcurrentHashMap<>();
+
+  private HeapSize() {
+  }
+
+  /**
+   * Estimate the heap bytes used by the object and the objects reachable from it
+   *
+   * @param value the object
+   * @return estimated size in bytes
+   */
+  static long of(Object value) {
+    return walk(value, new IdentityHashMap<>());
+  }
+
+  private static long walk(Object value, IdentityHashMap<Object, Boolean> visited) {
+    Deque<Object> pending = new ArrayDeque<>();
+    enqueue(value, pending, visited);
+    long size = 0;
+    while (!pending.isEmpty()) {
+      size += shallow(pending.pop(), pending, visited);
+    }
+    return size;
+  }
+
+  private static void enqueue(Object value, Deque<Object> pending,
+                              IdentityHashMap<Object, Boolean> visited) {
+    // classes and enum constants are shared by everyone
+    if (value == null || value instanceof Class || value instanceof Enum
+        || visited.put(value, Boolean.TRUE) != null) {
+      return;
+    }
+    pending.push(value);
+  }
+
+  /**
+   * Size of the object itself, the objects it refers to are added to pending
+   */
+  private static long shallow(Object value, Deque<Object> pending,
+                              IdentityHashMap<Object, Boolean> visited) {
+    Class<?> type = value.getClass();
+    if (type.isArray()) {
+      return array(value, type.getComponentType(), pending, visited);
+    }
+    if (value instanceof String) {
+      // the string and its character array
+      return align(OBJECT_HEADER + 4 + REFERENCE)
+          + align(ARRAY_HEADER + 2L * ((String) value).length());
+    }
+
+    ClassInfo info = CLASSES.computeIfAbsent(type, ClassInfo::new);
+    long size = info.size;
+    for (Field f : info.references) {
+      try {
+        enqueue(f.get(value), pending, visited);
+      } catch (IllegalAccessException e) {
+        // not reachable for us, count the reference only
+      }
+    }
+    if (info.opaque) {
+      if (value instanceof Collection) {
+        Collection<?> c = (Collection<?>) value;
+        size += align(ARRAY_HEADER + (long) REFERENCE * c.size());
+        for (Object o : c) {
+          enqueue(o, pending, visited);
+        }
+      } else if (value instanceof Map) {
+        Map<?, ?> m = (Map<?, ?>) value;
+        size += align(ARRAY_HEADER + (long) REFERENCE * m.size()) + MAP_ENTRY * m.size();
+        for (Map.Entry<?, ?> e : m.entrySet()) {
+          enqueue(e.getKey(), pending, visited);
+          enqueue(e.getValue(), pending, visited);
+        }
+      }
+    }
+    return size;
+  }
+
+  private static long array(Object array, Class<?> component, Deque<Object> pending,
+                            IdentityHashMap<Object, Boolean> visited) {
+    int length = Array.getLength(array);
+    if (component.isPrimitive()) {
+      return align(ARRAY_HEADER + (long) primitiveSize(component) * length);
+    }
+
+    long size = align(ARRAY_HEADER + (long) REFERENCE * length);
+    Object[] elements = (Object[]) array;
+    if (length <= ARRAY_SAMPLES) {
+      for (Object o : elements) {
+        enqueue(o, pending, visited);
+      }
+      return size;
+    }
+    long sampled = 0;
+    for (int i = 0; i < ARRAY_SAMPLES; i++) {
+      sampled += walk(elements[(int) ((long) i * length / ARRAY_SAMPLES)], visited);
+    }
+    return size + sampled * length / ARRAY_SAMPLES;
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long bytes) {
+    return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  /**
+   * The shallow size and the reference fields of a class
+   */
+  private static final class ClassInfo {
+    private final long size;
+
+    private final List<Field> references = new ArrayList<>();
+
+    /**
+     * Weather some reference fields of the class cannot be accessed
+     */
+    private boolean opaque;
+
+    ClassInfo(Class<?> type) {
+      long fields = 0;
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (Field f : c.getDeclaredFields()) {
+          if (Modifier.isStatic(f.getModifiers())) {
+            continue;
+          }
+          if (f.getType().isPrimitive()) {
+            fields += primitiveSize(f.getType());
+            continue;
+          }
+          fields += REFERENCE;
+          try {
+            f.setAccessible(true);
+            references.add(f);
+          } catch (RuntimeException e) {
+            // fields of the jdk classes are not accessible in newer versions of java
+            opaque = true;
+          }
+        }
+      }
+      size = align(OBJECT_HEADER + fields);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.packing.DataPacker;
+import edu.iu.dsc.tws.api.comms.packing.types.primitive.PrimitiveArrayPacker;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.util.MemoryMapUtils;
+
+/**
+ * Iterates a buffered partition by memory mapping its files. The frames are decoded directly
+ * from views of the mapped file without copying them in to byte arrays, primitive arrays are
+ * bulk copied from the view. The first file is mapped and loaded in the background when the
+ * consumer is first used, and while a file is consumed the next file is mapped the same way.
+ * A file is unmapped once its frames are read, the partition releases the consumers that are
+ * not read to the end when it is cleared.
+ *
+ * @param <T> type of the frames
+ */
+class MappedPartitionConsumer<T> implements DataPartitionConsumer<T> {
+  private static final Logger LOG = Logger.getLogger(MappedPartitionConsumer.class.getName());
+
+  private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "partition-prefetch");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final Iterator<T> inMemory;
+
+  private final List<File> files;
+
+  private final Iterator<byte[]> buffers;
+
+  private final DataPacker packer;
+
+  /**
+   * Unit size of the elements for primitive arrays, 0 otherwise
+   */
+  private final int unitSize;
+
+  private int nextFile = 0;
+
+  /**
+   * The file being read, positioned at the next frame
+   */
+  private ByteBuffer current;
+
+  /**
+   * The mapping of the file being read
+   */
+  private MappedByteBuffer mapped;
+
+  private long framesLeft = 0;
+
+  private Future<MappedByteBuffer> prefetch;
+
+  MappedPartitionConsumer(Iterator<T> inMemory, List<File> files, Iterator<byte[]> buffers,
+                          MessageType dataType) {
+    this.inMemory = inMemory;
+    this.files = files;
+    this.buffers = buffers;
+    this.packer = dataType.getDataPacker();
+    this.unitSize = packer instanceof PrimitiveArrayPacker ? dataType.getUnitSizeInBytes() : 0;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (prefetch == null && nextFile < files.size()) {
+      // start loading the first file while the frames in memory are read
+      File first = files.get(0);
+      prefetch = PREFETCHER.submit(() -> map(first));
+    }
+    if (inMemory.hasNext()) {
+      return true;
+    }
+    nextFrames();
+    return framesLeft > 0 || buffers.hasNext();
+  }
+
+  @Override
+  public T next() {
+    if (inMemory.hasNext()) {
+      return inMemory.next();
+    }
+
+    nextFrames();
+    if (framesLeft > 0) {
+      framesLeft--;
+      int size = current.getInt();
+      ByteBuffer frame = current.slice();
+      frame.limit(size);
+      current.position(current.position() + size);
+      return decode(frame, size);
+    }
+
+    if (buffers.hasNext()) {
+      return (T) packer.unpackFromByteArray(buffers.next());
+    }
+    throw new Twister2RuntimeException("No more frames available in this partition");
+  }
+
+  /**
+   * Move to the next file with frames if the current file is read
+   */
+  private void nextFrames() {
+    while (framesLeft == 0 && nextFile < files.size()) {
+      openNextFile();
+    }
+    if (framesLeft == 0) {
+      unmap();
+    }
+  }
+
+  private void openNextFile() {
+    File file = files.get(nextFile++);
+    if (prefetch == null) {
+      prefetch = PREFETCHER.submit(() -> map(file));
+    }
+    unmap();
+    try {
+      mapped = prefetch.get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new Twister2RuntimeException("Failed to map the file : " + file, e);
+    }
+    prefetch = null;
+    current = mapped;
+    if (nextFile < files.size()) {
+      File next = files.get(nextFile);
+      prefetch = PREFETCHER.submit(() -> map(next));
+    }
+    framesLeft = current.getLong();
+  }
+
+  /**
+   * Unmap the file being read and the file being prefetched, the consumer does not return any
+   * more frames from the files after this
+   */
+  void release() {
+    nextFile = files.size();
+    framesLeft = 0;
+    unmap();
+    if (prefetch != null) {
+      try {
+        unmap(prefetch.get());
+      } catch (InterruptedException | ExecutionException e) {
+        LOG.log(Level.FINE, "Failed to map a file of the partition", e);
+      }
+      prefetch = null;
+    }
+  }
+
+  private void unmap() {
+    if (mapped != null) {
+      unmap(mapped);
+      mapped = null;
+      current = null;
+    }
+  }
+
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      MemoryMapUtils.unMapBuffer(buffer);
+    } catch (ReflectiveOperationException e) {
+      LOG.log(Level.FINE, "Failed to unmap a file of the partition", e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T decode(ByteBuffer frame, int size) {
+    if (unitSize > 0) {
+      PrimitiveArrayPacker arrayPacker = (PrimitiveArrayPacker) packer;
+      Object array = arrayPacker.wrapperForByteLength(size);
+      if (arrayPacker.bulkReadFromBuffer(frame, array, 0, size / unitSize)) {
+        return (T) array;
+      }
+    }
+    return (T) packer.unpackFromBuffer(frame, size);
+  }
+
+  /**
+   * Map a file and load its pages in to memory
+   */
+  private static MappedByteBuffer map(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      buffer.load();
+      return buffer;
+    }
+  }
+}
@@ -0,0 +1,393 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.dataset.consumer.IterativeConsumer;
+
+/**
+ * A collection partition which is kept in memory as long as the {@link TieredPartitionStore} of
+ * the worker has enough budget, and spilled to the local disk otherwise. A spilled partition is
+ * loaded back to memory when it is consumed, or streamed from the disk if it does not fit in to
+ * the budget at all.
+ *
+ * Frames written to the disk are never rewritten, so evicting a partition that was loaded back
+ * only drops the in memory copy. The frames are written in blocks, each compressed on its own,
+ * so that a partition streamed from the disk reads one block at a time without keeping the file
+ * open between the reads.
+ *
+ * The memory used by a partition is estimated from the heap footprint of a sample of its frames.
+ *
+ * @param <T> type of the frames
+ */
+public class TieredCollectionPartition<T> extends CollectionPartition<T> implements Closeable {
+
+  /**
+   * Number of frames sampled before we start sampling every {@link #SAMPLE_INTERVAL} frame
+   */
+  private static final int INITIAL_SAMPLES = 16;
+
+  private static final int SAMPLE_INTERVAL = 64;
+
+  /**
+   * Report the size to the store after these many additions
+   */
+  private static final int REPORT_INTERVAL = 1024;
+
+  private static final int IO_BUFFER = 64 * 1024;
+
+  /**
+   * Approximate number of serialized bytes in a block on the disk
+   */
+  private static final int BLOCK_BYTES = 16 * IO_BUFFER;
+
+  private final TieredPartitionStore store;
+
+  private final MessageType dataType;
+
+  private final File file;
+
+  /**
+   * Number of frames written to the file, these are the first frames of the partition
+   */
+  private long diskFrames;
+
+  /**
+   * Position in the file and the number of frames of each block on the disk
+   */
+  private List<long[]> blocks = new ArrayList<>();
+
+  /**
+   * Weather the frames on disk are also in the data list
+   */
+  private boolean loaded;
+
+  private long frames;
+
+  /**
+   * Estimated heap bytes of the sampled frames
+   */
+  private long sampledBytes;
+
+  private long sampledFrames;
+
+  private volatile long accessCount;
+
+  public TieredCollectionPartition(Config config) {
+    this(MessageTypes.OBJECT, config);
+  }
+
+  public TieredCollectionPartition(MessageType dataType, Config config) {
+    this(dataType, TieredPartitionStore.getInstance(config));
+  }
+
+  TieredCollectionPartition(MessageType dataType, TieredPartitionStore store) {
+    this.dataType = dataType;
+    this.store = store;
+    this.file = new File(store.getSpillDir(), UUID.randomUUID().toString()
+        + (store.isCompress() ? ".gz" : ".tier"));
+  }
+
+  @Override
+  public void add(T val) {
+    boolean report;
+    synchronized (this) {
+      dataList.add(val);
+      if (frames < INITIAL_SAMPLES || frames % SAMPLE_INTERVAL == 0) {
+        sampledBytes += HeapSize.of(val) + HeapSize.REFERENCE;
+        sampledFrames++;
+      }
+      frames++;
+      report = frames % REPORT_INTERVAL == 0;
+    }
+    if (report) {
+      report();
+    }
+  }
+
+  @Override
+  public void addAll(Collection<T> vals) {
+    for (T val : vals) {
+      add(val);
+    }
+  }
+
+  /**
+   * Report the resident size to the store, spill this partition if it does not fit in to the
+   * budget by itself
+   */
+  private void report() {
+    long bytes = residentBytes();
+    if (store.fits(bytes)) {
+      store.resident(this, bytes);
+    } else {
+      store.evicted(this);
+      spill();
+    }
+  }
+
+  @Override
+  public DataPartitionConsumer<T> getConsumer() {
+    accessCount++;
+    List<T> frameList = null;
+    boolean hit = false;
+    List<long[]> onDisk;
+    synchronized (this) {
+      onDisk = new ArrayList<>(blocks);
+      if (diskFrames == 0 || loaded) {
+        frameList = dataList;
+        hit = true;
+      } else if (store.fits(estimatedBytes(frames))) {
+        frameList = load();
+      }
+    }
+
+    if (frameList != null) {
+      if (hit) {
+        store.hit();
+      } else {
+        store.miss();
+      }
+      store.resident(this, residentBytes());
+      return new IterativeConsumer<>(frameList.iterator());
+    }
+
+    // too large to keep in memory, stream the frames from the disk
+    store.miss();
+    List<T> tail;
+    synchronized (this) {
+      tail = dataList;
+    }
+    return new IterativeConsumer<>(new DiskIterator(onDisk, tail.iterator()));
+  }
+
+  /**
+   * Read the frames on the disk in to memory, followed by the frames in memory
+   */
+  private List<T> load() {
+    List<T> all = new ArrayList<>((int) Math.min(frames, Integer.MAX_VALUE));
+    try (DataInputStream in = openFile()) {
+      for (long i = 0; i < diskFrames; i++) {
+        all.add(readFrame(in));
+      }
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to load the partition from : " + file, e);
+    }
+    all.addAll(dataList);
+    dataList = all;
+    loaded = true;
+    store.loaded();
+    return all;
+  }
+
+  /**
+   * Write the frames that are not already on the disk and drop the in memory frames
+   *
+   * @return number of bytes written to the disk
+   */
+  synchronized long spill() {
+    int start = loaded ? (int) diskFrames : 0;
+    if (start == dataList.size()) {
+      dataList = new ArrayList<>();
+      loaded = false;
+      return 0;
+    }
+
+    long before = file.length();
+    file.getParentFile().mkdirs();
+    try (FileOutputStream out = new FileOutputStream(file, true)) {
+      long position = before;
+      int i = start;
+      while (i < dataList.size()) {
+        ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES);
+        int count = 0;
+        try (DataOutputStream blockOut = blockStream(block)) {
+          long bytes = 0;
+          while (i < dataList.size() && bytes < BLOCK_BYTES) {
+            byte[] frame = dataType.getDataPacker().packToByteArray(dataList.get(i++));
+            blockOut.writeInt(frame.length);
+            blockOut.write(frame);
+            bytes += frame.length + 4;
+            count++;
+          }
+        }
+        block.writeTo(out);
+        blocks.add(new long[]{position, count});
+        position += block.size();
+      }
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to spill the partition to : " + file, e);
+    }
+    diskFrames += dataList.size() - start;
+    // consumers may still be iterating the old list, so we don't clear it
+    dataList = new ArrayList<>();
+    loaded = false;
+    return file.length() - before;
+  }
+
+  private DataOutputStream blockStream(OutputStream out) throws IOException {
+    if (store.isCompress()) {
+      // every block is a gzip member, the members are read back as a single stream
+      out = new GZIPOutputStream(out, IO_BUFFER);
+    }
+    return new DataOutputStream(new BufferedOutputStream(out, IO_BUFFER));
+  }
+
+  private DataInputStream openFile() throws IOException {
+    return openFile(0);
+  }
+
+  /**
+   * Open the file for reading from the given position, which should be the start of a block
+   */
+  private DataInputStream openFile(long position) throws IOException {
+    FileInputStream fileIn = new FileInputStream(file);
+    InputStream in = fileIn;
+    try {
+      fileIn.getChannel().position(position);
+      if (store.isCompress()) {
+        in = new GZIPInputStream(in, IO_BUFFER);
+      }
+    } catch (IOException e) {
+      fileIn.close();
+      throw e;
+    }
+    return new DataInputStream(new BufferedInputStream(in, IO_BUFFER));
+  }
+
+  private T readFrame(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return (T) dataType.getDataPacker().unpackFromByteArray(bytes);
+  }
+
+  private synchronized long residentBytes() {
+    return estimatedBytes(dataList.size());
+  }
+
+  /**
+   * Estimated heap bytes of the given number of frames
+   */
+  private long estimatedBytes(long count) {
+    return sampledFrames == 0 ? 0 : count * (sampledBytes / sampledFrames);
+  }
+
+  long getAccessCount() {
+    return accessCount;
+  }
+
+  /**
+   * Weather the first frames of this partition are only on the disk
+   */
+  public synchronized boolean isSpilled() {
+    return diskFrames > 0 && !loaded;
+  }
+
+  /**
+   * Report the final size of the partition to the store
+   */
+  @Override
+  public void close() {
+    report();
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      dataList = new ArrayList<>();
+      diskFrames = 0;
+      blocks = new ArrayList<>();
+      loaded = false;
+      frames = 0;
+      sampledBytes = 0;
+      sampledFrames = 0;
+      file.delete();
+    }
+    store.evicted(this);
+  }
+
+  /**
+   * Streams the frames on the disk followed by the frames in memory. The frames are read a block
+   * at a time and the file is closed after reading each block, so an iterator that is not read
+   * to the end does not leave the file open.
+   */
+  private final class DiskIterator implements Iterator<T> {
+    private final List<long[]> blocks;
+
+    private final Iterator<T> tail;
+
+    private int nextBlock;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    DiskIterator(List<long[]> blocks, Iterator<T> tail) {
+      this.blocks = blocks;
+      this.tail = tail;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return current.hasNext() || nextBlock < blocks.size() || tail.hasNext();
+    }
+
+    @Override
+    public T next() {
+      if (!current.hasNext() && nextBlock < blocks.size()) {
+        current = readBlock(blocks.get(nextBlock++)).iterator();
+      }
+      if (current.hasNext()) {
+        return current.next();
+      } else if (tail.hasNext()) {
+        return tail.next();
+      }
+      throw new NoSuchElementException("No more frames available in this partition");
+    }
+
+    private List<T> readBlock(long[] block) {
+      List<T> frames = new ArrayList<>((int) block[1]);
+      try (DataInputStream in = openFile(block[0])) {
+        for (long i = 0; i < block[1]; i++) {
+          frames.add(readFrame(in));
+        }
+      } catch (IOException e) {
+        throw new Twister2RuntimeException("Failed to read the partition from : " + file, e);
+      }
+      return frames;
+    }
+  }
+}
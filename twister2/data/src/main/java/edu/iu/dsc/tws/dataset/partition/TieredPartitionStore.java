@@ -0,0 +1,309 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
+
+/**
+ * A worker wide store which keeps track of the memory used by the {@link TieredCollectionPartition}
+ * instances of the worker. When the estimated size of the resident partitions goes above the
+ * memory budget, partitions are spilled to the local disk. Spilled partitions are loaded back
+ * when they are read again.
+ *
+ * Victims are selected either by the least recently used order, or by a cost aware policy which
+ * evicts the partition with the least number of accesses per byte.
+ *
+ * The hits, misses, spills and loads are counted in the {@link MetricsRegistry} under
+ * data.tiered. The spill directory of the worker store is removed when the JVM exits.
+ */
+public final class TieredPartitionStore {
+  private static final Logger LOG = Logger.getLogger(TieredPartitionStore.class.getName());
+
+  /**
+   * Weather to use tiered partitions for cached tsets
+   */
+  public static final String ENABLED = "twister2.data.tiered.enabled";
+
+  /**
+   * Memory budget of the worker in bytes, defaults to a fraction of the max heap. The budget is
+   * compared against the estimated heap footprint of the partitions.
+   */
+  public static final String MEMORY_BYTES = "twister2.data.tiered.memory.bytes";
+
+  /**
+   * Fraction of the max heap used as the budget when the bytes are not specified
+   */
+  public static final String MEMORY_FRACTION = "twister2.data.tiered.memory.fraction";
+
+  /**
+   * Eviction policy, lru or cost
+   */
+  public static final String EVICTION = "twister2.data.tiered.eviction";
+
+  /**
+   * Weather to compress the spilled partitions
+   */
+  public static final String COMPRESS = "twister2.data.tiered.compress";
+
+  /**
+   * The directory to spill the partitions
+   */
+  public static final String SPILL_DIR = "twister2.data.tiered.dir";
+
+  private static final String METRICS_PREFIX = "data.tiered";
+
+  public enum Eviction {
+    LRU,
+    COST
+  }
+
+  private static volatile TieredPartitionStore store;
+
+  /**
+   * Resident partitions and their estimated sizes, in the access order
+   */
+  private final LinkedHashMap<TieredCollectionPartition<?>, Long> resident =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final long budget;
+
+  private final Eviction eviction;
+
+  private final boolean compress;
+
+  private final File spillDir;
+
+  private long residentBytes;
+
+  private final Counter hits;
+
+  private final Counter misses;
+
+  private final Counter spills;
+
+  private final Counter spilledBytes;
+
+  private final Counter loads;
+
+  TieredPartitionStore(long budget, Eviction eviction, boolean compress, File spillDir) {
+    this.budget = budget;
+    this.eviction = eviction;
+    this.compress = compress;
+    this.spillDir = spillDir;
+
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    this.hits = counter(metrics, "hits");
+    this.misses = counter(metrics, "misses");
+    this.spills = counter(metrics, "spills");
+    this.spilledBytes = counter(metrics, "spilled.bytes");
+    this.loads = counter(metrics, "loads");
+    metrics.gauge(MetricsRegistry.name(METRICS_PREFIX, "resident.bytes"),
+        this::getResidentBytes);
+  }
+
+  /**
+   * The getters read the counters, so we count even if the metrics are disabled
+   */
+  private static Counter counter(MetricsRegistry metrics, String name) {
+    return metrics.isEnabled()
+        ? metrics.counter(MetricsRegistry.name(METRICS_PREFIX, name)) : new Counter();
+  }
+
+  /**
+   * Weather tiered partitions are enabled in the configuration
+   */
+  public static boolean isEnabled(Config cfg) {
+    return cfg.getBooleanValue(ENABLED, false);
+  }
+
+  /**
+   * Get the store of this worker, the first call creates it from the configuration
+   *
+   * @param cfg configuration
+   * @return the store
+   */
+  public static TieredPartitionStore getInstance(Config cfg) {
+    if (store == null) {
+      synchronized (TieredPartitionStore.class) {
+        if (store == null) {
+          long maxHeap = Runtime.getRuntime().maxMemory();
+          long budget = cfg.getLongValue(MEMORY_BYTES,
+              (long) (maxHeap * cfg.getDoubleValue(MEMORY_FRACTION, 0.4)));
+          Eviction eviction = Eviction.valueOf(
+              cfg.getStringValue(EVICTION, Eviction.LRU.name()).toUpperCase());
+          File dir = new File(cfg.getStringValue(SPILL_DIR,
+              System.getProperty("java.io.tmpdir")), "tiered-" + UUID.randomUUID().toString());
+          store = new TieredPartitionStore(budget, eviction,
+              cfg.getBooleanValue(COMPRESS, false), dir);
+          Runtime.getRuntime().addShutdownHook(
+              new Thread(store::deleteSpillDir, "tiered-store-cleanup"));
+          LOG.fine(String.format("Initialized tiered partition store with budget %d, "
+              + "eviction %s, spill directory %s", budget, eviction, dir));
+        }
+      }
+    }
+    return store;
+  }
+
+  /**
+   * Record that the partition is resident with the given estimated size and evict other
+   * partitions if we go above the budget. A partition does not evict itself here, the caller
+   * checks {@link #fits(long)} to decide weather to keep it in memory.
+   *
+   * @param partition the partition
+   * @param bytes estimated size of the partition in memory
+   */
+  void resident(TieredCollectionPartition<?> partition, long bytes) {
+    List<TieredCollectionPartition<?>> victims = new ArrayList<>();
+    synchronized (this) {
+      Long previous = resident.put(partition, bytes);
+      residentBytes += bytes - (previous != null ? previous : 0);
+      while (residentBytes > budget) {
+        TieredCollectionPartition<?> victim = selectVictim(partition);
+        if (victim == null) {
+          break;
+        }
+        residentBytes -= resident.remove(victim);
+        victims.add(victim);
+      }
+    }
+    // spill outside the lock, a spill writes to the disk
+    for (TieredCollectionPartition<?> victim : victims) {
+      long written = victim.spill();
+      spills.inc();
+      spilledBytes.inc(written);
+    }
+  }
+
+  /**
+   * Record that the partition is no longer in memory
+   */
+  synchronized void evicted(TieredCollectionPartition<?> partition) {
+    Long bytes = resident.remove(partition);
+    if (bytes != null) {
+      residentBytes -= bytes;
+    }
+  }
+
+  /**
+   * Weather a partition of this size can be kept in memory
+   */
+  boolean fits(long bytes) {
+    return bytes <= budget;
+  }
+
+  private TieredCollectionPartition<?> selectVictim(TieredCollectionPartition<?> exclude) {
+    TieredCollectionPartition<?> victim = null;
+    double victimScore = Double.MAX_VALUE;
+    Iterator<Map.Entry<TieredCollectionPartition<?>, Long>> it = resident.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<TieredCollectionPartition<?>, Long> e = it.next();
+      TieredCollectionPartition<?> p = e.getKey();
+      if (p == exclude) {
+        continue;
+      }
+      if (eviction == Eviction.LRU) {
+        // the first entry is the least recently used one
+        return p;
+      }
+      double score = (p.getAccessCount() + 1) / (double) Math.max(e.getValue(), 1);
+      if (score < victimScore) {
+        victimScore = score;
+        victim = p;
+      }
+    }
+    return victim;
+  }
+
+  void hit() {
+    hits.inc();
+  }
+
+  void miss() {
+    misses.inc();
+  }
+
+  void loaded() {
+    loads.inc();
+  }
+
+  /**
+   * Delete the spill directory and the files of the spilled partitions in it
+   */
+  void deleteSpillDir() {
+    File[] files = spillDir.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        if (!f.delete()) {
+          LOG.warning("Couldn't delete the spilled partition : " + f);
+        }
+      }
+    }
+    if (spillDir.exists() && !spillDir.delete()) {
+      LOG.warning("Couldn't delete the spill directory : " + spillDir);
+    }
+  }
+
+  boolean isCompress() {
+    return compress;
+  }
+
+  File getSpillDir() {
+    return spillDir;
+  }
+
+  public long getBudget() {
+    return budget;
+  }
+
+  public synchronized long getResidentBytes() {
+    return residentBytes;
+  }
+
+  public long getHits() {
+    return hits.getCount();
+  }
+
+  public long getMisses() {
+    return misses.getCount();
+  }
+
+  public long getSpills() {
+    return spills.getCount();
+  }
+
+  public long getSpilledBytes() {
+    return spilledBytes.getCount();
+  }
+
+  public long getLoads() {
+    return loads.getCount();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("TieredPartitionStore{budget=%d, resident=%d, hits=%d, misses=%d, "
+            + "spills=%d, spilledBytes=%d, loads=%d}", budget, getResidentBytes(), getHits(),
+        getMisses(), getSpills(), getSpilledBytes(), getLoads());
+  }
+}
@@ -11,15 +11,20 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.data;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
 import edu.iu.dsc.tws.common.config.ConfigLoader;
 import edu.iu.dsc.tws.dataset.partition.BufferedCollectionPartition;
@@ -70,6 +75,91 @@ public class DiskBackedCollectionPartitionTest {
     }
   }
 
+  @Test
+  public void testMemoryMappedArrays() throws Exception {
+    String root = Files.createTempDirectory("partition").toString();
+    for (boolean memoryMap : new boolean[]{true, false}) {
+      Config config = Config.newBuilder()
+          .put("twister2.data.fs.root", root)
+          .put("twister2.data.fs.memory.map", memoryMap)
+          .build();
+      List<double[]> rawData = new ArrayList<>();
+      // keep some frames in memory, write most of them to files and leave some in the buffer
+      try (BufferedCollectionPartition<double[]> dbp = new DiskBackedCollectionPartition<>(
+          10, MessageTypes.DOUBLE_ARRAY, 1000, config, "mmap-" + memoryMap)) {
+        Random random = new Random(memoryMap ? 1 : 2);
+        for (int i = 0; i < 500; i++) {
+          double[] value = new double[random.nextInt(20)];
+          for (int j = 0; j < value.length; j++) {
+            value[j] = random.nextDouble();
+          }
+          rawData.add(value);
+          dbp.add(value);
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+          DataPartitionConsumer<double[]> consumer = dbp.getConsumer();
+          for (double[] expected : rawData) {
+            Assert.assertTrue(consumer.hasNext());
+            Assert.assertArrayEquals(expected, consumer.next(), 0);
+          }
+          Assert.assertFalse(consumer.hasNext());
+        }
+        dbp.clear();
+      }
+    }
+  }
+
+  /**
+   * Number of the mappings of the files under the directory, -1 if it cannot be found
+   */
+  private static long mappings(String root) throws IOException {
+    File maps = new File("/proc/self/maps");
+    if (!maps.exists()) {
+      return -1;
+    }
+    try (Stream<String> lines = Files.lines(maps.toPath())) {
+      return lines.filter(l -> l.contains(root)).count();
+    }
+  }
+
+  @Test
+  public void testMappedFilesAreReleased() throws Exception {
+    String root = Files.createTempDirectory("partition").toString();
+    Config config = Config.newBuilder()
+        .put("twister2.data.fs.root", root)
+        .build();
+    try (BufferedCollectionPartition<double[]> dbp = new DiskBackedCollectionPartition<>(
+        10, MessageTypes.DOUBLE_ARRAY, 1000, config, "release")) {
+      for (int i = 0; i < 500; i++) {
+        dbp.add(new double[]{i});
+      }
+
+      // nothing is mapped until the consumer is used
+      DataPartitionConsumer<double[]> unused = dbp.getConsumer();
+      Assert.assertTrue(mappings(root) <= 0);
+
+      // the files are unmapped as they are read
+      DataPartitionConsumer<double[]> consumer = dbp.getConsumer();
+      int count = 0;
+      while (consumer.hasNext()) {
+        Assert.assertEquals(count++, consumer.next()[0], 0);
+      }
+      Assert.assertEquals(500, count);
+      Assert.assertTrue(mappings(root) <= 0);
+
+      // a consumer that is not read to the end is released when the partition is cleared
+      DataPartitionConsumer<double[]> partial = dbp.getConsumer();
+      for (int i = 0; i < 100; i++) {
+        Assert.assertEquals(i, partial.next()[0], 0);
+      }
+      Assert.assertNotEquals(0, mappings(root));
+      dbp.clear();
+      Assert.assertTrue(mappings(root) <= 0);
+      Assert.assertFalse(unused.hasNext());
+    }
+  }
+
   private void verify(DataPartitionConsumer<Integer> consumer, Iterator<Integer> rawIterator) {
     while (rawIterator.hasNext()) {
       Assert.assertEquals(rawIterator.next(), consumer.next());
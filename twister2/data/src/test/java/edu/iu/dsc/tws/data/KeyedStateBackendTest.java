@@ -0,0 +1,220 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.api.state.ListState;
+import edu.iu.dsc.tws.api.state.ReducingState;
+import edu.iu.dsc.tws.api.state.ValueState;
+
+/**
+ * Tests every keyed state backend should pass
+ */
+public abstract class KeyedStateBackendTest {
+
+  /**
+   * Create an empty backend, a test may create more than one
+   */
+  protected abstract <K> KeyedStateBackend<K> newBackend();
+
+  @Test
+  public void testStatesAreScopedToKeys() {
+    KeyedStateBackend<String> backend = newBackend();
+    ValueState<Integer> value = backend.getValueState("value");
+    ListState<Integer> list = backend.getListState("list");
+    ReducingState<Integer> sum = backend.getReducingState("sum", Integer::sum);
+
+    for (int i = 0; i < 10; i++) {
+      backend.setCurrentKey(i % 2 == 0 ? "even" : "odd");
+      value.update(i);
+      list.add(i);
+      sum.add(i);
+    }
+
+    backend.setCurrentKey("even");
+    Assert.assertEquals(Integer.valueOf(8), value.value());
+    Assert.assertEquals(Integer.valueOf(20), sum.get());
+    Assert.assertEquals(values(0, 2, 4, 6, 8), toList(list.get()));
+
+    backend.setCurrentKey("odd");
+    Assert.assertEquals(Integer.valueOf(9), value.value());
+    Assert.assertEquals(Integer.valueOf(25), sum.get());
+    Assert.assertEquals(values(1, 3, 5, 7, 9), toList(list.get()));
+
+    list.clear();
+    value.update(null);
+    Assert.assertFalse(list.get().iterator().hasNext());
+    Assert.assertNull(value.value());
+
+    backend.setCurrentKey("none");
+    Assert.assertNull(sum.get());
+  }
+
+  @Test
+  public void testListAppend() {
+    KeyedStateBackend<Integer> backend = newBackend();
+    ListState<String> list = backend.getListState("list");
+    backend.setCurrentKey(1);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // values of different sizes, some larger than the initial buffers
+      StringBuilder value = new StringBuilder();
+      for (int j = 0; j < i % 50; j++) {
+        value.append(i);
+      }
+      list.add(value.toString());
+      expected.add(value.toString());
+    }
+    Assert.assertEquals(expected, toList(list.get()));
+    // the list can be iterated more than once
+    Assert.assertEquals(expected, toList(list.get()));
+  }
+
+  @Test
+  public void testForEachKey() {
+    KeyedStateBackend<Integer> backend = newBackend();
+    ListState<Integer> list = backend.getListState("list");
+    for (int i = 0; i < 100; i++) {
+      backend.setCurrentKey(i % 10);
+      list.add(i);
+    }
+
+    Set<Integer> keys = new HashSet<>();
+    // clear the state while iterating, as a window does after firing
+    backend.forEachKey("list", key -> {
+      keys.add(key);
+      backend.setCurrentKey(key);
+      Assert.assertEquals(10, toList(list.get()).size());
+      list.clear();
+    });
+    Assert.assertEquals(10, keys.size());
+
+    keys.clear();
+    backend.forEachKey("list", keys::add);
+    Assert.assertTrue(keys.isEmpty());
+    backend.forEachKey("unknown", keys::add);
+    Assert.assertTrue(keys.isEmpty());
+  }
+
+  @Test
+  public void testSnapshotAndRestore() throws Exception {
+    StateStore store = new MemoryStateStore();
+    KeyedStateBackend<String> backend = newBackend();
+    backend.setCurrentKey("a");
+    backend.<Long>getValueState("count").update(5L);
+    backend.<String>getListState("words").add("x");
+    backend.<Integer>getReducingState("sum", Integer::sum).add(3);
+    backend.snapshot(store, "state-1");
+
+    // changes after the snapshot are lost after restoring
+    backend.<Long>getValueState("count").update(6L);
+    backend.<String>getListState("words").add("y");
+    backend.<Integer>getReducingState("sum", Integer::sum).add(4);
+
+    KeyedStateBackend<String> restored = newBackend();
+    restored.restore(store, "state-1");
+    restored.setCurrentKey("a");
+    Assert.assertEquals(Long.valueOf(5L), restored.<Long>getValueState("count").value());
+    Assert.assertEquals(values("x"), toList(restored.<String>getListState("words").get()));
+    Assert.assertEquals(Integer.valueOf(3),
+        restored.<Integer>getReducingState("sum", Integer::sum).get());
+
+    // states created after restoring do not clash with the restored ones
+    restored.<String>getValueState("other").update("z");
+    Assert.assertEquals(Long.valueOf(5L), restored.<Long>getValueState("count").value());
+
+    backend.restore(store, "state-1");
+    backend.setCurrentKey("a");
+    Assert.assertEquals(Long.valueOf(5L), backend.<Long>getValueState("count").value());
+    Assert.assertEquals(values("x"), toList(backend.<String>getListState("words").get()));
+
+    try {
+      backend.restore(store, "state-2");
+      Assert.fail("Restoring a missing snapshot should fail");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @SafeVarargs
+  protected static <T> List<T> values(T... values) {
+    List<T> list = new ArrayList<>();
+    for (T v : values) {
+      list.add(v);
+    }
+    return list;
+  }
+
+  protected static <T> List<T> toList(Iterable<T> iterable) {
+    List<T> list = new ArrayList<>();
+    iterable.forEach(list::add);
+    return list;
+  }
+
+  /**
+   * Keeps the values in memory and records the keys written from a stream
+   */
+  protected static class MemoryStateStore implements StateStore {
+    private Map<String, byte[]> values = new HashMap<>();
+
+    private Set<String> streamed = new HashSet<>();
+
+    @Override
+    public void init(Config config, String... path) {
+    }
+
+    @Override
+    public void put(String key, byte[] data) {
+      values.put(key, data);
+      streamed.remove(key);
+    }
+
+    @Override
+    public void putStream(String key, InputStream data) throws IOException {
+      StateStore.super.putStream(key, data);
+      streamed.add(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+      return values.get(key);
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return values.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) {
+      values.remove(key);
+    }
+
+    public boolean isStreamed(String key) {
+      return streamed.contains(key);
+    }
+  }
+}
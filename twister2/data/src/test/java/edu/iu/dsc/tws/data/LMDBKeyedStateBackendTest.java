@@ -0,0 +1,155 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.state.KeyedStateBackend;
+import edu.iu.dsc.tws.api.state.ListState;
+import edu.iu.dsc.tws.api.state.ValueState;
+import edu.iu.dsc.tws.data.memory.lmdb.LMDBKeyedStateBackend;
+
+public class LMDBKeyedStateBackendTest extends KeyedStateBackendTest {
+
+  private Path root;
+
+  private List<KeyedStateBackend<?>> backends = new ArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("lmdb-state");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    for (KeyedStateBackend<?> backend : backends) {
+      backend.close();
+    }
+    Files.walk(root).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+  }
+
+  @Override
+  protected <K> KeyedStateBackend<K> newBackend() {
+    File dir = root.resolve("backend-" + backends.size()).toFile();
+    Assert.assertTrue(dir.mkdirs());
+    KeyedStateBackend<K> backend = new LMDBKeyedStateBackend<>(dir);
+    backends.add(backend);
+    return backend;
+  }
+
+  @Test
+  public void testSnapshotIsStreamed() throws Exception {
+    MemoryStateStore store = new MemoryStateStore();
+    KeyedStateBackend<Integer> backend = newBackend();
+    ValueState<String> value = backend.getValueState("value");
+    for (int i = 0; i < 10000; i++) {
+      backend.setCurrentKey(i);
+      value.update("value-" + i);
+    }
+    backend.snapshot(store, "state-1");
+    Assert.assertTrue(store.isStreamed("state-1"));
+    // the temporary copy of the database is removed
+    Assert.assertEquals(backends.size(), root.toFile().list().length);
+
+    KeyedStateBackend<Integer> restored = newBackend();
+    restored.restore(store, "state-1");
+    ValueState<String> restoredValue = restored.getValueState("value");
+    for (int i = 0; i < 10000; i++) {
+      restored.setCurrentKey(i);
+      Assert.assertEquals("value-" + i, restoredValue.value());
+    }
+  }
+
+  @Test
+  public void testListKeysAreSeparated() {
+    KeyedStateBackend<String> backend = newBackend();
+    ListState<Integer> list = backend.getListState("list");
+    String[] keys = {"a", "ab", "b", ""};
+    for (int i = 0; i < 300; i++) {
+      backend.setCurrentKey(keys[i % keys.length]);
+      list.add(i);
+    }
+    for (int k = 0; k < keys.length; k++) {
+      backend.setCurrentKey(keys[k]);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = k; i < 300; i += keys.length) {
+        expected.add(i);
+      }
+      Assert.assertEquals(expected, toList(list.get()));
+    }
+
+    backend.setCurrentKey("a");
+    list.clear();
+    Assert.assertTrue(toList(list.get()).isEmpty());
+    list.add(-1);
+    Assert.assertEquals(values(-1), toList(list.get()));
+    backend.setCurrentKey("ab");
+    Assert.assertEquals(75, toList(list.get()).size());
+
+    List<String> seen = new ArrayList<>();
+    backend.forEachKey("list", seen::add);
+    Assert.assertEquals(keys.length, seen.size());
+  }
+
+  @Test
+  public void testListSnapshot() throws Exception {
+    MemoryStateStore store = new MemoryStateStore();
+    KeyedStateBackend<Integer> backend = newBackend();
+    ListState<String> list = backend.getListState("list");
+    for (int i = 0; i < 1000; i++) {
+      backend.setCurrentKey(i % 10);
+      list.add("value-" + i);
+    }
+    backend.snapshot(store, "state-1");
+
+    KeyedStateBackend<Integer> restored = newBackend();
+    restored.restore(store, "state-1");
+    ListState<String> restoredList = restored.getListState("list");
+    for (int k = 0; k < 10; k++) {
+      restored.setCurrentKey(k);
+      List<String> values = toList(restoredList.get());
+      Assert.assertEquals(100, values.size());
+      Assert.assertEquals("value-" + k, values.get(0));
+      Assert.assertEquals("value-" + (990 + k), values.get(99));
+    }
+    restored.setCurrentKey(0);
+    restoredList.add("new");
+    Assert.assertEquals(101, toList(restoredList.get()).size());
+  }
+
+  @Test
+  public void testLargeKey() {
+    KeyedStateBackend<String> backend = newBackend();
+    StringBuilder key = new StringBuilder();
+    for (int i = 0; i < 600; i++) {
+      key.append('k');
+    }
+    backend.setCurrentKey(key.toString());
+    try {
+      backend.<Integer>getValueState("value").update(1);
+      Assert.fail("A key larger than the LMDB limit should be rejected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+}
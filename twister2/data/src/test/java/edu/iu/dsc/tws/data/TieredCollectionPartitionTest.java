@@ -0,0 +1,89 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
+import edu.iu.dsc.tws.dataset.partition.TieredCollectionPartition;
+import edu.iu.dsc.tws.dataset.partition.TieredPartitionStore;
+
+public class TieredCollectionPartitionTest {
+
+  @Test
+  public void testSpillAndReload() throws Exception {
+    String dir = Files.createTempDirectory("tiered").toString();
+    // each partition takes about 500KB of heap, so only two of them fit in to the budget
+    Config config = Config.newBuilder()
+        .put(TieredPartitionStore.MEMORY_BYTES, 1200000L)
+        .put(TieredPartitionStore.COMPRESS, true)
+        .put(TieredPartitionStore.SPILL_DIR, dir)
+        .build();
+    TieredPartitionStore store = TieredPartitionStore.getInstance(config);
+
+    Random random = new Random(7);
+    List<List<double[]>> raw = new ArrayList<>();
+    List<TieredCollectionPartition<double[]>> partitions = new ArrayList<>();
+    for (int p = 0; p < 4; p++) {
+      TieredCollectionPartition<double[]> partition =
+          new TieredCollectionPartition<>(MessageTypes.DOUBLE_ARRAY, config);
+      List<double[]> values = new ArrayList<>();
+      for (int i = 0; i < 5000; i++) {
+        double[] value = new double[10];
+        for (int j = 0; j < value.length; j++) {
+          value[j] = random.nextDouble();
+        }
+        values.add(value);
+        partition.add(value);
+      }
+      partition.close();
+      raw.add(values);
+      partitions.add(partition);
+    }
+
+    Assert.assertTrue(partitions.get(0).isSpilled());
+    Assert.assertFalse(partitions.get(3).isSpilled());
+    Assert.assertTrue(store.getResidentBytes() <= store.getBudget());
+
+    // read everything twice, spilled partitions are loaded back while evicting others
+    for (int pass = 0; pass < 2; pass++) {
+      for (int p = 0; p < partitions.size(); p++) {
+        verify(partitions.get(p).getConsumer(), raw.get(p));
+      }
+    }
+    Assert.assertTrue(store.getMisses() > 0);
+    Assert.assertTrue(store.getLoads() > 0);
+    Assert.assertTrue(store.getResidentBytes() <= store.getBudget());
+
+    for (TieredCollectionPartition<double[]> partition : partitions) {
+      partition.clear();
+    }
+    Assert.assertEquals(0, store.getResidentBytes());
+  }
+
+  private void verify(DataPartitionConsumer<double[]> consumer, List<double[]> expected) {
+    int count = 0;
+    while (consumer.hasNext()) {
+      Assert.assertTrue(Arrays.equals(expected.get(count++), consumer.next()));
+    }
+    Assert.assertEquals(expected.size(), count);
+  }
+}
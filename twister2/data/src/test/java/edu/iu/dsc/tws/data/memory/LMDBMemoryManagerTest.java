@@ -0,0 +1,105 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.memory.lmdb.LMDBMemoryManager;
+import edu.iu.dsc.tws.data.memory.utils.DataMessageType;
+
+public class LMDBMemoryManagerTest {
+
+  private java.nio.file.Path root;
+
+  private LMDBMemoryManager memoryManager;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("lmdb");
+    memoryManager = new LMDBMemoryManager(new Path(root.toString()));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    memoryManager.close();
+    Files.walk(root).sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile)
+        .forEach(File::delete);
+  }
+
+  private static ByteBuffer buffer(int value) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Integer.BYTES);
+    buffer.putInt(value);
+    buffer.flip();
+    return buffer;
+  }
+
+  private static boolean writerStarted() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(t -> LMDBMemoryManager.WRITER_THREAD.equals(t.getName()));
+  }
+
+  @Test
+  public void testDirectPutsWithoutWriter() throws Exception {
+    memoryManager.addOperation(1, DataMessageType.OBJECT);
+    memoryManager.addOperation(2, DataMessageType.OBJECT);
+    Assert.assertFalse(writerStarted());
+
+    // a writer holding a write transaction would block these puts
+    CompletableFuture<Void> puts = CompletableFuture.runAsync(() -> {
+      for (int i = 0; i < 100; i++) {
+        memoryManager.put(1, buffer(i), buffer(i * 2));
+        memoryManager.put(2, buffer(i), buffer(i * 3));
+      }
+    });
+    puts.get(30, TimeUnit.SECONDS);
+    Assert.assertFalse(writerStarted());
+
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i * 2, memoryManager.get(1, buffer(i)).getInt());
+      Assert.assertEquals(i * 3, memoryManager.get(2, buffer(i)).getInt());
+    }
+
+    memoryManager.delete(1, buffer(5));
+    Assert.assertNull(memoryManager.get(1, buffer(5)));
+  }
+
+  @Test
+  public void testForEachAndCopy() throws Exception {
+    memoryManager.addOperation(1, DataMessageType.OBJECT);
+    for (int i = 0; i < 50; i++) {
+      memoryManager.put(1, buffer(i), buffer(i));
+    }
+    int[] count = new int[1];
+    memoryManager.forEach(1, (key, value) -> {
+      Assert.assertEquals(key.getInt(), value.getInt());
+      count[0]++;
+    });
+    Assert.assertEquals(50, count[0]);
+
+    File copy = root.resolve("copy").toFile();
+    Assert.assertTrue(copy.mkdirs());
+    memoryManager.copy(copy);
+    Assert.assertTrue(new File(copy, "data.mdb").length() > 0);
+  }
+}
@@ -0,0 +1,90 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeapSizeTest {
+
+  private static final class Point {
+    private double x;
+    private double y;
+    private String label;
+  }
+
+  private static final class Pair {
+    private Object first;
+    private Object second;
+  }
+
+  @Test
+  public void testPrimitiveArrays() {
+    Assert.assertEquals(16 + 80, HeapSize.of(new double[10]));
+    Assert.assertEquals(16 + 16, HeapSize.of(new int[3]));
+    Assert.assertEquals(16, HeapSize.of(new byte[0]));
+    Assert.assertEquals(0, HeapSize.of(null));
+  }
+
+  @Test
+  public void testObjects() {
+    Point p = new Point();
+    // header, two doubles and a reference
+    Assert.assertEquals(32, HeapSize.of(p));
+    p.label = "abcd";
+    Assert.assertEquals(32 + 24 + 24, HeapSize.of(p));
+  }
+
+  @Test
+  public void testSharedReferences() {
+    double[] values = new double[100];
+    Pair pair = new Pair();
+    pair.first = values;
+    pair.second = values;
+    // the array is counted once
+    Assert.assertEquals(HeapSize.of(new Pair()) + HeapSize.of(values), HeapSize.of(pair));
+
+    // cycles end
+    pair.second = pair;
+    Assert.assertEquals(HeapSize.of(new Pair()) + HeapSize.of(values), HeapSize.of(pair));
+  }
+
+  @Test
+  public void testLargerThanSerialized() {
+    List<Object> list = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(i * 1000);
+    }
+    // boxed values take much more memory than their serialized form
+    Assert.assertTrue(HeapSize.of(list) >= 100 * (16 + 4));
+
+    Map<String, double[]> map = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      map.put("key" + i, new double[100]);
+    }
+    Assert.assertTrue(HeapSize.of(map) >= 10 * (16 + 800));
+  }
+
+  @Test
+  public void testLargeArraysSampled() {
+    double[][] arrays = new double[10000][];
+    for (int i = 0; i < arrays.length; i++) {
+      arrays[i] = new double[4];
+    }
+    Assert.assertEquals(16 + 4 * 10000 + 10000 * (16 + 32), HeapSize.of(arrays));
+  }
+}
@@ -0,0 +1,125 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.dataset.partition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
+
+public class TieredCollectionPartitionDiskTest {
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("tiered").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    dir.delete();
+  }
+
+  private TieredCollectionPartition<int[]> partition(boolean compress, int frames) {
+    // the budget is smaller than the partition, so it is streamed from the disk
+    TieredPartitionStore store = new TieredPartitionStore(10000,
+        TieredPartitionStore.Eviction.LRU, compress, dir);
+    TieredCollectionPartition<int[]> partition =
+        new TieredCollectionPartition<>(MessageTypes.INTEGER_ARRAY, store);
+    for (int i = 0; i < frames; i++) {
+      partition.add(frame(i));
+    }
+    partition.close();
+    return partition;
+  }
+
+  private static int[] frame(int i) {
+    int[] frame = new int[100];
+    frame[0] = i;
+    frame[99] = -i;
+    return frame;
+  }
+
+  private static void verify(DataPartitionConsumer<int[]> consumer, int frames) {
+    int count = 0;
+    while (consumer.hasNext()) {
+      Assert.assertArrayEquals(frame(count++), consumer.next());
+    }
+    Assert.assertEquals(frames, count);
+  }
+
+  @Test
+  public void testStreamBlocks() {
+    for (boolean compress : new boolean[]{false, true}) {
+      // a few blocks of the disk
+      int frames = 10000;
+      TieredCollectionPartition<int[]> partition = partition(compress, frames);
+      Assert.assertTrue(partition.isSpilled());
+      verify(partition.getConsumer(), frames);
+      // the frames added after the spill follow the frames on the disk
+      partition.add(frame(frames));
+      verify(partition.getConsumer(), frames + 1);
+      partition.clear();
+    }
+  }
+
+  @Test
+  public void testAbandonedIteration() {
+    File fds = new File("/proc/self/fd");
+    TieredCollectionPartition<int[]> partition = partition(true, 10000);
+    int open = fds.isDirectory() ? fds.list().length : 0;
+    for (int c = 0; c < 100; c++) {
+      DataPartitionConsumer<int[]> consumer = partition.getConsumer();
+      for (int i = 0; i < 10; i++) {
+        Assert.assertArrayEquals(frame(i), consumer.next());
+      }
+    }
+    if (fds.isDirectory()) {
+      // no file is left open by the consumers
+      Assert.assertEquals(open, fds.list().length);
+    }
+    partition.clear();
+  }
+
+  @Test
+  public void testDeleteSpillDir() {
+    File spillDir = new File(dir, "spill");
+    TieredPartitionStore store = new TieredPartitionStore(10000,
+        TieredPartitionStore.Eviction.LRU, false, spillDir);
+    TieredCollectionPartition<int[]> partition =
+        new TieredCollectionPartition<>(MessageTypes.INTEGER_ARRAY, store);
+    for (int i = 0; i < 1000; i++) {
+      partition.add(frame(i));
+    }
+    partition.close();
+    Assert.assertTrue(partition.isSpilled());
+    Assert.assertTrue(spillDir.list().length > 0);
+
+    store.deleteSpillDir();
+    Assert.assertFalse(spillDir.exists());
+  }
+}
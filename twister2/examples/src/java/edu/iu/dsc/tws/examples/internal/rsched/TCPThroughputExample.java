@@ -0,0 +1,142 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.examples.internal.rsched;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.common.net.NetworkInfo;
+import edu.iu.dsc.tws.common.net.tcp.TCPChannel;
+import edu.iu.dsc.tws.common.net.tcp.TCPContext;
+import edu.iu.dsc.tws.common.net.tcp.TCPMessage;
+
+/**
+ * Measures the message rate between two tcp channels in the same process. Run it with different
+ * gathering write sizes to compare the throughput of small messages, a gather size of 1 writes
+ * the messages one by one.
+ *
+ * java TCPThroughputExample messageSize numberOfMessages gatherMessages [scatterReads]
+ */
+public class TCPThroughputExample {
+  private static final Logger LOG = Logger.getLogger(TCPThroughputExample.class.getName());
+
+  private static final int WINDOW = 1000;
+
+  private List<TCPChannel> channels = new ArrayList<>();
+
+  private Config cfg;
+
+  public TCPThroughputExample(int gatherMessages, boolean scatter) {
+    cfg = Config.newBuilder()
+        .put(TCPContext.TWISTER2_WRITE_GATHER_MESSAGES, gatherMessages)
+        .put(TCPContext.TWISTER2_READ_SCATTER, scatter)
+        .build();
+  }
+
+  public void setUp() throws Exception {
+    List<NetworkInfo> networkInfos = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      NetworkInfo info = new NetworkInfo(i);
+      info.addProperty(TCPContext.NETWORK_PORT, 10050 + i);
+      info.addProperty(TCPContext.NETWORK_HOSTNAME, "localhost");
+      TCPChannel channel = new TCPChannel(cfg, info);
+      channel.startListening();
+      channels.add(channel);
+      networkInfos.add(info);
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (TCPChannel channel : channels) {
+      Thread t = new Thread(() -> {
+        channel.startConnections(networkInfos);
+        channel.waitForConnections(10000);
+      });
+      t.start();
+      threads.add(t);
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+  }
+
+  public void tearDown() {
+    for (TCPChannel channel : channels) {
+      channel.stop();
+    }
+  }
+
+  /**
+   * Send the messages from the first channel to the second in windows of receives
+   */
+  public void sendMessages(int messageSize, int numberOfMessages) {
+    TCPChannel sender = channels.get(0);
+    TCPChannel receiver = channels.get(1);
+
+    List<ByteBuffer> sendBuffers = new ArrayList<>();
+    List<ByteBuffer> recvBuffers = new ArrayList<>();
+    for (int i = 0; i < WINDOW; i++) {
+      sendBuffers.add(ByteBuffer.allocate(messageSize));
+      recvBuffers.add(ByteBuffer.allocate(messageSize));
+    }
+
+    long start = System.nanoTime();
+    int sent = 0;
+    while (sent < numberOfMessages) {
+      int count = Math.min(WINDOW, numberOfMessages - sent);
+      List<TCPMessage> sends = new ArrayList<>(count);
+      List<TCPMessage> recvs = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        ByteBuffer buffer = recvBuffers.get(i);
+        buffer.clear();
+        recvs.add(receiver.iRecv(buffer, messageSize, 0, 0));
+      }
+      for (int i = 0; i < count; i++) {
+        sends.add(sender.iSend(sendBuffers.get(i), messageSize, 1, 0));
+      }
+
+      while (!sends.get(count - 1).isComplete() || !recvs.get(count - 1).isComplete()) {
+        sender.progress();
+        receiver.progress();
+      }
+      sent += count;
+    }
+    long time = System.nanoTime() - start;
+
+    double seconds = time / 1e9;
+    LOG.info(String.format("Sent %d messages of %d bytes in %.3f s, %.0f messages/s, %.2f MB/s",
+        numberOfMessages, messageSize, seconds, numberOfMessages / seconds,
+        (double) numberOfMessages * messageSize / seconds / (1024 * 1024)));
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 3) {
+      LOG.severe("Usage: java TCPThroughputExample messageSize numberOfMessages gatherMessages "
+          + "[scatterReads]");
+      return;
+    }
+
+    int messageSize = Integer.parseInt(args[0]);
+    int numberOfMessages = Integer.parseInt(args[1]);
+    int gatherMessages = Integer.parseInt(args[2]);
+    boolean scatter = args.length < 4 || Boolean.parseBoolean(args[3]);
+
+    TCPThroughputExample example = new TCPThroughputExample(gatherMessages, scatter);
+    example.setUp();
+    // warm up
+    example.sendMessages(messageSize, numberOfMessages / 10);
+    example.sendMessages(messageSize, numberOfMessages);
+    example.tearDown();
+  }
+}
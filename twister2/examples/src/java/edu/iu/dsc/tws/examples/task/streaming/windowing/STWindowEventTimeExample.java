@@ -296,8 +296,13 @@ public class STWindowEventTimeExample extends BenchTaskWorker {
 
     @Override
     public String computeFold() {
+      return computeFold(this.ans);
+    }
+
+    @Override
+    public String computeFold(int[] window) {
       String summary = "Window Value With Basic Per Window Averaging : "
-          + Arrays.toString(this.ans);
+          + Arrays.toString(window);
       return summary;
     }
 
@@ -0,0 +1,216 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.executor.threading.BatchSharingExecutor2;
+import edu.iu.dsc.tws.executor.threading.WorkStealingBatchExecutor;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Compares the batch executors with many task instances where only a few instances are busy,
+ * which is the case for most of the instances of a worker waiting for messages. Run with
+ * bazel run //twister2/executor/benchmarks/java:executor-benchmarks -- BatchExecutorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchExecutorBenchmark {
+
+  @Param({"sharing", "workstealing"})
+  private String executor;
+
+  @Param({"4"})
+  private int threads;
+
+  @Param({"64", "512"})
+  private int instances;
+
+  private ExecutionPlan plan;
+
+  private IExecutor iExecutor;
+
+  /**
+   * An instance which does some work for a number of executions
+   */
+  private static class SyntheticInstance implements INodeInstance {
+    private final int executions;
+
+    private final int work;
+
+    private int remaining;
+
+    SyntheticInstance(int executions, int work) {
+      this.executions = executions;
+      this.work = work;
+      this.remaining = executions;
+    }
+
+    @Override
+    public int getIndex() {
+      return 0;
+    }
+
+    @Override
+    public boolean execute() {
+      Blackhole.consumeCPU(work);
+      return --remaining > 0;
+    }
+
+    @Override
+    public void prepare(Config cfg) {
+    }
+
+    @Override
+    public void reset() {
+      remaining = executions;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public INode getNode() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * A channel without any communication
+   */
+  private static class NoOpChannel implements TWSChannel {
+    @Override
+    public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+      return true;
+    }
+
+    @Override
+    public boolean receiveMessage(int group, int id, int edge, ChannelListener callback,
+                                  Queue<DataBuffer> receiveBuffers) {
+      return true;
+    }
+
+    @Override
+    public void progress() {
+    }
+
+    @Override
+    public void progressSends() {
+    }
+
+    @Override
+    public void progressReceives(int group) {
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public ByteBuffer createBuffer(int capacity) {
+      return ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void releaseBuffers(int wId, int e) {
+    }
+
+    @Override
+    public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+    }
+  }
+
+  @Setup
+  public void setup() {
+    plan = new ExecutionPlan();
+    for (int i = 0; i < instances; i++) {
+      // one in every 16 instances is busy, the rest return quickly
+      plan.addNodes("task", i, new SyntheticInstance(1000, i % 16 == 0 ? 2000 : 10));
+    }
+
+    Config cfg = Config.newBuilder()
+        .put(ExecutorContext.THREADS_PER_WORKER, threads)
+        .put(ExecutorContext.JOB_NAME, "benchmark")
+        .build();
+    IExecutionHook hook = new IExecutionHook() {
+      @Override
+      public void beforeExecution() {
+      }
+
+      @Override
+      public void afterExecution() {
+      }
+
+      @Override
+      public void onClose(IExecutor ex) {
+      }
+    };
+    if ("workstealing".equals(executor)) {
+      iExecutor = new WorkStealingBatchExecutor(cfg, 0, new NoOpChannel(), plan, hook);
+    } else {
+      iExecutor = new BatchSharingExecutor2(cfg, 0, new NoOpChannel(), plan, hook);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    iExecutor.close();
+  }
+
+  @Benchmark
+  public boolean execute() {
+    return iExecutor.execute(true);
+  }
+}
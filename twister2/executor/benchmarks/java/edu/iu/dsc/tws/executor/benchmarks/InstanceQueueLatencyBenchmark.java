@@ -0,0 +1,133 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.iu.dsc.tws.executor.core.queue.MpscRingBufferQueue;
+import edu.iu.dsc.tws.executor.core.queue.RingBufferQueue;
+
+/**
+ * Measures the latency of handing messages from the communication to a streaming task through
+ * the input queue at a fixed offered load. The producers send at the given rate and the
+ * latency of a message is measured from the time it was scheduled to be sent, so that the time
+ * spent waiting because of back pressure is included.
+ *
+ * Run with
+ * bazel run //twister2/executor/benchmarks/java:instance-queue-latency -- [rate] [messages]
+ * [producers] [capacity]
+ */
+public final class InstanceQueueLatencyBenchmark {
+
+  private static final class Event {
+    private final long scheduled;
+
+    private Event(long scheduled) {
+      this.scheduled = scheduled;
+    }
+  }
+
+  private InstanceQueueLatencyBenchmark() {
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    long rate = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+    int messages = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int producers = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+    int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 128;
+
+    System.out.println(String.format("rate %d msgs/s, %d messages, %d producers, capacity %d",
+        rate, messages, producers, capacity));
+    for (int i = 0; i < 2; i++) {
+      // the first round is a warm up
+      boolean report = i == 1;
+      run("blocking", new LinkedBlockingQueue<>(capacity), rate, messages, producers, report);
+      run("ring", new MpscRingBufferQueue<>(capacity), rate, messages, producers, report);
+    }
+  }
+
+  private static void run(String name, BlockingQueue<Event> queue, long rate, int messages,
+                          int producers, boolean report) throws InterruptedException {
+    long[] latencies = new long[messages];
+    int perProducer = messages / producers;
+    int total = perProducer * producers;
+    long interval = 1_000_000_000L * producers / rate;
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger done = new AtomicInteger();
+
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      threads[p] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long next = System.nanoTime();
+        for (int m = 0; m < perProducer; m++) {
+          while (System.nanoTime() < next) {
+            // wait for the time to send the next message
+            Thread.yield();
+          }
+          Event event = new Event(next);
+          while (!queue.offer(event)) {
+            // back pressure, the communication would retry later
+            Thread.yield();
+          }
+          next += interval;
+        }
+        done.incrementAndGet();
+      });
+      threads[p].start();
+    }
+
+    RingBufferQueue<Event> ring = queue instanceof RingBufferQueue
+        ? (RingBufferQueue<Event>) queue : null;
+    int[] received = new int[1];
+    start.countDown();
+    while (received[0] < total) {
+      int count = 0;
+      if (ring != null) {
+        count = ring.drain(e -> latencies[received[0]++] = System.nanoTime() - e.scheduled,
+            Integer.MAX_VALUE);
+      } else {
+        Event e;
+        while ((e = queue.poll()) != null) {
+          latencies[received[0]++] = System.nanoTime() - e.scheduled;
+          count++;
+        }
+      }
+      if (count == 0) {
+        Thread.yield();
+      }
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+
+    if (report) {
+      Arrays.sort(latencies, 0, total);
+      System.out.println(String.format(
+          "%-8s p50 %8.2f us p99 %8.2f us p99.9 %8.2f us max %10.2f us", name, percentile(latencies, total, 0.5), percentile(latencies, total, 0.99),
+          percentile(latencies, total, 0.999), latencies[total - 1] / 1000.0));
+    }
+  }
+
+  private static double percentile(long[] sorted, int count, double p) {
+    int index = Math.min((int) Math.ceil(p * count) - 1, count - 1);
+    return sorted[Math.max(index, 0)] / 1000.0;
+  }
+}
@@ -17,7 +17,9 @@ import java.util.concurrent.BlockingQueue;
 
 import edu.iu.dsc.tws.api.comms.Communicator;
 import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
 import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
 import edu.iu.dsc.tws.api.compute.executor.ISync;
 import edu.iu.dsc.tws.api.config.Config;
@@ -56,6 +58,20 @@ public abstract class AbstractParallelOperation implements IParallelOperation {
     outMessages.put(targetTask, queue);
   }
 
+  /**
+   * Give a watermark to a target task through its input queue, so that the task sees it after
+   * the messages received before it
+   *
+   * @param target the target task
+   * @param watermark the watermark
+   * @return true if the watermark is accepted
+   */
+  protected boolean offerWatermark(int target, long watermark) {
+    BlockingQueue<IMessage> messages = outMessages.get(target);
+    return messages.offer(new TaskMessage<>(watermark, MessageFlags.SYNC_WATERMARK,
+        inEdge, target));
+  }
+
   @Override
   public void close() {
     this.getOp().close();
@@ -74,6 +74,11 @@ public class DirectStreamingOperation extends AbstractParallelOperation {
     public boolean sync(int target, byte[] message) {
       return syncs.get(target).sync(inEdge, message);
     }
+
+    @Override
+    public boolean watermark(int target, long watermark) {
+      return offerWatermark(target, watermark);
+    }
   }
 
   @Override
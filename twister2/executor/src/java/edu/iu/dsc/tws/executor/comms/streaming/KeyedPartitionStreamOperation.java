@@ -84,15 +84,18 @@ public class KeyedPartitionStreamOperation extends AbstractParallelOperation {
         TaskMessage msg = new TaskMessage<>(data, inEdge, target);
         BlockingQueue<IMessage> messages = outMessages.get(target);
         if (messages != null) {
-          if (messages.offer(msg)) {
-            return true;
-          }
+          return messages.offer(msg);
         }
       } else {
         throw new RuntimeException("Un-expecte data - " + data.getClass());
       }
       return true;
     }
+
+    @Override
+    public boolean watermark(int target, long watermark) {
+      return offerWatermark(target, watermark);
+    }
   }
 
   @Override
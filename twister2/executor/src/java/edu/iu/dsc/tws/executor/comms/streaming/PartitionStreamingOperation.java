@@ -80,6 +80,11 @@ public class PartitionStreamingOperation extends AbstractParallelOperation {
       TaskMessage msg = new TaskMessage<>(data, inEdge, target);
       return messages.offer(msg);
     }
+
+    @Override
+    public boolean watermark(int target, long watermark) {
+      return offerWatermark(target, watermark);
+    }
   }
 
   @Override
@@ -50,6 +50,7 @@ import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
 import edu.iu.dsc.tws.executor.core.batch.SourceBatchInstance;
 import edu.iu.dsc.tws.executor.core.batch.TaskBatchInstance;
+import edu.iu.dsc.tws.executor.core.queue.InstanceQueueFactory;
 import edu.iu.dsc.tws.executor.core.streaming.SourceStreamingInstance;
 import edu.iu.dsc.tws.executor.core.streaming.TaskStreamingInstance;
 import edu.iu.dsc.tws.executor.util.Utils;
@@ -453,8 +454,8 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
     } else if (operationMode.equals(OperationMode.STREAMING)) {
       if (newInstance instanceof ICompute) {
         TaskStreamingInstance v = new TaskStreamingInstance((ICompute) newInstance,
-            new LinkedBlockingQueue<>(),
-            new LinkedBlockingQueue<>(), cfg,
+            InstanceQueueFactory.createInputQueue(cfg),
+            InstanceQueueFactory.createOutputQueue(cfg), cfg,
             vertex.getName(), ip.getTaskId(), taskId, ip.getTaskIndex(),
             vertex.getParallelism(), workerId, vertex.getConfig().toMap(), inEdges,
             outEdges, taskSchedule, this.checkpointingClient, taskGraphName, tasksVersion);
@@ -462,7 +463,7 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
         return v;
       } else if (newInstance instanceof ISource) {
         SourceStreamingInstance v = new SourceStreamingInstance((ISource) newInstance,
-            new LinkedBlockingQueue<>(), cfg,
+            InstanceQueueFactory.createOutputQueue(cfg), cfg,
             vertex.getName(), ip.getTaskId(), taskId, ip.getTaskIndex(),
             vertex.getParallelism(), workerId, vertex.getConfig().toMap(), outEdges,
             taskSchedule, this.checkpointingClient, taskGraphName, tasksVersion);
@@ -20,6 +20,7 @@ import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 
 public final class TaskCheckpointUtils {
 
@@ -46,25 +47,24 @@ public final class TaskCheckpointUtils {
     }
   }
 
+  /**
+   * Take the snapshot of the task and hand it over to the writer. The snapshot is available
+   * through {@link SnapshotWriter#poll()} once it is written to the store.
+   */
   public static void checkpoint(long checkpointID,
                                 CheckpointableTask checkpointableTask,
                                 SnapshotImpl snapshot,
-                                StateStore stateStore,
+                                SnapshotWriter snapshotWriter,
                                 String family,
                                 int globalTaskId,
                                 CheckpointingClient checkpointingClient) {
-    try {
-      //take the task snapshot
-      checkpointableTask.takeSnapshot(snapshot);
+    //take the task snapshot
+    checkpointableTask.takeSnapshot(snapshot);
 
-      //update the new version
-      snapshot.setVersion(checkpointID);
+    //update the new version
+    snapshot.setVersion(checkpointID);
 
-      CheckpointUtils.saveState(stateStore, snapshot);
-
-      checkpointableTask.onSnapshotPersisted(snapshot);
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to write checkpoint of " + globalTaskId, e);
-    }
+    LOG.log(Level.FINE, "Writing checkpoint " + checkpointID + " of " + globalTaskId);
+    snapshotWriter.write(snapshot.capture());
   }
 }
@@ -297,6 +297,12 @@ public class TaskContextImpl implements TaskContext {
         MessageFlags.SYNC_BARRIER, edge, globalTaskId));
   }
 
+  @Override
+  public boolean writeWatermark(String edge, long watermark) {
+    return collection.collect(edge, new TaskMessage<>(watermark,
+        MessageFlags.SYNC_WATERMARK, edge, globalTaskId));
+  }
+
   /**
    * Write the last message
    *
@@ -58,9 +58,15 @@ public final class TaskPlanBuilder {
       containersToTasks.put(c.getContainerId(), instances);
     }
 
+    // the workers of a node form a group, so that the collectives first communicate inside the
+    // node and then across the nodes. the tree map keeps the group ids same in all workers
     Map<String, List<JobMasterAPI.WorkerInfo>> containersPerNode = new TreeMap<>();
     for (JobMasterAPI.WorkerInfo workerInfo : workerInfoList) {
-      String name = Integer.toString(workerInfo.getWorkerID());
+      String name = workerInfo.getNodeInfo().getNodeIP();
+      if (name == null || name.isEmpty()) {
+        // without the node information we take each container as a group
+        name = Integer.toString(workerInfo.getWorkerID());
+      }
       List<JobMasterAPI.WorkerInfo> containerList;
       if (!containersPerNode.containsKey(name)) {
         containerList = new ArrayList<>();
@@ -74,7 +80,6 @@ public final class TaskPlanBuilder {
     Map<String, Set<Integer>> nodeToTasks = new HashMap<>();
 
     int i = 0;
-    // we take each container as an executor
     for (Map.Entry<String, List<JobMasterAPI.WorkerInfo>> entry : containersPerNode.entrySet()) {
       Set<Integer> executorsOfGroup = new HashSet<>();
       for (JobMasterAPI.WorkerInfo workerInfo : entry.getValue()) {
@@ -115,6 +115,11 @@ public class SourceBatchInstance implements INodeInstance, ISync {
    */
   private int lowWaterMark;
 
+  /**
+   * The last execution did not make progress
+   */
+  private boolean idle;
+
   /**
    * The high water mark for messages
    */
@@ -184,6 +189,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
    * Execution Method calls the SourceTasks run method to get context
    **/
   public boolean execute() {
+    boolean progressed = false;
     // we started the execution
     if (state.isEqual(InstanceState.INIT)) {
       state.addState(InstanceState.EXECUTING);
@@ -194,6 +200,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
       while (outBatchQueue.size() < lowWaterMark) {
         // if we are in executing state we can run
         batchTask.execute();
+        progressed = true;
 
         // if all the edges are done
         if (taskContext.isCompleted()) {
@@ -211,6 +218,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
         IParallelOperation op = outBatchParOps.get(edge);
         if (op.send(globalTaskId, message, 0)) {
           outBatchQueue.poll();
+          progressed = true;
         } else {
           // no point in progressing further
           break;
@@ -225,6 +233,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
         op.finish(globalTaskId);
       }
       state.addState(InstanceState.OUT_COMPLETE);
+      progressed = true;
     }
 
     // lets progress the communication
@@ -233,6 +242,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     if (state.isSet(InstanceState.OUT_COMPLETE) && complete) {
       state.addState(InstanceState.SENDING_DONE);
     }
+    idle = !progressed;
 
     boolean equal = state.isEqual(InstanceState.FINISH);
     return !equal;
@@ -243,6 +253,11 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     return true;
   }
 
+  @Override
+  public boolean isIdle() {
+    return idle;
+  }
+
   @Override
   public int getId() {
     return globalTaskId;
@@ -265,6 +280,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     }
     taskContext.reset();
     state = new InstanceState(InstanceState.INIT);
+    idle = false;
   }
 
   @Override
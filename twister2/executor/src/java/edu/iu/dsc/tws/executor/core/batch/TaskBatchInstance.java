@@ -135,6 +135,11 @@ public class TaskBatchInstance implements INodeInstance, ISync {
    */
   private int lowWaterMark;
 
+  /**
+   * The last execution did not make progress
+   */
+  private boolean idle;
+
   /**
    * The high water mark for messages
    */
@@ -239,12 +244,14 @@ public class TaskBatchInstance implements INodeInstance, ISync {
 
   @Override
   public boolean execute() {
+    boolean progressed = false;
     // we started the executio
     if (state.isSet(InstanceState.INIT) && state.isNotSet(InstanceState.EXECUTION_DONE)) {
       while (!inQueue.isEmpty() && outQueue.size() < lowWaterMark) {
         IMessage m = inQueue.poll();
         task.execute(m);
         state.addState(InstanceState.EXECUTING);
+        progressed = true;
       }
 
       // for compute we don't have to have the context done as when the inputs finish and execution
@@ -254,6 +261,7 @@ public class TaskBatchInstance implements INodeInstance, ISync {
       // if we no longer needs to progress comm and input is empty
       if (inQueue.isEmpty() && state.isSet(InstanceState.SYNCED) && complete) {
         state.addState(InstanceState.EXECUTION_DONE);
+        progressed = true;
       }
     }
 
@@ -268,6 +276,7 @@ public class TaskBatchInstance implements INodeInstance, ISync {
         int flags = 0;
         if (op.send(globalTaskId, message, flags)) {
           outQueue.poll();
+          progressed = true;
         } else {
           // no point progressing further
           break;
@@ -282,6 +291,7 @@ public class TaskBatchInstance implements INodeInstance, ISync {
         op.finish(globalTaskId);
       }
       state.addState(InstanceState.OUT_COMPLETE);
+      progressed = true;
     }
 
     // lets progress the communication
@@ -290,6 +300,8 @@ public class TaskBatchInstance implements INodeInstance, ISync {
     if (state.isSet(InstanceState.OUT_COMPLETE) && complete) {
       state.addState(InstanceState.SENDING_DONE);
     }
+    // the communication progress may have given us messages to execute
+    idle = !progressed && inQueue.isEmpty();
     return !state.isSet(InstanceState.SENDING_DONE);
   }
 
@@ -336,6 +348,11 @@ public class TaskBatchInstance implements INodeInstance, ISync {
     return complete;
   }
 
+  @Override
+  public boolean isIdle() {
+    return idle;
+  }
+
   @Override
   public int getId() {
     return globalTaskId;
@@ -365,6 +382,7 @@ public class TaskBatchInstance implements INodeInstance, ISync {
       ((Closable) task).reset();
     }
     state = new InstanceState(InstanceState.INIT);
+    idle = false;
   }
 
   public BlockingQueue<IMessage> getInQueue() {
@@ -0,0 +1,73 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.queue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Creates the message queues of the streaming task instances according to
+ * {@link ExecutorContext#INSTANCE_QUEUE_TYPE}.
+ */
+public final class InstanceQueueFactory {
+
+  private InstanceQueueFactory() {
+  }
+
+  /**
+   * Create the queue the communication uses to deliver messages to a task. The operations of
+   * the different input edges can be progressed by different threads, so the ring buffer allows
+   * many producers. The queue is bounded by the high watermark, when it is full the receivers
+   * reject the messages and the communication applies back pressure.
+   *
+   * @param cfg configuration
+   * @return the input queue
+   */
+  public static BlockingQueue<IMessage> createInputQueue(Config cfg) {
+    if (isRing(cfg)) {
+      return new MpscRingBufferQueue<>(ExecutorContext.instanceQueueHighWaterMark(cfg));
+    }
+    return new LinkedBlockingQueue<>();
+  }
+
+  /**
+   * Create the queue a task writes its output to. Only the thread executing the task writes and
+   * reads this queue, so a single producer ring buffer is used. Tasks are not executed while this
+   * queue is above the low watermark, but a single execution can emit any number of messages, so
+   * the queue spills instead of rejecting them.
+   *
+   * @param cfg configuration
+   * @return the output queue
+   */
+  public static BlockingQueue<IMessage> createOutputQueue(Config cfg) {
+    if (isRing(cfg)) {
+      int capacity = Math.max(ExecutorContext.instanceQueueLowWaterMark(cfg),
+          ExecutorContext.instanceQueueHighWaterMark(cfg));
+      return new SpscRingBufferQueue<>(capacity, true);
+    }
+    return new LinkedBlockingQueue<>();
+  }
+
+  private static boolean isRing(Config cfg) {
+    String type = ExecutorContext.instanceQueueType(cfg);
+    if (ExecutorContext.INSTANCE_QUEUE_RING.equals(type)) {
+      return true;
+    } else if (ExecutorContext.INSTANCE_QUEUE_BLOCKING.equals(type)) {
+      return false;
+    }
+    throw new RuntimeException("Unknown instance queue type: " + type);
+  }
+}
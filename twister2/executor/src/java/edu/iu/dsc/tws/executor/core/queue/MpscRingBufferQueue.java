@@ -0,0 +1,160 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded lock free queue with many producers and a single consumer. Producers claim a slot
+ * by incrementing the producer index and then publish the element in to the slot. The consumer
+ * waits for a claimed slot to be published, which only happens for a few instructions.
+ *
+ * This is used as the input queue of the streaming task instances, where the operations of the
+ * incoming edges may be progressed by different threads.
+ *
+ * @param <E> element type
+ */
+public class MpscRingBufferQueue<E> extends RingBufferQueue<E> {
+  /**
+   * The slots
+   */
+  private final AtomicReferenceArray<E> buffer;
+
+  /**
+   * Next index to be claimed by a producer
+   */
+  private final AtomicLong producerIndex = new AtomicLong(0);
+
+  /**
+   * Next index to be consumed
+   */
+  private final AtomicLong consumerIndex = new AtomicLong(0);
+
+  /**
+   * Cached value of the consumer index so that producers do not read it for every offer
+   */
+  private volatile long producerLimit;
+
+  public MpscRingBufferQueue(int requestedCapacity) {
+    super(requestedCapacity);
+    this.buffer = new AtomicReferenceArray<>(capacity);
+    this.producerLimit = capacity;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long limit = producerLimit;
+    long index;
+    do {
+      index = producerIndex.get();
+      if (index >= limit) {
+        limit = consumerIndex.get() + capacity;
+        if (index >= limit) {
+          return false;
+        }
+        producerLimit = limit;
+      }
+    } while (!producerIndex.compareAndSet(index, index + 1));
+
+    buffer.lazySet((int) index & mask, e);
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    E e = buffer.get(offset);
+    if (e == null) {
+      if (index == producerIndex.get()) {
+        return null;
+      }
+      // a producer has claimed the slot, wait for it to publish the element
+      do {
+        e = buffer.get(offset);
+      } while (e == null);
+    }
+    buffer.lazySet(offset, null);
+    consumerIndex.lazySet(index + 1);
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    E e = buffer.get(offset);
+    if (e == null && index != producerIndex.get()) {
+      do {
+        e = buffer.get(offset);
+      } while (e == null);
+    }
+    return e;
+  }
+
+  @Override
+  public int drain(Consumer<? super E> consumer, int limit) {
+    long index = consumerIndex.get();
+    int count = 0;
+    while (count < limit) {
+      int offset = (int) index & mask;
+      E e = buffer.get(offset);
+      if (e == null) {
+        break;
+      }
+      buffer.lazySet(offset, null);
+      index++;
+      consumerIndex.lazySet(index);
+      count++;
+      consumer.accept(e);
+    }
+    return count;
+  }
+
+  @Override
+  public int size() {
+    long after = consumerIndex.get();
+    while (true) {
+      long before = after;
+      long producer = producerIndex.get();
+      after = consumerIndex.get();
+      if (before == after) {
+        return (int) Math.min(producer - after, capacity);
+      }
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return consumerIndex.get() == producerIndex.get();
+  }
+
+  @Override
+  protected long consumerPosition() {
+    return consumerIndex.get();
+  }
+
+  @Override
+  protected long producerPosition() {
+    return producerIndex.get();
+  }
+
+  @Override
+  protected E slot(int offset) {
+    return buffer.get(offset);
+  }
+}
@@ -0,0 +1,236 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.queue;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the bounded lock free ring buffers used between the communication and the task
+ * instances. The capacity is rounded up to a power of two. Only the single consumer can poll,
+ * peek or drain the queue.
+ *
+ * The blocking methods are implemented by parking for a short time, the executors only use the
+ * non blocking methods. The iterators are weakly consistent, like the iterators of the
+ * concurrent queues, and do not support removing elements.
+ *
+ * @param <E> element type
+ */
+public abstract class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+  /**
+   * Time to park when the blocking methods cannot make progress
+   */
+  private static final long PARK_NANOS = 1000L;
+
+  /**
+   * Capacity of the ring
+   */
+  protected final int capacity;
+
+  /**
+   * Mask to get the index in to the ring
+   */
+  protected final int mask;
+
+  protected RingBufferQueue(int requestedCapacity) {
+    if (requestedCapacity <= 0) {
+      throw new IllegalArgumentException("Capacity should be positive: " + requestedCapacity);
+    }
+    this.capacity = nextPowerOfTwo(requestedCapacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Remove up to limit elements from the queue and give them to the consumer
+   *
+   * @param consumer consumer of the elements
+   * @param limit maximum number of elements to remove
+   * @return number of elements removed
+   */
+  public abstract int drain(Consumer<? super E> consumer, int limit);
+
+  /**
+   * Index of the next element to be consumed
+   */
+  protected abstract long consumerPosition();
+
+  /**
+   * Index of the next element to be added
+   */
+  protected abstract long producerPosition();
+
+  /**
+   * The element in the given slot of the ring, null if the slot is empty
+   */
+  protected abstract E slot(int offset);
+
+  /**
+   * Elements which are after the ring
+   */
+  protected Iterator<E> overflowIterator() {
+    return Collections.emptyIterator();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    while (!offer(e)) {
+      park();
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!offer(e)) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      park();
+    }
+    return true;
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    E e;
+    while ((e = poll()) == null) {
+      park();
+    }
+    return e;
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    E e;
+    while ((e = poll()) == null) {
+      if (System.nanoTime() - deadline >= 0) {
+        return null;
+      }
+      park();
+    }
+    return e;
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Math.max(capacity - size(), 0);
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException("Cannot drain a queue to itself");
+    }
+    return drain(c::add, maxElements);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new RingIterator(consumerPosition(), producerPosition());
+  }
+
+  private static void park() throws InterruptedException {
+    LockSupport.parkNanos(PARK_NANOS);
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  /**
+   * Returns the elements that were in the ring when it was created and are not consumed yet,
+   * followed by the overflow. Elements added after the iterator is created may be returned.
+   */
+  private final class RingIterator implements Iterator<E> {
+    private long index;
+
+    private final long end;
+
+    private Iterator<E> overflow;
+
+    private E next;
+
+    RingIterator(long start, long end) {
+      this.index = start;
+      this.end = end;
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (index < end) {
+        // skip the elements consumed while iterating
+        index = Math.max(index, consumerPosition());
+        if (index >= end) {
+          break;
+        }
+        next = slot((int) index++ & mask);
+        if (next != null) {
+          return;
+        }
+      }
+      if (overflow == null) {
+        overflow = overflowIterator();
+      }
+      if (overflow.hasNext()) {
+        next = overflow.next();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public E next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      E e = next;
+      advance();
+      return e;
+    }
+  }
+
+  static int nextPowerOfTwo(int value) {
+    int highest = Integer.highestOneBit(value);
+    if (highest == value) {
+      return value;
+    }
+    if (highest >= 1 << 30) {
+      throw new IllegalArgumentException("Capacity is too large: " + value);
+    }
+    return highest << 1;
+  }
+}
@@ -0,0 +1,174 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.queue;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock free queue with a single producer and a single consumer. A slot is free if it is null,
+ * so the producer only needs to look at the slot it is going to write.
+ *
+ * When created with spilling, offers never fail. Elements offered while the ring is full go to
+ * an unbounded overflow queue, and are taken after the ring is drained. The producer keeps
+ * adding to the overflow until the consumer empties it, so the order of the elements is
+ * preserved. This is used for the output queues of the task instances, as a task cannot be
+ * stopped in the middle of its execution when it emits a burst of messages.
+ *
+ * @param <E> element type
+ */
+public class SpscRingBufferQueue<E> extends RingBufferQueue<E> {
+  /**
+   * The slots
+   */
+  private final AtomicReferenceArray<E> buffer;
+
+  /**
+   * Next index to be written by the producer
+   */
+  private final AtomicLong producerIndex = new AtomicLong(0);
+
+  /**
+   * Next index to be consumed
+   */
+  private final AtomicLong consumerIndex = new AtomicLong(0);
+
+  /**
+   * Elements which did not fit in to the ring, null if we are not spilling
+   */
+  private final Queue<E> overflow;
+
+  public SpscRingBufferQueue(int requestedCapacity) {
+    this(requestedCapacity, false);
+  }
+
+  public SpscRingBufferQueue(int requestedCapacity, boolean spill) {
+    super(requestedCapacity);
+    this.buffer = new AtomicReferenceArray<>(capacity);
+    this.overflow = spill ? new ConcurrentLinkedQueue<>() : null;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    if (overflow != null && !overflow.isEmpty()) {
+      return overflow.offer(e);
+    }
+
+    long index = producerIndex.get();
+    int offset = (int) index & mask;
+    if (buffer.get(offset) != null) {
+      return overflow != null && overflow.offer(e);
+    }
+    buffer.lazySet(offset, e);
+    producerIndex.lazySet(index + 1);
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    long index = consumerIndex.get();
+    int offset = (int) index & mask;
+    E e = buffer.get(offset);
+    if (e == null) {
+      return overflow != null ? overflow.poll() : null;
+    }
+    buffer.lazySet(offset, null);
+    consumerIndex.lazySet(index + 1);
+    return e;
+  }
+
+  @Override
+  public E peek() {
+    E e = buffer.get((int) consumerIndex.get() & mask);
+    if (e == null && overflow != null) {
+      return overflow.peek();
+    }
+    return e;
+  }
+
+  @Override
+  public int drain(Consumer<? super E> consumer, int limit) {
+    long index = consumerIndex.get();
+    int count = 0;
+    while (count < limit) {
+      int offset = (int) index & mask;
+      E e = buffer.get(offset);
+      if (e == null) {
+        break;
+      }
+      buffer.lazySet(offset, null);
+      index++;
+      consumerIndex.lazySet(index);
+      count++;
+      consumer.accept(e);
+    }
+
+    if (overflow != null) {
+      E e;
+      while (count < limit && buffer.get((int) index & mask) == null
+          && (e = overflow.poll()) != null) {
+        count++;
+        consumer.accept(e);
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int size() {
+    long after = consumerIndex.get();
+    int ringSize;
+    while (true) {
+      long before = after;
+      long producer = producerIndex.get();
+      after = consumerIndex.get();
+      if (before == after) {
+        ringSize = (int) Math.min(producer - after, capacity);
+        break;
+      }
+    }
+    return overflow != null ? ringSize + overflow.size() : ringSize;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return consumerIndex.get() == producerIndex.get()
+        && (overflow == null || overflow.isEmpty());
+  }
+
+  @Override
+  protected long consumerPosition() {
+    return consumerIndex.get();
+  }
+
+  @Override
+  protected long producerPosition() {
+    return producerIndex.get();
+  }
+
+  @Override
+  protected E slot(int offset) {
+    return buffer.get(offset);
+  }
+
+  @Override
+  protected Iterator<E> overflowIterator() {
+    return overflow != null ? overflow.iterator() : super.overflowIterator();
+  }
+}
@@ -16,10 +16,10 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
-import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
 import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 import edu.iu.dsc.tws.executor.core.TaskCheckpointUtils;
 
 public class PendingCheckpoint {
@@ -32,7 +32,7 @@ public class PendingCheckpoint {
   private int noOfedges;
   private CheckpointingClient checkpointingClient;
   private String taskGraphName;
-  private StateStore stateStore;
+  private SnapshotWriter snapshotWriter;
   private SnapshotImpl snapshot;
   private IParallelOperation[] streamingInParOps;
 
@@ -46,7 +46,7 @@ public class PendingCheckpoint {
                            IParallelOperation[] streamingInParOps,
                            int noOfedges,
                            CheckpointingClient checkpointingClient,
-                           StateStore stateStore,
+                           SnapshotWriter snapshotWriter,
                            SnapshotImpl snapshot) {
     this.checkpointableTask = checkpointableTask;
     this.globalTaskId = globalTaskId;
@@ -54,7 +54,7 @@ public class PendingCheckpoint {
     this.noOfedges = noOfedges;
     this.checkpointingClient = checkpointingClient;
     this.taskGraphName = taskGraphName;
-    this.stateStore = stateStore;
+    this.snapshotWriter = snapshotWriter;
     this.snapshot = snapshot;
     this.edgesOnCurrentBarrier = new HashSet<>();
   }
@@ -91,13 +91,17 @@ public class PendingCheckpoint {
     }
 
     if (this.edgesOnCurrentBarrier.size() == this.noOfedges) {
+      if (this.snapshotWriter.isBusy()) {
+        // wait till some of the earlier snapshots are written
+        return -1;
+      }
       LOG.fine(() -> "Barrier executing in " + this.globalTaskId + " with id "
           + this.currentBarrierId);
       TaskCheckpointUtils.checkpoint(
           this.currentBarrierId,
           this.checkpointableTask,
           this.snapshot,
-          this.stateStore,
+          this.snapshotWriter,
           this.taskGraphName,
           this.globalTaskId,
           this.checkpointingClient
@@ -111,4 +115,25 @@ public class PendingCheckpoint {
     }
     return -1;
   }
+
+  /**
+   * Get the next snapshot written to the store. The task should acknowledge the checkpoint
+   * only after this.
+   *
+   * @return the snapshot or null if none
+   */
+  public SnapshotImpl pollPersisted() {
+    SnapshotImpl persisted = this.snapshotWriter.poll();
+    if (persisted != null) {
+      this.checkpointableTask.onSnapshotPersisted(persisted);
+    }
+    return persisted;
+  }
+
+  /**
+   * Weather there are snapshots being written or waiting to be acknowledged
+   */
+  public boolean hasUnacknowledged() {
+    return this.snapshotWriter.hasPending();
+  }
 }
@@ -23,6 +23,7 @@ import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
 import edu.iu.dsc.tws.api.checkpointing.Snapshot;
 import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.api.compute.OutputCollection;
 import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
@@ -39,6 +40,7 @@ import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
 import edu.iu.dsc.tws.executor.core.TaskCheckpointUtils;
 import edu.iu.dsc.tws.executor.core.TaskContextImpl;
@@ -224,7 +226,7 @@ public class SourceStreamingInstance implements INodeInstance {
 
       this.pendingCheckpoint = new PendingCheckpoint(taskGraphName,
           (CheckpointableTask) this.streamingTask, globalTaskId, outOpArray, outEdges.size(),
-          checkpointingClient, stateStore, snapshot);
+          checkpointingClient, new SnapshotWriter(config, stateStore), snapshot);
     }
   }
 
@@ -254,11 +256,8 @@ public class SourceStreamingInstance implements INodeInstance {
       if (message != null) {
         String edge = message.edge();
         IParallelOperation op = outStreamingParOps.get(edge);
-        boolean barrierMessage = (message.getFlag() & MessageFlags.SYNC_BARRIER)
-            == MessageFlags.SYNC_BARRIER;
         // if we successfully send remove message
-        if (barrierMessage ? op.sendBarrier(globalTaskId, (byte[]) message.getContent())
-            : op.send(globalTaskId, message, message.getFlag())) {
+        if (send(op, message)) {
           outStreamingQueue.poll();
         } else {
           nothingToProcess = false;
@@ -280,10 +279,19 @@ public class SourceStreamingInstance implements INodeInstance {
     if (this.checkpointable && outStreamingQueue.isEmpty() && this.pendingCheckpoint.isPending()) {
       long barrier = this.pendingCheckpoint.execute();
       if (barrier != -1) {
-        ((CheckpointableTask) this.streamingTask)
-            .onCheckpointPropagated(this.snapshot);
         this.scheduleBarriers(barrier);
-        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, barrier);
+        nothingToProcess = false;
+      }
+    }
+
+    if (this.checkpointable) {
+      // we report a checkpoint only after it is written to the store
+      SnapshotImpl persisted = this.pendingCheckpoint.pollPersisted();
+      if (persisted != null) {
+        ((CheckpointableTask) this.streamingTask).onCheckpointPropagated(persisted);
+        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, persisted.getVersion());
+        nothingToProcess = false;
+      } else if (this.pendingCheckpoint.hasUnacknowledged()) {
         nothingToProcess = false;
       }
     }
@@ -312,6 +320,23 @@ public class SourceStreamingInstance implements INodeInstance {
     }
   }
 
+  /**
+   * Send a message through the operation of its edge
+   *
+   * @param op the operation
+   * @param message the message
+   * @return true if the operation accepted the message
+   */
+  private boolean send(IParallelOperation op, IMessage message) {
+    int flag = message.getFlag();
+    if ((flag & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      return op.sendBarrier(globalTaskId, (byte[]) message.getContent());
+    } else if (Watermarks.isWatermark(flag)) {
+      return op.sendWatermark(globalTaskId, (Long) message.getContent());
+    }
+    return op.send(globalTaskId, message, flag);
+  }
+
   public void scheduleBarriers(Long bid) {
     ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
     buffer.putLong(bid);
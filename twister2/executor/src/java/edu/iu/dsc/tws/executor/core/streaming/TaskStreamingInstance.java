@@ -12,16 +12,19 @@
 package edu.iu.dsc.tws.executor.core.streaming;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
 import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.api.compute.OutputCollection;
 import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
@@ -30,18 +33,24 @@ import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
 import edu.iu.dsc.tws.api.compute.executor.ISync;
 import edu.iu.dsc.tws.api.compute.graph.OperationMode;
 import edu.iu.dsc.tws.api.compute.modifiers.Closable;
+import edu.iu.dsc.tws.api.compute.modifiers.WatermarkReceptor;
 import edu.iu.dsc.tws.api.compute.nodes.ICompute;
 import edu.iu.dsc.tws.api.compute.nodes.INode;
 import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.Histogram;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
 import edu.iu.dsc.tws.executor.core.TaskCheckpointUtils;
 import edu.iu.dsc.tws.executor.core.TaskContextImpl;
+import edu.iu.dsc.tws.executor.core.queue.RingBufferQueue;
 
 /**
  * The class represents the instance of the executing task
@@ -54,6 +63,12 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
 
   private static final Logger LOG = Logger.getLogger(TaskStreamingInstance.class.getName());
 
+  /**
+   * Maximum number of messages drained from the input ring before looking at the output queue
+   * again, as a message may emit many messages
+   */
+  private static final int DRAIN_BATCH = 16;
+
   /**
    * All the inputs will come through a single queue, otherwise we need to look
    * at different queues for messages
@@ -65,6 +80,25 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
    */
   protected BlockingQueue<IMessage> outQueue;
 
+  /**
+   * The input queue if it is a ring buffer, so that we can drain it in batches
+   */
+  private RingBufferQueue<IMessage> inRing;
+
+  /**
+   * Executes a message drained from the input ring
+   */
+  private Consumer<IMessage> executeFunction;
+
+  /**
+   * Metrics of this instance
+   */
+  private Counter messagesExecuted;
+  private Counter outputBlocked;
+  private Histogram executeTime;
+  private boolean recordTimes;
+  private String metricsPrefix;
+
   /**
    * The configuration
    */
@@ -173,6 +207,21 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
   private boolean ftGatherTask;
   private CheckpointingSGatherSink checkpointingSGatherSink;
 
+  /**
+   * The latest watermark of each input edge, in the order of inEdgeArray
+   */
+  private long[] inWatermarks;
+
+  /**
+   * The watermark of the task, minimum of the watermarks of the input edges
+   */
+  private long watermark = Watermarks.NONE;
+
+  /**
+   * Weather we still need to write the watermark to the output edges
+   */
+  private boolean watermarkPending;
+
   public TaskStreamingInstance(ICompute task, BlockingQueue<IMessage> inQueue,
                                BlockingQueue<IMessage> outQueue, Config config, String tName,
                                int taskId, int globalTaskId, int tIndex,
@@ -184,6 +233,8 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
     this.task = task;
     this.inQueue = inQueue;
     this.outQueue = outQueue;
+    this.inRing = inQueue instanceof RingBufferQueue ? (RingBufferQueue<IMessage>) inQueue : null;
+    this.executeFunction = this::executeTimed;
     this.config = config;
     this.globalTaskId = globalTaskId;
     this.taskId = taskId;
@@ -221,6 +272,7 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
         workerId, outputCollection, nodeConfigs, inputEdges, outputEdges, taskSchedule,
         OperationMode.STREAMING);
     task.prepare(cfg, taskContext);
+    initMetrics(cfg);
 
     /// we will use this array for iteration
     this.outOpArray = new IParallelOperation[outParOps.size()];
@@ -247,6 +299,8 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
     for (String e : inputEdges.keySet()) {
       this.inEdgeArray[index++] = e;
     }
+    this.inWatermarks = new long[inEdgeArray.length];
+    Arrays.fill(inWatermarks, Watermarks.NONE);
 
     if (this.checkpointable) {
       this.stateStore = CheckpointUtils.getStateStore(config);
@@ -259,7 +313,7 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
           this.intOpArray,
           this.inEdgeArray.length,
           this.checkpointingClient,
-          this.stateStore,
+          new SnapshotWriter(config, this.stateStore),
           this.snapshot
       );
 
@@ -274,6 +328,18 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
 
   }
 
+  private void initMetrics(Config cfg) {
+    MetricsRegistry metrics = MetricsRegistry.init(cfg);
+    this.metricsPrefix = MetricsRegistry.name("task", taskName, taskIndex);
+    this.messagesExecuted = metrics.counter(
+        MetricsRegistry.name(metricsPrefix, "messages.executed"));
+    this.outputBlocked = metrics.counter(MetricsRegistry.name(metricsPrefix, "output.blocked"));
+    this.executeTime = metrics.histogram(MetricsRegistry.name(metricsPrefix, "execute.nanos"));
+    this.recordTimes = metrics.isEnabled();
+    metrics.gauge(MetricsRegistry.name(metricsPrefix, "in.queue"), inQueue::size);
+    metrics.gauge(MetricsRegistry.name(metricsPrefix, "out.queue"), outQueue::size);
+  }
+
   public void registerOutParallelOperation(String edge, IParallelOperation op) {
     outParOps.put(edge, op);
   }
@@ -292,14 +358,36 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
    */
   public boolean execute() {
     // execute if there are incoming messages
-    while (!inQueue.isEmpty() && outQueue.size() < lowWaterMark) {
-      IMessage m = inQueue.poll();
-      if (m != null) {
-        task.execute(m);
+    int executed = 0;
+    if (inRing != null) {
+      // drain the ring in small batches, as much as the output queue can take
+      int batch;
+      while (!inQueue.isEmpty()
+          && (batch = Math.min(lowWaterMark - outQueue.size(), DRAIN_BATCH)) > 0) {
+        executed += inRing.drain(executeFunction, batch);
       }
+    } else {
+      while (!inQueue.isEmpty() && outQueue.size() < lowWaterMark) {
+        IMessage m = inQueue.poll();
+        if (m != null) {
+          executeTimed(m);
+          executed++;
+        }
+      }
+    }
+    if (executed > 0) {
+      messagesExecuted.inc(executed);
     }
     // set the initial nothing to execute
     boolean nothingToProcess = inQueue.isEmpty();
+    if (!nothingToProcess) {
+      // we stopped with messages in the input as the output is not drained fast enough
+      outputBlocked.inc();
+    }
+
+    if (watermarkPending) {
+      forwardWatermark();
+    }
 
     // now check the output queue
     while (!outQueue.isEmpty()) {
@@ -307,14 +395,10 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
       if (message != null) {
         String edge = message.edge();
 
-        boolean barrierMessage = (message.getFlag() & MessageFlags.SYNC_BARRIER)
-            == MessageFlags.SYNC_BARRIER;
-
         // invoke the communication operation
         IParallelOperation op = outParOps.get(edge);
         // if we successfully send remove
-        if (barrierMessage ? op.sendBarrier(globalTaskId, (byte[]) message.getContent())
-            : op.send(globalTaskId, message, message.getFlag())) {
+        if (send(op, message)) {
           outQueue.poll();
         } else {
           nothingToProcess = false;
@@ -340,16 +424,107 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
     if (this.checkpointable && this.inQueue.isEmpty() && this.outQueue.isEmpty()) {
       long checkpointedBarrierId = this.pendingCheckpoint.execute();
       if (checkpointedBarrierId != -1) {
-        ((CheckpointableTask) this.task).onCheckpointPropagated(this.snapshot);
-        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, checkpointedBarrierId);
         this.scheduleBarriers(checkpointedBarrierId);
         nothingToProcess = false;
       }
     }
 
+    if (this.checkpointable) {
+      // we report a checkpoint only after it is written to the store
+      SnapshotImpl persisted = this.pendingCheckpoint.pollPersisted();
+      if (persisted != null) {
+        ((CheckpointableTask) this.task).onCheckpointPropagated(persisted);
+        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, persisted.getVersion());
+        nothingToProcess = false;
+      } else if (this.pendingCheckpoint.hasUnacknowledged()) {
+        nothingToProcess = false;
+      }
+    }
+
     return !nothingToProcess;
   }
 
+  /**
+   * Send a message through the operation of its edge
+   *
+   * @param op the operation
+   * @param message the message
+   * @return true if the operation accepted the message
+   */
+  private boolean send(IParallelOperation op, IMessage message) {
+    int flag = message.getFlag();
+    if ((flag & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      return op.sendBarrier(globalTaskId, (byte[]) message.getContent());
+    } else if (Watermarks.isWatermark(flag)) {
+      return op.sendWatermark(globalTaskId, (Long) message.getContent());
+    }
+    return op.send(globalTaskId, message, flag);
+  }
+
+  /**
+   * Execute a message from the input queue, watermarks are handled by the instance
+   *
+   * @param message the message
+   */
+  private void executeTimed(IMessage message) {
+    if (recordTimes) {
+      long start = System.nanoTime();
+      executeMessage(message);
+      executeTime.record(System.nanoTime() - start);
+    } else {
+      executeMessage(message);
+    }
+  }
+
+  private void executeMessage(IMessage message) {
+    if (Watermarks.isWatermark(message.getFlag())) {
+      onWatermark(message.edge(), (Long) message.getContent());
+    } else {
+      task.execute(message);
+    }
+  }
+
+  /**
+   * A watermark is received from an input edge. When the minimum watermark of the inputs
+   * advances, we give it to the task and then forward it to the outputs.
+   *
+   * @param edge the input edge
+   * @param edgeWatermark the watermark of the edge
+   */
+  private void onWatermark(String edge, long edgeWatermark) {
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < inEdgeArray.length; i++) {
+      if (inEdgeArray[i].equals(edge)) {
+        inWatermarks[i] = Math.max(inWatermarks[i], edgeWatermark);
+      }
+      min = Math.min(min, inWatermarks[i]);
+    }
+
+    if (min <= watermark) {
+      return;
+    }
+    watermark = min;
+
+    if (task instanceof WatermarkReceptor) {
+      ((WatermarkReceptor) task).onWatermark(watermark);
+    }
+    forwardWatermark();
+  }
+
+  /**
+   * Write the watermark to the output edges, if the output queue is full we try again in the
+   * next execution. The receivers ignore the watermarks they have already seen.
+   */
+  private void forwardWatermark() {
+    boolean written = true;
+    for (String edge : outEdgeArray) {
+      if (!CheckpointingSGatherSink.FT_GATHER_EDGE.equals(edge)) {
+        written &= taskContext.writeWatermark(edge, watermark);
+      }
+    }
+    watermarkPending = !written;
+  }
+
   public void scheduleBarriers(Long bid) {
     ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
     buffer.putLong(bid);
@@ -365,6 +540,9 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
 
   @Override
   public void close() {
+    if (metricsPrefix != null) {
+      MetricsRegistry.getInstance().removeAll(metricsPrefix);
+    }
     if (task instanceof Closable) {
       ((Closable) task).close();
     }
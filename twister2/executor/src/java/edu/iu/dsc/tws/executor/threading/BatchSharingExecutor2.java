@@ -36,6 +36,8 @@ import edu.iu.dsc.tws.api.compute.executor.IExecutor;
 import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
 import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 import edu.iu.dsc.tws.executor.core.ExecutionRuntime;
 
 public class BatchSharingExecutor2 implements IExecutor {
@@ -88,6 +90,13 @@ public class BatchSharingExecutor2 implements IExecutor {
    */
   protected IExecutionHook executionHook;
 
+  /**
+   * Number of instance executions and the number of times a thread found the next instance
+   * being executed by another thread
+   */
+  private Counter executions;
+  private Counter contended;
+
   public BatchSharingExecutor2(Config cfg, int workerId, TWSChannel channel, ExecutionPlan plan,
                                IExecutionHook hook) {
     this.workerId = workerId;
@@ -100,6 +109,10 @@ public class BatchSharingExecutor2 implements IExecutor {
     }
     this.plan = plan;
     this.executionHook = hook;
+
+    MetricsRegistry metrics = MetricsRegistry.init(cfg);
+    this.executions = metrics.counter("executor.instance.executions");
+    this.contended = metrics.counter("executor.instance.contended");
   }
 
   public boolean execute() {
@@ -399,12 +412,15 @@ public class BatchSharingExecutor2 implements IExecutor {
       if (nodeInstanceIndex != -1) {
         INodeInstance nodeInstance = this.tasks.get(nodeInstanceIndex);
         boolean needsFurther = nodeInstance.execute();
+        executions.inc();
         if (!needsFurther) {
           finishedInstances.incrementAndGet(); //(nodeInstance.getId(), true);
         } else {
           //need further execution
           this.ignoreIndex[nodeInstanceIndex].set(false);
         }
+      } else {
+        contended.inc();
       }
 //      } catch (Throwable t) {
 //        LOG.log(Level.SEVERE, String.format("%d Error in executor", workerId), t);
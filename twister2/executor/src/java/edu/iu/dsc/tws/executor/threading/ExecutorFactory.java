@@ -76,6 +76,8 @@ public class ExecutorFactory {
           executor = new BatchSharingExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.BATCH_EXECUTOR_SHARING.equals(batchExecutor)) {
           executor = new BatchSharingExecutor2(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.BATCH_EXECUTOR_WORK_STEALING.equals(batchExecutor)) {
+          executor = new WorkStealingBatchExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known batch executor specified - "
               + batchExecutor);
@@ -99,6 +101,8 @@ public class ExecutorFactory {
           executor = new DedidatedBatchExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.BATCH_EXECUTOR_SHARING.equals(batchExecutor)) {
           executor = new AllSharingBatchExecutor(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.BATCH_EXECUTOR_WORK_STEALING.equals(batchExecutor)) {
+          executor = new WorkStealingBatchExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known batch executor specified - "
               + batchExecutor);
@@ -26,6 +26,8 @@ import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
 import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
 import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.Counter;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 
 public class StreamingSharingExecutor extends ThreadSharingExecutor {
   private static final Logger LOG = Logger.getLogger(StreamingSharingExecutor.class.getName());
@@ -38,10 +40,20 @@ public class StreamingSharingExecutor extends ThreadSharingExecutor {
 
   private CountDownLatch doneSignal;
 
+  /**
+   * Number of instance executions and the executions with nothing to process
+   */
+  private Counter executions;
+  private Counter idleExecutions;
+
   public StreamingSharingExecutor(Config cfg, int workerId,
                                   TWSChannel channel, ExecutionPlan plan, IExecutionHook hook) {
     super(cfg, channel, plan, hook);
     this.workerId = workerId;
+
+    MetricsRegistry metrics = MetricsRegistry.init(cfg);
+    this.executions = metrics.counter("executor.instance.executions");
+    this.idleExecutions = metrics.counter("executor.instance.idle");
   }
 
   public boolean runExecution() {
@@ -152,7 +164,10 @@ public class StreamingSharingExecutor extends ThreadSharingExecutor {
         try {
           INodeInstance nodeInstance = tasks.poll();
           if (nodeInstance != null) {
-            nodeInstance.execute();
+            if (!nodeInstance.execute()) {
+              idleExecutions.inc();
+            }
+            executions.inc();
             tasks.offer(nodeInstance);
           } else {
             LOG.log(Level.INFO, "Thread existing as more threads than tasks "
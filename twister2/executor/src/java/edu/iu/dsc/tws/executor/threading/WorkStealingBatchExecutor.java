@@ -0,0 +1,603 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionState;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.IExecution;
+import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.exceptions.Twister2Exception;
+import edu.iu.dsc.tws.api.faulttolerance.Fault;
+import edu.iu.dsc.tws.executor.core.ExecutionRuntime;
+
+/**
+ * A batch executor where each thread owns a deque of task instances. A thread executes the
+ * instances in its own deque in round robin order and steals from the other threads when its
+ * deque is empty. Threads that cannot find an instance to run are parked until an instance
+ * becomes available. An instance that is idle after an execution waits until a message arrives
+ * at the channel or another instance makes progress. The channel is progressed by the thread
+ * calling the executor, which does not execute any instances.
+ */
+public class WorkStealingBatchExecutor implements IExecutor {
+  private static final Logger LOG = Logger.getLogger(WorkStealingBatchExecutor.class.getName());
+
+  /**
+   * Maximum time an idle thread is parked before it looks for work again, this is also the
+   * maximum time an idle instance waits for a message
+   */
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * Number of threads executing the instances
+   */
+  private int numThreads;
+
+  /**
+   * The threads
+   */
+  private ExecutorService threads;
+
+  /**
+   * Channel
+   */
+  private TWSChannel channel;
+
+  /**
+   * The configuration
+   */
+  private Config config;
+
+  // keep track of finished executions
+  private AtomicInteger finishedInstances = new AtomicInteger(0);
+
+  // worker id
+  private int workerId;
+
+  // not stopped
+  protected volatile boolean notStopped = true;
+
+  // a fault occurred
+  private volatile boolean isFault = false;
+
+  // clean up is called
+  private boolean cleanUpCalled = false;
+
+  /**
+   * Wait for threads to finish
+   */
+  private CountDownLatch doneSignal;
+
+  /**
+   * Per thread deques of instances
+   */
+  private ConcurrentLinkedDeque<INodeInstance>[] deques;
+
+  /**
+   * Threads waiting for instances
+   */
+  private final Queue<Thread> parkedThreads = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Number of threads parked
+   */
+  private final AtomicInteger noOfParked = new AtomicInteger(0);
+
+  /**
+   * Idle instances waiting for messages
+   */
+  private final Queue<INodeInstance> waiting = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The last time the waiting instances were released
+   */
+  private volatile long lastRelease;
+
+  /**
+   * Channel completions seen at the last progress
+   */
+  private long channelCompletions = -1;
+
+  /**
+   * The first error thrown by an instance
+   */
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * The current plan we are executing
+   */
+  protected ExecutionPlan plan;
+
+  /**
+   * The execution hook
+   */
+  protected IExecutionHook executionHook;
+
+  public WorkStealingBatchExecutor(Config cfg, int workerId, TWSChannel channel,
+                                   ExecutionPlan plan, IExecutionHook hook) {
+    this.workerId = workerId;
+    this.config = cfg;
+    this.channel = channel;
+    this.numThreads = Math.max(ExecutorContext.threadsPerContainer(config), 1);
+    this.threads = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setNameFormat("ws-executor-%d").setDaemon(true).build());
+    this.plan = plan;
+    this.executionHook = hook;
+  }
+
+  public boolean execute() {
+    prepareExecution();
+    return runExecution(plan);
+  }
+
+  public IExecution iExecute() {
+    prepareExecution();
+
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return new NullExecutor();
+    }
+
+    prepareNodes(nodes);
+    schedule(nodes, Mode.EXECUTE);
+    return new BatchExecution(plan, nodes);
+  }
+
+  private void prepareExecution() {
+    executionHook.beforeExecution();
+    // lets create the runtime object
+    ExecutionRuntime runtime = new ExecutionRuntime(ExecutorContext.jobName(config), plan, channel);
+    // updated config
+    this.config = Config.newBuilder().putAll(config).
+        put(ExecutorContext.TWISTER2_RUNTIME_OBJECT, runtime).build();
+
+    // if this is a previously executed plan we have to reset the nodes
+    if (plan.getExecutionState() == ExecutionState.EXECUTED) {
+      resetNodes(plan.getNodes(), plan.getParallelOperations());
+    }
+  }
+
+  @Override
+  public boolean execute(boolean close) {
+    boolean e = execute();
+    if (close) {
+      closeExecution();
+    }
+    return e;
+  }
+
+  @Override
+  public void close() {
+    threads.shutdown();
+    executionHook.onClose(this);
+  }
+
+  public boolean isNotStopped() {
+    return notStopped && !isFault;
+  }
+
+  @Override
+  public void onFault(Fault fault) throws Twister2Exception {
+    isFault = true;
+    wakeAll();
+  }
+
+  @Override
+  public ExecutionPlan getExecutionPlan() {
+    return plan;
+  }
+
+  /**
+   * Execution Method for Batch Tasks
+   */
+  public boolean runExecution(ExecutionPlan executionPlan) {
+    Map<Integer, INodeInstance> nodes = executionPlan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    prepareNodes(nodes);
+    schedule(nodes, Mode.EXECUTE);
+    progressUntilFinished(nodes.size());
+
+    cleanUp(executionPlan);
+    return true;
+  }
+
+  @Override
+  public boolean closeExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    schedule(nodes, Mode.COMPLETE);
+    progressUntilFinished(nodes.size());
+
+    // at this point we are going to reset and close the operations
+    close(plan, nodes);
+    return true;
+  }
+
+  private void prepareNodes(Map<Integer, INodeInstance> nodes) {
+    for (INodeInstance node : nodes.values()) {
+      node.prepare(config);
+    }
+  }
+
+  /**
+   * Progress the channel until all the instances are finished
+   */
+  private void progressUntilFinished(int noOfInstances) {
+    while (isNotStopped() && finishedInstances.get() != noOfInstances) {
+      progressChannel();
+      // let the executing threads run if the cores are over subscribed
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Progress the channel and release the waiting instances if messages arrived
+   */
+  private void progressChannel() {
+    channel.progress();
+    long completions = channel.getCompletions();
+    if (completions != channelCompletions || completions < 0
+        || System.nanoTime() - lastRelease > MAX_PARK_NANOS) {
+      channelCompletions = completions;
+      releaseWaiting(0);
+    }
+  }
+
+  /**
+   * Move the waiting instances back to the deques, starting from the given deque
+   */
+  private void releaseWaiting(int index) {
+    lastRelease = System.nanoTime();
+    int released = 0;
+    INodeInstance instance;
+    while ((instance = waiting.poll()) != null) {
+      deques[(index + released) % deques.length].offerLast(instance);
+      released++;
+    }
+    for (int i = 0; i < released && noOfParked.get() > 0; i++) {
+      wakeOne();
+    }
+  }
+
+  /**
+   * Distribute the instances among the threads and start them
+   */
+  private void schedule(Map<Integer, INodeInstance> nodes, Mode mode) {
+    List<INodeInstance> tasks = new ArrayList<>(nodes.values());
+    deques = new ConcurrentLinkedDeque[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      deques[i] = new ConcurrentLinkedDeque<>();
+    }
+    for (int i = 0; i < tasks.size(); i++) {
+      deques[i % numThreads].offerLast(tasks.get(i));
+    }
+
+    waiting.clear();
+    finishedInstances.set(0);
+    doneSignal = new CountDownLatch(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      threads.submit(new Worker(i, tasks.size(), mode));
+    }
+  }
+
+  private void cleanUp(ExecutionPlan executionPlan) {
+    awaitWorkers();
+    checkFailure();
+
+    // we set the execution state here
+    executionPlan.setExecutionState(ExecutionState.EXECUTED);
+
+    // clear the finished instances
+    finishedInstances.set(0);
+    cleanUpCalled = true;
+    // after execution
+    executionHook.afterExecution();
+  }
+
+  private void close(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodes) {
+    awaitWorkers();
+    checkFailure();
+
+    List<IParallelOperation> ops = executionPlan.getParallelOperations();
+    resetNodes(nodes, ops);
+
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.close();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.close();
+    }
+
+    // clear the finished instances
+    finishedInstances.set(0);
+    cleanUpCalled = true;
+  }
+
+  private void awaitWorkers() {
+    // wake up the parked threads so that they see the execution is over
+    wakeAll();
+    try {
+      doneSignal.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Interrupted", e);
+    }
+  }
+
+  /**
+   * Throw the error of a failed instance on the calling thread
+   */
+  private void checkFailure() {
+    Throwable t = failure.getAndSet(null);
+    if (t != null) {
+      throw new RuntimeException("Error occurred in execution of task", t);
+    }
+  }
+
+  private void resetNodes(Map<Integer, INodeInstance> nodes, List<IParallelOperation> ops) {
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.reset();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.reset();
+    }
+  }
+
+  /**
+   * Wake up a parked thread, if any, as an instance became available
+   */
+  private void wakeOne() {
+    if (noOfParked.get() > 0) {
+      Thread t = parkedThreads.poll();
+      if (t != null) {
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  private void wakeAll() {
+    Thread t;
+    while ((t = parkedThreads.poll()) != null) {
+      LockSupport.unpark(t);
+    }
+  }
+
+  private enum Mode {
+    /**
+     * Execute the instances until they finish
+     */
+    EXECUTE,
+    /**
+     * Wait for the instances to complete their communications
+     */
+    COMPLETE
+  }
+
+  private class Worker implements Runnable {
+    private final int index;
+
+    private final int noOfInstances;
+
+    private final Mode mode;
+
+    Worker(int index, int noOfInstances, Mode mode) {
+      this.index = index;
+      this.noOfInstances = noOfInstances;
+      this.mode = mode;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (isNotStopped() && finishedInstances.get() != noOfInstances) {
+          INodeInstance instance = deques[index].pollFirst();
+          if (instance == null) {
+            instance = steal();
+          }
+
+          if (instance == null) {
+            park();
+            continue;
+          }
+
+          boolean needsFurther;
+          boolean idle;
+          if (mode == Mode.EXECUTE) {
+            needsFurther = instance.execute();
+            idle = instance.isIdle();
+          } else {
+            // completion does not tell weather the communication made progress
+            needsFurther = !instance.isComplete();
+            idle = false;
+          }
+
+          if (!needsFurther) {
+            if (finishedInstances.incrementAndGet() == noOfInstances) {
+              wakeAll();
+              break;
+            }
+          } else if (idle) {
+            waiting.offer(instance);
+            continue;
+          } else {
+            deques[index].offerLast(instance);
+          }
+          // the progress may have produced messages for the waiting instances
+          if (!waiting.isEmpty()) {
+            releaseWaiting(index);
+          }
+        }
+      } catch (Throwable t) {
+        LOG.log(Level.SEVERE, String.format("%d Error in executor", workerId), t);
+        // the error is thrown to the caller after the workers finish
+        failure.compareAndSet(null, t);
+        notStopped = false;
+        wakeAll();
+      } finally {
+        doneSignal.countDown();
+      }
+    }
+
+    /**
+     * Take an instance from the tail of another thread's deque
+     */
+    private INodeInstance steal() {
+      for (int i = 1; i < deques.length; i++) {
+        INodeInstance instance = deques[(index + i) % deques.length].pollLast();
+        if (instance != null) {
+          return instance;
+        }
+      }
+      return null;
+    }
+
+    private void park() {
+      Thread current = Thread.currentThread();
+      noOfParked.incrementAndGet();
+      parkedThreads.offer(current);
+      // check again, an instance may have been added before we registered
+      if (!hasQueuedInstances() && isNotStopped()
+          && finishedInstances.get() != noOfInstances) {
+        LockSupport.parkNanos(this, MAX_PARK_NANOS);
+      }
+      parkedThreads.remove(current);
+      noOfParked.decrementAndGet();
+    }
+
+    private boolean hasQueuedInstances() {
+      for (ConcurrentLinkedDeque<INodeInstance> deque : deques) {
+        if (!deque.isEmpty()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private class BatchExecution implements IExecution {
+    /**
+     * Keep the node map
+     */
+    private Map<Integer, INodeInstance> nodeMap;
+
+    private ExecutionPlan executionPlan;
+
+    private boolean taskExecution = true;
+
+    BatchExecution(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodeMap) {
+      this.nodeMap = nodeMap;
+      this.executionPlan = executionPlan;
+    }
+
+    @Override
+    public boolean waitForCompletion() {
+      // we progress until all the instances finish
+      progressUntilFinished(nodeMap.size());
+      // we are going to set to executed
+      executionPlan.setExecutionState(ExecutionState.EXECUTED);
+
+      cleanUp(executionPlan);
+
+      // now wait for it
+      closeExecution();
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      if (taskExecution) {
+        // we progress until all the instances finish
+        if (isNotStopped() && finishedInstances.get() != nodeMap.size()) {
+          progressChannel();
+          return true;
+        }
+        // lets set the execution state here
+        executionPlan.setExecutionState(ExecutionState.EXECUTED);
+        // clean up
+        cleanUp(executionPlan);
+        cleanUpCalled = false;
+        // if we finish, lets schedule
+        schedule(nodeMap, Mode.COMPLETE);
+        taskExecution = false;
+      }
+
+      // we progress until all the channel finish
+      if (isNotStopped() && finishedInstances.get() != nodeMap.size()) {
+        progressChannel();
+        return true;
+      }
+
+      return false;
+    }
+
+    public void close() {
+      if (isNotStopped()) {
+        throw new RuntimeException("We need to stop the execution before close");
+      }
+
+      if (!cleanUpCalled) {
+        WorkStealingBatchExecutor.this.close(executionPlan, nodeMap);
+        executionHook.onClose(WorkStealingBatchExecutor.this);
+        cleanUpCalled = true;
+      } else {
+        throw new RuntimeException("Close is called on a already closed execution");
+      }
+    }
+
+    @Override
+    public void stop() {
+      notStopped = false;
+    }
+  }
+}
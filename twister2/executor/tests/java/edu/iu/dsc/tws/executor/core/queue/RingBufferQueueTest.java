@@ -0,0 +1,263 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.queue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RingBufferQueueTest {
+  private static final int CAPACITY = 16;
+
+  private static final int PRODUCERS = 4;
+
+  private static final int MESSAGES = 20000;
+
+  @Test
+  public void testCapacityRounding() {
+    Assert.assertEquals(16, new SpscRingBufferQueue<Integer>(16).getCapacity());
+    Assert.assertEquals(16, new MpscRingBufferQueue<Integer>(9).getCapacity());
+    Assert.assertEquals(1, new SpscRingBufferQueue<Integer>(1).getCapacity());
+    try {
+      new MpscRingBufferQueue<Integer>(0);
+      Assert.fail("Zero capacity should be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSpscFullQueue() {
+    checkFullQueue(new SpscRingBufferQueue<>(CAPACITY));
+  }
+
+  @Test
+  public void testMpscFullQueue() {
+    checkFullQueue(new MpscRingBufferQueue<>(CAPACITY));
+  }
+
+  @Test
+  public void testSpscSpillsWhenFull() {
+    SpscRingBufferQueue<Integer> queue = new SpscRingBufferQueue<>(CAPACITY, true);
+    for (int i = 0; i < CAPACITY * 3; i++) {
+      Assert.assertTrue(queue.offer(i));
+    }
+    Assert.assertEquals(CAPACITY * 3, queue.size());
+    // elements offered after the ring frees up still come after the spilled ones
+    Assert.assertEquals(Integer.valueOf(0), queue.poll());
+    Assert.assertTrue(queue.offer(CAPACITY * 3));
+    for (int i = 1; i <= CAPACITY * 3; i++) {
+      Assert.assertEquals(Integer.valueOf(i), queue.poll());
+    }
+    Assert.assertNull(queue.poll());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testDrainWrapsAround() {
+    SpscRingBufferQueue<Integer> spsc = new SpscRingBufferQueue<>(CAPACITY);
+    MpscRingBufferQueue<Integer> mpsc = new MpscRingBufferQueue<>(CAPACITY);
+    for (RingBufferQueue<Integer> queue : new RingBufferQueue[]{spsc, mpsc}) {
+      int next = 0;
+      int expected = 0;
+      // the indexes pass the end of the ring many times
+      for (int round = 0; round < 10; round++) {
+        for (int i = 0; i < CAPACITY - 3; i++) {
+          Assert.assertTrue(queue.offer(next++));
+        }
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(5, queue.drain(drained::add, 5));
+        Assert.assertEquals(CAPACITY - 8, queue.drainTo(drained));
+        for (Integer e : drained) {
+          Assert.assertEquals(Integer.valueOf(expected++), e);
+        }
+        Assert.assertTrue(queue.isEmpty());
+      }
+    }
+  }
+
+  @Test
+  public void testIterator() {
+    SpscRingBufferQueue<Integer> spsc = new SpscRingBufferQueue<>(CAPACITY);
+    MpscRingBufferQueue<Integer> mpsc = new MpscRingBufferQueue<>(CAPACITY);
+    SpscRingBufferQueue<Integer> spilling = new SpscRingBufferQueue<>(CAPACITY, true);
+    for (RingBufferQueue<Integer> queue : new RingBufferQueue[]{spsc, mpsc, spilling}) {
+      Assert.assertFalse(queue.iterator().hasNext());
+      // move the indexes past the end of the ring
+      for (int i = 0; i < CAPACITY + 5; i++) {
+        Assert.assertTrue(queue.offer(i));
+        Assert.assertEquals(Integer.valueOf(i), queue.poll());
+      }
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        Assert.assertTrue(queue.offer(i));
+        expected.add(i);
+      }
+      Assert.assertEquals(expected, new ArrayList<>(queue));
+      Assert.assertTrue(queue.contains(9));
+      Assert.assertFalse(queue.contains(10));
+
+      // elements consumed while iterating are skipped, except the one already read ahead
+      Iterator<Integer> it = queue.iterator();
+      Assert.assertEquals(Integer.valueOf(0), it.next());
+      queue.drain(e -> { }, 5);
+      Assert.assertEquals(Integer.valueOf(1), it.next());
+      List<Integer> rest = new ArrayList<>();
+      it.forEachRemaining(rest::add);
+      Assert.assertEquals(expected.subList(5, 10), rest);
+    }
+
+    for (int i = 10; i < CAPACITY * 2; i++) {
+      Assert.assertTrue(spilling.offer(i));
+    }
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 5; i < CAPACITY * 2; i++) {
+      expected.add(i);
+    }
+    // the spilled elements follow the ring
+    Assert.assertEquals(expected, new ArrayList<>(spilling));
+  }
+
+  @Test
+  public void testSpscConcurrent() throws InterruptedException {
+    SpscRingBufferQueue<Integer> queue = new SpscRingBufferQueue<>(CAPACITY);
+    checkConcurrent(queue, 1);
+  }
+
+  @Test
+  public void testSpscSpillingConcurrent() throws InterruptedException {
+    SpscRingBufferQueue<Integer> queue = new SpscRingBufferQueue<>(CAPACITY, true);
+    checkConcurrent(queue, 1);
+  }
+
+  @Test
+  public void testMpscConcurrent() throws InterruptedException {
+    MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<>(CAPACITY);
+    checkConcurrent(queue, PRODUCERS);
+  }
+
+  @Test
+  public void testBlockingMethods() throws InterruptedException {
+    MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<>(2);
+    Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+    queue.put(1);
+    queue.put(2);
+    Assert.assertFalse(queue.offer(3, 1, TimeUnit.MILLISECONDS));
+
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread producer = new Thread(() -> {
+      try {
+        // blocks until the consumer takes an element
+        queue.put(3);
+      } catch (Throwable t) {
+        error.set(t);
+      }
+    });
+    producer.start();
+    Assert.assertEquals(Integer.valueOf(1), queue.take());
+    producer.join();
+    Assert.assertNull(error.get());
+    Assert.assertEquals(Integer.valueOf(2), queue.take());
+    Assert.assertEquals(Integer.valueOf(3), queue.take());
+  }
+
+  private void checkFullQueue(RingBufferQueue<Integer> queue) {
+    for (int i = 0; i < CAPACITY; i++) {
+      Assert.assertTrue(queue.offer(i));
+    }
+    Assert.assertFalse(queue.offer(CAPACITY));
+    Assert.assertEquals(CAPACITY, queue.size());
+    Assert.assertEquals(0, queue.remainingCapacity());
+    Assert.assertEquals(Integer.valueOf(0), queue.peek());
+
+    Assert.assertEquals(Integer.valueOf(0), queue.poll());
+    Assert.assertEquals(1, queue.remainingCapacity());
+    Assert.assertTrue(queue.offer(CAPACITY));
+    Assert.assertFalse(queue.offer(CAPACITY + 1));
+    for (int i = 1; i <= CAPACITY; i++) {
+      Assert.assertEquals(Integer.valueOf(i), queue.poll());
+    }
+    Assert.assertNull(queue.poll());
+    Assert.assertNull(queue.peek());
+  }
+
+  /**
+   * Producers offer increasing values while a single consumer polls and drains, the consumer
+   * checks that the values of each producer arrive in order and none are lost
+   */
+  private void checkConcurrent(RingBufferQueue<Integer> queue, int producers)
+      throws InterruptedException {
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      Thread t = new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < MESSAGES; i++) {
+            Integer value = producer * MESSAGES + i;
+            while (!queue.offer(value)) {
+              Thread.yield();
+            }
+          }
+        } catch (Throwable e) {
+          error.compareAndSet(null, e);
+        }
+      });
+      t.start();
+      threads.add(t);
+    }
+
+    int[] next = new int[producers];
+    int received = 0;
+    List<Integer> drained = new ArrayList<>();
+    start.countDown();
+    while (received < producers * MESSAGES && error.get() == null) {
+      drained.clear();
+      // mix single polls with batch drains
+      if (received % 2 == 0) {
+        Integer e = queue.poll();
+        if (e != null) {
+          drained.add(e);
+        }
+      } else {
+        queue.drain(drained::add, CAPACITY / 2);
+      }
+      if (drained.isEmpty()) {
+        // let the producers run if the cores are over subscribed
+        Thread.yield();
+      }
+      for (Integer e : drained) {
+        int producer = e / MESSAGES;
+        Assert.assertEquals(producer * MESSAGES + next[producer], e.intValue());
+        next[producer]++;
+        received++;
+      }
+    }
+
+    for (Thread t : threads) {
+      t.join();
+    }
+    Assert.assertNull(error.get());
+    Assert.assertTrue(queue.isEmpty());
+    for (int p = 0; p < producers; p++) {
+      Assert.assertEquals(MESSAGES, next[p]);
+    }
+  }
+}
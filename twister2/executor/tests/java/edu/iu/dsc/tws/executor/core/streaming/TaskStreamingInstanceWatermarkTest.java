@@ -0,0 +1,189 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.streaming;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.BaseOperation;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.compute.executor.ISync;
+import edu.iu.dsc.tws.api.compute.modifiers.WatermarkReceptor;
+import edu.iu.dsc.tws.api.compute.nodes.ICompute;
+import edu.iu.dsc.tws.api.config.Config;
+
+public class TaskStreamingInstanceWatermarkTest {
+  private static final String OUT_EDGE = "out";
+
+  @Test
+  public void testMinimumOfInputsIsPropagated() {
+    TestTask task = new TestTask();
+    TestOperation op = new TestOperation();
+    BlockingQueue<IMessage> inQueue = new LinkedBlockingQueue<>();
+    TaskStreamingInstance instance = createInstance(task, op, inQueue,
+        new LinkedBlockingQueue<>());
+
+    inQueue.add(watermark("a", 10));
+    instance.execute();
+    // edge b has not sent a watermark yet
+    Assert.assertTrue(task.received.isEmpty());
+    Assert.assertTrue(op.sent.isEmpty());
+
+    inQueue.add(watermark("b", 20));
+    inQueue.add(data("a", "x"));
+    inQueue.add(watermark("a", 30));
+    // the task watermark does not go back
+    inQueue.add(watermark("b", 5));
+    instance.execute();
+
+    Assert.assertEquals(Arrays.asList("W10", "x", "W20"), task.received);
+    Assert.assertEquals(Arrays.asList("W10", "x", "W20"), op.sent);
+  }
+
+  @Test
+  public void testWatermarkForwardedAfterOutput() {
+    TestTask task = new TestTask();
+    TestOperation op = new TestOperation();
+    BlockingQueue<IMessage> inQueue = new LinkedBlockingQueue<>();
+    // the output queue can only take the data message
+    TaskStreamingInstance instance = createInstance(task, op, inQueue,
+        new ArrayBlockingQueue<>(1));
+
+    op.blocked = true;
+    inQueue.add(data("a", "x"));
+    inQueue.add(watermark("a", 10));
+    inQueue.add(watermark("b", 10));
+    instance.execute();
+    Assert.assertEquals(Arrays.asList("x", "W10"), task.received);
+    Assert.assertTrue(op.sent.isEmpty());
+
+    op.blocked = false;
+    for (int i = 0; i < 3; i++) {
+      instance.execute();
+    }
+    Assert.assertEquals(Arrays.asList("x", "W10"), op.sent);
+  }
+
+  private static IMessage watermark(String edge, long watermark) {
+    return new TaskMessage<>(watermark, MessageFlags.SYNC_WATERMARK, edge, 0);
+  }
+
+  private static IMessage data(String edge, String value) {
+    return new TaskMessage<>(value, 0, edge, 0);
+  }
+
+  private static TaskStreamingInstance createInstance(TestTask task, TestOperation op,
+                                                      BlockingQueue<IMessage> inQueue,
+                                                      BlockingQueue<IMessage> outQueue) {
+    Map<String, Set<String>> inEdges = new LinkedHashMap<>();
+    inEdges.put("a", Collections.singleton("source-a"));
+    inEdges.put("b", Collections.singleton("source-b"));
+    Config cfg = Config.newBuilder().build();
+    TaskStreamingInstance instance = new TaskStreamingInstance(task, inQueue, outQueue, cfg,
+        "task", 0, 0, 0, 1, 0, new HashMap<>(), inEdges,
+        Collections.singletonMap(OUT_EDGE, "sink"), null, null, "graph", 0);
+    instance.registerOutParallelOperation(OUT_EDGE, op);
+    instance.prepare(cfg);
+    return instance;
+  }
+
+  /**
+   * Writes the received data to the output and records the data and the watermarks
+   */
+  private static class TestTask implements ICompute<String>, WatermarkReceptor {
+    private List<String> received = new ArrayList<>();
+
+    private TaskContext context;
+
+    @Override
+    public void prepare(Config cfg, TaskContext ctx) {
+      this.context = ctx;
+    }
+
+    @Override
+    public boolean execute(IMessage<String> content) {
+      received.add(content.getContent());
+      return context.write(OUT_EDGE, content.getContent());
+    }
+
+    @Override
+    public void onWatermark(long watermark) {
+      received.add("W" + watermark);
+    }
+  }
+
+  /**
+   * Records the messages sent to the output edge, refuses them when blocked
+   */
+  private static class TestOperation implements IParallelOperation {
+    private List<String> sent = new ArrayList<>();
+
+    private boolean blocked;
+
+    @Override
+    public boolean send(int source, IMessage message, int flags) {
+      if (blocked) {
+        return false;
+      }
+      sent.add((String) message.getContent());
+      return true;
+    }
+
+    @Override
+    public boolean sendWatermark(int src, long watermark) {
+      if (blocked) {
+        return false;
+      }
+      sent.add("W" + watermark);
+      return true;
+    }
+
+    @Override
+    public void register(int targetTask, BlockingQueue<IMessage> queue) {
+    }
+
+    @Override
+    public void registerSync(int targetTask, ISync sync) {
+    }
+
+    @Override
+    public boolean progress() {
+      return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public BaseOperation getOp() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+public class WorkStealingBatchExecutorTest {
+  private static final int THREADS = 2;
+
+  @Test
+  public void testAllInstancesExecuted() {
+    ExecutionPlan plan = new ExecutionPlan();
+    List<CountingInstance> instances = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      CountingInstance instance = new CountingInstance(i, 100);
+      instances.add(instance);
+      plan.addNodes("task", i, instance);
+    }
+
+    WorkStealingBatchExecutor executor = createExecutor(plan, new CountingChannel());
+    Assert.assertTrue(executor.execute());
+    for (CountingInstance instance : instances) {
+      Assert.assertEquals(100, instance.executions.get());
+    }
+    executor.close();
+  }
+
+  @Test
+  public void testTaskErrorIsThrown() {
+    ExecutionPlan plan = new ExecutionPlan();
+    IllegalStateException error = new IllegalStateException("task failed");
+    plan.addNodes("task", 0, new CountingInstance(0, Integer.MAX_VALUE));
+    plan.addNodes("task", 1, new FailingInstance(1, 10, error));
+    plan.addNodes("task", 2, new CountingInstance(2, Integer.MAX_VALUE));
+
+    WorkStealingBatchExecutor executor = createExecutor(plan, new CountingChannel());
+    try {
+      executor.execute();
+      Assert.fail("The error of the task should be thrown");
+    } catch (RuntimeException e) {
+      Assert.assertSame(error, e.getCause());
+    }
+    executor.close();
+  }
+
+  @Test
+  public void testIdleInstanceWaitsForMessages() {
+    ExecutionPlan plan = new ExecutionPlan();
+    long waitTime = TimeUnit.MILLISECONDS.toNanos(50);
+    IdleInstance instance = new IdleInstance(0, System.nanoTime() + waitTime);
+    plan.addNodes("task", 0, instance);
+
+    // no messages arrive at the channel, so the instance is only retried periodically
+    WorkStealingBatchExecutor executor = createExecutor(plan, new CountingChannel());
+    Assert.assertTrue(executor.execute());
+    Assert.assertTrue("Idle instance executed " + instance.executions.get() + " times",
+        instance.executions.get() < 500);
+    executor.close();
+  }
+
+  private WorkStealingBatchExecutor createExecutor(ExecutionPlan plan, TWSChannel channel) {
+    Config config = Config.newBuilder().put(ExecutorContext.THREADS_PER_WORKER, THREADS).build();
+    return new WorkStealingBatchExecutor(config, 0, channel, plan, new IExecutionHook() {
+      @Override
+      public void beforeExecution() {
+      }
+
+      @Override
+      public void afterExecution() {
+      }
+
+      @Override
+      public void onClose(IExecutor ex) {
+      }
+    });
+  }
+
+  private static class CountingInstance implements INodeInstance {
+    private final int index;
+
+    private final int noOfExecutions;
+
+    protected final AtomicInteger executions = new AtomicInteger(0);
+
+    CountingInstance(int index, int noOfExecutions) {
+      this.index = index;
+      this.noOfExecutions = noOfExecutions;
+    }
+
+    @Override
+    public int getIndex() {
+      return index;
+    }
+
+    @Override
+    public boolean execute() {
+      return executions.incrementAndGet() < noOfExecutions;
+    }
+
+    @Override
+    public void prepare(Config cfg) {
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public INode getNode() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class FailingInstance extends CountingInstance {
+    private final RuntimeException error;
+
+    FailingInstance(int index, int failAt, RuntimeException error) {
+      super(index, failAt);
+      this.error = error;
+    }
+
+    @Override
+    public boolean execute() {
+      if (!super.execute()) {
+        throw error;
+      }
+      return true;
+    }
+  }
+
+  private static class IdleInstance extends CountingInstance {
+    private final long finishTime;
+
+    IdleInstance(int index, long finishTime) {
+      super(index, Integer.MAX_VALUE);
+      this.finishTime = finishTime;
+    }
+
+    @Override
+    public boolean execute() {
+      executions.incrementAndGet();
+      return System.nanoTime() < finishTime;
+    }
+
+    @Override
+    public boolean isIdle() {
+      return true;
+    }
+  }
+
+  /**
+   * A channel without messages, it counts the completions so that the executor does not treat
+   * every progress as an arrival
+   */
+  private static class CountingChannel implements TWSChannel {
+    @Override
+    public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+      return false;
+    }
+
+    @Override
+    public boolean receiveMessage(int group, int id, int edge, ChannelListener callback,
+                                  Queue<DataBuffer> receiveBuffers) {
+      return false;
+    }
+
+    @Override
+    public void progress() {
+    }
+
+    @Override
+    public void progressSends() {
+    }
+
+    @Override
+    public void progressReceives(int group) {
+    }
+
+    @Override
+    public boolean isComplete() {
+      return true;
+    }
+
+    @Override
+    public long getCompletions() {
+      return 0;
+    }
+
+    @Override
+    public ByteBuffer createBuffer(int capacity) {
+      return ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void releaseBuffers(int wId, int e) {
+    }
+
+    @Override
+    public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+    }
+  }
+}
@@ -0,0 +1,193 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A partition of a graph in compressed sparse row format. The partition holds the vertices owned
+ * by it, sorted by their ids, and their outgoing edges. The edges of local vertex <code>v</code>
+ * are stored in the positions <code>offsets[v]</code> to <code>offsets[v + 1]</code> of the
+ * target and weight arrays.
+ *
+ * Vertex ids are stored as ints when all the ids of the partition fit in to an int, otherwise
+ * as longs. A vertex is owned by the partition given by {@link #owner(long, int)}.
+ */
+public final class CsrGraph implements Serializable {
+  private static final long serialVersionUID = -1L;
+
+  /**
+   * Index of this partition
+   */
+  private int partition;
+
+  /**
+   * Total number of partitions
+   */
+  private int numPartitions;
+
+  /**
+   * Sorted vertex ids, only one of the int or long arrays is used
+   */
+  private int[] intVertexIds;
+
+  private long[] longVertexIds;
+
+  /**
+   * Offsets of the edges of each vertex, of size number of vertices + 1
+   */
+  private int[] offsets;
+
+  /**
+   * Targets of the edges, only one of the int or long arrays is used
+   */
+  private int[] intTargets;
+
+  private long[] longTargets;
+
+  /**
+   * Edge weights, null for unweighted graphs
+   */
+  private double[] weights;
+
+  private CsrGraph() {
+  }
+
+  CsrGraph(int partition, int numPartitions, long[] vertexIds, int[] offsets,
+           long[] targets, double[] weights) {
+    this.partition = partition;
+    this.numPartitions = numPartitions;
+    this.offsets = offsets;
+    this.weights = weights;
+    if (fitsInt(vertexIds) && fitsInt(targets)) {
+      this.intVertexIds = toInt(vertexIds);
+      this.intTargets = toInt(targets);
+    } else {
+      this.longVertexIds = vertexIds;
+      this.longTargets = targets;
+    }
+  }
+
+  /**
+   * The partition that owns the given vertex
+   *
+   * @param vertexId the vertex id
+   * @param numPartitions number of partitions
+   * @return the partition index
+   */
+  public static int owner(long vertexId, int numPartitions) {
+    return (int) Math.floorMod(vertexId, (long) numPartitions);
+  }
+
+  public int getPartition() {
+    return partition;
+  }
+
+  public int getNumPartitions() {
+    return numPartitions;
+  }
+
+  public int numVertices() {
+    return offsets.length - 1;
+  }
+
+  public int numEdges() {
+    return offsets[offsets.length - 1];
+  }
+
+  public boolean isWeighted() {
+    return weights != null;
+  }
+
+  /**
+   * The id of a local vertex
+   *
+   * @param vertex local index of the vertex
+   * @return the vertex id
+   */
+  public long vertexId(int vertex) {
+    return intVertexIds != null ? intVertexIds[vertex] : longVertexIds[vertex];
+  }
+
+  /**
+   * Find the local index of a vertex
+   *
+   * @param vertexId the vertex id
+   * @return the local index or a negative value if the vertex is not in this partition
+   */
+  public int indexOf(long vertexId) {
+    if (intVertexIds != null) {
+      if (vertexId < Integer.MIN_VALUE || vertexId > Integer.MAX_VALUE) {
+        return -1;
+      }
+      return Arrays.binarySearch(intVertexIds, (int) vertexId);
+    }
+    return Arrays.binarySearch(longVertexIds, vertexId);
+  }
+
+  public int edgeStart(int vertex) {
+    return offsets[vertex];
+  }
+
+  public int edgeEnd(int vertex) {
+    return offsets[vertex + 1];
+  }
+
+  public int outDegree(int vertex) {
+    return offsets[vertex + 1] - offsets[vertex];
+  }
+
+  /**
+   * The target vertex id of an edge
+   *
+   * @param edge the edge index, between {@link #edgeStart(int)} and {@link #edgeEnd(int)}
+   * @return target id
+   */
+  public long target(int edge) {
+    return intTargets != null ? intTargets[edge] : longTargets[edge];
+  }
+
+  /**
+   * The weight of an edge, 1 for unweighted graphs
+   *
+   * @param edge the edge index
+   * @return weight
+   */
+  public double weight(int edge) {
+    return weights != null ? weights[edge] : 1.0;
+  }
+
+  /**
+   * Weather the ids and targets are stored as ints
+   */
+  boolean isCompact() {
+    return intVertexIds != null;
+  }
+
+  private static boolean fitsInt(long[] values) {
+    for (long v : values) {
+      if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int[] toInt(long[] values) {
+    int[] ints = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      ints[i] = (int) values[i];
+    }
+    return ints;
+  }
+}
@@ -0,0 +1,148 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link CsrGraph} partition from edges and vertices added in any order. The edges are
+ * kept in primitive arrays and sorted in to the compressed sparse row format by
+ * {@link #build()}.
+ */
+public final class CsrGraphBuilder {
+  private final int partition;
+
+  private final int numPartitions;
+
+  private final boolean weighted;
+
+  private long[] sources = new long[16];
+
+  private long[] targets = new long[16];
+
+  private double[] weights;
+
+  private int numEdges;
+
+  private long[] vertices = new long[16];
+
+  private int numVertices;
+
+  public CsrGraphBuilder(int partition, int numPartitions, boolean weighted) {
+    this.partition = partition;
+    this.numPartitions = numPartitions;
+    this.weighted = weighted;
+    this.weights = weighted ? new double[16] : null;
+  }
+
+  /**
+   * Add a vertex, the sources of the added edges and the targets owned by this partition are
+   * added automatically
+   *
+   * @param vertex the vertex id
+   */
+  public void addVertex(long vertex) {
+    if (numVertices == vertices.length) {
+      vertices = Arrays.copyOf(vertices, numVertices << 1);
+    }
+    vertices[numVertices++] = vertex;
+  }
+
+  public void addEdge(long source, long target) {
+    addEdge(source, target, 1.0);
+  }
+
+  public void addEdge(long source, long target, double weight) {
+    if (numEdges == sources.length) {
+      int size = numEdges << 1;
+      sources = Arrays.copyOf(sources, size);
+      targets = Arrays.copyOf(targets, size);
+      if (weighted) {
+        weights = Arrays.copyOf(weights, size);
+      }
+    }
+    sources[numEdges] = source;
+    targets[numEdges] = target;
+    if (weighted) {
+      weights[numEdges] = weight;
+    }
+    numEdges++;
+  }
+
+  /**
+   * Add the edges and vertices of a block received from a loader
+   *
+   * @param block the block
+   */
+  public void add(EdgeBlock block) {
+    for (int i = 0; i < block.getNumEdges(); i++) {
+      addEdge(block.getSource(i), block.getTarget(i), block.getWeight(i));
+    }
+    for (int i = 0; i < block.getNumVertices(); i++) {
+      addVertex(block.getVertex(i));
+    }
+  }
+
+  /**
+   * Sort the vertices and edges in to the compressed sparse row format
+   *
+   * @return the graph partition
+   */
+  public CsrGraph build() {
+    // unique sorted vertex ids, including the local targets without edges of their own
+    long[] ids = Arrays.copyOf(vertices, numVertices + 2 * numEdges);
+    System.arraycopy(sources, 0, ids, numVertices, numEdges);
+    int count = numVertices + numEdges;
+    for (int e = 0; e < numEdges; e++) {
+      if (CsrGraph.owner(targets[e], numPartitions) == partition) {
+        ids[count++] = targets[e];
+      }
+    }
+    Arrays.sort(ids, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || ids[unique - 1] != ids[i]) {
+        ids[unique++] = ids[i];
+      }
+    }
+    ids = Arrays.copyOf(ids, unique);
+
+    // counting sort of the edges by the source
+    int[] edgeSource = new int[numEdges];
+    int[] offsets = new int[unique + 1];
+    for (int e = 0; e < numEdges; e++) {
+      edgeSource[e] = Arrays.binarySearch(ids, sources[e]);
+      offsets[edgeSource[e] + 1]++;
+    }
+    for (int v = 0; v < unique; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+
+    int[] position = Arrays.copyOf(offsets, unique);
+    long[] csrTargets = new long[numEdges];
+    double[] csrWeights = weighted ? new double[numEdges] : null;
+    for (int e = 0; e < numEdges; e++) {
+      int p = position[edgeSource[e]]++;
+      csrTargets[p] = targets[e];
+      if (weighted) {
+        csrWeights[p] = weights[e];
+      }
+    }
+
+    // release the buffers
+    sources = null;
+    targets = null;
+    weights = null;
+    vertices = null;
+    return new CsrGraph(partition, numPartitions, ids, offsets, csrTargets, csrWeights);
+  }
+}
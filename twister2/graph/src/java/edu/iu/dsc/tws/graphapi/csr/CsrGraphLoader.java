@@ -0,0 +1,61 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.graphapi.partition.GraphDataSource;
+import edu.iu.dsc.tws.task.impl.ComputeConnection;
+import edu.iu.dsc.tws.task.impl.ComputeGraphBuilder;
+
+/**
+ * Builds the task graph that reads an adjacency list and collects it as {@link CsrGraph}
+ * partitions under the given name. Vertices are hash partitioned among the tasks using
+ * {@link CsrGraph#owner(long, int)}.
+ */
+public final class CsrGraphLoader {
+  private static final String PARTITION_EDGE = "csr-partition";
+
+  private CsrGraphLoader() {
+  }
+
+  public static ComputeGraph build(String graphName, String dataDirectory, int dsize,
+                                   boolean weighted, int parallelism, Config conf) {
+    GraphDataSource dataSource = new GraphDataSource(Context.TWISTER2_DIRECT_EDGE,
+        dataDirectory, dsize);
+    CsrPartitionCompute partitionCompute = new CsrPartitionCompute(PARTITION_EDGE, weighted);
+    CsrGraphSink graphSink = new CsrGraphSink(graphName, weighted);
+
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(conf);
+    builder.addSource("csrdatasource", dataSource, parallelism);
+    ComputeConnection partitionConnection = builder.addCompute("csrpartition",
+        partitionCompute, parallelism);
+    ComputeConnection sinkConnection = builder.addCompute("csrgraphsink", graphSink,
+        parallelism);
+
+    partitionConnection.direct("csrdatasource")
+        .viaEdge(Context.TWISTER2_DIRECT_EDGE)
+        .withDataType(MessageTypes.OBJECT);
+    sinkConnection.keyedPartition("csrpartition")
+        .viaEdge(PARTITION_EDGE)
+        .withKeyType(MessageTypes.INTEGER)
+        .withDataType(MessageTypes.OBJECT)
+        .withTaskPartitioner(Integer.class, new IndexPartitioner());
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName("csrLoadTG");
+    return builder.build();
+  }
+}
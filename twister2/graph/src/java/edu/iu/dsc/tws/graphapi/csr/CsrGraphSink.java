@@ -0,0 +1,77 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.util.Iterator;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.dataset.partition.EntityPartition;
+
+/**
+ * Builds the {@link CsrGraph} partition of a task from the received edge blocks.
+ */
+public class CsrGraphSink extends BaseCompute implements Collector {
+  private static final long serialVersionUID = -1L;
+
+  private String graphName;
+
+  private boolean weighted;
+
+  private transient CsrGraphBuilder builder;
+
+  private transient CsrGraph graph;
+
+  public CsrGraphSink(String graphName, boolean weighted) {
+    this.graphName = graphName;
+    this.weighted = weighted;
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    if (message.getContent() instanceof Iterator) {
+      Iterator<?> it = (Iterator<?>) message.getContent();
+      while (it.hasNext()) {
+        Object next = it.next();
+        if (next instanceof Tuple) {
+          builder().add((EdgeBlock) ((Tuple) next).getValue());
+        }
+      }
+    }
+    return true;
+  }
+
+  private CsrGraphBuilder builder() {
+    if (builder == null) {
+      builder = new CsrGraphBuilder(context.taskIndex(), context.getParallelism(), weighted);
+    }
+    return builder;
+  }
+
+  @Override
+  public DataPartition<CsrGraph> get() {
+    if (graph == null) {
+      graph = builder().build();
+      builder = null;
+    }
+    return new EntityPartition<>(graph);
+  }
+
+  @Override
+  public IONames getCollectibleNames() {
+    return IONames.declare(graphName);
+  }
+}
@@ -0,0 +1,96 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.util.Iterator;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+
+/**
+ * Parses the adjacency list lines read by a task and sends the edges to the partitions owning
+ * their source vertices. A line is of the form <code>vertex target1 target2 ...</code>, or
+ * <code>vertex target1 weight1 target2 weight2 ...</code> for weighted graphs. Vertex ids are
+ * numbers.
+ */
+public class CsrPartitionCompute extends BaseCompute {
+  private static final long serialVersionUID = -1L;
+
+  /**
+   * Number of edges and vertices in a block before we send it
+   */
+  private static final int BLOCK_SIZE = 1 << 16;
+
+  private String edgeName;
+
+  private boolean weighted;
+
+  public CsrPartitionCompute(String edgeName, boolean weighted) {
+    this.edgeName = edgeName;
+    this.weighted = weighted;
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    int partitions = context.getParallelism();
+    EdgeBlock[] blocks = new EdgeBlock[partitions];
+
+    if (message.getContent() instanceof Iterator) {
+      Iterator<?> lines = (Iterator<?>) message.getContent();
+      while (lines.hasNext()) {
+        String[] tokens = String.valueOf(lines.next()).trim().split("\\s+");
+        if (tokens[0].isEmpty()) {
+          continue;
+        }
+
+        long source = Long.parseLong(tokens[0]);
+        int owner = CsrGraph.owner(source, partitions);
+        block(blocks, owner).addVertex(source);
+        int step = weighted ? 2 : 1;
+        for (int i = 1; i + step - 1 < tokens.length; i += step) {
+          long target = Long.parseLong(tokens[i]);
+          double weight = weighted ? Double.parseDouble(tokens[i + 1]) : 1.0;
+          block(blocks, owner).addEdge(source, target, weight);
+          int targetOwner = CsrGraph.owner(target, partitions);
+          // the builder adds the local targets, a remote target is sent to its owner
+          if (targetOwner != owner) {
+            block(blocks, targetOwner).addVertex(target);
+          }
+          flushIfFull(blocks, targetOwner);
+        }
+        flushIfFull(blocks, owner);
+      }
+    }
+
+    for (int i = 0; i < partitions; i++) {
+      if (blocks[i] != null) {
+        context.write(edgeName, i, blocks[i]);
+      }
+    }
+    context.end(edgeName);
+    return true;
+  }
+
+  private EdgeBlock block(EdgeBlock[] blocks, int partition) {
+    if (blocks[partition] == null) {
+      blocks[partition] = new EdgeBlock(weighted, 1024);
+    }
+    return blocks[partition];
+  }
+
+  private void flushIfFull(EdgeBlock[] blocks, int partition) {
+    if (blocks[partition] != null && blocks[partition].size() >= BLOCK_SIZE) {
+      context.write(edgeName, partition, blocks[partition]);
+      blocks[partition] = null;
+    }
+  }
+}
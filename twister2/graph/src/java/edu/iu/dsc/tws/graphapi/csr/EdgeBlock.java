@@ -0,0 +1,99 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A block of edges and vertex ids sent to the partition that owns them while loading a graph.
+ * Edges are added for the vertices owned by the destination partition, vertices are added for
+ * the edge targets owned by it that are read by other partitions, so that vertices without
+ * outgoing edges are created as well.
+ */
+public final class EdgeBlock implements Serializable {
+  private static final long serialVersionUID = -1L;
+
+  private long[] sources;
+
+  private long[] targets;
+
+  private double[] weights;
+
+  private int numEdges;
+
+  private long[] vertices;
+
+  private int numVertices;
+
+  private EdgeBlock() {
+  }
+
+  public EdgeBlock(boolean weighted, int capacity) {
+    this.sources = new long[capacity];
+    this.targets = new long[capacity];
+    this.weights = weighted ? new double[capacity] : null;
+    this.vertices = new long[capacity];
+  }
+
+  public void addEdge(long source, long target, double weight) {
+    if (numEdges == sources.length) {
+      int size = Math.max(16, numEdges << 1);
+      sources = Arrays.copyOf(sources, size);
+      targets = Arrays.copyOf(targets, size);
+      if (weights != null) {
+        weights = Arrays.copyOf(weights, size);
+      }
+    }
+    sources[numEdges] = source;
+    targets[numEdges] = target;
+    if (weights != null) {
+      weights[numEdges] = weight;
+    }
+    numEdges++;
+  }
+
+  public void addVertex(long vertex) {
+    if (numVertices == vertices.length) {
+      vertices = Arrays.copyOf(vertices, Math.max(16, numVertices << 1));
+    }
+    vertices[numVertices++] = vertex;
+  }
+
+  public int size() {
+    return numEdges + numVertices;
+  }
+
+  public int getNumEdges() {
+    return numEdges;
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  public long getSource(int i) {
+    return sources[i];
+  }
+
+  public long getTarget(int i) {
+    return targets[i];
+  }
+
+  public double getWeight(int i) {
+    return weights != null ? weights[i] : 1.0;
+  }
+
+  public long getVertex(int i) {
+    return vertices[i];
+  }
+}
@@ -0,0 +1,45 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import edu.iu.dsc.tws.api.compute.TaskPartitioner;
+
+/**
+ * Partitions keyed messages where the key is the task index of the destination.
+ */
+public class IndexPartitioner implements TaskPartitioner<Integer> {
+  private static final long serialVersionUID = -1L;
+
+  private int[] destinations;
+
+  @Override
+  public void prepare(Set<Integer> sources, Set<Integer> dests) {
+    this.destinations = new int[dests.size()];
+    int index = 0;
+    for (int d : dests) {
+      destinations[index++] = d;
+    }
+    Arrays.sort(destinations);
+  }
+
+  @Override
+  public int partition(int source, Integer index) {
+    return destinations[index];
+  }
+
+  @Override
+  public void commit(int source, int partition) {
+  }
+}
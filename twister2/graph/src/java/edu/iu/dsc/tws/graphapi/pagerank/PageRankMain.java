@@ -49,6 +49,7 @@ public class PageRankMain {
     options.addOption(DataObjectConstants.SHARED_FILE_SYSTEM, false, "Shared file system");
     options.addOption(DataObjectConstants.PARALLELISM_VALUE, true, "parallelism");
     options.addOption(DataObjectConstants.ARGS_ITERATIONS, true, "iter");
+    options.addOption("pregel", false, "Run on the pregel engine");
 
     options.addOption(DataObjectConstants.DINPUT_DIRECTORY,
         true, "Data points Input directory");
@@ -88,7 +89,8 @@ public class PageRankMain {
 
     Twister2Job.Twister2JobBuilder jobBuilder = Twister2Job.newBuilder();
     jobBuilder.setJobName("pagerank-job");
-    jobBuilder.setWorkerClass(PageRankWorker.class.getName());
+    jobBuilder.setWorkerClass(cmd.hasOption("pregel")
+        ? PregelPageRankWorker.class.getName() : PageRankWorker.class.getName());
     jobBuilder.addComputeResource(2, 512, 1.0, workers);
     jobBuilder.setConfig(jobConfig);
 
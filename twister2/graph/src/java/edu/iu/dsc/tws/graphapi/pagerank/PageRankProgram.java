@@ -0,0 +1,65 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pagerank;
+
+import edu.iu.dsc.tws.graphapi.pregel.MessageCombiner;
+import edu.iu.dsc.tws.graphapi.pregel.PregelVertex;
+import edu.iu.dsc.tws.graphapi.pregel.VertexProgram;
+
+/**
+ * PageRank of {@link PregelPageRankWorker}, the rank of the dangling vertices is summed by the
+ * aggregator and distributed to all the vertices in the next superstep.
+ */
+class PageRankProgram implements VertexProgram {
+  private static final long serialVersionUID = -1L;
+
+  private static final double DAMPING = 0.85;
+
+  private int numVertices;
+
+  private int iterations;
+
+  PageRankProgram(int numVertices, int iterations) {
+    this.numVertices = numVertices;
+    this.iterations = iterations;
+  }
+
+  @Override
+  public double initialValue(long vertexId, int outDegree) {
+    return 1.0 / numVertices;
+  }
+
+  @Override
+  public void compute(PregelVertex vertex) {
+    if (vertex.getSuperstep() > 0) {
+      double sum = vertex.hasMessage() ? vertex.getMessage() : 0;
+      vertex.setValue((1 - DAMPING) / numVertices
+          + DAMPING * (sum + vertex.getAggregated() / numVertices));
+    }
+
+    if (vertex.getSuperstep() < iterations) {
+      int degree = vertex.getOutDegree();
+      if (degree > 0) {
+        vertex.sendMessageToAllEdges(vertex.getValue() / degree);
+      } else {
+        vertex.aggregate(vertex.getValue());
+      }
+    } else {
+      vertex.voteToHalt();
+    }
+  }
+
+  @Override
+  public MessageCombiner getCombiner() {
+    return MessageCombiner.SUM;
+  }
+}
@@ -0,0 +1,64 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pagerank;
+
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.dataset.DataObject;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraphLoader;
+import edu.iu.dsc.tws.graphapi.pregel.PregelEngine;
+import edu.iu.dsc.tws.graphapi.pregel.PregelPartition;
+import edu.iu.dsc.tws.task.impl.TaskWorker;
+
+/**
+ * PageRank on the {@link PregelEngine} with the same input and parameters as
+ * {@link PageRankWorker}. The rank of the dangling vertices is distributed to all the vertices
+ * through the aggregator.
+ */
+public class PregelPageRankWorker extends TaskWorker {
+  private static final Logger LOG = Logger.getLogger(PregelPageRankWorker.class.getName());
+
+  private static final String GRAPH = "pagerank-graph";
+
+  @Override
+  public void execute() {
+    PageRankWorkerParameters parameters = PageRankWorkerParameters.build(config);
+    int parallelism = parameters.getParallelismValue();
+    int dsize = parameters.getDsize();
+    int iterations = parameters.getIterations();
+
+    long loadStart = System.currentTimeMillis();
+    taskExecutor.execute(CsrGraphLoader.build(GRAPH, parameters.getDatapointDirectory(), dsize,
+        false, parallelism, config));
+    long startTime = System.currentTimeMillis();
+
+    PregelEngine engine = new PregelEngine(taskExecutor, config, parallelism);
+    DataObject<PregelPartition> result = engine.run(GRAPH,
+        new PageRankProgram(dsize, iterations), iterations + 1);
+    long endTime = System.currentTimeMillis();
+    taskExecutor.close();
+
+    double rankSum = 0;
+    int vertices = 0;
+    for (DataPartition<PregelPartition> p : result.getPartitions()) {
+      PregelPartition partition = p.getConsumer().next();
+      for (int v = 0; v < partition.getGraph().numVertices(); v++) {
+        rankSum += partition.getValue(v);
+      }
+      vertices += partition.getGraph().numVertices();
+    }
+    LOG.info(String.format("Worker %d vertices %d rank sum %.15f load time %d "
+            + "computation time %d", workerId, vertices, rankSum, startTime - loadStart,
+        endTime - startTime));
+  }
+}
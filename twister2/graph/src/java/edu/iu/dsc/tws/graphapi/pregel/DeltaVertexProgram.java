@@ -0,0 +1,59 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+/**
+ * A vertex program that only sends messages from the vertices whose value changed. In each
+ * superstep a vertex applies its message to compute a new value, and only if the value changed
+ * the new value is set and {@link #scatter(PregelVertex, double)} is called. Vertices always
+ * leave the frontier after a superstep and are activated again by a message, so the late
+ * supersteps of a converging computation only touch the few vertices that still change.
+ */
+public interface DeltaVertexProgram extends VertexProgram {
+  /**
+   * Compute the new value of a vertex from its value and message
+   *
+   * @param vertex the vertex
+   * @return the new value
+   */
+  double apply(PregelVertex vertex);
+
+  /**
+   * Send the messages of a vertex whose value changed, the vertex already holds the new value
+   *
+   * @param vertex the vertex
+   * @param oldValue value of the vertex before the superstep
+   */
+  void scatter(PregelVertex vertex, double oldValue);
+
+  /**
+   * Weather the change of a value should be propagated
+   *
+   * @param oldValue value before the superstep
+   * @param newValue value computed by {@link #apply(PregelVertex)}
+   * @return true if the value changed
+   */
+  default boolean isChanged(double oldValue, double newValue) {
+    return oldValue != newValue;
+  }
+
+  @Override
+  default void compute(PregelVertex vertex) {
+    double oldValue = vertex.getValue();
+    double newValue = apply(vertex);
+    if (isChanged(oldValue, newValue)) {
+      vertex.setValue(newValue);
+      scatter(vertex, oldValue);
+    }
+    vertex.voteToHalt();
+  }
+}
@@ -0,0 +1,45 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+
+/**
+ * Combined messages sent from one partition to another in a superstep.
+ */
+public final class MessageBatch implements Serializable {
+  private static final long serialVersionUID = -1L;
+
+  private long[] targets;
+
+  private double[] messages;
+
+  private MessageBatch() {
+  }
+
+  public MessageBatch(long[] targets, double[] messages) {
+    this.targets = targets;
+    this.messages = messages;
+  }
+
+  public int size() {
+    return targets.length;
+  }
+
+  public long getTarget(int i) {
+    return targets[i];
+  }
+
+  public double getMessage(int i) {
+    return messages[i];
+  }
+}
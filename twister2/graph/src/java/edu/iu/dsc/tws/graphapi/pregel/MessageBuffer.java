@@ -0,0 +1,101 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from target vertex ids to combined messages, used to combine
+ * the messages of a superstep before sending them.
+ */
+final class MessageBuffer {
+  private final MessageCombiner combiner;
+
+  private long[] keys;
+
+  private double[] values;
+
+  private boolean[] used;
+
+  private int size;
+
+  MessageBuffer(MessageCombiner combiner, int capacity) {
+    this.combiner = combiner;
+    int tableSize = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1;
+    this.keys = new long[tableSize];
+    this.values = new double[tableSize];
+    this.used = new boolean[tableSize];
+  }
+
+  void add(long target, double message) {
+    int mask = keys.length - 1;
+    int slot = hash(target) & mask;
+    while (used[slot]) {
+      if (keys[slot] == target) {
+        values[slot] = combiner.combine(values[slot], message);
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    used[slot] = true;
+    keys[slot] = target;
+    values[slot] = message;
+    size++;
+    if (size > (keys.length >> 1) + (keys.length >> 2)) {
+      grow();
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Create a batch with the buffered messages and clear the buffer
+   *
+   * @return the batch
+   */
+  MessageBatch drain() {
+    long[] targets = new long[size];
+    double[] messages = new double[size];
+    int index = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (used[i]) {
+        targets[index] = keys[i];
+        messages[index++] = values[i];
+      }
+    }
+    Arrays.fill(used, false);
+    size = 0;
+    return new MessageBatch(targets, messages);
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    double[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new long[oldKeys.length << 1];
+    values = new double[oldKeys.length << 1];
+    used = new boolean[oldKeys.length << 1];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldUsed[i]) {
+        add(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,29 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+
+/**
+ * Combines the messages sent to a vertex in a superstep. Messages are combined at the sender
+ * before they are sent, and again at the receiver, so a vertex sees at most one message per
+ * superstep. The function should be commutative and associative.
+ */
+public interface MessageCombiner extends Serializable {
+  MessageCombiner SUM = (m1, m2) -> m1 + m2;
+
+  MessageCombiner MIN = Math::min;
+
+  MessageCombiner MAX = Math::max;
+
+  double combine(double m1, double m2);
+}
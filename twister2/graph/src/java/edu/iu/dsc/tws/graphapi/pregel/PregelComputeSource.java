@@ -0,0 +1,110 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.nodes.BaseSource;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+
+/**
+ * Runs a superstep of a partition. The vertex program is called for the vertices in the
+ * frontier, i.e. the vertices that are active or received a message, and the messages they send
+ * are combined per target and sent to the owning partitions in batches. A partition with an
+ * empty frontier does no work in the superstep other than taking part in the allreduce of the
+ * number of computed and active vertices, sent messages and the aggregated value.
+ */
+public class PregelComputeSource extends BaseSource implements Receptor, MessageSender {
+  private static final long serialVersionUID = -1L;
+
+  /**
+   * Number of combined messages buffered for a partition before we send them
+   */
+  private static final int BATCH_SIZE = 1 << 16;
+
+  private String stateName;
+
+  private VertexProgram program;
+
+  private transient PregelPartition partition;
+
+  private transient MessageBuffer[] buffers;
+
+  private transient long messagesSent;
+
+  private transient double aggregate;
+
+  public PregelComputeSource(String stateName, VertexProgram program) {
+    this.stateName = stateName;
+    this.program = program;
+  }
+
+  @Override
+  public void execute() {
+    int partitions = context.getParallelism();
+    if (buffers == null) {
+      buffers = new MessageBuffer[partitions];
+      for (int i = 0; i < partitions; i++) {
+        buffers[i] = new MessageBuffer(program.getCombiner(), 1024);
+      }
+    }
+    messagesSent = 0;
+    aggregate = 0;
+
+    partition.swapInbox();
+    long computed = partition.compute(program, this);
+    if (computed > 0) {
+      for (int i = 0; i < partitions; i++) {
+        flush(i);
+      }
+    }
+    context.write(PregelEngine.SYNC_EDGE,
+        new double[]{computed, partition.getActive().cardinality(), messagesSent, aggregate});
+    context.end(PregelEngine.MESSAGE_EDGE);
+    context.end(PregelEngine.SYNC_EDGE);
+  }
+
+  @Override
+  public void send(long target, double message) {
+    int owner = CsrGraph.owner(target, buffers.length);
+    MessageBuffer buffer = buffers[owner];
+    buffer.add(target, message);
+    messagesSent++;
+    if (buffer.size() >= BATCH_SIZE) {
+      flush(owner);
+    }
+  }
+
+  @Override
+  public void aggregate(double value) {
+    aggregate += value;
+  }
+
+  private void flush(int owner) {
+    if (buffers[owner].size() > 0) {
+      context.write(PregelEngine.MESSAGE_EDGE, owner, buffers[owner].drain());
+    }
+  }
+
+  @Override
+  public void add(String name, DataPartition<?> data) {
+    if (stateName.equals(name)) {
+      this.partition = (PregelPartition) data.getConsumer().next();
+    }
+  }
+
+  @Override
+  public IONames getReceivableNames() {
+    return IONames.declare(stateName);
+  }
+}
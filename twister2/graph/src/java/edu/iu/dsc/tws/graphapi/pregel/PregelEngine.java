@@ -0,0 +1,131 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.dataset.DataObject;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraphLoader;
+import edu.iu.dsc.tws.graphapi.csr.IndexPartitioner;
+import edu.iu.dsc.tws.task.impl.ComputeConnection;
+import edu.iu.dsc.tws.task.impl.ComputeGraphBuilder;
+import edu.iu.dsc.tws.task.impl.TaskExecutor;
+import edu.iu.dsc.tws.task.impl.function.ReduceFn;
+
+/**
+ * Runs a {@link VertexProgram} over a graph loaded with {@link CsrGraphLoader} as a sequence
+ * of supersteps. Each superstep is an execution of the same task graph, where the messages are
+ * sent to the owning partitions through a keyed partition and the global state of the superstep
+ * is computed with an allreduce. The computation stops when all the vertices have voted to halt
+ * and no messages were sent, or after the maximum number of supersteps.
+ */
+public class PregelEngine {
+  private static final Logger LOG = Logger.getLogger(PregelEngine.class.getName());
+
+  static final String INIT_EDGE = "pregel-init";
+
+  static final String MESSAGE_EDGE = "pregel-messages";
+
+  static final String SYNC_EDGE = "pregel-sync";
+
+  private TaskExecutor taskExecutor;
+
+  private Config config;
+
+  private int parallelism;
+
+  public PregelEngine(TaskExecutor taskExecutor, Config config, int parallelism) {
+    this.taskExecutor = taskExecutor;
+    this.config = config;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Run a program until it converges
+   *
+   * @param graphName name of the graph collected by {@link CsrGraphLoader}
+   * @param program the vertex program
+   * @param maxSupersteps maximum number of supersteps
+   * @return the partitions of this worker with the final vertex values
+   */
+  public DataObject<PregelPartition> run(String graphName, VertexProgram program,
+                                         int maxSupersteps) {
+    String stateName = graphName + "-pregel";
+    taskExecutor.execute(buildInitGraph(graphName, stateName, program));
+
+    DataObject<PregelPartition> state = taskExecutor.getOutput(stateName);
+    DataPartition<PregelPartition>[] partitions = state.getPartitions();
+    if (partitions.length == 0) {
+      throw new IllegalStateException("No graph partitions in this worker");
+    }
+    PregelPartition local = partitions[0].getConsumer().next();
+
+    IExecutor ex = taskExecutor.createExecution(buildSuperstepGraph(stateName, program));
+    while (local.getSuperstep() < maxSupersteps) {
+      ex.execute(false);
+      LOG.fine(String.format("Superstep %d computed vertices %d active vertices %d messages %d",
+          local.getSuperstep(), local.getComputedVertices(), local.getActiveVertices(),
+          local.getMessagesSent()));
+      if (local.isConverged()) {
+        break;
+      }
+    }
+    ex.closeExecution();
+    return state;
+  }
+
+  private ComputeGraph buildInitGraph(String graphName, String stateName,
+                                      VertexProgram program) {
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(config);
+    builder.addSource("pregelinit", new PregelInitSource(graphName, program), parallelism);
+    ComputeConnection sinkConnection = builder.addCompute("pregelinitsink",
+        new PregelInitSink(stateName), parallelism);
+    sinkConnection.direct("pregelinit")
+        .viaEdge(INIT_EDGE)
+        .withDataType(MessageTypes.OBJECT);
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName("pregelInitTG");
+    return builder.build();
+  }
+
+  private ComputeGraph buildSuperstepGraph(String stateName, VertexProgram program) {
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(config);
+    builder.addSource("pregelcompute", new PregelComputeSource(stateName, program),
+        parallelism);
+    ComputeConnection inboxConnection = builder.addCompute("pregelinbox",
+        new PregelInboxSink(stateName, program.getCombiner()), parallelism);
+    ComputeConnection syncConnection = builder.addCompute("pregelsync",
+        new PregelSyncSink(stateName), parallelism);
+
+    inboxConnection.keyedPartition("pregelcompute")
+        .viaEdge(MESSAGE_EDGE)
+        .withKeyType(MessageTypes.INTEGER)
+        .withDataType(MessageTypes.OBJECT)
+        .withTaskPartitioner(Integer.class, new IndexPartitioner());
+    syncConnection.allreduce("pregelcompute")
+        .viaEdge(SYNC_EDGE)
+        .withReductionFunction(new ReduceFn(Op.SUM, MessageTypes.DOUBLE_ARRAY))
+        .withDataType(MessageTypes.DOUBLE_ARRAY);
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName("pregelSuperstepTG");
+    return builder.build();
+  }
+}
@@ -0,0 +1,78 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Iterator;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+
+/**
+ * Receives the message batches sent to a partition and combines them in to the inbox of the
+ * next superstep.
+ */
+public class PregelInboxSink extends BaseCompute implements Receptor {
+  private static final Logger LOG = Logger.getLogger(PregelInboxSink.class.getName());
+
+  private static final long serialVersionUID = -1L;
+
+  private String stateName;
+
+  private MessageCombiner combiner;
+
+  private transient PregelPartition partition;
+
+  public PregelInboxSink(String stateName, MessageCombiner combiner) {
+    this.stateName = stateName;
+    this.combiner = combiner;
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    long dropped = 0;
+    if (message.getContent() instanceof Iterator) {
+      Iterator<?> it = (Iterator<?>) message.getContent();
+      while (it.hasNext()) {
+        Object next = it.next();
+        if (next instanceof Tuple) {
+          MessageBatch batch = (MessageBatch) ((Tuple) next).getValue();
+          for (int i = 0; i < batch.size(); i++) {
+            if (!partition.receive(batch.getTarget(i), batch.getMessage(i), combiner)) {
+              dropped++;
+            }
+          }
+        }
+      }
+    }
+    if (dropped > 0) {
+      LOG.warning(String.format("Dropped %d messages sent to unknown vertices", dropped));
+    }
+    return true;
+  }
+
+  @Override
+  public void add(String name, DataPartition<?> data) {
+    if (stateName.equals(name)) {
+      this.partition = (PregelPartition) data.getConsumer().next();
+    }
+  }
+
+  @Override
+  public IONames getReceivableNames() {
+    return IONames.declare(stateName);
+  }
+}
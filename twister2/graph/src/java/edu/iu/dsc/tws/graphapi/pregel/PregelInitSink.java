@@ -0,0 +1,59 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Iterator;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.dataset.partition.EntityPartition;
+
+/**
+ * Collects the {@link PregelPartition}s so that the superstep tasks can share them.
+ */
+public class PregelInitSink extends BaseCompute implements Collector {
+  private static final long serialVersionUID = -1L;
+
+  private String stateName;
+
+  private transient PregelPartition partition;
+
+  public PregelInitSink(String stateName) {
+    this.stateName = stateName;
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    if (message.getContent() instanceof Iterator) {
+      Iterator<?> it = (Iterator<?>) message.getContent();
+      while (it.hasNext()) {
+        partition = (PregelPartition) it.next();
+      }
+    } else {
+      partition = (PregelPartition) message.getContent();
+    }
+    return true;
+  }
+
+  @Override
+  public DataPartition<PregelPartition> get() {
+    return new EntityPartition<>(partition);
+  }
+
+  @Override
+  public IONames getCollectibleNames() {
+    return IONames.declare(stateName);
+  }
+}
@@ -0,0 +1,53 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.nodes.BaseSource;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+
+/**
+ * Creates the {@link PregelPartition} of a graph partition with the initial vertex values.
+ */
+public class PregelInitSource extends BaseSource implements Receptor {
+  private static final long serialVersionUID = -1L;
+
+  private String graphName;
+
+  private VertexProgram program;
+
+  private transient CsrGraph graph;
+
+  public PregelInitSource(String graphName, VertexProgram program) {
+    this.graphName = graphName;
+    this.program = program;
+  }
+
+  @Override
+  public void execute() {
+    context.writeEnd(PregelEngine.INIT_EDGE, new PregelPartition(graph, program));
+  }
+
+  @Override
+  public void add(String name, DataPartition<?> data) {
+    if (graphName.equals(name)) {
+      this.graph = (CsrGraph) data.getConsumer().next();
+    }
+  }
+
+  @Override
+  public IONames getReceivableNames() {
+    return IONames.declare(graphName);
+  }
+}
@@ -0,0 +1,208 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+
+/**
+ * The state of a graph partition in a Pregel computation. The vertex values and messages are
+ * kept in primitive arrays indexed by the local vertex index of the {@link CsrGraph}.
+ *
+ * Messages received in a superstep are written to a separate inbox, which becomes the current
+ * inbox at the start of the next superstep, so that the receiving and computing tasks of a
+ * partition do not interfere.
+ */
+public final class PregelPartition implements Serializable {
+  private static final long serialVersionUID = -1L;
+
+  private CsrGraph graph;
+
+  private double[] values;
+
+  /**
+   * Vertices that have not voted to halt
+   */
+  private BitSet active;
+
+  /**
+   * Messages for the current superstep
+   */
+  private double[] inbox;
+
+  private BitSet hasMessage;
+
+  /**
+   * Messages received for the next superstep
+   */
+  private double[] nextInbox;
+
+  private BitSet nextHasMessage;
+
+  /**
+   * Number of supersteps completed
+   */
+  private int superstep;
+
+  /**
+   * Global values of the last superstep
+   */
+  private long computedVertices;
+
+  private long activeVertices;
+
+  private long messagesSent;
+
+  private double aggregated;
+
+  /**
+   * Vertices computed in the current superstep
+   */
+  private transient BitSet frontier;
+
+  private PregelPartition() {
+  }
+
+  public PregelPartition(CsrGraph graph, VertexProgram program) {
+    int n = graph.numVertices();
+    this.graph = graph;
+    this.values = new double[n];
+    this.active = new BitSet(n);
+    this.active.set(0, n);
+    this.inbox = new double[n];
+    this.hasMessage = new BitSet(n);
+    this.nextInbox = new double[n];
+    this.nextHasMessage = new BitSet(n);
+    for (int v = 0; v < n; v++) {
+      values[v] = program.initialValue(graph.vertexId(v), graph.outDegree(v));
+    }
+  }
+
+  /**
+   * Make the messages received in the previous superstep the current messages
+   */
+  void swapInbox() {
+    double[] tempInbox = inbox;
+    inbox = nextInbox;
+    nextInbox = tempInbox;
+
+    BitSet temp = hasMessage;
+    hasMessage = nextHasMessage;
+    nextHasMessage = temp;
+    nextHasMessage.clear();
+  }
+
+  /**
+   * Add a message received for the next superstep
+   *
+   * @return false if the target is not in this partition
+   */
+  boolean receive(long target, double message, MessageCombiner combiner) {
+    int v = graph.indexOf(target);
+    if (v < 0) {
+      return false;
+    }
+    if (nextHasMessage.get(v)) {
+      nextInbox[v] = combiner.combine(nextInbox[v], message);
+    } else {
+      nextInbox[v] = message;
+      nextHasMessage.set(v);
+    }
+    return true;
+  }
+
+  /**
+   * Compute the vertices that are active or received a message in the current superstep
+   *
+   * @return number of computed vertices
+   */
+  long compute(VertexProgram program, MessageSender sender) {
+    if (frontier == null) {
+      frontier = new BitSet(graph.numVertices());
+    }
+    frontier.clear();
+    frontier.or(active);
+    frontier.or(hasMessage);
+
+    PregelVertex vertex = new PregelVertex(this, sender);
+    for (int v = frontier.nextSetBit(0); v >= 0; v = frontier.nextSetBit(v + 1)) {
+      vertex.moveTo(v);
+      program.compute(vertex);
+      active.set(v, !vertex.isHalted());
+    }
+    return frontier.cardinality();
+  }
+
+  void completeSuperstep(long computed, long activeCount, long messages, double aggregate) {
+    this.computedVertices = computed;
+    this.activeVertices = activeCount;
+    this.messagesSent = messages;
+    this.aggregated = aggregate;
+    this.superstep++;
+  }
+
+  /**
+   * Weather all the vertices have halted and no messages were sent in the last superstep
+   */
+  public boolean isConverged() {
+    return superstep > 0 && activeVertices == 0 && messagesSent == 0;
+  }
+
+  public CsrGraph getGraph() {
+    return graph;
+  }
+
+  public double getValue(int vertex) {
+    return values[vertex];
+  }
+
+  double[] getValues() {
+    return values;
+  }
+
+  BitSet getActive() {
+    return active;
+  }
+
+  double[] getInbox() {
+    return inbox;
+  }
+
+  BitSet getHasMessage() {
+    return hasMessage;
+  }
+
+  public int getSuperstep() {
+    return superstep;
+  }
+
+  /**
+   * Number of vertices computed in the last superstep
+   */
+  public long getComputedVertices() {
+    return computedVertices;
+  }
+
+  public long getActiveVertices() {
+    return activeVertices;
+  }
+
+  public long getMessagesSent() {
+    return messagesSent;
+  }
+
+  public double getAggregated() {
+    return aggregated;
+  }
+}
@@ -0,0 +1,54 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+
+/**
+ * Receives the global number of computed and active vertices, sent messages and the aggregated
+ * value of a superstep and completes the superstep of the partition.
+ */
+public class PregelSyncSink extends BaseCompute implements Receptor {
+  private static final long serialVersionUID = -1L;
+
+  private String stateName;
+
+  private transient PregelPartition partition;
+
+  public PregelSyncSink(String stateName) {
+    this.stateName = stateName;
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    double[] global = (double[]) message.getContent();
+    partition.completeSuperstep((long) global[0], (long) global[1], (long) global[2],
+        global[3]);
+    return true;
+  }
+
+  @Override
+  public void add(String name, DataPartition<?> data) {
+    if (stateName.equals(name)) {
+      this.partition = (PregelPartition) data.getConsumer().next();
+    }
+  }
+
+  @Override
+  public IONames getReceivableNames() {
+    return IONames.declare(stateName);
+  }
+}
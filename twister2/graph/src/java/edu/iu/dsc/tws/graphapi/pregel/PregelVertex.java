@@ -0,0 +1,128 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+
+/**
+ * The view of a vertex given to {@link VertexProgram#compute(PregelVertex)}. The same object is
+ * moved over the vertices of a partition, so it should not be kept after the call.
+ */
+public final class PregelVertex {
+  private final PregelPartition partition;
+
+  private final CsrGraph graph;
+
+  private final MessageSender source;
+
+  private int index;
+
+  private boolean halt;
+
+  PregelVertex(PregelPartition partition, MessageSender source) {
+    this.partition = partition;
+    this.graph = partition.getGraph();
+    this.source = source;
+  }
+
+  void moveTo(int vertex) {
+    this.index = vertex;
+    this.halt = false;
+  }
+
+  boolean isHalted() {
+    return halt;
+  }
+
+  public long getId() {
+    return graph.vertexId(index);
+  }
+
+  public double getValue() {
+    return partition.getValues()[index];
+  }
+
+  public void setValue(double value) {
+    partition.getValues()[index] = value;
+  }
+
+  public int getOutDegree() {
+    return graph.outDegree(index);
+  }
+
+  /**
+   * The target of the i th outgoing edge
+   */
+  public long getTarget(int i) {
+    return graph.target(graph.edgeStart(index) + i);
+  }
+
+  /**
+   * The weight of the i th outgoing edge
+   */
+  public double getWeight(int i) {
+    return graph.weight(graph.edgeStart(index) + i);
+  }
+
+  /**
+   * Weather the vertex received a message in the previous superstep
+   */
+  public boolean hasMessage() {
+    return partition.getHasMessage().get(index);
+  }
+
+  /**
+   * The combined message received in the previous superstep
+   */
+  public double getMessage() {
+    return partition.getInbox()[index];
+  }
+
+  public void sendMessage(long target, double message) {
+    source.send(target, message);
+  }
+
+  public void sendMessageToAllEdges(double message) {
+    int end = graph.edgeEnd(index);
+    for (int e = graph.edgeStart(index); e < end; e++) {
+      source.send(graph.target(e), message);
+    }
+  }
+
+  /**
+   * Deactivate the vertex until it receives a message
+   */
+  public void voteToHalt() {
+    this.halt = true;
+  }
+
+  /**
+   * The current superstep, starting from 0
+   */
+  public int getSuperstep() {
+    return partition.getSuperstep();
+  }
+
+  /**
+   * Add a value to the global sum, which is available in the next superstep
+   */
+  public void aggregate(double value) {
+    source.aggregate(value);
+  }
+
+  /**
+   * The global sum of the values aggregated in the previous superstep
+   */
+  public double getAggregated() {
+    return partition.getAggregated();
+  }
+}
@@ -0,0 +1,45 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+
+/**
+ * A vertex centric program executed by the {@link PregelEngine}. In each superstep
+ * {@link #compute(PregelVertex)} is called for the vertices that are active, i.e. that have not
+ * voted to halt or that received a message. The computation stops when all the vertices have
+ * voted to halt and no messages are in transit.
+ */
+public interface VertexProgram extends Serializable {
+  /**
+   * The value of a vertex before the first superstep
+   *
+   * @param vertexId the vertex id
+   * @param outDegree number of outgoing edges of the vertex
+   * @return initial value
+   */
+  double initialValue(long vertexId, int outDegree);
+
+  /**
+   * Compute a vertex in a superstep
+   *
+   * @param vertex the vertex, the object is reused between the calls
+   */
+  void compute(PregelVertex vertex);
+
+  /**
+   * The combiner applied to the messages sent to the same vertex
+   *
+   * @return the combiner
+   */
+  MessageCombiner getCombiner();
+}
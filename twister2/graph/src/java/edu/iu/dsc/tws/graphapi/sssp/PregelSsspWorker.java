@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.sssp;
+
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.dataset.DataObject;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraphLoader;
+import edu.iu.dsc.tws.graphapi.pregel.PregelEngine;
+import edu.iu.dsc.tws.graphapi.pregel.PregelPartition;
+import edu.iu.dsc.tws.task.impl.TaskWorker;
+
+/**
+ * Single source shortest path on the {@link PregelEngine} with the same weighted input and
+ * parameters as {@link SingleSourceShortestPathWorker}. Vertex ids should be numbers. Only the
+ * vertices whose distance decreased send messages, so a superstep only computes the vertices
+ * reached in the previous superstep.
+ */
+public class PregelSsspWorker extends TaskWorker {
+  private static final Logger LOG = Logger.getLogger(PregelSsspWorker.class.getName());
+
+  private static final String GRAPH = "sssp-graph";
+
+  @Override
+  public void execute() {
+    SsspParameters parameters = SsspParameters.build(config);
+    int parallelism = parameters.getParallelismValue();
+    long sourceVertex = Long.parseLong(parameters.getSourcevertex().trim());
+
+    long loadStart = System.currentTimeMillis();
+    taskExecutor.execute(CsrGraphLoader.build(GRAPH, parameters.getDatapointDirectory(),
+        parameters.getDsize(), true, parallelism, config));
+    long startTime = System.currentTimeMillis();
+
+    PregelEngine engine = new PregelEngine(taskExecutor, config, parallelism);
+    DataObject<PregelPartition> result = engine.run(GRAPH, new SsspProgram(sourceVertex),
+        Integer.MAX_VALUE);
+    long endTime = System.currentTimeMillis();
+    taskExecutor.close();
+
+    int reached = 0;
+    int supersteps = 0;
+    for (DataPartition<PregelPartition> p : result.getPartitions()) {
+      PregelPartition partition = p.getConsumer().next();
+      for (int v = 0; v < partition.getGraph().numVertices(); v++) {
+        if (partition.getValue(v) != Double.POSITIVE_INFINITY) {
+          reached++;
+        }
+      }
+      supersteps = partition.getSuperstep();
+    }
+    LOG.info(String.format("Worker %d reached vertices %d supersteps %d load time %d "
+            + "computation time %d", workerId, reached, supersteps, startTime - loadStart,
+        endTime - startTime));
+  }
+}
@@ -47,6 +47,7 @@ public class SsspMain {
     options.addOption(DataObjectConstants.SHARED_FILE_SYSTEM, false, "Shared file system");
     options.addOption(DataObjectConstants.PARALLELISM_VALUE, true, "parallelism");
     options.addOption("sourcev", true, "soruce vertex");
+    options.addOption("pregel", false, "Run on the pregel engine");
 
 
     options.addOption(DataObjectConstants.DINPUT_DIRECTORY,
@@ -87,7 +88,8 @@ public class SsspMain {
 
     Twister2Job.Twister2JobBuilder jobBuilder = Twister2Job.newBuilder();
     jobBuilder.setJobName("Sssp-job");
-    jobBuilder.setWorkerClass(TestForSSSP.class.getName());
+    jobBuilder.setWorkerClass(cmd.hasOption("pregel")
+        ? PregelSsspWorker.class.getName() : TestForSSSP.class.getName());
     jobBuilder.addComputeResource(2, 512, 1.0, workers);
     jobBuilder.setConfig(jobConfig);
 
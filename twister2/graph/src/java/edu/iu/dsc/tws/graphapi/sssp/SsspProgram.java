@@ -0,0 +1,60 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.sssp;
+
+import edu.iu.dsc.tws.graphapi.pregel.DeltaVertexProgram;
+import edu.iu.dsc.tws.graphapi.pregel.MessageCombiner;
+import edu.iu.dsc.tws.graphapi.pregel.PregelVertex;
+
+/**
+ * Single source shortest path of {@link PregelSsspWorker}, a vertex only sends messages when its
+ * distance decreased.
+ */
+class SsspProgram implements DeltaVertexProgram {
+  private static final long serialVersionUID = -1L;
+
+  private long sourceVertex;
+
+  SsspProgram(long sourceVertex) {
+    this.sourceVertex = sourceVertex;
+  }
+
+  @Override
+  public double initialValue(long vertexId, int outDegree) {
+    return Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public double apply(PregelVertex vertex) {
+    double distance = vertex.getValue();
+    if (vertex.getSuperstep() == 0 && vertex.getId() == sourceVertex) {
+      distance = 0;
+    }
+    if (vertex.hasMessage()) {
+      distance = Math.min(distance, vertex.getMessage());
+    }
+    return distance;
+  }
+
+  @Override
+  public void scatter(PregelVertex vertex, double oldValue) {
+    double distance = vertex.getValue();
+    for (int i = 0; i < vertex.getOutDegree(); i++) {
+      vertex.sendMessage(vertex.getTarget(i), distance + vertex.getWeight(i));
+    }
+  }
+
+  @Override
+  public MessageCombiner getCombiner() {
+    return MessageCombiner.MIN;
+  }
+}
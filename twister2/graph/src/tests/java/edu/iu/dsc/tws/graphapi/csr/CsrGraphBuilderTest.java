@@ -0,0 +1,143 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.csr;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CsrGraphBuilderTest {
+
+  @Test
+  public void testDeduplicateVertices() {
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 1, false);
+    builder.addVertex(5);
+    builder.addVertex(1);
+    builder.addVertex(5);
+    builder.addEdge(3, 1);
+    builder.addEdge(1, 3);
+    builder.addEdge(3, 5);
+    CsrGraph graph = builder.build();
+
+    Assert.assertEquals(3, graph.numVertices());
+    Assert.assertEquals(1, graph.vertexId(0));
+    Assert.assertEquals(3, graph.vertexId(1));
+    Assert.assertEquals(5, graph.vertexId(2));
+    Assert.assertEquals(3, graph.numEdges());
+  }
+
+  @Test
+  public void testOffsets() {
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 1, true);
+    builder.addEdge(2, 0, 0.5);
+    builder.addEdge(0, 1, 1.5);
+    builder.addEdge(2, 1, 2.5);
+    builder.addEdge(0, 2, 3.5);
+    builder.addVertex(4);
+    CsrGraph graph = builder.build();
+
+    Assert.assertTrue(graph.isWeighted());
+    Assert.assertEquals(4, graph.numVertices());
+    int v0 = graph.indexOf(0);
+    Assert.assertEquals(2, graph.outDegree(v0));
+    Assert.assertEquals(1, graph.target(graph.edgeStart(v0)));
+    Assert.assertEquals(1.5, graph.weight(graph.edgeStart(v0)), 0);
+    Assert.assertEquals(2, graph.target(graph.edgeStart(v0) + 1));
+    Assert.assertEquals(3.5, graph.weight(graph.edgeStart(v0) + 1), 0);
+
+    int v2 = graph.indexOf(2);
+    Assert.assertEquals(graph.edgeEnd(graph.indexOf(1)), graph.edgeStart(v2));
+    Assert.assertEquals(2, graph.outDegree(v2));
+    Assert.assertEquals(0, graph.target(graph.edgeStart(v2)));
+    Assert.assertEquals(0.5, graph.weight(graph.edgeStart(v2)), 0);
+    Assert.assertEquals(1, graph.target(graph.edgeStart(v2) + 1));
+    Assert.assertEquals(2.5, graph.weight(graph.edgeStart(v2) + 1), 0);
+
+    Assert.assertEquals(0, graph.outDegree(graph.indexOf(1)));
+    Assert.assertEquals(0, graph.outDegree(graph.indexOf(4)));
+    Assert.assertEquals(4, graph.edgeEnd(graph.indexOf(4)));
+  }
+
+  @Test
+  public void testLocalTargets() {
+    // partition 0 of 2 owns the even vertices
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 2, false);
+    builder.addEdge(2, 4);
+    builder.addEdge(2, 3);
+    CsrGraph graph = builder.build();
+
+    Assert.assertEquals(2, graph.numVertices());
+    Assert.assertTrue(graph.indexOf(4) >= 0);
+    Assert.assertEquals(0, graph.outDegree(graph.indexOf(4)));
+    Assert.assertTrue(graph.indexOf(3) < 0);
+    Assert.assertFalse(graph.isWeighted());
+    Assert.assertEquals(1.0, graph.weight(0), 0);
+  }
+
+  @Test
+  public void testEdgeBlock() {
+    EdgeBlock block = new EdgeBlock(false, 1);
+    block.addEdge(1, 3, 1.0);
+    block.addEdge(1, 2, 1.0);
+    block.addVertex(5);
+    CsrGraphBuilder builder = new CsrGraphBuilder(1, 2, false);
+    builder.add(block);
+    CsrGraph graph = builder.build();
+
+    Assert.assertEquals(3, graph.numVertices());
+    Assert.assertEquals(2, graph.outDegree(graph.indexOf(1)));
+    Assert.assertEquals(0, graph.outDegree(graph.indexOf(3)));
+    Assert.assertTrue(graph.indexOf(2) < 0);
+  }
+
+  @Test
+  public void testIntIds() {
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 1, false);
+    builder.addEdge(Integer.MAX_VALUE, Integer.MIN_VALUE);
+    CsrGraph graph = builder.build();
+
+    Assert.assertTrue(graph.isCompact());
+    Assert.assertEquals(Integer.MIN_VALUE, graph.vertexId(0));
+    Assert.assertEquals(Integer.MAX_VALUE, graph.vertexId(1));
+    Assert.assertEquals(Integer.MIN_VALUE, graph.target(0));
+    Assert.assertTrue(graph.indexOf(Integer.MAX_VALUE + 1L) < 0);
+  }
+
+  @Test
+  public void testLongIds() {
+    long large = Integer.MAX_VALUE + 10L;
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 1, false);
+    builder.addEdge(1, large);
+    builder.addEdge(large, 1);
+    CsrGraph graph = builder.build();
+
+    Assert.assertFalse(graph.isCompact());
+    Assert.assertEquals(2, graph.numVertices());
+    Assert.assertEquals(1, graph.indexOf(large));
+    Assert.assertEquals(large, graph.vertexId(1));
+    Assert.assertEquals(large, graph.target(graph.edgeStart(0)));
+    Assert.assertEquals(1, graph.target(graph.edgeStart(1)));
+  }
+
+  @Test
+  public void testLongTargets() {
+    // the ids of this partition fit in an int, but the remote target does not
+    long large = Integer.MAX_VALUE + 2L;
+    CsrGraphBuilder builder = new CsrGraphBuilder(0, 2, false);
+    builder.addEdge(2, large);
+    CsrGraph graph = builder.build();
+
+    Assert.assertFalse(graph.isCompact());
+    Assert.assertEquals(1, graph.numVertices());
+    Assert.assertEquals(2, graph.vertexId(0));
+    Assert.assertEquals(large, graph.target(0));
+  }
+}
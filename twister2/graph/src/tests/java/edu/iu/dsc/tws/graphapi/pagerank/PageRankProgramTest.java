@@ -0,0 +1,82 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pagerank;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.graphapi.pregel.LocalPregel;
+import edu.iu.dsc.tws.graphapi.pregel.PregelPartition;
+
+public class PageRankProgramTest {
+  /**
+   * Vertices 4 and 5 are dangling, 4 is only reached from a vertex of its own partition
+   */
+  private static final long[][] EDGES = {
+      {0, 1}, {0, 2}, {1, 2}, {2, 0}, {2, 4}, {3, 2}, {3, 5}, {1, 3},
+  };
+
+  private static final int VERTICES = 6;
+
+  private static final int ITERATIONS = 20;
+
+  /**
+   * PageRank computed the way {@link PageRankWorker} does, the rank of the dangling vertices is
+   * distributed to all the vertices
+   */
+  private static double[] expectedRanks() {
+    int[] degree = new int[VERTICES];
+    for (long[] edge : EDGES) {
+      degree[(int) edge[0]]++;
+    }
+    double[] ranks = new double[VERTICES];
+    Arrays.fill(ranks, 1.0 / VERTICES);
+    for (int i = 0; i < ITERATIONS; i++) {
+      double dangling = 0;
+      double[] sums = new double[VERTICES];
+      for (int v = 0; v < VERTICES; v++) {
+        if (degree[v] == 0) {
+          dangling += ranks[v];
+        }
+      }
+      for (long[] edge : EDGES) {
+        sums[(int) edge[1]] += ranks[(int) edge[0]] / degree[(int) edge[0]];
+      }
+      for (int v = 0; v < VERTICES; v++) {
+        ranks[v] = 0.15 / VERTICES + 0.85 * (sums[v] + dangling / VERTICES);
+      }
+    }
+    return ranks;
+  }
+
+  @Test
+  public void testPageRank() {
+    double[] expected = expectedRanks();
+    for (int partitions = 1; partitions <= 3; partitions++) {
+      List<PregelPartition> result = LocalPregel.run(
+          LocalPregel.partition(EDGES, null, partitions),
+          new PageRankProgram(VERTICES, ITERATIONS), ITERATIONS + 1);
+
+      double sum = 0;
+      for (int v = 0; v < VERTICES; v++) {
+        double rank = LocalPregel.value(result, v);
+        Assert.assertEquals(expected[v], rank, 1e-12);
+        sum += rank;
+      }
+      Assert.assertEquals(1.0, sum, 1e-9);
+      Assert.assertEquals(ITERATIONS + 1, result.get(0).getSuperstep());
+    }
+  }
+}
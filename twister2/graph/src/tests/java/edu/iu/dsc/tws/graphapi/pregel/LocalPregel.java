@@ -0,0 +1,130 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+import edu.iu.dsc.tws.graphapi.csr.CsrGraphBuilder;
+
+/**
+ * Runs the supersteps of the {@link PregelEngine} over partitions in the same thread, so that
+ * vertex programs can be tested without a task executor.
+ */
+public final class LocalPregel {
+  private LocalPregel() {
+  }
+
+  /**
+   * Partition an edge list the same way as the graph loader
+   *
+   * @param edges source and target of each edge
+   * @param weights edge weights, null for an unweighted graph
+   * @param numPartitions number of partitions
+   * @return the partitions
+   */
+  public static List<CsrGraph> partition(long[][] edges, double[] weights, int numPartitions) {
+    CsrGraphBuilder[] builders = new CsrGraphBuilder[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      builders[i] = new CsrGraphBuilder(i, numPartitions, weights != null);
+    }
+    for (int e = 0; e < edges.length; e++) {
+      long source = edges[e][0];
+      long target = edges[e][1];
+      int owner = CsrGraph.owner(source, numPartitions);
+      builders[owner].addEdge(source, target, weights != null ? weights[e] : 1.0);
+      int targetOwner = CsrGraph.owner(target, numPartitions);
+      if (targetOwner != owner) {
+        builders[targetOwner].addVertex(target);
+      }
+    }
+
+    List<CsrGraph> graphs = new ArrayList<>();
+    for (CsrGraphBuilder builder : builders) {
+      graphs.add(builder.build());
+    }
+    return graphs;
+  }
+
+  /**
+   * Run a program until it converges
+   *
+   * @param graphs the partitions
+   * @param program the vertex program
+   * @param maxSupersteps maximum number of supersteps
+   * @return the partitions with the final vertex values
+   */
+  public static List<PregelPartition> run(List<CsrGraph> graphs, VertexProgram program,
+                                          int maxSupersteps) {
+    int numPartitions = graphs.size();
+    List<PregelPartition> partitions = new ArrayList<>();
+    for (CsrGraph graph : graphs) {
+      partitions.add(new PregelPartition(graph, program));
+    }
+
+    while (partitions.get(0).getSuperstep() < maxSupersteps
+        && !partitions.get(0).isConverged()) {
+      long computed = 0;
+      long active = 0;
+      double[] sum = new double[1];
+      long[] messages = new long[1];
+      MessageBuffer[] buffers = new MessageBuffer[numPartitions];
+      for (int i = 0; i < numPartitions; i++) {
+        buffers[i] = new MessageBuffer(program.getCombiner(), 8);
+      }
+      MessageSender sender = new MessageSender() {
+        @Override
+        public void send(long target, double message) {
+          buffers[CsrGraph.owner(target, numPartitions)].add(target, message);
+          messages[0]++;
+        }
+
+        @Override
+        public void aggregate(double value) {
+          sum[0] += value;
+        }
+      };
+
+      for (PregelPartition partition : partitions) {
+        partition.swapInbox();
+        computed += partition.compute(program, sender);
+        active += partition.getActive().cardinality();
+      }
+      for (int i = 0; i < numPartitions; i++) {
+        MessageBatch batch = buffers[i].drain();
+        for (int m = 0; m < batch.size(); m++) {
+          if (!partitions.get(i).receive(batch.getTarget(m), batch.getMessage(m),
+              program.getCombiner())) {
+            throw new IllegalStateException("Unknown vertex " + batch.getTarget(m));
+          }
+        }
+      }
+      for (PregelPartition partition : partitions) {
+        partition.completeSuperstep(computed, active, messages[0], sum[0]);
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * The value of a vertex
+   */
+  public static double value(List<PregelPartition> partitions, long vertexId) {
+    PregelPartition partition = partitions.get(CsrGraph.owner(vertexId, partitions.size()));
+    int index = partition.getGraph().indexOf(vertexId);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown vertex " + vertexId);
+    }
+    return partition.getValue(index);
+  }
+}
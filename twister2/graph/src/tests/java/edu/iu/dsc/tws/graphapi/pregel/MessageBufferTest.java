@@ -0,0 +1,89 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageBufferTest {
+
+  private static Map<Long, Double> toMap(MessageBatch batch) {
+    Map<Long, Double> map = new HashMap<>();
+    for (int i = 0; i < batch.size(); i++) {
+      Assert.assertNull(map.put(batch.getTarget(i), batch.getMessage(i)));
+    }
+    return map;
+  }
+
+  @Test
+  public void testCombine() {
+    MessageBuffer buffer = new MessageBuffer(MessageCombiner.SUM, 8);
+    buffer.add(3, 1.0);
+    buffer.add(-3, 5.0);
+    buffer.add(3, 2.0);
+    buffer.add(3, 4.0);
+    Assert.assertEquals(2, buffer.size());
+
+    Map<Long, Double> messages = toMap(buffer.drain());
+    Assert.assertEquals(2, messages.size());
+    Assert.assertEquals(7.0, messages.get(3L), 0);
+    Assert.assertEquals(5.0, messages.get(-3L), 0);
+  }
+
+  @Test
+  public void testMinCombiner() {
+    MessageBuffer buffer = new MessageBuffer(MessageCombiner.MIN, 8);
+    buffer.add(1, 4.0);
+    buffer.add(1, 2.0);
+    buffer.add(1, 3.0);
+
+    Map<Long, Double> messages = toMap(buffer.drain());
+    Assert.assertEquals(2.0, messages.get(1L), 0);
+  }
+
+  @Test
+  public void testGrow() {
+    MessageBuffer buffer = new MessageBuffer(MessageCombiner.SUM, 8);
+    int targets = 1000;
+    for (int round = 0; round < 2; round++) {
+      for (long t = 0; t < targets; t++) {
+        buffer.add(t * 1024, t);
+      }
+    }
+    Assert.assertEquals(targets, buffer.size());
+
+    Map<Long, Double> messages = toMap(buffer.drain());
+    Assert.assertEquals(targets, messages.size());
+    for (long t = 0; t < targets; t++) {
+      Assert.assertEquals(2.0 * t, messages.get(t * 1024), 0);
+    }
+  }
+
+  @Test
+  public void testDrain() {
+    MessageBuffer buffer = new MessageBuffer(MessageCombiner.SUM, 8);
+    buffer.add(1, 1.0);
+    buffer.add(2, 2.0);
+    Assert.assertEquals(2, buffer.drain().size());
+    Assert.assertEquals(0, buffer.size());
+    Assert.assertEquals(0, buffer.drain().size());
+
+    // the drained messages are not combined with the new ones
+    buffer.add(1, 3.0);
+    Map<Long, Double> messages = toMap(buffer.drain());
+    Assert.assertEquals(1, messages.size());
+    Assert.assertEquals(3.0, messages.get(1L), 0);
+  }
+}
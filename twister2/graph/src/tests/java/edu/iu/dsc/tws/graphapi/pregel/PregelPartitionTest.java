@@ -0,0 +1,103 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.graphapi.csr.CsrGraph;
+
+public class PregelPartitionTest {
+  private static final VertexProgram PROGRAM = new VertexProgram() {
+    @Override
+    public double initialValue(long vertexId, int outDegree) {
+      return vertexId;
+    }
+
+    @Override
+    public void compute(PregelVertex vertex) {
+      vertex.voteToHalt();
+    }
+
+    @Override
+    public MessageCombiner getCombiner() {
+      return MessageCombiner.SUM;
+    }
+  };
+
+  private PregelPartition partition;
+
+  @Before
+  public void setUp() {
+    List<CsrGraph> graphs = LocalPregel.partition(new long[][]{{0, 2}, {2, 4}}, null, 1);
+    partition = new PregelPartition(graphs.get(0), PROGRAM);
+  }
+
+  @Test
+  public void testInitialValues() {
+    Assert.assertEquals(3, partition.getGraph().numVertices());
+    for (int v = 0; v < 3; v++) {
+      Assert.assertEquals(partition.getGraph().vertexId(v), partition.getValue(v), 0);
+    }
+    Assert.assertEquals(3, partition.getActive().cardinality());
+    Assert.assertFalse(partition.isConverged());
+  }
+
+  @Test
+  public void testSwapInbox() {
+    int v2 = partition.getGraph().indexOf(2);
+    int v4 = partition.getGraph().indexOf(4);
+    Assert.assertTrue(partition.receive(2, 1.0, MessageCombiner.SUM));
+    Assert.assertTrue(partition.receive(2, 2.0, MessageCombiner.SUM));
+    Assert.assertTrue(partition.receive(4, 5.0, MessageCombiner.SUM));
+    // received messages are not visible until the next superstep
+    Assert.assertTrue(partition.getHasMessage().isEmpty());
+
+    partition.swapInbox();
+    Assert.assertEquals(2, partition.getHasMessage().cardinality());
+    Assert.assertEquals(3.0, partition.getInbox()[v2], 0);
+    Assert.assertEquals(5.0, partition.getInbox()[v4], 0);
+
+    // a message for the next superstep is not combined with the current one
+    Assert.assertTrue(partition.receive(4, 7.0, MessageCombiner.SUM));
+    Assert.assertEquals(5.0, partition.getInbox()[v4], 0);
+
+    partition.swapInbox();
+    Assert.assertEquals(1, partition.getHasMessage().cardinality());
+    Assert.assertFalse(partition.getHasMessage().get(v2));
+    Assert.assertEquals(7.0, partition.getInbox()[v4], 0);
+
+    partition.swapInbox();
+    Assert.assertTrue(partition.getHasMessage().isEmpty());
+  }
+
+  @Test
+  public void testUnknownTarget() {
+    Assert.assertFalse(partition.receive(3, 1.0, MessageCombiner.SUM));
+    Assert.assertFalse(partition.receive(Long.MAX_VALUE, 1.0, MessageCombiner.SUM));
+    partition.swapInbox();
+    Assert.assertTrue(partition.getHasMessage().isEmpty());
+  }
+
+  @Test
+  public void testConverged() {
+    List<PregelPartition> partitions = LocalPregel.run(
+        LocalPregel.partition(new long[][]{{0, 2}, {2, 4}}, null, 2), PROGRAM, 10);
+    Assert.assertEquals(1, partitions.get(0).getSuperstep());
+    Assert.assertEquals(3, partitions.get(0).getComputedVertices());
+    Assert.assertTrue(partitions.get(0).isConverged());
+    Assert.assertEquals(4, LocalPregel.value(partitions, 4), 0);
+  }
+}
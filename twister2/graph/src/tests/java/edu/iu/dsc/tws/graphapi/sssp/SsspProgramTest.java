@@ -0,0 +1,67 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.sssp;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.graphapi.pregel.LocalPregel;
+import edu.iu.dsc.tws.graphapi.pregel.PregelPartition;
+
+public class SsspProgramTest {
+  /**
+   * Vertex 6 is a sink only reached from a vertex of its own partition, vertex 5 is unreachable
+   */
+  private static final long[][] EDGES = {
+      {1, 2}, {1, 3}, {2, 3}, {3, 4}, {2, 4}, {4, 1}, {5, 4}, {4, 6}, {2, 0},
+  };
+
+  private static final double[] WEIGHTS = {4, 1, 2, 5, 8, 1, 1, 2, 7};
+
+  private static final int VERTICES = 7;
+
+  /**
+   * Distances relaxed over all the edges as in {@link SingleSourceShortestPathWorker}
+   */
+  private static double[] expectedDistances(int source) {
+    double[] distances = new double[VERTICES];
+    Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    distances[source] = 0;
+    for (int i = 0; i < VERTICES; i++) {
+      for (int e = 0; e < EDGES.length; e++) {
+        int s = (int) EDGES[e][0];
+        int t = (int) EDGES[e][1];
+        distances[t] = Math.min(distances[t], distances[s] + WEIGHTS[e]);
+      }
+    }
+    return distances;
+  }
+
+  @Test
+  public void testShortestPaths() {
+    double[] expected = expectedDistances(1);
+    Assert.assertEquals(8, expected[6], 0);
+    for (int partitions = 1; partitions <= 3; partitions++) {
+      List<PregelPartition> result = LocalPregel.run(
+          LocalPregel.partition(EDGES, WEIGHTS, partitions),
+          new SsspProgram(1), Integer.MAX_VALUE);
+
+      for (int v = 0; v < VERTICES; v++) {
+        Assert.assertEquals(expected[v], LocalPregel.value(result, v), 0);
+      }
+      Assert.assertTrue(result.get(0).isConverged());
+    }
+  }
+}
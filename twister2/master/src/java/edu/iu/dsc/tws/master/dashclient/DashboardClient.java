@@ -14,6 +14,7 @@ package edu.iu.dsc.tws.master.dashclient;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +33,7 @@ import edu.iu.dsc.tws.master.dashclient.messages.JobStateChange;
 import edu.iu.dsc.tws.master.dashclient.messages.RegisterJob;
 import edu.iu.dsc.tws.master.dashclient.messages.RegisterWorker;
 import edu.iu.dsc.tws.master.dashclient.messages.ScaledWorkers;
+import edu.iu.dsc.tws.master.dashclient.messages.WorkerMetrics;
 import edu.iu.dsc.tws.master.dashclient.messages.WorkerStateChange;
 import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
 import edu.iu.dsc.tws.proto.system.job.JobAPI;
@@ -286,6 +288,44 @@ public class DashboardClient {
     }
   }
 
+  /**
+   * send the latest metrics of a worker to Dashboard
+   */
+  public boolean workerMetrics(int workerID, Map<String, Long> values) {
+    WorkerMetrics workerMetrics = new WorkerMetrics(values);
+    String endPoint = dashHost + "/workers/" + jobID + "/" + workerID + "/metrics/";
+
+    String jsonStr;
+    try {
+      jsonStr = mapper.writeValueAsString(workerMetrics);
+    } catch (JsonProcessingException e) {
+      LOG.log(Level.SEVERE, "Could not convert java entity object to Json string.", e);
+      return false;
+    }
+
+    HttpPost httpPost = constructHttpPost(endPoint, jsonStr);
+    if (httpPost == null) {
+      return false;
+    }
+
+    try {
+      HttpResponse response = httpClient.execute(httpPost);
+      EntityUtils.consume(response.getEntity());
+      if (response.getStatusLine().getStatusCode() == 200) {
+        LOG.fine("Sent metrics of worker " + workerID + " to Dashboard successfully.");
+        return true;
+      } else {
+        LOG.warning("Sending metrics of worker " + workerID + " to Dashboard is unsuccessful."
+            + " Response: " + response.toString());
+        return false;
+      }
+
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Could not execute Http Request.", e);
+      return false;
+    }
+  }
+
   public void close() {
     try {
       httpClient.close();
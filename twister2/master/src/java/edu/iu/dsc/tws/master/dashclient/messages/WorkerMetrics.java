@@ -0,0 +1,34 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.master.dashclient.messages;
+
+import java.util.Map;
+
+public class WorkerMetrics {
+
+  private Map<String, Long> values;
+
+  public WorkerMetrics() {
+  }
+
+  public WorkerMetrics(Map<String, Long> values) {
+    this.values = values;
+  }
+
+  public Map<String, Long> getValues() {
+    return values;
+  }
+
+  public void setValues(Map<String, Long> values) {
+    this.values = values;
+  }
+}
@@ -0,0 +1,107 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.master.server;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.protobuf.Message;
+
+import edu.iu.dsc.tws.api.net.request.MessageHandler;
+import edu.iu.dsc.tws.api.net.request.RequestID;
+import edu.iu.dsc.tws.common.net.tcp.request.RRServer;
+import edu.iu.dsc.tws.master.dashclient.DashboardClient;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Handles the metrics messages sent by the workers.
+ * It keeps the latest values of each worker and forwards them to the Dashboard.
+ * Dashboard messages are sent from a separate thread so that the job master looper
+ * is not blocked by the http calls.
+ */
+public class JMMetricsHandler implements MessageHandler {
+  private static final Logger LOG = Logger.getLogger(JMMetricsHandler.class.getName());
+
+  private RRServer rrServer;
+  private DashboardClient dashClient;
+
+  /**
+   * the latest metrics of each worker
+   */
+  private Map<Integer, Map<String, Long>> workerMetrics = new ConcurrentHashMap<>();
+
+  private ExecutorService dashExecutor;
+
+  public JMMetricsHandler(RRServer rrServer, DashboardClient dashClient) {
+    this.rrServer = rrServer;
+    this.dashClient = dashClient;
+
+    if (dashClient != null) {
+      dashExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "jm-metrics-dashboard");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+
+    rrServer.registerRequestHandler(JobMasterAPI.WorkerMetrics.newBuilder(), this);
+    rrServer.registerRequestHandler(JobMasterAPI.WorkerMetricsResponse.newBuilder(), this);
+  }
+
+  @Override
+  public void onMessage(RequestID id, int workerId, Message message) {
+
+    if (message instanceof JobMasterAPI.WorkerMetrics) {
+      JobMasterAPI.WorkerMetrics metricsMessage = (JobMasterAPI.WorkerMetrics) message;
+      int workerID = metricsMessage.getWorkerID();
+      Map<String, Long> values = metricsMessage.getValuesMap();
+      workerMetrics.put(workerID, values);
+
+      JobMasterAPI.WorkerMetricsResponse response = JobMasterAPI.WorkerMetricsResponse.newBuilder()
+          .setWorkerID(workerID)
+          .build();
+      rrServer.sendResponse(id, response);
+
+      if (dashExecutor != null) {
+        try {
+          dashExecutor.execute(() -> dashClient.workerMetrics(workerID, values));
+        } catch (RejectedExecutionException e) {
+          LOG.log(Level.FINE, "Metrics handler is closed, not sending metrics to Dashboard", e);
+        }
+      }
+    } else {
+      LOG.log(Level.SEVERE, "Un-known message type received: " + message);
+    }
+  }
+
+  /**
+   * the latest metrics reported by a worker
+   *
+   * @param workerID id of the worker
+   * @return metric values, empty if the worker has not reported any
+   */
+  public Map<String, Long> getWorkerMetrics(int workerID) {
+    return workerMetrics.getOrDefault(workerID, Collections.emptyMap());
+  }
+
+  public void close() {
+    if (dashExecutor != null) {
+      dashExecutor.shutdownNow();
+    }
+  }
+}
@@ -168,6 +168,11 @@ public class JobMaster {
    */
   private JMWorkerHandler workerHandler;
 
+  /**
+   * handles the metrics reported by the workers
+   */
+  private JMMetricsHandler metricsHandler;
+
   private BarrierMonitor barrierMonitor;
 
   /**
@@ -304,6 +309,8 @@ public class JobMaster {
       workerMonitor.setWorkerEventSender(workerHandler);
     }
 
+    metricsHandler = new JMMetricsHandler(rrServer, dashClient);
+
     // initialize BarrierMonitor
     barrierMonitor = new BarrierMonitor(workerMonitor, jobFailureWatcher);
     if (ZKContext.isZooKeeperServerUsed(config)) {
@@ -439,6 +446,10 @@ public class JobMaster {
       jobTerminator.terminateJob(job.getJobId(), finalState);
     }
 
+    if (metricsHandler != null) {
+      metricsHandler.close();
+    }
+
     if (dashClient != null) {
       dashClient.close();
     }
@@ -534,6 +545,10 @@ public class JobMaster {
     return zkMasterController;
   }
 
+  public JMMetricsHandler getMetricsHandler() {
+    return metricsHandler;
+  }
+
   public JMWorkerHandler getWorkerHandler() {
     return workerHandler;
   }
@@ -0,0 +1,117 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.master.worker;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.protobuf.Message;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.metrics.MetricsContext;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
+import edu.iu.dsc.tws.api.net.request.MessageHandler;
+import edu.iu.dsc.tws.api.net.request.RequestID;
+import edu.iu.dsc.tws.common.net.tcp.request.RRClient;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Periodically sends a snapshot of the worker metrics to the job master.
+ * Sends are not blocking, a report that can not be sent is dropped and the next one
+ * carries the latest values.
+ */
+public class JMMetricsReporter implements MessageHandler {
+  private static final Logger LOG = Logger.getLogger(JMMetricsReporter.class.getName());
+
+  private RRClient rrClient;
+  private int workerID;
+  private long interval;
+
+  private volatile boolean stopped = false;
+  private Thread reporterThread;
+
+  public JMMetricsReporter(RRClient rrClient, int workerID, Config config) {
+    this.rrClient = rrClient;
+    this.workerID = workerID;
+    this.interval = MetricsContext.reportInterval(config);
+
+    rrClient.registerResponseHandler(JobMasterAPI.WorkerMetrics.newBuilder(), this);
+    rrClient.registerResponseHandler(JobMasterAPI.WorkerMetricsResponse.newBuilder(), this);
+  }
+
+  /**
+   * start the reporter thread
+   */
+  public void start() {
+    reporterThread = new Thread(this::reportLoop, "metrics-reporter-" + workerID);
+    reporterThread.setDaemon(true);
+    reporterThread.start();
+  }
+
+  /**
+   * stop the reporter thread, the last values are not sent
+   */
+  public void stop() {
+    stopped = true;
+    if (reporterThread != null) {
+      reporterThread.interrupt();
+    }
+  }
+
+  private void reportLoop() {
+    while (!stopped) {
+      try {
+        Thread.sleep(interval);
+      } catch (InterruptedException e) {
+        continue;
+      }
+      report();
+    }
+  }
+
+  /**
+   * send the current values of the metrics
+   *
+   * @return true if the message is handed to the channel
+   */
+  public boolean report() {
+    Map<String, Long> values = MetricsRegistry.getInstance().snapshot();
+    if (values.isEmpty()) {
+      return true;
+    }
+
+    JobMasterAPI.WorkerMetrics workerMetrics = JobMasterAPI.WorkerMetrics.newBuilder()
+        .setWorkerID(workerID)
+        .putAllValues(values)
+        .build();
+
+    try {
+      RequestID requestID = rrClient.sendRequest(workerMetrics);
+      if (requestID == null) {
+        LOG.fine("Could not send the metrics of worker " + workerID + " to the job master.");
+        return false;
+      }
+    } catch (RuntimeException e) {
+      LOG.log(Level.WARNING, "Failed to send the metrics of worker " + workerID, e);
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void onMessage(RequestID id, int senderWorkerID, Message message) {
+    if (!(message instanceof JobMasterAPI.WorkerMetricsResponse)) {
+      LOG.warning("Received unknown message type: " + message);
+    }
+  }
+}
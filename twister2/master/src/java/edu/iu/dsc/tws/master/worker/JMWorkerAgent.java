@@ -22,6 +22,8 @@ import com.google.protobuf.Message;
 
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.exceptions.net.BlockingSendException;
+import edu.iu.dsc.tws.api.metrics.MetricsContext;
+import edu.iu.dsc.tws.api.metrics.MetricsRegistry;
 import edu.iu.dsc.tws.api.net.StatusCode;
 import edu.iu.dsc.tws.api.net.request.ConnectHandler;
 import edu.iu.dsc.tws.api.net.request.MessageHandler;
@@ -77,6 +79,7 @@ public final class JMWorkerAgent {
   private JMWorkerController workerController;
   private JMDriverAgent driverAgent;
   private JMWorkerStatusUpdater statusUpdater;
+  private JMMetricsReporter metricsReporter;
 
   private boolean registrationSucceeded;
   private boolean disconnected = false;
@@ -185,6 +188,11 @@ public final class JMWorkerAgent {
     driverAgent = new JMDriverAgent(rrClient, thisWorker.getWorkerID());
     statusUpdater = new JMWorkerStatusUpdater(rrClient, thisWorker.getWorkerID(), config);
 
+    if (MetricsContext.isEnabled(config)) {
+      MetricsRegistry.init(config);
+      metricsReporter = new JMMetricsReporter(rrClient, thisWorker.getWorkerID(), config);
+    }
+
     // protocol buffer message registrations
     ResponseMessageHandler handler = new ResponseMessageHandler();
     rrClient.registerResponseHandler(JobMasterAPI.RegisterWorker.newBuilder(), handler);
@@ -211,6 +219,10 @@ public final class JMWorkerAgent {
 
     // initialize checkpointing client
     this.checkpointClient.init();
+
+    if (metricsReporter != null) {
+      metricsReporter.start();
+    }
   }
 
   /**
@@ -503,6 +515,9 @@ public final class JMWorkerAgent {
    * stop the JMWorkerAgent
    */
   public void close() {
+    if (metricsReporter != null) {
+      metricsReporter.stop();
+    }
     stopLooper = true;
     looper.wakeup();
   }
@@ -6,6 +6,7 @@
 
 package edu.iu.dsc.tws.task.impl.ops;
 
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.compute.OperationNames;
 import edu.iu.dsc.tws.api.compute.graph.Edge;
 import edu.iu.dsc.tws.task.impl.ComputeConnection;
@@ -16,6 +17,16 @@ public class BroadcastConfig extends AbstractOpsConfig<BroadcastConfig> {
     super(source, OperationNames.BROADCAST, computeConnection);
   }
 
+  /**
+   * Relay large objects through the broadcast tree in buffer sized chunks
+   *
+   * @param pipelined weather to pipeline the broadcast
+   * @return this config
+   */
+  public BroadcastConfig withPipelining(boolean pipelined) {
+    return this.withProperty(CommunicationContext.BROADCAST_PIPELINED, pipelined);
+  }
+
   @Override
   protected Edge updateEdge(Edge newEdge) {
     return newEdge;
@@ -11,6 +11,7 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.task.window.collectives;
 
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
@@ -53,6 +54,16 @@ public abstract class AggregateWindow<T> extends BaseWindowedSink<T> {
     return aggregateLateMessages(lateMessages.getContent());
   }
 
+  @Override
+  protected IFunction<T> getPaneFunction() {
+    return aggregateWindowedFunction;
+  }
+
+  @Override
+  protected void onPaneWindow(T window) {
+    aggregate(window);
+  }
+
   @Override
   public boolean getExpire(IWindowMessage<T> expiredMessages) {
     return false;
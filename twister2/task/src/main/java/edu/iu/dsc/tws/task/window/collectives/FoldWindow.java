@@ -11,6 +11,7 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.task.window.collectives;
 
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
@@ -64,6 +65,16 @@ public abstract class FoldWindow<T, K> extends BaseWindowedSink<T> {
     return true;
   }
 
+  @Override
+  protected IFunction<T> getPaneFunction() {
+    return foldWindowedFunction;
+  }
+
+  @Override
+  protected void onPaneWindow(T window) {
+    fold(foldWindowedFunction.computeFold(window));
+  }
+
   @Override
   public boolean getExpire(IWindowMessage<T> expiredMessages) {
     return false;
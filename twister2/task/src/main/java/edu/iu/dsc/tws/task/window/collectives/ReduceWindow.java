@@ -11,6 +11,7 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.task.window.collectives;
 
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
@@ -54,6 +55,16 @@ public abstract class ReduceWindow<T> extends BaseWindowedSink<T> {
     return false;
   }
 
+  @Override
+  protected IFunction<T> getPaneFunction() {
+    return reduceWindowedFunction;
+  }
+
+  @Override
+  protected void onPaneWindow(T window) {
+    reduce(window);
+  }
+
   @Override
   public boolean getExpire(IWindowMessage<T> expiredMessages) {
     return false;
@@ -72,4 +72,19 @@ public class WindowConfig implements Serializable {
     }
   }
 
+  /**
+   * The way the windows are computed
+   */
+  public enum Engine {
+    /**
+     * Keep the events of a window and pass them to the window function when it fires
+     */
+    EVENTS,
+
+    /**
+     * Combine the events in to non overlapping panes as they arrive and combine the panes
+     * when a window fires. This is only used by the reduce, aggregate and fold windows.
+     */
+    PANES
+  }
 }
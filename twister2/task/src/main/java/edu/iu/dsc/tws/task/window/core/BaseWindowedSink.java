@@ -18,9 +18,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.api.compute.TaskContext;
 import edu.iu.dsc.tws.api.compute.modifiers.Closable;
+import edu.iu.dsc.tws.api.compute.modifiers.WatermarkReceptor;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.task.window.IWindowCompute;
 import edu.iu.dsc.tws.task.window.api.GlobalStreamId;
@@ -30,8 +33,10 @@ import edu.iu.dsc.tws.task.window.api.IWindow;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.api.WindowLifeCycleListener;
 import edu.iu.dsc.tws.task.window.config.WindowConfig;
+import edu.iu.dsc.tws.task.window.event.WatermarkEvent;
 import edu.iu.dsc.tws.task.window.event.WatermarkEventGenerator;
 import edu.iu.dsc.tws.task.window.exceptions.InvalidWindow;
+import edu.iu.dsc.tws.task.window.manage.PaneWindowManager;
 import edu.iu.dsc.tws.task.window.manage.WindowManager;
 import edu.iu.dsc.tws.task.window.policy.eviction.count.CountEvictionPolicy;
 import edu.iu.dsc.tws.task.window.policy.eviction.count.WatermarkCountEvictionPolicy;
@@ -47,7 +52,7 @@ import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.task.window.util.WindowUtils;
 
 public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T>
-    implements IWindowCompute<T>, Closable {
+    implements IWindowCompute<T>, Closable, WatermarkReceptor {
 
   private static final Logger LOG = Logger.getLogger(BaseWindowedSink.class.getName());
 
@@ -87,6 +92,20 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
 
   protected WatermarkEventGenerator<T> watermarkEventGenerator;
 
+  protected WindowConfig.Engine windowEngine = WindowConfig.Engine.EVENTS;
+
+  protected PaneWindowManager<T> paneWindowManager;
+
+  /**
+   * The watermark of the inputs, once the inputs send watermarks we use them instead of
+   * estimating the watermarks from the timestamps of the messages
+   */
+  protected long inputWatermark = Watermarks.NONE;
+
+  /**
+   * The last watermark given to the window manager
+   */
+  private long windowWatermark = Watermarks.NONE;
 
   protected BaseWindowedSink() {
   }
@@ -108,6 +127,18 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
             this.windowParameter.getSldingDurationSize());
       }
 
+      if (this.windowEngine == WindowConfig.Engine.PANES) {
+        IFunction<T> paneFunction = getPaneFunction();
+        if (paneFunction != null && !isTimestamped()) {
+          this.paneWindowManager = new PaneWindowManager<>(this.iWindow, paneFunction,
+              this::onPaneWindow);
+          this.paneWindowManager.start();
+          return;
+        }
+        LOG.warning("Pane windows are only supported by reduce, aggregate and fold windows "
+            + "without timestamps, using the event windows");
+      }
+
       if (iTimestampExtractor != null) {
         // TODO : handle delayed Stream
 
@@ -137,16 +168,24 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
 
   @Override
   public boolean execute(IMessage<T> message) {
+    if (paneWindowManager != null) {
+      paneWindowManager.add(message);
+      return true;
+    }
+
     if (isTimestamped()) {
       long time = iTimestampExtractor.extractTimestamp(message.getContent());
-      GlobalStreamId streamId = new GlobalStreamId(message.edge());
-      if (watermarkEventGenerator.track(streamId, time)) {
+      boolean onTime;
+      if (inputWatermark != Watermarks.NONE) {
+        onTime = time >= inputWatermark - maxLagMs;
+      } else {
+        onTime = watermarkEventGenerator.track(new GlobalStreamId(message.edge()), time);
+      }
+
+      if (onTime) {
         this.windowManager.add(message, time);
       } else {
-        // TODO : handle the late tuple stream a delayed message won't be handled unless a
-        //  late stream
-        // TODO : Here another latemessage function can be called or we can bundle the late messages
-        //  with the next windowing message
+        // the windows of this message are already computed
         getLateMessages(message);
       }
     } else {
@@ -155,6 +194,31 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
     return true;
   }
 
+  /**
+   * The inputs of the task sent a watermark. The windows fire when this watermark minus the
+   * allowed lateness passes their end, so we stop the timer based watermarks.
+   *
+   * @param watermark the new watermark
+   */
+  @Override
+  public void onWatermark(long watermark) {
+    if (!isTimestamped()) {
+      return;
+    }
+
+    if (watermarkEventGenerator != null) {
+      watermarkEventGenerator.shutdown();
+      watermarkEventGenerator = null;
+    }
+    inputWatermark = watermark;
+
+    long delayed = watermark - maxLagMs;
+    if (delayed > windowWatermark) {
+      windowWatermark = delayed;
+      this.windowManager.add(new WatermarkEvent<>(delayed));
+    }
+  }
+
   public BaseWindowedSink<T> withTumblingCountWindow(long tumblingCount) {
     this.windowParameter = new WindowParameter();
     this.windowParameter.withTumblingCountWindow(tumblingCount);
@@ -206,6 +270,30 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
     return this;
   }
 
+  public BaseWindowedSink<T> withWindowEngine(WindowConfig.Engine engine) {
+    this.windowEngine = engine;
+    return this;
+  }
+
+  /**
+   * The function used to combine the events when the windows are computed with panes. Windows
+   * which need all the events of a window return null.
+   *
+   * @return the function or null
+   */
+  protected IFunction<T> getPaneFunction() {
+    return null;
+  }
+
+  /**
+   * Called with the combined value of the events of a window when the windows are computed
+   * with panes
+   *
+   * @param window combined value of the window
+   */
+  protected void onPaneWindow(T window) {
+  }
+
 
   protected WindowLifeCycleListener<T> newWindowLifeCycleListener() {
     return new WindowLifeCycleListener<T>() {
@@ -301,6 +389,9 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
     if (watermarkEventGenerator != null) {
       watermarkEventGenerator.shutdown();
     }
+    if (paneWindowManager != null) {
+      paneWindowManager.shutdown();
+    }
     this.windowManager.shutdown();
   }
 
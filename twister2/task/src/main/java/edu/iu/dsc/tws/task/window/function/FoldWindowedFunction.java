@@ -13,4 +13,17 @@ package edu.iu.dsc.tws.task.window.function;
 
 public interface FoldWindowedFunction<T, K> extends IWindowFunction<T> {
   K computeFold();
+
+  /**
+   * Compute the fold of the combined value of a window. This is used when the windows are
+   * computed with panes, where the last value returned by onMessage need not be the window, so
+   * functions used with pane windows should override it. By default {@link #computeFold()} is
+   * returned.
+   *
+   * @param window combined value of the window
+   * @return the fold
+   */
+  default K computeFold(T window) {
+    return computeFold();
+  }
 }
@@ -0,0 +1,226 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.window.manage;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.compute.IFunction;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.task.window.api.IWindow;
+import edu.iu.dsc.tws.task.window.config.SlidingCountWindow;
+import edu.iu.dsc.tws.task.window.config.TumblingCountWindow;
+import edu.iu.dsc.tws.task.window.policy.trigger.IWindowingPolicy;
+import edu.iu.dsc.tws.task.window.policy.trigger.duration.DurationWindowPolicy;
+
+/**
+ * Computes windows by pre aggregating the events in to non overlapping panes. The size of a
+ * pane is the greatest common divisor of the window length and the sliding length, so every
+ * window is made of whole panes. Each event is combined in to the current pane once, and a
+ * window is computed by combining the panes using a {@link SlidingPaneAggregator}. Unlike the
+ * {@link WindowManager}, events are not kept, so the cost per event does not depend on the
+ * window length.
+ *
+ * Count windows fire when the last pane of a slide is complete. Duration windows fire from a
+ * {@link DurationWindowPolicy} and cover the panes overlapping the window length, including
+ * the pane being filled, so the start of a window is rounded to the pane size.
+ *
+ * @param <T> type of the events
+ */
+public class PaneWindowManager<T> implements IManager<T> {
+
+  private static final Logger LOG = Logger.getLogger(PaneWindowManager.class.getName());
+
+  private static final long serialVersionUID = -6012954129349751342L;
+
+  /**
+   * Do not include the current millisecond when a duration window fires, as events
+   * might still be added to it
+   */
+  private static final long TRIGGER_CALL_TIME = 1;
+
+  private final IFunction<T> function;
+
+  private final Consumer<T> windowListener;
+
+  private final boolean countWindow;
+
+  private final long paneSize;
+
+  private final long panesPerWindow;
+
+  private final long panesPerSlide;
+
+  private final long slidingLength;
+
+  private final SlidingPaneAggregator<T> aggregator;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Aggregate of the pane being filled
+   */
+  private T paneValue;
+
+  /**
+   * Index of the pane being filled
+   */
+  private long paneIndex = -1;
+
+  /**
+   * Number of events in the pane being filled, used by the count windows
+   */
+  private long paneEvents = 0;
+
+  private IWindowingPolicy<T> trigger;
+
+  /**
+   * Create the manager
+   *
+   * @param window the window
+   * @param function function used to combine the events, it should be associative and should
+   * not modify its arguments
+   * @param windowListener called with the aggregate of a window when it fires, the aggregate
+   * should not be modified
+   */
+  public PaneWindowManager(IWindow window, IFunction<T> function, Consumer<T> windowListener) {
+    this.function = function;
+    this.windowListener = windowListener;
+    this.countWindow = window instanceof SlidingCountWindow
+        || window instanceof TumblingCountWindow;
+    this.paneSize = gcd(window.getWindowLength(), window.getSlidingLength());
+    this.panesPerWindow = window.getWindowLength() / paneSize;
+    this.panesPerSlide = window.getSlidingLength() / paneSize;
+    this.slidingLength = window.getSlidingLength();
+    this.aggregator = new SlidingPaneAggregator<>(function);
+    LOG.fine(() -> String.format("Pane windows with pane size %d, %d panes per window",
+        paneSize, panesPerWindow));
+  }
+
+  /**
+   * Start the trigger of the duration windows
+   */
+  public void start() {
+    if (!countWindow) {
+      this.trigger = new DurationWindowPolicy<>(slidingLength, this, null);
+      this.trigger.start();
+    }
+  }
+
+  public void shutdown() {
+    if (trigger != null) {
+      trigger.shutdown();
+    }
+  }
+
+  @Override
+  public void add(IMessage<T> message) {
+    add(message.getContent(), System.currentTimeMillis());
+  }
+
+  /**
+   * Add an event
+   *
+   * @param value value of the event
+   * @param timestamp time of the event, only used by the duration windows
+   */
+  public void add(T value, long timestamp) {
+    T window = null;
+    lock.lock();
+    try {
+      if (countWindow) {
+        paneValue = combine(paneValue, value);
+        if (++paneEvents == paneSize) {
+          closePane(++paneIndex);
+          if ((paneIndex + 1) % panesPerSlide == 0) {
+            window = aggregator.query();
+          }
+        }
+      } else {
+        long index = timestamp / paneSize;
+        if (index > paneIndex) {
+          closePane(paneIndex);
+          paneIndex = index;
+        }
+        // events going back in time are added to the current pane
+        paneValue = combine(paneValue, value);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (window != null) {
+      windowListener.accept(window);
+    }
+  }
+
+  @Override
+  public boolean onEvent() {
+    return fire(System.currentTimeMillis() - TRIGGER_CALL_TIME);
+  }
+
+  /**
+   * Compute the duration window ending at the given time
+   *
+   * @param time end of the window
+   * @return true if the window had events
+   */
+  public boolean fire(long time) {
+    T window;
+    lock.lock();
+    try {
+      long current = time / paneSize;
+      long first = current - panesPerWindow + 1;
+      if (paneIndex >= 0 && paneIndex < current) {
+        // no more events will be added to this pane
+        closePane(paneIndex);
+        paneIndex = current;
+      }
+      aggregator.evictBefore(first);
+      window = aggregator.query();
+      if (paneIndex >= first && paneIndex <= current) {
+        window = combine(window, paneValue);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (window != null) {
+      windowListener.accept(window);
+      return true;
+    }
+    LOG.log(Level.FINE, "No events in the window");
+    return false;
+  }
+
+  private void closePane(long index) {
+    if (paneValue != null) {
+      aggregator.push(index, paneValue);
+    }
+    aggregator.evictBefore(index - panesPerWindow + 1);
+    paneValue = null;
+    paneEvents = 0;
+  }
+
+  private T combine(T older, T newer) {
+    if (older == null) {
+      return newer;
+    } else if (newer == null) {
+      return older;
+    }
+    return function.onMessage(older, newer);
+  }
+
+  private static long gcd(long a, long b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+}
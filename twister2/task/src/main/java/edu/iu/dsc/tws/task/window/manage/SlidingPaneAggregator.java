@@ -0,0 +1,142 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.window.manage;
+
+import java.util.Arrays;
+
+import edu.iu.dsc.tws.api.compute.IFunction;
+
+/**
+ * Keeps the aggregates of the panes of a sliding window using two stacks, so that adding a
+ * pane, evicting the oldest pane and getting the aggregate of the window are O(1) amortized
+ * without requiring an inverse of the function.
+ *
+ * New panes are pushed to the back stack while keeping the running aggregate of the back.
+ * Panes are evicted from the front stack, where each element holds the aggregate of itself
+ * and the newer elements of the front. When the front is empty, the back is moved to it.
+ * The function is always applied in the order of the panes, so it need not be commutative.
+ *
+ * The aggregates of the panes are shared between the stacks and returned by {@link #query()}
+ * without copying them, so the function should not modify its arguments and should return a new
+ * value instead, and the caller should not modify the returned aggregate.
+ *
+ * @param <T> type of the aggregate
+ */
+public class SlidingPaneAggregator<T> {
+
+  private static final int INITIAL_SIZE = 16;
+
+  private final IFunction<T> function;
+
+  private long[] frontIndexes = new long[INITIAL_SIZE];
+
+  private Object[] frontAggregates = new Object[INITIAL_SIZE];
+
+  private int frontSize = 0;
+
+  private long[] backIndexes = new long[INITIAL_SIZE];
+
+  private Object[] backValues = new Object[INITIAL_SIZE];
+
+  private int backSize = 0;
+
+  private T backAggregate;
+
+  public SlidingPaneAggregator(IFunction<T> function) {
+    this.function = function;
+  }
+
+  /**
+   * Add a pane as the newest pane of the window
+   *
+   * @param index index of the pane, indexes should not decrease
+   * @param value aggregate of the pane
+   */
+  public void push(long index, T value) {
+    if (backSize == backIndexes.length) {
+      backIndexes = Arrays.copyOf(backIndexes, backSize * 2);
+      backValues = Arrays.copyOf(backValues, backSize * 2);
+    }
+    backIndexes[backSize] = index;
+    backValues[backSize++] = value;
+    backAggregate = combine(backAggregate, value);
+  }
+
+  /**
+   * Remove the panes with an index less than the given index
+   *
+   * @param index lowest index to keep
+   */
+  public void evictBefore(long index) {
+    while (size() > 0) {
+      if (frontSize == 0) {
+        flip();
+      }
+      if (frontIndexes[frontSize - 1] >= index) {
+        break;
+      }
+      frontAggregates[--frontSize] = null;
+    }
+  }
+
+  /**
+   * The aggregate of all the panes
+   *
+   * @return aggregate or null if there are no panes, it should not be modified
+   */
+  @SuppressWarnings("unchecked")
+  public T query() {
+    T front = frontSize > 0 ? (T) frontAggregates[frontSize - 1] : null;
+    return combine(front, backAggregate);
+  }
+
+  public int size() {
+    return frontSize + backSize;
+  }
+
+  public void clear() {
+    Arrays.fill(frontAggregates, 0, frontSize, null);
+    Arrays.fill(backValues, 0, backSize, null);
+    frontSize = 0;
+    backSize = 0;
+    backAggregate = null;
+  }
+
+  /**
+   * Move the back stack to the front, the oldest pane ends up on the top of the front
+   */
+  @SuppressWarnings("unchecked")
+  private void flip() {
+    if (frontIndexes.length < backSize) {
+      frontIndexes = new long[backIndexes.length];
+      frontAggregates = new Object[backIndexes.length];
+    }
+    T aggregate = null;
+    for (int i = backSize - 1; i >= 0; i--) {
+      aggregate = combine((T) backValues[i], aggregate);
+      frontIndexes[frontSize] = backIndexes[i];
+      frontAggregates[frontSize++] = aggregate;
+      backValues[i] = null;
+    }
+    backSize = 0;
+    backAggregate = null;
+  }
+
+  private T combine(T older, T newer) {
+    if (older == null) {
+      return newer;
+    } else if (newer == null) {
+      return older;
+    }
+    return function.onMessage(older, newer);
+  }
+}
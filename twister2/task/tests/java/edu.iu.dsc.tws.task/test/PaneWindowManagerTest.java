@@ -0,0 +1,219 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.task.window.collectives.FoldWindow;
+import edu.iu.dsc.tws.task.window.config.SlidingCountWindow;
+import edu.iu.dsc.tws.task.window.config.SlidingDurationWindow;
+import edu.iu.dsc.tws.task.window.config.TumblingCountWindow;
+import edu.iu.dsc.tws.task.window.manage.PaneWindowManager;
+import edu.iu.dsc.tws.task.window.function.FoldWindowedFunction;
+import edu.iu.dsc.tws.task.window.manage.SlidingPaneAggregator;
+
+public class PaneWindowManagerTest {
+
+  @Test
+  public void testSlidingCountWindow() {
+    List<Integer> windows = new ArrayList<>();
+    PaneWindowManager<Integer> manager = new PaneWindowManager<>(
+        new SlidingCountWindow(10, 4), (a, b) -> a + b, windows::add);
+    manager.start();
+    for (int i = 1; i <= 40; i++) {
+      manager.add(i, 0);
+    }
+
+    // a window fires every 4 events and covers the last 10 events
+    Assert.assertEquals(10, windows.size());
+    for (int w = 0; w < windows.size(); w++) {
+      int end = (w + 1) * 4;
+      int sum = 0;
+      for (int i = Math.max(1, end - 9); i <= end; i++) {
+        sum += i;
+      }
+      Assert.assertEquals(sum, (int) windows.get(w));
+    }
+  }
+
+  @Test
+  public void testTumblingCountWindow() {
+    List<Integer> windows = new ArrayList<>();
+    PaneWindowManager<Integer> manager = new PaneWindowManager<>(
+        new TumblingCountWindow(5), Math::max, windows::add);
+    for (int i = 0; i < 23; i++) {
+      manager.add(i, 0);
+    }
+    Assert.assertEquals(4, windows.size());
+    Assert.assertEquals(19, (int) windows.get(3));
+  }
+
+  @Test
+  public void testSlidingDurationWindow() {
+    List<Integer> windows = new ArrayList<>();
+    PaneWindowManager<Integer> manager = new PaneWindowManager<>(
+        new SlidingDurationWindow(100, 50), (a, b) -> a + b, windows::add);
+    // one event every 10 ms
+    for (int t = 0; t < 300; t += 10) {
+      manager.add(1, t);
+      if ((t + 10) % 50 == 0) {
+        manager.fire(t + 9);
+      }
+    }
+    Assert.assertEquals(6, windows.size());
+    Assert.assertEquals(5, (int) windows.get(0));
+    for (int w = 1; w < windows.size(); w++) {
+      Assert.assertEquals(10, (int) windows.get(w));
+    }
+    Assert.assertFalse(manager.fire(1000));
+  }
+
+  @Test
+  public void testAggregatorOrder() {
+    SlidingPaneAggregator<String> aggregator = new SlidingPaneAggregator<>((a, b) -> a + b);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      aggregator.push(i, Integer.toString(i % 10));
+      aggregator.evictBefore(i - 6);
+      expected.setLength(0);
+      for (int j = Math.max(0, i - 6); j <= i; j++) {
+        expected.append(j % 10);
+      }
+      Assert.assertEquals(expected.toString(), aggregator.query());
+    }
+    aggregator.evictBefore(1000);
+    Assert.assertEquals(0, aggregator.size());
+    Assert.assertNull(aggregator.query());
+  }
+
+  @Test
+  public void testAggregatorWithArrays() {
+    SlidingPaneAggregator<int[]> aggregator = new SlidingPaneAggregator<>(
+        (a, b) -> new int[]{a[0] + b[0], a[1] + b[1]});
+    int[] first = {1, 0};
+    aggregator.push(0, first);
+    // the aggregates are not copied
+    Assert.assertSame(first, aggregator.query());
+    for (int i = 1; i < 50; i++) {
+      aggregator.push(i, new int[]{1, i});
+      aggregator.evictBefore(i - 3);
+      int lowest = Math.max(0, i - 3);
+      int sum = 0;
+      for (int j = lowest; j <= i; j++) {
+        sum += j;
+      }
+      Assert.assertArrayEquals(new int[]{i - lowest + 1, sum}, aggregator.query());
+    }
+    Assert.assertArrayEquals(new int[]{1, 0}, first);
+  }
+
+  @Test
+  public void testCountWindowWithArrays() {
+    List<int[]> windows = new ArrayList<>();
+    PaneWindowManager<int[]> manager = new PaneWindowManager<>(new SlidingCountWindow(4, 2),
+        (a, b) -> new int[]{a[0] + b[0]}, windows::add);
+    for (int i = 0; i < 10; i++) {
+      manager.add(new int[]{1}, i);
+    }
+    Assert.assertEquals(5, windows.size());
+    Assert.assertEquals(2, windows.get(0)[0]);
+    for (int w = 1; w < windows.size(); w++) {
+      Assert.assertEquals(4, windows.get(w)[0]);
+    }
+  }
+
+  @Test
+  public void testFoldPaneWindow() {
+    List<String> folds = new ArrayList<>();
+    TestFoldWindow window = new TestFoldWindow(new FoldWindowedFunction<int[], String>() {
+      private int[] last;
+
+      @Override
+      public String computeFold() {
+        return Arrays.toString(last);
+      }
+
+      @Override
+      public String computeFold(int[] value) {
+        return Arrays.toString(value);
+      }
+
+      @Override
+      public int[] onMessage(int[] object1, int[] object2) {
+        last = new int[]{object1[0] + object2[0]};
+        return last;
+      }
+    }, folds);
+    PaneWindowManager<int[]> manager = new PaneWindowManager<>(new SlidingCountWindow(4, 2),
+        window.getFunction(), window::onWindow);
+    for (int i = 0; i < 6; i++) {
+      manager.add(new int[]{i}, i);
+    }
+    Assert.assertEquals(Arrays.asList("[1]", "[6]", "[14]"), folds);
+
+    // the window is folded, not the last value computed by the function
+    window.getFunction().onMessage(new int[]{1}, new int[]{2});
+    window.onWindow(new int[]{7});
+    Assert.assertEquals("[7]", folds.get(3));
+  }
+
+  @Test
+  public void testDefaultComputeFold() {
+    FoldWindowedFunction<Integer, String> function = new FoldWindowedFunction<Integer, String>() {
+      @Override
+      public String computeFold() {
+        return "fold";
+      }
+
+      @Override
+      public Integer onMessage(Integer object1, Integer object2) {
+        return object1 + object2;
+      }
+    };
+    Assert.assertEquals("fold", function.computeFold(5));
+  }
+
+  private static class TestFoldWindow extends FoldWindow<int[], String> {
+    private final FoldWindowedFunction<int[], String> function;
+
+    private final List<String> folds;
+
+    TestFoldWindow(FoldWindowedFunction<int[], String> function, List<String> folds) {
+      super(function);
+      this.function = function;
+      this.folds = folds;
+    }
+
+    FoldWindowedFunction<int[], String> getFunction() {
+      return function;
+    }
+
+    void onWindow(int[] value) {
+      onPaneWindow(value);
+    }
+
+    @Override
+    public boolean fold(String content) {
+      return folds.add(content);
+    }
+
+    @Override
+    public boolean foldLateMessage(String lateMessage) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.task.window.api.IWindowMessage;
+import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
+
+public class WindowedSinkWatermarkTest {
+
+  @Test
+  public void testOnTimeAndLateRouting() {
+    TestSink sink = createSink(0);
+
+    sink.onWatermark(100);
+    execute(sink, 150);
+    // the windows before the watermark are computed, so this message is late
+    execute(sink, 50);
+    execute(sink, 120);
+    Assert.assertEquals(Collections.singletonList(50L), sink.late);
+    Assert.assertTrue(sink.windows.isEmpty());
+
+    // the window [100, 200) is computed with the messages received on time
+    sink.onWatermark(300);
+    Assert.assertEquals(Collections.singletonList(Arrays.asList(150L, 120L)), sink.windows);
+    execute(sink, 250);
+    execute(sink, 350);
+    Assert.assertEquals(Arrays.asList(50L, 250L), sink.late);
+
+    sink.onWatermark(500);
+    Assert.assertEquals(Arrays.asList(Arrays.asList(150L, 120L),
+        Collections.singletonList(350L)), sink.windows);
+    sink.close();
+  }
+
+  @Test
+  public void testAllowedLateness() {
+    TestSink sink = createSink(100);
+
+    sink.onWatermark(200);
+    // the watermark minus the lateness is 100
+    execute(sink, 120);
+    execute(sink, 90);
+    Assert.assertEquals(Collections.singletonList(90L), sink.late);
+
+    sink.onWatermark(400);
+    Assert.assertEquals(Collections.singletonList(Collections.singletonList(120L)),
+        sink.windows);
+    sink.close();
+  }
+
+  private static void execute(TestSink sink, long time) {
+    sink.execute(new TaskMessage<>(time, "in", 0));
+  }
+
+  /**
+   * A sink with a tumbling event time window of 100ms
+   */
+  private static TestSink createSink(long lateness) {
+    TestSink sink = new TestSink();
+    sink.withTumblingDurationWindow(100, TimeUnit.MILLISECONDS);
+    sink.withCustomTimestampExtractor(t -> (Long) t);
+    sink.withAllowedLateness(lateness, TimeUnit.MILLISECONDS);
+    sink.prepare(Config.newBuilder().build(), context());
+    return sink;
+  }
+
+  /**
+   * A task with one input edge
+   */
+  private static TaskContext context() {
+    return (TaskContext) Proxy.newProxyInstance(TaskContext.class.getClassLoader(),
+        new Class<?>[]{TaskContext.class}, (proxy, method, args) -> {
+          if ("getInEdges".equals(method.getName())) {
+            return Collections.singletonMap("in", Collections.singleton("source"));
+          } else if (method.getReturnType() == int.class) {
+            return 0;
+          } else if (method.getReturnType() == boolean.class) {
+            return false;
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Records the computed windows and the late messages
+   */
+  private static class TestSink extends BaseWindowedSink<Long> {
+    private List<List<Long>> windows = new ArrayList<>();
+
+    private List<Long> late = new ArrayList<>();
+
+    @Override
+    public boolean execute(IWindowMessage<Long> windowMessage) {
+      List<Long> window = new ArrayList<>();
+      for (IMessage<Long> m : windowMessage.getWindow()) {
+        window.add(m.getContent());
+      }
+      windows.add(window);
+      return true;
+    }
+
+    @Override
+    public boolean getExpire(IWindowMessage<Long> expiredMessages) {
+      return true;
+    }
+
+    @Override
+    public boolean getLateMessages(IMessage<Long> lateMessages) {
+      late.add(lateMessages.getContent());
+      return true;
+    }
+  }
+}
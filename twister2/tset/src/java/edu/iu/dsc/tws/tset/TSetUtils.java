@@ -19,6 +19,9 @@ import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.tset.TBase;
 import edu.iu.dsc.tws.api.tset.TSetContext;
+import edu.iu.dsc.tws.dataset.partition.CollectionPartition;
+import edu.iu.dsc.tws.dataset.partition.TieredCollectionPartition;
+import edu.iu.dsc.tws.dataset.partition.TieredPartitionStore;
 
 public final class TSetUtils {
   private TSetUtils() {
@@ -76,4 +79,15 @@ public final class TSetUtils {
   public static String getDiskCollectionReference(String prefix, TSetContext ctx) {
     return prefix + "_" + ctx.getIndex();
   }
+
+  /**
+   * Creates the partition used to cache data in memory. If tiered partitions are enabled, the
+   * partition is spilled to the disk when the worker runs out of the memory budget.
+   */
+  public static <T> CollectionPartition<T> createCachePartition(TSetContext ctx) {
+    if (TieredPartitionStore.isEnabled(ctx.getConfig())) {
+      return new TieredCollectionPartition<>(ctx.getConfig());
+    }
+    return new CollectionPartition<>();
+  }
 }
@@ -0,0 +1,42 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.row;
+
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.ops.Aggregation;
+import edu.iu.dsc.tws.common.table.ops.TableAggregate;
+import edu.iu.dsc.tws.common.table.ops.VectorOps;
+
+public class TableAggregateCompute implements TableCompute {
+  private int[] keys;
+
+  private List<Aggregation> aggregations;
+
+  public TableAggregateCompute(int[] keys, List<Aggregation> aggregations) {
+    this.keys = keys;
+    this.aggregations = aggregations;
+  }
+
+  @Override
+  public Table compute(List<Table> tables, Schema schema, BufferAllocator allocator) {
+    if (tables.isEmpty()) {
+      return null;
+    }
+    Table table = VectorOps.concat(tables, null, allocator);
+    return TableAggregate.groupBy(table, keys, aggregations, schema, allocator);
+  }
+}
@@ -0,0 +1,36 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.row;
+
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.common.table.Table;
+
+/**
+ * A function applied to all the tables of a partition at once, working on the columns instead
+ * of the rows
+ */
+public interface TableCompute extends TFunction<Table, Table> {
+  /**
+   * Compute the output table
+   *
+   * @param tables the input tables, with the same schema
+   * @param schema schema of the output
+   * @param allocator allocator for the output vectors
+   * @return the output table or null if there is no output
+   */
+  Table compute(List<Table> tables, Schema schema, BufferAllocator allocator);
+}
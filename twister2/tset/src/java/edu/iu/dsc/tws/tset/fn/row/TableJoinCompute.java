@@ -0,0 +1,74 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.row;
+
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.common.table.ArrowTableBuilder;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.ops.TableJoin;
+import edu.iu.dsc.tws.common.table.ops.VectorOps;
+
+public class TableJoinCompute implements TFunction<Table, Table> {
+  private int[] leftKeys;
+
+  private int[] rightKeys;
+
+  private CommunicationContext.JoinType type;
+
+  private CommunicationContext.JoinAlgorithm algorithm;
+
+  /**
+   * Number of columns of the left table, the output has the left columns followed by the right
+   */
+  private int leftColumns;
+
+  public TableJoinCompute(int[] leftKeys, int[] rightKeys, CommunicationContext.JoinType type,
+                          CommunicationContext.JoinAlgorithm algorithm, int leftColumns) {
+    this.leftKeys = leftKeys;
+    this.rightKeys = rightKeys;
+    this.type = type;
+    this.algorithm = algorithm;
+    this.leftColumns = leftColumns;
+  }
+
+  /**
+   * Join the tables of the left and right inputs
+   *
+   * @param left tables of the left input
+   * @param right tables of the right input
+   * @param schema schema of the output
+   * @param allocator allocator for the output vectors
+   * @return the joined table
+   */
+  public Table join(List<Table> left, List<Table> right, Schema schema,
+                    BufferAllocator allocator) {
+    List<Field> fields = schema.getFields();
+    Table l = concat(left, new Schema(fields.subList(0, leftColumns)), allocator);
+    Table r = concat(right, new Schema(fields.subList(leftColumns, fields.size())), allocator);
+    return TableJoin.join(l, r, leftKeys, rightKeys, type, algorithm, schema, allocator);
+  }
+
+  private static Table concat(List<Table> tables, Schema schema, BufferAllocator allocator) {
+    if (tables.isEmpty()) {
+      // an empty table provides the columns of the missing side of an outer join
+      return new ArrowTableBuilder(schema, allocator).build();
+    }
+    return VectorOps.concat(tables, schema, allocator);
+  }
+}
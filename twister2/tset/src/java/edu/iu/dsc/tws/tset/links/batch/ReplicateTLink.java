@@ -23,6 +23,8 @@ import edu.iu.dsc.tws.tset.links.TLinkUtils;
 public class ReplicateTLink<T> extends BatchIteratorLinkWrapper<T> {
   private boolean useDisk = false;
 
+  private boolean pipelined = false;
+
   public ReplicateTLink(BatchTSetEnvironment tSetEnv, int reps, Schema schema) {
     super(tSetEnv, "replicate", 1, reps, schema);
   }
@@ -31,6 +33,7 @@ public class ReplicateTLink<T> extends BatchIteratorLinkWrapper<T> {
   public Edge getEdge() {
     Edge e = new Edge(getId(), OperationNames.BROADCAST, this.getSchema().getDataType());
     e.addProperty(CommunicationContext.USE_DISK, this.useDisk);
+    e.addProperty(CommunicationContext.BROADCAST_PIPELINED, this.pipelined);
     TLinkUtils.generateCommsSchema(getSchema(), e);
     return e;
   }
@@ -45,4 +48,12 @@ public class ReplicateTLink<T> extends BatchIteratorLinkWrapper<T> {
     this.useDisk = true;
     return this;
   }
+
+  /**
+   * Relay large objects through the broadcast tree in buffer sized chunks
+   */
+  public ReplicateTLink<T> pipelined() {
+    this.pipelined = true;
+    return this;
+  }
 }
@@ -11,7 +11,9 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.tset.links.batch.row;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
@@ -31,6 +33,11 @@ public class RowPartitionTLink extends RowBatchTLinkImpl {
 
   private PartitionFunc<Row> partitionFunction;
 
+  /**
+   * The columns used to hash partition the rows when a partition function is not given
+   */
+  private int[] keyColumns;
+
   public RowPartitionTLink(BatchTSetEnvironment tSetEnv,
                            int sourceParallelism, RowSchema schema) {
     this(tSetEnv, null, sourceParallelism, schema);
@@ -70,10 +77,28 @@ public class RowPartitionTLink extends RowBatchTLinkImpl {
     }
     e.addProperty(CommunicationContext.ROW_SCHEMA, ((RowSchema) getSchema()).toArrowSchema());
     e.addProperty(CommunicationContext.USE_DISK, this.useDisk);
+    if (keyColumns != null) {
+      List<Integer> indexes = new ArrayList<>();
+      for (int c : keyColumns) {
+        indexes.add(c);
+      }
+      e.addProperty("indexes", indexes);
+    }
     TLinkUtils.generateCommsSchema(getSchema(), e);
     return e;
   }
 
+  /**
+   * Hash partition the rows on the given columns
+   *
+   * @param columns the key columns
+   * @return this link
+   */
+  public RowPartitionTLink keyColumns(int... columns) {
+    this.keyColumns = columns;
+    return this;
+  }
+
   public RowPartitionTLink useDisk() {
     this.useDisk = true;
     return this;
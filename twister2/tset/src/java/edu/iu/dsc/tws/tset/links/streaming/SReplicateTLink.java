@@ -13,6 +13,7 @@
 
 package edu.iu.dsc.tws.tset.links.streaming;
 
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.compute.OperationNames;
 import edu.iu.dsc.tws.api.compute.graph.Edge;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
@@ -20,6 +21,8 @@ import edu.iu.dsc.tws.tset.env.StreamingTSetEnvironment;
 import edu.iu.dsc.tws.tset.links.TLinkUtils;
 
 public class SReplicateTLink<T> extends StreamingSingleLink<T> {
+  private boolean pipelined = false;
+
   public SReplicateTLink(StreamingTSetEnvironment tSetEnv, int reps, Schema schema) {
     super(tSetEnv, "sreplicate", 1, reps, schema);
   }
@@ -27,6 +30,7 @@ public class SReplicateTLink<T> extends StreamingSingleLink<T> {
   @Override
   public Edge getEdge() {
     Edge e = new Edge(getId(), OperationNames.BROADCAST, this.getSchema().getDataType());
+    e.addProperty(CommunicationContext.BROADCAST_PIPELINED, this.pipelined);
     TLinkUtils.generateCommsSchema(getSchema(), e);
     return e;
   }
@@ -36,4 +40,12 @@ public class SReplicateTLink<T> extends StreamingSingleLink<T> {
     rename(n);
     return this;
   }
+
+  /**
+   * Relay large objects through the broadcast tree in buffer sized chunks
+   */
+  public SReplicateTLink<T> pipelined() {
+    this.pipelined = true;
+    return this;
+  }
 }
@@ -21,11 +21,13 @@ import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
 import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
 import edu.iu.dsc.tws.api.tset.link.streaming.StreamingTLink;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
 import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.tset.env.StreamingTSetEnvironment;
 import edu.iu.dsc.tws.tset.links.BaseTLinkWithSchema;
 import edu.iu.dsc.tws.tset.sets.streaming.SComputeTSet;
 import edu.iu.dsc.tws.tset.sets.streaming.SSinkTSet;
+import edu.iu.dsc.tws.tset.sets.streaming.SWatermarkTSet;
 import edu.iu.dsc.tws.tset.sets.streaming.WindowComputeTSet;
 
 public abstract class StreamingTLinkImpl<T1, T0> extends BaseTLinkWithSchema<T1, T0>
@@ -101,6 +103,25 @@ public abstract class StreamingTLinkImpl<T1, T0> extends BaseTLinkWithSchema<T1,
     return sinkTSet;
   }
 
+  /**
+   * Assign event times to the values and send watermarks with them, the timestamps are in
+   * milliseconds
+   *
+   * @param extractor extracts the event time of a value
+   * @param maxDelay how much a value can be delayed compared to the latest value seen
+   * @param interval minimum advance of the watermark before a new watermark is sent
+   * @param timeUnit unit of the delay and the interval
+   * @return the watermarked TSet
+   */
+  public SWatermarkTSet<T1> assignWatermarks(ITimestampExtractor<T1> extractor, long maxDelay,
+                                             long interval, TimeUnit timeUnit) {
+    SWatermarkTSet<T1> set = new SWatermarkTSet<>(getTSetEnv(), extractor,
+        timeUnit.toMillis(maxDelay), timeUnit.toMillis(interval), getTargetParallelism(),
+        getSchema());
+    addChildToGraph(set);
+    return set;
+  }
+
   public <P> WindowComputeTSet<P, Iterator<T1>> countWindow(long windowLen) {
     this.windowParameter = new WindowParameter();
     this.windowParameter.withTumblingCountWindow(windowLen);
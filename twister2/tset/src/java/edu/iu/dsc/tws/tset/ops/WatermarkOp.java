@@ -0,0 +1,109 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.messaging.Watermarks;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Passes the values to the output edges and writes event time watermarks to them. The watermark
+ * is the largest timestamp seen so far minus the maximum delay, so values can arrive out of order
+ * by up to that delay without being late at the windows down the stream.
+ */
+public class WatermarkOp<T> extends BaseComputeOp<T> {
+  private TimestampFunc<T> timestampFunc;
+
+  /**
+   * Maximum delay of a value compared to the largest timestamp seen
+   */
+  private long maxDelay;
+
+  /**
+   * A new watermark is written only after the watermark advances by this much
+   */
+  private long interval;
+
+  private long maxTimestamp = Watermarks.NONE;
+
+  private long lastWatermark = Watermarks.NONE;
+
+  private TaskContext context;
+
+  private List<String> outEdges;
+
+  public WatermarkOp() {
+  }
+
+  public WatermarkOp(ITimestampExtractor<T> extractor, long maxDelay, long interval,
+                     BaseTSet origin, Map<String, String> receivables) {
+    super(origin, receivables);
+    this.timestampFunc = new TimestampFunc<>(extractor);
+    this.maxDelay = maxDelay;
+    this.interval = interval;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    this.context = ctx;
+    this.outEdges = new ArrayList<>(ctx.getOutEdges().keySet());
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return timestampFunc;
+  }
+
+  @Override
+  public boolean execute(IMessage<T> content) {
+    T value = content.getContent();
+    writeToEdges(value);
+
+    maxTimestamp = Math.max(maxTimestamp, timestampFunc.timestamp(value));
+    long watermark = maxTimestamp - maxDelay;
+    if (lastWatermark == Watermarks.NONE || watermark - lastWatermark >= interval) {
+      boolean written = true;
+      for (String edge : outEdges) {
+        written &= context.writeWatermark(edge, watermark);
+      }
+      // if the output is full, we will try again with the next value
+      if (written) {
+        lastWatermark = watermark;
+      }
+    }
+    return true;
+  }
+
+  private static final class TimestampFunc<T> implements TFunction<Long, T> {
+    private ITimestampExtractor<T> extractor;
+
+    TimestampFunc() {
+    }
+
+    TimestampFunc(ITimestampExtractor<T> extractor) {
+      this.extractor = extractor;
+    }
+
+    long timestamp(T value) {
+      return extractor.extractTimestamp(value);
+    }
+  }
+}
@@ -16,6 +16,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import edu.iu.dsc.tws.api.checkpointing.Snapshot;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.api.compute.TaskContext;
 import edu.iu.dsc.tws.api.compute.modifiers.IONames;
@@ -24,7 +25,9 @@ import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.dataset.DataPartition;
 import edu.iu.dsc.tws.api.tset.TSetContext;
 import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
-import edu.iu.dsc.tws.task.window.api.GlobalStreamId;
+import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
+import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
+import edu.iu.dsc.tws.checkpointing.task.TaskKeyedState;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.api.WindowLifeCycleListener;
 import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
@@ -32,7 +35,7 @@ import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.tset.sets.BaseTSet;
 
 public class WindowComputeOp<O, I> extends BaseWindowedSink<I> implements Receptor,
-    Serializable {
+    CheckpointableTask, Serializable {
 
   private TSetContext tSetContext = new TSetContext();
 
@@ -46,6 +49,11 @@ public class WindowComputeOp<O, I> extends BaseWindowedSink<I> implements Recept
 
   private ComputeFunc<O, Iterator<I>> computeFunction;
 
+  // receives the messages which arrive after their windows are computed
+  private SinkFunc<I> lateDataSink;
+
+  // keyed state available to the compute function through the tset context
+  private transient TaskKeyedState<Object> keyedState;
 
   public WindowComputeOp(ComputeFunc<O, Iterator<I>> computeFunction,
                          WindowParameter winParam) {
@@ -77,6 +85,17 @@ public class WindowComputeOp<O, I> extends BaseWindowedSink<I> implements Recept
   public void prepare(Config cfg, TaskContext ctx) {
     super.prepare(cfg, ctx);
     this.multiEdgeOpAdapter = new MultiEdgeOpAdapter(ctx);
+    this.keyedState = new TaskKeyedState<>(cfg, ctx);
+    this.tSetContext.updateRuntimeInfo(cfg, ctx);
+    this.tSetContext.setKeyedState(keyedState.getBackend());
+    this.computeFunction.prepare(tSetContext);
+    if (lateDataSink != null) {
+      this.lateDataSink.prepare(tSetContext);
+    }
+  }
+
+  public void setLateDataSink(SinkFunc<I> lateDataSink) {
+    this.lateDataSink = lateDataSink;
   }
 
   @Override
@@ -109,29 +128,10 @@ public class WindowComputeOp<O, I> extends BaseWindowedSink<I> implements Recept
 
   @Override
   public boolean getLateMessages(IMessage<I> lateMessages) {
-    // TODO implement this
-    return true;
-  }
-
-  @Override
-  public boolean execute(IMessage<I> content) {
-    if (this.isTimestamped()) {
-      long time = this.iTimestampExtractor.extractTimestamp(content.getContent());
-      GlobalStreamId streamId = new GlobalStreamId(content.edge());
-      if (this.watermarkEventGenerator.track(streamId, time)) {
-        this.windowManager.add(content, time);
-      } else {
-        // TODO : handle the late tuple stream a delayed message won't be handled unless a
-        //  late stream
-        // TODO : Here another latemessage function can be called or we can bundle the late messages
-        //  with the next windowing message
-        this.getLateMessages(content);
-      }
-    } else {
-      this.windowManager.add(content);
+    if (lateDataSink != null) {
+      return lateDataSink.add(lateMessages.getContent());
     }
     return true;
-
   }
 
   @Override
@@ -164,6 +164,36 @@ public class WindowComputeOp<O, I> extends BaseWindowedSink<I> implements Recept
     multiEdgeOpAdapter.keyedWriteToEdges(key, val);
   }
 
+  @Override
+  public void close() {
+    super.close();
+    if (lateDataSink != null) {
+      lateDataSink.close();
+    }
+    if (keyedState != null) {
+      keyedState.close();
+    }
+  }
+
+  @Override
+  public void initSnapshot(Snapshot snapshot) {
+  }
+
+  @Override
+  public void takeSnapshot(Snapshot snapshot) {
+    keyedState.takeSnapshot(snapshot);
+  }
+
+  @Override
+  public void restoreSnapshot(Snapshot snapshot) {
+    keyedState.restoreSnapshot(snapshot);
+  }
+
+  @Override
+  public void onCheckpointPropagated(Snapshot snapshot) {
+    keyedState.onCheckpointPropagated(snapshot);
+  }
+
   @Override
   public void add(String key, DataPartition<?> data) {
     // when it is sent to the tset context, users would not know about the key here. Therefore,
@@ -0,0 +1,97 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops.row;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.api.tset.TSetConstants;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.TableRuntime;
+import edu.iu.dsc.tws.tset.fn.row.TableJoinCompute;
+import edu.iu.dsc.tws.tset.ops.BaseComputeOp;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Joins the tables received from two partition links. The tables of the first input to arrive
+ * are kept until the tables of the other input are received.
+ */
+public class RowJoinOp extends BaseComputeOp<Object> {
+  private TableJoinCompute joinFunction;
+
+  /**
+   * Name of the edge carrying the left input
+   */
+  private String leftEdge;
+
+  private TableRuntime runtime;
+
+  private Schema schema;
+
+  private List<Table> left;
+
+  private List<Table> right;
+
+  public RowJoinOp() {
+  }
+
+  public RowJoinOp(TableJoinCompute joinFunction, String leftEdge, BaseTSet origin,
+                   Map<String, String> receivables) {
+    super(origin, receivables);
+    this.joinFunction = joinFunction;
+    this.leftEdge = leftEdge;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    runtime = WorkerEnvironment.getSharedValue(TableRuntime.TABLE_RUNTIME_CONF,
+        TableRuntime.class);
+    if (runtime == null) {
+      throw new Twister2RuntimeException("Table runtime must be set");
+    }
+    schema = ((RowSchema) ctx.getConfig(TSetConstants.OUTPUT_SCHEMA_KEY)).toArrowSchema();
+  }
+
+  @Override
+  public boolean execute(IMessage<Object> content) {
+    List<Table> tables = RowTableComputeOp.tables(content.getContent());
+    if (leftEdge.equals(content.edge())) {
+      left = tables;
+    } else {
+      right = tables;
+    }
+
+    if (left != null && right != null) {
+      writeToEdges(joinFunction.join(left, right, schema, runtime.getRootAllocator()));
+      left = null;
+      right = null;
+      writeEndToEdges();
+      joinFunction.close();
+    }
+    return true;
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return joinFunction;
+  }
+}
@@ -0,0 +1,109 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops.row;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.api.tset.TSetConstants;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.TableRuntime;
+import edu.iu.dsc.tws.tset.fn.row.TableCompute;
+import edu.iu.dsc.tws.tset.ops.BaseComputeOp;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Applies a {@link TableCompute} to the tables received by the task. Accepts a single table
+ * from a direct link or the iterator of tables from a partition link.
+ */
+public class RowTableComputeOp extends BaseComputeOp<Object> {
+  private TableCompute computeFunction;
+
+  /**
+   * Table runtime to use
+   */
+  private TableRuntime runtime;
+
+  /**
+   * The output schema
+   */
+  private Schema schema;
+
+  public RowTableComputeOp() {
+  }
+
+  public RowTableComputeOp(TableCompute computeFunction, BaseTSet origin,
+                           Map<String, String> receivables) {
+    super(origin, receivables);
+    this.computeFunction = computeFunction;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    runtime = WorkerEnvironment.getSharedValue(TableRuntime.TABLE_RUNTIME_CONF,
+        TableRuntime.class);
+    if (runtime == null) {
+      throw new Twister2RuntimeException("Table runtime must be set");
+    }
+    schema = ((RowSchema) ctx.getConfig(TSetConstants.OUTPUT_SCHEMA_KEY)).toArrowSchema();
+  }
+
+  @Override
+  public boolean execute(IMessage<Object> content) {
+    Table output = computeFunction.compute(tables(content.getContent()), schema,
+        runtime.getRootAllocator());
+    if (output != null) {
+      writeToEdges(output);
+    }
+    writeEndToEdges();
+    computeFunction.close();
+    return true;
+  }
+
+  /**
+   * The tables in a message
+   *
+   * @param content a table or an iterator of tables
+   * @return the tables
+   */
+  static List<Table> tables(Object content) {
+    List<Table> tables = new ArrayList<>();
+    if (content instanceof Table) {
+      tables.add((Table) content);
+    } else if (content instanceof Iterator) {
+      Iterator<?> itr = (Iterator<?>) content;
+      while (itr.hasNext()) {
+        tables.add((Table) itr.next());
+      }
+    } else if (content != null) {
+      throw new Twister2RuntimeException("Un-expected message " + content.getClass());
+    }
+    return tables;
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return computeFunction;
+  }
+}
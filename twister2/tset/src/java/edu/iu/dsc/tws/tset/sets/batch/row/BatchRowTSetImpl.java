@@ -11,9 +11,13 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.tset.sets.batch.row;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.tset.TBase;
 import edu.iu.dsc.tws.api.tset.fn.PartitionFunc;
 import edu.iu.dsc.tws.api.tset.link.batch.BatchRowTLink;
@@ -22,7 +26,12 @@ import edu.iu.dsc.tws.api.tset.schema.Schema;
 import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.api.tset.sets.batch.BatchRowTSet;
 import edu.iu.dsc.tws.common.table.Row;
+import edu.iu.dsc.tws.common.table.TField;
+import edu.iu.dsc.tws.common.table.ops.Aggregation;
 import edu.iu.dsc.tws.tset.env.BatchTSetEnvironment;
+import edu.iu.dsc.tws.tset.fn.row.TableAggregateCompute;
+import edu.iu.dsc.tws.tset.fn.row.TableJoinCompute;
+import edu.iu.dsc.tws.tset.fn.row.TableSortCompute;
 import edu.iu.dsc.tws.tset.links.batch.row.RowDirectLink;
 import edu.iu.dsc.tws.tset.links.batch.row.RowPartitionTLink;
 import edu.iu.dsc.tws.tset.links.batch.row.RowPipeTLink;
@@ -55,6 +64,101 @@ public abstract class BatchRowTSetImpl extends BaseTSetWithSchema<Row> implement
     return null;
   }
 
+  /**
+   * Joins with another row TSet on key columns. Both TSets are hash partitioned on the keys to
+   * the parallelism of this TSet and joined column wise. The rows of the result have the columns
+   * of this TSet followed by the columns of the right TSet.
+   *
+   * @param rightTSet right tset
+   * @param type join type
+   * @param algorithm hash join or sort merge join
+   * @param leftKeys key columns of this tset
+   * @param rightKeys key columns of the right tset, should have the same types as the left keys
+   * @return the joined tset
+   */
+  public BatchRowTSet join(BatchRowTSet rightTSet, CommunicationContext.JoinType type,
+                           CommunicationContext.JoinAlgorithm algorithm,
+                           int[] leftKeys, int[] rightKeys) {
+    BatchRowTSetImpl right = (BatchRowTSetImpl) rightTSet;
+    RowSchema leftSchema = (RowSchema) getOutputSchema();
+    RowSchema rightSchema = (RowSchema) right.getOutputSchema();
+
+    RowPartitionTLink leftLink = new RowPartitionTLink(getTSetEnv(), null,
+        getParallelism(), getParallelism(), leftSchema).keyColumns(leftKeys);
+    addChildToGraph(leftLink);
+    RowPartitionTLink rightLink = new RowPartitionTLink(getTSetEnv(), null,
+        right.getParallelism(), getParallelism(), rightSchema).keyColumns(rightKeys);
+    addChildToGraph(right, rightLink);
+
+    List<TField> fields = leftSchema.getFields();
+    fields.addAll(rightSchema.getFields());
+    RowJoinTSet join = new RowJoinTSet(getTSetEnv(), new TableJoinCompute(leftKeys, rightKeys,
+        type, algorithm, leftSchema.getNumberOfColumns()), leftLink.getId(), getParallelism(),
+        leftSchema, new RowSchema(fields));
+    addChildToGraph(leftLink, join);
+    addChildToGraph(rightLink, join);
+    return join;
+  }
+
+  /**
+   * Sorts the rows of each partition on the given columns
+   *
+   * @param columns the sort columns in order of precedence
+   * @param ascending order of each column, null to sort all columns in ascending order
+   * @return the sorted tset
+   */
+  public BatchRowTSet sort(int[] columns, boolean[] ascending) {
+    RowSchema schema = (RowSchema) getOutputSchema();
+    BatchRowTLink direct = direct();
+    RowTableComputeTSet sort = new RowTableComputeTSet(getTSetEnv(), "sort",
+        new TableSortCompute(columns, ascending), getParallelism(), schema, schema);
+    addChildToGraph(direct, sort);
+    return sort;
+  }
+
+  /**
+   * Groups the rows by the key columns and aggregates the values of each group. The rows are
+   * hash partitioned on the keys and each partition is aggregated column wise. The rows of the
+   * result have the key columns followed by a column for each aggregation.
+   *
+   * @param keys the key columns
+   * @param aggregations the aggregations
+   * @return the aggregated tset
+   */
+  public BatchRowTSet groupBy(int[] keys, Aggregation... aggregations) {
+    RowSchema schema = (RowSchema) getOutputSchema();
+    RowPartitionTLink partition = new RowPartitionTLink(getTSetEnv(), null,
+        getParallelism(), getParallelism(), schema).keyColumns(keys);
+    addChildToGraph(partition);
+
+    List<TField> inFields = schema.getFields();
+    List<TField> outFields = new ArrayList<>();
+    for (int key : keys) {
+      outFields.add(inFields.get(key));
+    }
+    for (Aggregation a : aggregations) {
+      TField in = inFields.get(a.getColumn());
+      String name = a.getFunction().name().toLowerCase() + "_" + in.getName();
+      if (a.getFunction() == Aggregation.Function.SUM) {
+        // integers are summed exactly in to longs
+        boolean floating = in.getType() == MessageTypes.DOUBLE
+            || in.getType() == MessageTypes.FLOAT;
+        outFields.add(new TField(name, floating ? MessageTypes.DOUBLE : MessageTypes.LONG));
+      } else if (a.getFunction() == Aggregation.Function.COUNT) {
+        outFields.add(new TField(name, MessageTypes.INTEGER));
+      } else {
+        outFields.add(new TField(name, in.getType()));
+      }
+    }
+
+    TableAggregateCompute compute = new TableAggregateCompute(keys,
+        new ArrayList<>(Arrays.asList(aggregations)));
+    RowTableComputeTSet aggregate = new RowTableComputeTSet(getTSetEnv(), "groupby",
+        compute, getParallelism(), schema, new RowSchema(outFields));
+    addChildToGraph(partition, aggregate);
+    return aggregate;
+  }
+
   @Override
   public BatchTSetEnvironment getTSetEnv() {
     return (BatchTSetEnvironment) super.getTSetEnv();
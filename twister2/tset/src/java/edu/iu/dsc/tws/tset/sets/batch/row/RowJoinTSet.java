@@ -0,0 +1,44 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.batch.row;
+
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.tset.env.BatchTSetEnvironment;
+import edu.iu.dsc.tws.tset.fn.row.TableJoinCompute;
+import edu.iu.dsc.tws.tset.ops.row.RowJoinOp;
+
+/**
+ * The join of two row TSets. Both inputs are connected through partition links on the key
+ * columns, so that the matching rows arrive to the same task.
+ */
+public class RowJoinTSet extends BatchRowTSetImpl {
+  private TableJoinCompute joinFunc;
+
+  /**
+   * Id of the link carrying the left input
+   */
+  private String leftLink;
+
+  public RowJoinTSet(BatchTSetEnvironment tSetEnv, TableJoinCompute joinFn, String leftLink,
+                     int parallelism, RowSchema inputSchema, RowSchema outputSchema) {
+    super(tSetEnv, "join", parallelism, inputSchema);
+    this.joinFunc = joinFn;
+    this.leftLink = leftLink;
+    setOutputSchema(outputSchema);
+  }
+
+  @Override
+  public INode getINode() {
+    return new RowJoinOp(joinFunc, leftLink, this, getInputs());
+  }
+}
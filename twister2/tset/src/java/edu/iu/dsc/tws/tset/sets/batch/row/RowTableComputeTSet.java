@@ -0,0 +1,42 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.batch.row;
+
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.tset.env.BatchTSetEnvironment;
+import edu.iu.dsc.tws.tset.fn.row.TableCompute;
+import edu.iu.dsc.tws.tset.ops.row.RowTableComputeOp;
+
+/**
+ * A row TSet computed by applying a {@link TableCompute} to the tables of each partition
+ */
+public class RowTableComputeTSet extends BatchRowTSetImpl {
+  private TableCompute computeFunc;
+
+  public RowTableComputeTSet(BatchTSetEnvironment tSetEnv, String name,
+                             TableCompute computeFn, int parallelism,
+                             RowSchema inputSchema, RowSchema outputSchema) {
+    super(tSetEnv, name, parallelism, inputSchema);
+    this.computeFunc = computeFn;
+    setOutputSchema(outputSchema);
+  }
+
+  @Override
+  public INode getINode() {
+    return new RowTableComputeOp(computeFunc, this, getInputs());
+  }
+
+  public TableCompute getComputeFunc() {
+    return computeFunc;
+  }
+}
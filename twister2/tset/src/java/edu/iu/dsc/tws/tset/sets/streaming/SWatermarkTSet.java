@@ -0,0 +1,60 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.streaming;
+
+import java.util.Collections;
+
+import edu.iu.dsc.tws.api.compute.nodes.ICompute;
+import edu.iu.dsc.tws.api.tset.schema.Schema;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.tset.env.StreamingTSetEnvironment;
+import edu.iu.dsc.tws.tset.ops.WatermarkOp;
+
+/**
+ * A streaming TSet which assigns event times to the values and sends watermarks along with them.
+ * The values are not changed. Windows with a timestamp extractor down the stream fire as soon
+ * as these watermarks pass the end of the windows.
+ *
+ * @param <T> type of the values
+ */
+public class SWatermarkTSet<T> extends StreamingTSetImpl<T> {
+  private ITimestampExtractor<T> timestampExtractor;
+
+  private long maxDelay;
+
+  private long interval;
+
+  public SWatermarkTSet(StreamingTSetEnvironment tSetEnv, ITimestampExtractor<T> extractor,
+                        long maxDelay, long interval, int parallelism, Schema inputSchema) {
+    super(tSetEnv, "swatermark", parallelism, inputSchema);
+    this.timestampExtractor = extractor;
+    this.maxDelay = maxDelay;
+    this.interval = interval;
+  }
+
+  @Override
+  public SWatermarkTSet<T> setName(String name) {
+    rename(name);
+    return this;
+  }
+
+  @Override
+  public SWatermarkTSet<T> withSchema(Schema schema) {
+    return (SWatermarkTSet<T>) super.withSchema(schema);
+  }
+
+  @Override
+  public ICompute<T> getINode() {
+    return new WatermarkOp<>(timestampExtractor, maxDelay, interval, this,
+        Collections.emptyMap());
+  }
+}
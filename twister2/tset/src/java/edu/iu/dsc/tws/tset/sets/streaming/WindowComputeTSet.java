@@ -13,11 +13,15 @@ package edu.iu.dsc.tws.tset.sets.streaming;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 import edu.iu.dsc.tws.api.compute.nodes.ICompute;
 import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
 import edu.iu.dsc.tws.api.tset.fn.TFunction;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.task.window.config.WindowConfig;
 import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.tset.env.StreamingTSetEnvironment;
 import edu.iu.dsc.tws.tset.fn.AggregateFunc;
@@ -40,6 +44,12 @@ public class WindowComputeTSet<O, I> extends StreamingTSetImpl<O> {
 
   private WindowParameter windowParameter;
 
+  private ITimestampExtractor<?> timestampExtractor;
+
+  private WindowConfig.Duration allowedLateness;
+
+  private SinkFunc<?> lateDataSink;
+
 //  public WindowComputeTSet(StreamingTSetEnvironment tSetEnv, ComputeFunc<O, I> computeFunction,
 //                           int parallelism, WindowParameter winParam) {
 //    this(tSetEnv, "wcompute", computeFunction, parallelism, winParam);
@@ -88,8 +98,17 @@ public class WindowComputeTSet<O, I> extends StreamingTSetImpl<O> {
   public ICompute<I> getINode() {
     // todo: fix empty map (will have to handle inputs to window functions)
     if (computeFunc instanceof ComputeFunc) {
-      return new WindowComputeOp<>((ComputeFunc<O, Iterator<I>>) computeFunc, this,
-          Collections.emptyMap(), windowParameter);
+      WindowComputeOp<O, I> op = new WindowComputeOp<>(
+          (ComputeFunc<O, Iterator<I>>) computeFunc, this, Collections.emptyMap(),
+          windowParameter);
+      if (timestampExtractor != null) {
+        op.withCustomTimestampExtractor(timestampExtractor);
+      }
+      if (allowedLateness != null) {
+        op.withAllowedLateness(allowedLateness.value, TimeUnit.MILLISECONDS);
+      }
+      op.setLateDataSink((SinkFunc<I>) lateDataSink);
+      return op;
     } else {
       throw new RuntimeException("Unknown function type for window compute: " + computeFunc);
     }
@@ -136,6 +155,44 @@ public class WindowComputeTSet<O, I> extends StreamingTSetImpl<O> {
     return this;
   }
 
+  /**
+   * Use the event time of the values instead of the time they arrive. The windows fire when the
+   * watermarks of the inputs pass their end, see
+   * {@link edu.iu.dsc.tws.tset.links.streaming.StreamingTLinkImpl#assignWatermarks}. If the
+   * inputs do not send watermarks, they are estimated from the timestamps periodically.
+   *
+   * @param extractor extracts the event time of a value in milliseconds
+   * @return this TSet
+   */
+  public WindowComputeTSet<O, I> withTimestampExtractor(ITimestampExtractor<?> extractor) {
+    this.timestampExtractor = extractor;
+    return this;
+  }
+
+  /**
+   * How long the windows wait for the values after the watermark passes their end
+   *
+   * @param lateness the allowed lateness
+   * @param timeUnit unit of the lateness
+   * @return this TSet
+   */
+  public WindowComputeTSet<O, I> withAllowedLateness(long lateness, TimeUnit timeUnit) {
+    this.allowedLateness = new WindowConfig.Duration(lateness, timeUnit);
+    return this;
+  }
+
+  /**
+   * Values arriving after their windows are computed are given to this sink instead of being
+   * dropped
+   *
+   * @param sink the sink for the late values
+   * @return this TSet
+   */
+  public WindowComputeTSet<O, I> withLateDataSink(SinkFunc<?> sink) {
+    this.lateDataSink = sink;
+    return this;
+  }
+
   public WindowComputeTSet<O, I> withSchema(Schema schema) {
     return (WindowComputeTSet<O, I>) super.withSchema(schema);
   }
@@ -15,6 +15,8 @@ package edu.iu.dsc.tws.tset.sinks;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.tset.TSetContext;
 import edu.iu.dsc.tws.dataset.partition.CollectionPartition;
+import edu.iu.dsc.tws.dataset.partition.TieredCollectionPartition;
+import edu.iu.dsc.tws.tset.TSetUtils;
 
 public class CacheGatherSink<T> extends StoreIterSink<Tuple<Integer, T>, T> {
 
@@ -23,7 +25,14 @@ public class CacheGatherSink<T> extends StoreIterSink<Tuple<Integer, T>, T> {
   @Override
   public void prepare(TSetContext ctx) {
     super.prepare(ctx);
-    this.partition = new CollectionPartition<>();
+    this.partition = TSetUtils.createCachePartition(ctx);
+  }
+
+  @Override
+  public void close() {
+    if (partition instanceof TieredCollectionPartition) {
+      ((TieredCollectionPartition<T>) partition).close();
+    }
   }
 
   @Override
@@ -14,6 +14,8 @@ package edu.iu.dsc.tws.tset.sinks;
 
 import edu.iu.dsc.tws.api.tset.TSetContext;
 import edu.iu.dsc.tws.dataset.partition.CollectionPartition;
+import edu.iu.dsc.tws.dataset.partition.TieredCollectionPartition;
+import edu.iu.dsc.tws.tset.TSetUtils;
 
 /**
  * An in-memory cached TSet
@@ -27,7 +29,14 @@ public class CacheIterSink<T> extends StoreIterSink<T, T> {
   @Override
   public void prepare(TSetContext ctx) {
     super.prepare(ctx);
-    this.partition = new CollectionPartition<>();
+    this.partition = TSetUtils.createCachePartition(ctx);
+  }
+
+  @Override
+  public void close() {
+    if (partition instanceof TieredCollectionPartition) {
+      ((TieredCollectionPartition<T>) partition).close();
+    }
   }
 
   @Override
@@ -0,0 +1,165 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTypes;
+import edu.iu.dsc.tws.common.table.ops.Aggregation;
+
+/**
+ * Tests the functions applied by the sort, group by and join operations of the row TSets to the
+ * tables received by a task
+ */
+public class TableComputeTest {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  private IntVector ints(String name, Integer... values) {
+    IntVector vector = new IntVector(name, allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.set(i, values[i]);
+      }
+    }
+    vector.setValueCount(values.length);
+    return vector;
+  }
+
+  private static Table table(FieldVector... vectors) {
+    return new ArrowTable(null, Arrays.asList(vectors));
+  }
+
+  private static Schema schema(String... names) {
+    Field[] fields = new Field[names.length];
+    for (int i = 0; i < names.length; i++) {
+      fields[i] = new Field(names[i], ArrowTypes.INT_FIELD_TYPE, null);
+    }
+    return new Schema(Arrays.asList(fields));
+  }
+
+  private static void assertInts(Table table, int column, Integer... expected) {
+    IntVector vector = (IntVector) table.getColumns().get(column).getVector();
+    Assert.assertEquals(expected.length, vector.getValueCount());
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        Assert.assertTrue("row " + i, vector.isNull(i));
+      } else {
+        Assert.assertFalse("row " + i, vector.isNull(i));
+        Assert.assertEquals("row " + i, (int) expected[i], vector.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSortBatches() {
+    List<Table> tables = Arrays.asList(
+        table(ints("k", 5, 1, null), ints("v", 0, 1, 2)),
+        table(ints("k"), ints("v")),
+        table(ints("k", 3, 1), ints("v", 3, 4)));
+    Table sorted = new TableSortCompute(new int[]{0}, null)
+        .compute(tables, schema("k", "v"), allocator);
+
+    assertInts(sorted, 0, null, 1, 1, 3, 5);
+    assertInts(sorted, 1, 2, 1, 4, 3, 0);
+    Assert.assertNull(new TableSortCompute(new int[]{0}, null)
+        .compute(Collections.emptyList(), schema("k", "v"), allocator));
+  }
+
+  @Test
+  public void testGroupByBatches() {
+    // the rows of a group are spread over the batches
+    List<Table> tables = Arrays.asList(
+        table(ints("k", 1, 2), ints("v", 10, 20)),
+        table(ints("k", 2, 1, 3), ints("v", 5, null, 1)));
+    Table result = new TableAggregateCompute(new int[]{0},
+        Arrays.asList(Aggregation.sum(1), Aggregation.count(1)))
+        .compute(tables, null, allocator);
+
+    assertInts(result, 0, 1, 2, 3);
+    UInt8Vector sums = (UInt8Vector) result.getColumns().get(1).getVector();
+    Assert.assertEquals(10L, sums.get(0));
+    Assert.assertEquals(25L, sums.get(1));
+    Assert.assertEquals(1L, sums.get(2));
+    assertInts(result, 2, 1, 2, 1);
+  }
+
+  @Test
+  public void testJoinBatches() {
+    List<Table> left = Arrays.asList(
+        table(ints("k", 1, 2), ints("a", 10, 20)),
+        table(ints("k", 2, 3), ints("a", 21, 30)));
+    List<Table> right = Collections.singletonList(table(ints("k", 2, 1, 4), ints("b", 1, 2, 3)));
+
+    for (CommunicationContext.JoinAlgorithm algorithm
+        : CommunicationContext.JoinAlgorithm.values()) {
+      Table joined = new TableJoinCompute(new int[]{0}, new int[]{0},
+          CommunicationContext.JoinType.INNER, algorithm, 2)
+          .join(left, right, schema("k", "a", "rk", "b"), allocator);
+      Assert.assertEquals(3, joined.rowCount());
+      int sum = 0;
+      for (int i = 0; i < joined.rowCount(); i++) {
+        IntVector k = (IntVector) joined.getColumns().get(0).getVector();
+        IntVector rk = (IntVector) joined.getColumns().get(2).getVector();
+        IntVector a = (IntVector) joined.getColumns().get(1).getVector();
+        Assert.assertEquals(k.get(i), rk.get(i));
+        sum += a.get(i);
+      }
+      Assert.assertEquals(20 + 21 + 10, sum);
+    }
+  }
+
+  @Test
+  public void testOuterJoinWithoutRightTables() {
+    // a task may not receive any table from one side
+    List<Table> left = Collections.singletonList(table(ints("k", 1, 2), ints("a", 10, 20)));
+
+    for (CommunicationContext.JoinAlgorithm algorithm
+        : CommunicationContext.JoinAlgorithm.values()) {
+      Table joined = new TableJoinCompute(new int[]{0}, new int[]{0},
+          CommunicationContext.JoinType.LEFT, algorithm, 2)
+          .join(left, Collections.emptyList(), schema("k", "a", "rk", "b"), allocator);
+      assertInts(joined, 0, 1, 2);
+      assertInts(joined, 1, 10, 20);
+      assertInts(joined, 2, null, null);
+      assertInts(joined, 3, null, null);
+
+      joined = new TableJoinCompute(new int[]{0}, new int[]{0},
+          CommunicationContext.JoinType.INNER, algorithm, 2)
+          .join(left, Collections.emptyList(), schema("k", "a", "rk", "b"), allocator);
+      Assert.assertEquals(0, joined.rowCount());
+    }
+  }
+}
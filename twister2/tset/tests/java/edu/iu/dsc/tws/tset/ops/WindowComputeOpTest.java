@@ -0,0 +1,132 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
+import edu.iu.dsc.tws.task.window.util.WindowParameter;
+
+public class WindowComputeOpTest {
+  private static final String IN_EDGE = "in";
+
+  private static final String OUT_EDGE = "out";
+
+  private List<List<Long>> windows = new ArrayList<>();
+
+  private List<Long> late = new ArrayList<>();
+
+  @Test
+  public void testOnTimeAndLateRouting() {
+    WindowComputeOp<List<Long>, Long> op = createOp(0);
+
+    op.onWatermark(100);
+    execute(op, 150);
+    // the windows before the watermark are computed, so this goes to the late data sink
+    execute(op, 50);
+    execute(op, 120);
+    Assert.assertEquals(Collections.singletonList(50L), late);
+    Assert.assertTrue(windows.isEmpty());
+
+    // the window [100, 200) is computed and written to the output edge
+    op.onWatermark(300);
+    Assert.assertEquals(Collections.singletonList(Arrays.asList(150L, 120L)), windows);
+    execute(op, 250);
+    execute(op, 350);
+    Assert.assertEquals(Arrays.asList(50L, 250L), late);
+
+    op.onWatermark(500);
+    Assert.assertEquals(Arrays.asList(Arrays.asList(150L, 120L),
+        Collections.singletonList(350L)), windows);
+    op.close();
+  }
+
+  @Test
+  public void testAllowedLateness() {
+    WindowComputeOp<List<Long>, Long> op = createOp(100);
+
+    op.onWatermark(200);
+    // the watermark minus the lateness is 100
+    execute(op, 120);
+    execute(op, 90);
+    Assert.assertEquals(Collections.singletonList(90L), late);
+
+    op.onWatermark(400);
+    Assert.assertEquals(Collections.singletonList(Collections.singletonList(120L)), windows);
+    op.close();
+  }
+
+  private void execute(WindowComputeOp<List<Long>, Long> op, long time) {
+    op.execute(new TaskMessage<>(time, IN_EDGE, 0));
+  }
+
+  /**
+   * Create an op with a tumbling event time window of 100ms, the computed windows and the late
+   * messages are recorded
+   */
+  @SuppressWarnings("unchecked")
+  private WindowComputeOp<List<Long>, Long> createOp(long lateness) {
+    ComputeFunc<List<Long>, Iterator<Long>> compute = input -> {
+      List<Long> window = new ArrayList<>();
+      input.forEachRemaining(window::add);
+      return window;
+    };
+    WindowComputeOp<List<Long>, Long> op = new WindowComputeOp<>(compute,
+        new WindowParameter().withTumblingDurationWindow(100, TimeUnit.MILLISECONDS));
+    op.withCustomTimestampExtractor(t -> (Long) t);
+    op.withAllowedLateness(lateness, TimeUnit.MILLISECONDS);
+    op.setLateDataSink((SinkFunc<Long>) value -> late.add(value));
+    op.prepare(Config.newBuilder().build(), context());
+    return op;
+  }
+
+  /**
+   * A task with one input and one output edge, the output of the windows is recorded
+   */
+  @SuppressWarnings("unchecked")
+  private TaskContext context() {
+    return (TaskContext) Proxy.newProxyInstance(TaskContext.class.getClassLoader(),
+        new Class<?>[]{TaskContext.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getInEdges":
+              return Collections.singletonMap(IN_EDGE, Collections.singleton("source"));
+            case "getOutEdges":
+              return Collections.singletonMap(OUT_EDGE, "sink");
+            case "taskName":
+              return "window";
+            case "write":
+              windows.add((List<Long>) args[args.length - 1]);
+              return true;
+            default:
+              if (method.getReturnType() == int.class) {
+                return 0;
+              } else if (method.getReturnType() == boolean.class) {
+                return false;
+              }
+              return null;
+          }
+        });
+  }
+}
@@ -0,0 +1,56 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops.row;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+public class RowTableComputeOpTest {
+  private static Table table() {
+    IntVector vector = new IntVector("k", new RootAllocator(Long.MAX_VALUE));
+    vector.allocateNew(1);
+    vector.set(0, 1);
+    vector.setValueCount(1);
+    return new ArrowTable(null, Collections.singletonList(vector));
+  }
+
+  @Test
+  public void testTablesOfDirectLink() {
+    Table t = table();
+    List<Table> tables = RowTableComputeOp.tables(t);
+    Assert.assertEquals(1, tables.size());
+    Assert.assertSame(t, tables.get(0));
+  }
+
+  @Test
+  public void testTablesOfPartitionLink() {
+    List<Table> input = Arrays.asList(table(), table(), table());
+    Assert.assertEquals(input, RowTableComputeOp.tables(input.iterator()));
+    Assert.assertTrue(RowTableComputeOp.tables(Collections.emptyIterator()).isEmpty());
+    Assert.assertTrue(RowTableComputeOp.tables(null).isEmpty());
+  }
+
+  @Test(expected = Twister2RuntimeException.class)
+  public void testUnexpectedMessage() {
+    RowTableComputeOp.tables("not a table");
+  }
+}
@@ -94,6 +94,10 @@ deploy_library \
   twister2/api/src/java/edu/iu/dsc/tws/api/scheduler \
   scheduler-api-java
 
+deploy_library \
+  twister2/api/src/java/edu/iu/dsc/tws/api/state \
+  state-api-java
+
 deploy_library \
   twister2/api/src/java/edu/iu/dsc/tws/api/compute \
   task-api-java
@@ -114,6 +118,10 @@ deploy_library \
   twister2/api/src/java/edu/iu/dsc/tws/api/driver \
   driver-api-java
 
+deploy_library \
+  twister2/api/src/java/edu/iu/dsc/tws/api/metrics \
+  metrics-api-java
+
 # End of APIs
 
 deploy_library \